@@ -0,0 +1,86 @@
+# Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import heapq
+import importlib
+import sys
+
+
+def load_pure_heapq():
+    # import a second copy of heapq with the accelerator module hidden
+    saved = sys.modules.pop('heapq')
+    sys.modules['_heapq'] = None
+    try:
+        return importlib.import_module('heapq')
+    finally:
+        del sys.modules['_heapq']
+        sys.modules['heapq'] = saved
+
+
+pure_heapq = load_pure_heapq()
+
+
+def run(mod, num):
+    ints = [(i * 7919) % num for i in range(num)]
+    floats = [x * 0.5 for x in ints]
+    strs = ["s%08d" % x for x in ints[:num // 10]]
+    checksum = 0
+    for data in (ints, floats, strs):
+        heap = []
+        for x in data:
+            mod.heappush(heap, x)
+        for x in data[:len(data) // 2]:
+            mod.heappushpop(heap, x)
+        while heap:
+            mod.heappop(heap)
+            checksum += 1
+        heap = list(data)
+        mod.heapify(heap)
+        checksum += len(mod.nsmallest(10, heap)) + len(mod.nlargest(10, heap))
+    return checksum
+
+
+def measure(num):
+    fast = run(heapq, num)
+    pure = run(pure_heapq, num // 10)
+    print("Checksum ", fast, pure)
+
+
+def __benchmark__(num=1000000):
+    measure(num)
@@ -0,0 +1,86 @@
+# Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import io
+import pickle
+
+
+class Point:
+    def __init__(self, x, y):
+        self.x = x
+        self.y = y
+
+
+def make_data(num):
+    records = []
+    for i in range(num):
+        records.append({
+            'id': i,
+            'name': "item%d" % i,
+            'price': i * 0.25,
+            'tags': ('a', 'b', i % 7),
+            'point': Point(i, -i),
+            'payload': b'x' * (i % 64),
+        })
+    shared = records[:num // 10]
+    return [records, shared, list(range(num)), [str(i) for i in range(num // 10)]]
+
+
+def run(data, protocol):
+    checksum = 0
+    s = pickle.dumps(data, protocol=protocol)
+    checksum += len(s)
+    checksum += len(pickle.loads(s)[0])
+    f = io.BytesIO()
+    pickle.Pickler(f, protocol=protocol).dump(data)
+    f.seek(0)
+    checksum += len(pickle.Unpickler(f).load()[2])
+    return checksum
+
+
+def measure(num):
+    data = make_data(num)
+    checksum = 0
+    for protocol in (0, 2, pickle.DEFAULT_PROTOCOL, pickle.HIGHEST_PROTOCOL):
+        checksum += run(data, protocol)
+    print("Checksum ", checksum)
+
+
+def __benchmark__(num=200000):
+    measure(num)
@@ -108,6 +108,7 @@ def add_graalpython_core():
         l.append(f"{modname} : {modname} = {modpath}")
     for name in [
         "__graalpython__",
+        "_decimal",
         "_sre",
         "_struct",
         "_sysconfig",
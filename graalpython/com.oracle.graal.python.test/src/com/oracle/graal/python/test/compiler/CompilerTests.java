@@ -57,6 +57,9 @@ import org.junit.rules.TestName;
 import com.oracle.graal.python.compiler.CodeUnit;
 import com.oracle.graal.python.compiler.CompilationUnit;
 import com.oracle.graal.python.compiler.Compiler;
+import com.oracle.graal.python.compiler.LazyCodeUnit;
+import com.oracle.graal.python.compiler.OpCodes;
+import com.oracle.graal.python.compiler.QuickeningTypes;
 import com.oracle.graal.python.pegparser.ErrorCallback;
 import com.oracle.graal.python.pegparser.InputType;
 import com.oracle.graal.python.pegparser.Parser;
@@ -479,6 +482,94 @@ public class CompilerTests extends PythonTests {
         doTest(source);
     }
 
+    @Test
+    public void testSuperinstructions() {
+        String source = "def foo(obj, a, b):\n" +
+                        "    return (obj.attr, a, b)\n";
+        checkCodeUnit(assemble(source, InputType.FILE, EnumSet.of(Compiler.Flags.SUPERINSTRUCTIONS)));
+    }
+
+    @Test
+    public void testSuperinstructionReturnConst() {
+        String source = "def foo(flag):\n" +
+                        "    if flag:\n" +
+                        "        return 'a'\n" +
+                        "    return 'b'\n";
+        CodeUnit foo = functionCode(assemble(source, InputType.FILE, EnumSet.of(Compiler.Flags.SUPERINSTRUCTIONS)));
+        int[] returns = new int[1];
+        foo.iterateBytecode((bci, op, oparg, followingArgs) -> {
+            Assert.assertNotEquals(OpCodes.RETURN_VALUE, op);
+            if (op == OpCodes.RETURN_CONST) {
+                returns[0]++;
+            }
+        });
+        Assert.assertEquals(2, returns[0]);
+    }
+
+    @Test
+    public void testConstantFrozenset() {
+        CodeUnit co = assemble("x in {1, 2, 3}\n", InputType.FILE, EnumSet.of(Compiler.Flags.OPTIMIZE_AST));
+        boolean[] found = new boolean[1];
+        co.iterateBytecode((bci, op, oparg, followingArgs) -> {
+            Assert.assertNotEquals(OpCodes.FROZENSET_FROM_LIST, op);
+            if (op == OpCodes.LOAD_CONST_COLLECTION) {
+                Assert.assertEquals(OpCodes.CollectionBits.KIND_SET, OpCodes.CollectionBits.collectionKind(Byte.toUnsignedInt(followingArgs[0])));
+                Assert.assertArrayEquals(new int[]{1, 2, 3}, (int[]) co.constants[oparg]);
+                found[0] = true;
+            }
+        });
+        Assert.assertTrue(found[0]);
+    }
+
+    @Test
+    public void testQuickenBinaryOpLongLocalIntConstant() {
+        CodeUnit f = functionCode(assemble("def f(h):\n    return h * 31\n", InputType.FILE));
+        // The local may stay a long even though the constant is an int (BINARY_OP_LI_*)
+        Assert.assertNotEquals(0, outputCanQuicken(f, OpCodes.LOAD_FAST) & QuickeningTypes.LONG);
+        Assert.assertNotEquals(0, outputCanQuicken(f, OpCodes.LOAD_BYTE) & QuickeningTypes.INT);
+    }
+
+    @Test
+    public void testQuickenBinaryOpIntLocalDoubleConstant() {
+        CodeUnit f = functionCode(assemble("def f(x):\n    return x * 0.5\n", InputType.FILE));
+        // The local may stay an int even though the constant is a double (BINARY_OP_ID_*)
+        Assert.assertNotEquals(0, outputCanQuicken(f, OpCodes.LOAD_FAST) & QuickeningTypes.INT);
+        Assert.assertNotEquals(0, outputCanQuicken(f, OpCodes.LOAD_DOUBLE) & QuickeningTypes.DOUBLE);
+    }
+
+    @Test
+    public void testQuickenBinaryOpIntConstantDoubleLocal() {
+        CodeUnit f = functionCode(assemble("def f(x):\n    return 2 * x\n", InputType.FILE));
+        // The local may be a double while the constant stays an int (BINARY_OP_ID_*)
+        Assert.assertNotEquals(0, outputCanQuicken(f, OpCodes.LOAD_FAST) & QuickeningTypes.DOUBLE);
+        Assert.assertNotEquals(0, outputCanQuicken(f, OpCodes.LOAD_BYTE) & QuickeningTypes.INT);
+    }
+
+    @Test
+    public void testLazyFunctions() {
+        // printing compiles the lazy code units, they must be the same as the eagerly compiled ones
+        String source = "class A:\n" +
+                        "    def m(self, x):\n" +
+                        "        def inner():\n" +
+                        "            return x + __class__.y\n" +
+                        "        return inner\n" +
+                        "def gen(a, *args, **kw):\n" +
+                        "    '''doc'''\n" +
+                        "    yield from [i for i in args]\n";
+        Assert.assertEquals(assemble(source, InputType.FILE).toString(), assemble(source, InputType.FILE, EnumSet.of(Compiler.Flags.LAZY_FUNCTIONS)).toString());
+    }
+
+    @Test
+    public void testLazyFunctionSyntaxError() {
+        CodeUnit co = assemble("def f():\n    break\n", InputType.FILE, EnumSet.of(Compiler.Flags.LAZY_FUNCTIONS));
+        try {
+            co.toString();
+            fail("Expected SyntaxError");
+        } catch (SyntaxError e) {
+            Assert.assertThat(e.message, CoreMatchers.containsString("'break' outside loop"));
+        }
+    }
+
     @Test
     public void testClosure() {
         String s = "def foo():\n" +
@@ -1092,14 +1183,41 @@ public class CompilerTests extends PythonTests {
     }
 
     private static CodeUnit assemble(String src, InputType type) {
+        return assemble(src, type, EnumSet.noneOf(Compiler.Flags.class));
+    }
+
+    private static CodeUnit assemble(String src, InputType type, EnumSet<Compiler.Flags> flags) {
         ErrorCallback errorCallback = new TestErrorCallbackImpl();
         Parser parser = Compiler.createParser(src, errorCallback, type, false);
         ModTy result = (ModTy) parser.parse();
         Compiler compiler = new Compiler(errorCallback);
-        CompilationUnit cu = compiler.compile(result, EnumSet.noneOf(Compiler.Flags.class), 2);
+        CompilationUnit cu = compiler.compile(result, flags, 2);
         return cu.assemble();
     }
 
+    private static CodeUnit functionCode(CodeUnit module) {
+        for (Object c : module.constants) {
+            if (LazyCodeUnit.isCodeUnit(c)) {
+                return LazyCodeUnit.resolve(c);
+            }
+        }
+        throw new AssertionError("no function code in module");
+    }
+
+    private static byte outputCanQuicken(CodeUnit co, OpCodes opcode) {
+        byte[] result = new byte[1];
+        boolean[] found = new boolean[1];
+        co.iterateBytecode((bci, op, oparg, followingArgs) -> {
+            if (op == opcode || op.quickens == opcode) {
+                Assert.assertFalse("multiple " + opcode + " instructions", found[0]);
+                found[0] = true;
+                result[0] = co.outputCanQuicken[bci];
+            }
+        });
+        Assert.assertTrue("no " + opcode + " instruction", found[0]);
+        return result[0];
+    }
+
     private void checkCodeUnit(CodeUnit co) {
         String coString = co.toString();
         Path goldenFile = Paths.get(System.getProperty("org.graalvm.language.python.home"),
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2023, 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.test.compiler;
+
+import static com.oracle.graal.python.util.PythonUtils.TS_ENCODING;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import com.oracle.graal.python.compiler.Compiler;
+import com.oracle.graal.python.compiler.SSTOptimizer;
+import com.oracle.graal.python.compiler.Unparser;
+import com.oracle.graal.python.pegparser.ErrorCallback;
+import com.oracle.graal.python.pegparser.InputType;
+import com.oracle.graal.python.pegparser.Parser;
+import com.oracle.graal.python.pegparser.sst.ExprTy;
+import com.oracle.graal.python.pegparser.sst.ModTy;
+import com.oracle.graal.python.pegparser.sst.StmtTy;
+import com.oracle.graal.python.test.PythonTests;
+import com.oracle.truffle.api.strings.TruffleString;
+
+public class SSTOptimizerTests extends PythonTests {
+
+    @Test
+    public void testFoldArithmetic() {
+        checkOptimized("60 * 60 * 24", "86400");
+        checkOptimized("-(1 + 2) * 3", "-9");
+        checkOptimized("7 // -2, 7 % -2, -7 // 2, -7 % 2", "(-4, -1, -4, 1)");
+        checkOptimized("1 << 10 | 3 & 2 ^ 1", "1027");
+        checkOptimized("~5", "-6");
+        checkOptimized("2 ** 64", "18446744073709551616");
+        checkOptimized("1.5 * 2", "3.0");
+        checkOptimized("1 / 4", "0.25");
+        checkOptimized("not 0", "True");
+    }
+
+    @Test
+    public void testNoFoldAtRuntimeError() {
+        checkOptimized("1 // 0", "1 // 0");
+        checkOptimized("1 / 0.0", "1 / 0.0");
+        checkOptimized("2 ** -1", "2 ** -1");
+        checkOptimized("1 << -1", "1 << -1");
+        checkOptimized("'a' + 1", "'a' + 1");
+        // ints that a double cannot represent exactly are left to the runtime conversion
+        checkOptimized("9007199254740993 * 1.0", "9007199254740993 * 1.0");
+        checkOptimized("9007199254740993 / 3", "9007199254740993 / 3");
+    }
+
+    @Test
+    public void testSizeLimits() {
+        checkOptimized("'ab' * 3 + 'c'", "'abababc'");
+        checkOptimized("(1, 2) * 2", "(1, 2, 1, 2)");
+        checkOptimized("2 ** 1000", "2 ** 1000");
+        checkOptimized("'x' * 100000", "'x' * 100000");
+    }
+
+    @Test
+    public void testFoldKeepsLoneSurrogates() {
+        // the runtime keeps lone surrogates as separate code points, so folding must not pair them
+        checkCodePointLength("'\ud800' + '\udc00'", 2);
+        checkCodePointLength("'\udc00\ud800' * 2", 4);
+    }
+
+    @Test
+    public void testFoldCollections() {
+        checkOptimized("x in [1, 2, 3]", "x in (1, 2, 3)");
+        checkOptimized("x not in {'a', 'b'}", "x not in frozenset({'a', 'b'})");
+        checkOptimized("[1, 2, 3]", "[1, 2, 3]");
+        checkOptimized("[y for y in [1, 2]]", "[y for y in (1, 2)]");
+    }
+
+    @Test
+    public void testDebug() {
+        checkOptimized("__debug__", "True", 0);
+        checkOptimized("__debug__", "False", 1);
+        checkOptimized("a if __debug__ else b", "a", 0);
+        checkOptimized("(lambda: 1) if not __debug__ else a", "(lambda: 1) if False else a", 0);
+    }
+
+    @Test
+    public void testDeadCode() {
+        checkStatements("if 0:\n    f()\nelse:\n    g()\nh()\n", StmtTy.Expr.class, StmtTy.Expr.class);
+        checkStatements("if 0:\n    x = 1\n", StmtTy.If.class);
+        checkStatements("if 0:\n    global x\n", StmtTy.If.class);
+        checkStatements("while 0:\n    f()\n", StmtTy.Pass.class);
+        checkStatements("if 1:\n    'not a docstring'\n", StmtTy.If.class);
+        checkStatements("f()\nif 1:\n    'not a docstring'\n", StmtTy.Expr.class, StmtTy.Expr.class);
+        StmtTy.FunctionDef f = (StmtTy.FunctionDef) optimizeModule("def f():\n    return 1\n    g()\n").body[0];
+        assertEquals(1, f.body.length);
+        f = (StmtTy.FunctionDef) optimizeModule("def f():\n    return\n    yield\n").body[0];
+        assertEquals(2, f.body.length);
+    }
+
+    @Test
+    public void testUnchangedTreeIsShared() {
+        ModTy mod = parse("def f(a, b=1):\n    return a + b\n", InputType.FILE);
+        assertSame(mod, SSTOptimizer.optimize(mod, 0));
+    }
+
+    private static void checkOptimized(String source, String expected) {
+        checkOptimized(source, expected, 0);
+    }
+
+    private static void checkOptimized(String source, String expected, int optimizationLevel) {
+        ModTy.Expression result = (ModTy.Expression) SSTOptimizer.optimize(parse(source, InputType.EVAL), optimizationLevel);
+        assertEquals(expected, Unparser.unparse(result.body).toJavaStringUncached());
+    }
+
+    private static void checkCodePointLength(String source, int expected) {
+        ModTy.Expression result = (ModTy.Expression) SSTOptimizer.optimize(parse(source, InputType.EVAL), 0);
+        TruffleString value = ((ExprTy.Constant) result.body).value.getRaw(TruffleString.class);
+        assertEquals(expected, value.codePointLengthUncached(TS_ENCODING));
+    }
+
+    private static void checkStatements(String source, Class<?>... expectedTypes) {
+        StmtTy[] body = optimizeModule(source).body;
+        assertEquals(expectedTypes.length, body.length);
+        for (int i = 0; i < body.length; i++) {
+            assertSame(expectedTypes[i], body[i].getClass());
+        }
+    }
+
+    private static ModTy.Module optimizeModule(String source) {
+        return (ModTy.Module) SSTOptimizer.optimize(parse(source, InputType.FILE), 0);
+    }
+
+    private static ModTy parse(String source, InputType type) {
+        ErrorCallback errorCallback = new CompilerTests.TestErrorCallbackImpl();
+        Parser parser = Compiler.createParser(source, errorCallback, type, false);
+        return (ModTy) parser.parse();
+    }
+}
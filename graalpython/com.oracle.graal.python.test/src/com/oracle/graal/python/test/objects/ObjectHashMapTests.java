@@ -42,7 +42,9 @@ package com.oracle.graal.python.test.objects;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
@@ -55,6 +57,7 @@ import java.util.stream.Collectors;
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.common.EconomicMapStorage;
 import com.oracle.graal.python.builtins.objects.common.HashingStorage;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes.HashingStorageForEachCallback;
@@ -156,6 +159,214 @@ public class ObjectHashMapTests {
         }
     }
 
+    @Test
+    public void testReusingDummyBuckets() {
+        // sliding window: remove the oldest key and insert a new one, some of the keys collide
+        ObjectHashMap map = new ObjectHashMap();
+        LinkedHashMap<DictKey, Object> expected = new LinkedHashMap<>();
+        ArrayList<DictKey> window = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            DictKey key = new DictKey(i % 3 == 0 ? 42 : i % 11);
+            Object value = newValue();
+            window.add(key);
+            expected.put(key, value);
+            put(map, key, key.hash, value);
+            if (window.size() > 5) {
+                DictKey oldest = window.remove(0);
+                expected.remove(oldest);
+                remove(map, oldest, oldest.hash);
+            }
+            assertEqual(i, expected, map);
+        }
+        // remove the newest key and insert it again, which must keep the insertion order
+        for (int i = 0; i < 100; i++) {
+            DictKey newest = window.get(window.size() - 1);
+            expected.remove(newest);
+            remove(map, newest, newest.hash);
+            assertEqual(i, expected, map);
+            Object value = newValue();
+            expected.put(newest, value);
+            put(map, newest, newest.hash, value);
+            assertEqual(i, expected, map);
+        }
+    }
+
+    @Test
+    public void testChurnReusesCompactSlot() {
+        // the churned key collides with the resident key, yet it must keep using the same compact
+        // slot instead of taking a fresh one on every insertion until the map is rehashed
+        ObjectHashMap map = new ObjectHashMap();
+        DictKey resident = new DictKey(42);
+        put(map, resident, resident.hash, newValue());
+        DictKey churned = new DictKey(42);
+        for (int i = 0; i < 1000; i++) {
+            Object value = newValue();
+            put(map, churned, churned.hash, value);
+            assertSame(churned, map.getKey(1));
+            assertSame(value, map.getValue(1));
+            assertNull(map.getValue(2));
+            remove(map, churned, churned.hash);
+            assertNull(map.getValue(1));
+            assertEquals(1, map.size());
+        }
+    }
+
+    @Test
+    public void testGrowingAcrossIndexWidths() {
+        // enough keys to go through the byte, short and int wide sparse indices
+        ObjectHashMap map = new ObjectHashMap();
+        LinkedHashMap<DictKey, Object> expected = new LinkedHashMap<>();
+        ArrayList<DictKey> keys = new ArrayList<>();
+        for (int i = 0; i < 70000; i++) {
+            // hashes are chosen so that there are also some collisions
+            DictKey key = new DictKey(i % 1000 == 0 ? 42 : i * 31L);
+            Object value = newValue();
+            keys.add(key);
+            expected.put(key, value);
+            put(map, key, key.hash, value);
+            if (i == 90 || i == 100 || i == 24000 || i == 25000) {
+                assertEqual(i, expected, map);
+            }
+        }
+        assertEqual("after put", expected, map);
+        for (int i = 0; i < keys.size(); i += 2) {
+            DictKey key = keys.get(i);
+            expected.remove(key);
+            remove(map, key, key.hash);
+        }
+        assertEqual("after remove", expected, map);
+        for (int i = 0; i < keys.size(); i += 2) {
+            assertNull(get(map, keys.get(i), keys.get(i).hash));
+        }
+    }
+
+    @Test
+    public void testKeysOnlyMap() {
+        ObjectHashMap map = new ObjectHashMap(0, false, true);
+        LinkedHashMap<DictKey, Object> expected = new LinkedHashMap<>();
+        ArrayList<DictKey> keys = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            DictKey key = new DictKey(i % 5 == 0 ? 42 : i);
+            keys.add(key);
+            expected.put(key, PNone.NONE);
+            put(map, key, key.hash, PNone.NONE);
+            assertEqual(i, expected, map);
+        }
+        for (int i = 0; i < 150; i++) {
+            DictKey key = keys.get(i);
+            expected.remove(key);
+            remove(map, key, key.hash);
+            assertEqual(i, expected, map);
+        }
+        assertTrue(map.isKeysOnly());
+        ObjectHashMap copy = map.copy();
+        assertTrue(copy.isKeysOnly());
+
+        // storing a value other than None generalizes the layout
+        DictKey key = keys.get(160);
+        Object value = newValue();
+        expected.put(key, value);
+        put(map, key, key.hash, value);
+        assertFalse(map.isKeysOnly());
+        assertEqual("generalized", expected, map);
+        for (int i = 0; i < 100; i++) {
+            DictKey newKey = new DictKey(i);
+            Object newVal = newValue();
+            expected.put(newKey, newVal);
+            put(map, newKey, newKey.hash, newVal);
+            assertEqual(i, expected, map);
+        }
+        // the copy is not affected
+        assertTrue(copy.isKeysOnly());
+        assertEquals(PNone.NONE, get(copy, key, key.hash));
+    }
+
+    @Test
+    public void testLongKeysMap() {
+        ObjectHashMap map = new ObjectHashMap(0, false, false, true);
+        LinkedHashMap<Object, Object> expected = new LinkedHashMap<>();
+        Random rand = new Random(42);
+        for (int i = 0; i < 300; i++) {
+            // outside of the int range, so that the keys are given back to us as Long
+            Long key = (1L << 40) + rand.nextInt(500);
+            Object value = newValue();
+            expected.put(key, value);
+            put(map, key, getKeyHash(key), value);
+            assertEqual(i, expected, map);
+        }
+        for (int i = 0; i < 100; i++) {
+            Long key = (1L << 40) + rand.nextInt(500);
+            expected.remove(key);
+            remove(map, key, getKeyHash(key));
+            assertEqual(i, expected, map);
+        }
+        assertTrue(map.hasLongKeys());
+
+        // inserting a key that is not int generalizes the layout
+        DictKey dictKey = new DictKey(42);
+        Object value = newValue();
+        expected.put(dictKey, value);
+        put(map, dictKey, dictKey.hash, value);
+        assertFalse(map.hasLongKeys());
+        assertEqual("generalized", expected, map);
+        for (Object key : expected.keySet().toArray()) {
+            expected.remove(key);
+            remove(map, key, getKeyHash(key));
+        }
+        assertEqual("removed", expected, map);
+
+        // keys that fit into int are given back as Integer
+        ObjectHashMap intMap = new ObjectHashMap(0, false, false, true);
+        put(intMap, 7L, getKeyHash(7L), PNone.NONE);
+        assertEquals(7, intMap.getKey(0));
+        assertEquals(PNone.NONE, get(intMap, 7L, getKeyHash(7L)));
+    }
+
+    @Test
+    public void testLongKeysOnlyMap() {
+        ObjectHashMap map = new ObjectHashMap(0, false, true, true);
+        LinkedHashMap<Object, Object> expected = new LinkedHashMap<>();
+        Random rand = new Random(42);
+        for (int i = 0; i < 300; i++) {
+            Long key = (1L << 40) + rand.nextInt(500);
+            expected.put(key, PNone.NONE);
+            put(map, key, getKeyHash(key), PNone.NONE);
+            assertEqual(i, expected, map);
+        }
+        for (int i = 0; i < 200; i++) {
+            Long key = (1L << 40) + rand.nextInt(500);
+            expected.remove(key);
+            remove(map, key, getKeyHash(key));
+            assertEqual(i, expected, map);
+        }
+        assertTrue(map.isKeysOnly());
+        assertTrue(map.hasLongKeys());
+        ObjectHashMap copy = map.copy();
+        assertTrue(copy.isKeysOnly());
+        assertTrue(copy.hasLongKeys());
+
+        // storing a value other than None keeps the keys unboxed
+        Long key = (Long) expected.keySet().iterator().next();
+        Object value = newValue();
+        expected.put(key, value);
+        put(map, key, getKeyHash(key), value);
+        assertFalse(map.isKeysOnly());
+        assertTrue(map.hasLongKeys());
+        assertEqual("generalized values", expected, map);
+
+        // inserting a key that is not int generalizes the copy to keys only with object keys
+        LinkedHashMap<Object, Object> expectedCopy = new LinkedHashMap<>();
+        for (Object k : keysToArray(copy)) {
+            expectedCopy.put(k, PNone.NONE);
+        }
+        DictKey dictKey = new DictKey(42);
+        expectedCopy.put(dictKey, PNone.NONE);
+        put(copy, dictKey, dictKey.hash, PNone.NONE);
+        assertTrue(copy.isKeysOnly());
+        assertFalse(copy.hasLongKeys());
+        assertEqual("generalized keys", expectedCopy, copy);
+    }
+
     @Test
     public void testLongHashMapStressTest() {
         ObjectHashMap map = new ObjectHashMap();
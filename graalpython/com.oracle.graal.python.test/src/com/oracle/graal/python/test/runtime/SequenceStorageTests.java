@@ -25,11 +25,13 @@
  */
 package com.oracle.graal.python.test.runtime;
 
+import static com.oracle.graal.python.util.PythonUtils.tsLiteral;
 import static org.junit.Assert.*;
 
 import org.junit.*;
 
 import com.oracle.graal.python.runtime.sequence.storage.*;
+import com.oracle.truffle.api.strings.TruffleString;
 
 public class SequenceStorageTests {
 
@@ -97,4 +99,191 @@ public class SequenceStorageTests {
         assertEquals(6, store.getItemNormalized(6));
         assertEquals(7, store.length());
     }
+
+    /**
+     * StringSequenceStorage tests.
+     */
+    private static TruffleString[] getStringValues() {
+        return new TruffleString[]{tsLiteral("a"), tsLiteral("b"), tsLiteral("c"), tsLiteral("d"), tsLiteral("e"), tsLiteral("f")};
+    }
+
+    @Test
+    public void stringGetAndSet() throws SequenceStoreException {
+        StringSequenceStorage store = new StringSequenceStorage(getStringValues());
+        assertEquals(tsLiteral("d"), store.getItemNormalized(3));
+        store.setItemNormalized(5, tsLiteral("x"));
+        assertEquals(tsLiteral("x"), store.getItemNormalized(5));
+    }
+
+    @Test(expected = SequenceStoreException.class)
+    public void stringSetNonString() throws SequenceStoreException {
+        StringSequenceStorage store = new StringSequenceStorage(getStringValues());
+        store.setItemNormalized(0, 42);
+    }
+
+    @Test
+    public void stringGeneralize() {
+        StringSequenceStorage store = new StringSequenceStorage(getStringValues());
+        ObjectSequenceStorage generalized = store.generalizeFor(42, null);
+        generalized.setItemNormalized(0, 42);
+        assertEquals(42, generalized.getItemNormalized(0));
+        assertEquals(tsLiteral("b"), generalized.getItemNormalized(1));
+        assertEquals(6, generalized.length());
+    }
+
+    @Test
+    public void stringFromFactory() {
+        SequenceStorage store = SequenceStorageFactory.createStorage(new Object[]{tsLiteral("a"), tsLiteral("b")});
+        assertTrue(store instanceof StringSequenceStorage);
+        assertEquals(2, store.length());
+        assertTrue(SequenceStorageFactory.createStorage(new Object[]{tsLiteral("a"), 1}) instanceof ObjectSequenceStorage);
+    }
+
+    /**
+     * IntRangeSequenceStorage tests.
+     */
+    @Test
+    public void intRangeGetAndIndex() {
+        IntRangeSequenceStorage store = new IntRangeSequenceStorage(3, 2, 5);
+        assertEquals(9, store.getItemNormalized(3));
+        assertEquals(3, store.indexOfInt(9));
+        assertEquals(-1, store.indexOfInt(10));
+        assertEquals(-1, store.indexOfInt(13));
+        assertTrue(store.isVirtual());
+    }
+
+    @Test
+    public void intRangeSliceAndReverse() {
+        IntRangeSequenceStorage store = new IntRangeSequenceStorage(0, 1, 10);
+        SequenceStorage slice = store.getSliceInBound(8, 0, -3, 3);
+        assertTrue(slice instanceof IntRangeSequenceStorage);
+        assertEquals(8, slice.getItemNormalized(0));
+        assertEquals(2, slice.getItemNormalized(2));
+        store.reverse();
+        assertEquals(9, store.getItemNormalized(0));
+        assertEquals(0, store.getItemNormalized(9));
+        assertTrue(store.isVirtual());
+    }
+
+    @Test
+    public void intRangeMaterialize() throws SequenceStoreException {
+        IntRangeSequenceStorage store = new IntRangeSequenceStorage(7, 0, 4);
+        store.setItemNormalized(1, 7);
+        assertTrue(store.isVirtual());
+        store.setItemNormalized(2, 42);
+        assertFalse(store.isVirtual());
+        assertEquals(7, store.getItemNormalized(1));
+        assertEquals(42, store.getItemNormalized(2));
+        store.insertItem(4, 1);
+        assertEquals(5, store.length());
+        assertEquals(1, store.getItemNormalized(4));
+    }
+
+    @Test
+    public void intRangeShrinkAndGrow() {
+        IntRangeSequenceStorage store = new IntRangeSequenceStorage(0, 1, 6);
+        store.setNewLength(3);
+        assertTrue(store.isVirtual());
+        store.ensureCapacity(4);
+        store.setItemNormalized(3, 100);
+        store.setNewLength(4);
+        assertFalse(store.isVirtual());
+        assertEquals(2, store.getItemNormalized(2));
+        assertEquals(100, store.getItemNormalized(3));
+    }
+
+    @Test
+    public void intRangeToIntStorage() {
+        IntRangeSequenceStorage store = new IntRangeSequenceStorage(10, -3, 4);
+        IntSequenceStorage ints = store.toIntSequenceStorage();
+        assertEquals(4, ints.length());
+        assertEquals(10, ints.getIntItemNormalized(0));
+        assertEquals(1, ints.getIntItemNormalized(3));
+        ints.insertIntItem(0, 42);
+        assertEquals(5, ints.length());
+        assertEquals(42, ints.getIntItemNormalized(0));
+        assertEquals(1, ints.getIntItemNormalized(4));
+    }
+
+    /**
+     * Shared ObjectSequenceStorage slice tests.
+     */
+    private static ObjectSequenceStorage getObjectSequence(int length) {
+        Object[] values = new Object[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = i;
+        }
+        return new ObjectSequenceStorage(values);
+    }
+
+    @Test
+    public void objectSliceThreshold() {
+        ObjectSequenceStorage store = getObjectSequence(1024);
+        assertFalse(store.canShareSlice(16));
+        assertFalse(store.canShareSlice(100));
+        assertTrue(store.canShareSlice(128));
+    }
+
+    @Test
+    public void objectSliceShares() {
+        ObjectSequenceStorage store = getObjectSequence(200);
+        ObjectSequenceStorage slice = store.createSharedSlice(10, 150, false);
+        assertFalse(store.isShared());
+        assertEquals(150, slice.length());
+        assertEquals(10, slice.getItemNormalized(0));
+        assertEquals(159, slice.getItemNormalized(149));
+        ObjectSequenceStorage nested = slice.createSharedSlice(50, 100, false);
+        assertEquals(60, nested.getItemNormalized(0));
+        assertTrue(nested.isShared());
+        assertEquals(150, slice.getCopyOfInternalArray().length);
+    }
+
+    @Test
+    public void objectSliceCopyOnWrite() {
+        ObjectSequenceStorage store = getObjectSequence(100);
+        ObjectSequenceStorage slice = store.createSharedSlice(1, 99, false);
+        slice.setItemNormalized(0, tsLiteral("x"));
+        assertFalse(slice.isShared());
+        assertEquals(tsLiteral("x"), slice.getItemNormalized(0));
+        assertEquals(2, slice.getItemNormalized(1));
+        assertEquals(1, store.getItemNormalized(1));
+        slice.insertItem(99, tsLiteral("y"));
+        assertEquals(100, slice.length());
+        assertEquals(tsLiteral("y"), slice.getItemNormalized(99));
+    }
+
+    @Test
+    public void objectSliceOfMutableCopiesParentOnWrite() {
+        ObjectSequenceStorage store = getObjectSequence(100);
+        ObjectSequenceStorage slice = store.createSharedSlice(1, 99, true);
+        assertTrue(store.isShared());
+        store.setItemNormalized(1, tsLiteral("x"));
+        assertFalse(store.isShared());
+        assertEquals(tsLiteral("x"), store.getItemNormalized(1));
+        assertEquals(1, slice.getItemNormalized(0));
+        assertTrue(slice.isShared());
+
+        slice = store.createSharedSlice(0, 100, true);
+        store.reverse();
+        assertEquals(0, slice.getItemNormalized(0));
+        assertEquals(99, store.getItemNormalized(0));
+
+        slice = store.createSharedSlice(0, 100, true);
+        store.getInternalArray()[0] = tsLiteral("y");
+        assertEquals(0, slice.getItemNormalized(0));
+    }
+
+    @Test
+    public void objectSliceEqualsIgnoresCapacity() {
+        ObjectSequenceStorage store = getObjectSequence(200);
+        ObjectSequenceStorage slice = store.createSharedSlice(10, 150, false);
+        ObjectSequenceStorage copy = new ObjectSequenceStorage(slice.getCopyOfInternalArray());
+        copy.ensureCapacity(300);
+        assertTrue(slice.equals(copy));
+        assertTrue(copy.equals(slice));
+        copy.setItemNormalized(149, -1);
+        assertFalse(slice.equals(copy));
+        copy.setNewLength(149);
+        assertFalse(slice.equals(copy));
+    }
 }
@@ -325,3 +325,103 @@ def test_pow():
         # for some reason this hangs CPython on the CI even if it's just parsed
         from pow_tests import test_pow
         test_pow()
+
+
+def test_long_arithmetic_in_loop():
+    # exercises the quickened long and mixed int/long variants, including overflow into bignum
+    def compute(n, start):
+        h = start
+        acc = 0
+        for i in range(n):
+            h = (h * 31 + i) & 0xffffffffffff
+            acc = acc + h
+            acc ^= i
+            if h > 0x7fffffffff:
+                acc -= 1
+        return h, acc, -acc, ~h, acc // 7, acc % 1000003, acc >> 3
+    # expected values computed with CPython, so a wrong specialization cannot agree with itself
+    expected = (0xd94507ce8163, 0x6db55421aab488, -0x6db55421aab488, -0xd94507ce8164, 0xfac30971862ee, 18984, 0xdb6aa84355691)
+    for _ in range(20):
+        assert compute(200, 0x7fffffffff) == expected
+    assert compute(1, 0x7fffffffff)[0] == (0x7fffffffff * 31) & 0xffffffffffff
+
+    def overflow(x):
+        return x + x, x * x, x - (-x)
+    big = 0x7fffffffffffffff
+    for _ in range(10):
+        assert overflow(big) == (0xfffffffffffffffe, 0x3fffffffffffffff0000000000000001, 0xfffffffffffffffe)
+        assert overflow(3) == (6, 9, 6)
+
+
+def test_long_division_edge_cases():
+    def floordiv(a, b):
+        return a // b, a % b
+    for _ in range(10):
+        assert floordiv(-0x8000000000000000, -1) == (0x8000000000000000, 0)
+        assert floordiv(0x100000000, -3) == (-1431655766, -2)
+        try:
+            floordiv(0x100000000, 0)
+        except ZeroDivisionError:
+            pass
+        else:
+            assert False
+
+
+def test_mixed_int_float_arithmetic_in_loop():
+    def compute(n):
+        x = 1.5
+        acc = 0.0
+        for i in range(n):
+            acc = acc + x * 0.5 + i
+            acc = acc - i / 4
+            if i < acc:
+                acc -= 1
+            if 2.5 >= i:
+                acc += 2 ** 0.5
+        return acc
+    # expected value computed with CPython, so a wrong specialization cannot agree with itself
+    for _ in range(20):
+        assert compute(100) == 3691.742640687119
+
+    def mixed(a, b):
+        return a + b, a - b, a * b, a / b, a < b, a == b
+    for _ in range(10):
+        assert mixed(3, 0.5) == (3.5, 2.5, 1.5, 6.0, False, False)
+        assert mixed(0.5, 3) == (3.5, -2.5, 1.5, 0.16666666666666666, True, False)
+        assert mixed(0x100000000, 0.5) == (4294967296.5, 4294967295.5, 2147483648.0, 8589934592.0, False, False)
+        assert mixed(2.0, 2) == (4.0, 0.0, 4.0, 1.0, False, True)
+        try:
+            mixed(1.5, 0)
+        except ZeroDivisionError:
+            pass
+        else:
+            assert False
+        # comparisons of longs and floats must be exact
+        assert (2 ** 53 + 1) != float(2 ** 53 + 1)
+        assert (2 ** 53 + 1) > float(2 ** 53)
+
+
+def test_mixed_operands_quickened():
+    if sys.implementation.name != "graalpy":
+        return
+
+    def long_times_int():
+        h = 0x10000000000
+        return h * 31
+
+    def int_times_float():
+        x = 3
+        return x * 0.5
+
+    def int_times_local_float():
+        x = 2.5
+        return 2 * x
+
+    for _ in range(3):
+        assert long_times_int() == 0x10000000000 * 31
+        assert int_times_float() == 1.5
+        assert int_times_local_float() == 5.0
+    # the operands keep their own primitive types instead of being boxed for BINARY_OP_OO_O
+    assert "BINARY_OP_LI_" in __graalpython__.dis(long_times_int, True)
+    assert "BINARY_OP_ID_" in __graalpython__.dis(int_times_float, True)
+    assert "BINARY_OP_ID_" in __graalpython__.dis(int_times_local_float, True)
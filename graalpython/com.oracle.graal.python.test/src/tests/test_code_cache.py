@@ -0,0 +1,131 @@
+# Copyright (c) 2023, 2023, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import os
+import shutil
+import subprocess
+import sys
+import tempfile
+
+
+class CodeCacheTest():
+    def setUpClass(self):
+        self.src_dir = os.path.realpath(tempfile.mkdtemp())
+        self.cache_dir = os.path.realpath(tempfile.mkdtemp())
+
+    def tearDownClass(self):
+        shutil.rmtree(self.src_dir)
+        shutil.rmtree(self.cache_dir)
+
+    def run_import(self, module='cached_mod', cache_dir=None, options=()):
+        env = os.environ.copy()
+        env['PYTHONPATH'] = self.src_dir
+        return subprocess.check_output([
+            sys.executable,
+            '--experimental-options', f'--python.CodeCacheDir={cache_dir or self.cache_dir}', *options,
+            '-c', f'import {module}; print({module}.f())'],
+            env=env, text=True).strip()
+
+    def write_module(self, value):
+        with open(os.path.join(self.src_dir, 'cached_mod.py'), 'w') as f:
+            f.write(f'def f():\n    return [x * {value} for x in range(3)]\n')
+
+    def test_code_cache(self):
+        self.write_module(2)
+        assert self.run_import() == '[0, 2, 4]'
+        entries = [e for e in os.listdir(self.cache_dir) if e.endswith('.gpyc')]
+        assert entries, os.listdir(self.cache_dir)
+        # second run is served from the cache
+        assert self.run_import() == '[0, 2, 4]'
+        # a changed source must not reuse the old entry
+        self.write_module(3)
+        assert self.run_import() == '[0, 3, 6]'
+        # a corrupted entry is ignored and replaced
+        for e in os.listdir(self.cache_dir):
+            with open(os.path.join(self.cache_dir, e), 'wb') as f:
+                f.write(b'garbage')
+        assert self.run_import() == '[0, 3, 6]'
+
+    def test_writable_entry_is_ignored(self):
+        cache_dir = os.path.realpath(tempfile.mkdtemp())
+
+        def list_entries():
+            return {e for e in os.listdir(cache_dir) if e.endswith('.gpyc')}
+
+        try:
+            self.write_module(4)
+            assert self.run_import(cache_dir=cache_dir) == '[0, 4, 8]'
+            entry = os.path.join(cache_dir, list_entries().pop())
+            self.write_module(5)
+            assert self.run_import(cache_dir=cache_dir) == '[0, 5, 10]'
+            other = (list_entries() - {os.path.basename(entry)}).pop()
+            # put the code compiled for the other source into the entry, a private entry is trusted
+            shutil.copyfile(os.path.join(cache_dir, other), entry)
+            os.chmod(entry, 0o600)
+            self.write_module(4)
+            assert self.run_import(cache_dir=cache_dir) == '[0, 5, 10]'
+            # once others could have written it, the entry is recompiled from the source
+            os.chmod(entry, 0o666)
+            assert self.run_import(cache_dir=cache_dir) == '[0, 4, 8]'
+        finally:
+            shutil.rmtree(cache_dir)
+
+    def test_persist_quickening(self):
+        with open(os.path.join(self.src_dir, 'quickened_mod.py'), 'w') as f:
+            f.write('def add(a):\n    b = a + 1\n    return b\n'
+                    'def f():\n    return [add(1), add(1.5), add(2)]\n')
+
+        def read_entries(cache_dir):
+            return {e: open(os.path.join(cache_dir, e), 'rb').read() for e in os.listdir(cache_dir) if e.endswith('.gpyc')}
+
+        plain_dir = os.path.realpath(tempfile.mkdtemp())
+        feedback_dir = os.path.realpath(tempfile.mkdtemp())
+        try:
+            assert self.run_import('quickened_mod', plain_dir) == '[2, 2.5, 3]'
+            assert self.run_import('quickened_mod', feedback_dir, ['--python.PersistQuickening']) == '[2, 2.5, 3]'
+            plain = read_entries(plain_dir)
+            with_feedback = read_entries(feedback_dir)
+            assert plain.keys() == with_feedback.keys()
+            # the generalized 'a + 1' and 'b' were written back at exit
+            assert plain != with_feedback
+            # code loaded with the feedback behaves the same
+            assert self.run_import('quickened_mod', feedback_dir, ['--python.PersistQuickening']) == '[2, 2.5, 3]'
+        finally:
+            shutil.rmtree(plain_dir)
+            shutil.rmtree(feedback_dir)
@@ -629,3 +629,70 @@ class TestBasic(unittest.TestCase):
         klass = type(reversed(deque()))
         for s in ('abcd', range(2000)):
             self.assertEqual(list(klass(deque(s))), list(reversed(s)))
+
+    def test_wraparound(self):
+        # pop from one end and push to the other so that the elements wrap around the array end
+        d = deque(range(6))
+        model = list(range(6))
+        for i in range(6, 40):
+            d.append(i)
+            model.append(i)
+            self.assertEqual(d.popleft(), model.pop(0))
+            self.assertEqual(list(d), model)
+            self.assertEqual([d[j] for j in range(len(d))], model)
+            self.assertEqual(d[-1], model[-1])
+        d[1] = 'x'
+        model[1] = 'x'
+        d.insert(3, 'y')
+        model.insert(3, 'y')
+        del d[4]
+        del model[4]
+        self.assertEqual(list(d), model)
+        self.assertEqual(list(reversed(d)), model[::-1])
+        for i in range(40, 60):
+            d.appendleft(i)
+            model.insert(0, i)
+            self.assertEqual(d.pop(), model.pop())
+            self.assertEqual(list(d), model)
+
+    def test_maxlen_does_not_overflow(self):
+        for maxlen in (1, 5, 8, 9, 16):
+            d = deque(maxlen=maxlen)
+            model = []
+            for i in range(100):
+                if i % 3:
+                    d.append(i)
+                    model = (model + [i])[-maxlen:]
+                else:
+                    d.appendleft(i)
+                    model = ([i] + model)[:maxlen]
+                self.assertEqual(len(d), len(model))
+                self.assertEqual(list(d), model)
+                self.assertEqual(d[0], model[0])
+                self.assertEqual(d[-1], model[-1])
+            d.rotate(3)
+            s = 3 % maxlen
+            model = model[-s:] + model[:-s]
+            self.assertEqual(list(d), model)
+
+    def test_maxlen_zero_append(self):
+        d = deque(maxlen=0)
+        d.append(1)
+        d.appendleft(2)
+        self.assertEqual(list(d), [])
+        self.assertEqual(len(d), 0)
+
+    def test_rotate_with_free_slots(self):
+        # sizes around the power-of-two capacities exercise the in-place and copying paths
+        for n in (2, 3, 7, 8, 9, 15, 16, 17):
+            for k in range(-n - 2, n + 3):
+                d = deque(range(n))
+                d.popleft()
+                d.append(n)
+                model = list(range(1, n + 1))
+                d.rotate(k)
+                s = k % n
+                self.assertEqual(list(d), model[n - s:] + model[:n - s], (n, k))
+                self.assertEqual([d[j] for j in range(n)], list(d))
+                d.append('end')
+                self.assertEqual(d[-1], 'end')
@@ -1267,3 +1267,34 @@ def test_dict_values_eq():
     d1 = {1: 1, 2: 2, 4: 4}
     assert d1.values() != d1.values()
 
+
+
+def test_eq_inserting_into_reused_dummy_bucket():
+    class Key:
+        def __init__(self, name, on_eq=None):
+            self.name = name
+            self.on_eq = on_eq
+
+        def __hash__(self):
+            return 1
+
+        def __eq__(self, other):
+            if self.on_eq:
+                on_eq, self.on_eq = self.on_eq, None
+                on_eq()
+            return self is other
+
+    d = {}
+    a = Key('a')
+    j = Key('j')
+    b = Key('b', lambda: d.__setitem__(j, 'j'))
+    k = Key('k')
+    d[a] = 'a'
+    d[b] = 'b'
+    # leaves a dummy bucket at the start of the collision chain
+    del d[a]
+    # comparing with b inserts j, which takes the dummy bucket that k found first
+    d[k] = 'k'
+    assert len(d) == 3
+    assert sorted(key.name for key in d) == ['b', 'j', 'k']
+    assert d[j] == 'j' and d[k] == 'k' and d[b] == 'b'
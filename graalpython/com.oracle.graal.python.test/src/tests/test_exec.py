@@ -336,3 +336,18 @@ class ExecTests:
         def fn():
             exec(b'\xef\xbb\xbf#encoding:latin-1\nx = "\xe9\xa7\x84\xe7\x9b\xae"')
         raises(SyntaxError, fn)
+
+    def test_global_rebinding_in_dict(self):
+        ns = {1: "force a generic dict storage"}
+        exec("def f():\n    return len", ns)
+        f = ns["f"]
+        for i in range(10):
+            assert f() is len
+        for i in range(10):
+            ns["len"] = i
+            assert f() == i
+        del ns["len"]
+        assert f() is len
+        ns.clear()
+        ns["len"] = "cleared"
+        assert f() == "cleared"
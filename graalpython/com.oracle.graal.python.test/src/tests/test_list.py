@@ -690,6 +690,72 @@ class ListTest(list_tests.CommonTest):
         l.append("d")
         self.assertEqual(l, ["a", "b", "c", "d"])
 
+    def test_mutate_range_list(self):
+        import bisect
+        import heapq
+        l = list(range(10))
+        self.assertEqual(bisect.bisect_left(l, 4), 4)
+        l[2] = 42
+        l.insert(0, -1)
+        l.insert(1, -2)
+        self.assertEqual(l, [-1, -2, 0, 1, 42, 3, 4, 5, 6, 7, 8, 9])
+        l = list(range(5, 0, -1))
+        heapq.heapify(l)
+        self.assertEqual([heapq.heappop(l) for _ in range(5)], [1, 2, 3, 4, 5])
+        l = list(range(3))
+        l.append(3)
+        l.extend([4, 5])
+        l += list(range(6, 8))
+        self.assertEqual(l, list(range(8)))
+        l = [7] * 3
+        l.insert(1, 0)
+        l[0] = 'a'
+        self.assertEqual(l, ['a', 0, 7, 7])
+        l = [1] * 100000
+        l[-1] = 2
+        self.assertEqual(l[-2:], [1, 2])
+        self.assertEqual(len(l), 100000)
+
+    def test_bisect_list_subclass(self):
+        import bisect
+
+        class NegatedList(list):
+            def __getitem__(self, i):
+                return -list.__getitem__(self, i)
+
+        for values in ([3, 2, 1], [3.0, 2.0, 1.0], [2 ** 40, 2 ** 39, 1]):
+            l = NegatedList(values)
+            self.assertEqual(bisect.bisect_left(l, -values[1]), 1)
+            self.assertEqual(bisect.bisect_right(l, -values[1]), 2)
+        l = NegatedList(range(5, 0, -1))
+        self.assertEqual(bisect.bisect_left(l, -3), 2)
+        self.assertEqual(bisect.bisect_right(l, -3), 3)
+
+    def test_mutate_shared_slice(self):
+        l = [str(i) for i in range(200)]
+        s = l[10:190]
+        l[10] = 'x'
+        del l[20:30]
+        l.reverse()
+        l.sort()
+        s.append('y')
+        s[0] = 'z'
+        self.assertEqual(s, ['z'] + [str(i) for i in range(11, 190)] + ['y'])
+        self.assertEqual(len(l), 190)
+        self.assertIn('x', l)
+        self.assertNotIn('z', l)
+        self.assertNotIn('10', l)
+
+        l = [str(i) for i in range(200)]
+        s1 = l[:]
+        s2 = s1[50:]
+        s1[50] = 'x'
+        l.insert(50, 'y')
+        s2 += ['z']
+        self.assertEqual(s1, [str(i) for i in range(50)] + ['x'] + [str(i) for i in range(51, 200)])
+        self.assertEqual(s2, [str(i) for i in range(50, 200)] + ['z'])
+        self.assertEqual(l[49:52], ['49', 'y', '50'])
+
     def test_extend_bytes_2(self):
         b = bytes([3,4,255])
         l = [1,2]
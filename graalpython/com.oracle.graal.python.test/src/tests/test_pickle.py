@@ -66,5 +66,40 @@ class TestPickle(unittest.TestCase):
         assert [16,17,18,19] == [next(teeit2) for i in range(1, 5)]
         assert [16,17,18,19] == [next(teeit) for i in range(1, 5)]
 
+    def test_memo_proxy(self):
+        import io
+        from _pickle import Pickler, Unpickler
+        data = ["abc", "abc"]
+        pickler = Pickler(io.BytesIO(), 2)
+        pickler.dump(data)
+        memo = pickler.memo.copy()
+        self.assertEqual(memo[id(data)], (0, data))
+        self.assertEqual(pickler.memo.__reduce__(), (dict, (memo,)))
+        f = io.BytesIO()
+        primed = Pickler(f, 2)
+        primed.memo = memo
+        primed.dump(data)
+        # only a memo reference is written
+        self.assertEqual(f.getvalue(), b'\x80\x02h\x00.')
+        pickler.memo.clear()
+        self.assertEqual(pickler.memo.copy(), {})
+        with self.assertRaises(TypeError):
+            pickler.memo = {1: 2}
+        with self.assertRaises(TypeError):
+            pickler.memo = []
+
+        unpickler = Unpickler(io.BytesIO(pickle.dumps(data, 2)))
+        loaded = unpickler.load()
+        self.assertEqual(unpickler.memo.copy(), {0: loaded, 1: "abc"})
+        primed = Unpickler(io.BytesIO(b'\x80\x02h\x00.'))
+        primed.memo = unpickler.memo
+        self.assertIs(primed.load(), loaded)
+        with self.assertRaises(ValueError):
+            unpickler.memo = {-1: None}
+        with self.assertRaises(TypeError):
+            unpickler.memo = {"a": None}
+        with self.assertRaises(TypeError):
+            del unpickler.memo
+
 if __name__ == '__main__':
     unittest.main()
@@ -945,3 +945,163 @@ def test_free_var_with_nonlocals():
     c = fnc.__code__
     assert c.co_freevars == ('var',)
     assert c.co_cellvars == tuple()
+
+
+def test_unbound_local_in_combined_loads():
+    def load_attr(flag):
+        if flag:
+            obj = "abc"
+        return obj.upper()
+
+    def load_pair(flag):
+        if flag:
+            a = 1
+            b = 2
+        else:
+            a = 1
+        return (a, b)
+
+    def gen(obj):
+        yield obj.real
+        return
+
+    assert load_attr(True) == "ABC"
+    assert_raises(UnboundLocalError, load_attr, False)
+    assert load_pair(True) == (1, 2)
+    assert_raises(UnboundLocalError, load_pair, False)
+    assert list(gen(5)) == [5]
+
+
+def test_comprehension_variables_are_isolated():
+    def shadow():
+        x = "outer"
+        result = [x for x in range(3)]
+        return x, result
+
+    def reads_outer():
+        y = 10
+        return [x + y for x in range(3)]
+
+    def walrus():
+        total = 0
+        partial = [total := total + x for x in range(4)]
+        return total, partial
+
+    def clears_on_exception():
+        try:
+            [1 // x for x in (1, 0)]
+        except ZeroDivisionError:
+            pass
+        return list(locals())
+
+    def nested():
+        return [[y * x for y in range(x)] for x in range(3)]
+
+    assert shadow() == ("outer", [0, 1, 2])
+    assert reads_outer() == [10, 11, 12]
+    assert walrus() == (6, [0, 1, 3, 6])
+    assert clears_on_exception() == []
+    assert nested() == [[], [0], [0, 2]]
+    assert {k: v for k, v in zip("ab", range(2))} == {'a': 0, 'b': 1}
+    assert {x % 2 for x in range(5)} == {0, 1}
+
+
+def test_comprehension_in_class_body():
+    class C:
+        y = 5
+        items = [y for y in range(2)]
+        try:
+            [y for _ in range(1)]
+        except NameError:
+            hidden = True
+
+    assert C.items == [0, 1]
+    assert C.y == 5
+    assert C.hidden
+
+
+def test_combined_loads_of_unboxed_locals():
+    import sys
+
+    def f(n):
+        i = 0
+        while i < n:
+            i += 1
+        return (i, n)
+
+    for _ in range(3):
+        assert f(10) == (10, 10)
+    if sys.implementation.name == "graalpy":
+        # reading the locals for the tuple must not generalize them for the loop
+        assert "LOAD_FAST_O" not in __graalpython__.dis(f, True)
+
+
+def test_return_const():
+    def f(flag):
+        if flag:
+            return "yes"
+        return "no"
+
+    def gen():
+        yield 1
+        return "done"
+
+    assert f(True) == "yes"
+    assert f(False) == "no"
+    g = gen()
+    assert next(g) == 1
+    try:
+        next(g)
+    except StopIteration as e:
+        assert e.value == "done"
+    else:
+        assert False
+
+
+def test_inlined_comprehension_slots_are_hidden():
+    import sys
+
+    def f(a):
+        b = [x * a for x in range(3)]
+        c = {y: [locals() for _ in range(1)] for y in range(1)}
+        return b, c
+
+    code = f.__code__
+    assert code.co_varnames[:3] == ('a', 'b', 'c')
+    assert not any(name.startswith('<') for name in code.co_varnames)
+    assert code.co_nlocals == len(code.co_varnames)
+    b, c = f(2)
+    assert b == [0, 2, 4]
+    for name in c[0][0]:
+        assert not name.startswith('<'), name
+    frame_locals = []
+
+    def g():
+        return [frame_locals.append(sys._getframe().f_locals) for x in range(1)]
+
+    g()
+    assert not any(name.startswith('<') for name in frame_locals[0])
+
+
+def test_comprehension_has_own_frame():
+    import sys
+
+    def f():
+        return [1 // x for x in (1, 0)]
+
+    try:
+        f()
+    except ZeroDivisionError as e:
+        tb = e.__traceback__
+    else:
+        assert False
+    names = []
+    while tb:
+        names.append(tb.tb_frame.f_code.co_name)
+        tb = tb.tb_next
+    assert names[-2:] == ['f', '<listcomp>'], names
+
+    def g():
+        return [sys._getframe().f_code.co_name for _ in range(1)]
+
+    assert g() == ['<listcomp>']
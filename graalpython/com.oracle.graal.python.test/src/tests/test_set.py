@@ -647,3 +647,23 @@ def test_set_iterator_reduce():
     it = s.__iter__()
     it.__reduce__()
     assert [i for i in it] == [1, 2, 3]
+
+
+def test_constant_set_membership():
+    def check(x):
+        return x in {1, 2, 0x100000000}, x in {'a', None, 1.5}, x not in {True, 2}
+
+    for _ in range(3):
+        assert check(1) == (True, False, False)
+        assert check(1.0) == (True, False, False)
+        assert check(0x100000000) == (True, False, True)
+        assert check('a') == (False, True, True)
+        assert check(None) == (False, True, True)
+        assert check(1.5) == (False, True, True)
+    assert sorted(i for i in {3, 1, 2}) == [1, 2, 3]
+    try:
+        check([])
+    except TypeError:
+        pass
+    else:
+        assert False
@@ -45,3 +45,26 @@ class TestSorted(unittest.TestCase):
 
         # Use eval to get the fast path specialization
         self.assertEqual(eval("sorted(MyList())", {"MyList": MyList}), [2, 4, 5])
+
+    def test_signed_zeros_stable(self):
+        import math
+        data = [1.0, 0.0, -0.0, -1.0, 0.0, -0.0, -0.0]
+        signs = [math.copysign(1, x) for x in data if x == 0]
+        for reverse in (False, True):
+            result = list(data)
+            result.sort(reverse=reverse)
+            self.assertEqual([math.copysign(1, x) for x in result if x == 0], signs)
+
+    def test_large_primitive_lists(self):
+        n = 300000
+        ints = [(i * 7919) % n for i in range(n)]
+        floats = [x * 0.5 for x in ints]
+        longs = [x + 2 ** 40 for x in ints]
+        ints.sort()
+        self.assertEqual(ints, list(range(n)))
+        ints.sort(reverse=True)
+        self.assertEqual(ints, list(range(n - 1, -1, -1)))
+        floats.sort()
+        self.assertEqual(floats, [i * 0.5 for i in range(n)])
+        longs.sort()
+        self.assertEqual(longs, [i + 2 ** 40 for i in range(n)])
@@ -81,6 +81,7 @@ import com.oracle.graal.python.pegparser.sst.ArgumentsTy;
 import com.oracle.graal.python.pegparser.sst.ModTy;
 import com.oracle.graal.python.pegparser.sst.StmtTy;
 import com.oracle.graal.python.pegparser.tokenizer.SourceRange;
+import com.oracle.graal.python.runtime.BytecodeCache;
 import com.oracle.graal.python.runtime.GilNode;
 import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.PythonContext.PythonThreadState;
@@ -457,12 +458,40 @@ public final class PythonLanguage extends TruffleLanguage<PythonContext> {
         for (int optimize = 0; optimize < MIME_TYPE_COMPILE.length; optimize++) {
             if (MIME_TYPE_COMPILE[optimize].equals(source.getMimeType())) {
                 assert !source.isInteractive();
-                return parse(context, source, InputType.FILE, false, optimize, false, null);
+                return parseFile(context, source, optimize);
             }
         }
         throw CompilerDirectives.shouldNotReachHere("unknown mime type: " + source.getMimeType());
     }
 
+    /**
+     * Compiles a source in file mode as done by {@code compile}, using the persistent
+     * {@link BytecodeCache} when it is enabled.
+     */
+    private RootCallTarget parseFile(PythonContext context, Source source, int optimize) {
+        TruffleFile cacheEntry = BytecodeCache.getEntry(context, source, optimize);
+        if (cacheEntry == null) {
+            return parse(context, source, InputType.FILE, false, optimize, false, null);
+        }
+        CodeUnit code = BytecodeCache.load(context, cacheEntry);
+        if (code != null) {
+            PBytecodeRootNode rootNode = PBytecodeRootNode.create(this, code, source);
+            BytecodeCache.storeQuickeningFeedbackAtExit(context, cacheEntry, rootNode);
+            return PythonUtils.getOrCreateCallTarget(rootNode);
+        }
+        RaisePythonExceptionErrorCallback errorCb = new RaisePythonExceptionErrorCallback(source, PythonOptions.isPExceptionWithJavaStacktrace(this));
+        Parser parser = Compiler.createParser(source.getCharacters().toString(), errorCb, InputType.FILE, false);
+        ModTy mod = (ModTy) parser.parse();
+        code = compileToCodeUnit(mod, optimize, errorCb);
+        PBytecodeRootNode rootNode = PBytecodeRootNode.create(this, code, source, errorCb);
+        // warnings are reported during compilation, don't lose them on later cache hits
+        if (!errorCb.hasDeprecationWarnings()) {
+            BytecodeCache.store(context, cacheEntry, code);
+            BytecodeCache.storeQuickeningFeedbackAtExit(context, cacheEntry, rootNode);
+        }
+        return PythonUtils.getOrCreateCallTarget(rootNode);
+    }
+
     private static Source tryLoadSource(PythonContext context, CodeUnit code, boolean internal, String path) {
         try {
             return Source.newBuilder(PythonLanguage.ID, context.getEnv().getPublicTruffleFile(path)).name(code.name.toJavaStringUncached()).internal(internal).build();
@@ -494,13 +523,11 @@ public final class PythonLanguage extends TruffleLanguage<PythonContext> {
             errorCb = new RaisePythonExceptionErrorCallback(source, PythonOptions.isPExceptionWithJavaStacktrace(this));
         }
         try {
-            Compiler compiler = new Compiler(errorCb);
             boolean hasArguments = argumentNames != null && !argumentNames.isEmpty();
             if (hasArguments) {
                 mod = transformASTForExecutionWithArguments(argumentNames, mod);
             }
-            CompilationUnit cu = compiler.compile(mod, EnumSet.noneOf(Compiler.Flags.class), optimize);
-            CodeUnit co = cu.assemble();
+            CodeUnit co = compileToCodeUnit(mod, optimize, errorCb);
             RootNode rootNode = PBytecodeRootNode.create(this, co, source, errorCb);
             if (topLevel) {
                 GilNode gil = GilNode.getUncached();
@@ -526,6 +553,19 @@ public final class PythonLanguage extends TruffleLanguage<PythonContext> {
         }
     }
 
+    private CodeUnit compileToCodeUnit(ModTy mod, int optimize, RaisePythonExceptionErrorCallback errorCb) {
+        Compiler compiler = new Compiler(errorCb);
+        EnumSet<Compiler.Flags> flags = EnumSet.of(Compiler.Flags.SUPERINSTRUCTIONS, Compiler.Flags.OPTIMIZE_AST);
+        if (getEngineOption(PythonOptions.InlineComprehensions)) {
+            flags.add(Compiler.Flags.INLINE_COMPREHENSIONS);
+        }
+        if (getEngineOption(PythonOptions.LazyFunctionCompilation)) {
+            flags.add(Compiler.Flags.LAZY_FUNCTIONS);
+        }
+        CompilationUnit cu = compiler.compile(mod, flags, optimize);
+        return cu.assemble();
+    }
+
     private static ModTy transformASTForExecutionWithArguments(List<String> argumentNames, ModTy mod) {
         NodeFactory nodeFactory = new NodeFactory();
         ArgTy[] astArgArray = new ArgTy[argumentNames.size()];
@@ -64,6 +64,7 @@ import com.oracle.graal.python.builtins.modules.ArrayModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.AsyncioModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.AtexitModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.BinasciiModuleBuiltins;
+import com.oracle.graal.python.builtins.modules.BisectModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.BuiltinConstructors;
 import com.oracle.graal.python.builtins.modules.BuiltinFunctions;
 import com.oracle.graal.python.builtins.modules.CmathModuleBuiltins;
@@ -80,6 +81,7 @@ import com.oracle.graal.python.builtins.modules.GcModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.GraalHPyDebugModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.GraalHPyUniversalModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.GraalPythonModuleBuiltins;
+import com.oracle.graal.python.builtins.modules.HeapqModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.ImpModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.ItertoolsModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.JArrayModuleBuiltins;
@@ -183,6 +185,16 @@ import com.oracle.graal.python.builtins.modules.ctypes.StgDictBuiltins;
 import com.oracle.graal.python.builtins.modules.ctypes.StructUnionTypeBuiltins;
 import com.oracle.graal.python.builtins.modules.ctypes.StructureBuiltins;
 import com.oracle.graal.python.builtins.modules.ctypes.UnionTypeBuiltins;
+import com.oracle.graal.python.builtins.modules.datetime.DateBuiltins;
+import com.oracle.graal.python.builtins.modules.datetime.DateTimeBuiltins;
+import com.oracle.graal.python.builtins.modules.datetime.DateTimeModuleBuiltins;
+import com.oracle.graal.python.builtins.modules.datetime.IsoCalendarDateBuiltins;
+import com.oracle.graal.python.builtins.modules.datetime.TimeBuiltins;
+import com.oracle.graal.python.builtins.modules.datetime.TimeDeltaBuiltins;
+import com.oracle.graal.python.builtins.modules.datetime.TimeZoneBuiltins;
+import com.oracle.graal.python.builtins.modules.datetime.TzInfoBuiltins;
+import com.oracle.graal.python.builtins.modules.decimal.DecimalBuiltins;
+import com.oracle.graal.python.builtins.modules.decimal.DecimalModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.hashlib.Blake2ModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.hashlib.Blake2bObjectBuiltins;
 import com.oracle.graal.python.builtins.modules.hashlib.Blake2sObjectBuiltins;
@@ -219,6 +231,12 @@ import com.oracle.graal.python.builtins.modules.json.JSONScannerBuiltins;
 import com.oracle.graal.python.builtins.modules.lzma.LZMACompressorBuiltins;
 import com.oracle.graal.python.builtins.modules.lzma.LZMADecompressorBuiltins;
 import com.oracle.graal.python.builtins.modules.lzma.LZMAModuleBuiltins;
+import com.oracle.graal.python.builtins.modules.pickle.PickleBufferBuiltins;
+import com.oracle.graal.python.builtins.modules.pickle.PickleModuleBuiltins;
+import com.oracle.graal.python.builtins.modules.pickle.PicklerBuiltins;
+import com.oracle.graal.python.builtins.modules.pickle.PicklerMemoProxyBuiltins;
+import com.oracle.graal.python.builtins.modules.pickle.UnpicklerBuiltins;
+import com.oracle.graal.python.builtins.modules.pickle.UnpicklerMemoProxyBuiltins;
 import com.oracle.graal.python.builtins.modules.zlib.ZLibModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.zlib.ZlibCompressBuiltins;
 import com.oracle.graal.python.builtins.modules.zlib.ZlibDecompressBuiltins;
@@ -622,6 +640,8 @@ public abstract class Python3Core {
                         new StringModuleBuiltins(),
                         new ItertoolsModuleBuiltins(),
                         new FunctoolsModuleBuiltins(),
+                        new HeapqModuleBuiltins(),
+                        new BisectModuleBuiltins(),
                         new ErrnoModuleBuiltins(),
                         new CodecsModuleBuiltins(),
                         new CodecsTruffleModuleBuiltins(),
@@ -634,6 +654,9 @@ public abstract class Python3Core {
                         new JArrayModuleBuiltins(),
                         new CSVModuleBuiltins(),
                         new JSONModuleBuiltins(),
+                        new PickleModuleBuiltins(),
+                        new DateTimeModuleBuiltins(),
+                        new DecimalModuleBuiltins(),
                         new SREModuleBuiltins(),
                         new AstModuleBuiltins(),
                         PythonOptions.WITHOUT_NATIVE_POSIX && PythonOptions.WITHOUT_JAVA_INET ? null : new SelectModuleBuiltins(),
@@ -730,6 +753,25 @@ public abstract class Python3Core {
                         new JSONScannerBuiltins(),
                         new JSONEncoderBuiltins(),
 
+                        // pickle
+                        new PicklerBuiltins(),
+                        new PicklerMemoProxyBuiltins(),
+                        new UnpicklerBuiltins(),
+                        new UnpicklerMemoProxyBuiltins(),
+                        new PickleBufferBuiltins(),
+
+                        // datetime
+                        new DateBuiltins(),
+                        new DateTimeBuiltins(),
+                        new TimeBuiltins(),
+                        new TimeDeltaBuiltins(),
+                        new TzInfoBuiltins(),
+                        new TimeZoneBuiltins(),
+                        new IsoCalendarDateBuiltins(),
+
+                        // decimal
+                        new DecimalBuiltins(),
+
                         // csv
                         new CSVDialectBuiltins(),
                         new CSVReaderBuiltins(),
@@ -1253,6 +1295,14 @@ public abstract class Python3Core {
         loadFile(s, prefix, mod);
     }
 
+    /**
+     * Runs the file of a builtin module in {@code lib-graalpython} in the module. This is for
+     * modules that are partly implemented in Python and only completed when they are imported.
+     */
+    public final void loadBuiltinModuleFile(TruffleString name) {
+        loadFile(name, getContext().getCoreHomeOrFail(), lookupBuiltinModule(name));
+    }
+
     private void loadFile(TruffleString s, TruffleString prefix, PythonModule mod) {
         if (ImpModuleBuiltins.importFrozenModuleObject(this, cat(T_GRAALPYTHON, T_DOT, s), false, mod) != null) {
             LOGGER.log(Level.FINE, () -> "import '" + s + "' # <frozen>");
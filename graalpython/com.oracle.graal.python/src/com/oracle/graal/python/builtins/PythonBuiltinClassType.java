@@ -181,6 +181,18 @@ public enum PythonBuiltinClassType implements TruffleObject {
     Unpickler("Unpickler", "_pickle"),
     PickleBuffer("PickleBuffer", "_pickle"),
 
+    // datetime
+    PDate("date", "_datetime", "datetime", Flags.PUBLIC_BASE_WODICT),
+    PDateTime("datetime", "_datetime", "datetime", Flags.PUBLIC_BASE_WODICT),
+    PTime("time", "_datetime", "datetime", Flags.PUBLIC_BASE_WODICT),
+    PTimeDelta("timedelta", "_datetime", "datetime", Flags.PUBLIC_BASE_WODICT),
+    PTzInfo("tzinfo", "_datetime", "datetime", Flags.PUBLIC_BASE_WODICT),
+    PTimeZone("timezone", "_datetime", "datetime", Flags.PUBLIC_DERIVED_WODICT),
+    PIsoCalendarDate("IsoCalendarDate", null, "datetime", Flags.PUBLIC_DERIVED_WODICT),
+
+    // decimal
+    PDecimal("_DecimalBase", "_decimal", Flags.PUBLIC_BASE_WODICT),
+
     // bz2
     BZ2Compressor("BZ2Compressor", "_bz2"),
     BZ2Decompressor("BZ2Decompressor", "_bz2"),
@@ -722,6 +734,9 @@ public enum PythonBuiltinClassType implements TruffleObject {
         PThreadInfo.base = PTuple;
         PUnraisableHookArgs.base = PTuple;
         PDefaultDict.base = PDict;
+        PDateTime.base = PDate;
+        PTimeZone.base = PTzInfo;
+        PIsoCalendarDate.base = PTuple;
 
         PArrayIterator.type = PythonClass;
         PSocket.type = PythonClass;
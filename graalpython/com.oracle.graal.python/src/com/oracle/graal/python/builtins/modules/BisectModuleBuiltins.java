@@ -0,0 +1,336 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.T_INSERT;
+
+import java.util.List;
+
+import com.oracle.graal.python.annotations.ArgumentClinic;
+import com.oracle.graal.python.annotations.ArgumentClinic.ClinicConversion;
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.list.ListBuiltins.ListInsertNode;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.lib.PyListCheckExactNode;
+import com.oracle.graal.python.lib.PyObjectCallMethodObjArgs;
+import com.oracle.graal.python.lib.PyObjectGetItem;
+import com.oracle.graal.python.lib.PyObjectRichCompareBool;
+import com.oracle.graal.python.lib.PyObjectSizeNode;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonClinicBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.clinic.ArgumentClinicProvider;
+import com.oracle.graal.python.runtime.sequence.storage.DoubleSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.IntRangeSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.IntSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.LongSequenceStorage;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Cached.Shared;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.ImportStatic;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.Node;
+
+/**
+ * Java implementation of CPython's {@code _bisect} accelerator module. Without a key function,
+ * exact lists with int, long or double storage are searched directly on the backing array if the
+ * searched value has the same primitive type. Everything else, including list subclasses that may
+ * override {@code __getitem__}, goes through {@code __getitem__} and {@code __lt__} like in CPython.
+ */
+@CoreFunctions(defineModule = "_bisect")
+public final class BisectModuleBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return BisectModuleBuiltinsFactory.getFactories();
+    }
+
+    /**
+     * Returns the insertion point for {@code x} in {@code a[lo:hi]}. The bounds must already be
+     * checked and normalized by the caller.
+     */
+    @ImportStatic(PGuards.class)
+    abstract static class BisectNode extends Node {
+
+        abstract int execute(VirtualFrame frame, Object a, Object x, int lo, int hi, Object key, boolean right);
+
+        @Specialization(guards = {"isListNode.execute(a)", "isIntStorage(a)", "hi <= a.getSequenceStorage().length()"}, limit = "1")
+        static int doInt(PList a, int x, int lo, int hi, @SuppressWarnings("unused") PNone key, boolean right,
+                        @Shared("isList") @SuppressWarnings("unused") @Cached PyListCheckExactNode isListNode) {
+            int[] array = ((IntSequenceStorage) a.getSequenceStorage()).getInternalIntArray();
+            int low = lo;
+            int high = hi;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (right ? x < array[mid] : !(array[mid] < x)) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+
+        @Specialization(guards = {"isListNode.execute(a)", "isLongStorage(a)", "hi <= a.getSequenceStorage().length()"}, limit = "1")
+        static int doLong(PList a, long x, int lo, int hi, @SuppressWarnings("unused") PNone key, boolean right,
+                        @Shared("isList") @SuppressWarnings("unused") @Cached PyListCheckExactNode isListNode) {
+            long[] array = ((LongSequenceStorage) a.getSequenceStorage()).getInternalLongArray();
+            int low = lo;
+            int high = hi;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (right ? x < array[mid] : !(array[mid] < x)) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+
+        @Specialization(guards = {"isListNode.execute(a)", "isIntRangeStorage(a)", "hi <= a.getSequenceStorage().length()"}, limit = "1")
+        static int doIntRange(PList a, int x, int lo, int hi, @SuppressWarnings("unused") PNone key, boolean right,
+                        @Shared("isList") @SuppressWarnings("unused") @Cached PyListCheckExactNode isListNode) {
+            // e.g. list(range(n)) that was not modified yet, the elements are computed
+            IntRangeSequenceStorage storage = (IntRangeSequenceStorage) a.getSequenceStorage();
+            int low = lo;
+            int high = hi;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int item = storage.getIntItemNormalized(mid);
+                if (right ? x < item : !(item < x)) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+
+        @Specialization(guards = {"isListNode.execute(a)", "isLongStorage(a)", "hi <= a.getSequenceStorage().length()"}, limit = "1")
+        static int doLongInt(PList a, int x, int lo, int hi, PNone key, boolean right,
+                        @Shared("isList") @Cached PyListCheckExactNode isListNode) {
+            return doLong(a, x, lo, hi, key, right, isListNode);
+        }
+
+        @Specialization(guards = {"isListNode.execute(a)", "isDoubleStorage(a)", "hi <= a.getSequenceStorage().length()"}, limit = "1")
+        static int doDouble(PList a, double x, int lo, int hi, @SuppressWarnings("unused") PNone key, boolean right,
+                        @Shared("isList") @SuppressWarnings("unused") @Cached PyListCheckExactNode isListNode) {
+            double[] array = ((DoubleSequenceStorage) a.getSequenceStorage()).getInternalDoubleArray();
+            int low = lo;
+            int high = hi;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (right ? x < array[mid] : !(array[mid] < x)) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+
+        @Specialization(replaces = {"doInt", "doIntRange", "doLong", "doLongInt", "doDouble"})
+        static int doGeneric(VirtualFrame frame, Object a, Object x, int lo, int hi, Object key, boolean right,
+                        @Cached PyObjectGetItem getItemNode,
+                        @Cached CallNode callKeyNode,
+                        @Cached PyObjectRichCompareBool.LtNode ltNode) {
+            boolean hasKey = !PGuards.isPNone(key);
+            int low = lo;
+            int high = hi;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                Object item = getItemNode.execute(frame, a, mid);
+                if (hasKey) {
+                    item = callKeyNode.execute(frame, key, item);
+                }
+                if (right ? ltNode.execute(frame, x, item) : !ltNode.execute(frame, item, x)) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Inserts {@code x} at {@code index} using {@code list.insert} for exact lists and calling the
+     * {@code insert} method otherwise.
+     */
+    abstract static class InsertNode extends Node {
+
+        abstract void execute(VirtualFrame frame, Object a, int index, Object x);
+
+        @Specialization
+        static void doInsert(VirtualFrame frame, Object a, int index, Object x,
+                        @Cached PyListCheckExactNode isListNode,
+                        @Cached ListInsertNode listInsertNode,
+                        @Cached PyObjectCallMethodObjArgs callInsertNode) {
+            if (isListNode.execute(a)) {
+                listInsertNode.execute(frame, (PList) a, index, x);
+            } else {
+                callInsertNode.execute(frame, a, T_INSERT, index, x);
+            }
+        }
+    }
+
+    static int checkBounds(VirtualFrame frame, PythonBuiltinBaseNode node, Object a, int lo, int hi, PyObjectSizeNode sizeNode) {
+        if (lo < 0) {
+            throw node.raise(ValueError, ErrorMessages.MUST_BE_NON_NEGATIVE, "lo");
+        }
+        return hi == -1 ? sizeNode.execute(frame, a) : hi;
+    }
+
+    @Builtin(name = "bisect_right", minNumOfPositionalArgs = 2, parameterNames = {"a", "x", "lo", "hi"}, keywordOnlyNames = {"key"}, //
+                    doc = "Return the index where to insert item x in list a, assuming a is sorted.\n\n" +
+                                    "The return value i is such that all e in a[:i] have e <= x, and all e in\n" +
+                                    "a[i:] have e > x.  So if x already appears in the list, a.insert(i, x) will\n" +
+                                    "insert just after the rightmost x already there.\n\n" +
+                                    "Optional args lo (default 0) and hi (default len(a)) bound the\n" +
+                                    "slice of a to be searched.")
+    @ArgumentClinic(name = "lo", conversion = ClinicConversion.Index, defaultValue = "0")
+    @ArgumentClinic(name = "hi", conversion = ClinicConversion.Index, defaultValue = "-1", useDefaultForNone = true)
+    @GenerateNodeFactory
+    abstract static class BisectRightNode extends PythonClinicBuiltinNode {
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return BisectModuleBuiltinsClinicProviders.BisectRightNodeClinicProviderGen.INSTANCE;
+        }
+
+        @Specialization
+        int doBisect(VirtualFrame frame, Object a, Object x, int lo, int hi, Object key,
+                        @Cached PyObjectSizeNode sizeNode,
+                        @Cached BisectNode bisectNode) {
+            return bisectNode.execute(frame, a, x, lo, checkBounds(frame, this, a, lo, hi, sizeNode), key, true);
+        }
+    }
+
+    @Builtin(name = "bisect_left", minNumOfPositionalArgs = 2, parameterNames = {"a", "x", "lo", "hi"}, keywordOnlyNames = {"key"}, //
+                    doc = "Return the index where to insert item x in list a, assuming a is sorted.\n\n" +
+                                    "The return value i is such that all e in a[:i] have e < x, and all e in\n" +
+                                    "a[i:] have e >= x.  So if x already appears in the list, a.insert(i, x) will\n" +
+                                    "insert just before the leftmost x already there.\n\n" +
+                                    "Optional args lo (default 0) and hi (default len(a)) bound the\n" +
+                                    "slice of a to be searched.")
+    @ArgumentClinic(name = "lo", conversion = ClinicConversion.Index, defaultValue = "0")
+    @ArgumentClinic(name = "hi", conversion = ClinicConversion.Index, defaultValue = "-1", useDefaultForNone = true)
+    @GenerateNodeFactory
+    abstract static class BisectLeftNode extends PythonClinicBuiltinNode {
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return BisectModuleBuiltinsClinicProviders.BisectLeftNodeClinicProviderGen.INSTANCE;
+        }
+
+        @Specialization
+        int doBisect(VirtualFrame frame, Object a, Object x, int lo, int hi, Object key,
+                        @Cached PyObjectSizeNode sizeNode,
+                        @Cached BisectNode bisectNode) {
+            return bisectNode.execute(frame, a, x, lo, checkBounds(frame, this, a, lo, hi, sizeNode), key, false);
+        }
+    }
+
+    @Builtin(name = "insort_right", minNumOfPositionalArgs = 2, parameterNames = {"a", "x", "lo", "hi"}, keywordOnlyNames = {"key"}, //
+                    doc = "Insert item x in list a, and keep it sorted assuming a is sorted.\n\n" +
+                                    "If x is already in a, insert it to the right of the rightmost x.\n\n" +
+                                    "Optional args lo (default 0) and hi (default len(a)) bound the\n" +
+                                    "slice of a to be searched.")
+    @ArgumentClinic(name = "lo", conversion = ClinicConversion.Index, defaultValue = "0")
+    @ArgumentClinic(name = "hi", conversion = ClinicConversion.Index, defaultValue = "-1", useDefaultForNone = true)
+    @GenerateNodeFactory
+    abstract static class InsortRightNode extends PythonClinicBuiltinNode {
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return BisectModuleBuiltinsClinicProviders.InsortRightNodeClinicProviderGen.INSTANCE;
+        }
+
+        @Specialization
+        PNone doInsort(VirtualFrame frame, Object a, Object x, int lo, int hi, Object key,
+                        @Cached PyObjectSizeNode sizeNode,
+                        @Cached CallNode callKeyNode,
+                        @Cached BisectNode bisectNode,
+                        @Cached InsertNode insertNode) {
+            Object keyValue = PGuards.isPNone(key) ? x : callKeyNode.execute(frame, key, x);
+            int index = bisectNode.execute(frame, a, keyValue, lo, checkBounds(frame, this, a, lo, hi, sizeNode), key, true);
+            insertNode.execute(frame, a, index, x);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "insort_left", minNumOfPositionalArgs = 2, parameterNames = {"a", "x", "lo", "hi"}, keywordOnlyNames = {"key"}, //
+                    doc = "Insert item x in list a, and keep it sorted assuming a is sorted.\n\n" +
+                                    "If x is already in a, insert it to the left of the leftmost x.\n\n" +
+                                    "Optional args lo (default 0) and hi (default len(a)) bound the\n" +
+                                    "slice of a to be searched.")
+    @ArgumentClinic(name = "lo", conversion = ClinicConversion.Index, defaultValue = "0")
+    @ArgumentClinic(name = "hi", conversion = ClinicConversion.Index, defaultValue = "-1", useDefaultForNone = true)
+    @GenerateNodeFactory
+    abstract static class InsortLeftNode extends PythonClinicBuiltinNode {
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return BisectModuleBuiltinsClinicProviders.InsortLeftNodeClinicProviderGen.INSTANCE;
+        }
+
+        @Specialization
+        PNone doInsort(VirtualFrame frame, Object a, Object x, int lo, int hi, Object key,
+                        @Cached PyObjectSizeNode sizeNode,
+                        @Cached CallNode callKeyNode,
+                        @Cached BisectNode bisectNode,
+                        @Cached InsertNode insertNode) {
+            Object keyValue = PGuards.isPNone(key) ? x : callKeyNode.execute(frame, key, x);
+            int index = bisectNode.execute(frame, a, keyValue, lo, checkBounds(frame, this, a, lo, hi, sizeNode), key, false);
+            insertNode.execute(frame, a, index, x);
+            return PNone.NONE;
+        }
+    }
+}
@@ -0,0 +1,557 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.IndexError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.RuntimeError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.TypeError;
+import static com.oracle.graal.python.builtins.objects.str.StringUtils.compareStrings;
+import static com.oracle.graal.python.nodes.BuiltinNames.T_LIST;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.lib.PyObjectRichCompareBool;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.PRaiseNode;
+import com.oracle.graal.python.nodes.builtins.ListNodes;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.runtime.sequence.storage.DoubleSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.IntSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.LongSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.StringSequenceStorage;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.ImportStatic;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.strings.TruffleString;
+
+/**
+ * Java implementation of CPython's {@code _heapq} accelerator module. The heap operations work
+ * directly on the list storage. For int, long, double and string storages, the items are compared
+ * on the backing array without dispatching to {@code __lt__}, which also means that the list cannot
+ * be modified during the operation. All other storages use {@link PyObjectRichCompareBool.LtNode}
+ * and check for concurrent modification like CPython.
+ */
+@CoreFunctions(defineModule = "_heapq")
+public final class HeapqModuleBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return HeapqModuleBuiltinsFactory.getFactories();
+    }
+
+    /**
+     * Moves the item at {@code pos} towards the root (but not above {@code startPos}) until its
+     * parent is not greater (for a max-heap: not smaller) than the item.
+     */
+    @ImportStatic(PGuards.class)
+    abstract static class SiftDownNode extends Node {
+
+        abstract void execute(VirtualFrame frame, PList heap, int startPos, int pos, boolean max);
+
+        @Specialization(guards = "isIntStorage(heap)")
+        static void doInt(PList heap, int startPos, int pos, boolean max) {
+            siftDown(((IntSequenceStorage) heap.getSequenceStorage()).getInternalIntArray(), startPos, pos, max);
+        }
+
+        @Specialization(guards = "isLongStorage(heap)")
+        static void doLong(PList heap, int startPos, int pos, boolean max) {
+            siftDown(((LongSequenceStorage) heap.getSequenceStorage()).getInternalLongArray(), startPos, pos, max);
+        }
+
+        @Specialization(guards = "isDoubleStorage(heap)")
+        static void doDouble(PList heap, int startPos, int pos, boolean max) {
+            siftDown(((DoubleSequenceStorage) heap.getSequenceStorage()).getInternalDoubleArray(), startPos, pos, max);
+        }
+
+        @Specialization(guards = "isStringStorage(heap)")
+        static void doString(PList heap, int startPos, int pos, boolean max,
+                        @Cached TruffleString.CompareIntsUTF32Node compareNode) {
+            siftDown(((StringSequenceStorage) heap.getSequenceStorage()).getInternalStringArray(), startPos, pos, max, compareNode);
+        }
+
+        @Specialization(guards = {"!isIntStorage(heap)", "!isLongStorage(heap)", "!isDoubleStorage(heap)", "!isStringStorage(heap)"})
+        static void doGeneric(VirtualFrame frame, PList heap, int startPos, int pos, boolean max,
+                        @Cached PyObjectRichCompareBool.LtNode ltNode,
+                        @Cached SequenceStorageNodes.GetItemScalarNode getItemNode,
+                        @Cached("createForList()") SequenceStorageNodes.SetItemNode setItemNode,
+                        @Cached PRaiseNode raiseNode) {
+            int size = heap.getSequenceStorage().length();
+            Object newItem = getItemNode.execute(heap.getSequenceStorage(), pos);
+            int i = pos;
+            while (i > startPos) {
+                int parentPos = (i - 1) >> 1;
+                Object parent = getItemNode.execute(heap.getSequenceStorage(), parentPos);
+                boolean lessThan = max ? ltNode.execute(frame, parent, newItem) : ltNode.execute(frame, newItem, parent);
+                checkSize(heap, size, raiseNode);
+                if (!lessThan) {
+                    break;
+                }
+                // the comparison may have modified the list, so re-read the items like CPython
+                parent = getItemNode.execute(heap.getSequenceStorage(), parentPos);
+                newItem = getItemNode.execute(heap.getSequenceStorage(), i);
+                setItem(heap, parentPos, newItem, setItemNode);
+                setItem(heap, i, parent, setItemNode);
+                i = parentPos;
+            }
+        }
+
+        private static void siftDown(int[] heap, int startPos, int pos, boolean max) {
+            int newItem = heap[pos];
+            int i = pos;
+            while (i > startPos) {
+                int parentPos = (i - 1) >> 1;
+                int parent = heap[parentPos];
+                if (!(max ? parent < newItem : newItem < parent)) {
+                    break;
+                }
+                heap[i] = parent;
+                i = parentPos;
+            }
+            heap[i] = newItem;
+        }
+
+        private static void siftDown(long[] heap, int startPos, int pos, boolean max) {
+            long newItem = heap[pos];
+            int i = pos;
+            while (i > startPos) {
+                int parentPos = (i - 1) >> 1;
+                long parent = heap[parentPos];
+                if (!(max ? parent < newItem : newItem < parent)) {
+                    break;
+                }
+                heap[i] = parent;
+                i = parentPos;
+            }
+            heap[i] = newItem;
+        }
+
+        private static void siftDown(double[] heap, int startPos, int pos, boolean max) {
+            double newItem = heap[pos];
+            int i = pos;
+            while (i > startPos) {
+                int parentPos = (i - 1) >> 1;
+                double parent = heap[parentPos];
+                if (!(max ? parent < newItem : newItem < parent)) {
+                    break;
+                }
+                heap[i] = parent;
+                i = parentPos;
+            }
+            heap[i] = newItem;
+        }
+
+        private static void siftDown(TruffleString[] heap, int startPos, int pos, boolean max, TruffleString.CompareIntsUTF32Node compareNode) {
+            TruffleString newItem = heap[pos];
+            int i = pos;
+            while (i > startPos) {
+                int parentPos = (i - 1) >> 1;
+                TruffleString parent = heap[parentPos];
+                if (!(max ? compareStrings(parent, newItem, compareNode) < 0 : compareStrings(newItem, parent, compareNode) < 0)) {
+                    break;
+                }
+                heap[i] = parent;
+                i = parentPos;
+            }
+            heap[i] = newItem;
+        }
+    }
+
+    /**
+     * Moves the item at {@code pos} down to a leaf by always following the smaller (for a max-heap:
+     * larger) child and then sifts it back up to its final position. This is the same strategy as
+     * CPython's {@code siftup}.
+     */
+    @ImportStatic(PGuards.class)
+    abstract static class SiftUpNode extends Node {
+
+        abstract void execute(VirtualFrame frame, PList heap, int pos, boolean max);
+
+        @Specialization(guards = "isIntStorage(heap)")
+        static void doInt(PList heap, int pos, boolean max) {
+            IntSequenceStorage storage = (IntSequenceStorage) heap.getSequenceStorage();
+            int[] array = storage.getInternalIntArray();
+            int len = storage.length();
+            int newItem = array[pos];
+            int i = pos;
+            int limit = len >> 1;
+            while (i < limit) {
+                int child = 2 * i + 1;
+                if (child + 1 < len && !(max ? array[child + 1] < array[child] : array[child] < array[child + 1])) {
+                    child++;
+                }
+                array[i] = array[child];
+                i = child;
+            }
+            array[i] = newItem;
+            SiftDownNode.siftDown(array, pos, i, max);
+        }
+
+        @Specialization(guards = "isLongStorage(heap)")
+        static void doLong(PList heap, int pos, boolean max) {
+            LongSequenceStorage storage = (LongSequenceStorage) heap.getSequenceStorage();
+            long[] array = storage.getInternalLongArray();
+            int len = storage.length();
+            long newItem = array[pos];
+            int i = pos;
+            int limit = len >> 1;
+            while (i < limit) {
+                int child = 2 * i + 1;
+                if (child + 1 < len && !(max ? array[child + 1] < array[child] : array[child] < array[child + 1])) {
+                    child++;
+                }
+                array[i] = array[child];
+                i = child;
+            }
+            array[i] = newItem;
+            SiftDownNode.siftDown(array, pos, i, max);
+        }
+
+        @Specialization(guards = "isDoubleStorage(heap)")
+        static void doDouble(PList heap, int pos, boolean max) {
+            DoubleSequenceStorage storage = (DoubleSequenceStorage) heap.getSequenceStorage();
+            double[] array = storage.getInternalDoubleArray();
+            int len = storage.length();
+            double newItem = array[pos];
+            int i = pos;
+            int limit = len >> 1;
+            while (i < limit) {
+                int child = 2 * i + 1;
+                if (child + 1 < len && !(max ? array[child + 1] < array[child] : array[child] < array[child + 1])) {
+                    child++;
+                }
+                array[i] = array[child];
+                i = child;
+            }
+            array[i] = newItem;
+            SiftDownNode.siftDown(array, pos, i, max);
+        }
+
+        @Specialization(guards = "isStringStorage(heap)")
+        static void doString(PList heap, int pos, boolean max,
+                        @Cached TruffleString.CompareIntsUTF32Node compareNode) {
+            StringSequenceStorage storage = (StringSequenceStorage) heap.getSequenceStorage();
+            TruffleString[] array = storage.getInternalStringArray();
+            int len = storage.length();
+            TruffleString newItem = array[pos];
+            int i = pos;
+            int limit = len >> 1;
+            while (i < limit) {
+                int child = 2 * i + 1;
+                if (child + 1 < len && !(max ? compareStrings(array[child + 1], array[child], compareNode) < 0 : compareStrings(array[child], array[child + 1], compareNode) < 0)) {
+                    child++;
+                }
+                array[i] = array[child];
+                i = child;
+            }
+            array[i] = newItem;
+            SiftDownNode.siftDown(array, pos, i, max, compareNode);
+        }
+
+        @Specialization(guards = {"!isIntStorage(heap)", "!isLongStorage(heap)", "!isDoubleStorage(heap)", "!isStringStorage(heap)"})
+        static void doGeneric(VirtualFrame frame, PList heap, int pos, boolean max,
+                        @Cached PyObjectRichCompareBool.LtNode ltNode,
+                        @Cached SequenceStorageNodes.GetItemScalarNode getItemNode,
+                        @Cached("createForList()") SequenceStorageNodes.SetItemNode setItemNode,
+                        @Cached SiftDownNode siftDownNode,
+                        @Cached PRaiseNode raiseNode) {
+            int len = heap.getSequenceStorage().length();
+            int i = pos;
+            int limit = len >> 1;
+            while (i < limit) {
+                int child = 2 * i + 1;
+                if (child + 1 < len) {
+                    Object left = getItemNode.execute(heap.getSequenceStorage(), child);
+                    Object right = getItemNode.execute(heap.getSequenceStorage(), child + 1);
+                    boolean lessThan = max ? ltNode.execute(frame, right, left) : ltNode.execute(frame, left, right);
+                    checkSize(heap, len, raiseNode);
+                    if (!lessThan) {
+                        child++;
+                    }
+                }
+                // move the smaller child up
+                Object childItem = getItemNode.execute(heap.getSequenceStorage(), child);
+                Object item = getItemNode.execute(heap.getSequenceStorage(), i);
+                setItem(heap, child, item, setItemNode);
+                setItem(heap, i, childItem, setItemNode);
+                i = child;
+            }
+            siftDownNode.execute(frame, heap, pos, i, max);
+        }
+    }
+
+    private static void setItem(PList heap, int idx, Object value, SequenceStorageNodes.SetItemNode setItemNode) {
+        SequenceStorage newStorage = setItemNode.execute(heap.getSequenceStorage(), idx, value);
+        if (newStorage != heap.getSequenceStorage()) {
+            heap.setSequenceStorage(newStorage);
+        }
+    }
+
+    private static void checkSize(PList heap, int expectedSize, PRaiseNode raiseNode) {
+        if (heap.getSequenceStorage().length() != expectedSize) {
+            throw raiseNode.raise(RuntimeError, ErrorMessages.CHANGED_SIZE_DURING_ITERATION, T_LIST);
+        }
+    }
+
+    /**
+     * Removes the last item and puts it at the root of the heap, returning the previous root.
+     */
+    static Object pop(VirtualFrame frame, PythonBuiltinBaseNode node, PList heap, boolean max, SequenceStorageNodes.GetItemScalarNode getItemNode,
+                    SequenceStorageNodes.SetItemNode setItemNode, SiftUpNode siftUpNode) {
+        SequenceStorage storage = heap.getSequenceStorage();
+        int len = storage.length();
+        if (len == 0) {
+            throw node.raise(IndexError, ErrorMessages.INDEX_OUT_OF_RANGE);
+        }
+        Object last = getItemNode.execute(storage, len - 1);
+        storage.setNewLength(len - 1);
+        if (len == 1) {
+            return last;
+        }
+        Object result = getItemNode.execute(storage, 0);
+        setItem(heap, 0, last, setItemNode);
+        siftUpNode.execute(frame, heap, 0, max);
+        return result;
+    }
+
+    /**
+     * Replaces the root of the heap with {@code item}, returning the previous root.
+     */
+    static Object replace(VirtualFrame frame, PythonBuiltinBaseNode node, PList heap, Object item, boolean max, SequenceStorageNodes.GetItemScalarNode getItemNode,
+                    SequenceStorageNodes.SetItemNode setItemNode, SiftUpNode siftUpNode) {
+        SequenceStorage storage = heap.getSequenceStorage();
+        if (storage.length() == 0) {
+            throw node.raise(IndexError, ErrorMessages.INDEX_OUT_OF_RANGE);
+        }
+        Object result = getItemNode.execute(storage, 0);
+        setItem(heap, 0, item, setItemNode);
+        siftUpNode.execute(frame, heap, 0, max);
+        return result;
+    }
+
+    static void heapify(VirtualFrame frame, PList heap, boolean max, SiftUpNode siftUpNode) {
+        int len = heap.getSequenceStorage().length();
+        for (int i = len / 2 - 1; i >= 0; i--) {
+            siftUpNode.execute(frame, heap, i, max);
+        }
+    }
+
+    @Builtin(name = "heappush", minNumOfPositionalArgs = 2, doc = "Push item onto heap, maintaining the heap invariant.")
+    @GenerateNodeFactory
+    abstract static class HeapPushNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        static PNone doList(VirtualFrame frame, PList heap, Object item,
+                        @Cached ListNodes.AppendNode appendNode,
+                        @Cached SiftDownNode siftDownNode) {
+            appendNode.execute(heap, item);
+            siftDownNode.execute(frame, heap, 0, heap.getSequenceStorage().length() - 1, false);
+            return PNone.NONE;
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        Object doError(Object heap, Object item) {
+            throw raise(TypeError, ErrorMessages.HEAP_ARGUMENT_MUST_BE_A_LIST);
+        }
+    }
+
+    @Builtin(name = "heappop", minNumOfPositionalArgs = 1, doc = "Pop the smallest item off the heap, maintaining the heap invariant.")
+    @GenerateNodeFactory
+    abstract static class HeapPopNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        Object doList(VirtualFrame frame, PList heap,
+                        @Cached SequenceStorageNodes.GetItemScalarNode getItemNode,
+                        @Cached("createForList()") SequenceStorageNodes.SetItemNode setItemNode,
+                        @Cached SiftUpNode siftUpNode) {
+            return pop(frame, this, heap, false, getItemNode, setItemNode, siftUpNode);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        Object doError(Object heap) {
+            throw raise(TypeError, ErrorMessages.HEAP_ARGUMENT_MUST_BE_A_LIST);
+        }
+    }
+
+    @Builtin(name = "_heappop_max", minNumOfPositionalArgs = 1, doc = "Maxheap variant of heappop.")
+    @GenerateNodeFactory
+    abstract static class HeapPopMaxNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        Object doList(VirtualFrame frame, PList heap,
+                        @Cached SequenceStorageNodes.GetItemScalarNode getItemNode,
+                        @Cached("createForList()") SequenceStorageNodes.SetItemNode setItemNode,
+                        @Cached SiftUpNode siftUpNode) {
+            return pop(frame, this, heap, true, getItemNode, setItemNode, siftUpNode);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        Object doError(Object heap) {
+            throw raise(TypeError, ErrorMessages.HEAP_ARGUMENT_MUST_BE_A_LIST);
+        }
+    }
+
+    @Builtin(name = "heapreplace", minNumOfPositionalArgs = 2, doc = "Pop and return the current smallest value, and add the new item.\n\n" +
+                    "This is more efficient than heappop() followed by heappush(), and can be\n" +
+                    "more appropriate when using a fixed-size heap.  Note that the value\n" +
+                    "returned may be larger than item!  That constrains reasonable uses of\n" +
+                    "this routine unless written as part of a conditional replacement:\n\n" +
+                    "    if item > heap[0]:\n" +
+                    "        item = heapreplace(heap, item)")
+    @GenerateNodeFactory
+    abstract static class HeapReplaceNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        Object doList(VirtualFrame frame, PList heap, Object item,
+                        @Cached SequenceStorageNodes.GetItemScalarNode getItemNode,
+                        @Cached("createForList()") SequenceStorageNodes.SetItemNode setItemNode,
+                        @Cached SiftUpNode siftUpNode) {
+            return replace(frame, this, heap, item, false, getItemNode, setItemNode, siftUpNode);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        Object doError(Object heap, Object item) {
+            throw raise(TypeError, ErrorMessages.HEAP_ARGUMENT_MUST_BE_A_LIST);
+        }
+    }
+
+    @Builtin(name = "_heapreplace_max", minNumOfPositionalArgs = 2, doc = "Maxheap variant of heapreplace.")
+    @GenerateNodeFactory
+    abstract static class HeapReplaceMaxNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        Object doList(VirtualFrame frame, PList heap, Object item,
+                        @Cached SequenceStorageNodes.GetItemScalarNode getItemNode,
+                        @Cached("createForList()") SequenceStorageNodes.SetItemNode setItemNode,
+                        @Cached SiftUpNode siftUpNode) {
+            return replace(frame, this, heap, item, true, getItemNode, setItemNode, siftUpNode);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        Object doError(Object heap, Object item) {
+            throw raise(TypeError, ErrorMessages.HEAP_ARGUMENT_MUST_BE_A_LIST);
+        }
+    }
+
+    @Builtin(name = "heappushpop", minNumOfPositionalArgs = 2, doc = "Push item on the heap, then pop and return the smallest item from the heap.\n\n" +
+                    "The combined action runs more efficiently than heappush() followed by\n" +
+                    "a separate call to heappop().")
+    @GenerateNodeFactory
+    abstract static class HeapPushPopNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        Object doList(VirtualFrame frame, PList heap, Object item,
+                        @Cached PyObjectRichCompareBool.LtNode ltNode,
+                        @Cached SequenceStorageNodes.GetItemScalarNode getItemNode,
+                        @Cached("createForList()") SequenceStorageNodes.SetItemNode setItemNode,
+                        @Cached SiftUpNode siftUpNode) {
+            if (heap.getSequenceStorage().length() == 0) {
+                return item;
+            }
+            Object top = getItemNode.execute(heap.getSequenceStorage(), 0);
+            if (!ltNode.execute(frame, top, item)) {
+                return item;
+            }
+            return replace(frame, this, heap, item, false, getItemNode, setItemNode, siftUpNode);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        Object doError(Object heap, Object item) {
+            throw raise(TypeError, ErrorMessages.HEAP_ARGUMENT_MUST_BE_A_LIST);
+        }
+    }
+
+    @Builtin(name = "heapify", minNumOfPositionalArgs = 1, doc = "Transform list into a heap, in-place, in O(len(heap)) time.")
+    @GenerateNodeFactory
+    abstract static class HeapifyNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        static PNone doList(VirtualFrame frame, PList heap,
+                        @Cached SiftUpNode siftUpNode) {
+            heapify(frame, heap, false, siftUpNode);
+            return PNone.NONE;
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        Object doError(Object heap) {
+            throw raise(TypeError, ErrorMessages.HEAP_ARGUMENT_MUST_BE_A_LIST);
+        }
+    }
+
+    @Builtin(name = "_heapify_max", minNumOfPositionalArgs = 1, doc = "Maxheap variant of heapify.")
+    @GenerateNodeFactory
+    abstract static class HeapifyMaxNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        static PNone doList(VirtualFrame frame, PList heap,
+                        @Cached SiftUpNode siftUpNode) {
+            heapify(frame, heap, true, siftUpNode);
+            return PNone.NONE;
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        Object doError(Object heap) {
+            throw raise(TypeError, ErrorMessages.HEAP_ARGUMENT_MUST_BE_A_LIST);
+        }
+    }
+}
@@ -84,6 +84,7 @@ import com.oracle.graal.python.builtins.objects.str.StringNodesFactory.IsInterne
 import com.oracle.graal.python.builtins.objects.type.TypeNodes;
 import com.oracle.graal.python.compiler.CodeUnit;
 import com.oracle.graal.python.compiler.Compiler;
+import com.oracle.graal.python.compiler.LazyCodeUnit;
 import com.oracle.graal.python.lib.PyComplexCheckExactNodeGen;
 import com.oracle.graal.python.lib.PyDictCheckExactNodeGen;
 import com.oracle.graal.python.lib.PyFloatCheckExactNodeGen;
@@ -106,6 +107,7 @@ import com.oracle.graal.python.nodes.function.builtins.PythonUnaryClinicBuiltinN
 import com.oracle.graal.python.nodes.function.builtins.clinic.ArgumentClinicProvider;
 import com.oracle.graal.python.runtime.ExecutionContext.IndirectCallContext;
 import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.graal.python.runtime.PythonOptions;
 import com.oracle.graal.python.runtime.object.PythonObjectFactory;
 import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
 import com.oracle.graal.python.util.PythonUtils;
@@ -331,7 +333,7 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
 
         @TruffleBoundary
         static byte[] dump(Object value, int version, Python3Core core) throws IOException, MarshalError {
-            Marshal outMarshal = new Marshal(version, core.getTrue(), core.getFalse());
+            Marshal outMarshal = new Marshal(version, core.getTrue(), core.getFalse(), core.getContext().getOption(PythonOptions.PersistQuickening));
             outMarshal.writeObject(value);
             return outMarshal.out.toByteArray();
         }
@@ -412,15 +414,17 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
         final int version;
         final PInt pyTrue;
         final PInt pyFalse;
+        final boolean withQuickeningFeedback;
         // CPython's marshal code is little endian
         final ByteArraySupport baSupport = ByteArraySupport.littleEndian();
         byte[] buffer = new byte[Long.BYTES];
         int depth = 0;
 
-        Marshal(int version, PInt pyTrue, PInt pyFalse) {
+        Marshal(int version, PInt pyTrue, PInt pyFalse, boolean withQuickeningFeedback) {
             this.version = version;
             this.pyTrue = pyTrue;
             this.pyFalse = pyFalse;
+            this.withQuickeningFeedback = withQuickeningFeedback;
             this.out = new ByteArrayOutputStream();
             this.refMap = new HashMap<>();
             this.in = null;
@@ -433,6 +437,7 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
             this.version = -1;
             this.pyTrue = null;
             this.pyFalse = null;
+            this.withQuickeningFeedback = false;
             this.out = null;
             this.refMap = null;
         }
@@ -443,6 +448,7 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
             this.version = -1;
             this.pyTrue = null;
             this.pyFalse = null;
+            this.withQuickeningFeedback = false;
             this.out = null;
             this.refMap = null;
         }
@@ -822,16 +828,16 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
                     writeByte(TYPE_GRAALPYTHON_CODE | flag);
                     writeString(c.getFilename());
                     writeInt(c.getFlags());
-                    writeBytes(c.getCodestring());
+                    writeBytes(withQuickeningFeedback ? c.getCodestringWithQuickeningFeedback() : c.getCodestring());
                     writeInt(c.getFirstLineNo());
                     byte[] lnotab = c.getLinetable();
                     if (lnotab == null) {
                         lnotab = PythonUtils.EMPTY_BYTE_ARRAY;
                     }
                     writeBytes(lnotab);
-                } else if (v instanceof CodeUnit) {
+                } else if (LazyCodeUnit.isCodeUnit(v)) {
                     writeByte(TYPE_GRAALPYTHON_CODE_UNIT | flag);
-                    writeCodeUnit((CodeUnit) v);
+                    writeCodeUnit(LazyCodeUnit.resolve(v));
                 } else {
                     PythonBufferAcquireLibrary acquireLib = PythonBufferAcquireLibrary.getFactory().getUncached(v);
                     if (acquireLib.hasBuffer(v)) {
@@ -1024,7 +1030,7 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
                 case TYPE_SET:
                 case TYPE_FROZENSET:
                     int setSz = readSize();
-                    HashingStorage setStore = EconomicMapStorage.create(setSz);
+                    HashingStorage setStore = EconomicMapStorage.createKeysOnly(setSz);
                     PBaseSet set;
                     if (type == TYPE_FROZENSET) {
                         set = factory.createFrozenSet(setStore);
@@ -1037,7 +1043,7 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
                         if (key == null) {
                             throw new MarshalError(PythonBuiltinClassType.TypeError, ErrorMessages.BAD_MARSHAL_DATA_NULL);
                         }
-                        setStore = HashingStorageSetItem.executeUncached(setStore, key, PNone.NO_VALUE);
+                        setStore = HashingStorageSetItem.executeUncached(setStore, key, PNone.NONE);
                     }
                     set.setDictStorage(setStore);
                     return set;
@@ -1257,10 +1263,14 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
             byte[] variableShouldUnbox = readBytes();
             int[][] generalizeInputsMap = readSparseTable();
             int[][] generalizeVarsMap = readSparseTable();
+            byte[] initialVariableTypes = readBytes();
+            if (initialVariableTypes.length == 0) {
+                initialVariableTypes = null;
+            }
             return new CodeUnit(name, qualname, argCount, kwOnlyArgCount, positionalOnlyArgCount, stacksize, code, srcOffsetTable,
                             flags, names, varnames, cellvars, freevars, cell2arg, constants, primitiveConstants, exceptionHandlerRanges, conditionProfileCount,
                             startLine, startColumn, endLine, endColumn,
-                            outputCanQuicken, variableShouldUnbox, generalizeInputsMap, generalizeVarsMap);
+                            outputCanQuicken, variableShouldUnbox, generalizeInputsMap, generalizeVarsMap, initialVariableTypes);
         }
 
         private void writeCodeUnit(CodeUnit code) throws IOException {
@@ -1295,6 +1305,11 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
             writeBytes(code.variableShouldUnbox);
             writeSparseTable(code.generalizeInputsMap);
             writeSparseTable(code.generalizeVarsMap);
+            if (code.initialVariableTypes != null) {
+                writeBytes(code.initialVariableTypes);
+            } else {
+                writeBytes(PythonUtils.EMPTY_BYTE_ARRAY);
+            }
         }
 
         private PCode readCode() {
@@ -1322,7 +1337,7 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
     @TruffleBoundary
     public static byte[] serializeCodeUnit(CodeUnit code) {
         try {
-            Marshal marshal = new Marshal(CURRENT_VERSION, null, null);
+            Marshal marshal = new Marshal(CURRENT_VERSION, null, null, false);
             marshal.writeCodeUnit(code);
             return marshal.out.toByteArray();
         } catch (IOException e) {
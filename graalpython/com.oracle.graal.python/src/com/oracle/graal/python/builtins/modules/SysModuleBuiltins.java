@@ -659,7 +659,7 @@ public class SysModuleBuiltins extends PythonBuiltins {
     }
 
     private static PFrozenSet createStdLibModulesSet(PythonObjectFactory factory) {
-        EconomicMapStorage storage = EconomicMapStorage.create(STDLIB_MODULE_NAMES.length);
+        EconomicMapStorage storage = EconomicMapStorage.createKeysOnly(STDLIB_MODULE_NAMES.length);
         for (String s : STDLIB_MODULE_NAMES) {
             TruffleString ts = toTruffleStringUncached(s);
             storage.putUncached(ts, PNone.NONE);
@@ -93,6 +93,7 @@ import com.oracle.graal.python.nodes.util.CastToJavaDoubleNode;
 import com.oracle.graal.python.runtime.GilNode;
 import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.PythonOptions;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
 import com.oracle.graal.python.util.PythonUtils;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -183,6 +184,21 @@ public final class TimeModuleBuiltins extends PythonBuiltins {
         StructSequence.initType(core, STRUCT_TIME_DESC);
     }
 
+    /**
+     * Returns the zone that {@code time.localtime} and {@code time.mktime} currently use.
+     */
+    @TruffleBoundary
+    public static ZoneId getCurrentZoneId(Python3Core core) {
+        return (ZoneId) core.lookupBuiltinModule(T_TIME).getAttribute(CURRENT_ZONE_ID);
+    }
+
+    /**
+     * Creates a {@code time.struct_time} from the nine fields of a time tuple.
+     */
+    public static PTuple createStructTime(PythonObjectFactory factory, Object... fields) {
+        return factory.createStructSeq(STRUCT_TIME_DESC, fields);
+    }
+
     @TruffleBoundary
     public static double timeSeconds() {
         return System.currentTimeMillis() / 1000.0;
@@ -723,8 +739,8 @@ public final class TimeModuleBuiltins extends PythonBuiltins {
         // This taken from JPython + some switches were corrected to provide the
         // same result as CPython
         @TruffleBoundary
-        private static TruffleString format(String format, int[] date, TruffleString.FromJavaStringNode fromJavaStringNode) {
-            String s = "";
+        public static TruffleString format(String format, int[] date, TruffleString.FromJavaStringNode fromJavaStringNode) {
+            StringBuilder s = new StringBuilder(format.length() + 16);
             int lastc = 0;
             int j;
             String[] syms;
@@ -733,17 +749,17 @@ public final class TimeModuleBuiltins extends PythonBuiltins {
                 int i = format.indexOf("%", lastc);
                 if (i < 0) {
                     // the end of the format string
-                    s = s + format.substring(lastc);
+                    s.append(format, lastc, format.length());
                     break;
                 }
                 if (i == format.length() - 1) {
                     // there's a bare % at the end of the string. Python lets
                     // this go by just sticking a % at the end of the result
                     // string
-                    s = s + "%";
+                    s.append('%');
                     break;
                 }
-                s = s + format.substring(lastc, i);
+                s.append(format, lastc, i);
 
                 // Glibc provides some extensions for conversion specifications. (These extensions
                 // are not specified in POSIX.1-2001, but a few other systems provide similar
@@ -762,33 +778,33 @@ public final class TimeModuleBuiltins extends PythonBuiltins {
                     case 'a':
                         // abbrev weekday
                         j = date[TM_WDAY];
-                        s = s + getDayShortName(j);
+                        s.append(getDayShortName(j));
                         break;
                     case 'A':
                         // full weekday
                         j = date[TM_WDAY];
-                        s = s + getDayLongName(j);
+                        s.append(getDayLongName(j));
                         break;
                     case 'b':
                         // abbrev month
                         j = date[TM_MON];
-                        s = s + getMonthShortName(j);
+                        s.append(getMonthShortName(j));
                         break;
                     case 'B':
                         // full month
                         j = date[TM_MON];
-                        s = s + getMonthLongName(j);
+                        s.append(getMonthLongName(j));
                         break;
                     case 'c':
-                        s = s + CTimeNode.format(date, fromJavaStringNode);
+                        s.append(CTimeNode.format(date, fromJavaStringNode));
                         break;
                     case 'd':
                         // day of month (01-31)
-                        s = s + (pad ? format("%02d", date[TM_MDAY]) : format("%d", date[TM_MDAY]));
+                        s.append(pad ? format("%02d", date[TM_MDAY]) : format("%d", date[TM_MDAY]));
                         break;
                     case 'H':
                         // hour (00-23)
-                        s = s + (pad ? format("%02d", date[TM_HOUR]) : format("%d", date[TM_HOUR]));
+                        s.append(pad ? format("%02d", date[TM_HOUR]) : format("%d", date[TM_HOUR]));
                         break;
                     case 'I':
                         // hour (01-12)
@@ -796,33 +812,33 @@ public final class TimeModuleBuiltins extends PythonBuiltins {
                         if (j == 0) {
                             j = 12;  // midnight or noon
                         }
-                        s = s + (pad ? format("%02d", j) : format("%d", j));
+                        s.append(pad ? format("%02d", j) : format("%d", j));
                         break;
                     case 'j':
                         // day of year (001-366)
-                        s = s + (pad ? format("%03d", date[TM_YDAY]) : format("%d", date[TM_YDAY]));
+                        s.append(pad ? format("%03d", date[TM_YDAY]) : format("%d", date[TM_YDAY]));
                         break;
                     case 'm':
                         // month (01-12)
-                        s = s + (pad ? format("%02d", date[TM_MON]) : format("%d", date[TM_MON]));
+                        s.append(pad ? format("%02d", date[TM_MON]) : format("%d", date[TM_MON]));
                         break;
                     case 'M':
                         // minute (00-59)
-                        s = s + (pad ? format("%02d", date[TM_MIN]) : format("%d", date[TM_MIN]));
+                        s.append(pad ? format("%02d", date[TM_MIN]) : format("%d", date[TM_MIN]));
                         break;
                     case 'p':
                         // AM/PM
                         j = date[TM_HOUR];
                         syms = datesyms.getAmPmStrings();
                         if (0 <= j && j < 12) {
-                            s = s + syms[0];
+                            s.append(syms[0]);
                         } else if (12 <= j && j < 24) {
-                            s = s + syms[1];
+                            s.append(syms[1]);
                         }
                         break;
                     case 'S':
                         // seconds (00-61)
-                        s = s + (pad ? format("%02d", date[TM_SEC]) : format("%d", date[TM_SEC]));
+                        s.append(pad ? format("%02d", date[TM_SEC]) : format("%d", date[TM_SEC]));
                         break;
                     case 'U':
                         // week of year (sunday is first day) (00-53). all days in
@@ -841,12 +857,12 @@ public final class TimeModuleBuiltins extends PythonBuiltins {
                         if (cal.get(Calendar.MONTH) == Calendar.JANUARY && j >= 52) {
                             j = 0;
                         }
-                        s = s + (pad ? format("%02d", j) : format("%d", j));
+                        s.append(pad ? format("%02d", j) : format("%d", j));
                         break;
                     case 'w':
                         // weekday as decimal (0=Sunday-6)
                         j = (date[TM_WDAY] + 1) % 7;
-                        s = s + j;
+                        s.append(j);
                         break;
                     case 'W':
                         // week of year (monday is first day) (00-53). all days in
@@ -866,7 +882,7 @@ public final class TimeModuleBuiltins extends PythonBuiltins {
                         if (cal.get(Calendar.MONTH) == Calendar.JANUARY && j >= 52) {
                             j = 0;
                         }
-                        s = s + (pad ? format("%02d", j) : format("%d", j));
+                        s.append(pad ? format("%02d", j) : format("%d", j));
                         break;
                     case 'x':
                         // TBD: A note about %x and %X. Python's time.strftime()
@@ -885,19 +901,19 @@ public final class TimeModuleBuiltins extends PythonBuiltins {
                         // %x == mm/dd/yy
                         // %X == HH:mm:SS
                         //
-                        s = s + dateFormat(date);
+                        s.append(dateFormat(date));
                         break;
                     case 'X':
                         // See comment for %x above
-                        s = s + timeFormat(date);
+                        s.append(timeFormat(date));
                         break;
                     case 'Y':
                         // year w/ century
-                        s = s + date[TM_YEAR];
+                        s.append(date[TM_YEAR]);
                         break;
                     case 'y':
                         // year w/o century (00-99)
-                        s = s + truncYear(date[TM_YEAR]);
+                        s.append(truncYear(date[TM_YEAR]));
                         break;
                     case 'Z':
                         // timezone name
@@ -906,21 +922,21 @@ public final class TimeModuleBuiltins extends PythonBuiltins {
                         }
                         // If items[8] == 1, we're in daylight savings time.
                         // -1 means the information was not available; treat this as if not in dst.
-                        s = s + cal.getTimeZone().getDisplayName(date[TM_ISDST] > 0, 0);
+                        s.append(cal.getTimeZone().getDisplayName(date[TM_ISDST] > 0, 0));
                         break;
                     case '%':
                         // %
-                        s = s + "%";
+                        s.append('%');
                         break;
                     default:
                         // TBD: should this raise a ValueError?
-                        s = s + "%" + format.charAt(i);
+                        s.append('%').append(format.charAt(i));
                         i++;
                         break;
                 }
                 lastc = i + 1;
             }
-            return fromJavaStringNode.execute(s, TS_ENCODING);
+            return fromJavaStringNode.execute(s.toString(), TS_ENCODING);
         }
 
         @Specialization
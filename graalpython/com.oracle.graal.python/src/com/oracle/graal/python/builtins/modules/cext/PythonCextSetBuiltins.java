@@ -403,7 +403,7 @@ public final class PythonCextSetBuiltins extends PythonBuiltins {
                         @Cached HashingCollectionNodes.SetItemNode setItemNode,
                         @Cached TransformExceptionToNativeNode transformExceptionToNativeNode) {
             try {
-                setItemNode.execute(frame, self, o, PNone.NO_VALUE);
+                setItemNode.execute(frame, self, o, PNone.NONE);
             } catch (PException e) {
                 transformExceptionToNativeNode.execute(frame, e);
                 return -1;
@@ -0,0 +1,603 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules.datetime;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.OverflowError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.TypeError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeNodes.checkDate;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.MAXYEAR;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.MAX_ORDINAL;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.MINYEAR;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.T_FROMTIMESTAMP;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.T_ISOFORMAT;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.T_STRFTIME;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___ADD__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___EQ__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___FORMAT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___GE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___GT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___HASH__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___LE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___LT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___NE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___RADD__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___REDUCE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___REPR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___RSUB__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___STR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___SUB__;
+import static com.oracle.graal.python.util.PythonUtils.TS_ENCODING;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.modules.TimeModuleBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.PNotImplemented;
+import com.oracle.graal.python.lib.PyLongAsIntNode;
+import com.oracle.graal.python.lib.PyLongAsLongNode;
+import com.oracle.graal.python.lib.PyObjectCallMethodObjArgs;
+import com.oracle.graal.python.lib.PyObjectReprAsTruffleStringNode;
+import com.oracle.graal.python.lib.PyObjectStrAsObjectNode;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonQuaternaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.util.CannotCastException;
+import com.oracle.graal.python.nodes.util.CastToTruffleStringNode;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.strings.TruffleString;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PDate)
+public final class DateBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return DateBuiltinsFactory.getFactories();
+    }
+
+    static boolean isDate(Object obj) {
+        return obj instanceof PDate;
+    }
+
+    static boolean isDateTime(Object obj) {
+        return obj instanceof PDateTime;
+    }
+
+    @TruffleBoundary
+    static String isoFormat(int year, int month, int day) {
+        StringBuilder sb = new StringBuilder(10);
+        DateTimeUtils.appendIsoDate(sb, year, month, day);
+        return sb.toString();
+    }
+
+    @TruffleBoundary
+    private static String repr(String typeName, PDate self) {
+        return typeName + "(" + self.getYear() + ", " + self.getMonth() + ", " + self.getDay() + ")";
+    }
+
+    /**
+     * The pickled state of a date: the year in two bytes, big endian, then month and day.
+     */
+    static byte[] getState(PDate self) {
+        return new byte[]{(byte) (self.getYear() >> 8), (byte) self.getYear(), (byte) self.getMonth(), (byte) self.getDay()};
+    }
+
+    @Builtin(name = "year", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class YearNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static int year(PDate self) {
+            return self.getYear();
+        }
+    }
+
+    @Builtin(name = "month", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class MonthNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static int month(PDate self) {
+            return self.getMonth();
+        }
+    }
+
+    @Builtin(name = "day", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class DayNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static int day(PDate self) {
+            return self.getDay();
+        }
+    }
+
+    @Builtin(name = "fromtimestamp", minNumOfPositionalArgs = 2, isClassmethod = true, parameterNames = {"cls", "timestamp"})
+    @GenerateNodeFactory
+    abstract static class FromTimestampNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object fromTimestamp(VirtualFrame frame, Object cls, Object timestamp,
+                        @Cached PyLongAsLongNode asLongNode,
+                        @Cached DateTimeNodes.NewDateNode newDateNode) {
+            long us = DateTimeNodes.timestampToMicroseconds(frame, this, timestamp, true, asLongNode);
+            long local = DateTimeNodes.timestampToLocalMicroseconds(this, TimeModuleBuiltins.getCurrentZoneId(getContext()), us);
+            int ymd = DateTimeUtils.ordToYmd((int) (local / DateTimeUtils.US_PER_DAY));
+            return newDateNode.execute(frame, cls, DateTimeUtils.unpackYear(ymd), DateTimeUtils.unpackMonth(ymd), DateTimeUtils.unpackDay(ymd));
+        }
+    }
+
+    @Builtin(name = "today", minNumOfPositionalArgs = 1, isClassmethod = true)
+    @GenerateNodeFactory
+    abstract static class TodayNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object today(VirtualFrame frame, Object cls,
+                        @Cached IsBuiltinClassProfile isDateProfile,
+                        @Cached PyObjectCallMethodObjArgs callMethod) {
+            double now = TimeModuleBuiltins.timeSeconds();
+            if (isDateProfile.profileClass(cls, PythonBuiltinClassType.PDate)) {
+                long local = DateTimeNodes.timestampToLocalMicroseconds(this, TimeModuleBuiltins.getCurrentZoneId(getContext()), (long) Math.floor(now) * DateTimeUtils.US_PER_SECOND);
+                int ymd = DateTimeUtils.ordToYmd((int) (local / DateTimeUtils.US_PER_DAY));
+                return factory().createDate(cls, DateTimeUtils.unpackYear(ymd), DateTimeUtils.unpackMonth(ymd), DateTimeUtils.unpackDay(ymd));
+            }
+            return callMethod.execute(frame, cls, T_FROMTIMESTAMP, now);
+        }
+    }
+
+    @Builtin(name = "fromordinal", minNumOfPositionalArgs = 2, isClassmethod = true, parameterNames = {"cls", "ordinal"})
+    @GenerateNodeFactory
+    abstract static class FromOrdinalNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object fromOrdinal(VirtualFrame frame, Object cls, Object ordinalObj,
+                        @Cached PyLongAsIntNode asIntNode,
+                        @Cached DateTimeNodes.NewDateNode newDateNode) {
+            int ordinal = asIntNode.execute(frame, ordinalObj);
+            if (ordinal < 1) {
+                throw raise(ValueError, ErrorMessages.ORDINAL_MUST_BE_GE_1);
+            }
+            int ymd = DateTimeUtils.ordToYmd(ordinal);
+            int year = DateTimeUtils.unpackYear(ymd);
+            if (year > MAXYEAR) {
+                throw raise(ValueError, ErrorMessages.YEAR_D_IS_OUT_OF_RANGE, year);
+            }
+            return newDateNode.execute(frame, cls, year, DateTimeUtils.unpackMonth(ymd), DateTimeUtils.unpackDay(ymd));
+        }
+    }
+
+    @Builtin(name = "fromisoformat", minNumOfPositionalArgs = 2, isClassmethod = true, parameterNames = {"cls", "date_string"})
+    @GenerateNodeFactory
+    abstract static class FromIsoFormatNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object fromIsoFormat(VirtualFrame frame, Object cls, Object dateString,
+                        @Cached CastToTruffleStringNode castToStringNode,
+                        @Cached TruffleString.ToJavaStringNode toJavaStringNode,
+                        @Cached PyObjectReprAsTruffleStringNode reprNode,
+                        @Cached DateTimeNodes.NewDateNode newDateNode) {
+            String s;
+            try {
+                s = toJavaStringNode.execute(castToStringNode.execute(dateString));
+            } catch (CannotCastException e) {
+                throw raise(TypeError, ErrorMessages.FROMISOFORMAT_ARGUMENT_MUST_BE_STR);
+            }
+            int ymd = s.length() == 10 ? DateTimeUtils.parseIsoDate(s, 0) : -1;
+            if (ymd < 0) {
+                throw raise(ValueError, ErrorMessages.INVALID_ISOFORMAT_STRING_S, reprNode.execute(frame, dateString));
+            }
+            int year = DateTimeUtils.unpackYear(ymd);
+            int month = DateTimeUtils.unpackMonth(ymd);
+            int day = DateTimeUtils.unpackDay(ymd);
+            checkDate(this, year, month, day);
+            return newDateNode.execute(frame, cls, year, month, day);
+        }
+    }
+
+    @Builtin(name = "fromisocalendar", minNumOfPositionalArgs = 4, isClassmethod = true, parameterNames = {"cls", "year", "week", "day"})
+    @GenerateNodeFactory
+    abstract static class FromIsoCalendarNode extends PythonQuaternaryBuiltinNode {
+        @Specialization
+        Object fromIsoCalendar(VirtualFrame frame, Object cls, Object yearObj, Object weekObj, Object dayObj,
+                        @Cached PyLongAsIntNode asIntNode,
+                        @Cached DateTimeNodes.NewDateNode newDateNode) {
+            int year = asIntNode.execute(frame, yearObj);
+            int week = asIntNode.execute(frame, weekObj);
+            int day = asIntNode.execute(frame, dayObj);
+            if (year < MINYEAR || year > MAXYEAR) {
+                throw raise(ValueError, ErrorMessages.YEAR_IS_OUT_OF_RANGE_D, year);
+            }
+            if (week <= 0 || week >= 53) {
+                boolean outOfRange = true;
+                if (week == 53) {
+                    // ISO years have 53 weeks if they start on a Thursday, or on a Wednesday
+                    // in leap years
+                    int firstWeekday = DateTimeUtils.weekday(year, 1, 1);
+                    outOfRange = !(firstWeekday == 3 || (firstWeekday == 2 && DateTimeUtils.isLeap(year)));
+                }
+                if (outOfRange) {
+                    throw raise(ValueError, ErrorMessages.INVALID_WEEK_D, week);
+                }
+            }
+            if (day <= 0 || day >= 8) {
+                throw raise(ValueError, ErrorMessages.INVALID_DAY_D_RANGE_IS_1_7, day);
+            }
+            int ymd = DateTimeUtils.ordToYmd(DateTimeUtils.isoWeek1Monday(year) + (week - 1) * 7 + day - 1);
+            int resultYear = DateTimeUtils.unpackYear(ymd);
+            if (resultYear > MAXYEAR) {
+                throw raise(ValueError, ErrorMessages.YEAR_D_IS_OUT_OF_RANGE, resultYear);
+            }
+            return newDateNode.execute(frame, cls, resultYear, DateTimeUtils.unpackMonth(ymd), DateTimeUtils.unpackDay(ymd));
+        }
+    }
+
+    @Builtin(name = "ctime", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class CTimeNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static TruffleString ctime(PDate self,
+                        @Cached TruffleString.FromJavaStringNode fromJavaStringNode) {
+            return fromJavaStringNode.execute(DateTimeUtils.ctime(self.getYear(), self.getMonth(), self.getDay(), 0, 0, 0), TS_ENCODING);
+        }
+    }
+
+    @Builtin(name = "strftime", minNumOfPositionalArgs = 2, parameterNames = {"self", "format"})
+    @GenerateNodeFactory
+    abstract static class StrftimeNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        TruffleString strftime(VirtualFrame frame, PDate self, Object format,
+                        @Cached CastToTruffleStringNode castToStringNode,
+                        @Cached DateTimeNodes.StrftimeNode strftimeNode) {
+            TruffleString fmt;
+            try {
+                fmt = castToStringNode.execute(format);
+            } catch (CannotCastException e) {
+                throw raise(TypeError, ErrorMessages.S_BRACKETS_ARG_MUST_BE_S_NOT_P, "strftime", "str", format);
+            }
+            return strftimeNode.execute(frame, self, fmt);
+        }
+    }
+
+    @Builtin(name = J___FORMAT__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class FormatNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object format(VirtualFrame frame, PDate self, Object format,
+                        @Cached CastToTruffleStringNode castToStringNode,
+                        @Cached PyObjectStrAsObjectNode strNode,
+                        @Cached PyObjectCallMethodObjArgs callMethod) {
+            TruffleString fmt;
+            try {
+                fmt = castToStringNode.execute(format);
+            } catch (CannotCastException e) {
+                throw raise(TypeError, ErrorMessages.S_BRACKETS_ARG_MUST_BE_S_NOT_P, J___FORMAT__, "str", format);
+            }
+            if (fmt.isEmpty()) {
+                return strNode.execute(frame, self);
+            }
+            return callMethod.execute(frame, self, T_STRFTIME, fmt);
+        }
+    }
+
+    @Builtin(name = "timetuple", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class TimeTupleNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object timetuple(PDate self) {
+            return DateTimeNodes.createStructTime(factory(), DateTimeUtils.timeTuple(self.getYear(), self.getMonth(), self.getDay(), 0, 0, 0, -1));
+        }
+    }
+
+    @Builtin(name = "toordinal", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ToOrdinalNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static int toOrdinal(PDate self) {
+            return self.toOrdinal();
+        }
+    }
+
+    @Builtin(name = "weekday", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class WeekdayNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static int weekday(PDate self) {
+            return DateTimeUtils.weekday(self.getYear(), self.getMonth(), self.getDay());
+        }
+    }
+
+    @Builtin(name = "isoweekday", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class IsoWeekdayNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static int isoWeekday(PDate self) {
+            return DateTimeUtils.weekday(self.getYear(), self.getMonth(), self.getDay()) + 1;
+        }
+    }
+
+    @Builtin(name = "isocalendar", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class IsoCalendarNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object isoCalendar(PDate self) {
+            int year = self.getYear();
+            int today = self.toOrdinal();
+            int week1Monday = DateTimeUtils.isoWeek1Monday(year);
+            int week = Math.floorDiv(today - week1Monday, 7);
+            int day = Math.floorMod(today - week1Monday, 7);
+            if (week < 0) {
+                year--;
+                week1Monday = DateTimeUtils.isoWeek1Monday(year);
+                week = Math.floorDiv(today - week1Monday, 7);
+                day = Math.floorMod(today - week1Monday, 7);
+            } else if (week >= 52 && today >= DateTimeUtils.isoWeek1Monday(year + 1)) {
+                year++;
+                week = 0;
+            }
+            return factory().createTuple(PythonBuiltinClassType.PIsoCalendarDate, new Object[]{year, week + 1, day + 1});
+        }
+    }
+
+    @Builtin(name = "isoformat", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class IsoFormatNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static TruffleString isoFormat(PDate self,
+                        @Cached TruffleString.FromJavaStringNode fromJavaStringNode) {
+            return fromJavaStringNode.execute(DateBuiltins.isoFormat(self.getYear(), self.getMonth(), self.getDay()), TS_ENCODING);
+        }
+    }
+
+    @Builtin(name = J___STR__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class StrNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static Object str(VirtualFrame frame, PDate self,
+                        @Cached GetClassNode getClassNode,
+                        @Cached IsBuiltinClassProfile isDateProfile,
+                        @Cached PyObjectCallMethodObjArgs callMethod,
+                        @Cached TruffleString.FromJavaStringNode fromJavaStringNode) {
+            if (isDateProfile.profileClass(getClassNode.execute(self), PythonBuiltinClassType.PDate)) {
+                return fromJavaStringNode.execute(DateBuiltins.isoFormat(self.getYear(), self.getMonth(), self.getDay()), TS_ENCODING);
+            }
+            return callMethod.execute(frame, self, T_ISOFORMAT);
+        }
+    }
+
+    @Builtin(name = J___REPR__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReprNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static TruffleString repr(PDate self,
+                        @Cached DateTimeNodes.GetTypeNameNode getTypeNameNode,
+                        @Cached TruffleString.ToJavaStringNode toJavaStringNode,
+                        @Cached TruffleString.FromJavaStringNode fromJavaStringNode) {
+            String typeName = toJavaStringNode.execute(getTypeNameNode.execute(self));
+            return fromJavaStringNode.execute(DateBuiltins.repr(typeName, self), TS_ENCODING);
+        }
+    }
+
+    @Builtin(name = "replace", minNumOfPositionalArgs = 1, parameterNames = {"self", "year", "month", "day"})
+    @GenerateNodeFactory
+    abstract static class ReplaceNode extends PythonQuaternaryBuiltinNode {
+        @Specialization
+        Object replace(VirtualFrame frame, PDate self, Object yearObj, Object monthObj, Object dayObj,
+                        @Cached GetClassNode getClassNode,
+                        @Cached PyLongAsIntNode asIntNode) {
+            int year = yearObj == PNone.NO_VALUE ? self.getYear() : asIntNode.execute(frame, yearObj);
+            int month = monthObj == PNone.NO_VALUE ? self.getMonth() : asIntNode.execute(frame, monthObj);
+            int day = dayObj == PNone.NO_VALUE ? self.getDay() : asIntNode.execute(frame, dayObj);
+            checkDate(this, year, month, day);
+            return factory().createDate(getClassNode.execute(self), year, month, day);
+        }
+    }
+
+    /**
+     * {@code date + timedelta}: the seconds and microseconds of the delta are ignored.
+     */
+    static Object addDays(VirtualFrame frame, PythonBuiltinBaseNode node, PDate date, long days, GetClassNode getClassNode, DateTimeNodes.NewDateNode newDateNode) {
+        long ordinal = date.toOrdinal() + days;
+        if (ordinal < 1 || ordinal > MAX_ORDINAL) {
+            throw node.raise(OverflowError, ErrorMessages.DATE_VALUE_OUT_OF_RANGE);
+        }
+        int ymd = DateTimeUtils.ordToYmd((int) ordinal);
+        return newDateNode.execute(frame, getClassNode.execute(date), DateTimeUtils.unpackYear(ymd), DateTimeUtils.unpackMonth(ymd), DateTimeUtils.unpackDay(ymd));
+    }
+
+    /*
+     * Datetimes are dates too, but mixing them with dates in arithmetic and comparisons is left
+     * to the datetime methods.
+     */
+    @Builtin(name = J___RADD__, minNumOfPositionalArgs = 2, reverseOperation = true)
+    @Builtin(name = J___ADD__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class AddNode extends PythonBinaryBuiltinNode {
+        @Specialization(guards = "!isDateTime(left)")
+        Object add(VirtualFrame frame, PDate left, PTimeDelta right,
+                        @Cached GetClassNode getClassNode,
+                        @Cached DateTimeNodes.NewDateNode newDateNode) {
+            return addDays(frame, this, left, right.getDays(), getClassNode, newDateNode);
+        }
+
+        @Specialization(guards = "!isDateTime(right)")
+        Object add(VirtualFrame frame, PTimeDelta left, PDate right,
+                        @Cached GetClassNode getClassNode,
+                        @Cached DateTimeNodes.NewDateNode newDateNode) {
+            return addDays(frame, this, right, left.getDays(), getClassNode, newDateNode);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        static Object notImplemented(Object left, Object right) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = J___RSUB__, minNumOfPositionalArgs = 2, reverseOperation = true)
+    @Builtin(name = J___SUB__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class SubNode extends PythonBinaryBuiltinNode {
+        @Specialization(guards = {"!isDateTime(left)", "!isDateTime(right)"})
+        Object sub(PDate left, PDate right) {
+            return factory().createTimeDelta(PythonBuiltinClassType.PTimeDelta, left.toOrdinal() - right.toOrdinal(), 0, 0);
+        }
+
+        @Specialization(guards = "!isDateTime(left)")
+        Object sub(VirtualFrame frame, PDate left, PTimeDelta right,
+                        @Cached GetClassNode getClassNode,
+                        @Cached DateTimeNodes.NewDateNode newDateNode) {
+            return addDays(frame, this, left, -(long) right.getDays(), getClassNode, newDateNode);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        static Object notImplemented(Object left, Object right) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    abstract static class DateCompareNode extends PythonBinaryBuiltinNode {
+
+        boolean compare(@SuppressWarnings("unused") int c) {
+            throw CompilerDirectives.shouldNotReachHere();
+        }
+
+        @Specialization(guards = "!isDateTime(other)")
+        boolean doCompare(PDate self, PDate other) {
+            return compare(self.compareDateTo(other));
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        static Object notImplemented(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = J___EQ__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class EqNode extends DateCompareNode {
+        @Override
+        boolean compare(int c) {
+            return c == 0;
+        }
+    }
+
+    @Builtin(name = J___NE__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class NeNode extends DateCompareNode {
+        @Override
+        boolean compare(int c) {
+            return c != 0;
+        }
+    }
+
+    @Builtin(name = J___LT__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class LtNode extends DateCompareNode {
+        @Override
+        boolean compare(int c) {
+            return c < 0;
+        }
+    }
+
+    @Builtin(name = J___LE__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class LeNode extends DateCompareNode {
+        @Override
+        boolean compare(int c) {
+            return c <= 0;
+        }
+    }
+
+    @Builtin(name = J___GT__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class GtNode extends DateCompareNode {
+        @Override
+        boolean compare(int c) {
+            return c > 0;
+        }
+    }
+
+    @Builtin(name = J___GE__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class GeNode extends DateCompareNode {
+        @Override
+        boolean compare(int c) {
+            return c >= 0;
+        }
+    }
+
+    @Builtin(name = J___HASH__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class HashNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static long hash(PDate self) {
+            long hash = self.getCachedHash();
+            if (hash == -1) {
+                hash = DateTimeUtils.hashFields(self.getYear(), self.getMonth(), self.getDay());
+                self.setCachedHash(hash);
+            }
+            return hash;
+        }
+    }
+
+    @Builtin(name = J___REDUCE__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReduceNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object reduce(PDate self,
+                        @Cached GetClassNode getClassNode) {
+            PythonObjectFactory factory = factory();
+            Object args = factory.createTuple(new Object[]{factory.createBytes(getState(self))});
+            return factory.createTuple(new Object[]{getClassNode.execute(self), args});
+        }
+    }
+}
@@ -0,0 +1,888 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules.datetime;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.OverflowError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.TypeError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeNodes.checkDate;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeNodes.checkLocalMicroseconds;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeNodes.checkTime;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeNodes.checkTzInfo;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeNodes.intOrDefault;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeNodes.newDateTime;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.EPOCH_SECONDS;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.MAX_ORDINAL;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.SECONDS_PER_DAY;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.T_ISOFORMAT;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.T__STRPTIME;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.T__STRPTIME_DATETIME;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.US_PER_DAY;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.US_PER_SECOND;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___ADD__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___EQ__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___GE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___GT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___HASH__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___LE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___LT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___NE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___RADD__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___REDUCE_EX__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___REDUCE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___REPR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___RSUB__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___STR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___SUB__;
+import static com.oracle.graal.python.util.PythonUtils.TS_ENCODING;
+
+import java.time.ZoneId;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.modules.TimeModuleBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.PNotImplemented;
+import com.oracle.graal.python.lib.PyLongAsIntNode;
+import com.oracle.graal.python.lib.PyLongAsLongNode;
+import com.oracle.graal.python.lib.PyObjectCallMethodObjArgs;
+import com.oracle.graal.python.lib.PyObjectReprAsTruffleStringNode;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonQuaternaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.statement.AbstractImportNode;
+import com.oracle.graal.python.nodes.util.CannotCastException;
+import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
+import com.oracle.graal.python.nodes.util.CastToTruffleStringNode;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.strings.TruffleString;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PDateTime)
+public final class DateTimeBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return DateTimeBuiltinsFactory.getFactories();
+    }
+
+    /**
+     * The pickled state of a datetime: the date as in {@link DateBuiltins#getState}, then hour,
+     * minute, second and the microsecond in three bytes, big endian. For protocols above 3, the
+     * fold is stored in the high bit of the month.
+     */
+    static byte[] getState(PDateTime self, int protocol) {
+        int month = self.getMonth() | (protocol > 3 && self.getFold() != 0 ? 0x80 : 0);
+        int us = self.getMicrosecond();
+        return new byte[]{(byte) (self.getYear() >> 8), (byte) self.getYear(), (byte) month, (byte) self.getDay(), (byte) self.getHour(), (byte) self.getMinute(), (byte) self.getSecond(),
+                        (byte) (us >> 16), (byte) (us >> 8), (byte) us};
+    }
+
+    /**
+     * @param offset the UTC offset to append, or {@code null}
+     */
+    @TruffleBoundary
+    static String isoFormat(PDateTime self, int sep, int timespec, PTimeDelta offset) {
+        StringBuilder sb = new StringBuilder(32);
+        DateTimeUtils.appendIsoDate(sb, self.getYear(), self.getMonth(), self.getDay());
+        sb.appendCodePoint(sep);
+        DateTimeUtils.appendIsoTime(sb, self.getHour(), self.getMinute(), self.getSecond(), self.getMicrosecond(), timespec);
+        if (offset != null) {
+            DateTimeUtils.appendUtcOffset(sb, offset, ":");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param tzInfoRepr the repr of the tzinfo, or {@code null} if there is none
+     */
+    @TruffleBoundary
+    private static String repr(String typeName, PDateTime self, String tzInfoRepr) {
+        StringBuilder sb = new StringBuilder(typeName).append('(');
+        sb.append(self.getYear()).append(", ").append(self.getMonth()).append(", ").append(self.getDay()).append(", ");
+        sb.append(self.getHour()).append(", ").append(self.getMinute());
+        if (self.getMicrosecond() != 0) {
+            sb.append(", ").append(self.getSecond()).append(", ").append(self.getMicrosecond());
+        } else if (self.getSecond() != 0) {
+            sb.append(", ").append(self.getSecond());
+        }
+        if (self.getFold() != 0) {
+            sb.append(", fold=").append(self.getFold());
+        }
+        if (tzInfoRepr != null) {
+            sb.append(", tzinfo=").append(tzInfoRepr);
+        }
+        return sb.append(')').toString();
+    }
+
+    /**
+     * The time tuple of a datetime in the representation of
+     * {@link DateTimeUtils#toLocalMicroseconds}.
+     */
+    private static int[] timeTuple(long localMicroseconds, int dstFlag) {
+        long seconds = localMicroseconds / US_PER_SECOND;
+        int ymd = DateTimeUtils.ordToYmd((int) (seconds / SECONDS_PER_DAY));
+        int secondOfDay = (int) (seconds % SECONDS_PER_DAY);
+        return DateTimeUtils.timeTuple(DateTimeUtils.unpackYear(ymd), DateTimeUtils.unpackMonth(ymd), DateTimeUtils.unpackDay(ymd), secondOfDay / 3600, secondOfDay / 60 % 60, secondOfDay % 60,
+                        dstFlag);
+    }
+
+    @TruffleBoundary
+    private static Object importStrptime() {
+        return AbstractImportNode.importModule(T__STRPTIME);
+    }
+
+    @Builtin(name = "hour", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class HourNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static int hour(PDateTime self) {
+            return self.getHour();
+        }
+    }
+
+    @Builtin(name = "minute", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class MinuteNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static int minute(PDateTime self) {
+            return self.getMinute();
+        }
+    }
+
+    @Builtin(name = "second", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class SecondNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static int second(PDateTime self) {
+            return self.getSecond();
+        }
+    }
+
+    @Builtin(name = "microsecond", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class MicrosecondNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static int microsecond(PDateTime self) {
+            return self.getMicrosecond();
+        }
+    }
+
+    @Builtin(name = "tzinfo", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class TzInfoNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static Object tzInfo(PDateTime self) {
+            return self.getTzInfoOrNone();
+        }
+    }
+
+    @Builtin(name = "fold", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class FoldNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static int fold(PDateTime self) {
+            return self.getFold();
+        }
+    }
+
+    @Builtin(name = "now", minNumOfPositionalArgs = 1, isClassmethod = true, parameterNames = {"cls", "tz"})
+    @GenerateNodeFactory
+    abstract static class NowNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        static Object now(VirtualFrame frame, Object cls, Object tz,
+                        @Cached DateTimeNodes.FromMicrosecondsNode fromMicrosecondsNode) {
+            return fromMicrosecondsNode.execute(frame, cls, DateTimeUtils.currentMicroseconds(), tz, false);
+        }
+    }
+
+    @Builtin(name = "utcnow", minNumOfPositionalArgs = 1, isClassmethod = true)
+    @GenerateNodeFactory
+    abstract static class UtcNowNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static Object utcNow(VirtualFrame frame, Object cls,
+                        @Cached DateTimeNodes.FromMicrosecondsNode fromMicrosecondsNode) {
+            return fromMicrosecondsNode.execute(frame, cls, DateTimeUtils.currentMicroseconds(), PNone.NONE, true);
+        }
+    }
+
+    @Builtin(name = "fromtimestamp", minNumOfPositionalArgs = 2, isClassmethod = true, parameterNames = {"cls", "timestamp", "tz"})
+    @GenerateNodeFactory
+    abstract static class FromTimestampNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        Object fromTimestamp(VirtualFrame frame, Object cls, Object timestamp, Object tz,
+                        @Cached PyLongAsLongNode asLongNode,
+                        @Cached DateTimeNodes.FromMicrosecondsNode fromMicrosecondsNode) {
+            checkTzInfo(this, tz);
+            long us = DateTimeNodes.timestampToMicroseconds(frame, this, timestamp, false, asLongNode);
+            return fromMicrosecondsNode.execute(frame, cls, us, tz, false);
+        }
+    }
+
+    @Builtin(name = "utcfromtimestamp", minNumOfPositionalArgs = 2, isClassmethod = true, parameterNames = {"cls", "timestamp"})
+    @GenerateNodeFactory
+    abstract static class UtcFromTimestampNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object utcFromTimestamp(VirtualFrame frame, Object cls, Object timestamp,
+                        @Cached PyLongAsLongNode asLongNode,
+                        @Cached DateTimeNodes.FromMicrosecondsNode fromMicrosecondsNode) {
+            long us = DateTimeNodes.timestampToMicroseconds(frame, this, timestamp, false, asLongNode);
+            return fromMicrosecondsNode.execute(frame, cls, us, PNone.NONE, true);
+        }
+    }
+
+    @Builtin(name = "combine", minNumOfPositionalArgs = 3, isClassmethod = true, parameterNames = {"cls", "date", "time", "tzinfo"})
+    @GenerateNodeFactory
+    abstract static class CombineNode extends PythonQuaternaryBuiltinNode {
+        @Specialization
+        Object combine(VirtualFrame frame, Object cls, Object dateObj, Object timeObj, Object tzInfoObj,
+                        @Cached DateTimeNodes.NewDateTimeNode newDateTimeNode) {
+            if (!(dateObj instanceof PDate)) {
+                throw raise(TypeError, ErrorMessages.COMBINE_ARGUMENT_D_MUST_BE_S_NOT_P, 1, "datetime.date", dateObj);
+            }
+            if (!(timeObj instanceof PTime)) {
+                throw raise(TypeError, ErrorMessages.COMBINE_ARGUMENT_D_MUST_BE_S_NOT_P, 2, "datetime.time", timeObj);
+            }
+            PDate date = (PDate) dateObj;
+            PTime time = (PTime) timeObj;
+            Object tzInfo = tzInfoObj == PNone.NO_VALUE ? time.getTzInfo() : checkTzInfo(this, tzInfoObj);
+            return newDateTimeNode.execute(frame, cls, date.getYear(), date.getMonth(), date.getDay(), time.getHour(), time.getMinute(), time.getSecond(), time.getMicrosecond(), tzInfo,
+                            time.getFold());
+        }
+    }
+
+    @Builtin(name = "fromisoformat", minNumOfPositionalArgs = 2, isClassmethod = true, parameterNames = {"cls", "date_string"})
+    @GenerateNodeFactory
+    abstract static class FromIsoFormatNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object fromIsoFormat(VirtualFrame frame, Object cls, Object dateString,
+                        @Cached CastToTruffleStringNode castToStringNode,
+                        @Cached TruffleString.ToJavaStringNode toJavaStringNode,
+                        @Cached PyObjectReprAsTruffleStringNode reprNode,
+                        @Cached DateTimeNodes.NewTimeZoneNode newTimeZoneNode,
+                        @Cached DateTimeNodes.NewDateTimeNode newDateTimeNode) {
+            String s;
+            try {
+                s = toJavaStringNode.execute(castToStringNode.execute(dateString));
+            } catch (CannotCastException e) {
+                throw raise(TypeError, ErrorMessages.FROMISOFORMAT_ARGUMENT_MUST_BE_STR);
+            }
+            int[] time = new int[DateTimeUtils.ISO_TIME_FIELDS];
+            int ymd = DateTimeUtils.parseIsoDate(s, 0);
+            int rv = 0;
+            if (ymd >= 0 && s.length() > 10) {
+                // the separator can be any character
+                int timeStart = Character.isHighSurrogate(s.charAt(10)) ? 12 : 11;
+                rv = timeStart <= s.length() ? DateTimeUtils.parseIsoTime(s, timeStart, time) : -1;
+            }
+            if (ymd < 0 || rv < 0) {
+                throw raise(ValueError, ErrorMessages.INVALID_ISOFORMAT_STRING_S, reprNode.execute(frame, dateString));
+            }
+            int year = DateTimeUtils.unpackYear(ymd);
+            int month = DateTimeUtils.unpackMonth(ymd);
+            int day = DateTimeUtils.unpackDay(ymd);
+            checkDate(this, year, month, day);
+            checkTime(this, time[DateTimeUtils.ISO_HOUR], time[DateTimeUtils.ISO_MINUTE], time[DateTimeUtils.ISO_SECOND], time[DateTimeUtils.ISO_MICROSECOND], 0);
+            Object tzInfo = null;
+            if (rv == 1) {
+                PTimeDelta offset = DateTimeNodes.newTimeDelta(this, factory(), PythonBuiltinClassType.PTimeDelta, 0, time[DateTimeUtils.ISO_TZ_SECONDS], time[DateTimeUtils.ISO_TZ_MICROSECONDS]);
+                tzInfo = newTimeZoneNode.execute(offset, PNone.NO_VALUE);
+            }
+            return newDateTimeNode.execute(frame, cls, year, month, day, time[DateTimeUtils.ISO_HOUR], time[DateTimeUtils.ISO_MINUTE], time[DateTimeUtils.ISO_SECOND],
+                            time[DateTimeUtils.ISO_MICROSECOND], tzInfo, 0);
+        }
+    }
+
+    @Builtin(name = "strptime", minNumOfPositionalArgs = 3, isClassmethod = true, parameterNames = {"cls", "date_string", "format"})
+    @GenerateNodeFactory
+    abstract static class StrptimeNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        static Object strptime(VirtualFrame frame, Object cls, Object dateString, Object format,
+                        @Cached PyObjectCallMethodObjArgs callMethod) {
+            return callMethod.execute(frame, importStrptime(), T__STRPTIME_DATETIME, cls, dateString, format);
+        }
+    }
+
+    @Builtin(name = "date", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class DateNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object date(PDateTime self) {
+            return factory().createDate(PythonBuiltinClassType.PDate, self.getYear(), self.getMonth(), self.getDay());
+        }
+    }
+
+    @Builtin(name = "time", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class TimeNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object time(PDateTime self) {
+            return factory().createTime(PythonBuiltinClassType.PTime, self.getHour(), self.getMinute(), self.getSecond(), self.getMicrosecond(), null, self.getFold());
+        }
+    }
+
+    @Builtin(name = "timetz", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class TimeTzNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object timetz(PDateTime self) {
+            return factory().createTime(PythonBuiltinClassType.PTime, self.getHour(), self.getMinute(), self.getSecond(), self.getMicrosecond(), self.getTzInfo(), self.getFold());
+        }
+    }
+
+    @Builtin(name = "replace", minNumOfPositionalArgs = 1, parameterNames = {"self", "year", "month", "day", "hour", "minute", "second", "microsecond", "tzinfo"}, keywordOnlyNames = {"fold"})
+    @GenerateNodeFactory
+    abstract static class ReplaceNode extends PythonBuiltinNode {
+        @Specialization
+        Object replace(VirtualFrame frame, PDateTime self, Object yearObj, Object monthObj, Object dayObj, Object hourObj, Object minuteObj, Object secondObj, Object microsecondObj,
+                        Object tzInfoObj, Object foldObj,
+                        @Cached GetClassNode getClassNode,
+                        @Cached PyLongAsIntNode asIntNode) {
+            int year = intOrDefault(frame, yearObj, self.getYear(), asIntNode);
+            int month = intOrDefault(frame, monthObj, self.getMonth(), asIntNode);
+            int day = intOrDefault(frame, dayObj, self.getDay(), asIntNode);
+            int hour = intOrDefault(frame, hourObj, self.getHour(), asIntNode);
+            int minute = intOrDefault(frame, minuteObj, self.getMinute(), asIntNode);
+            int second = intOrDefault(frame, secondObj, self.getSecond(), asIntNode);
+            int microsecond = intOrDefault(frame, microsecondObj, self.getMicrosecond(), asIntNode);
+            Object tzInfo = tzInfoObj == PNone.NO_VALUE ? self.getTzInfo() : checkTzInfo(this, tzInfoObj);
+            int fold = intOrDefault(frame, foldObj, self.getFold(), asIntNode);
+            checkDate(this, year, month, day);
+            checkTime(this, hour, minute, second, microsecond, fold);
+            return factory().createDateTime(getClassNode.execute(self), year, month, day, hour, minute, second, microsecond, tzInfo, fold);
+        }
+    }
+
+    @Builtin(name = "astimezone", minNumOfPositionalArgs = 1, parameterNames = {"self", "tz"})
+    @GenerateNodeFactory
+    abstract static class AsTimeZoneNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object astimezone(VirtualFrame frame, PDateTime self, Object tzObj,
+                        @Cached DateTimeNodes.UtcOffsetNode utcOffsetNode,
+                        @Cached DateTimeNodes.LocalTimeZoneNode localTimeZoneNode,
+                        @Cached DateTimeNodes.NewDateTimeNode newDateTimeNode,
+                        @Cached DateTimeNodes.FromUtcNode fromUtcNode,
+                        @Cached GetClassNode getClassNode) {
+            Object tz = tzObj == PNone.NO_VALUE ? null : checkTzInfo(this, tzObj);
+            Object selfTzInfo = self.getTzInfo();
+            if (selfTzInfo != null && selfTzInfo == tz) {
+                // conversion to its own time zone is a no-op
+                return self;
+            }
+            PTimeDelta offset = selfTzInfo == null ? null : utcOffsetNode.execute(frame, selfTzInfo, self);
+            if (offset == null) {
+                // a naive datetime is in local time
+                ZoneId zone = TimeModuleBuiltins.getCurrentZoneId(getContext());
+                long seconds = DateTimeUtils.localToSeconds(zone, self.getYear(), self.getMonth(), self.getDay(), self.getHour(), self.getMinute(), self.getSecond(), self.getFold());
+                offset = localTimeZoneNode.execute(seconds - EPOCH_SECONDS).getOffset();
+            }
+            long utc = checkLocalMicroseconds(this, DateTimeUtils.toLocalMicroseconds(self) - DateTimeUtils.toMicroseconds(offset));
+            if (tz == null) {
+                tz = localTimeZoneNode.execute(Math.floorDiv(utc, US_PER_SECOND) - EPOCH_SECONDS);
+            }
+            Object result = newDateTime(frame, newDateTimeNode, getClassNode.execute(self), utc, tz, 0);
+            return fromUtcNode.execute(frame, tz, result);
+        }
+    }
+
+    @Builtin(name = "ctime", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class CTimeNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static TruffleString ctime(PDateTime self,
+                        @Cached TruffleString.FromJavaStringNode fromJavaStringNode) {
+            return fromJavaStringNode.execute(DateTimeUtils.ctime(self.getYear(), self.getMonth(), self.getDay(), self.getHour(), self.getMinute(), self.getSecond()), TS_ENCODING);
+        }
+    }
+
+    @Builtin(name = "timetuple", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class TimeTupleNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object timetuple(VirtualFrame frame, PDateTime self,
+                        @Cached DateTimeNodes.DstNode dstNode) {
+            int dstFlag = -1;
+            if (self.getTzInfo() != null) {
+                PTimeDelta dst = dstNode.execute(frame, self.getTzInfo(), self);
+                if (dst != null) {
+                    dstFlag = dst.isZero() ? 0 : 1;
+                }
+            }
+            int[] fields = DateTimeUtils.timeTuple(self.getYear(), self.getMonth(), self.getDay(), self.getHour(), self.getMinute(), self.getSecond(), dstFlag);
+            return DateTimeNodes.createStructTime(factory(), fields);
+        }
+    }
+
+    @Builtin(name = "timestamp", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class TimestampNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        double timestamp(VirtualFrame frame, PDateTime self,
+                        @Cached DateTimeNodes.UtcOffsetNode utcOffsetNode) {
+            if (self.getTzInfo() != null) {
+                PTimeDelta offset = utcOffsetNode.execute(frame, self.getTzInfo(), self);
+                if (offset == null) {
+                    throw raise(TypeError, ErrorMessages.CANT_SUBTRACT_OFFSET_NAIVE_AND_AWARE);
+                }
+                long us = DateTimeUtils.toLocalMicroseconds(self) - DateTimeUtils.toMicroseconds(offset) - EPOCH_SECONDS * US_PER_SECOND;
+                return DateTimeUtils.microsecondsToSeconds(us);
+            }
+            ZoneId zone = TimeModuleBuiltins.getCurrentZoneId(getContext());
+            long seconds = DateTimeUtils.localToSeconds(zone, self.getYear(), self.getMonth(), self.getDay(), self.getHour(), self.getMinute(), self.getSecond(), self.getFold());
+            return (seconds - EPOCH_SECONDS) + self.getMicrosecond() / 1e6;
+        }
+    }
+
+    @Builtin(name = "utctimetuple", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class UtcTimeTupleNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object utctimetuple(VirtualFrame frame, PDateTime self,
+                        @Cached DateTimeNodes.UtcOffsetNode utcOffsetNode) {
+            long local = DateTimeUtils.toLocalMicroseconds(self);
+            if (self.getTzInfo() != null) {
+                PTimeDelta offset = utcOffsetNode.execute(frame, self.getTzInfo(), self);
+                if (offset != null) {
+                    local = checkLocalMicroseconds(this, local - DateTimeUtils.toMicroseconds(offset));
+                }
+            }
+            return DateTimeNodes.createStructTime(factory(), timeTuple(local, 0));
+        }
+    }
+
+    @Builtin(name = "isoformat", minNumOfPositionalArgs = 1, parameterNames = {"self", "sep", "timespec"})
+    @GenerateNodeFactory
+    abstract static class IsoFormatNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        TruffleString isoFormat(VirtualFrame frame, PDateTime self, Object sepObj, Object timespecObj,
+                        @Cached CastToTruffleStringNode castToStringNode,
+                        @Cached CastToJavaStringNode castToJavaStringNode,
+                        @Cached TruffleString.CodePointLengthNode codePointLengthNode,
+                        @Cached TruffleString.CodePointAtIndexNode codePointAtIndexNode,
+                        @Cached DateTimeNodes.UtcOffsetNode utcOffsetNode,
+                        @Cached TruffleString.FromJavaStringNode fromJavaStringNode) {
+            int sep = 'T';
+            if (sepObj != PNone.NO_VALUE) {
+                TruffleString sepString;
+                try {
+                    sepString = castToStringNode.execute(sepObj);
+                } catch (CannotCastException e) {
+                    sepString = null;
+                }
+                if (sepString == null || codePointLengthNode.execute(sepString, TS_ENCODING) != 1) {
+                    throw raise(TypeError, ErrorMessages.S_BRACKETS_ARG_MUST_BE_S_NOT_P, "isoformat", "a unicode character", sepObj);
+                }
+                sep = codePointAtIndexNode.execute(sepString, 0, TS_ENCODING);
+            }
+            int timespec = DateTimeUtils.TIMESPEC_AUTO;
+            if (timespecObj != PNone.NO_VALUE) {
+                try {
+                    timespec = DateTimeUtils.parseTimespec(castToJavaStringNode.execute(timespecObj));
+                } catch (CannotCastException e) {
+                    throw raise(TypeError, ErrorMessages.S_BRACKETS_ARG_MUST_BE_S_NOT_P, "isoformat", "str", timespecObj);
+                }
+                if (timespec == DateTimeUtils.TIMESPEC_UNKNOWN) {
+                    throw raise(ValueError, ErrorMessages.UNKNOWN_TIMESPEC_VALUE);
+                }
+            }
+            PTimeDelta offset = self.getTzInfo() == null ? null : utcOffsetNode.execute(frame, self.getTzInfo(), self);
+            return fromJavaStringNode.execute(DateTimeBuiltins.isoFormat(self, sep, timespec, offset), TS_ENCODING);
+        }
+    }
+
+    @Builtin(name = J___STR__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class StrNode extends PythonUnaryBuiltinNode {
+        private static final TruffleString T_SPACE = TruffleString.fromCodePointUncached(' ', TS_ENCODING);
+
+        @Specialization
+        static Object str(VirtualFrame frame, PDateTime self,
+                        @Cached GetClassNode getClassNode,
+                        @Cached IsBuiltinClassProfile isDateTimeProfile,
+                        @Cached DateTimeNodes.UtcOffsetNode utcOffsetNode,
+                        @Cached PyObjectCallMethodObjArgs callMethod,
+                        @Cached TruffleString.FromJavaStringNode fromJavaStringNode) {
+            if (isDateTimeProfile.profileClass(getClassNode.execute(self), PythonBuiltinClassType.PDateTime)) {
+                PTimeDelta offset = self.getTzInfo() == null ? null : utcOffsetNode.execute(frame, self.getTzInfo(), self);
+                return fromJavaStringNode.execute(DateTimeBuiltins.isoFormat(self, ' ', DateTimeUtils.TIMESPEC_AUTO, offset), TS_ENCODING);
+            }
+            return callMethod.execute(frame, self, T_ISOFORMAT, T_SPACE);
+        }
+    }
+
+    @Builtin(name = J___REPR__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReprNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static TruffleString repr(VirtualFrame frame, PDateTime self,
+                        @Cached DateTimeNodes.GetTypeNameNode getTypeNameNode,
+                        @Cached PyObjectReprAsTruffleStringNode reprNode,
+                        @Cached TruffleString.ToJavaStringNode toJavaStringNode,
+                        @Cached TruffleString.FromJavaStringNode fromJavaStringNode) {
+            String typeName = toJavaStringNode.execute(getTypeNameNode.execute(self));
+            String tzInfoRepr = self.getTzInfo() == null ? null : toJavaStringNode.execute(reprNode.execute(frame, self.getTzInfo()));
+            return fromJavaStringNode.execute(DateTimeBuiltins.repr(typeName, self, tzInfoRepr), TS_ENCODING);
+        }
+    }
+
+    @Builtin(name = "utcoffset", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class UtcOffsetNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static Object utcoffset(VirtualFrame frame, PDateTime self,
+                        @Cached DateTimeNodes.UtcOffsetNode utcOffsetNode) {
+            PTimeDelta offset = self.getTzInfo() == null ? null : utcOffsetNode.execute(frame, self.getTzInfo(), self);
+            return offset == null ? PNone.NONE : offset;
+        }
+    }
+
+    @Builtin(name = "dst", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class DstNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static Object dst(VirtualFrame frame, PDateTime self,
+                        @Cached DateTimeNodes.DstNode dstNode) {
+            PTimeDelta dst = self.getTzInfo() == null ? null : dstNode.execute(frame, self.getTzInfo(), self);
+            return dst == null ? PNone.NONE : dst;
+        }
+    }
+
+    @Builtin(name = "tzname", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class TzNameNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static Object tzname(VirtualFrame frame, PDateTime self,
+                        @Cached DateTimeNodes.TzNameNode tzNameNode) {
+            return self.getTzInfo() == null ? PNone.NONE : tzNameNode.execute(frame, self.getTzInfo(), self);
+        }
+    }
+
+    /**
+     * {@code datetime + timedelta}, or {@code datetime - timedelta} if {@code negate} is set. The
+     * result has the class and tzinfo of {@code dt}.
+     */
+    static Object addDelta(VirtualFrame frame, PythonBuiltinBaseNode node, PDateTime dt, PTimeDelta delta, boolean negate, GetClassNode getClassNode,
+                    DateTimeNodes.NewDateTimeNode newDateTimeNode) {
+        if (Math.abs((long) delta.getDays()) > MAX_ORDINAL) {
+            // too large for any datetime, and possibly for a long in microseconds
+            throw node.raise(OverflowError, ErrorMessages.DATE_VALUE_OUT_OF_RANGE);
+        }
+        long us = DateTimeUtils.toMicroseconds(delta);
+        long local = checkLocalMicroseconds(node, DateTimeUtils.toLocalMicroseconds(dt) + (negate ? -us : us));
+        return newDateTime(frame, newDateTimeNode, getClassNode.execute(dt), local, dt.getTzInfo(), 0);
+    }
+
+    @Builtin(name = J___RADD__, minNumOfPositionalArgs = 2, reverseOperation = true)
+    @Builtin(name = J___ADD__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class AddNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object add(VirtualFrame frame, PDateTime left, PTimeDelta right,
+                        @Cached GetClassNode getClassNode,
+                        @Cached DateTimeNodes.NewDateTimeNode newDateTimeNode) {
+            return addDelta(frame, this, left, right, false, getClassNode, newDateTimeNode);
+        }
+
+        @Specialization
+        Object add(VirtualFrame frame, PTimeDelta left, PDateTime right,
+                        @Cached GetClassNode getClassNode,
+                        @Cached DateTimeNodes.NewDateTimeNode newDateTimeNode) {
+            return addDelta(frame, this, right, left, false, getClassNode, newDateTimeNode);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        static Object notImplemented(Object left, Object right) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = J___RSUB__, minNumOfPositionalArgs = 2, reverseOperation = true)
+    @Builtin(name = J___SUB__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class SubNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object sub(VirtualFrame frame, PDateTime left, PDateTime right,
+                        @Cached DateTimeNodes.UtcOffsetNode leftOffsetNode,
+                        @Cached DateTimeNodes.UtcOffsetNode rightOffsetNode) {
+            long us = DateTimeUtils.toLocalMicroseconds(left) - DateTimeUtils.toLocalMicroseconds(right);
+            if (left.getTzInfo() != right.getTzInfo()) {
+                PTimeDelta leftOffset = left.getTzInfo() == null ? null : leftOffsetNode.execute(frame, left.getTzInfo(), left);
+                PTimeDelta rightOffset = right.getTzInfo() == null ? null : rightOffsetNode.execute(frame, right.getTzInfo(), right);
+                if ((leftOffset == null) != (rightOffset == null)) {
+                    throw raise(TypeError, ErrorMessages.CANT_SUBTRACT_OFFSET_NAIVE_AND_AWARE);
+                }
+                if (leftOffset != null) {
+                    us -= DateTimeUtils.toMicroseconds(leftOffset) - DateTimeUtils.toMicroseconds(rightOffset);
+                }
+            }
+            return DateTimeNodes.newTimeDelta(this, factory(), PythonBuiltinClassType.PTimeDelta, us);
+        }
+
+        @Specialization
+        Object sub(VirtualFrame frame, PDateTime left, PTimeDelta right,
+                        @Cached GetClassNode getClassNode,
+                        @Cached DateTimeNodes.NewDateTimeNode newDateTimeNode) {
+            return addDelta(frame, this, left, right, true, getClassNode, newDateTimeNode);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        static Object notImplemented(Object left, Object right) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    abstract static class DateTimeCompareNode extends PythonBinaryBuiltinNode {
+
+        boolean compare(@SuppressWarnings("unused") int c) {
+            throw CompilerDirectives.shouldNotReachHere();
+        }
+
+        /**
+         * {@code ==} and {@code !=} never raise for naive and aware datetimes or for dates.
+         */
+        boolean isEquality() {
+            return false;
+        }
+
+        @Specialization
+        Object doCompare(VirtualFrame frame, PDateTime self, PDateTime other,
+                        @Cached DateTimeNodes.UtcOffsetNode selfOffsetNode,
+                        @Cached DateTimeNodes.UtcOffsetNode otherOffsetNode,
+                        @Cached GetClassNode getClassNode) {
+            if (self.getTzInfo() == other.getTzInfo()) {
+                return compare(self.compareFieldsTo(other));
+            }
+            PTimeDelta selfOffset = self.getTzInfo() == null ? null : selfOffsetNode.execute(frame, self.getTzInfo(), self);
+            PTimeDelta otherOffset = other.getTzInfo() == null ? null : otherOffsetNode.execute(frame, other.getTzInfo(), other);
+            int c;
+            if (sameOffset(selfOffset, otherOffset)) {
+                c = self.compareFieldsTo(other);
+            } else if (selfOffset != null && otherOffset != null) {
+                long selfUtc = DateTimeUtils.toLocalMicroseconds(self) - DateTimeUtils.toMicroseconds(selfOffset);
+                long otherUtc = DateTimeUtils.toLocalMicroseconds(other) - DateTimeUtils.toMicroseconds(otherOffset);
+                c = Long.compare(selfUtc, otherUtc);
+            } else if (isEquality()) {
+                return compare(1);
+            } else {
+                throw raise(TypeError, ErrorMessages.CANT_COMPARE_OFFSET_NAIVE_AND_AWARE_S, "datetimes");
+            }
+            if (c == 0 && isEquality() && (isFoldDependent(frame, self, selfOffset, selfOffsetNode, getClassNode) || isFoldDependent(frame, other, otherOffset, otherOffsetNode, getClassNode))) {
+                // PEP 495: times in a fold or gap never equal times in another zone
+                c = 1;
+            }
+            return compare(c);
+        }
+
+        @Specialization(guards = "!isDateTime(other)")
+        Object doDate(PDateTime self, PDate other) {
+            if (isEquality()) {
+                return compare(1);
+            }
+            throw raise(TypeError, ErrorMessages.CANT_COMPARE_P_TO_P, self, other);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        static Object notImplemented(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+
+        static boolean isDateTime(Object obj) {
+            return obj instanceof PDateTime;
+        }
+
+        private static boolean sameOffset(PTimeDelta a, PTimeDelta b) {
+            return a == b || (a != null && b != null && a.compareTo(b) == 0);
+        }
+
+        /**
+         * Whether the UTC offset of {@code dt} changes if its fold is flipped.
+         */
+        private boolean isFoldDependent(VirtualFrame frame, PDateTime dt, PTimeDelta offset, DateTimeNodes.UtcOffsetNode utcOffsetNode, GetClassNode getClassNode) {
+            Object tzInfo = dt.getTzInfo();
+            if (tzInfo == null || tzInfo instanceof PTimeZone) {
+                return false;
+            }
+            PDateTime flipped = factory().createDateTime(getClassNode.execute(dt), dt.getYear(), dt.getMonth(), dt.getDay(), dt.getHour(), dt.getMinute(), dt.getSecond(),
+                            dt.getMicrosecond(), tzInfo, 1 - dt.getFold());
+            return !sameOffset(utcOffsetNode.execute(frame, tzInfo, flipped), offset);
+        }
+    }
+
+    @Builtin(name = J___EQ__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class EqNode extends DateTimeCompareNode {
+        @Override
+        boolean compare(int c) {
+            return c == 0;
+        }
+
+        @Override
+        boolean isEquality() {
+            return true;
+        }
+    }
+
+    @Builtin(name = J___NE__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class NeNode extends DateTimeCompareNode {
+        @Override
+        boolean compare(int c) {
+            return c != 0;
+        }
+
+        @Override
+        boolean isEquality() {
+            return true;
+        }
+    }
+
+    @Builtin(name = J___LT__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class LtNode extends DateTimeCompareNode {
+        @Override
+        boolean compare(int c) {
+            return c < 0;
+        }
+    }
+
+    @Builtin(name = J___LE__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class LeNode extends DateTimeCompareNode {
+        @Override
+        boolean compare(int c) {
+            return c <= 0;
+        }
+    }
+
+    @Builtin(name = J___GT__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class GtNode extends DateTimeCompareNode {
+        @Override
+        boolean compare(int c) {
+            return c > 0;
+        }
+    }
+
+    @Builtin(name = J___GE__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class GeNode extends DateTimeCompareNode {
+        @Override
+        boolean compare(int c) {
+            return c >= 0;
+        }
+    }
+
+    @Builtin(name = J___HASH__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class HashNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        long hash(VirtualFrame frame, PDateTime self,
+                        @Cached DateTimeNodes.UtcOffsetNode utcOffsetNode,
+                        @Cached GetClassNode getClassNode) {
+            long hash = self.getCachedHash();
+            if (hash == -1) {
+                long us = DateTimeUtils.toLocalMicroseconds(self);
+                Object tzInfo = self.getTzInfo();
+                if (tzInfo != null) {
+                    // the offset of the first occurrence, so that equal times in a fold hash alike
+                    PDateTime self0 = self;
+                    if (self.getFold() != 0 && !(tzInfo instanceof PTimeZone)) {
+                        self0 = factory().createDateTime(getClassNode.execute(self), self.getYear(), self.getMonth(), self.getDay(), self.getHour(), self.getMinute(), self.getSecond(),
+                                        self.getMicrosecond(), tzInfo, 0);
+                    }
+                    PTimeDelta offset = utcOffsetNode.execute(frame, tzInfo, self0);
+                    if (offset != null) {
+                        us -= DateTimeUtils.toMicroseconds(offset);
+                    }
+                }
+                hash = DateTimeUtils.hashFields(Math.floorDiv(us, US_PER_DAY), Math.floorMod(us, US_PER_DAY) / US_PER_SECOND, Math.floorMod(us, US_PER_SECOND));
+                self.setCachedHash(hash);
+            }
+            return hash;
+        }
+    }
+
+    @Builtin(name = J___REDUCE_EX__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class ReduceExNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object reduceEx(VirtualFrame frame, PDateTime self, Object protocolObj,
+                        @Cached PyLongAsIntNode asIntNode,
+                        @Cached GetClassNode getClassNode) {
+            return reduce(factory(), self, asIntNode.execute(frame, protocolObj), getClassNode);
+        }
+
+        static Object reduce(PythonObjectFactory factory, PDateTime self, int protocol, GetClassNode getClassNode) {
+            Object state = factory.createBytes(getState(self, protocol));
+            Object[] args = self.getTzInfo() == null ? new Object[]{state} : new Object[]{state, self.getTzInfo()};
+            return factory.createTuple(new Object[]{getClassNode.execute(self), factory.createTuple(args)});
+        }
+    }
+
+    @Builtin(name = J___REDUCE__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReduceNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object reduce(PDateTime self,
+                        @Cached GetClassNode getClassNode) {
+            return ReduceExNode.reduce(factory(), self, 2, getClassNode);
+        }
+    }
+}
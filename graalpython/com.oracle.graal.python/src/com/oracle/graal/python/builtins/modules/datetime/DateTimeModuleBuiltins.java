@@ -0,0 +1,438 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules.datetime;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.OverflowError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.TypeError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeNodes.checkDate;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeNodes.checkLatin1State;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeNodes.checkTime;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeNodes.checkTzInfo;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeNodes.intOrDefault;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.MAXYEAR;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.MAX_DELTA_DAYS;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.MINYEAR;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.SECONDS_PER_DAY;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.T_MAX;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.T_MIN;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.T_RESOLUTION;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.T_UTC;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.US_PER_DAY;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.US_PER_SECOND;
+import static com.oracle.graal.python.nodes.SpecialAttributeNames.T___DOC__;
+import static com.oracle.graal.python.util.PythonUtils.tsLiteral;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.Python3Core;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.type.PythonBuiltinClass;
+import com.oracle.graal.python.lib.PyLongAsIntNode;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.PNodeWithRaise;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonQuaternaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonVarargsBuiltinNode;
+import com.oracle.graal.python.nodes.util.CannotCastException;
+import com.oracle.graal.python.nodes.util.CastToTruffleStringNode;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+@CoreFunctions(defineModule = "_datetime")
+public final class DateTimeModuleBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return DateTimeModuleBuiltinsFactory.getFactories();
+    }
+
+    @Override
+    public void initialize(Python3Core core) {
+        super.initialize(core);
+        addBuiltinConstant(T___DOC__, tsLiteral("Fast implementation of the datetime type."));
+        addBuiltinConstant("MINYEAR", MINYEAR);
+        addBuiltinConstant("MAXYEAR", MAXYEAR);
+
+        PythonObjectFactory factory = core.factory();
+        PTimeDelta oneDay = factory.createTimeDelta(PythonBuiltinClassType.PTimeDelta, 1, 0, 0);
+        PTimeDelta oneMicrosecond = factory.createTimeDelta(PythonBuiltinClassType.PTimeDelta, 0, 0, 1);
+
+        PythonBuiltinClass timeDelta = core.lookupType(PythonBuiltinClassType.PTimeDelta);
+        timeDelta.setAttribute(T_MIN, factory.createTimeDelta(PythonBuiltinClassType.PTimeDelta, -MAX_DELTA_DAYS, 0, 0));
+        timeDelta.setAttribute(T_MAX, factory.createTimeDelta(PythonBuiltinClassType.PTimeDelta, MAX_DELTA_DAYS, SECONDS_PER_DAY - 1, US_PER_SECOND - 1));
+        timeDelta.setAttribute(T_RESOLUTION, oneMicrosecond);
+
+        PythonBuiltinClass date = core.lookupType(PythonBuiltinClassType.PDate);
+        date.setAttribute(T_MIN, factory.createDate(PythonBuiltinClassType.PDate, MINYEAR, 1, 1));
+        date.setAttribute(T_MAX, factory.createDate(PythonBuiltinClassType.PDate, MAXYEAR, 12, 31));
+        date.setAttribute(T_RESOLUTION, oneDay);
+
+        PythonBuiltinClass dateTime = core.lookupType(PythonBuiltinClassType.PDateTime);
+        dateTime.setAttribute(T_MIN, factory.createDateTime(PythonBuiltinClassType.PDateTime, MINYEAR, 1, 1, 0, 0, 0, 0, null, 0));
+        dateTime.setAttribute(T_MAX, factory.createDateTime(PythonBuiltinClassType.PDateTime, MAXYEAR, 12, 31, 23, 59, 59, US_PER_SECOND - 1, null, 0));
+        dateTime.setAttribute(T_RESOLUTION, oneMicrosecond);
+
+        PythonBuiltinClass time = core.lookupType(PythonBuiltinClassType.PTime);
+        time.setAttribute(T_MIN, factory.createTime(PythonBuiltinClassType.PTime, 0, 0, 0, 0, null, 0));
+        time.setAttribute(T_MAX, factory.createTime(PythonBuiltinClassType.PTime, 23, 59, 59, US_PER_SECOND - 1, null, 0));
+        time.setAttribute(T_RESOLUTION, oneMicrosecond);
+
+        // the extremes are -timedelta(hours=23, minutes=59) and timedelta(hours=23, minutes=59)
+        PythonBuiltinClass timeZone = core.lookupType(PythonBuiltinClassType.PTimeZone);
+        timeZone.setAttribute(T_UTC, factory.createTimeZone(PythonBuiltinClassType.PTimeZone, factory.createTimeDelta(PythonBuiltinClassType.PTimeDelta, 0, 0, 0), null));
+        timeZone.setAttribute(T_MIN, factory.createTimeZone(PythonBuiltinClassType.PTimeZone, factory.createTimeDelta(PythonBuiltinClassType.PTimeDelta, -1, 60, 0), null));
+        timeZone.setAttribute(T_MAX, factory.createTimeZone(PythonBuiltinClassType.PTimeZone, factory.createTimeDelta(PythonBuiltinClassType.PTimeDelta, 0, SECONDS_PER_DAY - 60, 0), null));
+    }
+
+    /**
+     * The month byte of a pickled date or datetime, which may carry the fold in its high bit.
+     */
+    static boolean isMonthSane(int month) {
+        return (month & 0x7F) >= 1 && (month & 0x7F) <= 12;
+    }
+
+    static int requiredInt(VirtualFrame frame, PNodeWithRaise node, Object arg, String functionName, String argName, int pos, PyLongAsIntNode asIntNode) {
+        if (arg == PNone.NO_VALUE) {
+            throw node.raise(TypeError, ErrorMessages.MISSING_D_REQUIRED_S_ARGUMENT_S_POS, functionName, argName, pos);
+        }
+        return asIntNode.execute(frame, arg);
+    }
+
+    // _datetime.date(year, month, day)
+    @Builtin(name = "date", minNumOfPositionalArgs = 2, constructsClass = PythonBuiltinClassType.PDate, parameterNames = {"$cls", "year", "month", "day"})
+    @GenerateNodeFactory
+    abstract static class DateNode extends PythonQuaternaryBuiltinNode {
+        @Specialization
+        Object date(VirtualFrame frame, Object cls, Object yearObj, Object monthObj, Object dayObj,
+                        @Cached DateTimeNodes.GetStateNode getStateNode,
+                        @Cached PyLongAsIntNode asIntNode) {
+            if (monthObj == PNone.NO_VALUE && dayObj == PNone.NO_VALUE) {
+                // unpickling
+                int[] state = getStateNode.execute(frame, yearObj, 4);
+                if (state != null && isMonthSane(state[2])) {
+                    checkLatin1State(this, state, "date");
+                    return factory().createDate(cls, state[0] << 8 | state[1], state[2], state[3]);
+                }
+            }
+            int year = asIntNode.execute(frame, yearObj);
+            int month = requiredInt(frame, this, monthObj, "date", "month", 2, asIntNode);
+            int day = requiredInt(frame, this, dayObj, "date", "day", 3, asIntNode);
+            checkDate(this, year, month, day);
+            return factory().createDate(cls, year, month, day);
+        }
+    }
+
+    // _datetime.datetime(year, month, day, hour=0, minute=0, second=0, microsecond=0, tzinfo=None, *, fold=0)
+    @Builtin(name = "datetime", minNumOfPositionalArgs = 2, constructsClass = PythonBuiltinClassType.PDateTime, parameterNames = {"$cls", "year", "month", "day", "hour", "minute", "second",
+                    "microsecond", "tzinfo"}, keywordOnlyNames = {"fold"})
+    @GenerateNodeFactory
+    abstract static class DateTimeNode extends PythonBuiltinNode {
+        @Specialization
+        Object datetime(VirtualFrame frame, Object cls, Object yearObj, Object monthObj, Object dayObj, Object hourObj, Object minuteObj, Object secondObj, Object microsecondObj,
+                        Object tzInfoObj, Object foldObj,
+                        @Cached DateTimeNodes.GetStateNode getStateNode,
+                        @Cached PyLongAsIntNode asIntNode) {
+            if (dayObj == PNone.NO_VALUE && hourObj == PNone.NO_VALUE && minuteObj == PNone.NO_VALUE && secondObj == PNone.NO_VALUE && microsecondObj == PNone.NO_VALUE &&
+                            tzInfoObj == PNone.NO_VALUE && foldObj == PNone.NO_VALUE) {
+                // unpickling, the optional second argument is the tzinfo
+                int[] state = getStateNode.execute(frame, yearObj, 10);
+                if (state != null && isMonthSane(state[2])) {
+                    checkLatin1State(this, state, "datetime");
+                    Object tzInfo = null;
+                    if (monthObj != PNone.NO_VALUE && monthObj != PNone.NONE) {
+                        if (!(monthObj instanceof PTzInfo)) {
+                            throw raise(TypeError, ErrorMessages.BAD_TZINFO_STATE_ARG);
+                        }
+                        tzInfo = monthObj;
+                    }
+                    return factory().createDateTime(cls, state[0] << 8 | state[1], state[2] & 0x7F, state[3], state[4], state[5], state[6], state[7] << 16 | state[8] << 8 | state[9], tzInfo,
+                                    state[2] >> 7);
+                }
+            }
+            int year = asIntNode.execute(frame, yearObj);
+            int month = requiredInt(frame, this, monthObj, "datetime", "month", 2, asIntNode);
+            int day = requiredInt(frame, this, dayObj, "datetime", "day", 3, asIntNode);
+            int hour = intOrDefault(frame, hourObj, 0, asIntNode);
+            int minute = intOrDefault(frame, minuteObj, 0, asIntNode);
+            int second = intOrDefault(frame, secondObj, 0, asIntNode);
+            int microsecond = intOrDefault(frame, microsecondObj, 0, asIntNode);
+            Object tzInfo = checkTzInfo(this, tzInfoObj);
+            int fold = intOrDefault(frame, foldObj, 0, asIntNode);
+            checkDate(this, year, month, day);
+            checkTime(this, hour, minute, second, microsecond, fold);
+            return factory().createDateTime(cls, year, month, day, hour, minute, second, microsecond, tzInfo, fold);
+        }
+    }
+
+    // _datetime.time(hour=0, minute=0, second=0, microsecond=0, tzinfo=None, *, fold=0)
+    @Builtin(name = "time", minNumOfPositionalArgs = 1, constructsClass = PythonBuiltinClassType.PTime, parameterNames = {"$cls", "hour", "minute", "second", "microsecond",
+                    "tzinfo"}, keywordOnlyNames = {"fold"})
+    @GenerateNodeFactory
+    abstract static class TimeNode extends PythonBuiltinNode {
+        @Specialization
+        Object time(VirtualFrame frame, Object cls, Object hourObj, Object minuteObj, Object secondObj, Object microsecondObj, Object tzInfoObj, Object foldObj,
+                        @Cached DateTimeNodes.GetStateNode getStateNode,
+                        @Cached PyLongAsIntNode asIntNode) {
+            if (hourObj != PNone.NO_VALUE && secondObj == PNone.NO_VALUE && microsecondObj == PNone.NO_VALUE && tzInfoObj == PNone.NO_VALUE && foldObj == PNone.NO_VALUE) {
+                // unpickling, the optional second argument is the tzinfo
+                int[] state = getStateNode.execute(frame, hourObj, 6);
+                if (state != null && (state[0] & 0x7F) < 24) {
+                    checkLatin1State(this, state, "time");
+                    Object tzInfo = null;
+                    if (minuteObj != PNone.NO_VALUE && minuteObj != PNone.NONE) {
+                        if (!(minuteObj instanceof PTzInfo)) {
+                            throw raise(TypeError, ErrorMessages.BAD_TZINFO_STATE_ARG);
+                        }
+                        tzInfo = minuteObj;
+                    }
+                    return factory().createTime(cls, state[0] & 0x7F, state[1], state[2], state[3] << 16 | state[4] << 8 | state[5], tzInfo, state[0] >> 7);
+                }
+            }
+            int hour = intOrDefault(frame, hourObj, 0, asIntNode);
+            int minute = intOrDefault(frame, minuteObj, 0, asIntNode);
+            int second = intOrDefault(frame, secondObj, 0, asIntNode);
+            int microsecond = intOrDefault(frame, microsecondObj, 0, asIntNode);
+            Object tzInfo = checkTzInfo(this, tzInfoObj);
+            int fold = intOrDefault(frame, foldObj, 0, asIntNode);
+            checkTime(this, hour, minute, second, microsecond, fold);
+            return factory().createTime(cls, hour, minute, second, microsecond, tzInfo, fold);
+        }
+    }
+
+    /**
+     * The sum of the {@code timedelta} constructor arguments in microseconds. It is kept in a
+     * {@code long} and only moves to a {@link BigInteger} on overflow, so the common case does
+     * not create any intermediate Python ints.
+     */
+    private static final class Accumulator {
+        private long sum;
+        private BigInteger bigSum;
+        /** Fractions of microseconds from float arguments. */
+        private double leftover;
+
+        void add(long value, long factor) {
+            if (bigSum == null) {
+                try {
+                    sum = Math.addExact(sum, Math.multiplyExact(value, factor));
+                    return;
+                } catch (ArithmeticException e) {
+                    bigSum = PInt.longToBigInteger(sum);
+                }
+            }
+            bigSum = addBig(bigSum, PInt.longToBigInteger(value), factor);
+        }
+
+        void add(double integral, long factor) {
+            if (Math.abs(integral) < 0x1p62) {
+                add((long) integral, factor);
+            } else {
+                if (bigSum == null) {
+                    bigSum = PInt.longToBigInteger(sum);
+                }
+                bigSum = addBig(bigSum, toBigInteger(integral), factor);
+            }
+        }
+
+        void add(BigInteger value, long factor) {
+            if (bigSum == null) {
+                bigSum = PInt.longToBigInteger(sum);
+            }
+            bigSum = addBig(bigSum, value, factor);
+        }
+
+        /**
+         * Rounds the leftover to whole microseconds with ties going to an even sum.
+         */
+        void addLeftover() {
+            if (leftover == 0.0) {
+                return;
+            }
+            double whole = roundHalfAwayFromZero(leftover);
+            if (Math.abs(whole - leftover) == 0.5) {
+                int odd = (bigSum == null ? (sum & 1) != 0 : bigSum.testBit(0)) ? 1 : 0;
+                whole = 2.0 * roundHalfAwayFromZero((leftover + odd) * 0.5) - odd;
+            }
+            add((long) whole, 1);
+        }
+
+        PTimeDelta toTimeDelta(PNodeWithRaise node, PythonObjectFactory factory, Object cls) {
+            if (bigSum == null) {
+                return DateTimeNodes.newTimeDelta(node, factory, cls, sum);
+            }
+            return DateTimeNodes.newTimeDelta(node, factory, cls, bigSum);
+        }
+
+        private static double roundHalfAwayFromZero(double value) {
+            return Math.copySign(Math.floor(Math.abs(value) + 0.5), value);
+        }
+
+        @TruffleBoundary
+        private static BigInteger addBig(BigInteger sum, BigInteger value, long factor) {
+            return sum.add(value.multiply(BigInteger.valueOf(factor)));
+        }
+
+        @TruffleBoundary
+        private static BigInteger toBigInteger(double integral) {
+            return new BigDecimal(integral).toBigInteger();
+        }
+    }
+
+    // _datetime.timedelta(days=0, seconds=0, microseconds=0, milliseconds=0, minutes=0, hours=0, weeks=0)
+    @Builtin(name = "timedelta", minNumOfPositionalArgs = 1, constructsClass = PythonBuiltinClassType.PTimeDelta, parameterNames = {"$cls", "days", "seconds", "microseconds", "milliseconds",
+                    "minutes", "hours", "weeks"})
+    @GenerateNodeFactory
+    abstract static class TimeDeltaNode extends PythonBuiltinNode {
+        @Specialization
+        Object timedelta(Object cls, Object days, Object seconds, Object microseconds, Object milliseconds, Object minutes, Object hours, Object weeks) {
+            Accumulator acc = new Accumulator();
+            // the same order as CPython, which matters for the rounding of float arguments
+            accumulate(acc, "microseconds", microseconds, 1);
+            accumulate(acc, "milliseconds", milliseconds, 1000);
+            accumulate(acc, "seconds", seconds, US_PER_SECOND);
+            accumulate(acc, "minutes", minutes, 60L * US_PER_SECOND);
+            accumulate(acc, "hours", hours, 3600L * US_PER_SECOND);
+            accumulate(acc, "days", days, US_PER_DAY);
+            accumulate(acc, "weeks", weeks, 7 * US_PER_DAY);
+            acc.addLeftover();
+            return acc.toTimeDelta(this, factory(), cls);
+        }
+
+        private void accumulate(Accumulator acc, String tag, Object num, long factor) {
+            if (num == PNone.NO_VALUE) {
+                return;
+            }
+            if (TimeDeltaBuiltins.isSmallInteger(num)) {
+                acc.add(TimeDeltaBuiltins.longValue(num), factor);
+            } else if (num instanceof PInt) {
+                acc.add(((PInt) num).getValue(), factor);
+            } else if (TimeDeltaBuiltins.isFloat(num)) {
+                double value = TimeDeltaBuiltins.doubleValue(num);
+                if (!Double.isFinite(value)) {
+                    throw raise(Double.isNaN(value) ? ValueError : OverflowError, ErrorMessages.CANNOT_CONVERT_FLOAT_F_TO_INT, value);
+                }
+                double integral = value < 0 ? Math.ceil(value) : Math.floor(value);
+                acc.add(integral, factor);
+                double fraction = value - integral;
+                if (fraction != 0.0) {
+                    // the fraction of the argument is scaled in floating point, like CPython does
+                    double scaled = factor * fraction;
+                    double scaledIntegral = scaled < 0 ? Math.ceil(scaled) : Math.floor(scaled);
+                    acc.add((long) scaledIntegral, 1);
+                    acc.leftover += scaled - scaledIntegral;
+                }
+            } else {
+                throw raise(TypeError, ErrorMessages.UNSUPPORTED_TYPE_FOR_TIMEDELTA_S_COMPONENT_P, tag, num);
+            }
+        }
+    }
+
+    // _datetime.tzinfo(*args, **kwargs)
+    @Builtin(name = "tzinfo", minNumOfPositionalArgs = 1, constructsClass = PythonBuiltinClassType.PTzInfo, takesVarArgs = true, takesVarKeywordArgs = true)
+    @GenerateNodeFactory
+    abstract static class TzInfoNode extends PythonVarargsBuiltinNode {
+
+        @Override
+        public Object varArgExecute(VirtualFrame frame, Object self, Object[] arguments, PKeyword[] keywords) throws VarargsBuiltinDirectInvocationNotSupported {
+            if (arguments.length >= 1) {
+                return doGeneric(arguments[0], null, null);
+            }
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            throw VarargsBuiltinDirectInvocationNotSupported.INSTANCE;
+        }
+
+        @Specialization
+        @SuppressWarnings("unused")
+        PTzInfo doGeneric(Object cls, Object[] args, PKeyword[] kwargs) {
+            return factory().createTzInfo(cls);
+        }
+    }
+
+    // _datetime.timezone(offset, name=<unset>)
+    @Builtin(name = "timezone", minNumOfPositionalArgs = 2, constructsClass = PythonBuiltinClassType.PTimeZone, parameterNames = {"$cls", "offset", "name"})
+    @GenerateNodeFactory
+    abstract static class TimeZoneNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        Object timezone(@SuppressWarnings("unused") Object cls, Object offset, Object name,
+                        @Cached CastToTruffleStringNode castToStringNode,
+                        @Cached DateTimeNodes.NewTimeZoneNode newTimeZoneNode) {
+            if (!(offset instanceof PTimeDelta)) {
+                throw raise(TypeError, ErrorMessages.TIMEZONE_ARGUMENT_D_MUST_BE_S_NOT_P, 1, "datetime.timedelta", offset);
+            }
+            Object tzName = name;
+            if (name != PNone.NO_VALUE) {
+                try {
+                    tzName = castToStringNode.execute(name);
+                } catch (CannotCastException e) {
+                    throw raise(TypeError, ErrorMessages.TIMEZONE_ARGUMENT_D_MUST_BE_S_NOT_P, 2, "str", name);
+                }
+            }
+            return newTimeZoneNode.execute((PTimeDelta) offset, tzName);
+        }
+    }
+
+    // datetime.IsoCalendarDate(year, week, weekday)
+    @Builtin(name = "IsoCalendarDate", minNumOfPositionalArgs = 4, constructsClass = PythonBuiltinClassType.PIsoCalendarDate, parameterNames = {"$cls", "year", "week", "weekday"})
+    @GenerateNodeFactory
+    abstract static class IsoCalendarDateNode extends PythonQuaternaryBuiltinNode {
+        @Specialization
+        Object isoCalendarDate(VirtualFrame frame, Object cls, Object year, Object week, Object weekday,
+                        @Cached PyLongAsIntNode asIntNode) {
+            return factory().createTuple(cls, new Object[]{asIntNode.execute(frame, year), asIntNode.execute(frame, week), asIntNode.execute(frame, weekday)});
+        }
+    }
+}
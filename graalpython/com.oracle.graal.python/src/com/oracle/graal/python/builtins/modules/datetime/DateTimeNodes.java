@@ -0,0 +1,696 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules.datetime;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.OverflowError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.TypeError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.EPOCH_SECONDS;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.MAX_DELTA_DAYS;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.MAX_ORDINAL;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.SECONDS_PER_DAY;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.T_DST;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.T_FOLD;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.T_FROMUTC;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.T_TZNAME;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.T_UTC;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.T_UTCOFFSET;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.US_PER_DAY;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.US_PER_SECOND;
+import static com.oracle.graal.python.nodes.StringLiterals.T_TIME;
+import static com.oracle.graal.python.util.PythonUtils.TS_ENCODING;
+import static com.oracle.graal.python.util.PythonUtils.toTruffleStringUncached;
+
+import java.math.BigInteger;
+import java.time.ZoneId;
+
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.modules.TimeModuleBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.BytesNodes;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.builtins.objects.floats.PFloat;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.builtins.objects.type.PythonBuiltinClass;
+import com.oracle.graal.python.builtins.objects.type.TypeNodes;
+import com.oracle.graal.python.lib.PyLongAsIntNode;
+import com.oracle.graal.python.lib.PyLongAsLongNode;
+import com.oracle.graal.python.lib.PyObjectCallMethodObjArgs;
+import com.oracle.graal.python.lib.PyUnicodeCheckNode;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.PNodeWithRaise;
+import com.oracle.graal.python.nodes.attributes.ReadAttributeFromObjectNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
+import com.oracle.graal.python.nodes.util.CastToTruffleStringNode;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.strings.TruffleString;
+
+/**
+ * Nodes and argument checks shared by the builtins of the {@code _datetime} types.
+ */
+public final class DateTimeNodes {
+
+    private DateTimeNodes() {
+    }
+
+    /**
+     * A UTC offset must be strictly between {@code -timedelta(hours=24)} and
+     * {@code timedelta(hours=24)}.
+     */
+    static boolean isValidOffset(PTimeDelta offset) {
+        int days = offset.getDays();
+        return days == 0 || (days == -1 && (offset.getSeconds() != 0 || offset.getMicroseconds() != 0));
+    }
+
+    static void checkOffset(PNodeWithRaise node, PTimeDelta offset) {
+        if (!isValidOffset(offset)) {
+            throw node.raise(ValueError, ErrorMessages.OFFSET_MUST_BE_TIMEDELTA_STRICTLY_BETWEEN_S, DateTimeUtils.timeDeltaRepr("datetime.timedelta", offset));
+        }
+    }
+
+    /**
+     * Checks a {@code tzinfo} argument and returns it, or {@code null} if it is {@code None}.
+     */
+    static Object checkTzInfo(PNodeWithRaise node, Object tzInfo) {
+        if (tzInfo == PNone.NONE || tzInfo == PNone.NO_VALUE) {
+            return null;
+        }
+        if (!(tzInfo instanceof PTzInfo)) {
+            throw node.raise(TypeError, ErrorMessages.TZINFO_ARGUMENT_MUST_BE_NONE_OR_TZINFO_NOT_P, tzInfo);
+        }
+        return tzInfo;
+    }
+
+    static void checkDate(PNodeWithRaise node, int year, int month, int day) {
+        if (year < DateTimeUtils.MINYEAR || year > DateTimeUtils.MAXYEAR) {
+            throw node.raise(ValueError, ErrorMessages.YEAR_D_IS_OUT_OF_RANGE, year);
+        }
+        if (month < 1 || month > 12) {
+            throw node.raise(ValueError, ErrorMessages.MONTH_MUST_BE_IN_1_12);
+        }
+        if (day < 1 || day > DateTimeUtils.daysInMonth(year, month)) {
+            throw node.raise(ValueError, ErrorMessages.DAY_IS_OUT_OF_RANGE_FOR_MONTH);
+        }
+    }
+
+    static void checkTime(PNodeWithRaise node, int hour, int minute, int second, int microsecond, int fold) {
+        if (hour < 0 || hour > 23) {
+            throw node.raise(ValueError, ErrorMessages.HOUR_MUST_BE_IN_0_23);
+        }
+        if (minute < 0 || minute > 59) {
+            throw node.raise(ValueError, ErrorMessages.MINUTE_MUST_BE_IN_0_59);
+        }
+        if (second < 0 || second > 59) {
+            throw node.raise(ValueError, ErrorMessages.SECOND_MUST_BE_IN_0_59);
+        }
+        if (microsecond < 0 || microsecond > 999999) {
+            throw node.raise(ValueError, ErrorMessages.MICROSECOND_MUST_BE_IN_0_999999);
+        }
+        if (fold != 0 && fold != 1) {
+            throw node.raise(ValueError, ErrorMessages.FOLD_MUST_BE_EITHER_0_OR_1);
+        }
+    }
+
+    /**
+     * Creates a delta from unnormalized components. The components must be small enough that
+     * carrying them into days cannot overflow a {@code long}.
+     */
+    static PTimeDelta newTimeDelta(PNodeWithRaise node, PythonObjectFactory factory, Object cls, long days, long seconds, long microseconds) {
+        long s = seconds + Math.floorDiv(microseconds, US_PER_SECOND);
+        long d = days + Math.floorDiv(s, SECONDS_PER_DAY);
+        if (d < -MAX_DELTA_DAYS || d > MAX_DELTA_DAYS) {
+            throw node.raise(OverflowError, ErrorMessages.DAYS_D_MUST_HAVE_MAGNITUDE_LE_999999999, d);
+        }
+        return factory.createTimeDelta(cls, (int) d, (int) Math.floorMod(s, SECONDS_PER_DAY), (int) Math.floorMod(microseconds, US_PER_SECOND));
+    }
+
+    static PTimeDelta newTimeDelta(PNodeWithRaise node, PythonObjectFactory factory, Object cls, long microseconds) {
+        return newTimeDelta(node, factory, cls, 0, 0, microseconds);
+    }
+
+    static PTimeDelta newTimeDelta(PNodeWithRaise node, PythonObjectFactory factory, Object cls, BigInteger microseconds) {
+        if (microseconds.bitLength() < Long.SIZE) {
+            return newTimeDelta(node, factory, cls, microseconds.longValue());
+        }
+        throw node.raise(OverflowError, ErrorMessages.DAYS_D_MUST_HAVE_MAGNITUDE_LE_999999999, daysOf(microseconds));
+    }
+
+    @TruffleBoundary
+    private static BigInteger daysOf(BigInteger microseconds) {
+        BigInteger[] qr = microseconds.divideAndRemainder(BigInteger.valueOf(US_PER_DAY));
+        return qr[1].signum() < 0 ? qr[0].subtract(BigInteger.ONE) : qr[0];
+    }
+
+    /**
+     * Reads the pickled state that the constructors accept as their only argument: a
+     * {@code bytes} object, or a {@code str} as produced by unpickling Python 2 data with
+     * {@code encoding='latin1'}. Returns the unsigned bytes, or {@code null} if {@code arg} is
+     * neither or does not have the expected length.
+     */
+    public abstract static class GetStateNode extends Node {
+
+        public abstract int[] execute(VirtualFrame frame, Object arg, int length);
+
+        @Specialization
+        static int[] fromBytes(VirtualFrame frame, PBytes arg, int length,
+                        @Cached BytesNodes.ToBytesNode toBytesNode) {
+            byte[] bytes = toBytesNode.execute(frame, arg);
+            if (bytes.length != length) {
+                return null;
+            }
+            int[] state = new int[length];
+            for (int i = 0; i < length; i++) {
+                state[i] = bytes[i] & 0xFF;
+            }
+            return state;
+        }
+
+        @Specialization(guards = "!isPBytes(arg)")
+        static int[] fromString(Object arg, int length,
+                        @Cached PyUnicodeCheckNode unicodeCheckNode,
+                        @Cached CastToJavaStringNode castToJavaStringNode) {
+            if (!unicodeCheckNode.execute(arg)) {
+                return null;
+            }
+            return codePoints(castToJavaStringNode.execute(arg), length);
+        }
+
+        @TruffleBoundary
+        private static int[] codePoints(String s, int length) {
+            if (s.codePointCount(0, s.length()) != length) {
+                return null;
+            }
+            return s.codePoints().toArray();
+        }
+
+        static boolean isPBytes(Object arg) {
+            return arg instanceof PBytes;
+        }
+    }
+
+    /**
+     * Raises the error CPython reports for a pickled state string that is not latin-1.
+     */
+    static void checkLatin1State(PNodeWithRaise node, int[] state, String typeName) {
+        for (int b : state) {
+            if (b > 0xFF) {
+                throw node.raise(ValueError, ErrorMessages.FAILED_TO_ENCODE_LATIN1_WHEN_UNPICKLING_S, typeName);
+            }
+        }
+    }
+
+    /**
+     * Calls {@code tzinfo.utcoffset(arg)} and validates the result. Returns {@code null} if the
+     * offset is {@code None}.
+     */
+    public abstract static class UtcOffsetNode extends PNodeWithRaise {
+
+        public abstract PTimeDelta execute(VirtualFrame frame, Object tzInfo, Object arg);
+
+        @Specialization
+        static PTimeDelta timeZone(PTimeZone tzInfo, @SuppressWarnings("unused") Object arg) {
+            return tzInfo.getOffset();
+        }
+
+        @Specialization(guards = "!isTimeZone(tzInfo)")
+        PTimeDelta call(VirtualFrame frame, Object tzInfo, Object arg,
+                        @Cached PyObjectCallMethodObjArgs callMethod) {
+            return checkOffsetResult(this, callMethod.execute(frame, tzInfo, T_UTCOFFSET, arg), "utcoffset");
+        }
+
+        static boolean isTimeZone(Object tzInfo) {
+            return tzInfo instanceof PTimeZone;
+        }
+    }
+
+    /**
+     * Calls {@code tzinfo.dst(arg)} and validates the result. Returns {@code null} if the offset
+     * is {@code None}.
+     */
+    public abstract static class DstNode extends PNodeWithRaise {
+
+        public abstract PTimeDelta execute(VirtualFrame frame, Object tzInfo, Object arg);
+
+        @Specialization
+        @SuppressWarnings("unused")
+        static PTimeDelta timeZone(PTimeZone tzInfo, Object arg) {
+            return null;
+        }
+
+        @Specialization(guards = "!isTimeZone(tzInfo)")
+        PTimeDelta call(VirtualFrame frame, Object tzInfo, Object arg,
+                        @Cached PyObjectCallMethodObjArgs callMethod) {
+            return checkOffsetResult(this, callMethod.execute(frame, tzInfo, T_DST, arg), "dst");
+        }
+
+        static boolean isTimeZone(Object tzInfo) {
+            return tzInfo instanceof PTimeZone;
+        }
+    }
+
+    private static PTimeDelta checkOffsetResult(PNodeWithRaise node, Object result, String methodName) {
+        if (result == PNone.NONE) {
+            return null;
+        }
+        if (!(result instanceof PTimeDelta)) {
+            throw node.raise(TypeError, ErrorMessages.TZINFO_S_MUST_RETURN_NONE_OR_TIMEDELTA_NOT_P, methodName, result);
+        }
+        PTimeDelta offset = (PTimeDelta) result;
+        checkOffset(node, offset);
+        return offset;
+    }
+
+    /**
+     * Calls {@code tzinfo.tzname(arg)}. Returns {@code None} or a string.
+     */
+    public abstract static class TzNameNode extends PNodeWithRaise {
+
+        public abstract Object execute(VirtualFrame frame, Object tzInfo, Object arg);
+
+        @Specialization
+        static Object timeZone(PTimeZone tzInfo, @SuppressWarnings("unused") Object arg) {
+            return getTimeZoneName(tzInfo);
+        }
+
+        @Specialization(guards = "!isTimeZone(tzInfo)")
+        Object call(VirtualFrame frame, Object tzInfo, Object arg,
+                        @Cached PyObjectCallMethodObjArgs callMethod,
+                        @Cached PyUnicodeCheckNode unicodeCheckNode) {
+            Object result = callMethod.execute(frame, tzInfo, T_TZNAME, arg);
+            if (result != PNone.NONE && !unicodeCheckNode.execute(result)) {
+                throw raise(TypeError, ErrorMessages.TZINFO_TZNAME_MUST_RETURN_NONE_OR_STRING_NOT_P, result);
+            }
+            return result;
+        }
+
+        static boolean isTimeZone(Object tzInfo) {
+            return tzInfo instanceof PTimeZone;
+        }
+    }
+
+    static TruffleString getTimeZoneName(PTimeZone tz) {
+        TruffleString name = tz.getName();
+        return name != null ? name : toTruffleStringUncached(DateTimeUtils.timeZoneName(tz.getOffset()));
+    }
+
+    /**
+     * Returns the {@code timezone.utc} singleton.
+     */
+    public abstract static class GetUtcNode extends PNodeWithContext {
+
+        public abstract PTimeZone execute();
+
+        @Specialization
+        PTimeZone get(@Cached ReadAttributeFromObjectNode readNode) {
+            return (PTimeZone) readNode.execute(getContext().lookupType(PythonBuiltinClassType.PTimeZone), T_UTC);
+        }
+    }
+
+    /**
+     * Creates a {@code timezone}. Unnamed zones with a zero offset are the {@code utc}
+     * singleton.
+     */
+    public abstract static class NewTimeZoneNode extends PNodeWithRaise {
+
+        /**
+         * @param name a {@link TruffleString} or {@link PNone#NO_VALUE}
+         */
+        public abstract PTimeZone execute(PTimeDelta offset, Object name);
+
+        @Specialization
+        PTimeZone create(PTimeDelta offset, Object name,
+                        @Cached GetUtcNode getUtcNode,
+                        @Cached PythonObjectFactory factory) {
+            if (name == PNone.NO_VALUE && offset.isZero()) {
+                return getUtcNode.execute();
+            }
+            checkOffset(this, offset);
+            return factory.createTimeZone(PythonBuiltinClassType.PTimeZone, offset, name == PNone.NO_VALUE ? null : (TruffleString) name);
+        }
+    }
+
+    /**
+     * Creates a date of class {@code cls}. Subclasses are instantiated by calling them, so that
+     * their constructor runs. The fields must be valid.
+     */
+    public abstract static class NewDateNode extends PNodeWithRaise {
+
+        public abstract Object execute(VirtualFrame frame, Object cls, int year, int month, int day);
+
+        @Specialization
+        static Object create(VirtualFrame frame, Object cls, int year, int month, int day,
+                        @Cached IsBuiltinClassProfile isDateProfile,
+                        @Cached IsBuiltinClassProfile isDateTimeProfile,
+                        @Cached CallNode callNode,
+                        @Cached PythonObjectFactory factory) {
+            if (isDateProfile.profileClass(cls, PythonBuiltinClassType.PDate)) {
+                return factory.createDate(cls, year, month, day);
+            } else if (isDateTimeProfile.profileClass(cls, PythonBuiltinClassType.PDateTime)) {
+                return factory.createDateTime(cls, year, month, day, 0, 0, 0, 0, null, 0);
+            }
+            return callNode.execute(frame, cls, year, month, day);
+        }
+    }
+
+    /**
+     * Creates a datetime of class {@code cls}. Subclasses are instantiated by calling them, so
+     * that their constructor runs. The fields must be valid.
+     */
+    public abstract static class NewDateTimeNode extends PNodeWithRaise {
+
+        /**
+         * @param tzInfo a {@link PTzInfo} or {@code null}
+         */
+        public abstract Object execute(VirtualFrame frame, Object cls, int year, int month, int day, int hour, int minute, int second, int microsecond, Object tzInfo, int fold);
+
+        @Specialization
+        static Object create(VirtualFrame frame, Object cls, int year, int month, int day, int hour, int minute, int second, int microsecond, Object tzInfo, int fold,
+                        @Cached IsBuiltinClassProfile isDateTimeProfile,
+                        @Cached CallNode callNode,
+                        @Cached PythonObjectFactory factory) {
+            if (isDateTimeProfile.profileClass(cls, PythonBuiltinClassType.PDateTime)) {
+                return factory.createDateTime(cls, year, month, day, hour, minute, second, microsecond, tzInfo, fold);
+            }
+            Object[] args = {year, month, day, hour, minute, second, microsecond, tzInfo == null ? PNone.NONE : tzInfo};
+            if (fold != 0) {
+                return callNode.execute(frame, cls, args, new PKeyword[]{new PKeyword(T_FOLD, fold)});
+            }
+            return callNode.execute(frame, cls, args);
+        }
+    }
+
+    /**
+     * The type name that the {@code repr} of a datetime object starts with: the qualified name
+     * for the builtin types and the plain name for subclasses, like CPython's {@code tp_name}.
+     */
+    public abstract static class GetTypeNameNode extends Node {
+
+        public abstract TruffleString execute(Object obj);
+
+        @Specialization
+        static TruffleString get(Object obj,
+                        @Cached GetClassNode getClassNode,
+                        @Cached TypeNodes.GetNameNode getNameNode) {
+            Object cls = getClassNode.execute(obj);
+            if (cls instanceof PythonBuiltinClass) {
+                cls = ((PythonBuiltinClass) cls).getType();
+            }
+            if (cls instanceof PythonBuiltinClassType) {
+                return ((PythonBuiltinClassType) cls).getPrintName();
+            }
+            return getNameNode.execute(cls);
+        }
+    }
+
+    static PTuple createStructTime(PythonObjectFactory factory, int[] fields) {
+        Object[] values = new Object[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            values[i] = fields[i];
+        }
+        return TimeModuleBuiltins.createStructTime(factory, values);
+    }
+
+    /**
+     * {@code strftime} of dates, datetimes and times. Expands {@code %z}, {@code %Z} and
+     * {@code %f} and formats the rest like {@code time.strftime}. The builtin types with no
+     * tzinfo or a {@code timezone} are formatted without calling any Python code.
+     */
+    public abstract static class StrftimeNode extends PNodeWithRaise {
+
+        public abstract TruffleString execute(VirtualFrame frame, Object self, TruffleString format);
+
+        @Specialization
+        TruffleString strftime(VirtualFrame frame, Object self, TruffleString format,
+                        @Cached GetClassNode getClassNode,
+                        @Cached IsBuiltinClassProfile isDateProfile,
+                        @Cached IsBuiltinClassProfile isDateTimeProfile,
+                        @Cached UtcOffsetNode utcOffsetNode,
+                        @Cached TzNameNode tzNameNode,
+                        @Cached PyObjectCallMethodObjArgs callMethod,
+                        @Cached CastToJavaStringNode castToJavaStringNode,
+                        @Cached CastToTruffleStringNode castToTruffleStringNode,
+                        @Cached TruffleString.ToJavaStringNode toJavaStringNode,
+                        @Cached TruffleString.FromJavaStringNode fromJavaStringNode) {
+            int microsecond = 0;
+            Object tzInfo = null;
+            Object tzInfoArg = PNone.NONE;
+            int[] fields = null;
+            if (self instanceof PDateTime) {
+                PDateTime dt = (PDateTime) self;
+                microsecond = dt.getMicrosecond();
+                tzInfo = dt.getTzInfo();
+                tzInfoArg = dt;
+                if ((tzInfo == null || tzInfo instanceof PTimeZone) && isDateTimeProfile.profileClass(getClassNode.execute(dt), PythonBuiltinClassType.PDateTime)) {
+                    fields = DateTimeUtils.timeTuple(dt.getYear(), dt.getMonth(), dt.getDay(), dt.getHour(), dt.getMinute(), dt.getSecond(), -1);
+                }
+            } else if (self instanceof PDate) {
+                PDate date = (PDate) self;
+                if (isDateProfile.profileClass(getClassNode.execute(date), PythonBuiltinClassType.PDate)) {
+                    fields = DateTimeUtils.timeTuple(date.getYear(), date.getMonth(), date.getDay(), 0, 0, 0, -1);
+                }
+            } else {
+                PTime time = (PTime) self;
+                microsecond = time.getMicrosecond();
+                tzInfo = time.getTzInfo();
+                fields = DateTimeUtils.timeTuple(1900, 1, 1, time.getHour(), time.getMinute(), time.getSecond(), -1);
+            }
+            String fmt = toJavaStringNode.execute(format);
+            int directives = DateTimeUtils.scanStrftimeFormat(fmt);
+            String zReplacement = "";
+            String upperZReplacement = "";
+            if ((directives & DateTimeUtils.STRFTIME_Z_LOWER) != 0 && tzInfo != null) {
+                PTimeDelta offset = utcOffsetNode.execute(frame, tzInfo, tzInfoArg);
+                if (offset != null) {
+                    zReplacement = DateTimeUtils.formatUtcOffset(offset, "");
+                }
+            }
+            if ((directives & DateTimeUtils.STRFTIME_Z_UPPER) != 0 && tzInfo != null) {
+                Object name = tzNameNode.execute(frame, tzInfo, tzInfoArg);
+                if (name != PNone.NONE) {
+                    upperZReplacement = castToJavaStringNode.execute(name);
+                }
+            }
+            String fReplacement = (directives & DateTimeUtils.STRFTIME_F) != 0 ? DateTimeUtils.formatMicrosecond(microsecond) : "";
+            String newFormat = DateTimeUtils.expandStrftimeFormat(fmt, zReplacement, upperZReplacement, fReplacement);
+            if (fields != null) {
+                return TimeModuleBuiltins.StrfTimeNode.format(newFormat, fields, fromJavaStringNode);
+            }
+            Object timeTuple = callMethod.execute(frame, self, DateTimeUtils.T_TIMETUPLE);
+            Object timeModule = getContext().lookupBuiltinModule(T_TIME);
+            Object result = callMethod.execute(frame, timeModule, DateTimeUtils.T_STRFTIME, fromJavaStringNode.execute(newFormat, TS_ENCODING), timeTuple);
+            return castToTruffleStringNode.execute(result);
+        }
+    }
+
+    /**
+     * Timestamps further than this from the epoch are far outside of the supported years.
+     */
+    private static final long MAX_TIMESTAMP = 100000000000000L;
+
+    /**
+     * Converts a POSIX timestamp argument to microseconds since the epoch. Floats are rounded
+     * to the nearest microsecond with ties going to even, or down to whole seconds if
+     * {@code floorToSeconds} is set.
+     */
+    static long timestampToMicroseconds(VirtualFrame frame, PNodeWithRaise node, Object timestamp, boolean floorToSeconds, PyLongAsLongNode asLongNode) {
+        if (timestamp instanceof Double || timestamp instanceof PFloat) {
+            double d = timestamp instanceof Double ? (double) timestamp : ((PFloat) timestamp).getValue();
+            if (Double.isNaN(d)) {
+                throw node.raise(ValueError, ErrorMessages.INVALID_VALUE_NAN);
+            }
+            double seconds;
+            double microseconds = 0;
+            if (floorToSeconds) {
+                seconds = Math.floor(d);
+            } else {
+                seconds = d < 0 ? Math.ceil(d) : Math.floor(d);
+                microseconds = Math.rint((d - seconds) * US_PER_SECOND);
+                if (microseconds >= US_PER_SECOND) {
+                    microseconds -= US_PER_SECOND;
+                    seconds += 1;
+                } else if (microseconds < 0) {
+                    microseconds += US_PER_SECOND;
+                    seconds -= 1;
+                }
+            }
+            if (!(seconds >= -MAX_TIMESTAMP && seconds <= MAX_TIMESTAMP)) {
+                throw node.raise(OverflowError, ErrorMessages.TIMESTAMP_OUT_OF_RANGE);
+            }
+            return (long) seconds * US_PER_SECOND + (long) microseconds;
+        }
+        long seconds = asLongNode.execute(frame, timestamp);
+        if (seconds < -MAX_TIMESTAMP || seconds > MAX_TIMESTAMP) {
+            throw node.raise(OverflowError, ErrorMessages.TIMESTAMP_OUT_OF_RANGE);
+        }
+        return seconds * US_PER_SECOND;
+    }
+
+    /**
+     * Converts microseconds since the epoch to the local time in {@code zone}, or UTC if
+     * {@code zone} is {@code null}, in the representation of
+     * {@link DateTimeUtils#toLocalMicroseconds}.
+     */
+    static long timestampToLocalMicroseconds(PNodeWithRaise node, ZoneId zone, long timestampUs) {
+        long seconds = Math.floorDiv(timestampUs, US_PER_SECOND);
+        long local = seconds + EPOCH_SECONDS + (zone == null ? 0 : DateTimeUtils.localOffsetSeconds(zone, seconds));
+        long ordinal = Math.floorDiv(local, SECONDS_PER_DAY);
+        if (ordinal < 1 || ordinal > MAX_ORDINAL) {
+            throw node.raise(ValueError, ErrorMessages.YEAR_D_IS_OUT_OF_RANGE, DateTimeUtils.yearOfOrdinal(ordinal));
+        }
+        return local * US_PER_SECOND + Math.floorMod(timestampUs, US_PER_SECOND);
+    }
+
+    /**
+     * Raises {@code OverflowError} unless {@code localMicroseconds} is in the range of
+     * datetime.
+     */
+    static long checkLocalMicroseconds(PNodeWithRaise node, long localMicroseconds) {
+        if (localMicroseconds < US_PER_DAY || localMicroseconds >= (MAX_ORDINAL + 1L) * US_PER_DAY) {
+            throw node.raise(OverflowError, ErrorMessages.DATE_VALUE_OUT_OF_RANGE);
+        }
+        return localMicroseconds;
+    }
+
+    /**
+     * Creates a datetime from the representation of {@link DateTimeUtils#toLocalMicroseconds},
+     * which must be in range.
+     */
+    static Object newDateTime(VirtualFrame frame, NewDateTimeNode newDateTimeNode, Object cls, long localMicroseconds, Object tzInfo, int fold) {
+        long seconds = localMicroseconds / US_PER_SECOND;
+        int ymd = DateTimeUtils.ordToYmd((int) (seconds / SECONDS_PER_DAY));
+        int secondOfDay = (int) (seconds % SECONDS_PER_DAY);
+        return newDateTimeNode.execute(frame, cls, DateTimeUtils.unpackYear(ymd), DateTimeUtils.unpackMonth(ymd), DateTimeUtils.unpackDay(ymd), secondOfDay / 3600, secondOfDay / 60 % 60,
+                        secondOfDay % 60, (int) (localMicroseconds % US_PER_SECOND), tzInfo, fold);
+    }
+
+    /**
+     * Converts an optional integer argument, returning {@code defaultValue} if it is missing.
+     */
+    static int intOrDefault(VirtualFrame frame, Object arg, int defaultValue, PyLongAsIntNode asIntNode) {
+        return arg == PNone.NO_VALUE ? defaultValue : asIntNode.execute(frame, arg);
+    }
+
+    /**
+     * Calls {@code tzinfo.fromutc(dt)}. A {@code timezone} attached to a datetime just adds its
+     * offset.
+     */
+    public abstract static class FromUtcNode extends PNodeWithRaise {
+
+        public abstract Object execute(VirtualFrame frame, Object tzInfo, Object dt);
+
+        @Specialization(guards = "isAttachedTimeZone(tzInfo, dt)")
+        Object timeZone(VirtualFrame frame, PTimeZone tzInfo, PDateTime dt,
+                        @Cached GetClassNode getClassNode,
+                        @Cached NewDateTimeNode newDateTimeNode) {
+            long local = checkLocalMicroseconds(this, DateTimeUtils.toLocalMicroseconds(dt) + DateTimeUtils.toMicroseconds(tzInfo.getOffset()));
+            return newDateTime(frame, newDateTimeNode, getClassNode.execute(dt), local, tzInfo, 0);
+        }
+
+        @Specialization(guards = "!isAttachedTimeZone(tzInfo, dt)")
+        static Object call(VirtualFrame frame, Object tzInfo, Object dt,
+                        @Cached PyObjectCallMethodObjArgs callMethod) {
+            return callMethod.execute(frame, tzInfo, T_FROMUTC, dt);
+        }
+
+        static boolean isAttachedTimeZone(Object tzInfo, Object dt) {
+            return tzInfo instanceof PTimeZone && dt instanceof PDateTime && ((PDateTime) dt).getTzInfo() == tzInfo;
+        }
+    }
+
+    /**
+     * Creates a named {@code timezone} for the offset of the local time zone at the given time,
+     * like {@code datetime.astimezone()} does for the local time.
+     */
+    public abstract static class LocalTimeZoneNode extends PNodeWithRaise {
+
+        public abstract PTimeZone execute(long epochSeconds);
+
+        @Specialization
+        PTimeZone create(long epochSeconds,
+                        @Cached NewTimeZoneNode newTimeZoneNode,
+                        @Cached TruffleString.FromJavaStringNode fromJavaStringNode,
+                        @Cached PythonObjectFactory factory) {
+            ZoneId zone = TimeModuleBuiltins.getCurrentZoneId(getContext());
+            int offset = DateTimeUtils.localOffsetSeconds(zone, epochSeconds);
+            TruffleString name = fromJavaStringNode.execute(DateTimeUtils.localZoneName(zone, epochSeconds), TS_ENCODING);
+            return newTimeZoneNode.execute(factory.createTimeDelta(PythonBuiltinClassType.PTimeDelta, Math.floorDiv(offset, SECONDS_PER_DAY), Math.floorMod(offset, SECONDS_PER_DAY), 0), name);
+        }
+    }
+
+    /**
+     * Creates a datetime of class {@code cls} from microseconds since the epoch. The result is
+     * the naive local time if {@code tz} is {@code None}, unless {@code utc} is set, in which case
+     * it is the naive UTC time. Otherwise it is the UTC time converted by {@code tz.fromutc}.
+     */
+    public abstract static class FromMicrosecondsNode extends PNodeWithRaise {
+
+        public abstract Object execute(VirtualFrame frame, Object cls, long timestampUs, Object tz, boolean utc);
+
+        @Specialization
+        Object create(VirtualFrame frame, Object cls, long timestampUs, Object tz, boolean utc,
+                        @Cached NewDateTimeNode newDateTimeNode,
+                        @Cached FromUtcNode fromUtcNode) {
+            Object tzInfo = checkTzInfo(this, tz);
+            if (tzInfo == null && !utc) {
+                ZoneId zone = TimeModuleBuiltins.getCurrentZoneId(getContext());
+                long local = timestampToLocalMicroseconds(this, zone, timestampUs);
+                int fold = DateTimeUtils.detectFold(zone, Math.floorDiv(timestampUs, US_PER_SECOND), local / US_PER_SECOND);
+                return newDateTime(frame, newDateTimeNode, cls, local, null, fold);
+            }
+            long local = timestampToLocalMicroseconds(this, null, timestampUs);
+            Object result = newDateTime(frame, newDateTimeNode, cls, local, tzInfo, 0);
+            if (tzInfo != null) {
+                return fromUtcNode.execute(frame, tzInfo, result);
+            }
+            return result;
+        }
+    }
+}
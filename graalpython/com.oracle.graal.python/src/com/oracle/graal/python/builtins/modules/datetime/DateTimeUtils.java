@@ -0,0 +1,791 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules.datetime;
+
+import static com.oracle.graal.python.util.PythonUtils.tsLiteral;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.TimeZone;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.strings.TruffleString;
+
+/**
+ * Calendar arithmetic, formatting and parsing helpers of the {@code _datetime} module. These are
+ * straight ports of the corresponding static functions of CPython's {@code _datetimemodule.c}
+ * that do not need a node.
+ */
+final class DateTimeUtils {
+
+    static final TruffleString T_UTC = tsLiteral("utc");
+    static final TruffleString T_MIN = tsLiteral("min");
+    static final TruffleString T_MAX = tsLiteral("max");
+    static final TruffleString T_RESOLUTION = tsLiteral("resolution");
+    static final TruffleString T_UTCOFFSET = tsLiteral("utcoffset");
+    static final TruffleString T_DST = tsLiteral("dst");
+    static final TruffleString T_TZNAME = tsLiteral("tzname");
+    static final TruffleString T_FROMUTC = tsLiteral("fromutc");
+    static final TruffleString T_FROMTIMESTAMP = tsLiteral("fromtimestamp");
+    static final TruffleString T_ISOFORMAT = tsLiteral("isoformat");
+    static final TruffleString T_STRFTIME = tsLiteral("strftime");
+    static final TruffleString T_TIMETUPLE = tsLiteral("timetuple");
+    static final TruffleString T_FOLD = tsLiteral("fold");
+    static final TruffleString T__STRPTIME = tsLiteral("_strptime");
+    static final TruffleString T__STRPTIME_DATETIME = tsLiteral("_strptime_datetime");
+
+    static final int MINYEAR = 1;
+    static final int MAXYEAR = 9999;
+    /** The ordinal of 9999-12-31. */
+    static final int MAX_ORDINAL = 3652059;
+    static final int MAX_DELTA_DAYS = 999999999;
+
+    static final int SECONDS_PER_DAY = 24 * 3600;
+    static final int US_PER_SECOND = 1000000;
+    static final long US_PER_DAY = (long) SECONDS_PER_DAY * US_PER_SECOND;
+
+    /** The ordinal of 1970-01-01. */
+    static final int EPOCH_ORDINAL = 719163;
+    /** The Unix epoch in seconds since 0001-01-01 (as used by {@link #utcToSeconds}). */
+    static final long EPOCH_SECONDS = (long) EPOCH_ORDINAL * SECONDS_PER_DAY;
+    /** The largest fold or gap that {@link #localToSeconds} can detect. */
+    private static final int MAX_FOLD_SECONDS = SECONDS_PER_DAY;
+
+    static final int TIMESPEC_HOURS = 0;
+    static final int TIMESPEC_MINUTES = 1;
+    static final int TIMESPEC_SECONDS = 2;
+    static final int TIMESPEC_MILLISECONDS = 3;
+    static final int TIMESPEC_MICROSECONDS = 4;
+    static final int TIMESPEC_AUTO = 5;
+    static final int TIMESPEC_UNKNOWN = -1;
+
+    /** Directives found by {@link #scanStrftimeFormat}. */
+    static final int STRFTIME_Z_LOWER = 1;
+    static final int STRFTIME_Z_UPPER = 2;
+    static final int STRFTIME_F = 4;
+
+    /** Indices into the result array of {@link #parseIsoTime}. */
+    static final int ISO_HOUR = 0;
+    static final int ISO_MINUTE = 1;
+    static final int ISO_SECOND = 2;
+    static final int ISO_MICROSECOND = 3;
+    static final int ISO_TZ_SECONDS = 4;
+    static final int ISO_TZ_MICROSECONDS = 5;
+    static final int ISO_TIME_FIELDS = 6;
+
+    static final String[] DAY_NAMES = {"Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"};
+    static final String[] MONTH_NAMES = {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
+
+    private static final int[] DAYS_IN_MONTH = {0, 31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+    private static final int[] DAYS_BEFORE_MONTH = {0, 0, 31, 59, 90, 120, 151, 181, 212, 243, 273, 304, 334};
+
+    /** Number of days in 400, 100 and 4 years. */
+    private static final int DI400Y = 146097;
+    private static final int DI100Y = 36524;
+    private static final int DI4Y = 1461;
+
+    private DateTimeUtils() {
+    }
+
+    static boolean isLeap(int year) {
+        return year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    static int daysInMonth(int year, int month) {
+        assert month >= 1 && month <= 12;
+        if (month == 2 && isLeap(year)) {
+            return 29;
+        }
+        return DAYS_IN_MONTH[month];
+    }
+
+    static int daysBeforeMonth(int year, int month) {
+        assert month >= 1 && month <= 12;
+        int days = DAYS_BEFORE_MONTH[month];
+        if (month > 2 && isLeap(year)) {
+            days++;
+        }
+        return days;
+    }
+
+    static int daysBeforeYear(int year) {
+        int y = year - 1;
+        assert year >= 1;
+        return y * 365 + y / 4 - y / 100 + y / 400;
+    }
+
+    static int ymdToOrd(int year, int month, int day) {
+        return daysBeforeYear(year) + daysBeforeMonth(year, month) + day;
+    }
+
+    /**
+     * Converts an ordinal in {@code 1..MAX_ORDINAL} to a date, packed with {@link #packDate}.
+     */
+    static int ordToYmd(int ordinal) {
+        assert ordinal >= 1;
+        int n = ordinal - 1;
+        int n400 = n / DI400Y;
+        n = n % DI400Y;
+        int year = n400 * 400 + 1;
+        int n100 = n / DI100Y;
+        n = n % DI100Y;
+        int n4 = n / DI4Y;
+        n = n % DI4Y;
+        int n1 = n / 365;
+        n = n % 365;
+        year += n100 * 100 + n4 * 4 + n1;
+        if (n1 == 4 || n100 == 4) {
+            assert n == 0;
+            return packDate(year - 1, 12, 31);
+        }
+        boolean leapYear = n1 == 3 && (n4 != 24 || n100 == 3);
+        assert leapYear == isLeap(year);
+        int month = (n + 50) >> 5;
+        int preceding = DAYS_BEFORE_MONTH[month] + (month > 2 && leapYear ? 1 : 0);
+        if (preceding > n) {
+            month--;
+            preceding -= daysInMonth(year, month);
+        }
+        n -= preceding;
+        return packDate(year, month, n + 1);
+    }
+
+    static int packDate(int year, int month, int day) {
+        return (year << 9) | (month << 5) | day;
+    }
+
+    static int unpackYear(int packed) {
+        return packed >>> 9;
+    }
+
+    static int unpackMonth(int packed) {
+        return (packed >>> 5) & 0xF;
+    }
+
+    static int unpackDay(int packed) {
+        return packed & 0x1F;
+    }
+
+    /**
+     * Day of the week where Monday is 0.
+     */
+    static int weekday(int year, int month, int day) {
+        return (ymdToOrd(year, month, day) + 6) % 7;
+    }
+
+    /**
+     * The ordinal of the Monday starting week 1 of the ISO year.
+     */
+    static int isoWeek1Monday(int year) {
+        int firstDay = ymdToOrd(year, 1, 1);
+        int firstWeekday = (firstDay + 6) % 7;
+        int week1Monday = firstDay - firstWeekday;
+        if (firstWeekday > 3) {
+            week1Monday += 7;
+        }
+        return week1Monday;
+    }
+
+    /**
+     * The nine fields of {@code time.struct_time}, with Monday as weekday {@code 0} and January
+     * 1st as day {@code 1} of the year.
+     */
+    static int[] timeTuple(int year, int month, int day, int hour, int minute, int second, int dstFlag) {
+        return new int[]{year, month, day, hour, minute, second, weekday(year, month, day), daysBeforeMonth(year, month) + day, dstFlag};
+    }
+
+    static boolean isValidDate(int year, int month, int day) {
+        return year >= MINYEAR && year <= MAXYEAR && month >= 1 && month <= 12 && day >= 1 && day <= daysInMonth(year, month);
+    }
+
+    static boolean isValidTime(int hour, int minute, int second, int microsecond, int fold) {
+        return hour >= 0 && hour <= 23 && minute >= 0 && minute <= 59 && second >= 0 && second <= 59 && microsecond >= 0 && microsecond < US_PER_SECOND && (fold == 0 || fold == 1);
+    }
+
+    /**
+     * A simple hash combining three fields. The result is never {@code -1}.
+     */
+    static long hashFields(long a, long b, long c) {
+        long h = ((a * 1000003L) ^ b) * 1000003L ^ c;
+        return h == -1 ? -2 : h;
+    }
+
+    /**
+     * A datetime as {@code (ordinal * SECONDS_PER_DAY + secondOfDay) * US_PER_SECOND +
+     * microsecond}, ignoring its tzinfo. Differences of these are timedeltas.
+     */
+    static long toLocalMicroseconds(PDateTime dt) {
+        return ((long) dt.toOrdinal() * SECONDS_PER_DAY + dt.getSecondOfDay()) * US_PER_SECOND + dt.getMicrosecond();
+    }
+
+    /**
+     * The proleptic Gregorian year of an ordinal that may be outside of the supported range.
+     */
+    @TruffleBoundary
+    static long yearOfOrdinal(long ordinal) {
+        return LocalDate.ofEpochDay(ordinal - EPOCH_ORDINAL).getYear();
+    }
+
+    /**
+     * {@code ((ordinal * 24 + hour) * 60 + minute) * 60 + second}, i.e. the seconds since
+     * 0001-01-01 minus one day.
+     */
+    static long utcToSeconds(int year, int month, int day, int hour, int minute, int second) {
+        long ordinal = ymdToOrd(year, month, day);
+        return ((ordinal * 24 + hour) * 60 + minute) * 60 + second;
+    }
+
+    /**
+     * Local time in seconds since 0001-01-01 for the given UTC time in seconds since 0001-01-01.
+     */
+    @TruffleBoundary
+    private static long local(ZoneId zone, long u) {
+        return u + localOffsetSeconds(zone, u - EPOCH_SECONDS);
+    }
+
+    @TruffleBoundary
+    static int localOffsetSeconds(ZoneId zone, long epochSeconds) {
+        return zone.getRules().getOffset(Instant.ofEpochSecond(epochSeconds)).getTotalSeconds();
+    }
+
+    /**
+     * The abbreviated name of the zone at the given time, as {@code tm_zone} would report it.
+     */
+    @TruffleBoundary
+    static String localZoneName(ZoneId zone, long epochSeconds) {
+        boolean isDst = zone.getRules().isDaylightSavings(Instant.ofEpochSecond(epochSeconds));
+        return TimeZone.getTimeZone(zone).getDisplayName(isDst, TimeZone.SHORT);
+    }
+
+    /**
+     * Converts a local time to UTC seconds since 0001-01-01, disambiguating repeated or missing
+     * local times with {@code fold} the way PEP 495 specifies it.
+     */
+    @TruffleBoundary
+    static long localToSeconds(ZoneId zone, int year, int month, int day, int hour, int minute, int second, int fold) {
+        long t = utcToSeconds(year, month, day, hour, minute, second);
+        // our goal is to solve t = local(u) for u
+        long lt = local(zone, t);
+        long a = lt - t;
+        long u1 = t - a;
+        long t1 = local(zone, u1);
+        long b;
+        if (t1 == t) {
+            // we found one solution, but it may not be the one we need; look for an earlier
+            // solution (if fold is 0), or a later one (if fold is 1)
+            long u2 = fold != 0 ? u1 + MAX_FOLD_SECONDS : u1 - MAX_FOLD_SECONDS;
+            b = local(zone, u2) - u2;
+            if (a == b) {
+                return u1;
+            }
+        } else {
+            b = t1 - u1;
+            assert a != b;
+        }
+        long u2 = t - b;
+        long t2 = local(zone, u2);
+        if (t2 == t) {
+            return u2;
+        }
+        if (t1 == t) {
+            return u1;
+        }
+        // we have found both offsets a and b, but neither t - a nor t - b is a solution; this
+        // means t is in the gap
+        return fold != 0 ? Math.min(u1, u2) : Math.max(u1, u2);
+    }
+
+    /**
+     * Returns {@code 1} if the local time that {@code epochSeconds} converts to is the second
+     * occurrence of that local time, {@code 0} otherwise.
+     */
+    @TruffleBoundary
+    static int detectFold(ZoneId zone, long epochSeconds, long localSeconds) {
+        long timet = epochSeconds + EPOCH_SECONDS;
+        long probeSeconds = local(zone, timet - MAX_FOLD_SECONDS);
+        long transition = localSeconds - probeSeconds - MAX_FOLD_SECONDS;
+        if (transition < 0) {
+            probeSeconds = local(zone, timet + transition);
+            if (probeSeconds == localSeconds) {
+                return 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Total microseconds of a delta. Fits into a {@code long} for any difference of two
+     * datetimes, but not for arbitrary deltas.
+     */
+    static long toMicroseconds(long days, long seconds, long microseconds) {
+        return Math.addExact(Math.multiplyExact(Math.addExact(Math.multiplyExact(days, SECONDS_PER_DAY), seconds), US_PER_SECOND), microseconds);
+    }
+
+    static long toMicroseconds(PTimeDelta delta) {
+        return toMicroseconds(delta.getDays(), delta.getSeconds(), delta.getMicroseconds());
+    }
+
+    @TruffleBoundary
+    static BigInteger toBigMicroseconds(PTimeDelta delta) {
+        return BigInteger.valueOf(delta.getDays()).multiply(BigInteger.valueOf(US_PER_DAY)).add(BigInteger.valueOf(delta.getSeconds() * (long) US_PER_SECOND + delta.getMicroseconds()));
+    }
+
+    /**
+     * The exact result of {@code timedelta.total_seconds()}, rounded once to a double.
+     */
+    @TruffleBoundary
+    static double totalSeconds(PTimeDelta delta) {
+        BigInteger us = toBigMicroseconds(delta);
+        if (us.bitLength() <= 53) {
+            // both operands are exact, so the division rounds correctly
+            return us.longValue() / (double) US_PER_SECOND;
+        }
+        return new BigDecimal(us).movePointLeft(6).doubleValue();
+    }
+
+    /**
+     * {@code microseconds / 10**6}, rounded once to a double.
+     */
+    @TruffleBoundary
+    static double microsecondsToSeconds(long microseconds) {
+        if (Math.abs(microseconds) < (1L << 53)) {
+            return microseconds / (double) US_PER_SECOND;
+        }
+        return new BigDecimal(microseconds).movePointLeft(6).doubleValue();
+    }
+
+    /**
+     * The current time in microseconds since the epoch.
+     */
+    @TruffleBoundary
+    static long currentMicroseconds() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * US_PER_SECOND + now.getNano() / 1000;
+    }
+
+    /**
+     * {@code round(a / b)} with ties going to the even quotient, for {@code b != 0}.
+     */
+    @TruffleBoundary
+    static BigInteger divideNearest(BigInteger a, BigInteger b) {
+        BigInteger[] qr = a.divideAndRemainder(b);
+        BigInteger q = qr[0];
+        BigInteger r = qr[1];
+        if (r.signum() == 0) {
+            return q;
+        }
+        // the quotient is truncated; step away from zero if |2r| > |b| or on a tie with odd q
+        int cmp = r.abs().shiftLeft(1).compareTo(b.abs());
+        if (cmp > 0 || (cmp == 0 && q.testBit(0))) {
+            return a.signum() == b.signum() ? q.add(BigInteger.ONE) : q.subtract(BigInteger.ONE);
+        }
+        return q;
+    }
+
+    // Formatting
+
+    static void appendPadded(StringBuilder sb, int value, int width) {
+        assert value >= 0;
+        int digits = value < 10 ? 1 : value < 100 ? 2 : value < 1000 ? 3 : value < 10000 ? 4 : value < 100000 ? 5 : 6;
+        for (int i = digits; i < width; i++) {
+            sb.append('0');
+        }
+        sb.append(value);
+    }
+
+    @TruffleBoundary
+    static void appendIsoDate(StringBuilder sb, int year, int month, int day) {
+        appendPadded(sb, year, 4);
+        sb.append('-');
+        appendPadded(sb, month, 2);
+        sb.append('-');
+        appendPadded(sb, day, 2);
+    }
+
+    static int parseTimespec(String timespec) {
+        switch (timespec) {
+            case "auto":
+                return TIMESPEC_AUTO;
+            case "hours":
+                return TIMESPEC_HOURS;
+            case "minutes":
+                return TIMESPEC_MINUTES;
+            case "seconds":
+                return TIMESPEC_SECONDS;
+            case "milliseconds":
+                return TIMESPEC_MILLISECONDS;
+            case "microseconds":
+                return TIMESPEC_MICROSECONDS;
+            default:
+                return TIMESPEC_UNKNOWN;
+        }
+    }
+
+    @TruffleBoundary
+    static void appendIsoTime(StringBuilder sb, int hour, int minute, int second, int microsecond, int timespec) {
+        int spec = timespec;
+        if (spec == TIMESPEC_AUTO) {
+            spec = microsecond == 0 ? TIMESPEC_SECONDS : TIMESPEC_MICROSECONDS;
+        }
+        appendPadded(sb, hour, 2);
+        if (spec >= TIMESPEC_MINUTES) {
+            sb.append(':');
+            appendPadded(sb, minute, 2);
+        }
+        if (spec >= TIMESPEC_SECONDS) {
+            sb.append(':');
+            appendPadded(sb, second, 2);
+        }
+        if (spec == TIMESPEC_MILLISECONDS) {
+            sb.append('.');
+            appendPadded(sb, microsecond / 1000, 3);
+        } else if (spec == TIMESPEC_MICROSECONDS) {
+            sb.append('.');
+            appendPadded(sb, microsecond, 6);
+        }
+    }
+
+    /**
+     * Appends {@code [+-]HH<sep>MM[<sep>SS[.ffffff]]}.
+     */
+    @TruffleBoundary
+    static void appendUtcOffset(StringBuilder sb, PTimeDelta offset, String sep) {
+        long us = toMicroseconds(offset.getDays(), offset.getSeconds(), offset.getMicroseconds());
+        // offset is normalized, so it is negative if days < 0
+        if (us < 0) {
+            sb.append('-');
+            us = -us;
+        } else {
+            sb.append('+');
+        }
+        int microseconds = (int) (us % US_PER_SECOND);
+        int seconds = (int) (us / US_PER_SECOND);
+        int minutes = seconds / 60;
+        seconds %= 60;
+        int hours = minutes / 60;
+        minutes %= 60;
+        appendPadded(sb, hours, 2);
+        sb.append(sep);
+        appendPadded(sb, minutes, 2);
+        if (seconds != 0 || microseconds != 0) {
+            sb.append(sep);
+            appendPadded(sb, seconds, 2);
+            if (microseconds != 0) {
+                sb.append('.');
+                appendPadded(sb, microseconds, 6);
+            }
+        }
+    }
+
+    @TruffleBoundary
+    static String formatUtcOffset(PTimeDelta offset, String sep) {
+        StringBuilder sb = new StringBuilder(9);
+        appendUtcOffset(sb, offset, sep);
+        return sb.toString();
+    }
+
+    @TruffleBoundary
+    static String formatMicrosecond(int microsecond) {
+        StringBuilder sb = new StringBuilder(6);
+        appendPadded(sb, microsecond, 6);
+        return sb.toString();
+    }
+
+    /**
+     * {@code str(timedelta)}: {@code [D day[s], ]H:MM:SS[.UUUUUU]}.
+     */
+    @TruffleBoundary
+    static String timeDeltaToString(PTimeDelta delta) {
+        StringBuilder sb = new StringBuilder();
+        int days = delta.getDays();
+        if (days != 0) {
+            sb.append(days).append(" day");
+            if (days != 1 && days != -1) {
+                sb.append('s');
+            }
+            sb.append(", ");
+        }
+        int seconds = delta.getSeconds();
+        sb.append(seconds / 3600).append(':');
+        appendPadded(sb, seconds / 60 % 60, 2);
+        sb.append(':');
+        appendPadded(sb, seconds % 60, 2);
+        if (delta.getMicroseconds() != 0) {
+            sb.append('.');
+            appendPadded(sb, delta.getMicroseconds(), 6);
+        }
+        return sb.toString();
+    }
+
+    @TruffleBoundary
+    static String timeDeltaRepr(String typeName, PTimeDelta delta) {
+        StringBuilder sb = new StringBuilder(typeName).append('(');
+        String sep = "";
+        if (delta.getDays() != 0) {
+            sb.append("days=").append(delta.getDays());
+            sep = ", ";
+        }
+        if (delta.getSeconds() != 0) {
+            sb.append(sep).append("seconds=").append(delta.getSeconds());
+            sep = ", ";
+        }
+        if (delta.getMicroseconds() != 0) {
+            sb.append(sep).append("microseconds=").append(delta.getMicroseconds());
+            sep = ", ";
+        }
+        if (sep.isEmpty()) {
+            sb.append('0');
+        }
+        return sb.append(')').toString();
+    }
+
+    /**
+     * The name of a {@code timezone} without explicit name: {@code UTC[+-]HH:MM[:SS[.ffffff]]}.
+     */
+    @TruffleBoundary
+    static String timeZoneName(PTimeDelta offset) {
+        if (offset.isZero()) {
+            return "UTC";
+        }
+        StringBuilder sb = new StringBuilder("UTC");
+        appendUtcOffset(sb, offset, ":");
+        return sb.toString();
+    }
+
+    @TruffleBoundary
+    static String ctime(int year, int month, int day, int hour, int minute, int second) {
+        StringBuilder sb = new StringBuilder(24);
+        sb.append(DAY_NAMES[weekday(year, month, day)]).append(' ').append(MONTH_NAMES[month - 1]).append(' ');
+        if (day < 10) {
+            sb.append(' ');
+        }
+        sb.append(day).append(' ');
+        appendPadded(sb, hour, 2);
+        sb.append(':');
+        appendPadded(sb, minute, 2);
+        sb.append(':');
+        appendPadded(sb, second, 2);
+        sb.append(' ');
+        appendPadded(sb, year, 4);
+        return sb.toString();
+    }
+
+    /**
+     * Scans a strftime format for the directives that the datetime types expand themselves.
+     * Returns a combination of {@link #STRFTIME_Z_LOWER}, {@link #STRFTIME_Z_UPPER} and
+     * {@link #STRFTIME_F}.
+     */
+    @TruffleBoundary
+    static int scanStrftimeFormat(String format) {
+        int result = 0;
+        int length = format.length();
+        for (int i = 0; i < length; i++) {
+            char ch = format.charAt(i);
+            if (ch == '\0') {
+                break;
+            }
+            if (ch == '%' && i + 1 < length) {
+                switch (format.charAt(++i)) {
+                    case 'z':
+                        result |= STRFTIME_Z_LOWER;
+                        break;
+                    case 'Z':
+                        result |= STRFTIME_Z_UPPER;
+                        break;
+                    case 'f':
+                        result |= STRFTIME_F;
+                        break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Port of CPython's {@code wrap_strftime}: substitutes {@code %z}, {@code %Z} and {@code %f}
+     * and stops at an embedded NUL. The {@code %Z} replacement has its percent signs doubled.
+     */
+    @TruffleBoundary
+    static String expandStrftimeFormat(String format, String zReplacement, String upperZReplacement, String fReplacement) {
+        StringBuilder sb = new StringBuilder(format.length() + 16);
+        int length = format.length();
+        for (int i = 0; i < length; i++) {
+            char ch = format.charAt(i);
+            if (ch == '\0') {
+                break;
+            }
+            if (ch != '%' || i + 1 >= length || format.charAt(i + 1) == '\0') {
+                sb.append(ch);
+                continue;
+            }
+            char next = format.charAt(++i);
+            if (next == 'z') {
+                sb.append(zReplacement);
+            } else if (next == 'Z') {
+                sb.append(upperZReplacement.replace("%", "%%"));
+            } else if (next == 'f') {
+                sb.append(fReplacement);
+            } else {
+                sb.append('%').append(next);
+            }
+        }
+        return sb.toString();
+    }
+
+    // Parsing of the output of isoformat()
+
+    private static char charAt(String s, int index) {
+        // mimics the NUL terminator the C implementation relies on
+        return index < s.length() ? s.charAt(index) : '\0';
+    }
+
+    /**
+     * Parses {@code count} decimal digits, returning {@code -1} if there are not enough.
+     */
+    private static int parseDigits(String s, int start, int count) {
+        int value = 0;
+        for (int i = 0; i < count; i++) {
+            char c = charAt(s, start + i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Parses {@code YYYY-MM-DD} at {@code start}. Returns the date packed with
+     * {@link #packDate} or {@code -1}. The values are not range checked.
+     */
+    static int parseIsoDate(String s, int start) {
+        int year = parseDigits(s, start, 4);
+        if (year < 0 || charAt(s, start + 4) != '-') {
+            return -1;
+        }
+        int month = parseDigits(s, start + 5, 2);
+        if (month < 0 || charAt(s, start + 7) != '-') {
+            return -1;
+        }
+        int day = parseDigits(s, start + 8, 2);
+        if (day < 0) {
+            return -1;
+        }
+        return packDate(year, month, day);
+    }
+
+    /**
+     * Parses {@code HH[:MM[:SS[.fff[fff]]]]} between {@code start} and {@code end} into the
+     * first four elements of {@code out}. Returns {@code 0} if the time ends the string,
+     * {@code 1} if more follows and a negative value on error.
+     */
+    private static int parseHhMmSsFf(String s, int start, int end, int[] out, int offset) {
+        int p = start;
+        for (int i = 0; i < 3; i++) {
+            int value = parseDigits(s, p, 2);
+            if (value < 0) {
+                return -3;
+            }
+            out[offset + i] = value;
+            p += 2;
+            char c = charAt(s, p++);
+            if (p >= end) {
+                return c != '\0' ? 1 : 0;
+            } else if (c == ':') {
+                continue;
+            } else if (c == '.') {
+                break;
+            } else {
+                // malformed time separator
+                return -4;
+            }
+        }
+        int remaining = end - p;
+        if (remaining != 6 && remaining != 3) {
+            return -3;
+        }
+        int microsecond = parseDigits(s, p, remaining);
+        if (microsecond < 0) {
+            return -3;
+        }
+        out[offset + 3] = remaining == 3 ? microsecond * 1000 : microsecond;
+        return charAt(s, p + remaining) != '\0' ? 1 : 0;
+    }
+
+    /**
+     * Parses the time part of {@code isoformat()} output starting at {@code start} into
+     * {@code out}, indexed by the {@code ISO_*} constants. Returns {@code 0} for a naive time,
+     * {@code 1} if a UTC offset was parsed and a negative value on error.
+     */
+    @TruffleBoundary
+    static int parseIsoTime(String s, int start, int[] out) {
+        int end = s.length();
+        int tzPos = start;
+        while (tzPos < end) {
+            char c = s.charAt(tzPos);
+            if (c == '+' || c == '-') {
+                break;
+            }
+            tzPos++;
+        }
+        int rv = parseHhMmSsFf(s, start, tzPos, out, ISO_HOUR);
+        if (rv < 0) {
+            return rv;
+        } else if (tzPos == end) {
+            // there is no time zone, so any leftover is an error
+            return rv == 1 ? -5 : 0;
+        }
+        // valid formats are +HH:MM, +HH:MM:SS and +HH:MM:SS.ffffff
+        int tzLength = end - tzPos;
+        if (tzLength != 6 && tzLength != 9 && tzLength != 16) {
+            return -5;
+        }
+        int sign = s.charAt(tzPos) == '-' ? -1 : 1;
+        int[] tz = new int[4];
+        rv = parseHhMmSsFf(s, tzPos + 1, end, tz, 0);
+        out[ISO_TZ_SECONDS] = sign * (tz[0] * 3600 + tz[1] * 60 + tz[2]);
+        out[ISO_TZ_MICROSECONDS] = sign * tz[3];
+        return rv != 0 ? -5 : 1;
+    }
+}
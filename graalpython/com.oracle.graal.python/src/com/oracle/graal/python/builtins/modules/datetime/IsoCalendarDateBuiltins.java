@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules.datetime;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___REDUCE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___REPR__;
+import static com.oracle.graal.python.util.PythonUtils.TS_ENCODING;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.lib.PyObjectReprAsTruffleStringNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.strings.TruffleString;
+
+/**
+ * The result of {@code date.isocalendar()}: a tuple of year, week and weekday with named
+ * accessors.
+ */
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PIsoCalendarDate)
+public final class IsoCalendarDateBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return IsoCalendarDateBuiltinsFactory.getFactories();
+    }
+
+    @TruffleBoundary
+    private static String repr(String typeName, String year, String week, String weekday) {
+        return typeName + "(year=" + year + ", week=" + week + ", weekday=" + weekday + ")";
+    }
+
+    @Builtin(name = "year", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class YearNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static Object year(PTuple self,
+                        @Cached SequenceStorageNodes.GetItemScalarNode getItemNode) {
+            return getItemNode.execute(self.getSequenceStorage(), 0);
+        }
+    }
+
+    @Builtin(name = "week", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class WeekNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static Object week(PTuple self,
+                        @Cached SequenceStorageNodes.GetItemScalarNode getItemNode) {
+            return getItemNode.execute(self.getSequenceStorage(), 1);
+        }
+    }
+
+    @Builtin(name = "weekday", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class WeekdayNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static Object weekday(PTuple self,
+                        @Cached SequenceStorageNodes.GetItemScalarNode getItemNode) {
+            return getItemNode.execute(self.getSequenceStorage(), 2);
+        }
+    }
+
+    @Builtin(name = J___REPR__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReprNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static TruffleString repr(VirtualFrame frame, PTuple self,
+                        @Cached DateTimeNodes.GetTypeNameNode getTypeNameNode,
+                        @Cached SequenceStorageNodes.GetItemScalarNode getItemNode,
+                        @Cached PyObjectReprAsTruffleStringNode reprNode,
+                        @Cached TruffleString.ToJavaStringNode toJavaStringNode,
+                        @Cached TruffleString.FromJavaStringNode fromJavaStringNode) {
+            String[] fields = new String[3];
+            for (int i = 0; i < fields.length; i++) {
+                fields[i] = toJavaStringNode.execute(reprNode.execute(frame, getItemNode.execute(self.getSequenceStorage(), i)));
+            }
+            String typeName = toJavaStringNode.execute(getTypeNameNode.execute(self));
+            return fromJavaStringNode.execute(IsoCalendarDateBuiltins.repr(typeName, fields[0], fields[1], fields[2]), TS_ENCODING);
+        }
+    }
+
+    /**
+     * Pickles as a plain tuple, since the class is not accessible from the {@code datetime}
+     * module.
+     */
+    @Builtin(name = J___REDUCE__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReduceNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object reduce(PTuple self) {
+            PTuple plain = factory().createTuple(self.getSequenceStorage());
+            return factory().createTuple(new Object[]{PythonBuiltinClassType.PTuple, factory().createTuple(new Object[]{plain})});
+        }
+    }
+}
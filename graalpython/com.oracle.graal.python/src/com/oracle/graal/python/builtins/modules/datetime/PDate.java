@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules.datetime;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.truffle.api.object.Shape;
+
+/**
+ * A {@code datetime.date}. The fields are stored as narrow primitives; the range checks are done
+ * by the constructors in {@link DateBuiltins}.
+ */
+public class PDate extends PythonBuiltinObject {
+
+    private final short year;
+    private final byte month;
+    private final byte day;
+
+    private long hash = -1;
+
+    public PDate(Object cls, Shape instanceShape, int year, int month, int day) {
+        super(cls, instanceShape);
+        assert DateTimeUtils.isValidDate(year, month, day);
+        this.year = (short) year;
+        this.month = (byte) month;
+        this.day = (byte) day;
+    }
+
+    public final int getYear() {
+        return year;
+    }
+
+    public final int getMonth() {
+        return month;
+    }
+
+    public final int getDay() {
+        return day;
+    }
+
+    /**
+     * The proleptic Gregorian ordinal of the date, where January 1 of year 1 has ordinal 1.
+     */
+    public final int toOrdinal() {
+        return DateTimeUtils.ymdToOrd(year, month, day);
+    }
+
+    /**
+     * Compares the date fields only.
+     */
+    public final int compareDateTo(PDate other) {
+        int c = Integer.compare(year, other.year);
+        if (c == 0) {
+            c = Integer.compare(month, other.month);
+            if (c == 0) {
+                c = Integer.compare(day, other.day);
+            }
+        }
+        return c;
+    }
+
+    /**
+     * Returns the cached hash or {@code -1}. The hash of an aware datetime depends on its
+     * {@code utcoffset()}, so it is computed by the builtins.
+     */
+    public final long getCachedHash() {
+        return hash;
+    }
+
+    public final void setCachedHash(long hash) {
+        this.hash = hash;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules.datetime;
+
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.truffle.api.object.Shape;
+
+/**
+ * A {@code datetime.time}. A naive time has a {@code null} {@link #getTzInfo() tzinfo}.
+ */
+public final class PTime extends PythonBuiltinObject {
+
+    private final byte hour;
+    private final byte minute;
+    private final byte second;
+    private final boolean fold;
+    private final int microsecond;
+    private final Object tzInfo;
+
+    private long hash = -1;
+
+    public PTime(Object cls, Shape instanceShape, int hour, int minute, int second, int microsecond, Object tzInfo, int fold) {
+        super(cls, instanceShape);
+        assert DateTimeUtils.isValidTime(hour, minute, second, microsecond, fold);
+        assert tzInfo == null || tzInfo instanceof PTzInfo;
+        this.hour = (byte) hour;
+        this.minute = (byte) minute;
+        this.second = (byte) second;
+        this.microsecond = microsecond;
+        this.tzInfo = tzInfo;
+        this.fold = fold != 0;
+    }
+
+    public int getHour() {
+        return hour;
+    }
+
+    public int getMinute() {
+        return minute;
+    }
+
+    public int getSecond() {
+        return second;
+    }
+
+    public int getMicrosecond() {
+        return microsecond;
+    }
+
+    public int getFold() {
+        return fold ? 1 : 0;
+    }
+
+    /**
+     * Returns the tzinfo or {@code null} if the time is naive.
+     */
+    public Object getTzInfo() {
+        return tzInfo;
+    }
+
+    public Object getTzInfoOrNone() {
+        return tzInfo == null ? PNone.NONE : tzInfo;
+    }
+
+    /**
+     * The number of seconds since midnight, ignoring the microseconds.
+     */
+    public int getSecondOfDay() {
+        return (hour * 60 + minute) * 60 + second;
+    }
+
+    public long getCachedHash() {
+        return hash;
+    }
+
+    public void setCachedHash(long hash) {
+        this.hash = hash;
+    }
+}
@@ -0,0 +1,551 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules.datetime;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.TypeError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeNodes.checkTime;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeNodes.checkTzInfo;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeNodes.intOrDefault;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.T_ISOFORMAT;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.T_STRFTIME;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.US_PER_DAY;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeUtils.US_PER_SECOND;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___EQ__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___FORMAT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___GE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___GT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___HASH__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___LE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___LT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___NE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___REDUCE_EX__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___REDUCE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___REPR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___STR__;
+import static com.oracle.graal.python.util.PythonUtils.TS_ENCODING;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.PNotImplemented;
+import com.oracle.graal.python.lib.PyLongAsIntNode;
+import com.oracle.graal.python.lib.PyObjectCallMethodObjArgs;
+import com.oracle.graal.python.lib.PyObjectReprAsTruffleStringNode;
+import com.oracle.graal.python.lib.PyObjectStrAsObjectNode;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.util.CannotCastException;
+import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
+import com.oracle.graal.python.nodes.util.CastToTruffleStringNode;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.strings.TruffleString;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PTime)
+public final class TimeBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return TimeBuiltinsFactory.getFactories();
+    }
+
+    /**
+     * The pickled state of a time: hour, minute, second and the microsecond in three bytes, big
+     * endian. For protocols above 3, the fold is stored in the high bit of the hour.
+     */
+    static byte[] getState(PTime self, int protocol) {
+        int hour = self.getHour() | (protocol > 3 && self.getFold() != 0 ? 0x80 : 0);
+        int us = self.getMicrosecond();
+        return new byte[]{(byte) hour, (byte) self.getMinute(), (byte) self.getSecond(), (byte) (us >> 16), (byte) (us >> 8), (byte) us};
+    }
+
+    /**
+     * @param offset the UTC offset to append, or {@code null}
+     */
+    @TruffleBoundary
+    static String isoFormat(PTime self, int timespec, PTimeDelta offset) {
+        StringBuilder sb = new StringBuilder(21);
+        DateTimeUtils.appendIsoTime(sb, self.getHour(), self.getMinute(), self.getSecond(), self.getMicrosecond(), timespec);
+        if (offset != null) {
+            DateTimeUtils.appendUtcOffset(sb, offset, ":");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param tzInfoRepr the repr of the tzinfo, or {@code null} if there is none
+     */
+    @TruffleBoundary
+    private static String repr(String typeName, PTime self, String tzInfoRepr) {
+        StringBuilder sb = new StringBuilder(typeName).append('(');
+        sb.append(self.getHour()).append(", ").append(self.getMinute());
+        if (self.getMicrosecond() != 0) {
+            sb.append(", ").append(self.getSecond()).append(", ").append(self.getMicrosecond());
+        } else if (self.getSecond() != 0) {
+            sb.append(", ").append(self.getSecond());
+        }
+        if (self.getFold() != 0) {
+            sb.append(", fold=").append(self.getFold());
+        }
+        if (tzInfoRepr != null) {
+            sb.append(", tzinfo=").append(tzInfoRepr);
+        }
+        return sb.append(')').toString();
+    }
+
+    /**
+     * A time has no date, so its tzinfo methods are called with {@code None}.
+     */
+    static PTimeDelta utcOffset(VirtualFrame frame, PTime self, DateTimeNodes.UtcOffsetNode utcOffsetNode) {
+        return self.getTzInfo() == null ? null : utcOffsetNode.execute(frame, self.getTzInfo(), PNone.NONE);
+    }
+
+    @Builtin(name = "hour", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class HourNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static int hour(PTime self) {
+            return self.getHour();
+        }
+    }
+
+    @Builtin(name = "minute", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class MinuteNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static int minute(PTime self) {
+            return self.getMinute();
+        }
+    }
+
+    @Builtin(name = "second", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class SecondNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static int second(PTime self) {
+            return self.getSecond();
+        }
+    }
+
+    @Builtin(name = "microsecond", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class MicrosecondNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static int microsecond(PTime self) {
+            return self.getMicrosecond();
+        }
+    }
+
+    @Builtin(name = "tzinfo", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class TzInfoNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static Object tzInfo(PTime self) {
+            return self.getTzInfoOrNone();
+        }
+    }
+
+    @Builtin(name = "fold", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class FoldNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static int fold(PTime self) {
+            return self.getFold();
+        }
+    }
+
+    @Builtin(name = "replace", minNumOfPositionalArgs = 1, parameterNames = {"self", "hour", "minute", "second", "microsecond", "tzinfo"}, keywordOnlyNames = {"fold"})
+    @GenerateNodeFactory
+    abstract static class ReplaceNode extends PythonBuiltinNode {
+        @Specialization
+        Object replace(VirtualFrame frame, PTime self, Object hourObj, Object minuteObj, Object secondObj, Object microsecondObj, Object tzInfoObj, Object foldObj,
+                        @Cached GetClassNode getClassNode,
+                        @Cached PyLongAsIntNode asIntNode) {
+            int hour = intOrDefault(frame, hourObj, self.getHour(), asIntNode);
+            int minute = intOrDefault(frame, minuteObj, self.getMinute(), asIntNode);
+            int second = intOrDefault(frame, secondObj, self.getSecond(), asIntNode);
+            int microsecond = intOrDefault(frame, microsecondObj, self.getMicrosecond(), asIntNode);
+            Object tzInfo = tzInfoObj == PNone.NO_VALUE ? self.getTzInfo() : checkTzInfo(this, tzInfoObj);
+            int fold = intOrDefault(frame, foldObj, self.getFold(), asIntNode);
+            checkTime(this, hour, minute, second, microsecond, fold);
+            return factory().createTime(getClassNode.execute(self), hour, minute, second, microsecond, tzInfo, fold);
+        }
+    }
+
+    @Builtin(name = "fromisoformat", minNumOfPositionalArgs = 2, isClassmethod = true, parameterNames = {"cls", "time_string"})
+    @GenerateNodeFactory
+    abstract static class FromIsoFormatNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object fromIsoFormat(VirtualFrame frame, Object cls, Object timeString,
+                        @Cached CastToTruffleStringNode castToStringNode,
+                        @Cached TruffleString.ToJavaStringNode toJavaStringNode,
+                        @Cached PyObjectReprAsTruffleStringNode reprNode,
+                        @Cached DateTimeNodes.NewTimeZoneNode newTimeZoneNode,
+                        @Cached IsBuiltinClassProfile isTimeProfile,
+                        @Cached CallNode callNode) {
+            String s;
+            try {
+                s = toJavaStringNode.execute(castToStringNode.execute(timeString));
+            } catch (CannotCastException e) {
+                throw raise(TypeError, ErrorMessages.FROMISOFORMAT_ARGUMENT_MUST_BE_STR);
+            }
+            int[] time = new int[DateTimeUtils.ISO_TIME_FIELDS];
+            int rv = DateTimeUtils.parseIsoTime(s, 0, time);
+            if (rv < 0) {
+                throw raise(ValueError, ErrorMessages.INVALID_ISOFORMAT_STRING_S, reprNode.execute(frame, timeString));
+            }
+            int hour = time[DateTimeUtils.ISO_HOUR];
+            int minute = time[DateTimeUtils.ISO_MINUTE];
+            int second = time[DateTimeUtils.ISO_SECOND];
+            int microsecond = time[DateTimeUtils.ISO_MICROSECOND];
+            Object tzInfo = null;
+            if (rv == 1) {
+                PTimeDelta offset = DateTimeNodes.newTimeDelta(this, factory(), PythonBuiltinClassType.PTimeDelta, 0, time[DateTimeUtils.ISO_TZ_SECONDS], time[DateTimeUtils.ISO_TZ_MICROSECONDS]);
+                tzInfo = newTimeZoneNode.execute(offset, PNone.NO_VALUE);
+            }
+            if (isTimeProfile.profileClass(cls, PythonBuiltinClassType.PTime)) {
+                checkTime(this, hour, minute, second, microsecond, 0);
+                return factory().createTime(cls, hour, minute, second, microsecond, tzInfo, 0);
+            }
+            return callNode.execute(frame, cls, hour, minute, second, microsecond, tzInfo == null ? PNone.NONE : tzInfo);
+        }
+    }
+
+    @Builtin(name = "isoformat", minNumOfPositionalArgs = 1, parameterNames = {"self", "timespec"})
+    @GenerateNodeFactory
+    abstract static class IsoFormatNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        TruffleString isoFormat(VirtualFrame frame, PTime self, Object timespecObj,
+                        @Cached CastToJavaStringNode castToJavaStringNode,
+                        @Cached DateTimeNodes.UtcOffsetNode utcOffsetNode,
+                        @Cached TruffleString.FromJavaStringNode fromJavaStringNode) {
+            int timespec = DateTimeUtils.TIMESPEC_AUTO;
+            if (timespecObj != PNone.NO_VALUE) {
+                try {
+                    timespec = DateTimeUtils.parseTimespec(castToJavaStringNode.execute(timespecObj));
+                } catch (CannotCastException e) {
+                    throw raise(TypeError, ErrorMessages.S_BRACKETS_ARG_MUST_BE_S_NOT_P, "isoformat", "str", timespecObj);
+                }
+                if (timespec == DateTimeUtils.TIMESPEC_UNKNOWN) {
+                    throw raise(ValueError, ErrorMessages.UNKNOWN_TIMESPEC_VALUE);
+                }
+            }
+            return fromJavaStringNode.execute(TimeBuiltins.isoFormat(self, timespec, utcOffset(frame, self, utcOffsetNode)), TS_ENCODING);
+        }
+    }
+
+    @Builtin(name = J___STR__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class StrNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static Object str(VirtualFrame frame, PTime self,
+                        @Cached GetClassNode getClassNode,
+                        @Cached IsBuiltinClassProfile isTimeProfile,
+                        @Cached DateTimeNodes.UtcOffsetNode utcOffsetNode,
+                        @Cached PyObjectCallMethodObjArgs callMethod,
+                        @Cached TruffleString.FromJavaStringNode fromJavaStringNode) {
+            if (isTimeProfile.profileClass(getClassNode.execute(self), PythonBuiltinClassType.PTime)) {
+                return fromJavaStringNode.execute(TimeBuiltins.isoFormat(self, DateTimeUtils.TIMESPEC_AUTO, utcOffset(frame, self, utcOffsetNode)), TS_ENCODING);
+            }
+            return callMethod.execute(frame, self, T_ISOFORMAT);
+        }
+    }
+
+    @Builtin(name = J___REPR__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReprNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static TruffleString repr(VirtualFrame frame, PTime self,
+                        @Cached DateTimeNodes.GetTypeNameNode getTypeNameNode,
+                        @Cached PyObjectReprAsTruffleStringNode reprNode,
+                        @Cached TruffleString.ToJavaStringNode toJavaStringNode,
+                        @Cached TruffleString.FromJavaStringNode fromJavaStringNode) {
+            String typeName = toJavaStringNode.execute(getTypeNameNode.execute(self));
+            String tzInfoRepr = self.getTzInfo() == null ? null : toJavaStringNode.execute(reprNode.execute(frame, self.getTzInfo()));
+            return fromJavaStringNode.execute(TimeBuiltins.repr(typeName, self, tzInfoRepr), TS_ENCODING);
+        }
+    }
+
+    @Builtin(name = "strftime", minNumOfPositionalArgs = 2, parameterNames = {"self", "format"})
+    @GenerateNodeFactory
+    abstract static class StrftimeNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        TruffleString strftime(VirtualFrame frame, PTime self, Object format,
+                        @Cached CastToTruffleStringNode castToStringNode,
+                        @Cached DateTimeNodes.StrftimeNode strftimeNode) {
+            TruffleString fmt;
+            try {
+                fmt = castToStringNode.execute(format);
+            } catch (CannotCastException e) {
+                throw raise(TypeError, ErrorMessages.S_BRACKETS_ARG_MUST_BE_S_NOT_P, "strftime", "str", format);
+            }
+            return strftimeNode.execute(frame, self, fmt);
+        }
+    }
+
+    @Builtin(name = J___FORMAT__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class FormatNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object format(VirtualFrame frame, PTime self, Object format,
+                        @Cached CastToTruffleStringNode castToStringNode,
+                        @Cached PyObjectStrAsObjectNode strNode,
+                        @Cached PyObjectCallMethodObjArgs callMethod) {
+            TruffleString fmt;
+            try {
+                fmt = castToStringNode.execute(format);
+            } catch (CannotCastException e) {
+                throw raise(TypeError, ErrorMessages.S_BRACKETS_ARG_MUST_BE_S_NOT_P, J___FORMAT__, "str", format);
+            }
+            if (fmt.isEmpty()) {
+                return strNode.execute(frame, self);
+            }
+            return callMethod.execute(frame, self, T_STRFTIME, fmt);
+        }
+    }
+
+    @Builtin(name = "utcoffset", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class UtcOffsetNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static Object utcoffset(VirtualFrame frame, PTime self,
+                        @Cached DateTimeNodes.UtcOffsetNode utcOffsetNode) {
+            PTimeDelta offset = utcOffset(frame, self, utcOffsetNode);
+            return offset == null ? PNone.NONE : offset;
+        }
+    }
+
+    @Builtin(name = "dst", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class DstNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static Object dst(VirtualFrame frame, PTime self,
+                        @Cached DateTimeNodes.DstNode dstNode) {
+            PTimeDelta dst = self.getTzInfo() == null ? null : dstNode.execute(frame, self.getTzInfo(), PNone.NONE);
+            return dst == null ? PNone.NONE : dst;
+        }
+    }
+
+    @Builtin(name = "tzname", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class TzNameNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static Object tzname(VirtualFrame frame, PTime self,
+                        @Cached DateTimeNodes.TzNameNode tzNameNode) {
+            return self.getTzInfo() == null ? PNone.NONE : tzNameNode.execute(frame, self.getTzInfo(), PNone.NONE);
+        }
+    }
+
+    abstract static class TimeCompareNode extends PythonBinaryBuiltinNode {
+
+        boolean compare(@SuppressWarnings("unused") int c) {
+            throw CompilerDirectives.shouldNotReachHere();
+        }
+
+        /**
+         * {@code ==} and {@code !=} never raise for naive and aware times.
+         */
+        boolean isEquality() {
+            return false;
+        }
+
+        @Specialization
+        boolean doCompare(VirtualFrame frame, PTime self, PTime other,
+                        @Cached DateTimeNodes.UtcOffsetNode selfOffsetNode,
+                        @Cached DateTimeNodes.UtcOffsetNode otherOffsetNode) {
+            if (self.getTzInfo() != other.getTzInfo()) {
+                PTimeDelta selfOffset = utcOffset(frame, self, selfOffsetNode);
+                PTimeDelta otherOffset = utcOffset(frame, other, otherOffsetNode);
+                if (selfOffset != null && otherOffset != null) {
+                    if (selfOffset.compareTo(otherOffset) != 0) {
+                        // like CPython, this ignores the microseconds of the offsets
+                        long selfSeconds = self.getSecondOfDay() - selfOffset.getDays() * (long) DateTimeUtils.SECONDS_PER_DAY - selfOffset.getSeconds();
+                        long otherSeconds = other.getSecondOfDay() - otherOffset.getDays() * (long) DateTimeUtils.SECONDS_PER_DAY - otherOffset.getSeconds();
+                        int c = Long.compare(selfSeconds, otherSeconds);
+                        return compare(c != 0 ? c : Integer.compare(self.getMicrosecond(), other.getMicrosecond()));
+                    }
+                } else if (selfOffset != null || otherOffset != null) {
+                    if (isEquality()) {
+                        return compare(1);
+                    }
+                    throw raise(TypeError, ErrorMessages.CANT_COMPARE_OFFSET_NAIVE_AND_AWARE_S, "times");
+                }
+            }
+            int c = Integer.compare(self.getSecondOfDay(), other.getSecondOfDay());
+            return compare(c != 0 ? c : Integer.compare(self.getMicrosecond(), other.getMicrosecond()));
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        static Object notImplemented(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = J___EQ__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class EqNode extends TimeCompareNode {
+        @Override
+        boolean compare(int c) {
+            return c == 0;
+        }
+
+        @Override
+        boolean isEquality() {
+            return true;
+        }
+    }
+
+    @Builtin(name = J___NE__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class NeNode extends TimeCompareNode {
+        @Override
+        boolean compare(int c) {
+            return c != 0;
+        }
+
+        @Override
+        boolean isEquality() {
+            return true;
+        }
+    }
+
+    @Builtin(name = J___LT__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class LtNode extends TimeCompareNode {
+        @Override
+        boolean compare(int c) {
+            return c < 0;
+        }
+    }
+
+    @Builtin(name = J___LE__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class LeNode extends TimeCompareNode {
+        @Override
+        boolean compare(int c) {
+            return c <= 0;
+        }
+    }
+
+    @Builtin(name = J___GT__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class GtNode extends TimeCompareNode {
+        @Override
+        boolean compare(int c) {
+            return c > 0;
+        }
+    }
+
+    @Builtin(name = J___GE__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class GeNode extends TimeCompareNode {
+        @Override
+        boolean compare(int c) {
+            return c >= 0;
+        }
+    }
+
+    @Builtin(name = J___HASH__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class HashNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static long hash(VirtualFrame frame, PTime self,
+                        @Cached DateTimeNodes.UtcOffsetNode utcOffsetNode) {
+            long hash = self.getCachedHash();
+            if (hash == -1) {
+                long us = (long) self.getSecondOfDay() * US_PER_SECOND + self.getMicrosecond();
+                PTimeDelta offset = utcOffset(frame, self, utcOffsetNode);
+                if (offset != null) {
+                    us -= DateTimeUtils.toMicroseconds(offset);
+                }
+                hash = DateTimeUtils.hashFields(Math.floorDiv(us, US_PER_DAY), Math.floorMod(us, US_PER_DAY) / US_PER_SECOND, Math.floorMod(us, US_PER_SECOND));
+                self.setCachedHash(hash);
+            }
+            return hash;
+        }
+    }
+
+    @Builtin(name = J___REDUCE_EX__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class ReduceExNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object reduceEx(VirtualFrame frame, PTime self, Object protocolObj,
+                        @Cached PyLongAsIntNode asIntNode,
+                        @Cached GetClassNode getClassNode) {
+            return reduce(factory(), self, asIntNode.execute(frame, protocolObj), getClassNode);
+        }
+
+        static Object reduce(PythonObjectFactory factory, PTime self, int protocol, GetClassNode getClassNode) {
+            Object state = factory.createBytes(getState(self, protocol));
+            Object[] args = self.getTzInfo() == null ? new Object[]{state} : new Object[]{state, self.getTzInfo()};
+            return factory.createTuple(new Object[]{getClassNode.execute(self), factory.createTuple(args)});
+        }
+    }
+
+    @Builtin(name = J___REDUCE__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReduceNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object reduce(PTime self,
+                        @Cached GetClassNode getClassNode) {
+            return ReduceExNode.reduce(factory(), self, 2, getClassNode);
+        }
+    }
+}
@@ -0,0 +1,621 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules.datetime;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.OverflowError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ZeroDivisionError;
+import static com.oracle.graal.python.builtins.modules.datetime.DateTimeNodes.newTimeDelta;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___ABS__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___ADD__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___BOOL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___DIVMOD__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___EQ__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___FLOORDIV__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___GE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___GT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___HASH__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___LE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___LT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___MOD__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___MUL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___NEG__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___NE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___POS__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___RADD__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___REDUCE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___REPR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___RMUL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___RSUB__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___STR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___SUB__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___TRUEDIV__;
+import static com.oracle.graal.python.util.PythonUtils.TS_ENCODING;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNotImplemented;
+import com.oracle.graal.python.builtins.objects.floats.PFloat;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.PNodeWithRaise;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.strings.TruffleString;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PTimeDelta)
+public final class TimeDeltaBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return TimeDeltaBuiltinsFactory.getFactories();
+    }
+
+    static boolean isTimeDelta(Object obj) {
+        return obj instanceof PTimeDelta;
+    }
+
+    static boolean isSmallInteger(Object obj) {
+        return obj instanceof Integer || obj instanceof Long || obj instanceof Boolean;
+    }
+
+    static boolean isInteger(Object obj) {
+        return isSmallInteger(obj) || obj instanceof PInt;
+    }
+
+    static boolean isFloat(Object obj) {
+        return obj instanceof Double || obj instanceof PFloat;
+    }
+
+    static long longValue(Object obj) {
+        assert isSmallInteger(obj);
+        if (obj instanceof Integer) {
+            return (int) obj;
+        } else if (obj instanceof Boolean) {
+            return (boolean) obj ? 1 : 0;
+        }
+        return (long) obj;
+    }
+
+    static BigInteger bigValue(Object obj) {
+        assert isInteger(obj);
+        if (obj instanceof PInt) {
+            return ((PInt) obj).getValue();
+        }
+        return PInt.longToBigInteger(longValue(obj));
+    }
+
+    static double doubleValue(Object obj) {
+        assert isFloat(obj);
+        return obj instanceof Double ? (double) obj : ((PFloat) obj).getValue();
+    }
+
+    /**
+     * {@code float.as_integer_ratio()}: the numerator and the positive denominator of the
+     * reduced fraction that is exactly equal to {@code value}.
+     */
+    @TruffleBoundary
+    static BigInteger[] asIntegerRatio(PNodeWithRaise node, double value) {
+        if (Double.isNaN(value)) {
+            throw node.raise(ValueError, ErrorMessages.CANNOT_CONVERT_S_TO_INT_RATIO, "NaN");
+        } else if (Double.isInfinite(value)) {
+            throw node.raise(OverflowError, ErrorMessages.CANNOT_CONVERT_S_TO_INT_RATIO, "Infinity");
+        } else if (value == 0) {
+            return new BigInteger[]{BigInteger.ZERO, BigInteger.ONE};
+        }
+        long bits = Double.doubleToRawLongBits(value);
+        int exponent = (int) ((bits >> 52) & 0x7FF);
+        long mantissa = bits & ((1L << 52) - 1);
+        if (exponent == 0) {
+            exponent = 1;
+        } else {
+            mantissa |= 1L << 52;
+        }
+        // value == mantissa * 2**exponent
+        exponent -= 1075;
+        int trailingZeros = Long.numberOfTrailingZeros(mantissa);
+        mantissa >>= trailingZeros;
+        exponent += trailingZeros;
+        BigInteger numerator = BigInteger.valueOf(value < 0 ? -mantissa : mantissa);
+        if (exponent >= 0) {
+            return new BigInteger[]{numerator.shiftLeft(exponent), BigInteger.ONE};
+        }
+        return new BigInteger[]{numerator, BigInteger.ONE.shiftLeft(-exponent)};
+    }
+
+    @TruffleBoundary
+    private static BigInteger multiply(BigInteger a, BigInteger b) {
+        return a.multiply(b);
+    }
+
+    @TruffleBoundary
+    private static BigInteger floorDiv(BigInteger a, BigInteger b) {
+        BigInteger[] qr = a.divideAndRemainder(b);
+        return qr[1].signum() != 0 && qr[1].signum() != b.signum() ? qr[0].subtract(BigInteger.ONE) : qr[0];
+    }
+
+    @TruffleBoundary
+    private static BigInteger floorMod(BigInteger a, BigInteger b) {
+        BigInteger r = a.remainder(b);
+        return r.signum() != 0 && r.signum() != b.signum() ? r.add(b) : r;
+    }
+
+    /**
+     * Correctly rounded {@code a / b} for Python ints, {@code b != 0}.
+     */
+    @TruffleBoundary
+    private static double trueDivide(BigInteger a, BigInteger b) {
+        if (a.bitLength() <= 53 && b.bitLength() <= 53) {
+            return a.doubleValue() / b.doubleValue();
+        }
+        return new BigDecimal(a).divide(new BigDecimal(b), MathContext.DECIMAL128).doubleValue();
+    }
+
+    private static Object toPythonInt(PythonObjectFactory factory, BigInteger value) {
+        if (value.bitLength() < Long.SIZE) {
+            return value.longValue();
+        }
+        return factory.createInt(value);
+    }
+
+    @Builtin(name = "days", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class DaysNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static int days(PTimeDelta self) {
+            return self.getDays();
+        }
+    }
+
+    @Builtin(name = "seconds", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class SecondsNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static int seconds(PTimeDelta self) {
+            return self.getSeconds();
+        }
+    }
+
+    @Builtin(name = "microseconds", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class MicrosecondsNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static int microseconds(PTimeDelta self) {
+            return self.getMicroseconds();
+        }
+    }
+
+    @Builtin(name = "total_seconds", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class TotalSecondsNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static double totalSeconds(PTimeDelta self) {
+            if (Math.abs(self.getDays()) < 100000000) {
+                long us = DateTimeUtils.toMicroseconds(self);
+                if (Math.abs(us) < (1L << 53)) {
+                    // both operands are exact, so the division rounds correctly
+                    return us / (double) DateTimeUtils.US_PER_SECOND;
+                }
+            }
+            return DateTimeUtils.totalSeconds(self);
+        }
+    }
+
+    @Builtin(name = J___RADD__, minNumOfPositionalArgs = 2, reverseOperation = true)
+    @Builtin(name = J___ADD__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class AddNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PTimeDelta add(PTimeDelta left, PTimeDelta right) {
+            return newTimeDelta(this, factory(), PythonBuiltinClassType.PTimeDelta, (long) left.getDays() + right.getDays(), (long) left.getSeconds() + right.getSeconds(),
+                            (long) left.getMicroseconds() + right.getMicroseconds());
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        static Object notImplemented(Object left, Object right) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = J___RSUB__, minNumOfPositionalArgs = 2, reverseOperation = true)
+    @Builtin(name = J___SUB__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class SubNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PTimeDelta sub(PTimeDelta left, PTimeDelta right) {
+            return newTimeDelta(this, factory(), PythonBuiltinClassType.PTimeDelta, (long) left.getDays() - right.getDays(), (long) left.getSeconds() - right.getSeconds(),
+                            (long) left.getMicroseconds() - right.getMicroseconds());
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        static Object notImplemented(Object left, Object right) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = J___RMUL__, minNumOfPositionalArgs = 2, reverseOperation = true)
+    @Builtin(name = J___MUL__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class MulNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object mul(PTimeDelta left, Object right) {
+            return multiplyDelta(left, right);
+        }
+
+        @Specialization(guards = "!isTimeDelta(left)")
+        Object mulReversed(Object left, PTimeDelta right) {
+            return multiplyDelta(right, left);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        static Object notImplemented(Object left, Object right) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+
+        private Object multiplyDelta(PTimeDelta delta, Object factor) {
+            if (isSmallInteger(factor)) {
+                try {
+                    return newTimeDelta(this, factory(), PythonBuiltinClassType.PTimeDelta, Math.multiplyExact(DateTimeUtils.toMicroseconds(delta), longValue(factor)));
+                } catch (ArithmeticException e) {
+                    // the result is out of range, report it below
+                }
+            }
+            if (isInteger(factor)) {
+                return newTimeDelta(this, factory(), PythonBuiltinClassType.PTimeDelta, multiply(DateTimeUtils.toBigMicroseconds(delta), bigValue(factor)));
+            } else if (isFloat(factor)) {
+                BigInteger[] ratio = asIntegerRatio(this, doubleValue(factor));
+                BigInteger us = DateTimeUtils.divideNearest(multiply(DateTimeUtils.toBigMicroseconds(delta), ratio[0]), ratio[1]);
+                return newTimeDelta(this, factory(), PythonBuiltinClassType.PTimeDelta, us);
+            }
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = J___TRUEDIV__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class TrueDivNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        double div(PTimeDelta left, PTimeDelta right) {
+            if (right.isZero()) {
+                throw raise(ZeroDivisionError, ErrorMessages.DIVISION_BY_ZERO);
+            }
+            if (Math.abs(left.getDays()) < 100000000 && Math.abs(right.getDays()) < 100000000) {
+                long a = DateTimeUtils.toMicroseconds(left);
+                long b = DateTimeUtils.toMicroseconds(right);
+                if (Math.abs(a) < (1L << 53) && Math.abs(b) < (1L << 53)) {
+                    return a / (double) b;
+                }
+            }
+            return trueDivide(DateTimeUtils.toBigMicroseconds(left), DateTimeUtils.toBigMicroseconds(right));
+        }
+
+        @Specialization(guards = "isInteger(right)")
+        Object divInt(PTimeDelta left, Object right) {
+            BigInteger divisor = bigValue(right);
+            if (divisor.signum() == 0) {
+                throw raise(ZeroDivisionError, ErrorMessages.S_DIVISION_OR_MODULO_BY_ZERO, "integer");
+            }
+            return newTimeDelta(this, factory(), PythonBuiltinClassType.PTimeDelta, DateTimeUtils.divideNearest(DateTimeUtils.toBigMicroseconds(left), divisor));
+        }
+
+        @Specialization(guards = "isFloat(right)")
+        Object divFloat(PTimeDelta left, Object right) {
+            BigInteger[] ratio = asIntegerRatio(this, doubleValue(right));
+            if (ratio[0].signum() == 0) {
+                throw raise(ZeroDivisionError, ErrorMessages.S_DIVISION_OR_MODULO_BY_ZERO, "integer");
+            }
+            BigInteger us = DateTimeUtils.divideNearest(multiply(DateTimeUtils.toBigMicroseconds(left), ratio[1]), ratio[0]);
+            return newTimeDelta(this, factory(), PythonBuiltinClassType.PTimeDelta, us);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        static Object notImplemented(Object left, Object right) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = J___FLOORDIV__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class FloorDivNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object floorDiv(PTimeDelta left, PTimeDelta right) {
+            if (right.isZero()) {
+                throw raise(ZeroDivisionError, ErrorMessages.S_DIVISION_OR_MODULO_BY_ZERO, "integer");
+            }
+            try {
+                return Math.floorDiv(DateTimeUtils.toMicroseconds(left), DateTimeUtils.toMicroseconds(right));
+            } catch (ArithmeticException e) {
+                return toPythonInt(factory(), TimeDeltaBuiltins.floorDiv(DateTimeUtils.toBigMicroseconds(left), DateTimeUtils.toBigMicroseconds(right)));
+            }
+        }
+
+        @Specialization(guards = "isInteger(right)")
+        Object floorDivInt(PTimeDelta left, Object right) {
+            if (isSmallInteger(right)) {
+                long divisor = longValue(right);
+                if (divisor == 0) {
+                    throw raise(ZeroDivisionError, ErrorMessages.S_DIVISION_OR_MODULO_BY_ZERO, "integer");
+                }
+                try {
+                    return newTimeDelta(this, factory(), PythonBuiltinClassType.PTimeDelta, Math.floorDiv(DateTimeUtils.toMicroseconds(left), divisor));
+                } catch (ArithmeticException e) {
+                    // fall back to big integers
+                }
+            }
+            BigInteger divisor = bigValue(right);
+            if (divisor.signum() == 0) {
+                throw raise(ZeroDivisionError, ErrorMessages.S_DIVISION_OR_MODULO_BY_ZERO, "integer");
+            }
+            return newTimeDelta(this, factory(), PythonBuiltinClassType.PTimeDelta, TimeDeltaBuiltins.floorDiv(DateTimeUtils.toBigMicroseconds(left), divisor));
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        static Object notImplemented(Object left, Object right) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = J___MOD__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class ModNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PTimeDelta mod(PTimeDelta left, PTimeDelta right) {
+            if (right.isZero()) {
+                throw raise(ZeroDivisionError, ErrorMessages.S_DIVISION_OR_MODULO_BY_ZERO, "integer");
+            }
+            try {
+                return newTimeDelta(this, factory(), PythonBuiltinClassType.PTimeDelta, Math.floorMod(DateTimeUtils.toMicroseconds(left), DateTimeUtils.toMicroseconds(right)));
+            } catch (ArithmeticException e) {
+                return newTimeDelta(this, factory(), PythonBuiltinClassType.PTimeDelta, floorMod(DateTimeUtils.toBigMicroseconds(left), DateTimeUtils.toBigMicroseconds(right)));
+            }
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        static Object notImplemented(Object left, Object right) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = J___DIVMOD__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class DivModNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object divmod(PTimeDelta left, PTimeDelta right) {
+            if (right.isZero()) {
+                throw raise(ZeroDivisionError, ErrorMessages.S_DIVISION_OR_MODULO_BY_ZERO, "integer");
+            }
+            PythonObjectFactory factory = factory();
+            try {
+                long a = DateTimeUtils.toMicroseconds(left);
+                long b = DateTimeUtils.toMicroseconds(right);
+                return factory.createTuple(new Object[]{Math.floorDiv(a, b), newTimeDelta(this, factory, PythonBuiltinClassType.PTimeDelta, Math.floorMod(a, b))});
+            } catch (ArithmeticException e) {
+                BigInteger a = DateTimeUtils.toBigMicroseconds(left);
+                BigInteger b = DateTimeUtils.toBigMicroseconds(right);
+                return factory.createTuple(new Object[]{toPythonInt(factory, floorDiv(a, b)), newTimeDelta(this, factory, PythonBuiltinClassType.PTimeDelta, floorMod(a, b))});
+            }
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        static Object notImplemented(Object left, Object right) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = J___NEG__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class NegNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PTimeDelta neg(PTimeDelta self) {
+            return newTimeDelta(this, factory(), PythonBuiltinClassType.PTimeDelta, -(long) self.getDays(), -self.getSeconds(), -self.getMicroseconds());
+        }
+    }
+
+    @Builtin(name = J___POS__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class PosNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PTimeDelta pos(PTimeDelta self) {
+            return factory().createTimeDelta(PythonBuiltinClassType.PTimeDelta, self.getDays(), self.getSeconds(), self.getMicroseconds());
+        }
+    }
+
+    @Builtin(name = J___ABS__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class AbsNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PTimeDelta abs(PTimeDelta self) {
+            if (self.getDays() < 0) {
+                return newTimeDelta(this, factory(), PythonBuiltinClassType.PTimeDelta, -(long) self.getDays(), -self.getSeconds(), -self.getMicroseconds());
+            }
+            return factory().createTimeDelta(PythonBuiltinClassType.PTimeDelta, self.getDays(), self.getSeconds(), self.getMicroseconds());
+        }
+    }
+
+    abstract static class TimeDeltaCompareNode extends PythonBinaryBuiltinNode {
+
+        boolean compare(@SuppressWarnings("unused") int c) {
+            throw CompilerDirectives.shouldNotReachHere();
+        }
+
+        @Specialization
+        boolean doCompare(PTimeDelta self, PTimeDelta other) {
+            return compare(self.compareTo(other));
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        static Object notImplemented(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = J___EQ__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class EqNode extends TimeDeltaCompareNode {
+        @Override
+        boolean compare(int c) {
+            return c == 0;
+        }
+    }
+
+    @Builtin(name = J___NE__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class NeNode extends TimeDeltaCompareNode {
+        @Override
+        boolean compare(int c) {
+            return c != 0;
+        }
+    }
+
+    @Builtin(name = J___LT__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class LtNode extends TimeDeltaCompareNode {
+        @Override
+        boolean compare(int c) {
+            return c < 0;
+        }
+    }
+
+    @Builtin(name = J___LE__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class LeNode extends TimeDeltaCompareNode {
+        @Override
+        boolean compare(int c) {
+            return c <= 0;
+        }
+    }
+
+    @Builtin(name = J___GT__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class GtNode extends TimeDeltaCompareNode {
+        @Override
+        boolean compare(int c) {
+            return c > 0;
+        }
+    }
+
+    @Builtin(name = J___GE__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class GeNode extends TimeDeltaCompareNode {
+        @Override
+        boolean compare(int c) {
+            return c >= 0;
+        }
+    }
+
+    @Builtin(name = J___HASH__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class HashNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static long hash(PTimeDelta self) {
+            return self.getHash();
+        }
+    }
+
+    @Builtin(name = J___BOOL__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class BoolNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static boolean bool(PTimeDelta self) {
+            return !self.isZero();
+        }
+    }
+
+    @Builtin(name = J___REPR__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReprNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static TruffleString repr(PTimeDelta self,
+                        @Cached DateTimeNodes.GetTypeNameNode getTypeNameNode,
+                        @Cached TruffleString.ToJavaStringNode toJavaStringNode,
+                        @Cached TruffleString.FromJavaStringNode fromJavaStringNode) {
+            String typeName = toJavaStringNode.execute(getTypeNameNode.execute(self));
+            return fromJavaStringNode.execute(DateTimeUtils.timeDeltaRepr(typeName, self), TS_ENCODING);
+        }
+    }
+
+    @Builtin(name = J___STR__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class StrNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static TruffleString str(PTimeDelta self,
+                        @Cached TruffleString.FromJavaStringNode fromJavaStringNode) {
+            return fromJavaStringNode.execute(DateTimeUtils.timeDeltaToString(self), TS_ENCODING);
+        }
+    }
+
+    @Builtin(name = J___REDUCE__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReduceNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object reduce(PTimeDelta self,
+                        @Cached GetClassNode getClassNode) {
+            PythonObjectFactory factory = factory();
+            Object args = factory.createTuple(new Object[]{self.getDays(), self.getSeconds(), self.getMicroseconds()});
+            return factory.createTuple(new Object[]{getClassNode.execute(self), args});
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules.datetime;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.TypeError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___EQ__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___GETINITARGS__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___HASH__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___NE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___REPR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___STR__;
+import static com.oracle.graal.python.util.PythonUtils.TS_ENCODING;
+import static com.oracle.graal.python.util.PythonUtils.tsLiteral;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.PNotImplemented;
+import com.oracle.graal.python.lib.PyObjectReprAsTruffleStringNode;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.PNodeWithRaise;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.strings.TruffleString;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PTimeZone)
+public final class TimeZoneBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return TimeZoneBuiltinsFactory.getFactories();
+    }
+
+    /**
+     * The offset of a {@code timezone} does not depend on the datetime, but the argument is
+     * still checked.
+     */
+    static void checkArgument(PNodeWithRaise node, Object dt, String methodName) {
+        if (dt != PNone.NONE && !(dt instanceof PDateTime)) {
+            throw node.raise(TypeError, ErrorMessages.S_DT_ARGUMENT_MUST_BE_DATETIME_OR_NONE_NOT_P, methodName, dt);
+        }
+    }
+
+    @TruffleBoundary
+    private static String repr(String offsetRepr, String nameRepr) {
+        StringBuilder sb = new StringBuilder("datetime.timezone(").append(offsetRepr);
+        if (nameRepr != null) {
+            sb.append(", ").append(nameRepr);
+        }
+        return sb.append(')').toString();
+    }
+
+    @Builtin(name = "utcoffset", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class UtcOffsetNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PTimeDelta utcoffset(PTimeZone self, Object dt) {
+            checkArgument(this, dt, "utcoffset");
+            return self.getOffset();
+        }
+    }
+
+    @Builtin(name = "dst", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class DstNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object dst(@SuppressWarnings("unused") PTimeZone self, Object dt) {
+            checkArgument(this, dt, "dst");
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "tzname", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class TzNameNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        TruffleString tzname(PTimeZone self, Object dt) {
+            checkArgument(this, dt, "tzname");
+            return DateTimeNodes.getTimeZoneName(self);
+        }
+    }
+
+    @Builtin(name = "fromutc", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class FromUtcNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object fromutc(VirtualFrame frame, PTimeZone self, Object dt,
+                        @Cached DateTimeNodes.FromUtcNode fromUtcNode) {
+            if (!(dt instanceof PDateTime)) {
+                throw raise(TypeError, ErrorMessages.FROMUTC_ARGUMENT_MUST_BE_DATETIME);
+            }
+            if (((PDateTime) dt).getTzInfo() != self) {
+                throw raise(ValueError, ErrorMessages.FROMUTC_DT_TZINFO_IS_NOT_SELF);
+            }
+            return fromUtcNode.execute(frame, self, dt);
+        }
+    }
+
+    @Builtin(name = J___GETINITARGS__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class GetInitArgsNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object getInitArgs(PTimeZone self) {
+            if (self.getName() == null) {
+                return factory().createTuple(new Object[]{self.getOffset()});
+            }
+            return factory().createTuple(new Object[]{self.getOffset(), self.getName()});
+        }
+    }
+
+    @Builtin(name = J___STR__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class StrNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static TruffleString str(PTimeZone self) {
+            return DateTimeNodes.getTimeZoneName(self);
+        }
+    }
+
+    @Builtin(name = J___REPR__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReprNode extends PythonUnaryBuiltinNode {
+        private static final TruffleString T_UTC_REPR = tsLiteral("datetime.timezone.utc");
+
+        @Specialization
+        static TruffleString repr(VirtualFrame frame, PTimeZone self,
+                        @Cached DateTimeNodes.GetUtcNode getUtcNode,
+                        @Cached PyObjectReprAsTruffleStringNode reprNode,
+                        @Cached TruffleString.ToJavaStringNode toJavaStringNode,
+                        @Cached TruffleString.FromJavaStringNode fromJavaStringNode) {
+            if (self == getUtcNode.execute()) {
+                return T_UTC_REPR;
+            }
+            String offsetRepr = toJavaStringNode.execute(reprNode.execute(frame, self.getOffset()));
+            String nameRepr = self.getName() == null ? null : toJavaStringNode.execute(reprNode.execute(frame, self.getName()));
+            return fromJavaStringNode.execute(TimeZoneBuiltins.repr(offsetRepr, nameRepr), TS_ENCODING);
+        }
+    }
+
+    @Builtin(name = J___EQ__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class EqNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        static boolean eq(PTimeZone self, PTimeZone other) {
+            return self.getOffset().compareTo(other.getOffset()) == 0;
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        static Object notImplemented(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = J___NE__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class NeNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        static boolean ne(PTimeZone self, PTimeZone other) {
+            return self.getOffset().compareTo(other.getOffset()) != 0;
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        static Object notImplemented(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = J___HASH__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class HashNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static long hash(PTimeZone self) {
+            return self.getOffset().getHash();
+        }
+    }
+}
@@ -0,0 +1,415 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules.decimal;
+
+import static com.oracle.graal.python.builtins.modules.decimal.DecimalNodes.T_CAPITALS;
+import static com.oracle.graal.python.builtins.modules.decimal.DecimalNodes.T_EXP_INFINITE;
+import static com.oracle.graal.python.builtins.modules.decimal.DecimalNodes.T_EXP_NAN;
+import static com.oracle.graal.python.builtins.modules.decimal.DecimalNodes.T_EXP_SNAN;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___ADD__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___BOOL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___EQ__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___FORMAT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___GE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___GT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___HASH__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___LE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___LT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___MUL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___RADD__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___REPR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___RMUL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___RSUB__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___RTRUEDIV__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___STR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___SUB__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___TRUEDIV__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.T___FORMAT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.T___HASH__;
+import static com.oracle.graal.python.util.PythonUtils.TS_ENCODING;
+import static com.oracle.graal.python.util.PythonUtils.tsLiteral;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.modules.decimal.DecimalUtils.ContextParams;
+import com.oracle.graal.python.builtins.modules.decimal.DecimalUtils.Result;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.PNotImplemented;
+import com.oracle.graal.python.lib.PyObjectGetAttr;
+import com.oracle.graal.python.lib.PyObjectIsTrueNode;
+import com.oracle.graal.python.lib.PyObjectStrAsTruffleStringNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonQuaternaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CannotCastException;
+import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.strings.TruffleString;
+
+/**
+ * The methods of {@code Decimal} that are implemented in Java. The remaining methods are the ones
+ * of {@code _pydecimal}, which {@code lib-graalpython/_decimal.py} adds to the {@code Decimal}
+ * subclass of this type.
+ */
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PDecimal)
+public final class DecimalBuiltins extends PythonBuiltins {
+
+    private static final TruffleString T_QUANTIZE = tsLiteral("quantize");
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return DecimalBuiltinsFactory.getFactories();
+    }
+
+    static boolean isOperand(Object obj) {
+        return obj instanceof PDecimal || DecimalNodes.isInteger(obj);
+    }
+
+    static Object noneIfMissing(Object arg) {
+        return arg == PNone.NO_VALUE ? PNone.NONE : arg;
+    }
+
+    @Builtin(name = "_sign", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class SignNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static int sign(PDecimal self) {
+            return self.isNegative() ? 1 : 0;
+        }
+    }
+
+    @Builtin(name = "_int", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class IntNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static TruffleString digits(PDecimal self,
+                        @Cached TruffleString.FromJavaStringNode fromJavaStringNode) {
+            return fromJavaStringNode.execute(self.getDigits(), TS_ENCODING);
+        }
+    }
+
+    @Builtin(name = "_exp", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class ExpNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static Object exp(PDecimal self) {
+            switch (self.getKind()) {
+                case DecimalUtils.KIND_INFINITE:
+                    return T_EXP_INFINITE;
+                case DecimalUtils.KIND_NAN:
+                    return T_EXP_NAN;
+                case DecimalUtils.KIND_SNAN:
+                    return T_EXP_SNAN;
+                default:
+                    return self.getExponent();
+            }
+        }
+    }
+
+    @Builtin(name = "_is_special", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class IsSpecialNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static boolean isSpecial(PDecimal self) {
+            return !self.isFinite();
+        }
+    }
+
+    @Builtin(name = J___RADD__, minNumOfPositionalArgs = 2, parameterNames = {"$self", "other", "context"}, reverseOperation = true)
+    @Builtin(name = J___ADD__, minNumOfPositionalArgs = 2, parameterNames = {"$self", "other", "context"})
+    @GenerateNodeFactory
+    abstract static class AddNode extends PythonTernaryBuiltinNode {
+        @Specialization(guards = {"isOperand(left)", "isOperand(right)"})
+        static Object add(VirtualFrame frame, Object left, Object right, Object context,
+                        @Cached DecimalNodes.ArithmeticNode arithmeticNode) {
+            return arithmeticNode.execute(frame, DecimalNodes.ArithmeticNode.ADD, left, right, context);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        static Object notImplemented(Object left, Object right, Object context) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = J___RSUB__, minNumOfPositionalArgs = 2, parameterNames = {"$self", "other", "context"}, reverseOperation = true)
+    @Builtin(name = J___SUB__, minNumOfPositionalArgs = 2, parameterNames = {"$self", "other", "context"})
+    @GenerateNodeFactory
+    abstract static class SubNode extends PythonTernaryBuiltinNode {
+        @Specialization(guards = {"isOperand(left)", "isOperand(right)"})
+        static Object sub(VirtualFrame frame, Object left, Object right, Object context,
+                        @Cached DecimalNodes.ArithmeticNode arithmeticNode) {
+            return arithmeticNode.execute(frame, DecimalNodes.ArithmeticNode.SUBTRACT, left, right, context);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        static Object notImplemented(Object left, Object right, Object context) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = J___RMUL__, minNumOfPositionalArgs = 2, parameterNames = {"$self", "other", "context"}, reverseOperation = true)
+    @Builtin(name = J___MUL__, minNumOfPositionalArgs = 2, parameterNames = {"$self", "other", "context"})
+    @GenerateNodeFactory
+    abstract static class MulNode extends PythonTernaryBuiltinNode {
+        @Specialization(guards = {"isOperand(left)", "isOperand(right)"})
+        static Object mul(VirtualFrame frame, Object left, Object right, Object context,
+                        @Cached DecimalNodes.ArithmeticNode arithmeticNode) {
+            return arithmeticNode.execute(frame, DecimalNodes.ArithmeticNode.MULTIPLY, left, right, context);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        static Object notImplemented(Object left, Object right, Object context) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = J___RTRUEDIV__, minNumOfPositionalArgs = 2, parameterNames = {"$self", "other", "context"}, reverseOperation = true)
+    @Builtin(name = J___TRUEDIV__, minNumOfPositionalArgs = 2, parameterNames = {"$self", "other", "context"})
+    @GenerateNodeFactory
+    abstract static class TrueDivNode extends PythonTernaryBuiltinNode {
+        @Specialization(guards = {"isOperand(left)", "isOperand(right)"})
+        static Object truediv(VirtualFrame frame, Object left, Object right, Object context,
+                        @Cached DecimalNodes.ArithmeticNode arithmeticNode) {
+            return arithmeticNode.execute(frame, DecimalNodes.ArithmeticNode.DIVIDE, left, right, context);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        static Object notImplemented(Object left, Object right, Object context) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = J___EQ__, minNumOfPositionalArgs = 2, parameterNames = {"$self", "other", "context"})
+    @GenerateNodeFactory
+    abstract static class EqNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        static Object eq(VirtualFrame frame, PDecimal self, Object other, Object context,
+                        @Cached DecimalNodes.CompareNode compareNode) {
+            return compareNode.execute(frame, DecimalNodes.CompareNode.EQ, self, other, context);
+        }
+    }
+
+    @Builtin(name = J___LT__, minNumOfPositionalArgs = 2, parameterNames = {"$self", "other", "context"})
+    @GenerateNodeFactory
+    abstract static class LtNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        static Object lt(VirtualFrame frame, PDecimal self, Object other, Object context,
+                        @Cached DecimalNodes.CompareNode compareNode) {
+            return compareNode.execute(frame, DecimalNodes.CompareNode.LT, self, other, context);
+        }
+    }
+
+    @Builtin(name = J___LE__, minNumOfPositionalArgs = 2, parameterNames = {"$self", "other", "context"})
+    @GenerateNodeFactory
+    abstract static class LeNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        static Object le(VirtualFrame frame, PDecimal self, Object other, Object context,
+                        @Cached DecimalNodes.CompareNode compareNode) {
+            return compareNode.execute(frame, DecimalNodes.CompareNode.LE, self, other, context);
+        }
+    }
+
+    @Builtin(name = J___GT__, minNumOfPositionalArgs = 2, parameterNames = {"$self", "other", "context"})
+    @GenerateNodeFactory
+    abstract static class GtNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        static Object gt(VirtualFrame frame, PDecimal self, Object other, Object context,
+                        @Cached DecimalNodes.CompareNode compareNode) {
+            return compareNode.execute(frame, DecimalNodes.CompareNode.GT, self, other, context);
+        }
+    }
+
+    @Builtin(name = J___GE__, minNumOfPositionalArgs = 2, parameterNames = {"$self", "other", "context"})
+    @GenerateNodeFactory
+    abstract static class GeNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        static Object ge(VirtualFrame frame, PDecimal self, Object other, Object context,
+                        @Cached DecimalNodes.CompareNode compareNode) {
+            return compareNode.execute(frame, DecimalNodes.CompareNode.GE, self, other, context);
+        }
+    }
+
+    @Builtin(name = J___HASH__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class HashNode extends PythonUnaryBuiltinNode {
+        @Specialization(guards = "self.isFinite()")
+        static long hash(PDecimal self) {
+            return DecimalUtils.hash(self.isNegative(), self.getCoefficient(), self.getExponent());
+        }
+
+        @Specialization(guards = "!self.isFinite()")
+        static Object hashSpecial(VirtualFrame frame, PDecimal self,
+                        @Cached DecimalNodes.CallPyDecimalNode callPyDecimalNode) {
+            return callPyDecimalNode.execute(frame, T___HASH__, new Object[]{self});
+        }
+    }
+
+    @Builtin(name = J___BOOL__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class BoolNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static boolean bool(PDecimal self) {
+            return !self.isZero();
+        }
+    }
+
+    // Decimal.__str__(eng=False, context=None)
+    @Builtin(name = J___STR__, minNumOfPositionalArgs = 1, parameterNames = {"$self", "eng", "context"})
+    @GenerateNodeFactory
+    abstract static class StrNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        static TruffleString str(VirtualFrame frame, PDecimal self, Object engArg, Object contextArg,
+                        @Cached PyObjectIsTrueNode isTrueNode,
+                        @Cached DecimalNodes.GetContextNode getContextNode,
+                        @Cached PyObjectGetAttr getAttr,
+                        @Cached TruffleString.FromJavaStringNode fromJavaStringNode) {
+            boolean engineering = engArg != PNone.NO_VALUE && isTrueNode.execute(frame, engArg);
+            String digits = self.getDigits();
+            boolean capitals = false;
+            if (self.isFinite() && DecimalUtils.hasExponent(digits, self.getExponent(), engineering)) {
+                Object context = getContextNode.execute(frame, contextArg);
+                capitals = isTrueNode.execute(frame, getAttr.execute(frame, context, T_CAPITALS));
+            }
+            String result = DecimalUtils.toString(self.isNegative(), self.getKind(), digits, self.getExponent(), engineering, capitals);
+            return fromJavaStringNode.execute(result, TS_ENCODING);
+        }
+    }
+
+    @Builtin(name = J___REPR__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReprNode extends PythonUnaryBuiltinNode {
+        private static final TruffleString T_DECIMAL_OPEN = tsLiteral("Decimal('");
+        private static final TruffleString T_DECIMAL_CLOSE = tsLiteral("')");
+
+        @Specialization
+        static TruffleString repr(VirtualFrame frame, PDecimal self,
+                        @Cached PyObjectStrAsTruffleStringNode strNode,
+                        @Cached TruffleString.ConcatNode concatNode) {
+            TruffleString str = strNode.execute(frame, self);
+            return concatNode.execute(concatNode.execute(T_DECIMAL_OPEN, str, TS_ENCODING, false), T_DECIMAL_CLOSE, TS_ENCODING, false);
+        }
+    }
+
+    // Decimal.__format__(specifier, context=None, _localeconv=None)
+    @Builtin(name = J___FORMAT__, minNumOfPositionalArgs = 2, parameterNames = {"$self", "specifier", "context", "_localeconv"})
+    @GenerateNodeFactory
+    abstract static class FormatNode extends PythonQuaternaryBuiltinNode {
+        @Specialization
+        static Object format(VirtualFrame frame, PDecimal self, Object specifier, Object contextArg, Object localeConv,
+                        @Cached CastToJavaStringNode castToJavaStringNode,
+                        @Cached DecimalNodes.GetContextNode getContextNode,
+                        @Cached DecimalNodes.GetContextParamsNode getContextParamsNode,
+                        @Cached DecimalNodes.CallPyDecimalNode callPyDecimalNode,
+                        @Cached TruffleString.FromJavaStringNode fromJavaStringNode) {
+            Object context = contextArg;
+            if (self.isFinite() && (localeConv == PNone.NO_VALUE || localeConv == PNone.NONE)) {
+                String spec;
+                try {
+                    spec = castToJavaStringNode.execute(specifier);
+                } catch (CannotCastException e) {
+                    spec = null;
+                }
+                if (spec != null) {
+                    context = getContextNode.execute(frame, contextArg);
+                    ContextParams ctx = getContextParamsNode.execute(frame, context);
+                    if (ctx != null) {
+                        String result = DecimalUtils.format(self.isNegative(), self.getCoefficient(), self.getExponent(), spec, ctx);
+                        if (result != null) {
+                            return fromJavaStringNode.execute(result, TS_ENCODING);
+                        }
+                    }
+                }
+            }
+            return callPyDecimalNode.execute(frame, T___FORMAT__, new Object[]{self, specifier, noneIfMissing(context), noneIfMissing(localeConv)});
+        }
+    }
+
+    // Decimal.quantize(exp, rounding=None, context=None)
+    @Builtin(name = "quantize", minNumOfPositionalArgs = 2, parameterNames = {"$self", "exp", "rounding", "context"})
+    @GenerateNodeFactory
+    abstract static class QuantizeNode extends PythonQuaternaryBuiltinNode {
+        @Specialization
+        static Object quantize(VirtualFrame frame, PDecimal self, Object exp, Object roundingArg, Object contextArg,
+                        @Cached CastToJavaStringNode castToJavaStringNode,
+                        @Cached DecimalNodes.GetContextNode getContextNode,
+                        @Cached DecimalNodes.GetContextParamsNode getContextParamsNode,
+                        @Cached DecimalNodes.FinishResultNode finishResultNode,
+                        @Cached DecimalNodes.CallPyDecimalNode callPyDecimalNode) {
+            Object context = contextArg;
+            Result target = DecimalNodes.finiteOperand(exp);
+            if (self.isFinite() && target != null) {
+                context = getContextNode.execute(frame, contextArg);
+                ContextParams ctx = getContextParamsNode.execute(frame, context);
+                if (ctx != null) {
+                    int rounding = ctx.rounding;
+                    if (roundingArg != PNone.NO_VALUE && roundingArg != PNone.NONE) {
+                        try {
+                            rounding = DecimalNodes.roundingIndex(castToJavaStringNode.execute(roundingArg));
+                        } catch (CannotCastException e) {
+                            rounding = -1;
+                        }
+                    }
+                    if (rounding >= 0) {
+                        Result result = DecimalUtils.quantize(self.isNegative(), self.getCoefficient(), self.getExponent(), target.exponent, rounding, ctx);
+                        if (result != null) {
+                            return finishResultNode.execute(frame, context, result);
+                        }
+                    }
+                }
+            }
+            return callPyDecimalNode.execute(frame, T_QUANTIZE, new Object[]{self, exp, noneIfMissing(roundingArg), noneIfMissing(context)});
+        }
+    }
+}
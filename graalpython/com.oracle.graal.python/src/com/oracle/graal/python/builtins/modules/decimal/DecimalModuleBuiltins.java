@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules.decimal;
+
+import static com.oracle.graal.python.builtins.modules.decimal.DecimalNodes.T_CONVERSION_SYNTAX;
+import static com.oracle.graal.python.builtins.modules.decimal.DecimalNodes.T_DECIMAL;
+import static com.oracle.graal.python.builtins.modules.decimal.DecimalNodes.T__DECIMAL;
+import static com.oracle.graal.python.builtins.modules.decimal.DecimalNodes.T__EXP;
+import static com.oracle.graal.python.builtins.modules.decimal.DecimalNodes.T__INT;
+import static com.oracle.graal.python.builtins.modules.decimal.DecimalNodes.T__PYDECIMAL;
+import static com.oracle.graal.python.builtins.modules.decimal.DecimalNodes.T__RAISE_ERROR;
+import static com.oracle.graal.python.builtins.modules.decimal.DecimalNodes.T__SIGN;
+import static com.oracle.graal.python.util.PythonUtils.TS_ENCODING;
+import static com.oracle.graal.python.util.PythonUtils.tsLiteral;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.Python3Core;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.modules.decimal.DecimalUtils.Result;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.lib.PyObjectCallMethodObjArgs;
+import com.oracle.graal.python.lib.PyObjectGetAttr;
+import com.oracle.graal.python.lib.PyObjectReprAsTruffleStringNode;
+import com.oracle.graal.python.lib.PyUnicodeCheckNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonQuaternaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.strings.TruffleString;
+
+/**
+ * The {@code _decimal} module. Only the base type of {@code Decimal} and its hot methods are
+ * implemented in Java, the rest of the module is the code of {@code _pydecimal}, which
+ * {@code lib-graalpython/_decimal.py} runs in the module when it is first imported.
+ */
+@CoreFunctions(defineModule = "_decimal")
+public final class DecimalModuleBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return DecimalModuleBuiltinsFactory.getFactories();
+    }
+
+    @Override
+    public void postInitialize(Python3Core core) {
+        super.postInitialize(core);
+        core.loadBuiltinModuleFile(T__DECIMAL);
+    }
+
+    // _decimal._DecimalBase(value="0", context=None)
+    @Builtin(name = "_DecimalBase", minNumOfPositionalArgs = 1, constructsClass = PythonBuiltinClassType.PDecimal, parameterNames = {"$cls", "value", "context"})
+    @GenerateNodeFactory
+    abstract static class DecimalNode extends PythonTernaryBuiltinNode {
+        private static final TruffleString T_INVALID_LITERAL = tsLiteral("Invalid literal for Decimal: ");
+
+        @Specialization
+        Object decimal(VirtualFrame frame, Object cls, Object value, Object contextArg,
+                        @Cached PyUnicodeCheckNode unicodeCheckNode,
+                        @Cached CastToJavaStringNode castToJavaStringNode,
+                        @Cached DecimalNodes.GetContextNode getContextNode,
+                        @Cached DecimalNodes.ReadModuleAttributeNode readNode,
+                        @Cached PyObjectReprAsTruffleStringNode reprNode,
+                        @Cached TruffleString.ConcatNode concatNode,
+                        @Cached PyObjectCallMethodObjArgs callMethod,
+                        @Cached CallNode callNode,
+                        @Cached PyObjectGetAttr getAttr,
+                        @Cached DecimalNodes.FromTripleNode fromTripleNode) {
+            if (value == PNone.NO_VALUE) {
+                return factory().createDecimal(cls, DecimalUtils.KIND_FINITE, false, BigInteger.ZERO, 0, "0");
+            }
+            if (value instanceof PDecimal) {
+                PDecimal dec = (PDecimal) value;
+                return factory().createDecimal(cls, dec.getKind(), dec.isNegative(), dec.getCoefficient(), dec.getExponent(), dec.getDigits());
+            }
+            if (DecimalNodes.isInteger(value)) {
+                Result result = DecimalNodes.fromInteger(value);
+                return factory().createDecimal(cls, DecimalUtils.KIND_FINITE, result.negative, result.coefficient, 0, null);
+            }
+            if (unicodeCheckNode.execute(value)) {
+                Result result = DecimalUtils.parse(castToJavaStringNode.execute(value));
+                if (result == null) {
+                    Object context = getContextNode.execute(frame, contextArg);
+                    TruffleString explanation = concatNode.execute(T_INVALID_LITERAL, reprNode.execute(frame, value), TS_ENCODING, false);
+                    return callMethod.execute(frame, context, T__RAISE_ERROR, readNode.execute(T_CONVERSION_SYNTAX), explanation);
+                }
+                return factory().createDecimal(cls, result.kind, result.negative, result.coefficient, result.exponent, null);
+            }
+            // floats, tuples and the error for other types are left to the Python implementation
+            Object converted = callNode.execute(frame, readNode.execute(T__PYDECIMAL), value, contextArg == PNone.NO_VALUE ? PNone.NONE : contextArg);
+            return fromTripleNode.execute(frame, cls, getAttr.execute(frame, converted, T__SIGN), getAttr.execute(frame, converted, T__INT), getAttr.execute(frame, converted, T__EXP));
+        }
+    }
+
+    // _decimal._dec_from_triple(sign, coefficient, exponent, special=False)
+    @Builtin(name = "_dec_from_triple", minNumOfPositionalArgs = 3, parameterNames = {"sign", "coefficient", "exponent", "special"})
+    @GenerateNodeFactory
+    abstract static class DecFromTripleNode extends PythonQuaternaryBuiltinNode {
+        @Specialization
+        static Object fromTriple(VirtualFrame frame, Object sign, Object coefficient, Object exponent, @SuppressWarnings("unused") Object special,
+                        @Cached DecimalNodes.ReadModuleAttributeNode readNode,
+                        @Cached DecimalNodes.FromTripleNode fromTripleNode) {
+            return fromTripleNode.execute(frame, readNode.execute(T_DECIMAL), sign, coefficient, exponent);
+        }
+    }
+}
@@ -0,0 +1,454 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules.decimal;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.T___ADD__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.T___EQ__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.T___GE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.T___GT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.T___LE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.T___LT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.T___MUL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.T___SUB__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.T___TRUEDIV__;
+import static com.oracle.graal.python.util.PythonUtils.tsLiteral;
+
+import java.math.BigInteger;
+
+import com.oracle.graal.python.builtins.modules.decimal.DecimalUtils.ContextParams;
+import com.oracle.graal.python.builtins.modules.decimal.DecimalUtils.Result;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.lib.PyLongAsLongNode;
+import com.oracle.graal.python.lib.PyObjectCallMethodObjArgs;
+import com.oracle.graal.python.lib.PyObjectGetAttr;
+import com.oracle.graal.python.lib.PyObjectIsTrueNode;
+import com.oracle.graal.python.lib.PyUnicodeCheckNode;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.attributes.ReadAttributeFromObjectNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.util.CannotCastException;
+import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.strings.TruffleString;
+
+/**
+ * Nodes shared by the builtins of the {@code _decimal} module. The module is completed by
+ * {@code lib-graalpython/_decimal.py}, which runs {@code _pydecimal} in the module namespace, so
+ * the context, the signals and the operations that are not implemented in Java are the ones of
+ * {@code _pydecimal}.
+ */
+public final class DecimalNodes {
+
+    static final TruffleString T__DECIMAL = tsLiteral("_decimal");
+    static final TruffleString T_DECIMAL = tsLiteral("Decimal");
+    static final TruffleString T__PYDECIMAL = tsLiteral("_PyDecimal");
+    static final TruffleString T_GETCONTEXT = tsLiteral("getcontext");
+    static final TruffleString T_CONVERSION_SYNTAX = tsLiteral("ConversionSyntax");
+    static final TruffleString T__RAISE_ERROR = tsLiteral("_raise_error");
+    static final TruffleString T__FIX = tsLiteral("_fix");
+    static final TruffleString T__SIGN = tsLiteral("_sign");
+    static final TruffleString T__INT = tsLiteral("_int");
+    static final TruffleString T__EXP = tsLiteral("_exp");
+    static final TruffleString T_CAPITALS = tsLiteral("capitals");
+    static final TruffleString T_EXP_INFINITE = tsLiteral("F");
+    static final TruffleString T_EXP_NAN = tsLiteral("n");
+    static final TruffleString T_EXP_SNAN = tsLiteral("N");
+
+    private static final TruffleString T_PREC = tsLiteral("prec");
+    private static final TruffleString T_ROUNDING = tsLiteral("rounding");
+    private static final TruffleString T_EMIN = tsLiteral("Emin");
+    private static final TruffleString T_EMAX = tsLiteral("Emax");
+    private static final TruffleString T_CLAMP = tsLiteral("clamp");
+
+    /**
+     * The names of the signals in the order of their bits in {@link DecimalUtils}, which is the
+     * order in which {@code _pydecimal} raises them.
+     */
+    private static final TruffleString[] SIGNAL_NAMES = {tsLiteral("Underflow"), tsLiteral("Subnormal"), tsLiteral("Inexact"), tsLiteral("Rounded"), tsLiteral("Clamped")};
+
+    private DecimalNodes() {
+    }
+
+    /**
+     * Whether {@code obj} is an {@code int}, which the arithmetic converts exactly.
+     */
+    static boolean isInteger(Object obj) {
+        return obj instanceof Integer || obj instanceof Long || obj instanceof Boolean || obj instanceof PInt;
+    }
+
+    /**
+     * Converts an {@code int} to a finite decimal with exponent {@code 0}.
+     */
+    @TruffleBoundary
+    static Result fromInteger(Object obj) {
+        BigInteger value;
+        if (obj instanceof Integer) {
+            value = BigInteger.valueOf((Integer) obj);
+        } else if (obj instanceof Long) {
+            value = BigInteger.valueOf((Long) obj);
+        } else if (obj instanceof Boolean) {
+            value = (Boolean) obj ? BigInteger.ONE : BigInteger.ZERO;
+        } else {
+            value = ((PInt) obj).getValue();
+        }
+        return DecimalUtils.finite(value.signum() < 0, value.abs(), 0, 0);
+    }
+
+    /**
+     * Returns the finite value of a {@link PDecimal} or an {@code int} operand, or {@code null} if
+     * the operand is an infinity, a NaN or of another type.
+     */
+    static Result finiteOperand(Object obj) {
+        if (obj instanceof PDecimal) {
+            PDecimal dec = (PDecimal) obj;
+            return dec.isFinite() ? DecimalUtils.finite(dec.isNegative(), dec.getCoefficient(), dec.getExponent(), 0) : null;
+        }
+        return isInteger(obj) ? fromInteger(obj) : null;
+    }
+
+    @TruffleBoundary
+    static int roundingIndex(String name) {
+        for (int i = 0; i < DecimalUtils.ROUNDING_NAMES.length; i++) {
+            if (DecimalUtils.ROUNDING_NAMES[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reads an attribute of the {@code _decimal} module, such as the {@code Decimal} class or a
+     * signal.
+     */
+    public abstract static class ReadModuleAttributeNode extends PNodeWithContext {
+
+        public abstract Object execute(TruffleString name);
+
+        @Specialization
+        Object read(TruffleString name,
+                        @Cached ReadAttributeFromObjectNode readNode) {
+            return readNode.execute(getContext().lookupBuiltinModule(T__DECIMAL), name);
+        }
+    }
+
+    /**
+     * Returns the {@code context} argument, or the current context if it is {@code None} or
+     * missing.
+     */
+    public abstract static class GetContextNode extends PNodeWithContext {
+
+        public abstract Object execute(VirtualFrame frame, Object context);
+
+        @Specialization
+        static Object get(VirtualFrame frame, Object context,
+                        @Cached ReadModuleAttributeNode readNode,
+                        @Cached CallNode callNode) {
+            if (context == PNone.NONE || context == PNone.NO_VALUE) {
+                return callNode.execute(frame, readNode.execute(T_GETCONTEXT));
+            }
+            return context;
+        }
+    }
+
+    /**
+     * Reads the attributes of a context that the arithmetic depends on. Returns {@code null} if
+     * the rounding mode is unknown or the precision is too large for the Java implementation, in
+     * which case the operation is left to {@code _pydecimal}.
+     */
+    public abstract static class GetContextParamsNode extends PNodeWithContext {
+
+        public abstract ContextParams execute(VirtualFrame frame, Object context);
+
+        @Specialization
+        static ContextParams get(VirtualFrame frame, Object context,
+                        @Cached PyObjectGetAttr getAttr,
+                        @Cached PyLongAsLongNode asLongNode,
+                        @Cached PyObjectIsTrueNode isTrueNode,
+                        @Cached CastToJavaStringNode castToJavaStringNode) {
+            long prec = asLongNode.execute(frame, getAttr.execute(frame, context, T_PREC));
+            if (prec <= 0 || prec > DecimalUtils.MAX_PRECISION) {
+                return null;
+            }
+            int rounding;
+            try {
+                rounding = roundingIndex(castToJavaStringNode.execute(getAttr.execute(frame, context, T_ROUNDING)));
+            } catch (CannotCastException e) {
+                return null;
+            }
+            if (rounding < 0) {
+                return null;
+            }
+            long emin = asLongNode.execute(frame, getAttr.execute(frame, context, T_EMIN));
+            long emax = asLongNode.execute(frame, getAttr.execute(frame, context, T_EMAX));
+            boolean clamp = isTrueNode.execute(frame, getAttr.execute(frame, context, T_CLAMP));
+            boolean capitals = isTrueNode.execute(frame, getAttr.execute(frame, context, T_CAPITALS));
+            return new ContextParams(prec, rounding, emin, emax, clamp, capitals);
+        }
+    }
+
+    /**
+     * Signals the conditions of a result through {@code Context._raise_error}, which sets the
+     * flags and raises the trapped ones.
+     */
+    public abstract static class RaiseSignalsNode extends PNodeWithContext {
+
+        public abstract void execute(VirtualFrame frame, Object context, int signals);
+
+        @Specialization(guards = "signals == 0")
+        @SuppressWarnings("unused")
+        static void none(VirtualFrame frame, Object context, int signals) {
+        }
+
+        @Specialization(guards = "signals != 0")
+        static void raiseSignals(VirtualFrame frame, Object context, int signals,
+                        @Cached ReadModuleAttributeNode readNode,
+                        @Cached PyObjectCallMethodObjArgs callMethod) {
+            for (int i = 0; i < DecimalUtils.SIGNAL_COUNT; i++) {
+                if ((signals & (1 << i)) != 0) {
+                    callMethod.execute(frame, context, T__RAISE_ERROR, readNode.execute(SIGNAL_NAMES[i]));
+                }
+            }
+        }
+    }
+
+    /**
+     * Calls a method of the {@code _pydecimal} implementation of {@code Decimal}, for the operands
+     * that the Java code does not handle.
+     */
+    public abstract static class CallPyDecimalNode extends PNodeWithContext {
+
+        public abstract Object execute(VirtualFrame frame, TruffleString name, Object[] args);
+
+        @Specialization
+        static Object call(VirtualFrame frame, TruffleString name, Object[] args,
+                        @Cached ReadModuleAttributeNode readNode,
+                        @Cached PyObjectGetAttr getAttr,
+                        @Cached CallNode callNode) {
+            return callNode.execute(frame, getAttr.execute(frame, readNode.execute(T__PYDECIMAL), name), args);
+        }
+    }
+
+    /**
+     * Creates the {@code Decimal} for the result of an operation and signals its conditions. A
+     * result that overflows is passed to {@code _fix}, which handles the overflow depending on
+     * the context.
+     */
+    public abstract static class FinishResultNode extends PNodeWithContext {
+
+        public abstract Object execute(VirtualFrame frame, Object context, Result result);
+
+        @Specialization
+        static Object finish(VirtualFrame frame, Object context, Result result,
+                        @Cached ReadModuleAttributeNode readNode,
+                        @Cached RaiseSignalsNode raiseSignalsNode,
+                        @Cached CallPyDecimalNode callPyDecimalNode,
+                        @Cached PythonObjectFactory factory) {
+            Object cls = readNode.execute(T_DECIMAL);
+            if (result.overflow) {
+                PDecimal unrounded = factory.createDecimal(cls, DecimalUtils.KIND_FINITE, result.negative, result.coefficient, result.exponent, null);
+                return callPyDecimalNode.execute(frame, T__FIX, new Object[]{unrounded, context});
+            }
+            raiseSignalsNode.execute(frame, context, result.signals);
+            return factory.createDecimal(cls, result.kind, result.negative, result.coefficient, result.exponent, null);
+        }
+    }
+
+    /**
+     * Creates a decimal of class {@code cls} from the {@code _sign}, {@code _int} and
+     * {@code _exp} attributes of the Python implementation, like {@code _dec_from_triple}.
+     */
+    public abstract static class FromTripleNode extends PNodeWithContext {
+
+        public abstract PDecimal execute(VirtualFrame frame, Object cls, Object sign, Object coefficient, Object exponent);
+
+        @Specialization
+        static PDecimal create(VirtualFrame frame, Object cls, Object sign, Object coefficient, Object exponent,
+                        @Cached PyObjectIsTrueNode isTrueNode,
+                        @Cached CastToJavaStringNode castToJavaStringNode,
+                        @Cached PyUnicodeCheckNode unicodeCheckNode,
+                        @Cached PyLongAsLongNode asLongNode,
+                        @Cached PythonObjectFactory factory) {
+            boolean negative = isTrueNode.execute(frame, sign);
+            String digits = castToJavaStringNode.execute(coefficient);
+            if (unicodeCheckNode.execute(exponent)) {
+                int kind = specialKind(castToJavaStringNode.execute(exponent));
+                return factory.createDecimal(cls, kind, negative, kind == DecimalUtils.KIND_INFINITE ? BigInteger.ZERO : parseDigits(digits), 0, digits);
+            }
+            return factory.createDecimal(cls, DecimalUtils.KIND_FINITE, negative, parseDigits(digits), asLongNode.execute(frame, exponent), digits);
+        }
+
+        @TruffleBoundary
+        private static int specialKind(String exponent) {
+            switch (exponent) {
+                case "n":
+                    return DecimalUtils.KIND_NAN;
+                case "N":
+                    return DecimalUtils.KIND_SNAN;
+                default:
+                    return DecimalUtils.KIND_INFINITE;
+            }
+        }
+
+        @TruffleBoundary
+        private static BigInteger parseDigits(String digits) {
+            return digits.isEmpty() ? BigInteger.ZERO : new BigInteger(digits);
+        }
+    }
+
+    /**
+     * Converts a {@link PDecimal} or an {@code int} operand to a {@link PDecimal}, so that it can
+     * be passed to the methods of {@code _pydecimal}.
+     */
+    public abstract static class ToDecimalNode extends PNodeWithContext {
+
+        public abstract PDecimal execute(Object obj);
+
+        @Specialization
+        static PDecimal doDecimal(PDecimal obj) {
+            return obj;
+        }
+
+        @Specialization(guards = "!isPDecimal(obj)")
+        static PDecimal doInteger(Object obj,
+                        @Cached ReadModuleAttributeNode readNode,
+                        @Cached PythonObjectFactory factory) {
+            Result value = fromInteger(obj);
+            return factory.createDecimal(readNode.execute(T_DECIMAL), DecimalUtils.KIND_FINITE, value.negative, value.coefficient, 0, null);
+        }
+
+        static boolean isPDecimal(Object obj) {
+            return obj instanceof PDecimal;
+        }
+    }
+
+    /**
+     * The arithmetic operators for operands that are {@link PDecimal} or {@code int}. Finite
+     * operands are computed in Java, everything else, like infinities, NaNs and division by zero,
+     * is left to {@code _pydecimal}.
+     */
+    public abstract static class ArithmeticNode extends PNodeWithContext {
+
+        static final int ADD = 0;
+        static final int SUBTRACT = 1;
+        static final int MULTIPLY = 2;
+        static final int DIVIDE = 3;
+
+        private static final TruffleString[] PY_NAMES = {T___ADD__, T___SUB__, T___MUL__, T___TRUEDIV__};
+
+        public abstract Object execute(VirtualFrame frame, int op, Object left, Object right, Object context);
+
+        @Specialization
+        static Object compute(VirtualFrame frame, int op, Object left, Object right, Object contextArg,
+                        @Cached GetContextNode getContextNode,
+                        @Cached GetContextParamsNode getContextParamsNode,
+                        @Cached FinishResultNode finishResultNode,
+                        @Cached ToDecimalNode toDecimalNode,
+                        @Cached CallPyDecimalNode callPyDecimalNode) {
+            Object context = getContextNode.execute(frame, contextArg);
+            Result a = finiteOperand(left);
+            Result b = finiteOperand(right);
+            if (a != null && b != null && (op != DIVIDE || b.coefficient.signum() != 0)) {
+                ContextParams ctx = getContextParamsNode.execute(frame, context);
+                if (ctx != null) {
+                    return finishResultNode.execute(frame, context, computeFinite(op, a, b, ctx));
+                }
+            }
+            return callPyDecimalNode.execute(frame, PY_NAMES[op], new Object[]{toDecimalNode.execute(left), toDecimalNode.execute(right), context});
+        }
+
+        private static Result computeFinite(int op, Result a, Result b, ContextParams ctx) {
+            switch (op) {
+                case ADD:
+                    return DecimalUtils.add(a.negative, a.coefficient, a.exponent, b.negative, b.coefficient, b.exponent, ctx);
+                case SUBTRACT:
+                    return DecimalUtils.add(a.negative, a.coefficient, a.exponent, !b.negative, b.coefficient, b.exponent, ctx);
+                case MULTIPLY:
+                    return DecimalUtils.multiply(a.negative, a.coefficient, a.exponent, b.negative, b.coefficient, b.exponent, ctx);
+                default:
+                    return DecimalUtils.divide(a.negative, a.coefficient, a.exponent, b.negative, b.coefficient, b.exponent, ctx);
+            }
+        }
+    }
+
+    /**
+     * The rich comparisons. Finite decimals and {@code int}s are compared in Java, other operands,
+     * which includes floats, fractions and NaNs, are left to {@code _pydecimal}.
+     */
+    public abstract static class CompareNode extends PNodeWithContext {
+
+        static final int EQ = 0;
+        static final int LT = 1;
+        static final int LE = 2;
+        static final int GT = 3;
+        static final int GE = 4;
+
+        private static final TruffleString[] PY_NAMES = {T___EQ__, T___LT__, T___LE__, T___GT__, T___GE__};
+
+        public abstract Object execute(VirtualFrame frame, int op, PDecimal self, Object other, Object context);
+
+        @Specialization
+        static Object compare(VirtualFrame frame, int op, PDecimal self, Object other, Object context,
+                        @Cached CallPyDecimalNode callPyDecimalNode) {
+            Result b = finiteOperand(other);
+            if (self.isFinite() && b != null) {
+                int c = DecimalUtils.compare(self.isNegative(), self.getCoefficient(), self.getExponent(), b.negative, b.coefficient, b.exponent);
+                switch (op) {
+                    case EQ:
+                        return c == 0;
+                    case LT:
+                        return c < 0;
+                    case LE:
+                        return c <= 0;
+                    case GT:
+                        return c > 0;
+                    default:
+                        return c >= 0;
+                }
+            }
+            return callPyDecimalNode.execute(frame, PY_NAMES[op], new Object[]{self, other, context == PNone.NO_VALUE ? PNone.NONE : context});
+        }
+    }
+}
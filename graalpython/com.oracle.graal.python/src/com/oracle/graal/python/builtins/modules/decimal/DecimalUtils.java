@@ -0,0 +1,953 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules.decimal;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import com.oracle.graal.python.builtins.modules.SysModuleBuiltins;
+import com.oracle.graal.python.builtins.objects.str.StringUtils;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Arithmetic, conversion and formatting of finite decimals for the {@code _decimal} module. The
+ * algorithms are ports of the corresponding methods of {@code _pydecimal.Decimal}, so results,
+ * exponents and signals are exactly the ones of the pure Python implementation. Values are passed
+ * around as a sign, a non-negative coefficient and a {@code long} exponent, because the exponent
+ * range of a decimal context does not fit into the {@code int} scale of {@link BigDecimal}.
+ */
+final class DecimalUtils {
+
+    static final int KIND_FINITE = 0;
+    static final int KIND_INFINITE = 1;
+    static final int KIND_NAN = 2;
+    static final int KIND_SNAN = 3;
+
+    /*
+     * Rounding modes, in the order of _pydecimal._rounding_modes.
+     */
+    static final int ROUND_DOWN = 0;
+    static final int ROUND_HALF_UP = 1;
+    static final int ROUND_HALF_EVEN = 2;
+    static final int ROUND_CEILING = 3;
+    static final int ROUND_FLOOR = 4;
+    static final int ROUND_UP = 5;
+    static final int ROUND_HALF_DOWN = 6;
+    static final int ROUND_05UP = 7;
+    static final String[] ROUNDING_NAMES = {"ROUND_DOWN", "ROUND_HALF_UP", "ROUND_HALF_EVEN", "ROUND_CEILING", "ROUND_FLOOR", "ROUND_UP", "ROUND_HALF_DOWN", "ROUND_05UP"};
+
+    /*
+     * Conditions set by an operation. The bits are ordered the same way as the calls to
+     * Context._raise_error in _pydecimal, so that a trap reports the same condition.
+     */
+    static final int SIGNAL_UNDERFLOW = 1;
+    static final int SIGNAL_SUBNORMAL = 1 << 1;
+    static final int SIGNAL_INEXACT = 1 << 2;
+    static final int SIGNAL_ROUNDED = 1 << 3;
+    static final int SIGNAL_CLAMPED = 1 << 4;
+    static final int SIGNAL_COUNT = 5;
+
+    /**
+     * Literals with a larger exponent are rejected like CPython's {@code _decimal} does, which
+     * keeps all exponents of unrounded values comfortably within a {@code long}.
+     */
+    static final long MAX_LITERAL_EXPONENT = 1_000_000_000_000_000_000L;
+
+    /**
+     * Contexts with a larger precision are left to {@code _pydecimal}, which can represent the
+     * powers of ten involved.
+     */
+    static final long MAX_PRECISION = Integer.MAX_VALUE / 4;
+
+    private static final double LOG10_2 = 0.30102999566398120;
+    private static final BigInteger FIVE = BigInteger.valueOf(5);
+    private static final BigInteger HASH_MODULUS = BigInteger.valueOf(SysModuleBuiltins.HASH_MODULUS);
+    private static final BigInteger HASH_10INV = BigInteger.TEN.modPow(HASH_MODULUS.subtract(BigInteger.TWO), HASH_MODULUS);
+
+    private static final long[] LONG_POW10 = new long[19];
+    private static final BigInteger[] POW10 = new BigInteger[128];
+
+    static {
+        LONG_POW10[0] = 1;
+        for (int i = 1; i < LONG_POW10.length; i++) {
+            LONG_POW10[i] = LONG_POW10[i - 1] * 10;
+        }
+        POW10[0] = BigInteger.ONE;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1].multiply(BigInteger.TEN);
+        }
+    }
+
+    private DecimalUtils() {
+    }
+
+    /**
+     * The attributes of a {@code decimal.Context} that the arithmetic depends on.
+     */
+    static final class ContextParams {
+        final long prec;
+        final int rounding;
+        final long emin;
+        final long emax;
+        final boolean clamp;
+        final boolean capitals;
+
+        ContextParams(long prec, int rounding, long emin, long emax, boolean clamp, boolean capitals) {
+            this.prec = prec;
+            this.rounding = rounding;
+            this.emin = emin;
+            this.emax = emax;
+            this.clamp = clamp;
+            this.capitals = capitals;
+        }
+
+        long etiny() {
+            return emin - prec + 1;
+        }
+
+        long etop() {
+            return emax - prec + 1;
+        }
+    }
+
+    /**
+     * The outcome of an operation: a decimal and the conditions it signals. If {@code overflow} is
+     * set, the value is the unrounded result, which has to be passed to {@code _fix} for the
+     * context-specific overflow handling.
+     */
+    static final class Result {
+        final int kind;
+        final boolean negative;
+        final BigInteger coefficient;
+        final long exponent;
+        final int signals;
+        final boolean overflow;
+
+        Result(int kind, boolean negative, BigInteger coefficient, long exponent, int signals, boolean overflow) {
+            this.kind = kind;
+            this.negative = negative;
+            this.coefficient = coefficient;
+            this.exponent = exponent;
+            this.signals = signals;
+            this.overflow = overflow;
+        }
+    }
+
+    static Result finite(boolean negative, BigInteger coefficient, long exponent, int signals) {
+        return new Result(KIND_FINITE, negative, coefficient, exponent, signals, false);
+    }
+
+    private static Result overflow(boolean negative, BigInteger coefficient, long exponent) {
+        return new Result(KIND_FINITE, negative, coefficient, exponent, 0, true);
+    }
+
+    static BigInteger pow10(long n) {
+        if (n < POW10.length) {
+            return POW10[(int) n];
+        }
+        return BigInteger.TEN.pow(Math.toIntExact(n));
+    }
+
+    static BigInteger multiplyPow10(BigInteger coefficient, long n) {
+        if (n == 0 || coefficient.signum() == 0) {
+            return coefficient;
+        }
+        return coefficient.multiply(pow10(n));
+    }
+
+    /**
+     * The number of decimal digits of a non-negative value, counting zero as one digit.
+     */
+    static int numDigits(BigInteger coefficient) {
+        int bits = coefficient.bitLength();
+        if (bits < 63) {
+            return numDigits(coefficient.longValue());
+        }
+        int digits = (int) ((bits - 1) * LOG10_2);
+        while (coefficient.compareTo(pow10(digits)) >= 0) {
+            digits++;
+        }
+        return digits;
+    }
+
+    static int numDigits(long value) {
+        int digits = 1;
+        while (digits < LONG_POW10.length && value >= LONG_POW10[digits]) {
+            digits++;
+        }
+        return digits;
+    }
+
+    static long adjusted(BigInteger coefficient, long exponent) {
+        return numDigits(coefficient) + exponent - 1;
+    }
+
+    /**
+     * A coefficient rounded to fewer digits and whether any non-zero digits were dropped.
+     */
+    private static final class Rounding {
+        final BigInteger coefficient;
+        final boolean inexact;
+
+        Rounding(BigInteger coefficient, boolean inexact) {
+            this.coefficient = coefficient;
+            this.inexact = inexact;
+        }
+    }
+
+    /**
+     * Whether a quotient with a non-zero remainder has to be incremented, which is the
+     * {@code changed > 0} case of the {@code _round_*} methods.
+     */
+    private static boolean roundsAway(int rounding, boolean negative, BigInteger quotient, BigInteger remainder, BigInteger divisor) {
+        switch (rounding) {
+            case ROUND_DOWN:
+                return false;
+            case ROUND_UP:
+                return true;
+            case ROUND_CEILING:
+                return !negative;
+            case ROUND_FLOOR:
+                return negative;
+            case ROUND_05UP:
+                return quotient.mod(FIVE).signum() == 0;
+            default:
+                int cmp = remainder.shiftLeft(1).compareTo(divisor);
+                if (rounding == ROUND_HALF_UP) {
+                    return cmp >= 0;
+                } else if (rounding == ROUND_HALF_DOWN) {
+                    return cmp > 0;
+                } else {
+                    assert rounding == ROUND_HALF_EVEN;
+                    return cmp > 0 || cmp == 0 && quotient.testBit(0);
+                }
+        }
+    }
+
+    /**
+     * Rounds a non-zero coefficient with a smaller exponent to {@code targetExponent}. If all
+     * digits are dropped, the coefficient is replaced by a single one below the target exponent
+     * first, which rounds the same way.
+     */
+    private static Rounding roundToExponent(boolean negative, BigInteger coefficient, int length, long exponent, long targetExponent, int rounding) {
+        assert exponent < targetExponent;
+        BigInteger value = coefficient;
+        long drop = targetExponent - exponent;
+        if (drop > length) {
+            value = BigInteger.ONE;
+            drop = 1;
+        }
+        BigInteger divisor = pow10(drop);
+        BigInteger[] qr = value.divideAndRemainder(divisor);
+        if (qr[1].signum() == 0) {
+            return new Rounding(qr[0], false);
+        }
+        BigInteger quotient = qr[0];
+        if (roundsAway(rounding, negative, quotient, qr[1], divisor)) {
+            quotient = quotient.add(BigInteger.ONE);
+        }
+        return new Rounding(quotient, true);
+    }
+
+    /**
+     * Port of {@code Decimal._fix}: rounds a finite value to the precision of the context and
+     * fixes its exponent.
+     */
+    @TruffleBoundary
+    static Result fix(boolean negative, BigInteger coefficient, long exponent, ContextParams ctx) {
+        long etiny = ctx.etiny();
+        long etop = ctx.etop();
+        if (coefficient.signum() == 0) {
+            long expMax = ctx.clamp ? etop : ctx.emax;
+            long newExponent = Math.min(Math.max(exponent, etiny), expMax);
+            return finite(negative, coefficient, newExponent, newExponent != exponent ? SIGNAL_CLAMPED : 0);
+        }
+        int length = numDigits(coefficient);
+        long expMin = length + exponent - ctx.prec;
+        if (expMin > etop) {
+            return overflow(negative, coefficient, exponent);
+        }
+        boolean subnormal = expMin < etiny;
+        if (subnormal) {
+            expMin = etiny;
+        }
+        if (exponent < expMin) {
+            Rounding rounded = roundToExponent(negative, coefficient, length, exponent, expMin, ctx.rounding);
+            BigInteger result = rounded.coefficient;
+            if (numDigits(result) > ctx.prec) {
+                result = result.divide(BigInteger.TEN);
+                expMin++;
+            }
+            if (expMin > etop) {
+                return overflow(negative, coefficient, exponent);
+            }
+            int signals = SIGNAL_ROUNDED;
+            if (rounded.inexact) {
+                signals |= subnormal ? SIGNAL_UNDERFLOW | SIGNAL_INEXACT : SIGNAL_INEXACT;
+            }
+            if (subnormal) {
+                signals |= SIGNAL_SUBNORMAL;
+            }
+            if (result.signum() == 0) {
+                signals |= SIGNAL_CLAMPED;
+            }
+            return finite(negative, result, expMin, signals);
+        }
+        int signals = subnormal ? SIGNAL_SUBNORMAL : 0;
+        if (ctx.clamp && exponent > etop) {
+            return finite(negative, multiplyPow10(coefficient, exponent - etop), etop, signals | SIGNAL_CLAMPED);
+        }
+        return finite(negative, coefficient, exponent, signals);
+    }
+
+    /**
+     * Port of {@code Decimal._rescale} for finite values: quietly rounds or pads the coefficient
+     * to the given exponent.
+     */
+    @TruffleBoundary
+    static Result rescale(boolean negative, BigInteger coefficient, long exponent, long targetExponent, int rounding) {
+        if (coefficient.signum() == 0) {
+            return finite(negative, coefficient, targetExponent, 0);
+        }
+        if (exponent >= targetExponent) {
+            return finite(negative, multiplyPow10(coefficient, exponent - targetExponent), targetExponent, 0);
+        }
+        Rounding rounded = roundToExponent(negative, coefficient, numDigits(coefficient), exponent, targetExponent, rounding);
+        return finite(negative, rounded.coefficient, targetExponent, rounded.inexact ? SIGNAL_INEXACT | SIGNAL_ROUNDED : SIGNAL_ROUNDED);
+    }
+
+    /**
+     * Port of {@code Decimal._round}: quietly rounds to the given number of significant digits.
+     */
+    static Result round(boolean negative, BigInteger coefficient, long exponent, int places, int rounding) {
+        assert places > 0;
+        if (coefficient.signum() == 0) {
+            return finite(negative, coefficient, exponent, 0);
+        }
+        long adjusted = adjusted(coefficient, exponent);
+        Result result = rescale(negative, coefficient, exponent, adjusted + 1 - places, rounding);
+        long resultAdjusted = adjusted(result.coefficient, result.exponent);
+        if (resultAdjusted != adjusted) {
+            result = rescale(negative, result.coefficient, result.exponent, resultAdjusted + 1 - places, rounding);
+        }
+        return result;
+    }
+
+    /**
+     * Port of {@code Decimal.__add__} for finite operands.
+     */
+    @TruffleBoundary
+    static Result add(boolean aNegative, BigInteger a, long aExponent, boolean bNegative, BigInteger b, long bExponent, ContextParams ctx) {
+        long exponent = Math.min(aExponent, bExponent);
+        boolean negativeZero = ctx.rounding == ROUND_FLOOR && aNegative != bNegative;
+        if (a.signum() == 0 && b.signum() == 0) {
+            return fix(aNegative && bNegative || negativeZero, BigInteger.ZERO, exponent, ctx);
+        }
+        if (a.signum() == 0) {
+            long e = Math.max(exponent, bExponent - ctx.prec - 1);
+            return fix(bNegative, multiplyPow10(b, bExponent - e), e, ctx);
+        }
+        if (b.signum() == 0) {
+            long e = Math.max(exponent, aExponent - ctx.prec - 1);
+            return fix(aNegative, multiplyPow10(a, aExponent - e), e, ctx);
+        }
+        /*
+         * _normalize: align the operands to the smaller exponent, but replace an operand that is
+         * too small to affect the rounded result by a single digit just below the other one.
+         */
+        boolean swapped = aExponent < bExponent;
+        BigInteger big = swapped ? b : a;
+        long bigExponent = swapped ? bExponent : aExponent;
+        BigInteger small = swapped ? a : b;
+        long smallExponent = swapped ? aExponent : bExponent;
+        long e = bigExponent + Math.min(-1, numDigits(big) - ctx.prec - 2);
+        if (numDigits(small) + smallExponent - 1 < e) {
+            small = BigInteger.ONE;
+            smallExponent = e;
+        }
+        big = multiplyPow10(big, bigExponent - smallExponent);
+        BigInteger op1 = swapped ? small : big;
+        BigInteger op2 = swapped ? big : small;
+        if (aNegative != bNegative) {
+            int cmp = op1.compareTo(op2);
+            if (cmp == 0) {
+                return fix(negativeZero, BigInteger.ZERO, exponent, ctx);
+            }
+            if (cmp > 0) {
+                return fix(aNegative, op1.subtract(op2), smallExponent, ctx);
+            } else {
+                return fix(bNegative, op2.subtract(op1), smallExponent, ctx);
+            }
+        }
+        return fix(aNegative, op1.add(op2), smallExponent, ctx);
+    }
+
+    /**
+     * Port of {@code Decimal.__mul__} for finite operands.
+     */
+    @TruffleBoundary
+    static Result multiply(boolean aNegative, BigInteger a, long aExponent, boolean bNegative, BigInteger b, long bExponent, ContextParams ctx) {
+        boolean negative = aNegative != bNegative;
+        long exponent = aExponent + bExponent;
+        if (a.signum() == 0 || b.signum() == 0) {
+            return fix(negative, BigInteger.ZERO, exponent, ctx);
+        }
+        return fix(negative, a.multiply(b), exponent, ctx);
+    }
+
+    /**
+     * Port of {@code Decimal.__truediv__} for finite operands and a non-zero divisor. The quotient
+     * is computed to one more digit than the precision, with a sticky last digit if it is not
+     * exact, so that {@link #fix} rounds it correctly.
+     */
+    @TruffleBoundary
+    static Result divide(boolean aNegative, BigInteger a, long aExponent, boolean bNegative, BigInteger b, long bExponent, ContextParams ctx) {
+        assert b.signum() != 0;
+        boolean negative = aNegative != bNegative;
+        BigInteger coefficient;
+        long exponent;
+        if (a.signum() == 0) {
+            coefficient = BigInteger.ZERO;
+            exponent = aExponent - bExponent;
+        } else {
+            long shift = numDigits(b) - numDigits(a) + ctx.prec + 1;
+            exponent = aExponent - bExponent - shift;
+            BigInteger[] qr;
+            if (shift >= 0) {
+                qr = multiplyPow10(a, shift).divideAndRemainder(b);
+            } else {
+                qr = a.divideAndRemainder(multiplyPow10(b, -shift));
+            }
+            coefficient = qr[0];
+            if (qr[1].signum() != 0) {
+                if (coefficient.mod(FIVE).signum() == 0) {
+                    coefficient = coefficient.add(BigInteger.ONE);
+                }
+            } else {
+                long idealExponent = aExponent - bExponent;
+                while (exponent < idealExponent) {
+                    BigInteger[] dr = coefficient.divideAndRemainder(BigInteger.TEN);
+                    if (dr[1].signum() != 0) {
+                        break;
+                    }
+                    coefficient = dr[0];
+                    exponent++;
+                }
+            }
+        }
+        return fix(negative, coefficient, exponent, ctx);
+    }
+
+    /**
+     * Port of {@code Decimal.quantize} for finite operands. Returns {@code null} for the cases in
+     * which {@code _pydecimal} signals {@code InvalidOperation}.
+     */
+    @TruffleBoundary
+    static Result quantize(boolean negative, BigInteger coefficient, long exponent, long targetExponent, int rounding, ContextParams ctx) {
+        if (targetExponent < ctx.etiny() || targetExponent > ctx.emax) {
+            return null;
+        }
+        if (coefficient.signum() == 0) {
+            return fix(negative, BigInteger.ZERO, targetExponent, ctx);
+        }
+        long adjusted = adjusted(coefficient, exponent);
+        if (adjusted > ctx.emax || adjusted - targetExponent + 1 > ctx.prec) {
+            return null;
+        }
+        Result rescaled = rescale(negative, coefficient, exponent, targetExponent, rounding);
+        int length = numDigits(rescaled.coefficient);
+        long rescaledAdjusted = length + targetExponent - 1;
+        if (rescaledAdjusted > ctx.emax || length > ctx.prec) {
+            return null;
+        }
+        int signals = rescaled.signals;
+        if (rescaled.coefficient.signum() != 0 && rescaledAdjusted < ctx.emin) {
+            signals |= SIGNAL_SUBNORMAL;
+        }
+        Result result = fix(negative, rescaled.coefficient, targetExponent, ctx);
+        if (result.overflow) {
+            return result;
+        }
+        return finite(result.negative, result.coefficient, result.exponent, result.signals | signals);
+    }
+
+    /**
+     * Port of {@code Decimal._cmp} for finite operands.
+     */
+    @TruffleBoundary
+    static int compare(boolean aNegative, BigInteger a, long aExponent, boolean bNegative, BigInteger b, long bExponent) {
+        if (a.signum() == 0) {
+            return b.signum() == 0 ? 0 : bNegative ? 1 : -1;
+        }
+        if (b.signum() == 0) {
+            return aNegative ? -1 : 1;
+        }
+        if (aNegative != bNegative) {
+            return aNegative ? -1 : 1;
+        }
+        long aAdjusted = adjusted(a, aExponent);
+        long bAdjusted = adjusted(b, bExponent);
+        int cmp;
+        if (aAdjusted == bAdjusted) {
+            long exponent = Math.min(aExponent, bExponent);
+            cmp = multiplyPow10(a, aExponent - exponent).compareTo(multiplyPow10(b, bExponent - exponent));
+        } else {
+            cmp = aAdjusted > bAdjusted ? 1 : -1;
+        }
+        return aNegative ? -cmp : cmp;
+    }
+
+    /**
+     * Port of {@code Decimal.__hash__} for finite values, which hashes equal to the int, float or
+     * fraction of the same value.
+     */
+    @TruffleBoundary
+    static long hash(boolean negative, BigInteger coefficient, long exponent) {
+        BigInteger exponentHash;
+        if (exponent >= 0) {
+            exponentHash = BigInteger.TEN.modPow(BigInteger.valueOf(exponent), HASH_MODULUS);
+        } else {
+            exponentHash = HASH_10INV.modPow(BigInteger.valueOf(-exponent), HASH_MODULUS);
+        }
+        long hash = coefficient.multiply(exponentHash).mod(HASH_MODULUS).longValue();
+        if (negative) {
+            hash = -hash;
+        }
+        return hash == -1 ? -2 : hash;
+    }
+
+    /**
+     * Parses a numeric string the way the {@code _parser} regular expression of
+     * {@code _pydecimal} does, after stripping white space and removing underscores. Returns
+     * {@code null} if the string is not a valid literal.
+     */
+    @TruffleBoundary
+    static Result parse(String value) {
+        int start = 0;
+        int end = value.length();
+        while (start < end && StringUtils.isSpace(value.codePointAt(start))) {
+            start += Character.charCount(value.codePointAt(start));
+        }
+        while (end > start && StringUtils.isSpace(value.codePointBefore(end))) {
+            end -= Character.charCount(value.codePointBefore(end));
+        }
+        int[] cps = value.substring(start, end).codePoints().filter(c -> c != '_').toArray();
+        int i = 0;
+        boolean negative = false;
+        if (i < cps.length && (cps[i] == '+' || cps[i] == '-')) {
+            negative = cps[i] == '-';
+            i++;
+        }
+        if (matchesIgnoreCase(cps, i, "inf") && (cps.length - i == 3 || cps.length - i == 8 && matchesIgnoreCase(cps, i + 3, "inity"))) {
+            return new Result(KIND_INFINITE, negative, BigInteger.ZERO, 0, 0, false);
+        }
+        int kind = KIND_NAN;
+        if (i < cps.length && (cps[i] == 's' || cps[i] == 'S')) {
+            kind = KIND_SNAN;
+            i++;
+        }
+        if (matchesIgnoreCase(cps, i, "nan")) {
+            StringBuilder payload = new StringBuilder();
+            for (i += 3; i < cps.length; i++) {
+                if (!Character.isDigit(cps[i])) {
+                    return null;
+                }
+                payload.append((char) ('0' + Character.digit(cps[i], 10)));
+            }
+            BigInteger coefficient = payload.length() == 0 ? BigInteger.ZERO : new BigInteger(payload.toString());
+            return new Result(kind, negative, coefficient, 0, 0, false);
+        } else if (kind == KIND_SNAN) {
+            return null;
+        }
+        StringBuilder digits = new StringBuilder();
+        while (i < cps.length && Character.isDigit(cps[i])) {
+            digits.append((char) ('0' + Character.digit(cps[i++], 10)));
+        }
+        int fractionDigits = 0;
+        if (i < cps.length && cps[i] == '.') {
+            i++;
+            while (i < cps.length && Character.isDigit(cps[i])) {
+                digits.append((char) ('0' + Character.digit(cps[i++], 10)));
+                fractionDigits++;
+            }
+        }
+        if (digits.length() == 0) {
+            return null;
+        }
+        long exponent = 0;
+        if (i < cps.length && (cps[i] == 'e' || cps[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < cps.length && (cps[i] == '+' || cps[i] == '-')) {
+                negativeExponent = cps[i] == '-';
+                i++;
+            }
+            if (i == cps.length) {
+                return null;
+            }
+            while (i < cps.length && Character.isDigit(cps[i])) {
+                if (exponent > MAX_LITERAL_EXPONENT / 10) {
+                    return null;
+                }
+                exponent = exponent * 10 + Character.digit(cps[i++], 10);
+            }
+            if (negativeExponent) {
+                exponent = -exponent;
+            }
+        }
+        if (i != cps.length) {
+            return null;
+        }
+        return finite(negative, new BigInteger(digits.toString()), exponent - fractionDigits, 0);
+    }
+
+    private static boolean matchesIgnoreCase(int[] cps, int start, String lowerCase) {
+        if (cps.length - start < lowerCase.length()) {
+            return false;
+        }
+        for (int i = 0; i < lowerCase.length(); i++) {
+            int c = cps[start + i];
+            if (c != lowerCase.charAt(i) && c != Character.toUpperCase(lowerCase.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The exact value of a finite float, like {@code Decimal.from_float}.
+     */
+    @TruffleBoundary
+    static Result fromDouble(double value) {
+        assert Double.isFinite(value);
+        BigDecimal exact = new BigDecimal(value);
+        boolean negative = Double.doubleToRawLongBits(value) < 0;
+        return finite(negative, exact.unscaledValue().abs(), -exact.scale(), 0);
+    }
+
+    /**
+     * Port of {@code Decimal.__str__}. The digits are the coefficient, or the payload of a NaN.
+     */
+    @TruffleBoundary
+    static String toString(boolean negative, int kind, String digits, long exponent, boolean engineering, boolean capitals) {
+        String sign = negative ? "-" : "";
+        switch (kind) {
+            case KIND_INFINITE:
+                return sign + "Infinity";
+            case KIND_NAN:
+                return sign + "NaN" + digits;
+            case KIND_SNAN:
+                return sign + "sNaN" + digits;
+        }
+        long leftDigits = exponent + digits.length();
+        long dotPlace = dotPlace(digits, exponent, engineering);
+        StringBuilder sb = new StringBuilder(sign);
+        if (dotPlace <= 0) {
+            sb.append("0.");
+            appendZeros(sb, -dotPlace);
+            sb.append(digits);
+        } else if (dotPlace >= digits.length()) {
+            sb.append(digits);
+            appendZeros(sb, dotPlace - digits.length());
+        } else {
+            sb.append(digits, 0, (int) dotPlace).append('.').append(digits, (int) dotPlace, digits.length());
+        }
+        if (leftDigits != dotPlace) {
+            long e = leftDigits - dotPlace;
+            sb.append(capitals ? 'E' : 'e').append(e < 0 ? '-' : '+').append(Math.abs(e));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Whether {@link #toString} of a finite value needs an exponent, which is the only case in
+     * which it depends on the context.
+     */
+    static boolean hasExponent(String digits, long exponent, boolean engineering) {
+        return exponent + digits.length() != dotPlace(digits, exponent, engineering);
+    }
+
+    private static long dotPlace(String digits, long exponent, boolean engineering) {
+        long leftDigits = exponent + digits.length();
+        if (exponent <= 0 && leftDigits > -6) {
+            return leftDigits;
+        } else if (!engineering) {
+            return 1;
+        } else if (digits.equals("0")) {
+            return Math.floorMod(leftDigits + 1, 3) - 1;
+        } else {
+            return Math.floorMod(leftDigits - 1, 3) + 1;
+        }
+    }
+
+    private static void appendZeros(StringBuilder sb, long count) {
+        for (long i = 0; i < count; i++) {
+            sb.append('0');
+        }
+    }
+
+    /**
+     * Format specifiers with a larger width or precision, and values with a larger exponent, are
+     * left to {@code _pydecimal}.
+     */
+    private static final int MAX_FORMAT_DIGITS = 100_000;
+
+    /**
+     * A standard format specifier {@code [[fill]align][sign][#][0][minimumwidth][,][.precision][type]}
+     * as parsed by {@code _parse_format_specifier}.
+     */
+    private static final class FormatSpec {
+        String fill = " ";
+        char align = '>';
+        char sign = '-';
+        boolean alternate;
+        boolean zeroPad;
+        int minimumWidth;
+        boolean thousands;
+        int precision = -1;
+        char type;
+    }
+
+    private static boolean isAlign(char c) {
+        return c == '<' || c == '>' || c == '=' || c == '^';
+    }
+
+    /**
+     * Parses the format specifiers handled by {@link #format}. Returns {@code null} for invalid
+     * specifiers and for the locale dependent type {@code 'n'}.
+     */
+    private static FormatSpec parseFormatSpec(String specifier) {
+        FormatSpec spec = new FormatSpec();
+        int n = specifier.length();
+        int i = 0;
+        boolean explicitAlign = false;
+        if (n > 0) {
+            int fillLength = Character.charCount(specifier.codePointAt(0));
+            if (fillLength < n && isAlign(specifier.charAt(fillLength))) {
+                spec.fill = specifier.substring(0, fillLength);
+                spec.align = specifier.charAt(fillLength);
+                i = fillLength + 1;
+                explicitAlign = true;
+            } else if (isAlign(specifier.charAt(0))) {
+                spec.align = specifier.charAt(0);
+                i = 1;
+                explicitAlign = true;
+            }
+        }
+        if (i < n && (specifier.charAt(i) == '+' || specifier.charAt(i) == '-' || specifier.charAt(i) == ' ')) {
+            spec.sign = specifier.charAt(i++);
+        }
+        if (i < n && specifier.charAt(i) == '#') {
+            spec.alternate = true;
+            i++;
+        }
+        if (i < n && specifier.charAt(i) == '0') {
+            spec.zeroPad = true;
+            i++;
+        }
+        if (i < n && specifier.charAt(i) >= '1' && specifier.charAt(i) <= '9') {
+            while (i < n && specifier.charAt(i) >= '0' && specifier.charAt(i) <= '9') {
+                spec.minimumWidth = spec.minimumWidth * 10 + (specifier.charAt(i++) - '0');
+                if (spec.minimumWidth > MAX_FORMAT_DIGITS) {
+                    return null;
+                }
+            }
+        }
+        if (i < n && specifier.charAt(i) == ',') {
+            spec.thousands = true;
+            i++;
+        }
+        if (i < n && specifier.charAt(i) == '.') {
+            i++;
+            if (i < n && specifier.charAt(i) == '0') {
+                spec.precision = 0;
+                i++;
+            } else if (i < n && specifier.charAt(i) >= '1' && specifier.charAt(i) <= '9') {
+                spec.precision = 0;
+                while (i < n && specifier.charAt(i) >= '0' && specifier.charAt(i) <= '9') {
+                    spec.precision = spec.precision * 10 + (specifier.charAt(i++) - '0');
+                    if (spec.precision > MAX_FORMAT_DIGITS) {
+                        return null;
+                    }
+                }
+            } else {
+                return null;
+            }
+        }
+        if (i < n && "eEfFgG%".indexOf(specifier.charAt(i)) >= 0) {
+            spec.type = specifier.charAt(i++);
+        }
+        if (i != n || spec.zeroPad && explicitAlign) {
+            return null;
+        }
+        if (spec.precision == 0 && (spec.type == 0 || spec.type == 'g' || spec.type == 'G')) {
+            spec.precision = 1;
+        }
+        return spec;
+    }
+
+    /**
+     * Port of {@code Decimal.__format__} for finite values. Returns {@code null} if the specifier
+     * is invalid or not handled here, in which case {@code _pydecimal} has to format the value.
+     */
+    @TruffleBoundary
+    static String format(boolean negative, BigInteger coefficient, long exponent, String specifier, ContextParams ctx) {
+        FormatSpec spec = parseFormatSpec(specifier);
+        if (spec == null || Math.abs(exponent) > MAX_FORMAT_DIGITS) {
+            return null;
+        }
+        char type = spec.type != 0 ? spec.type : ctx.capitals ? 'G' : 'g';
+        boolean scientific = type == 'e' || type == 'E';
+        boolean fixedPoint = type == 'f' || type == 'F' || type == '%';
+        BigInteger c = coefficient;
+        long e = type == '%' ? exponent + 2 : exponent;
+        int precision = spec.precision;
+        if (precision >= 0) {
+            Result rounded = null;
+            if (scientific) {
+                rounded = round(negative, c, e, precision + 1, ctx.rounding);
+            } else if (fixedPoint) {
+                rounded = rescale(negative, c, e, -precision, ctx.rounding);
+            } else if (numDigits(c) > precision) {
+                rounded = round(negative, c, e, precision, ctx.rounding);
+            }
+            if (rounded != null) {
+                c = rounded.coefficient;
+                e = rounded.exponent;
+            }
+        }
+        if (c.signum() == 0 && e > 0 && fixedPoint) {
+            e = 0;
+        }
+        String digits = c.toString();
+        long leftDigits = e + digits.length();
+        long dotPlace;
+        if (scientific) {
+            dotPlace = c.signum() == 0 && precision >= 0 ? 1 - precision : 1;
+        } else if (fixedPoint || e <= 0 && leftDigits > -6) {
+            dotPlace = leftDigits;
+        } else {
+            dotPlace = 1;
+        }
+        StringBuilder intPart = new StringBuilder();
+        StringBuilder fracPart = new StringBuilder();
+        if (dotPlace < 0) {
+            intPart.append('0');
+            appendZeros(fracPart, -dotPlace);
+            fracPart.append(digits);
+        } else if (dotPlace > digits.length()) {
+            intPart.append(digits);
+            appendZeros(intPart, dotPlace - digits.length());
+        } else {
+            intPart.append(dotPlace == 0 ? "0" : digits.substring(0, (int) dotPlace));
+            fracPart.append(digits, (int) dotPlace, digits.length());
+        }
+        return formatNumber(negative, intPart.toString(), fracPart, leftDigits - dotPlace, spec, type);
+    }
+
+    /**
+     * Port of {@code _format_number}: adds separators, sign, exponent and padding.
+     */
+    private static String formatNumber(boolean negative, String intPart, StringBuilder fracPart, long exponent, FormatSpec spec, char type) {
+        String sign = negative ? "-" : spec.sign == '+' || spec.sign == ' ' ? String.valueOf(spec.sign) : "";
+        if (fracPart.length() > 0 || spec.alternate) {
+            fracPart.insert(0, '.');
+        }
+        if (exponent != 0 || type == 'e' || type == 'E') {
+            fracPart.append(type == 'E' || type == 'G' ? 'E' : 'e').append(exponent < 0 ? '-' : '+').append(Math.abs(exponent));
+        }
+        if (type == '%') {
+            fracPart.append('%');
+        }
+        int minWidth = spec.zeroPad ? spec.minimumWidth - fracPart.length() - sign.length() : 0;
+        String body = insertThousandsSeparator(intPart, spec.thousands ? "," : "", minWidth) + fracPart;
+        return formatAlign(sign, body, spec);
+    }
+
+    /**
+     * Port of {@code _insert_thousands_sep} for groups of three digits, including the zero
+     * padding to {@code minWidth}.
+     */
+    private static String insertThousandsSeparator(String digits, String separator, int minWidth) {
+        StringBuilder sb = new StringBuilder();
+        String rest = digits;
+        int width = minWidth;
+        while (true) {
+            int l = Math.min(Math.max(Math.max(rest.length(), width), 1), 3);
+            StringBuilder group = new StringBuilder();
+            appendZeros(group, l - rest.length());
+            group.append(rest, Math.max(rest.length() - l, 0), rest.length());
+            sb.insert(0, group);
+            rest = rest.substring(0, Math.max(rest.length() - l, 0));
+            width -= l;
+            if (rest.isEmpty() && width <= 0) {
+                return sb.toString();
+            }
+            width -= separator.length();
+            sb.insert(0, separator);
+        }
+    }
+
+    /**
+     * Port of {@code _format_align}.
+     */
+    private static String formatAlign(String sign, String body, FormatSpec spec) {
+        StringBuilder padding = new StringBuilder();
+        for (int i = sign.length() + body.length(); i < spec.minimumWidth; i++) {
+            padding.append(spec.fill);
+        }
+        switch (spec.align) {
+            case '<':
+                return sign + body + padding;
+            case '=':
+                return sign + padding + body;
+            case '^':
+                int half = (spec.minimumWidth - sign.length() - body.length()) / 2;
+                if (half <= 0) {
+                    return sign + body + padding;
+                }
+                int split = padding.offsetByCodePoints(0, half);
+                return padding.substring(0, split) + sign + body + padding.substring(split);
+            default:
+                return padding + sign + body;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules.decimal;
+
+import java.math.BigInteger;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.object.Shape;
+
+/**
+ * A {@code decimal.Decimal}. Finite values are a sign, a coefficient and an exponent, infinities
+ * and NaNs are marked by their kind and a NaN keeps its diagnostic payload in the coefficient.
+ * The Python code of {@code _pydecimal} sees the value through the {@code _sign}, {@code _int},
+ * {@code _exp} and {@code _is_special} attributes.
+ */
+public final class PDecimal extends PythonBuiltinObject {
+
+    private final int kind;
+    private final boolean negative;
+    private final BigInteger coefficient;
+    private final long exponent;
+    private String digits;
+
+    /**
+     * @param digits the decimal digits of the coefficient, if they are at hand, or {@code null}
+     */
+    public PDecimal(Object cls, Shape instanceShape, int kind, boolean negative, BigInteger coefficient, long exponent, String digits) {
+        super(cls, instanceShape);
+        this.kind = kind;
+        this.negative = negative;
+        this.coefficient = coefficient;
+        this.exponent = exponent;
+        this.digits = digits;
+    }
+
+    public int getKind() {
+        return kind;
+    }
+
+    public boolean isNegative() {
+        return negative;
+    }
+
+    public BigInteger getCoefficient() {
+        return coefficient;
+    }
+
+    /**
+     * The exponent of a finite value, {@code 0} otherwise.
+     */
+    public long getExponent() {
+        return exponent;
+    }
+
+    public boolean isFinite() {
+        return kind == DecimalUtils.KIND_FINITE;
+    }
+
+    public boolean isZero() {
+        return kind == DecimalUtils.KIND_FINITE && coefficient.signum() == 0;
+    }
+
+    /**
+     * The {@code _int} attribute: the coefficient, {@code "0"} for infinities and the payload of a
+     * NaN, which is empty if there is none.
+     */
+    @TruffleBoundary
+    public String getDigits() {
+        if (digits == null) {
+            if (kind == DecimalUtils.KIND_INFINITE) {
+                digits = "0";
+            } else if (kind != DecimalUtils.KIND_FINITE && coefficient.signum() == 0) {
+                digits = "";
+            } else {
+                digits = coefficient.toString();
+            }
+        }
+        return digits;
+    }
+}
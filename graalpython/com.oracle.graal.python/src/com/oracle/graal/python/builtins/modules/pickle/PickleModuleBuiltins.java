@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules.pickle;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.TypeError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError;
+import static com.oracle.graal.python.builtins.modules.io.IONodes.T_READ;
+import static com.oracle.graal.python.builtins.modules.io.IONodes.T_READLINE;
+import static com.oracle.graal.python.builtins.modules.io.IONodes.T_WRITE;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.HIGHEST_PROTOCOL;
+
+import java.util.List;
+
+import com.oracle.graal.python.annotations.ArgumentClinic;
+import com.oracle.graal.python.annotations.ArgumentClinic.ClinicConversion;
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.buffer.PythonBufferAccessLibrary;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.lib.PyMemoryViewFromObject;
+import com.oracle.graal.python.lib.PyObjectGetIter;
+import com.oracle.graal.python.lib.PyObjectLookupAttr;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.PNodeWithRaise;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonClinicBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonVarargsBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.clinic.ArgumentClinicProvider;
+import com.oracle.graal.python.runtime.ExecutionContext.IndirectCallContext;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.strings.TruffleString;
+
+@CoreFunctions(defineModule = "_pickle")
+public final class PickleModuleBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return PickleModuleBuiltinsFactory.getFactories();
+    }
+
+    /**
+     * Validates the {@code protocol} argument; negative values select the highest protocol.
+     */
+    static int checkProtocol(PNodeWithRaise node, int protocol) {
+        if (protocol < 0) {
+            return HIGHEST_PROTOCOL;
+        } else if (protocol > HIGHEST_PROTOCOL) {
+            throw node.raise(ValueError, ErrorMessages.PICKLE_PROTOCOL_MUST_BE_LE, HIGHEST_PROTOCOL);
+        }
+        return protocol;
+    }
+
+    /**
+     * Validates the {@code buffer_callback} argument and returns it or {@code null} if none was
+     * given.
+     */
+    static Object checkBufferCallback(PNodeWithRaise node, Object bufferCallback, int protocol) {
+        if (bufferCallback == PNone.NONE || bufferCallback == PNone.NO_VALUE) {
+            return null;
+        }
+        if (protocol < 5) {
+            throw node.raise(ValueError, ErrorMessages.BUFFER_CALLBACK_NEEDS_PROTOCOL_5);
+        }
+        return bufferCallback;
+    }
+
+    /**
+     * Returns an iterator over the out-of-band {@code buffers} or {@code null} for {@code None}.
+     * The default is an empty tuple.
+     */
+    static Object getBuffersIterator(VirtualFrame frame, Object buffers, PyObjectGetIter getIter, PythonObjectFactory factory) {
+        if (buffers == PNone.NONE) {
+            return null;
+        }
+        return getIter.execute(frame, buffers == PNone.NO_VALUE ? factory.createEmptyTuple() : buffers);
+    }
+
+    // _pickle.Pickler
+    @Builtin(name = "Pickler", minNumOfPositionalArgs = 1, constructsClass = PythonBuiltinClassType.Pickler, takesVarArgs = true, takesVarKeywordArgs = true)
+    @GenerateNodeFactory
+    abstract static class PicklerNode extends PythonVarargsBuiltinNode {
+
+        @Override
+        public Object varArgExecute(VirtualFrame frame, Object self, Object[] arguments, PKeyword[] keywords) throws VarargsBuiltinDirectInvocationNotSupported {
+            if (arguments.length >= 1) {
+                return doGeneric(arguments[0], null, null);
+            }
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            throw VarargsBuiltinDirectInvocationNotSupported.INSTANCE;
+        }
+
+        @Specialization
+        @TruffleBoundary
+        @SuppressWarnings("unused")
+        PPickler doGeneric(Object cls, Object[] args, PKeyword[] kwargs) {
+            return factory().createPickler(cls);
+        }
+    }
+
+    // _pickle.Unpickler
+    @Builtin(name = "Unpickler", minNumOfPositionalArgs = 1, constructsClass = PythonBuiltinClassType.Unpickler, takesVarArgs = true, takesVarKeywordArgs = true)
+    @GenerateNodeFactory
+    abstract static class UnpicklerNode extends PythonVarargsBuiltinNode {
+
+        @Override
+        public Object varArgExecute(VirtualFrame frame, Object self, Object[] arguments, PKeyword[] keywords) throws VarargsBuiltinDirectInvocationNotSupported {
+            if (arguments.length >= 1) {
+                return doGeneric(arguments[0], null, null);
+            }
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            throw VarargsBuiltinDirectInvocationNotSupported.INSTANCE;
+        }
+
+        @Specialization
+        @TruffleBoundary
+        @SuppressWarnings("unused")
+        PUnpickler doGeneric(Object cls, Object[] args, PKeyword[] kwargs) {
+            return factory().createUnpickler(cls);
+        }
+    }
+
+    // _pickle.PickleBuffer
+    @Builtin(name = "PickleBuffer", constructsClass = PythonBuiltinClassType.PickleBuffer, minNumOfPositionalArgs = 2, parameterNames = {"$cls", "buffer"})
+    @GenerateNodeFactory
+    abstract static class PickleBufferNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        PPickleBuffer doGeneric(VirtualFrame frame, Object cls, Object buffer,
+                        @Cached PyMemoryViewFromObject memoryViewNode) {
+            return factory().createPickleBuffer(cls, memoryViewNode.execute(frame, buffer));
+        }
+    }
+
+    @Builtin(name = "dump", minNumOfPositionalArgs = 2, parameterNames = {"obj", "file", "protocol"}, keywordOnlyNames = {"fix_imports", "buffer_callback"})
+    @ArgumentClinic(name = "protocol", conversion = ClinicConversion.Int, defaultValue = "PickleUtils.DEFAULT_PROTOCOL", useDefaultForNone = true)
+    @ArgumentClinic(name = "fix_imports", conversion = ClinicConversion.Boolean, defaultValue = "true")
+    @GenerateNodeFactory
+    abstract static class DumpNode extends PythonClinicBuiltinNode {
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return PickleModuleBuiltinsClinicProviders.DumpNodeClinicProviderGen.INSTANCE;
+        }
+
+        @Specialization
+        Object dump(VirtualFrame frame, Object obj, Object file, int protocol, boolean fixImports, Object bufferCallback,
+                        @Cached PyObjectLookupAttr lookupWrite) {
+            int proto = checkProtocol(this, protocol);
+            Object write = lookupWrite.execute(frame, file, T_WRITE);
+            if (write == PNone.NO_VALUE) {
+                throw raise(TypeError, ErrorMessages.FILE_MUST_HAVE_WRITE_ATTR);
+            }
+            Object callback = checkBufferCallback(this, bufferCallback, proto);
+            Object savedState = IndirectCallContext.enter(frame, this);
+            try {
+                PickleWriter.dump(obj, write, proto, fixImports, callback);
+            } finally {
+                IndirectCallContext.exit(frame, this, savedState);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "dumps", minNumOfPositionalArgs = 1, parameterNames = {"obj", "protocol"}, keywordOnlyNames = {"fix_imports", "buffer_callback"})
+    @ArgumentClinic(name = "protocol", conversion = ClinicConversion.Int, defaultValue = "PickleUtils.DEFAULT_PROTOCOL", useDefaultForNone = true)
+    @ArgumentClinic(name = "fix_imports", conversion = ClinicConversion.Boolean, defaultValue = "true")
+    @GenerateNodeFactory
+    abstract static class DumpsNode extends PythonClinicBuiltinNode {
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return PickleModuleBuiltinsClinicProviders.DumpsNodeClinicProviderGen.INSTANCE;
+        }
+
+        @Specialization
+        Object dumps(VirtualFrame frame, Object obj, int protocol, boolean fixImports, Object bufferCallback) {
+            int proto = checkProtocol(this, protocol);
+            Object callback = checkBufferCallback(this, bufferCallback, proto);
+            Object savedState = IndirectCallContext.enter(frame, this);
+            try {
+                return PickleWriter.dumps(obj, proto, fixImports, callback, factory());
+            } finally {
+                IndirectCallContext.exit(frame, this, savedState);
+            }
+        }
+    }
+
+    @Builtin(name = "load", minNumOfPositionalArgs = 1, parameterNames = {"file"}, keywordOnlyNames = {"fix_imports", "encoding", "errors", "buffers"})
+    @ArgumentClinic(name = "fix_imports", conversion = ClinicConversion.Boolean, defaultValue = "true")
+    @ArgumentClinic(name = "encoding", conversion = ClinicConversion.TString, defaultValue = "T_ASCII_UPPERCASE")
+    @ArgumentClinic(name = "errors", conversion = ClinicConversion.TString, defaultValue = "T_STRICT")
+    @GenerateNodeFactory
+    abstract static class LoadNode extends PythonClinicBuiltinNode {
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return PickleModuleBuiltinsClinicProviders.LoadNodeClinicProviderGen.INSTANCE;
+        }
+
+        @Specialization
+        Object load(VirtualFrame frame, Object file, boolean fixImports, TruffleString encoding, TruffleString errors, Object buffers,
+                        @Cached PyObjectLookupAttr lookupAttr,
+                        @Cached PyObjectGetIter getIter) {
+            Object read = lookupAttr.execute(frame, file, T_READ);
+            Object readline = lookupAttr.execute(frame, file, T_READLINE);
+            if (read == PNone.NO_VALUE || readline == PNone.NO_VALUE) {
+                throw raise(TypeError, ErrorMessages.FILE_MUST_HAVE_READ_AND_READLINE_ATTRS);
+            }
+            Object buffersIterator = getBuffersIterator(frame, buffers, getIter, factory());
+            Object savedState = IndirectCallContext.enter(frame, this);
+            try {
+                return PickleReader.load(read, readline, fixImports, encoding, errors, buffersIterator);
+            } finally {
+                IndirectCallContext.exit(frame, this, savedState);
+            }
+        }
+    }
+
+    @Builtin(name = "loads", minNumOfPositionalArgs = 1, numOfPositionalOnlyArgs = 1, parameterNames = {"data"}, keywordOnlyNames = {"fix_imports", "encoding", "errors", "buffers"})
+    @ArgumentClinic(name = "data", conversion = ClinicConversion.ReadableBuffer)
+    @ArgumentClinic(name = "fix_imports", conversion = ClinicConversion.Boolean, defaultValue = "true")
+    @ArgumentClinic(name = "encoding", conversion = ClinicConversion.TString, defaultValue = "T_ASCII_UPPERCASE")
+    @ArgumentClinic(name = "errors", conversion = ClinicConversion.TString, defaultValue = "T_STRICT")
+    @GenerateNodeFactory
+    abstract static class LoadsNode extends PythonClinicBuiltinNode {
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return PickleModuleBuiltinsClinicProviders.LoadsNodeClinicProviderGen.INSTANCE;
+        }
+
+        @Specialization(limit = "3")
+        Object loads(VirtualFrame frame, Object buffer, boolean fixImports, TruffleString encoding, TruffleString errors, Object buffers,
+                        @CachedLibrary("buffer") PythonBufferAccessLibrary bufferLib,
+                        @Cached PyObjectGetIter getIter) {
+            try {
+                Object buffersIterator = getBuffersIterator(frame, buffers, getIter, factory());
+                byte[] data = bufferLib.getInternalOrCopiedByteArray(buffer);
+                int length = bufferLib.getBufferLength(buffer);
+                Object savedState = IndirectCallContext.enter(frame, this);
+                try {
+                    return PickleReader.loads(data, length, fixImports, encoding, errors, buffersIterator);
+                } finally {
+                    IndirectCallContext.exit(frame, this, savedState);
+                }
+            } finally {
+                bufferLib.release(buffer, frame, this);
+            }
+        }
+    }
+}
@@ -0,0 +1,1354 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules.pickle;
+
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.ADDITEMS;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.APPEND;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.APPENDS;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.BINBYTES;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.BINBYTES8;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.BINFLOAT;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.BINGET;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.BININT;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.BININT1;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.BININT2;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.BINPERSID;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.BINPUT;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.BINSTRING;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.BINUNICODE;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.BINUNICODE8;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.BUILD;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.BYTEARRAY8;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.DICT;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.DUP;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.EMPTY_DICT;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.EMPTY_LIST;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.EMPTY_SET;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.EMPTY_TUPLE;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.EXT1;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.EXT2;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.EXT4;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.FLOAT;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.FRAME;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.FROZENSET;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.GET;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.GLOBAL;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.HIGHEST_PROTOCOL;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.INST;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.INT;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.LIST;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.LONG;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.LONG1;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.LONG4;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.LONG_BINGET;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.LONG_BINPUT;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.MARK;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.MEMOIZE;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.NEWFALSE;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.NEWOBJ;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.NEWOBJ_EX;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.NEWTRUE;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.NEXT_BUFFER;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.NONE;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.OBJ;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.PERSID;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.POP;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.POP_MARK;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.PROTO;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.PUT;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.READONLY_BUFFER;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.REDUCE;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.SETITEM;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.SETITEMS;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.SHORT_BINBYTES;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.SHORT_BINSTRING;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.SHORT_BINUNICODE;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.STACK_GLOBAL;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.STOP;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.STRING;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.TUPLE;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.TUPLE1;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.TUPLE2;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.TUPLE3;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.T_BYTES_ENCODING;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.T_CODECS;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.T_COMPAT_PICKLE;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.T_COPYREG;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.T_ESCAPE_DECODE;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.T_EXTENSION_CACHE;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.T_IMPORT_MAPPING;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.T_INVERTED_REGISTRY;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.T_NAME_MAPPING;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.T_RAW_UNICODE_ESCAPE;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.T_TOREADONLY;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.UNICODE;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.getAttribute;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.getModuleAttribute;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.importModule;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.isInstanceOf;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.lookupMapping;
+import static com.oracle.graal.python.nodes.BuiltinNames.T_ADD;
+import static com.oracle.graal.python.nodes.BuiltinNames.T_APPEND;
+import static com.oracle.graal.python.nodes.BuiltinNames.T_EXTEND;
+import static com.oracle.graal.python.nodes.SpecialAttributeNames.T___DICT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.T_DECODE;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.T___GETINITARGS__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.T___NEW__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.T___SETSTATE__;
+import static com.oracle.graal.python.nodes.StringLiterals.T_ASCII_UPPERCASE;
+import static com.oracle.graal.python.nodes.StringLiterals.T_SURROGATEPASS;
+import static com.oracle.graal.python.nodes.StringLiterals.T_UTF8;
+import static com.oracle.graal.python.util.PythonUtils.TS_ENCODING;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.buffer.PythonBufferAccessLibrary;
+import com.oracle.graal.python.builtins.objects.buffer.PythonBufferAcquireLibrary;
+import com.oracle.graal.python.builtins.objects.common.EmptyStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes.HashingStorageGetIterator;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes.HashingStorageIterator;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes.HashingStorageIteratorKey;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes.HashingStorageIteratorNext;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes.HashingStorageIteratorValue;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes.HashingStorageLen;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes.HashingStorageSetItem;
+import com.oracle.graal.python.builtins.objects.common.SequenceNodesFactory.GetObjectArrayNodeGen;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.set.PSet;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.builtins.objects.type.TypeNodes.IsTypeNode;
+import com.oracle.graal.python.lib.PyIterNextNode;
+import com.oracle.graal.python.lib.PyLongCheckNode;
+import com.oracle.graal.python.lib.PyNumberAsSizeNode;
+import com.oracle.graal.python.lib.PyObjectCallMethodObjArgs;
+import com.oracle.graal.python.lib.PyObjectGetAttr;
+import com.oracle.graal.python.lib.PyObjectLookupAttr;
+import com.oracle.graal.python.lib.PyObjectSetAttr;
+import com.oracle.graal.python.lib.PyObjectSetItem;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.PRaiseNode;
+import com.oracle.graal.python.nodes.builtins.ListNodes.AppendNode;
+import com.oracle.graal.python.nodes.builtins.ListNodesFactory.AppendNodeGen;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.util.CastToTruffleStringNode;
+import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.strings.TruffleString;
+import com.oracle.truffle.api.strings.TruffleString.Encoding;
+
+/**
+ * The unpickling engine behind {@code _pickle.Unpickler}, {@code _pickle.load} and
+ * {@code _pickle.loads}. Like {@code _pickle.c}, it keeps the input in a byte array and only
+ * calls the file's {@code read} method when the array is exhausted. A {@code FRAME} opcode reads
+ * the whole frame at once, so the opcodes within the frame are decoded without calling back into
+ * Python.
+ *
+ * All methods run behind a {@link TruffleBoundary} and use uncached nodes; callers are expected to
+ * set up an indirect call context.
+ */
+final class PickleReader {
+
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private byte[] input = new byte[0];
+    private int pos;
+    private int limit;
+
+    private Object read;
+    private Object readline;
+
+    private int proto;
+    private boolean fixImports;
+    private TruffleString encoding;
+    private TruffleString errors;
+    private Object buffers;
+    private boolean initialized;
+
+    private Object persistentLoad;
+    private Object findClass;
+
+    private Object[] stack = new Object[8];
+    private int stackLen;
+    private int fence;
+    private int[] marks = new int[8];
+    private int numMarks;
+
+    private Object[] memo = new Object[32];
+    private int memoLen;
+
+    // lazily initialized module state
+    private Object nameMapping;
+    private Object importMapping;
+
+    @TruffleBoundary
+    void init(Object readMethod, Object readlineMethod, boolean fixImportsArg, TruffleString encodingArg, TruffleString errorsArg, Object buffersIterator) {
+        this.read = readMethod;
+        this.readline = readlineMethod;
+        this.fixImports = fixImportsArg;
+        this.encoding = encodingArg;
+        this.errors = errorsArg;
+        this.buffers = buffersIterator;
+        this.proto = 0;
+        clearMemo();
+        this.initialized = true;
+    }
+
+    boolean isInitialized() {
+        return initialized;
+    }
+
+    Object getPersistentLoad() {
+        return persistentLoad;
+    }
+
+    void setPersistentLoad(Object persistentLoad) {
+        this.persistentLoad = persistentLoad;
+    }
+
+    /**
+     * Sets the bound {@code find_class} method that overrides the default class lookup or
+     * {@code null} to use {@link #findClassDefault}.
+     */
+    void setFindClass(Object findClass) {
+        this.findClass = findClass;
+    }
+
+    void setInput(byte[] data, int length) {
+        input = data;
+        pos = 0;
+        limit = length;
+    }
+
+    @TruffleBoundary
+    void clearMemo() {
+        Arrays.fill(memo, 0, memoLen, null);
+        memoLen = 0;
+    }
+
+    /**
+     * Creates the dict returned by {@code UnpicklerMemoProxy.copy()}, mapping memo indices to
+     * values.
+     */
+    @TruffleBoundary
+    PDict copyMemo() {
+        HashingStorage storage = EmptyStorage.INSTANCE;
+        for (int i = 0; i < memoLen; i++) {
+            if (memo[i] != null) {
+                storage = HashingStorageSetItem.executeUncached(storage, i, memo[i]);
+            }
+        }
+        return factory().createDict(storage);
+    }
+
+    @TruffleBoundary
+    void setMemo(PickleReader other) {
+        memo = Arrays.copyOf(other.memo, other.memo.length);
+        memoLen = other.memoLen;
+    }
+
+    /**
+     * Replaces the memo with the entries of a dict in the format created by {@link #copyMemo()}.
+     * The memo is left unchanged if the dict is malformed.
+     */
+    @TruffleBoundary
+    void setMemo(PDict dict) {
+        Object[] newMemo = new Object[32];
+        int newMemoLen = 0;
+        HashingStorage storage = dict.getDictStorage();
+        HashingStorageIterator it = HashingStorageGetIterator.executeUncached(storage);
+        while (HashingStorageIteratorNext.executeUncached(storage, it)) {
+            Object key = HashingStorageIteratorKey.executeUncached(storage, it);
+            if (!PyLongCheckNode.getUncached().execute(key)) {
+                throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.TypeError, ErrorMessages.MEMO_KEY_MUST_BE_INTEGERS);
+            }
+            int idx = PyNumberAsSizeNode.getUncached().executeExact(null, key);
+            if (idx < 0) {
+                throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.ValueError, ErrorMessages.MEMO_KEY_MUST_BE_POSITIVE_INTEGERS);
+            }
+            if (idx >= newMemo.length) {
+                newMemo = Arrays.copyOf(newMemo, Math.max(idx + 1, newMemo.length * 2));
+            }
+            newMemo[idx] = HashingStorageIteratorValue.executeUncached(storage, it);
+            newMemoLen = Math.max(newMemoLen, idx + 1);
+        }
+        memo = newMemo;
+        memoLen = newMemoLen;
+    }
+
+    // input
+
+    /**
+     * Makes sure that at least {@code n} bytes are available at {@link #pos}, reading them from the
+     * file if necessary.
+     */
+    private void ensure(int n) {
+        int available = limit - pos;
+        if (available >= n) {
+            return;
+        }
+        if (read == null) {
+            throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.UnpicklingError, ErrorMessages.PICKLE_DATA_WAS_TRUNCATED);
+        }
+        int missing = n - available;
+        Object data = CallNode.getUncached().execute(read, missing);
+        append(data, missing);
+    }
+
+    private void append(Object data, int expected) {
+        PythonBufferAcquireLibrary acquireLib = PythonBufferAcquireLibrary.getUncached();
+        PythonBufferAccessLibrary bufferLib = PythonBufferAccessLibrary.getUncached();
+        Object buffer = acquireLib.acquireReadonly(data);
+        try {
+            int length = bufferLib.getBufferLength(buffer);
+            if (length < expected) {
+                throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.UnpicklingError, ErrorMessages.PICKLE_DATA_WAS_TRUNCATED);
+            }
+            int available = limit - pos;
+            if (available == 0) {
+                // common case, no need to merge with the rest of the previous input
+                input = bufferLib.getInternalOrCopiedByteArray(buffer);
+                limit = length;
+            } else {
+                byte[] merged = new byte[available + length];
+                System.arraycopy(input, pos, merged, 0, available);
+                bufferLib.readIntoByteArray(buffer, 0, merged, available, length);
+                input = merged;
+                limit = merged.length;
+            }
+            pos = 0;
+        } finally {
+            bufferLib.release(buffer);
+        }
+    }
+
+    private int readByte() {
+        ensure(1);
+        return input[pos++] & 0xff;
+    }
+
+    private int readUnsignedShort() {
+        ensure(2);
+        int value = (input[pos] & 0xff) | (input[pos + 1] & 0xff) << 8;
+        pos += 2;
+        return value;
+    }
+
+    private int readInt() {
+        ensure(4);
+        int value = (input[pos] & 0xff) | (input[pos + 1] & 0xff) << 8 | (input[pos + 2] & 0xff) << 16 | (input[pos + 3] & 0xff) << 24;
+        pos += 4;
+        return value;
+    }
+
+    private long readLong() {
+        long lo = readInt() & 0xffffffffL;
+        long hi = readInt() & 0xffffffffL;
+        return lo | hi << 32;
+    }
+
+    /**
+     * Reads a 4 or 8 byte unsigned size and checks that it fits into a Java array.
+     */
+    private int readSize(int nbytes, String opcodeName) {
+        long size = nbytes == 4 ? readInt() & 0xffffffffL : readLong();
+        if (size < 0 || size > MAX_ARRAY_SIZE) {
+            throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.UnpicklingError, ErrorMessages.S_EXCEEDS_SYSTEMS_MAX_SIZE_OF_D_BYTES, opcodeName, MAX_ARRAY_SIZE);
+        }
+        return (int) size;
+    }
+
+    private byte[] readBytes(int n) {
+        ensure(n);
+        byte[] result = Arrays.copyOfRange(input, pos, pos + n);
+        pos += n;
+        return result;
+    }
+
+    /**
+     * Reads a line including the terminating newline and returns its length; the line starts at
+     * {@code pos - length} afterwards.
+     */
+    private int readLine() {
+        for (int i = pos; i < limit; i++) {
+            if (input[i] == '\n') {
+                int length = i + 1 - pos;
+                pos = i + 1;
+                return length;
+            }
+        }
+        if (readline == null) {
+            throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.UnpicklingError, ErrorMessages.PICKLE_DATA_WAS_TRUNCATED);
+        }
+        int available = limit - pos;
+        append(CallNode.getUncached().execute(readline), 0);
+        int length = limit - pos;
+        if (length == available) {
+            throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.UnpicklingError, ErrorMessages.PICKLE_DATA_WAS_TRUNCATED);
+        }
+        pos = limit;
+        return length;
+    }
+
+    /**
+     * Reads a line and returns it without the newline as a Java string of bytes (one char per
+     * byte).
+     */
+    private String readLineAsString() {
+        int length = readLine();
+        int start = pos - length;
+        char[] chars = new char[length - 1];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) (input[start + i] & 0xff);
+        }
+        return new String(chars);
+    }
+
+    // stack
+
+    private void push(Object obj) {
+        if (stackLen == stack.length) {
+            stack = Arrays.copyOf(stack, stackLen * 2);
+        }
+        stack[stackLen++] = obj;
+    }
+
+    private PException stackUnderflow() {
+        return PRaiseNode.getUncached().raise(PythonBuiltinClassType.UnpicklingError, numMarks > 0 ? ErrorMessages.UNEXPECTED_MARK_FOUND : ErrorMessages.UNPICKLING_STACK_UNDERFLOW);
+    }
+
+    private Object pop() {
+        if (stackLen <= fence) {
+            throw stackUnderflow();
+        }
+        Object result = stack[--stackLen];
+        stack[stackLen] = null;
+        return result;
+    }
+
+    private Object peek() {
+        if (stackLen <= fence) {
+            throw stackUnderflow();
+        }
+        return stack[stackLen - 1];
+    }
+
+    private Object[] popItems(int start) {
+        if (start < fence) {
+            throw stackUnderflow();
+        }
+        Object[] items = Arrays.copyOfRange(stack, start, stackLen);
+        Arrays.fill(stack, start, stackLen, null);
+        stackLen = start;
+        return items;
+    }
+
+    private void pushMark() {
+        if (numMarks == marks.length) {
+            marks = Arrays.copyOf(marks, numMarks * 2);
+        }
+        marks[numMarks++] = stackLen;
+        fence = stackLen;
+    }
+
+    private int popMark() {
+        if (numMarks < 1) {
+            throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.UnpicklingError, ErrorMessages.COULD_NOT_FIND_MARK);
+        }
+        int mark = marks[--numMarks];
+        fence = numMarks > 0 ? marks[numMarks - 1] : 0;
+        return mark;
+    }
+
+    // memo
+
+    private void memoPut(int idx, Object value) {
+        if (idx >= memo.length) {
+            memo = Arrays.copyOf(memo, Math.max(idx + 1, memo.length * 2));
+        }
+        memo[idx] = value;
+        memoLen = Math.max(memoLen, idx + 1);
+    }
+
+    private Object memoGet(long idx) {
+        Object value = idx >= 0 && idx < memoLen ? memo[(int) idx] : null;
+        if (value == null) {
+            throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.UnpicklingError, ErrorMessages.MEMO_VALUE_NOT_FOUND_AT_INDEX_D, idx);
+        }
+        return value;
+    }
+
+    private void put(long idx, String opcodeName) {
+        if (idx < 0) {
+            throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.ValueError, ErrorMessages.NEGATIVE_S_ARGUMENT, opcodeName);
+        }
+        if (idx > MAX_ARRAY_SIZE) {
+            throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.UnpicklingError, ErrorMessages.MEMO_ID_TOO_LARGE_FOR_S, opcodeName);
+        }
+        memoPut((int) idx, peek());
+    }
+
+    // helpers
+
+    private static PythonObjectFactory factory() {
+        return PythonObjectFactory.getUncached();
+    }
+
+    private static Object call(Object callable, Object... args) {
+        return CallNode.getUncached().execute(callable, args);
+    }
+
+    private static Object builtinType(PythonBuiltinClassType type) {
+        return PythonContext.get(null).lookupType(type);
+    }
+
+    private static TruffleString asciiString(String s) {
+        return TruffleString.fromJavaStringUncached(s, TS_ENCODING);
+    }
+
+    private static Object toPythonInt(BigInteger value) {
+        if (value.bitLength() < 32) {
+            return value.intValue();
+        } else if (value.bitLength() < 64) {
+            return value.longValue();
+        }
+        return factory().createInt(value);
+    }
+
+    /**
+     * Parses the argument of the text {@code INT} and {@code LONG} opcodes like
+     * {@code PyLong_FromString(s, NULL, 0)}.
+     */
+    private static Object parseInt(String s) {
+        if (s.matches("[+-]?(0|[1-9][0-9]*)")) {
+            return toPythonInt(new BigInteger(s));
+        }
+        return call(builtinType(PythonBuiltinClassType.PInt), asciiString(s), 0);
+    }
+
+    private static long parseIndex(String s) {
+        try {
+            return Long.parseLong(s);
+        } catch (NumberFormatException e) {
+            throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.ValueError, ErrorMessages.COULD_NOT_CONVERT_STRING_TO_INT);
+        }
+    }
+
+    private static PTuple asTuple(Object[] items) {
+        return factory().createTuple(items);
+    }
+
+    /**
+     * Decodes UTF-8 with the {@code surrogatepass} error handler. Well-formed input, which is the
+     * common case, is decoded without calling the codec machinery.
+     */
+    private static Object decodeUtf8(byte[] data) {
+        TruffleString utf8 = TruffleString.fromByteArrayUncached(data, 0, data.length, Encoding.UTF_8, false);
+        if (utf8.isValidUncached(Encoding.UTF_8)) {
+            return utf8.switchEncodingUncached(TS_ENCODING);
+        }
+        return PyObjectCallMethodObjArgs.getUncached().execute(null, factory().createBytes(data), T_DECODE, T_UTF8, T_SURROGATEPASS);
+    }
+
+    private static TruffleString decodeAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 0x7f) {
+                // let the codec produce the UnicodeDecodeError
+                byte[] bytes = new byte[s.length()];
+                for (int j = 0; j < bytes.length; j++) {
+                    bytes[j] = (byte) s.charAt(j);
+                }
+                Object str = PyObjectCallMethodObjArgs.getUncached().execute(null, factory().createBytes(bytes), T_DECODE, T_ASCII_UPPERCASE);
+                return CastToTruffleStringNode.getUncached().execute(str);
+            }
+        }
+        return asciiString(s);
+    }
+
+    private static TruffleString decodeUtf8Strict(String s) {
+        byte[] bytes = new byte[s.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) s.charAt(i);
+        }
+        Object str = PyObjectCallMethodObjArgs.getUncached().execute(null, factory().createBytes(bytes), T_DECODE, T_UTF8);
+        return CastToTruffleStringNode.getUncached().execute(str);
+    }
+
+    /**
+     * Decodes the payload of the Python 2 string opcodes with the {@code encoding} and
+     * {@code errors} given to the unpickler, or keeps it as bytes for {@code encoding='bytes'}.
+     */
+    private Object decodeString(byte[] data) {
+        Object bytes = factory().createBytes(data);
+        if (encoding.equalsUncached(T_BYTES_ENCODING, TS_ENCODING)) {
+            return bytes;
+        }
+        return PyObjectCallMethodObjArgs.getUncached().execute(null, bytes, T_DECODE, encoding, errors);
+    }
+
+    /**
+     * Implements {@code _pickle.load}.
+     */
+    @TruffleBoundary
+    static Object load(Object readMethod, Object readlineMethod, boolean fixImports, TruffleString encoding, TruffleString errors, Object buffersIterator) {
+        PickleReader reader = new PickleReader();
+        reader.init(readMethod, readlineMethod, fixImports, encoding, errors, buffersIterator);
+        return reader.load();
+    }
+
+    /**
+     * Implements {@code _pickle.loads}.
+     */
+    @TruffleBoundary
+    static Object loads(byte[] data, int length, boolean fixImports, TruffleString encoding, TruffleString errors, Object buffersIterator) {
+        PickleReader reader = new PickleReader();
+        reader.init(null, null, fixImports, encoding, errors, buffersIterator);
+        reader.setInput(data, length);
+        return reader.load();
+    }
+
+    /**
+     * Runs the unpickling loop until a {@code STOP} opcode and returns the result.
+     */
+    @TruffleBoundary
+    Object load() {
+        stackLen = 0;
+        fence = 0;
+        numMarks = 0;
+        proto = 0;
+        try {
+            return loadLoop();
+        } finally {
+            Arrays.fill(stack, null);
+            stackLen = 0;
+        }
+    }
+
+    private Object loadLoop() {
+        while (true) {
+            int opcode;
+            try {
+                opcode = readByte();
+            } catch (PException e) {
+                if (isInstanceOf(e, PythonBuiltinClassType.UnpicklingError)) {
+                    throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.EOFError, ErrorMessages.RAN_OUT_OF_INPUT);
+                }
+                throw e;
+            }
+            switch ((byte) opcode) {
+                case STOP:
+                    return pop();
+                case PROTO:
+                    loadProto();
+                    break;
+                case FRAME:
+                    loadFrame();
+                    break;
+                case NONE:
+                    push(PNone.NONE);
+                    break;
+                case NEWTRUE:
+                    push(true);
+                    break;
+                case NEWFALSE:
+                    push(false);
+                    break;
+                case INT:
+                    loadTextInt();
+                    break;
+                case BININT:
+                    push(readInt());
+                    break;
+                case BININT1:
+                    push(readByte());
+                    break;
+                case BININT2:
+                    push(readUnsignedShort());
+                    break;
+                case LONG:
+                    loadTextLong();
+                    break;
+                case LONG1:
+                    loadBinLong(readByte());
+                    break;
+                case LONG4:
+                    loadLong4();
+                    break;
+                case FLOAT:
+                    push(call(builtinType(PythonBuiltinClassType.PFloat), asciiString(readLineAsString())));
+                    break;
+                case BINFLOAT:
+                    loadBinFloat();
+                    break;
+                case STRING:
+                    loadString();
+                    break;
+                case BINSTRING:
+                    loadBinString();
+                    break;
+                case SHORT_BINSTRING:
+                    push(decodeString(readBytes(readByte())));
+                    break;
+                case BINBYTES:
+                    push(factory().createBytes(readBytes(readSize(4, "BINBYTES"))));
+                    break;
+                case SHORT_BINBYTES:
+                    push(factory().createBytes(readBytes(readByte())));
+                    break;
+                case BINBYTES8:
+                    push(factory().createBytes(readBytes(readSize(8, "BINBYTES8"))));
+                    break;
+                case BYTEARRAY8:
+                    push(factory().createByteArray(readBytes(readSize(8, "BYTEARRAY8"))));
+                    break;
+                case NEXT_BUFFER:
+                    loadNextBuffer();
+                    break;
+                case READONLY_BUFFER:
+                    loadReadonlyBuffer();
+                    break;
+                case UNICODE:
+                    loadUnicode();
+                    break;
+                case BINUNICODE:
+                    push(decodeUtf8(readBytes(readSize(4, "BINUNICODE"))));
+                    break;
+                case SHORT_BINUNICODE:
+                    push(decodeUtf8(readBytes(readByte())));
+                    break;
+                case BINUNICODE8:
+                    push(decodeUtf8(readBytes(readSize(8, "BINUNICODE8"))));
+                    break;
+                case EMPTY_TUPLE:
+                    push(asTuple(new Object[0]));
+                    break;
+                case TUPLE:
+                    push(asTuple(popItems(popMark())));
+                    break;
+                case TUPLE1:
+                    push(asTuple(popItems(stackLen - 1)));
+                    break;
+                case TUPLE2:
+                    push(asTuple(popItems(stackLen - 2)));
+                    break;
+                case TUPLE3:
+                    push(asTuple(popItems(stackLen - 3)));
+                    break;
+                case EMPTY_LIST:
+                    push(factory().createList());
+                    break;
+                case LIST:
+                    push(factory().createList(popItems(popMark())));
+                    break;
+                case EMPTY_DICT:
+                    push(factory().createDict());
+                    break;
+                case DICT:
+                    loadDict();
+                    break;
+                case EMPTY_SET:
+                    push(factory().createSet(EmptyStorage.INSTANCE));
+                    break;
+                case FROZENSET:
+                    push(factory().createFrozenSet(toSetStorage(popItems(popMark()))));
+                    break;
+                case APPEND:
+                    doAppend(stackLen - 1);
+                    break;
+                case APPENDS:
+                    doAppend(popMark());
+                    break;
+                case SETITEM:
+                    doSetItems(stackLen - 2);
+                    break;
+                case SETITEMS:
+                    doSetItems(popMark());
+                    break;
+                case ADDITEMS:
+                    loadAddItems();
+                    break;
+                case MARK:
+                    pushMark();
+                    break;
+                case POP:
+                    loadPop();
+                    break;
+                case POP_MARK:
+                    popItems(popMark());
+                    break;
+                case DUP:
+                    push(peek());
+                    break;
+                case GET:
+                    push(memoGet(parseIndex(readLineAsString())));
+                    break;
+                case BINGET:
+                    push(memoGet(readByte()));
+                    break;
+                case LONG_BINGET:
+                    push(memoGet(readInt() & 0xffffffffL));
+                    break;
+                case PUT:
+                    put(parseIndex(readLineAsString()), "PUT");
+                    break;
+                case BINPUT:
+                    put(readByte(), "BINPUT");
+                    break;
+                case LONG_BINPUT:
+                    put(readInt(), "LONG_BINPUT");
+                    break;
+                case MEMOIZE:
+                    memoPut(memoLen, peek());
+                    break;
+                case GLOBAL:
+                    loadGlobal();
+                    break;
+                case STACK_GLOBAL:
+                    loadStackGlobal();
+                    break;
+                case EXT1:
+                    loadExtension(readByte());
+                    break;
+                case EXT2:
+                    loadExtension(readUnsignedShort());
+                    break;
+                case EXT4:
+                    loadExtension(readInt());
+                    break;
+                case REDUCE:
+                    loadReduce();
+                    break;
+                case NEWOBJ:
+                    loadNewObj(false);
+                    break;
+                case NEWOBJ_EX:
+                    loadNewObj(true);
+                    break;
+                case INST:
+                    loadInst();
+                    break;
+                case OBJ:
+                    loadObj();
+                    break;
+                case BUILD:
+                    loadBuild();
+                    break;
+                case PERSID:
+                    loadPersid();
+                    break;
+                case BINPERSID:
+                    push(persistentLoad(pop()));
+                    break;
+                default:
+                    throw invalidLoadKey(opcode);
+            }
+        }
+    }
+
+    private static PException invalidLoadKey(int opcode) {
+        String key;
+        if (opcode >= 0x20 && opcode <= 0x7e && opcode != '\'' && opcode != '\\') {
+            key = String.valueOf((char) opcode);
+        } else {
+            key = String.format("\\x%02x", opcode);
+        }
+        return PRaiseNode.getUncached().raise(PythonBuiltinClassType.UnpicklingError, ErrorMessages.INVALID_LOAD_KEY_S, key);
+    }
+
+    private void loadProto() {
+        int protocol = readByte();
+        if (protocol > HIGHEST_PROTOCOL) {
+            throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.ValueError, ErrorMessages.UNSUPPORTED_PICKLE_PROTOCOL_D, protocol);
+        }
+        proto = protocol;
+    }
+
+    private void loadFrame() {
+        int frameLen = readSize(8, "FRAME length");
+        ensure(frameLen);
+    }
+
+    // numbers
+
+    private void loadTextInt() {
+        String s = readLineAsString();
+        if (s.equals("00")) {
+            push(false);
+        } else if (s.equals("01")) {
+            push(true);
+        } else {
+            push(parseInt(s));
+        }
+    }
+
+    private void loadTextLong() {
+        String s = readLineAsString();
+        if (s.endsWith("L")) {
+            s = s.substring(0, s.length() - 1);
+        }
+        push(parseInt(s));
+    }
+
+    private void loadLong4() {
+        int size = readInt();
+        if (size < 0) {
+            throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.UnpicklingError, ErrorMessages.S_PICKLE_HAS_NEGATIVE_BYTE_COUNT, "LONG");
+        }
+        loadBinLong(size);
+    }
+
+    private void loadBinLong(int size) {
+        if (size == 0) {
+            push(0);
+            return;
+        }
+        byte[] data = readBytes(size);
+        // little-endian two's complement
+        for (int i = 0, j = size - 1; i < j; i++, j--) {
+            byte tmp = data[i];
+            data[i] = data[j];
+            data[j] = tmp;
+        }
+        push(toPythonInt(new BigInteger(data)));
+    }
+
+    private void loadBinFloat() {
+        ensure(8);
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits = bits << 8 | (input[pos + i] & 0xff);
+        }
+        pos += 8;
+        push(Double.longBitsToDouble(bits));
+    }
+
+    // strings
+
+    private void loadString() {
+        String s = readLineAsString();
+        int len = s.length();
+        if (len < 2 || s.charAt(0) != s.charAt(len - 1) || (s.charAt(0) != '\'' && s.charAt(0) != '"')) {
+            throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.UnpicklingError, ErrorMessages.STRING_OPCODE_ARGUMENT_MUST_BE_QUOTED);
+        }
+        byte[] quoted = new byte[len - 2];
+        for (int i = 0; i < quoted.length; i++) {
+            quoted[i] = (byte) s.charAt(i + 1);
+        }
+        Object decoded = call(getModuleAttribute(T_CODECS, T_ESCAPE_DECODE), factory().createBytes(quoted));
+        Object bytes = GetObjectArrayNodeGen.getUncached().execute(decoded)[0];
+        byte[] data = PythonBufferAccessLibrary.getUncached().getCopiedByteArray(bytes);
+        push(decodeString(data));
+    }
+
+    private void loadBinString() {
+        int size = readInt();
+        if (size < 0) {
+            throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.UnpicklingError, ErrorMessages.S_PICKLE_HAS_NEGATIVE_BYTE_COUNT, "BINSTRING");
+        }
+        push(decodeString(readBytes(size)));
+    }
+
+    private void loadUnicode() {
+        int length = readLine();
+        byte[] data = Arrays.copyOfRange(input, pos - length, pos - 1);
+        push(PyObjectCallMethodObjArgs.getUncached().execute(null, factory().createBytes(data), T_DECODE, T_RAW_UNICODE_ESCAPE));
+    }
+
+    // out-of-band buffers
+
+    private void loadNextBuffer() {
+        if (buffers == null) {
+            throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.UnpicklingError, ErrorMessages.NO_BUFFERS_ARGUMENT_GIVEN);
+        }
+        Object buffer = PyIterNextNode.getUncached().execute(null, buffers);
+        if (buffer == null) {
+            throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.UnpicklingError, ErrorMessages.NOT_ENOUGH_OUT_OF_BAND_BUFFERS);
+        }
+        push(buffer);
+    }
+
+    private void loadReadonlyBuffer() {
+        Object buffer = peek();
+        Object view = call(builtinType(PythonBuiltinClassType.PMemoryView), buffer);
+        if (!PythonBufferAccessLibrary.getUncached().isReadonly(view)) {
+            stack[stackLen - 1] = PyObjectCallMethodObjArgs.getUncached().execute(null, view, T_TOREADONLY);
+        }
+    }
+
+    // containers
+
+    private static HashingStorage toSetStorage(Object[] items) {
+        HashingStorage storage = EmptyStorage.INSTANCE;
+        for (Object item : items) {
+            storage = HashingStorageSetItem.executeUncached(storage, item, PNone.NONE);
+        }
+        return storage;
+    }
+
+    private void loadDict() {
+        int mark = popMark();
+        if ((stackLen - mark) % 2 != 0) {
+            throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.UnpicklingError, ErrorMessages.ODD_NUMBER_OF_ITEMS_FOR_S, "DICT");
+        }
+        Object[] items = popItems(mark);
+        HashingStorage storage = EmptyStorage.INSTANCE;
+        for (int i = 0; i < items.length; i += 2) {
+            storage = HashingStorageSetItem.executeUncached(storage, items[i], items[i + 1]);
+        }
+        push(factory().createDict(storage));
+    }
+
+    private void doAppend(int x) {
+        if (x > stackLen || x <= fence) {
+            throw stackUnderflow();
+        }
+        if (x == stackLen) {
+            return;
+        }
+        Object list = stack[x - 1];
+        if (IsBuiltinClassProfile.profileClassSlowPath(GetClassNode.getUncached().execute(list), PythonBuiltinClassType.PList)) {
+            Object[] items = popItems(x);
+            AppendNode appendNode = AppendNodeGen.getUncached();
+            for (Object item : items) {
+                appendNode.execute((PList) list, item);
+            }
+            return;
+        }
+        Object extend = PyObjectLookupAttr.getUncached().execute(null, list, T_EXTEND);
+        if (extend != PNone.NO_VALUE) {
+            call(extend, factory().createList(popItems(x)));
+        } else {
+            Object append = PyObjectGetAttr.getUncached().execute(null, list, T_APPEND);
+            for (Object item : popItems(x)) {
+                call(append, item);
+            }
+        }
+    }
+
+    private void doSetItems(int x) {
+        if (x > stackLen || x <= fence) {
+            throw stackUnderflow();
+        }
+        if (x == stackLen) {
+            return;
+        }
+        if ((stackLen - x) % 2 != 0) {
+            throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.UnpicklingError, ErrorMessages.ODD_NUMBER_OF_ITEMS_FOR_S, "SETITEMS");
+        }
+        Object dict = stack[x - 1];
+        Object[] items = popItems(x);
+        PyObjectSetItem setItem = PyObjectSetItem.getUncached();
+        for (int i = 0; i < items.length; i += 2) {
+            setItem.execute(null, dict, items[i], items[i + 1]);
+        }
+    }
+
+    private void loadAddItems() {
+        int mark = popMark();
+        if (mark > stackLen || mark <= fence) {
+            throw stackUnderflow();
+        }
+        if (mark == stackLen) {
+            return;
+        }
+        Object set = stack[mark - 1];
+        Object[] items = popItems(mark);
+        if (set instanceof PSet) {
+            PSet pset = (PSet) set;
+            HashingStorage storage = pset.getDictStorage();
+            for (Object item : items) {
+                storage = HashingStorageSetItem.executeUncached(storage, item, PNone.NONE);
+            }
+            pset.setDictStorage(storage);
+        } else {
+            Object add = PyObjectGetAttr.getUncached().execute(null, set, T_ADD);
+            for (Object item : items) {
+                call(add, item);
+            }
+        }
+    }
+
+    private void loadPop() {
+        if (numMarks > 0 && marks[numMarks - 1] == stackLen) {
+            popMark();
+        } else {
+            pop();
+        }
+    }
+
+    // objects
+
+    private void loadGlobal() {
+        TruffleString module = decodeUtf8Strict(readLineAsString());
+        TruffleString name = decodeUtf8Strict(readLineAsString());
+        push(findClass(module, name));
+    }
+
+    private void loadStackGlobal() {
+        Object name = pop();
+        Object module = pop();
+        if (!PGuards.isString(module) || !PGuards.isString(name)) {
+            throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.UnpicklingError, ErrorMessages.STACK_GLOBAL_REQUIRES_STR);
+        }
+        push(findClass(module, name));
+    }
+
+    private void loadExtension(int code) {
+        if (code <= 0) {
+            throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.UnpicklingError, ErrorMessages.EXT_SPECIFIES_CODE_LE_0);
+        }
+        Object cache = getModuleAttribute(T_COPYREG, T_EXTENSION_CACHE);
+        Object obj = lookupMapping(cache, code);
+        if (obj != null) {
+            push(obj);
+            return;
+        }
+        Object registry = getModuleAttribute(T_COPYREG, T_INVERTED_REGISTRY);
+        Object pair = lookupMapping(registry, code);
+        if (pair == null) {
+            throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.ValueError, ErrorMessages.UNREGISTERED_EXTENSION_CODE_D, code);
+        }
+        Object[] names = pair instanceof PTuple ? GetObjectArrayNodeGen.getUncached().execute(pair) : null;
+        if (names == null || names.length != 2 || !PGuards.isString(names[0]) || !PGuards.isString(names[1])) {
+            throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.ValueError, ErrorMessages.INVERTED_REGISTRY_D_ISNT_2_TUPLE_OF_STRINGS, code);
+        }
+        obj = findClass(names[0], names[1]);
+        PyObjectSetItem.getUncached().execute(null, cache, code, obj);
+        push(obj);
+    }
+
+    private void loadReduce() {
+        Object argtup = pop();
+        Object callable = pop();
+        if (!(argtup instanceof PTuple)) {
+            throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.TypeError, ErrorMessages.ARGUMENT_LIST_MUST_BE_A_TUPLE);
+        }
+        push(call(callable, GetObjectArrayNodeGen.getUncached().execute(argtup)));
+    }
+
+    private void loadNewObj(boolean useKwargs) {
+        Object kwargs = useKwargs ? pop() : null;
+        Object args = pop();
+        Object cls = pop();
+        if (!IsTypeNode.getUncached().execute(cls)) {
+            if (useKwargs) {
+                throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.UnpicklingError, ErrorMessages.NEWOBJ_EX_S_ARGUMENT_MUST_BE_S_NOT_P, "class", "a type", cls);
+            }
+            throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.UnpicklingError, ErrorMessages.NEWOBJ_CLASS_ARGUMENT_ISNT_A_TYPE);
+        }
+        if (!(args instanceof PTuple)) {
+            if (useKwargs) {
+                throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.UnpicklingError, ErrorMessages.NEWOBJ_EX_S_ARGUMENT_MUST_BE_S_NOT_P, "args", "a tuple", args);
+            }
+            throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.UnpicklingError, ErrorMessages.NEWOBJ_EXPECTED_AN_ARG_TUPLE);
+        }
+        if (useKwargs && !(kwargs instanceof PDict)) {
+            throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.UnpicklingError, ErrorMessages.NEWOBJ_EX_S_ARGUMENT_MUST_BE_S_NOT_P, "kwargs", "a dict", kwargs);
+        }
+        Object[] clsArgs = GetObjectArrayNodeGen.getUncached().execute(args);
+        Object[] newArgs = new Object[clsArgs.length + 1];
+        newArgs[0] = cls;
+        System.arraycopy(clsArgs, 0, newArgs, 1, clsArgs.length);
+        Object newMethod = PyObjectGetAttr.getUncached().execute(null, cls, T___NEW__);
+        PKeyword[] keywords = useKwargs ? toKeywords((PDict) kwargs) : PKeyword.EMPTY_KEYWORDS;
+        push(CallNode.getUncached().execute(newMethod, newArgs, keywords));
+    }
+
+    private static PKeyword[] toKeywords(PDict kwargs) {
+        HashingStorage storage = kwargs.getDictStorage();
+        PKeyword[] keywords = new PKeyword[HashingStorageLen.executeUncached(storage)];
+        HashingStorageIterator it = HashingStorageGetIterator.executeUncached(storage);
+        int i = 0;
+        while (HashingStorageIteratorNext.executeUncached(storage, it)) {
+            Object key = HashingStorageIteratorKey.executeUncached(storage, it);
+            keywords[i++] = new PKeyword(CastToTruffleStringNode.getUncached().execute(key), HashingStorageIteratorValue.executeUncached(storage, it));
+        }
+        return keywords;
+    }
+
+    /**
+     * Creates an instance for the protocol 0 and 1 {@code INST} and {@code OBJ} opcodes. Without
+     * arguments and without {@code __getinitargs__}, {@code __init__} is not called.
+     */
+    private static Object instantiate(Object cls, Object[] args) {
+        if (args.length == 0 && IsTypeNode.getUncached().execute(cls)) {
+            if (PyObjectLookupAttr.getUncached().execute(null, cls, T___GETINITARGS__) == PNone.NO_VALUE) {
+                return PyObjectCallMethodObjArgs.getUncached().execute(null, cls, T___NEW__, cls);
+            }
+        }
+        return call(cls, args);
+    }
+
+    private void loadInst() {
+        int mark = popMark();
+        TruffleString module = decodeAscii(readLineAsString());
+        TruffleString name = decodeAscii(readLineAsString());
+        Object cls = findClass(module, name);
+        push(instantiate(cls, popItems(mark)));
+    }
+
+    private void loadObj() {
+        int mark = popMark();
+        if (stackLen < mark + 1) {
+            throw stackUnderflow();
+        }
+        Object[] args = popItems(mark + 1);
+        Object cls = pop();
+        push(instantiate(cls, args));
+    }
+
+    private void loadBuild() {
+        Object state = pop();
+        Object inst = peek();
+        Object setstate = PyObjectLookupAttr.getUncached().execute(null, inst, T___SETSTATE__);
+        if (setstate != PNone.NO_VALUE) {
+            call(setstate, state);
+            return;
+        }
+        Object slotstate = null;
+        if (state instanceof PTuple) {
+            Object[] items = GetObjectArrayNodeGen.getUncached().execute(state);
+            if (items.length == 2) {
+                state = items[0];
+                slotstate = items[1];
+            }
+        }
+        if (state != PNone.NONE) {
+            if (!(state instanceof PDict)) {
+                throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.UnpicklingError, ErrorMessages.S_IS_NOT_A_DICTIONARY, "state");
+            }
+            Object dict = PyObjectGetAttr.getUncached().execute(null, inst, T___DICT__);
+            HashingStorage storage = ((PDict) state).getDictStorage();
+            HashingStorageIterator it = HashingStorageGetIterator.executeUncached(storage);
+            PyObjectSetItem setItem = PyObjectSetItem.getUncached();
+            while (HashingStorageIteratorNext.executeUncached(storage, it)) {
+                setItem.execute(null, dict, HashingStorageIteratorKey.executeUncached(storage, it), HashingStorageIteratorValue.executeUncached(storage, it));
+            }
+        }
+        if (slotstate != null && slotstate != PNone.NONE) {
+            if (!(slotstate instanceof PDict)) {
+                throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.UnpicklingError, ErrorMessages.S_IS_NOT_A_DICTIONARY, "slot state");
+            }
+            HashingStorage storage = ((PDict) slotstate).getDictStorage();
+            HashingStorageIterator it = HashingStorageGetIterator.executeUncached(storage);
+            PyObjectSetAttr setAttr = PyObjectSetAttr.getUncached();
+            while (HashingStorageIteratorNext.executeUncached(storage, it)) {
+                Object key = HashingStorageIteratorKey.executeUncached(storage, it);
+                setAttr.execute(null, inst, CastToTruffleStringNode.getUncached().execute(key), HashingStorageIteratorValue.executeUncached(storage, it));
+            }
+        }
+    }
+
+    private void loadPersid() {
+        String line = readLineAsString();
+        TruffleString pid;
+        try {
+            pid = decodeAscii(line);
+        } catch (PException e) {
+            throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.UnpicklingError, ErrorMessages.PERSISTENT_IDS_MUST_BE_ASCII);
+        }
+        push(persistentLoad(pid));
+    }
+
+    private Object persistentLoad(Object pid) {
+        if (persistentLoad == null) {
+            throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.UnpicklingError, ErrorMessages.NO_PERSISTENT_LOAD_FUNCTION);
+        }
+        return call(persistentLoad, pid);
+    }
+
+    // class lookup
+
+    private Object findClass(Object module, Object name) {
+        if (findClass != null) {
+            return call(findClass, module, name);
+        }
+        return findClassDefault(CastToTruffleStringNode.getUncached().execute(module), CastToTruffleStringNode.getUncached().execute(name));
+    }
+
+    /**
+     * The default {@code Unpickler.find_class}: maps Python 2 names if needed, imports the module
+     * and looks up the (qualified) name in it.
+     */
+    @TruffleBoundary
+    Object findClassDefault(TruffleString moduleName, TruffleString globalName) {
+        TruffleString module = moduleName;
+        TruffleString global = globalName;
+        if (proto < 3 && fixImports) {
+            if (nameMapping == null) {
+                nameMapping = getModuleAttribute(T_COMPAT_PICKLE, T_NAME_MAPPING);
+                importMapping = getModuleAttribute(T_COMPAT_PICKLE, T_IMPORT_MAPPING);
+            }
+            Object item = lookupMapping(nameMapping, asTuple(new Object[]{module, global}));
+            if (item != null) {
+                Object[] pair = item instanceof PTuple ? GetObjectArrayNodeGen.getUncached().execute(item) : null;
+                if (pair == null || pair.length != 2) {
+                    throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.RuntimeError, ErrorMessages.COMPAT_PICKLE_S_VALUES_SHOULD_BE_S_NOT_P, "NAME_MAPPING", "2-tuples", item);
+                }
+                if (!PGuards.isString(pair[0]) || !PGuards.isString(pair[1])) {
+                    throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.RuntimeError, ErrorMessages.COMPAT_PICKLE_S_VALUES_SHOULD_BE_S_NOT_P, "NAME_MAPPING", "pairs of str", item);
+                }
+                module = CastToTruffleStringNode.getUncached().execute(pair[0]);
+                global = CastToTruffleStringNode.getUncached().execute(pair[1]);
+            } else {
+                item = lookupMapping(importMapping, module);
+                if (item != null) {
+                    if (!PGuards.isString(item)) {
+                        throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.RuntimeError, ErrorMessages.COMPAT_PICKLE_S_VALUES_SHOULD_BE_S_NOT_P, "IMPORT_MAPPING", "strings", item);
+                    }
+                    module = CastToTruffleStringNode.getUncached().execute(item);
+                }
+            }
+        }
+        Object moduleObj = importModule(module);
+        return getAttribute(moduleObj, global, proto >= 4);
+    }
+}
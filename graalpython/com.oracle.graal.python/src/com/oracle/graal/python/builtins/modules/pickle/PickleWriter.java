@@ -0,0 +1,1655 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules.pickle;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.PicklingError;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.ADDITEMS;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.APPEND;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.APPENDS;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.BATCHSIZE;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.BINBYTES;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.BINFLOAT;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.BINGET;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.BININT;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.BININT1;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.BININT2;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.BINPERSID;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.BINPUT;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.BINUNICODE;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.BUILD;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.BYTEARRAY8;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.DICT;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.EMPTY_DICT;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.EMPTY_LIST;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.EMPTY_SET;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.EMPTY_TUPLE;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.EXT1;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.EXT2;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.EXT4;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.FLOAT;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.FRAME;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.FRAME_HEADER_SIZE;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.FRAME_SIZE_MIN;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.FRAME_SIZE_TARGET;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.FROZENSET;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.GET;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.GLOBAL;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.INT;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.LIST;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.LONG;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.LONG1;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.LONG4;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.LONG_BINGET;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.LONG_BINPUT;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.MARK;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.MEMOIZE;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.NEWFALSE;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.NEWOBJ;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.NEWOBJ_EX;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.NEWTRUE;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.NEXT_BUFFER;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.NONE;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.PERSID;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.POP;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.POP_MARK;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.PROTO;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.PUT;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.READONLY_BUFFER;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.REDUCE;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.SETITEM;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.SETITEMS;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.SHORT_BINBYTES;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.SHORT_BINUNICODE;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.STACK_GLOBAL;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.STOP;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.TUPLE;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.TUPLE1;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.TUPLE2;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.T_CODECS;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.T_COMPAT_PICKLE;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.T_COPYREG;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.T_DISPATCH_TABLE;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.T_EXTENSION_REGISTRY;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.T_FUNCTOOLS;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.T_LATIN1;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.T_PARTIAL;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.T_REVERSE_IMPORT_MAPPING;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.T_REVERSE_NAME_MAPPING;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.UNICODE;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.containsLocals;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.getDeepAttribute;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.getModuleAttribute;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.importModule;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.isInstanceOf;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.lookupMapping;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.repr;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.splitDottedPath;
+import static com.oracle.graal.python.nodes.BuiltinNames.T_ENCODE;
+import static com.oracle.graal.python.nodes.BuiltinNames.T_GETATTR;
+import static com.oracle.graal.python.nodes.BuiltinNames.T___MAIN__;
+import static com.oracle.graal.python.nodes.SpecialAttributeNames.T___CLASS__;
+import static com.oracle.graal.python.nodes.SpecialAttributeNames.T___MODULE__;
+import static com.oracle.graal.python.nodes.SpecialAttributeNames.T___NAME__;
+import static com.oracle.graal.python.nodes.SpecialAttributeNames.T___QUALNAME__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.T_ITEMS;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.T___NEW__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.T___NEXT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.T___REDUCE_EX__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.T___REDUCE__;
+import static com.oracle.graal.python.util.PythonUtils.TS_ENCODING;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.PNotImplemented;
+import com.oracle.graal.python.builtins.objects.buffer.PythonBufferAccessLibrary;
+import com.oracle.graal.python.builtins.objects.common.EmptyStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes.HashingStorageGetIterator;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes.HashingStorageIterator;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes.HashingStorageIteratorKey;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes.HashingStorageIteratorNext;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes.HashingStorageIteratorValue;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes.HashingStorageLen;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes.HashingStorageSetItem;
+import com.oracle.graal.python.builtins.objects.common.PHashingCollection;
+import com.oracle.graal.python.builtins.objects.common.SequenceNodesFactory.GetObjectArrayNodeGen;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.ellipsis.PEllipsis;
+import com.oracle.graal.python.builtins.objects.floats.PFloat;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.memoryview.PMemoryView;
+import com.oracle.graal.python.builtins.objects.object.ObjectNodesFactory.GetIdNodeGen;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.builtins.objects.type.TypeNodes.IsSameTypeNode;
+import com.oracle.graal.python.builtins.objects.type.TypeNodes.IsTypeNode;
+import com.oracle.graal.python.lib.PyCallableCheckNode;
+import com.oracle.graal.python.lib.PyIterNextNode;
+import com.oracle.graal.python.lib.PyNumberAsSizeNode;
+import com.oracle.graal.python.lib.PyObjectCallMethodObjArgs;
+import com.oracle.graal.python.lib.PyObjectGetAttr;
+import com.oracle.graal.python.lib.PyObjectGetItem;
+import com.oracle.graal.python.lib.PyObjectGetIter;
+import com.oracle.graal.python.lib.PyObjectIsTrueNode;
+import com.oracle.graal.python.lib.PyObjectLookupAttr;
+import com.oracle.graal.python.lib.PyObjectStrAsTruffleStringNode;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.PRaiseNode;
+import com.oracle.graal.python.nodes.attributes.LookupAttributeInMRONode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.classes.IsSubtypeNode;
+import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.object.IsNode;
+import com.oracle.graal.python.nodes.util.CannotCastException;
+import com.oracle.graal.python.nodes.util.CastToTruffleStringNode;
+import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.strings.InternalByteArray;
+import com.oracle.truffle.api.strings.TruffleString;
+import com.oracle.truffle.api.strings.TruffleString.CodeRange;
+import com.oracle.truffle.api.strings.TruffleString.Encoding;
+
+/**
+ * The pickling engine behind {@code _pickle.Pickler}, {@code _pickle.dump} and
+ * {@code _pickle.dumps}. It follows the structure of {@code _pickle.c}: the output goes into a
+ * growable byte array which is framed for protocol 4 and newer and, when pickling to a file, handed
+ * to the file's {@code write} method whenever a frame is complete. Payloads larger than a frame
+ * bypass the buffer. The memo is keyed by object identity.
+ *
+ * All methods run behind a {@link TruffleBoundary} and use uncached nodes; callers are expected to
+ * set up an indirect call context.
+ */
+final class PickleWriter {
+
+    private static final int FAST_NESTING_LIMIT = 50;
+
+    private int proto;
+    private boolean bin;
+    private boolean fixImports;
+    private boolean initialized;
+    private Object write;
+    private Object bufferCallback;
+    private Object persistentId;
+    private Object dispatchTable;
+    private Object reducerOverride;
+    private boolean fast;
+    private int fastNesting;
+    private IdentityHashMap<Object, Object> fastMemo;
+
+    private final IdentityHashMap<Object, Integer> memo = new IdentityHashMap<>();
+
+    private byte[] output = new byte[4096];
+    private int outputLen;
+    private boolean framing;
+    private int frameStart = -1;
+    private final byte[] header = new byte[9];
+
+    private int depth;
+    private int recursionLimit;
+
+    // lazily initialized module state
+    private Object copyregDispatchTable;
+    private PDict extensionRegistry;
+    private Object reverseNameMapping;
+    private Object reverseImportMapping;
+
+    @TruffleBoundary
+    void init(int protocol, boolean fixImportsArg, Object writeMethod, Object bufferCallbackArg) {
+        this.proto = protocol;
+        this.bin = protocol > 0;
+        this.fixImports = fixImportsArg && protocol < 3;
+        this.write = writeMethod;
+        this.bufferCallback = bufferCallbackArg;
+        this.fast = false;
+        this.fastNesting = 0;
+        this.fastMemo = null;
+        this.memo.clear();
+        this.initialized = true;
+    }
+
+    boolean isInitialized() {
+        return initialized;
+    }
+
+    Object getPersistentId() {
+        return persistentId;
+    }
+
+    void setPersistentId(Object persistentId) {
+        this.persistentId = persistentId;
+    }
+
+    Object getDispatchTable() {
+        return dispatchTable;
+    }
+
+    void setDispatchTable(Object dispatchTable) {
+        this.dispatchTable = dispatchTable;
+    }
+
+    boolean isFast() {
+        return fast;
+    }
+
+    void setFast(boolean fast) {
+        this.fast = fast;
+    }
+
+    @TruffleBoundary
+    void clearMemo() {
+        memo.clear();
+    }
+
+    /**
+     * Creates the dict returned by {@code PicklerMemoProxy.copy()}, mapping {@code id(obj)} to
+     * {@code (idx, obj)}.
+     */
+    @TruffleBoundary
+    PDict copyMemo() {
+        PythonObjectFactory factory = PythonObjectFactory.getUncached();
+        HashingStorage storage = EmptyStorage.INSTANCE;
+        for (Map.Entry<Object, Integer> entry : memo.entrySet()) {
+            Object id = GetIdNodeGen.getUncached().execute(entry.getKey());
+            storage = HashingStorageSetItem.executeUncached(storage, id, factory.createTuple(new Object[]{entry.getValue(), entry.getKey()}));
+        }
+        return factory.createDict(storage);
+    }
+
+    @TruffleBoundary
+    void setMemo(PickleWriter other) {
+        IdentityHashMap<Object, Integer> newMemo = new IdentityHashMap<>(other.memo);
+        memo.clear();
+        memo.putAll(newMemo);
+    }
+
+    /**
+     * Replaces the memo with the entries of a dict in the format created by {@link #copyMemo()}.
+     * The memo is left unchanged if the dict is malformed.
+     */
+    @TruffleBoundary
+    void setMemo(PDict dict) {
+        IdentityHashMap<Object, Integer> newMemo = new IdentityHashMap<>();
+        HashingStorage storage = dict.getDictStorage();
+        HashingStorageIterator it = HashingStorageGetIterator.executeUncached(storage);
+        while (HashingStorageIteratorNext.executeUncached(storage, it)) {
+            Object value = HashingStorageIteratorValue.executeUncached(storage, it);
+            if (!(value instanceof PTuple) || ((PTuple) value).getSequenceStorage().length() != 2) {
+                throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.TypeError, ErrorMessages.MEMO_VALUES_MUST_BE_2_ITEM_TUPLES);
+            }
+            SequenceStorage items = ((PTuple) value).getSequenceStorage();
+            SequenceStorageNodes.GetItemScalarNode getItem = SequenceStorageNodes.GetItemScalarNode.getUncached();
+            int idx = PyNumberAsSizeNode.getUncached().executeExact(null, getItem.execute(items, 0));
+            newMemo.put(getItem.execute(items, 1), idx);
+        }
+        memo.clear();
+        memo.putAll(newMemo);
+    }
+
+    /**
+     * Pickles {@code obj}. The result is left in the output buffer; when pickling to a file it is
+     * flushed to the file before returning.
+     */
+    @TruffleBoundary
+    void dump(Object obj, Object reducerOverrideMethod) {
+        outputLen = 0;
+        frameStart = -1;
+        depth = 0;
+        recursionLimit = PythonContext.get(null).getSysModuleState().getRecursionLimit();
+        reducerOverride = reducerOverrideMethod;
+        try {
+            if (proto >= 2) {
+                int pos = reserve(2);
+                output[pos] = PROTO;
+                output[pos + 1] = (byte) proto;
+                if (proto >= 4) {
+                    framing = true;
+                }
+            }
+            save(obj, false);
+            writeByte(STOP);
+            commitFrame();
+        } finally {
+            framing = false;
+            reducerOverride = null;
+        }
+        if (write != null) {
+            flushToFile();
+        }
+    }
+
+    /**
+     * Implements {@code _pickle.dump}.
+     */
+    @TruffleBoundary
+    static void dump(Object obj, Object write, int protocol, boolean fixImports, Object bufferCallback) {
+        PickleWriter writer = new PickleWriter();
+        writer.init(protocol, fixImports, write, bufferCallback);
+        writer.dump(obj, null);
+    }
+
+    /**
+     * Implements {@code _pickle.dumps}. The output buffer is handed over to the resulting bytes
+     * object without copying.
+     */
+    @TruffleBoundary
+    static Object dumps(Object obj, int protocol, boolean fixImports, Object bufferCallback, PythonObjectFactory factory) {
+        PickleWriter writer = new PickleWriter();
+        writer.init(protocol, fixImports, null, bufferCallback);
+        writer.dump(obj, null);
+        return factory.createBytes(writer.output, writer.outputLen);
+    }
+
+    // output buffer
+
+    private int reserve(int n) {
+        boolean needNewFrame = framing && frameStart == -1;
+        int required = outputLen + n + (needNewFrame ? FRAME_HEADER_SIZE : 0);
+        if (required > output.length) {
+            output = Arrays.copyOf(output, Math.max(required, output.length + (output.length >> 1)));
+        }
+        if (needNewFrame) {
+            frameStart = outputLen;
+            outputLen += FRAME_HEADER_SIZE;
+        }
+        int pos = outputLen;
+        outputLen += n;
+        return pos;
+    }
+
+    private void writeByte(byte b) {
+        output[reserve(1)] = b;
+    }
+
+    private void writeBytes(byte[] data, int offset, int length) {
+        System.arraycopy(data, offset, output, reserve(length), length);
+    }
+
+    private void writeOpcodeWithByte(byte opcode, int value) {
+        int pos = reserve(2);
+        output[pos] = opcode;
+        output[pos + 1] = (byte) value;
+    }
+
+    private void writeOpcodeWithShort(byte opcode, int value) {
+        int pos = reserve(3);
+        output[pos] = opcode;
+        output[pos + 1] = (byte) value;
+        output[pos + 2] = (byte) (value >> 8);
+    }
+
+    private void writeOpcodeWithInt(byte opcode, int value) {
+        int pos = reserve(5);
+        output[pos] = opcode;
+        putInt(output, pos + 1, value);
+    }
+
+    private void writeOpcodeWithLine(byte opcode, String line) {
+        int len = line.length();
+        int pos = reserve(len + 2);
+        output[pos] = opcode;
+        for (int i = 0; i < len; i++) {
+            output[pos + 1 + i] = (byte) line.charAt(i);
+        }
+        output[pos + 1 + len] = '\n';
+    }
+
+    private static void putInt(byte[] dest, int pos, int value) {
+        dest[pos] = (byte) value;
+        dest[pos + 1] = (byte) (value >> 8);
+        dest[pos + 2] = (byte) (value >> 16);
+        dest[pos + 3] = (byte) (value >> 24);
+    }
+
+    private static void putLong(byte[] dest, int pos, long value) {
+        putInt(dest, pos, (int) value);
+        putInt(dest, pos + 4, (int) (value >> 32));
+    }
+
+    private void commitFrame() {
+        if (!framing || frameStart == -1) {
+            return;
+        }
+        int frameLen = outputLen - frameStart - FRAME_HEADER_SIZE;
+        if (frameLen >= FRAME_SIZE_MIN) {
+            output[frameStart] = FRAME;
+            putLong(output, frameStart + 1, frameLen);
+        } else {
+            System.arraycopy(output, frameStart + FRAME_HEADER_SIZE, output, frameStart, frameLen);
+            outputLen -= FRAME_HEADER_SIZE;
+        }
+        frameStart = -1;
+    }
+
+    private void opcodeBoundary() {
+        if (!framing) {
+            // protocols without framing are streamed to the file in chunks of the same size
+            if (write != null && outputLen >= FRAME_SIZE_TARGET) {
+                flushToFile();
+            }
+            return;
+        }
+        if (frameStart == -1) {
+            return;
+        }
+        int frameLen = outputLen - frameStart - FRAME_HEADER_SIZE;
+        if (frameLen >= FRAME_SIZE_TARGET) {
+            commitFrame();
+            if (write != null) {
+                // stream the finished frame and reuse the buffer for the next one
+                flushToFile();
+            }
+        }
+    }
+
+    private void flushToFile() {
+        CallNode.getUncached().execute(write, PythonObjectFactory.getUncached().createBytes(Arrays.copyOf(output, outputLen)));
+        outputLen = 0;
+        frameStart = -1;
+    }
+
+    /**
+     * Writes an opcode header followed by a payload. Payloads of at least a frame's size are not
+     * framed and, when pickling to a file, are passed to {@code write} directly instead of being
+     * copied into the buffer. {@code payloadObject} is a bytes-like object holding exactly the
+     * payload or {@code null}.
+     */
+    private void writeWithPayload(int headerLen, byte[] data, int offset, int length, Object payloadObject) {
+        boolean bypassBuffer = length >= FRAME_SIZE_TARGET;
+        boolean wasFraming = framing;
+        if (bypassBuffer) {
+            commitFrame();
+            framing = false;
+        }
+        writeBytes(header, 0, headerLen);
+        if (bypassBuffer && write != null) {
+            flushToFile();
+            Object payload = payloadObject;
+            if (payload == null) {
+                payload = PythonObjectFactory.getUncached().createBytes(Arrays.copyOfRange(data, offset, offset + length));
+            }
+            CallNode.getUncached().execute(write, payload);
+        } else {
+            writeBytes(data, offset, length);
+        }
+        framing = wasFraming;
+    }
+
+    private int sizedHeader(byte shortOpcode, byte opcode, int length, boolean allowShort) {
+        if (allowShort && length <= 0xff) {
+            header[0] = shortOpcode;
+            header[1] = (byte) length;
+            return 2;
+        }
+        header[0] = opcode;
+        putInt(header, 1, length);
+        return 5;
+    }
+
+    // memo
+
+    private void memoPut(Object obj) {
+        if (fast) {
+            return;
+        }
+        int idx = memo.size();
+        memo.put(obj, idx);
+        if (proto >= 4) {
+            writeByte(MEMOIZE);
+        } else if (!bin) {
+            writeOpcodeWithLine(PUT, Integer.toString(idx));
+        } else if (idx < 256) {
+            writeOpcodeWithByte(BINPUT, idx);
+        } else {
+            writeOpcodeWithInt(LONG_BINPUT, idx);
+        }
+    }
+
+    private void memoGet(int idx) {
+        if (!bin) {
+            writeOpcodeWithLine(GET, Integer.toString(idx));
+        } else if (idx < 256) {
+            writeOpcodeWithByte(BINGET, idx);
+        } else {
+            writeOpcodeWithInt(LONG_BINGET, idx);
+        }
+    }
+
+    private void fastSaveEnter(Object obj) {
+        if (++fastNesting >= FAST_NESTING_LIMIT) {
+            if (fastMemo == null) {
+                fastMemo = new IdentityHashMap<>();
+            }
+            if (fastMemo.containsKey(obj)) {
+                fastNesting = -1;
+                throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.ValueError, ErrorMessages.FAST_MODE_CANT_PICKLE_CYCLIC_OBJECTS, obj);
+            }
+            fastMemo.put(obj, obj);
+        }
+    }
+
+    private void fastSaveLeave(Object obj) {
+        if (fastNesting-- >= FAST_NESTING_LIMIT) {
+            fastMemo.remove(obj);
+        }
+    }
+
+    // dispatch
+
+    private static boolean isBuiltinType(Object type, PythonBuiltinClassType builtinType) {
+        return IsBuiltinClassProfile.profileClassSlowPath(type, builtinType);
+    }
+
+    private static Object call(Object callable, Object... args) {
+        return CallNode.getUncached().execute(callable, args);
+    }
+
+    private static Object lookupAttr(Object obj, TruffleString name) {
+        return PyObjectLookupAttr.getUncached().execute(null, obj, name);
+    }
+
+    private static TruffleString castToString(Object obj) {
+        try {
+            return CastToTruffleStringNode.getUncached().execute(obj);
+        } catch (CannotCastException e) {
+            throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.TypeError, ErrorMessages.MUST_BE_STR_NOT_P, obj);
+        }
+    }
+
+    private static Object builtinType(PythonBuiltinClassType type) {
+        return PythonContext.get(null).lookupType(type);
+    }
+
+    private static PTuple tuple(Object... items) {
+        return PythonObjectFactory.getUncached().createTuple(items);
+    }
+
+    private void save(Object obj, boolean persSave) {
+        opcodeBoundary();
+        if (!persSave && persistentId != null && savePers(obj)) {
+            return;
+        }
+        Object type = GetClassNode.getUncached().execute(obj);
+        // atoms are never memoized
+        if (obj == PNone.NONE) {
+            writeByte(NONE);
+            return;
+        } else if (isBuiltinType(type, PythonBuiltinClassType.Boolean)) {
+            saveBool(obj);
+            return;
+        } else if (isBuiltinType(type, PythonBuiltinClassType.PInt)) {
+            saveLong(obj);
+            return;
+        } else if (isBuiltinType(type, PythonBuiltinClassType.PFloat)) {
+            saveFloat(obj);
+            return;
+        }
+        Integer memoIdx = memo.get(obj);
+        if (memoIdx != null) {
+            memoGet(memoIdx);
+            return;
+        }
+        if (isBuiltinType(type, PythonBuiltinClassType.PBytes)) {
+            saveBytes(obj);
+            return;
+        } else if (isBuiltinType(type, PythonBuiltinClassType.PString)) {
+            saveUnicode(obj);
+            return;
+        }
+        if (++depth > recursionLimit) {
+            throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.RecursionError, ErrorMessages.MAXIMUM_RECURSION_DEPTH_EXCEEDED_WHILE_PICKLING);
+        }
+        try {
+            saveObject(obj, type);
+        } finally {
+            depth--;
+        }
+    }
+
+    private void saveObject(Object obj, Object type) {
+        if (isBuiltinType(type, PythonBuiltinClassType.PDict)) {
+            saveDict((PDict) obj);
+            return;
+        } else if (isBuiltinType(type, PythonBuiltinClassType.PSet)) {
+            saveSet((PHashingCollection) obj);
+            return;
+        } else if (isBuiltinType(type, PythonBuiltinClassType.PFrozenSet)) {
+            saveFrozenSet((PHashingCollection) obj);
+            return;
+        } else if (isBuiltinType(type, PythonBuiltinClassType.PList)) {
+            saveList((PList) obj);
+            return;
+        } else if (isBuiltinType(type, PythonBuiltinClassType.PTuple)) {
+            saveTuple((PTuple) obj);
+            return;
+        } else if (isBuiltinType(type, PythonBuiltinClassType.PByteArray)) {
+            saveByteArray(obj);
+            return;
+        } else if (isBuiltinType(type, PythonBuiltinClassType.PickleBuffer)) {
+            savePickleBuffer((PPickleBuffer) obj);
+            return;
+        }
+
+        Object reduceValue = null;
+        if (reducerOverride != null) {
+            reduceValue = call(reducerOverride, obj);
+            if (reduceValue == PNotImplemented.NOT_IMPLEMENTED) {
+                reduceValue = null;
+            }
+        }
+        if (reduceValue == null) {
+            if (isBuiltinType(type, PythonBuiltinClassType.PythonClass)) {
+                saveType(obj);
+                return;
+            } else if (isBuiltinType(type, PythonBuiltinClassType.PFunction)) {
+                saveGlobal(obj, null);
+                return;
+            }
+            Object reduceFunc = lookupDispatchTable(type);
+            if (reduceFunc != null) {
+                reduceValue = call(reduceFunc, obj);
+            } else if (IsSubtypeNode.getUncached().execute(type, PythonBuiltinClassType.PythonClass)) {
+                saveGlobal(obj, null);
+                return;
+            } else {
+                reduceFunc = lookupAttr(obj, T___REDUCE_EX__);
+                if (reduceFunc != PNone.NO_VALUE) {
+                    reduceValue = call(reduceFunc, proto);
+                } else {
+                    reduceFunc = lookupAttr(obj, T___REDUCE__);
+                    if (reduceFunc == PNone.NO_VALUE) {
+                        throw PRaiseNode.getUncached().raise(PicklingError, ErrorMessages.CANT_PICKLE_P_OBJECT_S, obj, repr(obj));
+                    }
+                    reduceValue = call(reduceFunc);
+                }
+            }
+        }
+        if (PGuards.isString(reduceValue)) {
+            saveGlobal(obj, reduceValue);
+            return;
+        }
+        if (!(reduceValue instanceof PTuple)) {
+            throw PRaiseNode.getUncached().raise(PicklingError, ErrorMessages.REDUCE_MUST_RETURN_STRING_OR_TUPLE);
+        }
+        saveReduce(GetObjectArrayNodeGen.getUncached().execute(reduceValue), obj);
+    }
+
+    private Object lookupDispatchTable(Object type) {
+        Object table = dispatchTable;
+        if (table == null) {
+            if (copyregDispatchTable == null) {
+                copyregDispatchTable = getModuleAttribute(T_COPYREG, T_DISPATCH_TABLE);
+            }
+            table = copyregDispatchTable;
+        }
+        Object key = type instanceof PythonBuiltinClassType ? builtinType((PythonBuiltinClassType) type) : type;
+        if (table instanceof PDict) {
+            return ((PDict) table).getItem(key);
+        }
+        try {
+            return PyObjectGetItem.getUncached().execute(null, table, key);
+        } catch (PException e) {
+            if (isInstanceOf(e, PythonBuiltinClassType.KeyError)) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    private boolean savePers(Object obj) {
+        Object pid = call(persistentId, obj);
+        if (pid == PNone.NONE) {
+            return false;
+        }
+        if (bin) {
+            save(pid, true);
+            writeByte(BINPERSID);
+        } else {
+            TruffleString str = PyObjectStrAsTruffleStringNode.getUncached().execute(null, pid);
+            if (str.getCodeRangeUncached(TS_ENCODING) != CodeRange.ASCII) {
+                throw PRaiseNode.getUncached().raise(PicklingError, ErrorMessages.PERSISTENT_IDS_MUST_BE_ASCII);
+            }
+            writeOpcodeWithLine(PERSID, str.toJavaStringUncached());
+        }
+        return true;
+    }
+
+    // atoms
+
+    private void saveBool(Object obj) {
+        boolean value = obj instanceof Boolean ? (Boolean) obj : PyObjectIsTrueNode.getUncached().execute(null, obj);
+        if (proto >= 2) {
+            writeByte(value ? NEWTRUE : NEWFALSE);
+        } else {
+            writeOpcodeWithLine(INT, value ? "01" : "00");
+        }
+    }
+
+    private void saveLong(Object obj) {
+        BigInteger big = null;
+        long value;
+        if (obj instanceof Integer) {
+            value = (Integer) obj;
+        } else if (obj instanceof Long) {
+            value = (Long) obj;
+        } else {
+            big = ((PInt) obj).getValue();
+            value = big.bitLength() < 64 ? big.longValue() : Long.MIN_VALUE;
+        }
+        if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+            if (!bin) {
+                writeOpcodeWithLine(INT, Long.toString(value));
+            } else if (value >= 0 && value <= 0xff) {
+                writeOpcodeWithByte(BININT1, (int) value);
+            } else if (value >= 0 && value <= 0xffff) {
+                writeOpcodeWithShort(BININT2, (int) value);
+            } else {
+                writeOpcodeWithInt(BININT, (int) value);
+            }
+            return;
+        }
+        if (big == null) {
+            big = BigInteger.valueOf(value);
+        }
+        if (proto >= 2) {
+            // little-endian two's complement, using as few bytes as possible
+            byte[] bytes = big.toByteArray();
+            int n = bytes.length;
+            for (int i = 0, j = n - 1; i < j; i++, j--) {
+                byte tmp = bytes[i];
+                bytes[i] = bytes[j];
+                bytes[j] = tmp;
+            }
+            int pos;
+            if (n < 256) {
+                pos = reserve(n + 2);
+                output[pos] = LONG1;
+                output[pos + 1] = (byte) n;
+                pos += 2;
+            } else {
+                pos = reserve(n + 5);
+                output[pos] = LONG4;
+                putInt(output, pos + 1, n);
+                pos += 5;
+            }
+            System.arraycopy(bytes, 0, output, pos, n);
+        } else {
+            writeOpcodeWithLine(LONG, big.toString() + "L");
+        }
+    }
+
+    private void saveFloat(Object obj) {
+        double value = obj instanceof Double ? (Double) obj : ((PFloat) obj).getValue();
+        if (bin) {
+            int pos = reserve(9);
+            output[pos] = BINFLOAT;
+            long bits = Double.doubleToRawLongBits(value);
+            for (int i = 0; i < 8; i++) {
+                output[pos + 1 + i] = (byte) (bits >> (56 - 8 * i));
+            }
+        } else {
+            writeOpcodeWithLine(FLOAT, repr(value).toJavaStringUncached());
+        }
+    }
+
+    // bytes and strings
+
+    private void saveBytes(Object obj) {
+        PythonBufferAccessLibrary bufferLib = PythonBufferAccessLibrary.getUncached();
+        byte[] data = bufferLib.getInternalOrCopiedByteArray(obj);
+        int length = bufferLib.getBufferLength(obj);
+        if (proto < 3) {
+            // protocols < 3 have no bytes opcodes, they use codecs.encode(str, 'latin1')
+            if (length == 0) {
+                saveReduce(new Object[]{builtinType(PythonBuiltinClassType.PBytes), tuple()}, obj);
+            } else {
+                TruffleString latin1 = TruffleString.fromByteArrayUncached(data, 0, length, Encoding.ISO_8859_1, true).switchEncodingUncached(TS_ENCODING);
+                saveReduce(new Object[]{getModuleAttribute(T_CODECS, T_ENCODE), tuple(latin1, T_LATIN1)}, obj);
+            }
+            return;
+        }
+        saveBytesData(obj, data, length, obj);
+    }
+
+    private void saveBytesData(Object obj, byte[] data, int length, Object payloadObject) {
+        writeWithPayload(sizedHeader(SHORT_BINBYTES, BINBYTES, length, true), data, 0, length, payloadObject);
+        memoPut(obj);
+    }
+
+    private void saveByteArray(Object obj) {
+        PythonBufferAccessLibrary bufferLib = PythonBufferAccessLibrary.getUncached();
+        if (proto < 5) {
+            int length = bufferLib.getBufferLength(obj);
+            Object bytearrayType = builtinType(PythonBuiltinClassType.PByteArray);
+            if (length == 0) {
+                saveReduce(new Object[]{bytearrayType, tuple()}, obj);
+            } else {
+                saveReduce(new Object[]{bytearrayType, tuple(PythonObjectFactory.getUncached().createBytes(bufferLib.getCopiedByteArray(obj)))}, obj);
+            }
+            return;
+        }
+        saveByteArrayData(obj, bufferLib.getInternalOrCopiedByteArray(obj), bufferLib.getBufferLength(obj), obj);
+    }
+
+    private void saveByteArrayData(Object obj, byte[] data, int length, Object payloadObject) {
+        header[0] = BYTEARRAY8;
+        putLong(header, 1, length);
+        writeWithPayload(9, data, 0, length, payloadObject);
+        memoPut(obj);
+    }
+
+    private void savePickleBuffer(PPickleBuffer obj) {
+        if (proto < 5) {
+            throw PRaiseNode.getUncached().raise(PicklingError, ErrorMessages.PICKLE_BUFFER_NEEDS_PROTOCOL_5);
+        }
+        PMemoryView view = obj.getView();
+        if (view == null) {
+            throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.ValueError, ErrorMessages.PICKLE_BUFFER_RELEASED);
+        }
+        if (!view.isCContiguous() && !view.isFortranContiguous()) {
+            throw PRaiseNode.getUncached().raise(PicklingError, ErrorMessages.PICKLE_BUFFER_NON_CONTIGUOUS);
+        }
+        boolean inBand = true;
+        if (bufferCallback != null) {
+            inBand = PyObjectIsTrueNode.getUncached().execute(null, call(bufferCallback, obj));
+        }
+        if (inBand) {
+            PythonBufferAccessLibrary bufferLib = PythonBufferAccessLibrary.getUncached();
+            byte[] data = bufferLib.getInternalOrCopiedByteArray(view);
+            int length = bufferLib.getBufferLength(view);
+            if (view.isReadOnly()) {
+                saveBytesData(obj, data, length, null);
+            } else {
+                saveByteArrayData(obj, data, length, null);
+            }
+        } else {
+            writeByte(NEXT_BUFFER);
+            if (view.isReadOnly()) {
+                writeByte(READONLY_BUFFER);
+            }
+        }
+    }
+
+    private void saveUnicode(Object obj) {
+        TruffleString str = castToString(obj);
+        if (bin) {
+            byte[] data;
+            int offset;
+            int length;
+            if (str.isValidUncached(TS_ENCODING)) {
+                InternalByteArray utf8 = str.switchEncodingUncached(Encoding.UTF_8).getInternalByteArrayUncached(Encoding.UTF_8);
+                data = utf8.getArray();
+                offset = utf8.getOffset();
+                length = utf8.getLength();
+            } else {
+                data = encodeUtf8SurrogatePass(str);
+                offset = 0;
+                length = data.length;
+            }
+            writeWithPayload(sizedHeader(SHORT_BINUNICODE, BINUNICODE, length, proto >= 4), data, offset, length, null);
+        } else {
+            byte[] data = rawUnicodeEscape(str);
+            int pos = reserve(data.length + 2);
+            output[pos] = UNICODE;
+            System.arraycopy(data, 0, output, pos + 1, data.length);
+            output[pos + 1 + data.length] = '\n';
+        }
+        memoPut(obj);
+    }
+
+    /**
+     * UTF-8 encoding with the {@code surrogatepass} error handler, i.e., lone surrogates are
+     * encoded like any other code point.
+     */
+    private static byte[] encodeUtf8SurrogatePass(TruffleString str) {
+        int len = str.codePointLengthUncached(TS_ENCODING);
+        byte[] result = new byte[len * 4];
+        int pos = 0;
+        for (int i = 0; i < len; i++) {
+            int cp = str.codePointAtIndexUncached(i, TS_ENCODING);
+            if (cp < 0x80) {
+                result[pos++] = (byte) cp;
+            } else if (cp < 0x800) {
+                result[pos++] = (byte) (0xc0 | (cp >> 6));
+                result[pos++] = (byte) (0x80 | (cp & 0x3f));
+            } else if (cp < 0x10000) {
+                result[pos++] = (byte) (0xe0 | (cp >> 12));
+                result[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+                result[pos++] = (byte) (0x80 | (cp & 0x3f));
+            } else {
+                result[pos++] = (byte) (0xf0 | (cp >> 18));
+                result[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+                result[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+                result[pos++] = (byte) (0x80 | (cp & 0x3f));
+            }
+        }
+        return Arrays.copyOf(result, pos);
+    }
+
+    /**
+     * The {@code raw-unicode-escape} encoding used by protocol 0, which additionally escapes the
+     * characters that would break the line-oriented format.
+     */
+    private static byte[] rawUnicodeEscape(TruffleString str) {
+        int len = str.codePointLengthUncached(TS_ENCODING);
+        StringBuilder sb = new StringBuilder(len);
+        for (int i = 0; i < len; i++) {
+            int cp = str.codePointAtIndexUncached(i, TS_ENCODING);
+            if (cp >= 0x10000) {
+                sb.append(String.format("\\U%08x", cp));
+            } else if (cp >= 256 || cp == '\\' || cp == 0 || cp == '\n' || cp == '\r' || cp == 0x1a) {
+                sb.append(String.format("\\u%04x", cp));
+            } else {
+                sb.append((char) cp);
+            }
+        }
+        byte[] result = new byte[sb.length()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = (byte) sb.charAt(i);
+        }
+        return result;
+    }
+
+    // containers
+
+    private void saveTuple(PTuple obj) {
+        Object[] items = GetObjectArrayNodeGen.getUncached().execute(obj);
+        int len = items.length;
+        if (len == 0) {
+            if (proto > 0) {
+                writeByte(EMPTY_TUPLE);
+            } else {
+                writeByte(MARK);
+                writeByte(TUPLE);
+            }
+            return;
+        }
+        if (len <= 3 && proto >= 2) {
+            for (Object item : items) {
+                save(item, false);
+            }
+            Integer memoIdx = memo.get(obj);
+            if (memoIdx != null) {
+                // the tuple is recursive, it was memoized while saving its elements
+                for (int i = 0; i < len; i++) {
+                    writeByte(POP);
+                }
+                memoGet(memoIdx);
+                return;
+            }
+            writeByte((byte) (TUPLE1 + len - 1));
+            memoPut(obj);
+            return;
+        }
+        writeByte(MARK);
+        for (Object item : items) {
+            save(item, false);
+        }
+        Integer memoIdx = memo.get(obj);
+        if (memoIdx != null) {
+            if (bin) {
+                writeByte(POP_MARK);
+            } else {
+                for (int i = 0; i <= len; i++) {
+                    writeByte(POP);
+                }
+            }
+            memoGet(memoIdx);
+            return;
+        }
+        writeByte(TUPLE);
+        memoPut(obj);
+    }
+
+    private void saveList(PList obj) {
+        if (fast) {
+            fastSaveEnter(obj);
+        }
+        if (bin) {
+            writeByte(EMPTY_LIST);
+        } else {
+            writeByte(MARK);
+            writeByte(LIST);
+        }
+        memoPut(obj);
+        if (obj.getSequenceStorage().length() != 0) {
+            if (bin) {
+                batchListExact(obj);
+            } else {
+                batchAppends(PyObjectGetIter.getUncached().execute(null, obj));
+            }
+        }
+        if (fast) {
+            fastSaveLeave(obj);
+        }
+    }
+
+    private void batchListExact(PList obj) {
+        SequenceStorageNodes.GetItemScalarNode getItem = SequenceStorageNodes.GetItemScalarNode.getUncached();
+        SequenceStorage storage = obj.getSequenceStorage();
+        if (storage.length() == 1) {
+            save(getItem.execute(storage, 0), false);
+            writeByte(APPEND);
+            return;
+        }
+        // the list may change while its items are saved, so re-read the storage every time
+        int total = 0;
+        do {
+            int thisBatch = 0;
+            writeByte(MARK);
+            while (total < (storage = obj.getSequenceStorage()).length()) {
+                save(getItem.execute(storage, total), false);
+                total++;
+                if (++thisBatch == BATCHSIZE) {
+                    break;
+                }
+            }
+            writeByte(APPENDS);
+        } while (total < obj.getSequenceStorage().length());
+    }
+
+    private void batchAppends(Object iterator) {
+        PyIterNextNode next = PyIterNextNode.getUncached();
+        if (!bin) {
+            Object item;
+            while ((item = next.execute(null, iterator)) != null) {
+                save(item, false);
+                writeByte(APPEND);
+            }
+            return;
+        }
+        int n;
+        do {
+            Object first = next.execute(null, iterator);
+            if (first == null) {
+                break;
+            }
+            Object item = next.execute(null, iterator);
+            if (item == null) {
+                save(first, false);
+                writeByte(APPEND);
+                break;
+            }
+            writeByte(MARK);
+            save(first, false);
+            n = 1;
+            while (item != null) {
+                save(item, false);
+                if (++n == BATCHSIZE) {
+                    break;
+                }
+                item = next.execute(null, iterator);
+            }
+            writeByte(APPENDS);
+        } while (n == BATCHSIZE);
+    }
+
+    private void saveDict(PDict obj) {
+        if (fast) {
+            fastSaveEnter(obj);
+        }
+        if (bin) {
+            writeByte(EMPTY_DICT);
+        } else {
+            writeByte(MARK);
+            writeByte(DICT);
+        }
+        memoPut(obj);
+        if (HashingStorageLen.executeUncached(obj.getDictStorage()) != 0) {
+            if (bin) {
+                batchDictExact(obj);
+            } else {
+                Object items = PyObjectCallMethodObjArgs.getUncached().execute(null, obj, T_ITEMS);
+                batchSetItems(PyObjectGetIter.getUncached().execute(null, items));
+            }
+        }
+        if (fast) {
+            fastSaveLeave(obj);
+        }
+    }
+
+    private void batchDictExact(PDict obj) {
+        HashingStorage storage = obj.getDictStorage();
+        int size = HashingStorageLen.executeUncached(storage);
+        HashingStorageIterator it = HashingStorageGetIterator.executeUncached(storage);
+        if (size == 1) {
+            HashingStorageIteratorNext.executeUncached(storage, it);
+            save(HashingStorageIteratorKey.executeUncached(storage, it), false);
+            save(HashingStorageIteratorValue.executeUncached(storage, it), false);
+            writeByte(SETITEM);
+            return;
+        }
+        /*
+         * Saving the items may run arbitrary code, so each batch is taken out of the storage before
+         * it is saved and a change of the dict is detected between batches.
+         */
+        Object[] batch = new Object[Math.min(size, BATCHSIZE) * 2];
+        int n;
+        do {
+            n = 0;
+            while (n < BATCHSIZE && HashingStorageIteratorNext.executeUncached(storage, it)) {
+                batch[2 * n] = HashingStorageIteratorKey.executeUncached(storage, it);
+                batch[2 * n + 1] = HashingStorageIteratorValue.executeUncached(storage, it);
+                n++;
+            }
+            if (n == 0) {
+                break;
+            }
+            writeByte(MARK);
+            for (int i = 0; i < 2 * n; i++) {
+                save(batch[i], false);
+            }
+            writeByte(SETITEMS);
+            if (obj.getDictStorage() != storage || HashingStorageLen.executeUncached(storage) != size) {
+                throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.RuntimeError, ErrorMessages.CHANGED_SIZE_DURING_ITERATION, "dictionary");
+            }
+        } while (n == BATCHSIZE);
+    }
+
+    private void batchSetItems(Object iterator) {
+        PyIterNextNode next = PyIterNextNode.getUncached();
+        if (!bin) {
+            Object item;
+            while ((item = next.execute(null, iterator)) != null) {
+                Object[] pair = checkItemPair(item);
+                save(pair[0], false);
+                save(pair[1], false);
+                writeByte(SETITEM);
+            }
+            return;
+        }
+        int n;
+        do {
+            Object first = next.execute(null, iterator);
+            if (first == null) {
+                break;
+            }
+            Object[] pair = checkItemPair(first);
+            Object item = next.execute(null, iterator);
+            if (item == null) {
+                save(pair[0], false);
+                save(pair[1], false);
+                writeByte(SETITEM);
+                break;
+            }
+            writeByte(MARK);
+            save(pair[0], false);
+            save(pair[1], false);
+            n = 1;
+            while (item != null) {
+                pair = checkItemPair(item);
+                save(pair[0], false);
+                save(pair[1], false);
+                if (++n == BATCHSIZE) {
+                    break;
+                }
+                item = next.execute(null, iterator);
+            }
+            writeByte(SETITEMS);
+        } while (n == BATCHSIZE);
+    }
+
+    private static Object[] checkItemPair(Object item) {
+        if (item instanceof PTuple) {
+            Object[] pair = GetObjectArrayNodeGen.getUncached().execute(item);
+            if (pair.length == 2) {
+                return pair;
+            }
+        }
+        throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.TypeError, ErrorMessages.DICT_ITEMS_ITERATOR_MUST_RETURN_2_TUPLES);
+    }
+
+    private static Object[] setItems(HashingStorage storage) {
+        ArrayList<Object> items = new ArrayList<>(HashingStorageLen.executeUncached(storage));
+        HashingStorageIterator it = HashingStorageGetIterator.executeUncached(storage);
+        while (HashingStorageIteratorNext.executeUncached(storage, it)) {
+            items.add(HashingStorageIteratorKey.executeUncached(storage, it));
+        }
+        return items.toArray();
+    }
+
+    private void saveSet(PHashingCollection obj) {
+        if (proto < 4) {
+            Object items = PythonObjectFactory.getUncached().createList(setItems(obj.getDictStorage()));
+            saveReduce(new Object[]{builtinType(PythonBuiltinClassType.PSet), tuple(items)}, obj);
+            return;
+        }
+        writeByte(EMPTY_SET);
+        memoPut(obj);
+        HashingStorage storage = obj.getDictStorage();
+        int size = HashingStorageLen.executeUncached(storage);
+        if (size == 0) {
+            return;
+        }
+        HashingStorageIterator it = HashingStorageGetIterator.executeUncached(storage);
+        Object[] batch = new Object[Math.min(size, BATCHSIZE)];
+        int n;
+        do {
+            n = 0;
+            while (n < BATCHSIZE && HashingStorageIteratorNext.executeUncached(storage, it)) {
+                batch[n++] = HashingStorageIteratorKey.executeUncached(storage, it);
+            }
+            if (n == 0) {
+                break;
+            }
+            writeByte(MARK);
+            for (int i = 0; i < n; i++) {
+                save(batch[i], false);
+            }
+            writeByte(ADDITEMS);
+            if (obj.getDictStorage() != storage || HashingStorageLen.executeUncached(storage) != size) {
+                throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.RuntimeError, ErrorMessages.CHANGED_SIZE_DURING_ITERATION, "set");
+            }
+        } while (n == BATCHSIZE);
+    }
+
+    private void saveFrozenSet(PHashingCollection obj) {
+        Object[] items = setItems(obj.getDictStorage());
+        if (proto < 4) {
+            Object list = PythonObjectFactory.getUncached().createList(items);
+            saveReduce(new Object[]{builtinType(PythonBuiltinClassType.PFrozenSet), tuple(list)}, obj);
+            return;
+        }
+        writeByte(MARK);
+        for (Object item : items) {
+            save(item, false);
+        }
+        Integer memoIdx = memo.get(obj);
+        if (memoIdx != null) {
+            // the frozenset is recursive, it was memoized while saving its elements
+            writeByte(POP_MARK);
+            memoGet(memoIdx);
+            return;
+        }
+        writeByte(FROZENSET);
+        memoPut(obj);
+    }
+
+    // reduce protocol
+
+    private static boolean isIterator(Object obj) {
+        return LookupAttributeInMRONode.lookupSlowPath(GetClassNode.getUncached().execute(obj), T___NEXT__) != PNone.NO_VALUE;
+    }
+
+    private static Object noneToNull(Object[] items, int idx) {
+        return idx < items.length && items[idx] != PNone.NONE ? items[idx] : null;
+    }
+
+    private void saveReduce(Object[] reduceValue, Object obj) {
+        int size = reduceValue.length;
+        if (size < 2 || size > 6) {
+            throw PRaiseNode.getUncached().raise(PicklingError, ErrorMessages.REDUCE_TUPLE_MUST_CONTAIN_2_THROUGH_6);
+        }
+        Object callable = reduceValue[0];
+        Object argtup = reduceValue[1];
+        Object state = noneToNull(reduceValue, 2);
+        Object listitems = noneToNull(reduceValue, 3);
+        Object dictitems = noneToNull(reduceValue, 4);
+        Object stateSetter = noneToNull(reduceValue, 5);
+        PyCallableCheckNode callableCheck = PyCallableCheckNode.getUncached();
+        if (!callableCheck.execute(callable)) {
+            throw PRaiseNode.getUncached().raise(PicklingError, ErrorMessages.REDUCE_FIRST_ITEM_MUST_BE_CALLABLE);
+        }
+        if (!(argtup instanceof PTuple)) {
+            throw PRaiseNode.getUncached().raise(PicklingError, ErrorMessages.REDUCE_SECOND_ITEM_MUST_BE_TUPLE);
+        }
+        if (listitems != null && !isIterator(listitems)) {
+            throw PRaiseNode.getUncached().raise(PicklingError, ErrorMessages.REDUCE_S_ELEMENT_MUST_BE_ITERATOR_NOT_P, "fourth", listitems);
+        }
+        if (dictitems != null && !isIterator(dictitems)) {
+            throw PRaiseNode.getUncached().raise(PicklingError, ErrorMessages.REDUCE_S_ELEMENT_MUST_BE_ITERATOR_NOT_P, "fifth", dictitems);
+        }
+        if (stateSetter != null && !callableCheck.execute(stateSetter)) {
+            throw PRaiseNode.getUncached().raise(PicklingError, ErrorMessages.REDUCE_SIXTH_ELEMENT_MUST_BE_FUNCTION_NOT_P, stateSetter);
+        }
+
+        boolean useNewobj = false;
+        boolean useNewobjEx = false;
+        if (proto >= 2) {
+            Object name = lookupAttr(callable, T___NAME__);
+            if (PGuards.isString(name)) {
+                String jName = castToString(name).toJavaStringUncached();
+                useNewobjEx = "__newobj_ex__".equals(jName);
+                useNewobj = !useNewobjEx && "__newobj__".equals(jName);
+            }
+        }
+
+        Object[] args = GetObjectArrayNodeGen.getUncached().execute(argtup);
+        if (useNewobjEx) {
+            if (args.length != 3) {
+                throw PRaiseNode.getUncached().raise(PicklingError, ErrorMessages.NEWOBJ_EX_ARGS_LENGTH_MUST_BE_3, args.length);
+            }
+            Object cls = args[0];
+            if (!IsTypeNode.getUncached().execute(cls)) {
+                throw PRaiseNode.getUncached().raise(PicklingError, ErrorMessages.NEWOBJ_EX_S_ITEM_MUST_BE_S_NOT_P, "first", "a class", cls);
+            }
+            if (obj != null) {
+                Object objClass = lookupAttr(obj, T___CLASS__);
+                if (!IsSameTypeNode.getUncached().execute(objClass, cls)) {
+                    throw PRaiseNode.getUncached().raise(PicklingError, ErrorMessages.NEWOBJ_EX_FIRST_ITEM_MUST_BE_S_NOT_S, repr(objClass), repr(cls));
+                }
+            }
+            Object clsArgs = args[1];
+            if (!(clsArgs instanceof PTuple)) {
+                throw PRaiseNode.getUncached().raise(PicklingError, ErrorMessages.NEWOBJ_EX_S_ITEM_MUST_BE_S_NOT_P, "second", "a tuple", clsArgs);
+            }
+            Object kwargs = args[2];
+            if (!(kwargs instanceof PDict)) {
+                throw PRaiseNode.getUncached().raise(PicklingError, ErrorMessages.NEWOBJ_EX_S_ITEM_MUST_BE_S_NOT_P, "third", "a dict", kwargs);
+            }
+            if (proto >= 4) {
+                save(cls, false);
+                save(clsArgs, false);
+                save(kwargs, false);
+                writeByte(NEWOBJ_EX);
+            } else {
+                // functools.partial(cls.__new__, cls, *args, **kwargs)
+                Object[] clsArgsArray = GetObjectArrayNodeGen.getUncached().execute(clsArgs);
+                Object[] newArgs = new Object[clsArgsArray.length + 2];
+                newArgs[0] = PyObjectGetAttr.getUncached().execute(null, cls, T___NEW__);
+                newArgs[1] = cls;
+                System.arraycopy(clsArgsArray, 0, newArgs, 2, clsArgsArray.length);
+                Object partial = CallNode.getUncached().execute(getModuleAttribute(T_FUNCTOOLS, T_PARTIAL), newArgs, toKeywords((PDict) kwargs));
+                save(partial, false);
+                save(tuple(), false);
+                writeByte(REDUCE);
+            }
+        } else if (useNewobj) {
+            if (args.length < 1) {
+                throw PRaiseNode.getUncached().raise(PicklingError, ErrorMessages.NEWOBJ_ARGLIST_IS_EMPTY);
+            }
+            Object cls = args[0];
+            if (!IsTypeNode.getUncached().execute(cls)) {
+                throw PRaiseNode.getUncached().raise(PicklingError, ErrorMessages.NEWOBJ_ARGS_IS_NOT_A_TYPE);
+            }
+            if (obj != null && !IsSameTypeNode.getUncached().execute(lookupAttr(obj, T___CLASS__), cls)) {
+                throw PRaiseNode.getUncached().raise(PicklingError, ErrorMessages.NEWOBJ_ARGS_HAS_WRONG_CLASS);
+            }
+            save(cls, false);
+            save(tuple(Arrays.copyOfRange(args, 1, args.length)), false);
+            writeByte(NEWOBJ);
+        } else {
+            save(callable, false);
+            save(argtup, false);
+            writeByte(REDUCE);
+        }
+
+        if (obj != null) {
+            Integer memoIdx = memo.get(obj);
+            if (memoIdx != null) {
+                // the object is recursive, drop what was built and fetch it from the memo
+                writeByte(POP);
+                memoGet(memoIdx);
+                return;
+            }
+            memoPut(obj);
+        }
+        if (listitems != null) {
+            batchAppends(listitems);
+        }
+        if (dictitems != null) {
+            batchSetItems(dictitems);
+        }
+        if (state != null) {
+            if (stateSetter == null) {
+                save(state, false);
+                writeByte(BUILD);
+            } else {
+                // state_setter(obj, state) is called for its side effect, the result is dropped
+                save(stateSetter, false);
+                save(obj, false);
+                save(state, false);
+                writeByte(TUPLE2);
+                writeByte(REDUCE);
+                writeByte(POP);
+            }
+        }
+    }
+
+    private static PKeyword[] toKeywords(PDict kwargs) {
+        HashingStorage storage = kwargs.getDictStorage();
+        PKeyword[] keywords = new PKeyword[HashingStorageLen.executeUncached(storage)];
+        HashingStorageIterator it = HashingStorageGetIterator.executeUncached(storage);
+        int i = 0;
+        while (HashingStorageIteratorNext.executeUncached(storage, it)) {
+            keywords[i++] = new PKeyword(castToString(HashingStorageIteratorKey.executeUncached(storage, it)), HashingStorageIteratorValue.executeUncached(storage, it));
+        }
+        return keywords;
+    }
+
+    // globals
+
+    private void saveType(Object obj) {
+        IsSameTypeNode isSameType = IsSameTypeNode.getUncached();
+        if (isSameType.execute(obj, PythonBuiltinClassType.PNone)) {
+            saveSingletonType(obj, PNone.NONE);
+        } else if (isSameType.execute(obj, PythonBuiltinClassType.PNotImplemented)) {
+            saveSingletonType(obj, PNotImplemented.NOT_IMPLEMENTED);
+        } else if (isSameType.execute(obj, PythonBuiltinClassType.PEllipsis)) {
+            saveSingletonType(obj, PEllipsis.INSTANCE);
+        } else {
+            saveGlobal(obj, null);
+        }
+    }
+
+    private void saveSingletonType(Object obj, Object singleton) {
+        saveReduce(new Object[]{builtinType(PythonBuiltinClassType.PythonClass), tuple(singleton)}, obj);
+    }
+
+    private static Object whichModule(Object obj, TruffleString[] dottedPath) {
+        Object moduleName = lookupAttr(obj, T___MODULE__);
+        if (moduleName != PNone.NO_VALUE && moduleName != PNone.NONE) {
+            return moduleName;
+        }
+        // iterate over a snapshot, looking up the attributes may import further modules
+        HashingStorage modules = PythonContext.get(null).getSysModules().getDictStorage();
+        ArrayList<Object> names = new ArrayList<>();
+        ArrayList<Object> values = new ArrayList<>();
+        HashingStorageIterator it = HashingStorageGetIterator.executeUncached(modules);
+        while (HashingStorageIteratorNext.executeUncached(modules, it)) {
+            names.add(HashingStorageIteratorKey.executeUncached(modules, it));
+            values.add(HashingStorageIteratorValue.executeUncached(modules, it));
+        }
+        for (int i = 0; i < names.size(); i++) {
+            Object name = names.get(i);
+            Object module = values.get(i);
+            if (module == PNone.NONE || (PGuards.isString(name) && T___MAIN__.equalsUncached(castToString(name), TS_ENCODING))) {
+                continue;
+            }
+            Object candidate = getDeepAttribute(module, dottedPath, null);
+            if (candidate != null && IsNode.getUncached().execute(candidate, obj)) {
+                return name;
+            }
+        }
+        return T___MAIN__;
+    }
+
+    private void saveGlobal(Object obj, Object name) {
+        TruffleString globalName;
+        if (name != null) {
+            globalName = castToString(name);
+        } else {
+            Object qualname = lookupAttr(obj, T___QUALNAME__);
+            if (qualname == PNone.NO_VALUE) {
+                qualname = PyObjectGetAttr.getUncached().execute(null, obj, T___NAME__);
+            }
+            globalName = castToString(qualname);
+        }
+        TruffleString[] dottedPath = splitDottedPath(globalName);
+        if (containsLocals(dottedPath)) {
+            throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.AttributeError, ErrorMessages.CANT_PICKLE_LOCAL_OBJECT_S, repr(globalName));
+        }
+        Object moduleNameObj = whichModule(obj, dottedPath);
+        Object module;
+        TruffleString moduleName;
+        try {
+            moduleName = castToString(moduleNameObj);
+            module = importModule(moduleName);
+        } catch (PException e) {
+            throw PRaiseNode.getUncached().raise(PicklingError, ErrorMessages.CANT_PICKLE_S_IMPORT_OF_MODULE_S_FAILED, repr(obj), repr(moduleNameObj));
+        }
+        Object[] parentOut = new Object[1];
+        Object cls = getDeepAttribute(module, dottedPath, parentOut);
+        if (cls == null) {
+            throw PRaiseNode.getUncached().raise(PicklingError, ErrorMessages.CANT_PICKLE_S_ATTRIBUTE_LOOKUP_S_ON_S_FAILED, repr(obj), globalName, moduleName);
+        }
+        if (!IsNode.getUncached().execute(cls, obj)) {
+            throw PRaiseNode.getUncached().raise(PicklingError, ErrorMessages.CANT_PICKLE_S_NOT_SAME_OBJECT_AS_S_S, repr(obj), moduleName, globalName);
+        }
+        if (proto >= 2 && saveExtension(obj, moduleName, globalName)) {
+            return;
+        }
+        Object parent = parentOut[0];
+        TruffleString lastName = dottedPath[dottedPath.length - 1];
+        boolean parentIsModule = IsNode.getUncached().execute(parent, module);
+        if (parentIsModule) {
+            globalName = lastName;
+        }
+        if (proto >= 4) {
+            save(moduleName, false);
+            save(globalName, false);
+            writeByte(STACK_GLOBAL);
+        } else if (!parentIsModule) {
+            Object getattr = PythonContext.get(null).getBuiltins().getAttribute(T_GETATTR);
+            saveReduce(new Object[]{getattr, tuple(parent, lastName)}, null);
+        } else {
+            if (fixImports) {
+                TruffleString[] names = reverseMapNames(moduleName, globalName);
+                moduleName = names[0];
+                globalName = names[1];
+            }
+            writeByte(GLOBAL);
+            writeIdentifier(moduleName, "module");
+            writeIdentifier(globalName, "global");
+        }
+        memoPut(obj);
+    }
+
+    private boolean saveExtension(Object obj, TruffleString moduleName, TruffleString globalName) {
+        if (extensionRegistry == null) {
+            extensionRegistry = (PDict) getModuleAttribute(T_COPYREG, T_EXTENSION_REGISTRY);
+        }
+        if (HashingStorageLen.executeUncached(extensionRegistry.getDictStorage()) == 0) {
+            return false;
+        }
+        Object codeObj = extensionRegistry.getItem(tuple(moduleName, globalName));
+        if (codeObj == null) {
+            return false;
+        }
+        long code;
+        if (codeObj instanceof Integer) {
+            code = (Integer) codeObj;
+        } else if (codeObj instanceof Long) {
+            code = (Long) codeObj;
+        } else if (codeObj instanceof PInt) {
+            BigInteger value = ((PInt) codeObj).getValue();
+            code = value.bitLength() < 64 ? value.longValue() : -1;
+        } else {
+            throw PRaiseNode.getUncached().raise(PicklingError, ErrorMessages.CANT_PICKLE_S_EXTENSION_CODE_S_ISNT_INT, repr(obj), repr(codeObj));
+        }
+        if (code <= 0 || code > 0x7fffffffL) {
+            throw PRaiseNode.getUncached().raise(PicklingError, ErrorMessages.CANT_PICKLE_S_EXTENSION_CODE_D_OUT_OF_RANGE, repr(obj), code);
+        }
+        if (code <= 0xff) {
+            writeOpcodeWithByte(EXT1, (int) code);
+        } else if (code <= 0xffff) {
+            writeOpcodeWithShort(EXT2, (int) code);
+        } else {
+            writeOpcodeWithInt(EXT4, (int) code);
+        }
+        return true;
+    }
+
+    /**
+     * Maps Python 3 names back to the Python 2 ones, see {@code _compat_pickle}.
+     */
+    private TruffleString[] reverseMapNames(TruffleString moduleName, TruffleString globalName) {
+        if (reverseNameMapping == null) {
+            reverseNameMapping = getModuleAttribute(T_COMPAT_PICKLE, T_REVERSE_NAME_MAPPING);
+            reverseImportMapping = getModuleAttribute(T_COMPAT_PICKLE, T_REVERSE_IMPORT_MAPPING);
+        }
+        Object item = lookupMapping(reverseNameMapping, tuple(moduleName, globalName));
+        if (item != null) {
+            if (!(item instanceof PTuple) || GetObjectArrayNodeGen.getUncached().execute(item).length != 2) {
+                throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.RuntimeError, ErrorMessages.COMPAT_PICKLE_S_VALUES_SHOULD_BE_S_NOT_P, "REVERSE_NAME_MAPPING", "2-tuples", item);
+            }
+            Object[] pair = GetObjectArrayNodeGen.getUncached().execute(item);
+            if (!PGuards.isString(pair[0]) || !PGuards.isString(pair[1])) {
+                throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.RuntimeError, ErrorMessages.COMPAT_PICKLE_S_VALUES_SHOULD_BE_S_NOT_P, "REVERSE_NAME_MAPPING", "pairs of str", item);
+            }
+            return new TruffleString[]{castToString(pair[0]), castToString(pair[1])};
+        }
+        item = lookupMapping(reverseImportMapping, moduleName);
+        if (item != null) {
+            if (!PGuards.isString(item)) {
+                throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.RuntimeError, ErrorMessages.COMPAT_PICKLE_S_VALUES_SHOULD_BE_S_NOT_P, "REVERSE_IMPORT_MAPPING", "strings", item);
+            }
+            return new TruffleString[]{castToString(item), globalName};
+        }
+        return new TruffleString[]{moduleName, globalName};
+    }
+
+    /**
+     * Writes a line of the {@code GLOBAL} opcode. Protocol 3 allows UTF-8, older protocols are
+     * restricted to ASCII so that Python 2 can read them.
+     */
+    private void writeIdentifier(TruffleString name, String kind) {
+        boolean encodable = proto == 3 ? name.isValidUncached(TS_ENCODING) : name.getCodeRangeUncached(TS_ENCODING) == CodeRange.ASCII;
+        if (!encodable) {
+            throw PRaiseNode.getUncached().raise(PicklingError, ErrorMessages.CANT_PICKLE_S_IDENTIFIER_S_USING_PROTOCOL_D, kind, name, proto);
+        }
+        InternalByteArray bytes = name.switchEncodingUncached(Encoding.UTF_8).getInternalByteArrayUncached(Encoding.UTF_8);
+        writeBytes(bytes.getArray(), bytes.getOffset(), bytes.getLength());
+        writeByte((byte) '\n');
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules.pickle;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.AttributeError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.PicklingError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.TypeError;
+import static com.oracle.graal.python.builtins.modules.io.IONodes.T_WRITE;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.T_DISPATCH_TABLE;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.T_PERSISTENT_ID;
+import static com.oracle.graal.python.builtins.modules.pickle.PickleUtils.T_REDUCER_OVERRIDE;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.J___INIT__;
+
+import java.util.List;
+
+import com.oracle.graal.python.annotations.ArgumentClinic;
+import com.oracle.graal.python.annotations.ArgumentClinic.ClinicConversion;
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.lib.PyObjectIsTrueNode;
+import com.oracle.graal.python.lib.PyObjectLookupAttr;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonClinicBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.clinic.ArgumentClinicProvider;
+import com.oracle.graal.python.runtime.ExecutionContext.IndirectCallContext;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.Pickler)
+public final class PicklerBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return PicklerBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = J___INIT__, minNumOfPositionalArgs = 2, parameterNames = {"$self", "file", "protocol", "fix_imports", "buffer_callback"})
+    @ArgumentClinic(name = "protocol", conversion = ClinicConversion.Int, defaultValue = "PickleUtils.DEFAULT_PROTOCOL", useDefaultForNone = true)
+    @ArgumentClinic(name = "fix_imports", conversion = ClinicConversion.Boolean, defaultValue = "true")
+    @GenerateNodeFactory
+    abstract static class InitNode extends PythonClinicBuiltinNode {
+
+        @Override
+        protected ArgumentClinicProvider getArgumentClinic() {
+            return PicklerBuiltinsClinicProviders.InitNodeClinicProviderGen.INSTANCE;
+        }
+
+        @Specialization
+        Object init(VirtualFrame frame, PPickler self, Object file, int protocol, boolean fixImports, Object bufferCallback,
+                        @Cached PyObjectLookupAttr lookupAttr) {
+            int proto = PickleModuleBuiltins.checkProtocol(this, protocol);
+            Object write = lookupAttr.execute(frame, file, T_WRITE);
+            if (write == PNone.NO_VALUE) {
+                throw raise(TypeError, ErrorMessages.FILE_MUST_HAVE_WRITE_ATTR);
+            }
+            Object callback = PickleModuleBuiltins.checkBufferCallback(this, bufferCallback, proto);
+            PickleWriter writer = self.writer;
+            writer.init(proto, fixImports, write, callback);
+            // subclasses may provide persistent_id and dispatch_table as methods or class attributes
+            writer.setPersistentId(null);
+            writer.setDispatchTable(null);
+            Object persistentId = lookupAttr.execute(frame, self, T_PERSISTENT_ID);
+            writer.setPersistentId(persistentId == PNone.NO_VALUE ? null : persistentId);
+            Object dispatchTable = lookupAttr.execute(frame, self, T_DISPATCH_TABLE);
+            writer.setDispatchTable(dispatchTable == PNone.NO_VALUE ? null : dispatchTable);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "dump", minNumOfPositionalArgs = 2, parameterNames = {"$self", "obj"})
+    @GenerateNodeFactory
+    abstract static class DumpNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        Object dump(VirtualFrame frame, PPickler self, Object obj,
+                        @Cached PyObjectLookupAttr lookupReducerOverride) {
+            PickleWriter writer = self.writer;
+            if (!writer.isInitialized()) {
+                throw raise(PicklingError, ErrorMessages.S_INIT_WAS_NOT_CALLED_BY_P, "Pickler", self);
+            }
+            Object reducerOverride = lookupReducerOverride.execute(frame, self, T_REDUCER_OVERRIDE);
+            Object savedState = IndirectCallContext.enter(frame, this);
+            try {
+                writer.dump(obj, reducerOverride == PNone.NO_VALUE ? null : reducerOverride);
+            } finally {
+                IndirectCallContext.exit(frame, this, savedState);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "clear_memo", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ClearMemoNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        static Object clearMemo(PPickler self) {
+            self.writer.clearMemo();
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "persistent_id", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2, isGetter = true, isSetter = true)
+    @GenerateNodeFactory
+    abstract static class PersistentIdNode extends PythonBinaryBuiltinNode {
+
+        @Specialization(guards = "isNoValue(value)")
+        Object get(PPickler self, @SuppressWarnings("unused") Object value) {
+            Object persistentId = self.writer.getPersistentId();
+            if (persistentId == null) {
+                throw raise(AttributeError, ErrorMessages.OBJ_P_HAS_NO_ATTR_S, self, T_PERSISTENT_ID);
+            }
+            return persistentId;
+        }
+
+        @Specialization(guards = {"!isNoValue(value)", "!isDeleteMarker(value)"})
+        static Object set(PPickler self, Object value) {
+            self.writer.setPersistentId(value);
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "isDeleteMarker(value)")
+        static Object delete(PPickler self, @SuppressWarnings("unused") Object value) {
+            self.writer.setPersistentId(null);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "dispatch_table", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2, isGetter = true, isSetter = true)
+    @GenerateNodeFactory
+    abstract static class DispatchTableNode extends PythonBinaryBuiltinNode {
+
+        @Specialization(guards = "isNoValue(value)")
+        Object get(PPickler self, @SuppressWarnings("unused") Object value) {
+            Object dispatchTable = self.writer.getDispatchTable();
+            if (dispatchTable == null) {
+                throw raise(AttributeError, ErrorMessages.OBJ_P_HAS_NO_ATTR_S, self, T_DISPATCH_TABLE);
+            }
+            return dispatchTable;
+        }
+
+        @Specialization(guards = {"!isNoValue(value)", "!isDeleteMarker(value)"})
+        static Object set(PPickler self, Object value) {
+            self.writer.setDispatchTable(value);
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "isDeleteMarker(value)")
+        static Object delete(PPickler self, @SuppressWarnings("unused") Object value) {
+            self.writer.setDispatchTable(null);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "fast", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2, isGetter = true, isSetter = true)
+    @GenerateNodeFactory
+    abstract static class FastNode extends PythonBinaryBuiltinNode {
+
+        @Specialization(guards = "isNoValue(value)")
+        static Object get(PPickler self, @SuppressWarnings("unused") Object value) {
+            return self.writer.isFast();
+        }
+
+        @Specialization(guards = {"!isNoValue(value)", "!isDeleteMarker(value)"})
+        static Object set(VirtualFrame frame, PPickler self, Object value,
+                        @Cached PyObjectIsTrueNode isTrueNode) {
+            self.writer.setFast(isTrueNode.execute(frame, value));
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "isDeleteMarker(value)")
+        Object delete(@SuppressWarnings("unused") PPickler self, @SuppressWarnings("unused") Object value) {
+            throw raise(AttributeError, ErrorMessages.CANNOT_DELETE);
+        }
+    }
+
+    @Builtin(name = "memo", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2, isGetter = true, isSetter = true)
+    @GenerateNodeFactory
+    abstract static class MemoNode extends PythonBinaryBuiltinNode {
+
+        @Specialization(guards = "isNoValue(value)")
+        Object get(PPickler self, @SuppressWarnings("unused") Object value) {
+            return factory().createPicklerMemoProxy(self);
+        }
+
+        @Specialization
+        static Object setProxy(PPickler self, PPicklerMemoProxy value) {
+            self.writer.setMemo(value.getPickler().writer);
+            return PNone.NONE;
+        }
+
+        @Specialization
+        Object setDict(VirtualFrame frame, PPickler self, PDict value) {
+            Object savedState = IndirectCallContext.enter(frame, this);
+            try {
+                self.writer.setMemo(value);
+            } finally {
+                IndirectCallContext.exit(frame, this, savedState);
+            }
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "isDeleteMarker(value)")
+        Object delete(@SuppressWarnings("unused") PPickler self, @SuppressWarnings("unused") Object value) {
+            throw raise(TypeError, ErrorMessages.ATTRIBUTE_DELETION_IS_NOT_SUPPORTED);
+        }
+
+        @Fallback
+        Object setOther(@SuppressWarnings("unused") Object self, Object value) {
+            throw raise(TypeError, ErrorMessages.MEMO_ATTRIBUTE_MUST_BE_S_OR_DICT_NOT_P, "a PicklerMemoProxy", value);
+        }
+    }
+}
@@ -52,7 +52,6 @@ import com.oracle.graal.python.builtins.objects.cext.capi.CExtNodes.ToSulongNode
 import com.oracle.graal.python.builtins.objects.cext.common.CArrayWrappers.CByteArrayWrapper;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
 import com.oracle.graal.python.lib.PyNumberAsSizeNode;
-import com.oracle.graal.python.nodes.attributes.ReadAttributeFromObjectNode;
 import com.oracle.graal.python.runtime.PythonOptions;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.dsl.Cached;
@@ -191,7 +190,7 @@ public abstract class PyDateTimeMRNode extends Node {
 
     @Specialization(guards = "eq(DATETIME_TZINFO, key)")
     static Object doTzinfo(PythonObject object, @SuppressWarnings("unused") String key, @SuppressWarnings("unused") DateTimeMode mode,
-                    @Cached ReadAttributeFromObjectNode getTzinfoNode,
+                    @Cached PInteropGetAttributeNode getTzinfoNode,
                     @Cached ToSulongNode toSulongNode) {
         Object value = getTzinfoNode.execute(object, T_TZINFO);
         if (value != PNone.NO_VALUE) {
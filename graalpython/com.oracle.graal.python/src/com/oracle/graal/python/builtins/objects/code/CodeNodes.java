@@ -146,7 +146,7 @@ public abstract class CodeNodes {
                                 code.cell2arg, code.constants, code.primitiveConstants, code.exceptionHandlerRanges, code.conditionProfileCount,
                                 code.startLine, code.startColumn, code.endLine, code.endColumn,
                                 code.outputCanQuicken, code.variableShouldUnbox,
-                                code.generalizeInputsMap, code.generalizeVarsMap);
+                                code.generalizeInputsMap, code.generalizeVarsMap, code.initialVariableTypes);
             }
             RootNode rootNode = PBytecodeRootNode.create(language, code, PythonUtils.createFakeSource());
             if (code.isGeneratorOrCoroutine()) {
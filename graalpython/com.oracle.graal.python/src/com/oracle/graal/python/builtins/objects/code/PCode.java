@@ -53,6 +53,7 @@ import java.util.List;
 import java.util.Set;
 
 import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.builtins.modules.MarshalModuleBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.bytes.PBytes;
 import com.oracle.graal.python.builtins.objects.ellipsis.PEllipsis;
@@ -60,6 +61,7 @@ import com.oracle.graal.python.builtins.objects.function.Signature;
 import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.compiler.CodeUnit;
+import com.oracle.graal.python.compiler.LazyCodeUnit;
 import com.oracle.graal.python.compiler.OpCodes;
 import com.oracle.graal.python.nodes.PRootNode;
 import com.oracle.graal.python.nodes.bytecode.PBytecodeGeneratorFunctionRootNode;
@@ -164,7 +166,7 @@ public final class PCode extends PythonBuiltinObject {
     }
 
     public PCode(Object cls, Shape instanceShape, RootCallTarget callTarget, Signature signature, CodeUnit codeUnit) {
-        this(cls, instanceShape, callTarget, signature, codeUnit.varnames.length, -1, -1, null, null,
+        this(cls, instanceShape, callTarget, signature, -1, -1, -1, null, null,
                         null, null, null, null, codeUnit.name, -1, codeUnit.srcOffsetTable);
     }
 
@@ -285,7 +287,7 @@ public final class PCode extends PythonBuiltinObject {
     private static TruffleString[] extractVarnames(RootNode node) {
         CodeUnit code = getCodeUnit(node);
         if (code != null) {
-            return Arrays.copyOf(code.varnames, code.varnames.length);
+            return code.getPythonVarnames();
         }
         return EMPTY_TRUFFLESTRING_ARRAY;
     }
@@ -303,7 +305,7 @@ public final class PCode extends PythonBuiltinObject {
                 }
                 if (op == OpCodes.LOAD_BYTE) {
                     bytecodeConstants.add(Byte.toUnsignedInt(co.code[bci + 1]));
-                } else if (op == OpCodes.LOAD_NONE) {
+                } else if (op == OpCodes.LOAD_NONE || op == OpCodes.RETURN_NONE) {
                     bytecodeConstants.add(PNone.NONE);
                 } else if (op == OpCodes.LOAD_TRUE) {
                     bytecodeConstants.add(true);
@@ -396,8 +398,8 @@ public final class PCode extends PythonBuiltinObject {
             CodeUnit co = ((PBytecodeRootNode) rootNode).getCodeUnit();
             context.setCodeUnitFilename(co, filename);
             for (int i = 0; i < co.constants.length; i++) {
-                if (co.constants[i] instanceof CodeUnit) {
-                    context.setCodeUnitFilename((CodeUnit) co.constants[i], filename);
+                if (LazyCodeUnit.isCodeUnit(co.constants[i])) {
+                    context.setCodeUnitFilename(LazyCodeUnit.resolve(co.constants[i]), filename);
                 }
             }
         }
@@ -476,6 +478,19 @@ public final class PCode extends PythonBuiltinObject {
         }
     }
 
+    /**
+     * Like {@link #getCodestring()}, but the serialized code unit includes the quickening decisions
+     * learned so far, see {@link PBytecodeRootNode#getCodeUnitWithQuickeningFeedback()}.
+     */
+    @TruffleBoundary
+    public byte[] getCodestringWithQuickeningFeedback() {
+        RootNode rootNode = rootNodeForExtraction(getRootNode());
+        if (rootNode instanceof PBytecodeRootNode) {
+            return MarshalModuleBuiltins.serializeCodeUnit(((PBytecodeRootNode) rootNode).getCodeUnitWithQuickeningFeedback());
+        }
+        return getCodestring();
+    }
+
     public Object[] getConstants() {
         if (constants == null) {
             constants = extractConstants(getRootNode());
@@ -486,8 +501,8 @@ public final class PCode extends PythonBuiltinObject {
     @TruffleBoundary
     private static Object convertConstantToPythonSpace(RootNode rootNode, Object o) {
         PythonObjectFactory factory = PythonObjectFactory.getUncached();
-        if (o instanceof CodeUnit) {
-            CodeUnit code = ((CodeUnit) o);
+        if (LazyCodeUnit.isCodeUnit(o)) {
+            CodeUnit code = LazyCodeUnit.resolve(o);
             PBytecodeRootNode bytecodeRootNode = PBytecodeRootNode.create(PythonLanguage.get(rootNode), code, getSourceSection(rootNode).getSource());
             return factory.createCode(bytecodeRootNode.getCallTarget(), bytecodeRootNode.getSignature(), code);
         } else if (o instanceof BigInteger) {
@@ -529,6 +544,12 @@ public final class PCode extends PythonBuiltinObject {
     }
 
     public byte[] getLinetable() {
+        if (linetable == null) {
+            CodeUnit co = getCodeUnit(getRootNode());
+            if (co != null) {
+                linetable = co.srcOffsetTable;
+            }
+        }
         return linetable;
     }
 
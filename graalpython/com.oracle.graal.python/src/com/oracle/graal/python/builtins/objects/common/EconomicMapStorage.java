@@ -76,10 +76,45 @@ public class EconomicMapStorage extends HashingStorage {
         return new EconomicMapStorage(initialCapacity, false);
     }
 
+    /**
+     * Creates storage without slots for values, which is suitable for sets. It transparently
+     * switches to the regular layout if a value other than {@code None} is stored into it.
+     */
+    public static EconomicMapStorage createKeysOnly(int initialCapacity) {
+        return new EconomicMapStorage(initialCapacity, false, true, false);
+    }
+
+    /**
+     * Creates storage that keeps {@code int} keys unboxed. It transparently switches to the regular
+     * layout if a key of another type is inserted into it.
+     */
+    public static EconomicMapStorage createLongKeys(int initialCapacity) {
+        return new EconomicMapStorage(initialCapacity, false, false, true);
+    }
+
+    /**
+     * Creates storage for sets of {@code int}s: the keys are unboxed and there are no slots for
+     * values. It transparently switches to the other layouts as needed.
+     */
+    public static EconomicMapStorage createLongKeysOnly(int initialCapacity) {
+        return new EconomicMapStorage(initialCapacity, false, true, true);
+    }
+
+    /**
+     * Creates storage with the most specific layout allowed by the flags.
+     */
+    static EconomicMapStorage createWithSideEffects(int initialCapacity, boolean keysOnly, boolean longKeys) {
+        return new EconomicMapStorage(initialCapacity, true, keysOnly, longKeys);
+    }
+
     final ObjectHashMap map;
 
     private EconomicMapStorage(int initialCapacity, boolean hasSideEffects) {
-        this.map = new ObjectHashMap(initialCapacity, hasSideEffects);
+        this(initialCapacity, hasSideEffects, false, false);
+    }
+
+    private EconomicMapStorage(int initialCapacity, boolean hasSideEffects, boolean keysOnly, boolean longKeys) {
+        this.map = new ObjectHashMap(initialCapacity, hasSideEffects, keysOnly, longKeys);
     }
 
     private EconomicMapStorage() {
@@ -108,6 +143,13 @@ public class EconomicMapStorage extends HashingStorage {
         return map.size();
     }
 
+    /**
+     * @see ObjectHashMap#getVersion()
+     */
+    public long getVersion() {
+        return map.getVersion();
+    }
+
     static boolean advance(MapCursor cursor) {
         return cursor.advance();
     }
@@ -261,6 +261,24 @@ public class HashingStorageNodes {
         }
     }
 
+    /**
+     * Picks the layout of the map according to the first item. For {@code int} keys we start with
+     * the long keys layout. Sets store {@code None} as the value of every item, for them we start
+     * with the keys only layout, the two are combined for sets of {@code int}s. If the later items
+     * do not fit, the map generalizes itself.
+     */
+    static EconomicMapStorage createForFirstItem(Object key, Object value) {
+        if (key instanceof Integer || key instanceof Long) {
+            if (value == PNone.NONE) {
+                return EconomicMapStorage.createLongKeysOnly(1);
+            }
+            return EconomicMapStorage.createLongKeys(1);
+        } else if (value == PNone.NONE) {
+            return EconomicMapStorage.createKeysOnly(1);
+        }
+        return EconomicMapStorage.create(1);
+    }
+
     @GenerateUncached
     @ImportStatic(PGuards.class)
     public abstract static class HashingStorageSetItemWithHash extends Node {
@@ -292,7 +310,7 @@ public class HashingStorageNodes {
             // allocated map can be quite different to profiles in the other situations when we are
             // putting into a map that already has or will have some more items in it
             // TODO: do we want to try DynamicObjectStorage if the key is a string?
-            return economicMap(frame, EconomicMapStorage.create(1), key, keyHash, value, profile, putNode);
+            return economicMap(frame, createForFirstItem(key, value), key, keyHash, value, profile, putNode);
         }
 
         @Specialization(guards = "!self.shouldTransitionOnPut()")
@@ -406,7 +424,7 @@ public class HashingStorageNodes {
             // allocated map can be quite different to profiles in the other situations when we are
             // putting into a map that already has or will have some more items in it
             // TODO: do we want to try DynamicObjectStorage if the key is a string?
-            return economicMap(frame, EconomicMapStorage.create(1), key, value, profile, hashNode, putNode);
+            return economicMap(frame, createForFirstItem(key, value), key, value, profile, hashNode, putNode);
         }
 
         @Specialization(guards = "!self.shouldTransitionOnPut()")
@@ -1054,7 +1072,7 @@ public class HashingStorageNodes {
 
         @Specialization
         static long economicMap(EconomicMapStorage self, HashingStorageIterator it) {
-            return self.map.hashes[it.index];
+            return self.map.getHash(it.index);
         }
 
         @Specialization
@@ -1196,6 +1214,38 @@ public class HashingStorageNodes {
         }
     }
 
+    /**
+     * Storage-to-storage variant of the set algebra for two economic maps: walks the compact arrays
+     * of {@code src} directly and looks up the keys in {@code other} using the hashes stored in
+     * {@code src}. If {@code intersect} is {@code true}, puts the items also present in
+     * {@code other} with the value from {@code other}, otherwise puts the items not present in
+     * {@code other} with the value from {@code src}.
+     */
+    private static void transferEconomic(Frame frame, ObjectHashMap src, ObjectHashMap other, ObjectHashMap result, boolean intersect,
+                    ObjectHashMap.GetNode getFromOther, PutNode putResult) {
+        int i = 0;
+        try {
+            for (; i < src.usedHashes; i++) {
+                Object value = src.getValue(i);
+                if (value == null) {
+                    continue;
+                }
+                Object key = src.getKey(i);
+                long hash = src.getHash(i);
+                Object otherValue = getFromOther.get(frame, other, key, hash);
+                if (intersect) {
+                    if (otherValue != null) {
+                        putResult.put(frame, result, key, hash, otherValue);
+                    }
+                } else if (otherValue == null) {
+                    putResult.put(frame, result, key, hash, value);
+                }
+            }
+        } finally {
+            LoopNode.reportLoopCount(putResult, i);
+        }
+    }
+
     @GenerateUncached
     @ImportStatic({PGuards.class})
     public abstract static class HashingStorageXorCallback extends HashingStorageForEachCallback<ResultAndOther> {
@@ -1226,6 +1276,19 @@ public class HashingStorageNodes {
         public abstract HashingStorage execute(Frame frame, HashingStorage a, HashingStorage b);
 
         @Specialization
+        static HashingStorage doEconomic(Frame frame, EconomicMapStorage aStorage, EconomicMapStorage bStorage,
+                        @Cached ObjectHashMap.GetNode getFromOther,
+                        @Cached PutNode putResult) {
+            ObjectHashMap a = aStorage.map;
+            ObjectHashMap b = bStorage.map;
+            EconomicMapStorage result = EconomicMapStorage.createWithSideEffects(a.size() + b.size(), a.isKeysOnly() && b.isKeysOnly(),
+                            a.hasLongKeys() && b.hasLongKeys());
+            transferEconomic(frame, a, b, result.map, false, getFromOther, putResult);
+            transferEconomic(frame, b, a, result.map, false, getFromOther, putResult);
+            return result;
+        }
+
+        @Specialization(replaces = "doEconomic")
         static HashingStorage doIt(Frame frame, HashingStorage aStorage, HashingStorage bStorage,
                         @Cached HashingStorageForEach forEachA,
                         @Cached HashingStorageForEach forEachB,
@@ -1276,6 +1339,17 @@ public class HashingStorageNodes {
         public abstract HashingStorage execute(Frame frame, HashingStorage a, HashingStorage b);
 
         @Specialization
+        static HashingStorage doEconomic(Frame frame, EconomicMapStorage aStorage, EconomicMapStorage bStorage,
+                        @Cached ObjectHashMap.GetNode getFromOther,
+                        @Cached PutNode putResult) {
+            ObjectHashMap a = aStorage.map;
+            ObjectHashMap b = bStorage.map;
+            EconomicMapStorage result = EconomicMapStorage.createWithSideEffects(Math.min(a.size(), b.size()), b.isKeysOnly(), a.hasLongKeys());
+            transferEconomic(frame, a, b, result.map, true, getFromOther, putResult);
+            return result;
+        }
+
+        @Specialization(replaces = "doEconomic")
         static HashingStorage doIt(Frame frame, HashingStorage aStorage, HashingStorage bStorage,
                         @Cached HashingStorageForEach forEachA,
                         @Cached HashingStorageIntersectCallback callback) {
@@ -1319,6 +1393,16 @@ public class HashingStorageNodes {
         public abstract HashingStorage execute(Frame frame, HashingStorage a, HashingStorage b);
 
         @Specialization
+        static HashingStorage doEconomic(Frame frame, EconomicMapStorage aStorage, EconomicMapStorage bStorage,
+                        @Cached ObjectHashMap.GetNode getFromOther,
+                        @Cached PutNode putResult) {
+            ObjectHashMap a = aStorage.map;
+            EconomicMapStorage result = EconomicMapStorage.createWithSideEffects(a.size(), a.isKeysOnly(), a.hasLongKeys());
+            transferEconomic(frame, a, bStorage.map, result.map, false, getFromOther, putResult);
+            return result;
+        }
+
+        @Specialization(replaces = "doEconomic")
         static HashingStorage doIt(Frame frame, HashingStorage aStorage, HashingStorage bStorage,
                         @Cached HashingStorageForEach forEachA,
                         @Cached HashingStorageDiffCallback callback) {
@@ -1450,7 +1534,7 @@ public class HashingStorageNodes {
         static EconomicMapStorage economic2Economic(Frame frame, EconomicMapStorage src, HashingStorageIterator it, EconomicMapStorage destStorage,
                         @Cached PutNode putNode) {
             ObjectHashMap srcMap = src.map;
-            putNode.put(frame, destStorage.map, srcMap.getKey(it.index), srcMap.hashes[it.index], srcMap.getValue(it.index));
+            putNode.put(frame, destStorage.map, srcMap.getKey(it.index), srcMap.getHash(it.index), srcMap.getValue(it.index));
             return destStorage;
         }
 
@@ -1460,7 +1544,7 @@ public class HashingStorageNodes {
             // Note that the point is to avoid side-effecting __hash__ call. Since the source is
             // economic map, the key may be an arbitrary object.
             ObjectHashMap srcMap = src.map;
-            return setItemWithHash.execute(frame, destStorage, srcMap.getKey(it.index), srcMap.hashes[it.index], srcMap.getValue(it.index));
+            return setItemWithHash.execute(frame, destStorage, srcMap.getKey(it.index), srcMap.getHash(it.index), srcMap.getValue(it.index));
         }
 
         @Fallback
@@ -1500,6 +1584,25 @@ public class HashingStorageNodes {
         }
 
         @Specialization(guards = "source != dest")
+        static HashingStorage doEconomic(Frame frame, EconomicMapStorage source, EconomicMapStorage dest,
+                        @Cached PutNode putNode) {
+            ObjectHashMap srcMap = source.map;
+            ObjectHashMap destMap = dest.map;
+            int i = 0;
+            try {
+                for (; i < srcMap.usedHashes; i++) {
+                    Object value = srcMap.getValue(i);
+                    if (value != null) {
+                        putNode.put(frame, destMap, srcMap.getKey(i), srcMap.getHash(i), value);
+                    }
+                }
+            } finally {
+                LoopNode.reportLoopCount(putNode, i);
+            }
+            return dest;
+        }
+
+        @Specialization(guards = "source != dest", replaces = "doEconomic")
         static HashingStorage doIt(Frame frame, HashingStorage source, HashingStorage dest,
                         @Cached HashingStorageForEach forEach,
                         @Cached HashingStorageTransferItem transferItem) {
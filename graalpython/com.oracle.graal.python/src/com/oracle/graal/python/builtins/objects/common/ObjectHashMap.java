@@ -44,6 +44,9 @@ import static com.oracle.truffle.api.CompilerDirectives.SLOWPATH_PROBABILITY;
 
 import java.util.Arrays;
 
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.lib.PyObjectHashNode;
 import com.oracle.graal.python.lib.PyObjectRichCompareBool;
 import com.oracle.graal.python.util.PythonUtils;
 import com.oracle.truffle.api.CompilerDirectives;
@@ -94,28 +97,44 @@ import com.oracle.truffle.api.profiles.InlinedCountingConditionProfile;
  * implications of this is that for close to full maps, lookups of items that are not present in the
  * map are faster, because we can terminate the collisions chain chasing earlier.
  *
- * Notable use case that does not (yet) work well with this approach: repeated insertion and removal
- * of the same key. This keeps on adding dummy entries when removing the entry and creating long
- * collisions chains that the insertion needs to follow to find a free slot. This all repeats until
- * the insertion concludes that the map is too full and rehashes it, in this case actually not
- * growing it, but just removing the dummy entries. The same seems to happen on CPython also, but
- * can be improved.
+ * Removal leaves a dummy entry in the sparse array, so that the collision chains going through the
+ * bucket are not broken. Insertion of a new key reuses the first dummy bucket that it encounters on
+ * the way to an empty bucket. Moreover, if the removed item was the last one in the compact arrays,
+ * we shrink the used part of the compact arrays, so the next insertion reuses the slot without
+ * breaking the insertion order. Together this makes repeated insertion and removal of the same key
+ * (LRU caches, sliding windows) run in constant space instead of growing collision chains until the
+ * map is rehashed. CPython does not reuse dummy entries on insertion.
+ *
+ * Like in CPython, the sparse indices array is a byte[] and the size of one index is determined by
+ * the size of the compact arrays: 1 byte for up to {@link #MAX_BYTE_BUCKETS} buckets, 2 bytes for
+ * up to {@link #MAX_SHORT_BUCKETS} buckets and 4 bytes otherwise. With 16 byte array headers, the
+ * sparse array of a map with 8 buckets takes 24 instead of 48 bytes, with 128 buckets 144 instead of
+ * 528 bytes and with 32768 buckets 65552 instead of 131088 bytes. The highest bit of the index,
+ * whatever its width, is the collision bit. Indices are read sign-extended to int, so the
+ * placeholders and the check for the collision bit are the same for all widths.
+ *
+ * Sets use this map as well and all their values are {@code None}. A map can be created as "keys
+ * only", then the keysAndValues array contains just the keys and {@link #getValue(int)} returns
+ * {@code None} for every slot that has a key. The first time a value other than {@code None} is
+ * stored into such map, it is converted to the regular layout with interleaved keys and values. The
+ * conversion is one-way, we never go back to the keys only layout.
+ *
+ * Maps and sets keyed by Python ints are common, so there is also a "long keys" layout. The keys
+ * are stored as primitive longs in the hashes array (the hash of an int is cheap to recompute) and
+ * the keysAndValues array contains just the values. A slot is occupied if its value is not
+ * {@code null}. Lookups of {@code int} or {@code long} keys compare the primitive keys directly
+ * without calling {@code __eq__}. The first time a key that is not {@code int} or {@code long} is
+ * inserted, the map is converted to the regular layout, again one-way. Keys stored in this layout
+ * are returned as {@code int} if they fit, otherwise as {@code long}.
+ *
+ * The two layouts can be combined for sets of ints: the keys are in the hashes array, there is no
+ * keysAndValues array at all and a bit set marks the occupied slots. Storing a value other than
+ * {@code None} converts such map to the long keys layout, inserting a key that is not {@code int}
+ * or {@code long} converts it to the keys only layout.
  *
  * Areas for future improvements:
  * <ul>
- * <li>Use byte[] array for the sparse indices array and determine the size of an index according to
- * the compact array size, i.e., 1 byte is enough for 256 items. This needs to also properly handle
- * the bit flag used to mark collisions.</li>
- * <li>Use another bit from the index in the sparse indices array to remember index of removed
- * items, i.e., dummy items would carry the old index and collision mask. Such dummy items can be
- * reused when inserting new items. This will help with the insert/remove of the same key
- * scenario.</li>
  * <li>Inline {@link ObjectHashMap} into {@code EconomicMapStorage} to save an indirection.</li>
- * <li>New strategy for long keys where the hashes array is used to store the keys, and the
- * keysAndValues array will store just values. Can be implemented by extending this class and
- * overriding few methods.</li>
- * <li>Flag that indicates that the hash-map is used as a storage for a set, so all values are
- * {@code None} and there is no need to allocate space for values in the keysAndValues array.</li>
  * </ul>
  */
 public final class ObjectHashMap {
@@ -131,29 +150,109 @@ public final class ObjectHashMap {
     private static final int MAX_PREALLOCATED_INDICES_SIZE = 1 << 20;
 
     /**
-     * Indices that participate in a collision chain are marked with the sign bit.
+     * Up to this many buckets, the indices in the sparse array take 1 byte. The compact arrays of
+     * such hash map have at most 98 slots, so all indices fit into 7 bits and do not clash with the
+     * placeholders.
      */
-    private static final int COLLISION_MASK = 1 << 31;
+    private static final int MAX_BYTE_BUCKETS = 1 << 7;
 
     /**
-     * We need some placeholders. Those masked with {@link #COLLISION_MASK} give numbers higher than
-     * our max number of items, which is MAX_INT/2, because we cram they keys and values together
-     * into one array.
+     * Up to this many buckets, the indices in the sparse array take 2 bytes.
+     */
+    private static final int MAX_SHORT_BUCKETS = 1 << 15;
+
+    /**
+     * We need some placeholders. Indices are read sign-extended, so these are the same for all
+     * index widths. Together with the collision bit (the sign bit of given width), they give
+     * numbers higher than the max index that fits given width.
      */
     private static final int DUMMY_INDEX = -2;
     private static final int EMPTY_INDEX = -1;
 
-    private static void markCollision(int[] indices, int compactIndex) {
-        assert indices[compactIndex] != EMPTY_INDEX;
-        indices[compactIndex] = indices[compactIndex] | COLLISION_MASK;
+    /*
+     * The index width is determined by the buckets count, so there is no need to store it. It can
+     * be derived from the length of the byte array, because the possible lengths for the three
+     * widths do not overlap: [8, 128], [512, 65536] and [262144, ...).
+     */
+    private static int getBucketsCount(byte[] indices) {
+        int length = indices.length;
+        if (length <= MAX_BYTE_BUCKETS) {
+            return length;
+        } else if (length <= MAX_SHORT_BUCKETS * Short.BYTES) {
+            return length >> 1;
+        } else {
+            return length >> 2;
+        }
+    }
+
+    private static byte[] allocateIndices(int bucketsCount) {
+        byte[] indices;
+        if (bucketsCount <= MAX_BYTE_BUCKETS) {
+            indices = new byte[bucketsCount];
+        } else if (bucketsCount <= MAX_SHORT_BUCKETS) {
+            indices = new byte[bucketsCount * Short.BYTES];
+        } else {
+            indices = new byte[bucketsCount * Integer.BYTES];
+        }
+        // EMPTY_INDEX has all bits set in every width
+        Arrays.fill(indices, (byte) EMPTY_INDEX);
+        assert getBucketsCount(indices) == bucketsCount;
+        return indices;
+    }
+
+    /**
+     * Returns the index stored in given bucket, sign-extended to int.
+     */
+    private static int getIndexAt(byte[] indices, int bucket) {
+        int length = indices.length;
+        if (length <= MAX_BYTE_BUCKETS) {
+            return indices[bucket];
+        } else if (length <= MAX_SHORT_BUCKETS * Short.BYTES) {
+            return PythonUtils.arrayAccessor.getShort(indices, bucket << 1);
+        } else {
+            return PythonUtils.arrayAccessor.getInt(indices, bucket << 2);
+        }
+    }
+
+    private static void setIndexAt(byte[] indices, int bucket, int value) {
+        int length = indices.length;
+        if (length <= MAX_BYTE_BUCKETS) {
+            indices[bucket] = (byte) value;
+        } else if (length <= MAX_SHORT_BUCKETS * Short.BYTES) {
+            PythonUtils.arrayAccessor.putShort(indices, bucket << 1, (short) value);
+        } else {
+            PythonUtils.arrayAccessor.putInt(indices, bucket << 2, value);
+        }
+    }
+
+    /**
+     * Indices that participate in a collision chain are marked with the sign bit of the index
+     * width, this returns it sign-extended to int.
+     */
+    private static int getCollisionMask(byte[] indices) {
+        int length = indices.length;
+        if (length <= MAX_BYTE_BUCKETS) {
+            return Byte.MIN_VALUE;
+        } else if (length <= MAX_SHORT_BUCKETS * Short.BYTES) {
+            return Short.MIN_VALUE;
+        } else {
+            return Integer.MIN_VALUE;
+        }
+    }
+
+    private static void markCollision(byte[] indices, int compactIndex) {
+        int index = getIndexAt(indices, compactIndex);
+        assert index != EMPTY_INDEX;
+        setIndexAt(indices, compactIndex, index | getCollisionMask(indices));
     }
 
     private static boolean isCollision(int index) {
-        return (index & COLLISION_MASK) != 0;
+        // the collision bit is the sign bit after sign extension
+        return index < 0;
     }
 
-    private static int unwrapIndex(int value) {
-        return value & ~COLLISION_MASK;
+    private static int unwrapIndex(byte[] indices, int value) {
+        return value & ~getCollisionMask(indices);
     }
 
     /**
@@ -167,13 +266,21 @@ public final class ObjectHashMap {
     // It takes at most this many >>> shifts to turn any long into 0
     private static final int PERTURB_SHIFTS_COUT = 13;
 
-    // Sparse array with indices pointing to hashes and keysAndValues
-    private int[] indices;
+    // Sparse array with indices pointing to hashes and keysAndValues, see getIndexAt
+    private byte[] indices;
 
-    // Compact arrays with the actual dict items:
+    // Compact arrays with the actual dict items (use getHash to read the hashes):
     long[] hashes;
     Object[] keysAndValues;
 
+    // If true, keysAndValues contains only keys and all values are implicitly None
+    private boolean keysOnly;
+    // If true, hashes contains the keys and keysAndValues contains only values
+    private boolean longKeys;
+    // If both keysOnly and longKeys are true, keysAndValues is null and this bit set marks the
+    // occupied slots instead, otherwise null
+    private long[] occupied;
+
     // How many real items are in the dict
     int size;
     // How many of the slots in the hashes/keysAndValues arrays are occupied either with real item
@@ -193,7 +300,34 @@ public final class ObjectHashMap {
      */
     boolean hasSideEffectingKeys;
 
+    /**
+     * Incremented on every change of a key to value mapping (insertion, overwrite, removal, clear).
+     * Inline caches may remember the result of a lookup together with the version and skip the
+     * lookup as long as the version did not change. Copies start with a fresh version, caches are
+     * expected to also check the identity of the map or its storage.
+     */
+    private long version;
+
     public ObjectHashMap(int capacity, boolean hasSideEffects) {
+        this(capacity, hasSideEffects, false);
+    }
+
+    /**
+     * @param keysOnly if {@code true}, the map starts with the layout that does not have slots for
+     *            values, which is suitable for sets. See the class documentation.
+     */
+    public ObjectHashMap(int capacity, boolean hasSideEffects, boolean keysOnly) {
+        this(capacity, hasSideEffects, keysOnly, false);
+    }
+
+    /**
+     * @param longKeys if {@code true}, the map starts with the layout for {@code int} keys, see the
+     *            class documentation. Together with {@code keysOnly} this gives the layout for sets
+     *            of {@code int}s.
+     */
+    public ObjectHashMap(int capacity, boolean hasSideEffects, boolean keysOnly, boolean longKeys) {
+        this.keysOnly = keysOnly;
+        this.longKeys = longKeys;
         if (capacity <= INITIAL_INDICES_SIZE) {
             allocateData(INITIAL_INDICES_SIZE);
         } else {
@@ -229,14 +363,19 @@ public final class ObjectHashMap {
 
     private void allocateData(int newSize) {
         assert isPow2(newSize);
-        indices = new int[newSize];
-        Arrays.fill(indices, EMPTY_INDEX);
+        indices = allocateIndices(newSize);
         // since we allow ourselves to fill only up to 3/4 of the hash table, we need this many
         // entries for the actual values: (we intentionally over-allocate by a small constant)
         int quarter = newSize >> 2;
         int usableSize = 3 * quarter + 2;
         hashes = new long[usableSize];
-        keysAndValues = new Object[usableSize * 2];
+        if (keysOnly && longKeys) {
+            keysAndValues = null;
+            occupied = new long[(usableSize + Long.SIZE - 1) / Long.SIZE];
+        } else {
+            keysAndValues = new Object[keysOnly || longKeys ? usableSize : usableSize * 2];
+            occupied = null;
+        }
     }
 
     public void setSideEffectingKeysFlag() {
@@ -244,6 +383,7 @@ public final class ObjectHashMap {
     }
 
     public void clear() {
+        version++;
         size = 0;
         usedHashes = 0;
         usedIndices = 0;
@@ -252,12 +392,19 @@ public final class ObjectHashMap {
 
     public ObjectHashMap copy() {
         ObjectHashMap result = new ObjectHashMap();
+        result.keysOnly = keysOnly;
+        result.longKeys = longKeys;
         result.size = size;
         result.usedHashes = usedHashes;
         result.usedIndices = usedIndices;
         result.hashes = PythonUtils.arrayCopyOf(hashes, hashes.length);
         result.indices = PythonUtils.arrayCopyOf(indices, indices.length);
-        result.keysAndValues = PythonUtils.arrayCopyOf(keysAndValues, keysAndValues.length);
+        if (occupied != null) {
+            result.occupied = PythonUtils.arrayCopyOf(occupied, occupied.length);
+            result.keysAndValues = null;
+        } else {
+            result.keysAndValues = PythonUtils.arrayCopyOf(keysAndValues, keysAndValues.length);
+        }
         result.hasSideEffectingKeys = hasSideEffectingKeys;
         return result;
     }
@@ -270,6 +417,14 @@ public final class ObjectHashMap {
         return hasSideEffectingKeys;
     }
 
+    public boolean isKeysOnly() {
+        return keysOnly;
+    }
+
+    public boolean hasLongKeys() {
+        return longKeys;
+    }
+
     @CompilerDirectives.ValueType
     public static final class DictKey {
         private final Object value;
@@ -305,7 +460,7 @@ public final class ObjectHashMap {
         }
 
         public DictKey getKey() {
-            return new DictKey(ObjectHashMap.this.getKey(index), hashes[index]);
+            return new DictKey(ObjectHashMap.this.getKey(index), getHash(index));
         }
 
         public Object getValue() {
@@ -313,11 +468,7 @@ public final class ObjectHashMap {
         }
     }
 
-    private static int getBucketsCount(int[] indices) {
-        return indices.length;
-    }
-
-    private boolean needsResize(int[] localIndices) {
+    private boolean needsResize(byte[] localIndices) {
         // when the hash table is 3/4 full, we resize on insertion
         int bucketsCount = getBucketsCount(localIndices);
         int bucketsCntQuarter = Math.max(1, bucketsCount >> 2);
@@ -328,6 +479,10 @@ public final class ObjectHashMap {
         return size;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     @GenerateUncached
     public abstract static class GetNode extends Node {
         public final Object get(Frame frame, ObjectHashMap map, DictKey key) {
@@ -370,19 +525,19 @@ public final class ObjectHashMap {
                         InlinedCountingConditionProfile collisionFoundEqKey,
                         PyObjectRichCompareBool.EqNode eqNode) throws RestartLookupException {
             assert map.checkInternalState();
-            int[] indices = map.indices;
-            int indicesLen = indices.length;
+            byte[] indices = map.indices;
+            int indicesLen = getBucketsCount(indices);
 
             int compactIndex = getIndex(indicesLen, keyHash);
-            int index = indices[compactIndex];
+            int index = getIndexAt(indices, compactIndex);
             if (foundNullKey.profile(inliningTarget, index == EMPTY_INDEX)) {
                 return null;
             }
             if (foundSameHashKey.profile(inliningTarget, index != DUMMY_INDEX)) {
-                int unwrappedIndex = unwrapIndex(index);
+                int unwrappedIndex = unwrapIndex(indices, index);
                 if (foundEqKey.profile(inliningTarget, map.keysEqual(indices, frame, unwrappedIndex, key, keyHash, eqNode))) {
                     return map.getValue(unwrappedIndex);
-                } else if (!isCollision(indices[compactIndex])) {
+                } else if (!isCollision(getIndexAt(indices, compactIndex))) {
                     // ^ note: we need to re-read indices[compactIndex],
                     // it may have been changed during __eq__
                     return null;
@@ -401,15 +556,15 @@ public final class ObjectHashMap {
                     }
                     perturb >>>= PERTURB_SHIFT;
                     compactIndex = nextIndex(indicesLen, compactIndex, perturb);
-                    index = map.indices[compactIndex];
+                    index = getIndexAt(indices, compactIndex);
                     if (collisionFoundNoValue.profile(inliningTarget, index == EMPTY_INDEX)) {
                         return null;
                     }
                     if (index != DUMMY_INDEX) {
-                        int unwrappedIndex = unwrapIndex(index);
+                        int unwrappedIndex = unwrapIndex(indices, index);
                         if (collisionFoundEqKey.profile(inliningTarget, map.keysEqual(indices, frame, unwrappedIndex, key, keyHash, eqNode))) {
                             return map.getValue(unwrappedIndex);
-                        } else if (!isCollision(indices[compactIndex])) {
+                        } else if (!isCollision(getIndexAt(indices, compactIndex))) {
                             // ^ note: we need to re-read indices[compactIndex],
                             // it may have been changed during __eq__
                             return null;
@@ -472,22 +627,25 @@ public final class ObjectHashMap {
                         InlinedBranchProfile rehash2Profile,
                         PyObjectRichCompareBool.EqNode eqNode) throws RestartLookupException {
             assert map.checkInternalState();
-            int[] indices = map.indices;
-            int indicesLen = indices.length;
+            byte[] indices = map.indices;
+            int indicesLen = getBucketsCount(indices);
 
             int compactIndex = getIndex(indicesLen, keyHash);
-            int index = indices[compactIndex];
+            int index = getIndexAt(indices, compactIndex);
             if (foundNullKey.profile(inliningTarget, index == EMPTY_INDEX)) {
                 map.putInNewSlot(indices, inliningTarget, rehash1Profile, key, keyHash, value, compactIndex);
                 return;
             }
 
-            if (foundEqKey.profile(inliningTarget, index != DUMMY_INDEX && map.keysEqual(indices, frame, unwrapIndex(index), key, keyHash, eqNode))) {
+            if (foundEqKey.profile(inliningTarget, index != DUMMY_INDEX && map.keysEqual(indices, frame, unwrapIndex(indices, index), key, keyHash, eqNode))) {
                 // we found the key, override the value, Python does not override the key though
-                map.setValue(unwrapIndex(index), value);
+                map.setValue(unwrapIndex(indices, index), value);
                 return;
             }
 
+            // the first dummy bucket on the way, we can reuse it if the key is not in the map
+            int dummyBucket = index == DUMMY_INDEX ? compactIndex : -1;
+
             // collision
             markCollision(indices, compactIndex);
             long perturb = keyHash;
@@ -501,15 +659,27 @@ public final class ObjectHashMap {
                     }
                     perturb >>>= PERTURB_SHIFT;
                     compactIndex = nextIndex(indicesLen, compactIndex, perturb);
-                    index = indices[compactIndex];
+                    index = getIndexAt(indices, compactIndex);
                     if (collisionFoundNoValue.profile(inliningTarget, index == EMPTY_INDEX)) {
-                        map.putInNewSlot(indices, inliningTarget, rehash2Profile, key, keyHash, value, compactIndex);
+                        if (dummyBucket >= 0) {
+                            if (getIndexAt(indices, dummyBucket) != DUMMY_INDEX) {
+                                // an __eq__ called during the lookup inserted a key into the bucket
+                                throw RestartLookupException.INSTANCE;
+                            }
+                            map.putInDummySlot(indices, inliningTarget, rehash2Profile, key, keyHash, value, dummyBucket);
+                        } else {
+                            map.putInNewSlot(indices, inliningTarget, rehash2Profile, key, keyHash, value, compactIndex);
+                        }
                         return;
                     }
-                    if (collisionFoundEqKey.profile(inliningTarget, index != DUMMY_INDEX && map.keysEqual(indices, frame, unwrapIndex(index), key, keyHash, eqNode))) {
+                    if (index == DUMMY_INDEX) {
+                        if (dummyBucket < 0) {
+                            dummyBucket = compactIndex;
+                        }
+                    } else if (collisionFoundEqKey.profile(inliningTarget, map.keysEqual(indices, frame, unwrapIndex(indices, index), key, keyHash, eqNode))) {
                         // we found the key, override the value, Python does not override the key
                         // though
-                        map.setValue(unwrapIndex(index), value);
+                        map.setValue(unwrapIndex(indices, index), value);
                         return;
                     }
                     markCollision(indices, compactIndex);
@@ -527,10 +697,11 @@ public final class ObjectHashMap {
 
     // Internal helper: it is not profiling, never rehashes, and it assumes that the hash map never
     // contains the key that we are inserting
-    private void insertNewKey(int[] localIndices, Object key, long keyHash, Object value) {
+    private void insertNewKey(byte[] localIndices, Object key, long keyHash, Object value) {
         assert localIndices == this.indices;
-        int compactIndex = getIndex(localIndices.length, keyHash);
-        int index = localIndices[compactIndex];
+        int bucketsCount = getBucketsCount(localIndices);
+        int compactIndex = getIndex(bucketsCount, keyHash);
+        int index = getIndexAt(localIndices, compactIndex);
         if (index == EMPTY_INDEX) {
             putInNewSlot(localIndices, key, keyHash, value, compactIndex);
             return;
@@ -542,8 +713,8 @@ public final class ObjectHashMap {
         int searchLimit = getBucketsCount(localIndices) + PERTURB_SHIFTS_COUT;
         for (int i = 0; i < searchLimit; i++) {
             perturb >>>= PERTURB_SHIFT;
-            compactIndex = nextIndex(localIndices.length, compactIndex, perturb);
-            index = localIndices[compactIndex];
+            compactIndex = nextIndex(bucketsCount, compactIndex, perturb);
+            index = getIndexAt(localIndices, compactIndex);
             if (index == EMPTY_INDEX) {
                 putInNewSlot(localIndices, key, keyHash, value, compactIndex);
                 return;
@@ -556,7 +727,7 @@ public final class ObjectHashMap {
         throw CompilerDirectives.shouldNotReachHere();
     }
 
-    private void putInNewSlot(int[] localIndices, Node inliningTarget, InlinedBranchProfile rehashProfile, Object key, long keyHash, Object value, int compactIndex) {
+    private void putInNewSlot(byte[] localIndices, Node inliningTarget, InlinedBranchProfile rehashProfile, Object key, long keyHash, Object value, int compactIndex) {
         assert indices == localIndices;
         if (CompilerDirectives.injectBranchProbability(SLOWPATH_PROBABILITY, needsResize(localIndices))) {
             rehashProfile.enter(inliningTarget);
@@ -566,14 +737,49 @@ public final class ObjectHashMap {
         putInNewSlot(localIndices, key, keyHash, value, compactIndex);
     }
 
-    private void putInNewSlot(int[] localIndices, Object key, long keyHash, Object value, int compactIndex) {
-        size++;
+    private void putInNewSlot(byte[] localIndices, Object key, long keyHash, Object value, int compactIndex) {
         usedIndices++;
+        setIndexAt(localIndices, compactIndex, appendItem(key, keyHash, value));
+    }
+
+    private void putInDummySlot(byte[] localIndices, Node inliningTarget, InlinedBranchProfile rehashProfile, Object key, long keyHash, Object value, int compactIndex) {
+        assert indices == localIndices;
+        assert getIndexAt(localIndices, compactIndex) == DUMMY_INDEX;
+        // The bucket is already counted in usedIndices, but the item still needs a slot in the
+        // compact arrays, which may be full of dummy items
+        if (CompilerDirectives.injectBranchProbability(SLOWPATH_PROBABILITY, usedHashes == hashes.length)) {
+            rehashProfile.enter(inliningTarget);
+            rehashAndPut(key, keyHash, value);
+            return;
+        }
+        // The bucket may be part of collision chains of other keys, so it must keep the collision
+        // bit that all dummy entries have
+        setIndexAt(localIndices, compactIndex, appendItem(key, keyHash, value));
+        markCollision(localIndices, compactIndex);
+    }
+
+    private int appendItem(Object key, long keyHash, Object value) {
+        size++;
         int newIndex = usedHashes++;
-        localIndices[compactIndex] = newIndex;
         setValue(newIndex, value);
+        // setKey may generalize the long keys layout, so the hash must be set only afterwards
         setKey(newIndex, key);
-        hashes[newIndex] = keyHash;
+        setHash(newIndex, keyHash);
+        return newIndex;
+    }
+
+    private Object removeItem(byte[] localIndices, int compactIndex, int index) {
+        Object result = getValue(index);
+        setIndexAt(localIndices, compactIndex, DUMMY_INDEX);
+        setValue(index, null);
+        setKey(index, null);
+        size--;
+        // Dummy items at the end of the compact arrays can be dropped right away. Insertion will
+        // reuse their slots without breaking the insertion order.
+        while (usedHashes > 0 && getValue(usedHashes - 1) == null) {
+            usedHashes--;
+        }
+        return result;
     }
 
     private boolean needsCompaction() {
@@ -631,25 +837,20 @@ public final class ObjectHashMap {
                 compactProfile.enter(inliningTarget);
                 map.compact();
             }
-            int[] indices = map.indices;
-            int indicesLen = indices.length;
+            byte[] indices = map.indices;
+            int indicesLen = getBucketsCount(indices);
 
             // Note: CPython is not shrinking the capacity of the hash table on delete, we do the
             // same
             int compactIndex = getIndex(indicesLen, keyHash);
-            int index = indices[compactIndex];
+            int index = getIndexAt(indices, compactIndex);
             if (foundNullKey.profile(inliningTarget, index == EMPTY_INDEX)) {
                 return null; // not found
             }
 
-            int unwrappedIndex = unwrapIndex(index);
+            int unwrappedIndex = unwrapIndex(indices, index);
             if (foundEqKey.profile(inliningTarget, index != DUMMY_INDEX && map.keysEqual(indices, frame, unwrappedIndex, key, keyHash, eqNode))) {
-                Object result = map.getValue(unwrappedIndex);
-                indices[compactIndex] = DUMMY_INDEX;
-                map.setValue(unwrappedIndex, null);
-                map.setKey(unwrappedIndex, null);
-                map.size--;
-                return result;
+                return map.removeItem(indices, compactIndex, unwrappedIndex);
             }
 
             // collision: intentionally counted loop
@@ -664,18 +865,13 @@ public final class ObjectHashMap {
                     }
                     perturb >>>= PERTURB_SHIFT;
                     compactIndex = nextIndex(indicesLen, compactIndex, perturb);
-                    index = indices[compactIndex];
+                    index = getIndexAt(indices, compactIndex);
                     if (collisionFoundNoValue.profile(inliningTarget, index == EMPTY_INDEX)) {
                         return null; // not found
                     }
-                    unwrappedIndex = unwrapIndex(index);
+                    unwrappedIndex = unwrapIndex(indices, index);
                     if (collisionFoundEqKey.profile(inliningTarget, index != DUMMY_INDEX && map.keysEqual(indices, frame, unwrappedIndex, key, keyHash, eqNode))) {
-                        Object result = map.getValue(unwrappedIndex);
-                        indices[compactIndex] = DUMMY_INDEX;
-                        map.setValue(unwrappedIndex, null);
-                        map.setKey(unwrappedIndex, null);
-                        map.size--;
-                        return result;
+                        return map.removeItem(indices, compactIndex, unwrappedIndex);
                     }
                 }
             } finally {
@@ -702,8 +898,11 @@ public final class ObjectHashMap {
         }
     }
 
-    private boolean keysEqual(int[] originalIndices, Frame frame, int index, Object key, long keyHash,
+    private boolean keysEqual(byte[] originalIndices, Frame frame, int index, Object key, long keyHash,
                     PyObjectRichCompareBool.EqNode eqNode) throws RestartLookupException {
+        if (longKeys) {
+            return longKeysEqual(originalIndices, frame, index, key, keyHash, eqNode);
+        }
         if (hashes[index] != keyHash) {
             return false;
         }
@@ -716,9 +915,11 @@ public final class ObjectHashMap {
             // Either someone overridden the slot we are just examining, or rehasing reallocated the
             // indices array. We need to restart the lookup. Other situations are OK:
             //
-            // New entry was added: if its key is different to what we look for we don't care, if
-            // its key collides with what we look for, it will be put at the end of the collision
-            // chain, and we'll find it.
+            // New entry was added: if its key is different to what we look for we don't care. If
+            // its key collides with what we look for, it is put either at the end of the collision
+            // chain, where we'll find it, or into the first dummy bucket of the chain. A put that
+            // remembered that bucket checks that it is still a dummy before reusing it and
+            // restarts otherwise (see PutNode#doPut).
             //
             // Entry was removed: if it was not the entry we're looking at right now, we don't care.
             // Removal could have triggered a compaction, which shuffles things around in the arrays
@@ -729,6 +930,26 @@ public final class ObjectHashMap {
         return result;
     }
 
+    private boolean longKeysEqual(byte[] originalIndices, Frame frame, int index, Object key, long keyHash,
+                    PyObjectRichCompareBool.EqNode eqNode) throws RestartLookupException {
+        long originalKey = hashes[index];
+        if (key instanceof Integer) {
+            return originalKey == (int) key;
+        } else if (key instanceof Long) {
+            return originalKey == (long) key;
+        }
+        if (PyObjectHashNode.hash(originalKey) != keyHash) {
+            return false;
+        }
+        // some other object that may be equal to an int, e.g., a bool or a float
+        boolean result = eqNode.execute(frame, boxLongKey(originalKey), key);
+        if (!longKeys || hashes[index] != originalKey || getValue(index) == null || indices != originalIndices) {
+            // see keysEqual
+            throw RestartLookupException.INSTANCE;
+        }
+        return result;
+    }
+
     /**
      * Called when we need space for new entry. It determines the new size from the number of slots
      * occupied by real values (i.e., does not count dummy entries), so the new size may be actually
@@ -751,17 +972,21 @@ public final class ObjectHashMap {
         }
         long[] oldHashes = hashes;
         Object[] oldKeysAndValues = keysAndValues;
+        long[] oldOccupied = occupied;
         int oldUsedSize = usedHashes;
         int oldSize = size;
         allocateData(indicesCapacity);
         size = 0;
         usedHashes = 0;
         usedIndices = 0;
-        int[] localIndices = this.indices;
+        byte[] localIndices = this.indices;
         for (int i = 0; i < oldUsedSize; i++) {
-            if (getValue(i, oldKeysAndValues) != null) {
-                final Object key = getKey(i, oldKeysAndValues);
-                insertNewKey(localIndices, key, oldHashes[i], getValue(i, oldKeysAndValues));
+            // the layout cannot change in this loop: if the map is keys only, all the values are
+            // None and inserting None does not generalize the layout, similarly for long keys
+            Object value = getValue(i, oldKeysAndValues, oldOccupied, keysOnly, longKeys);
+            if (value != null) {
+                final Object key = getKey(i, oldHashes, oldKeysAndValues, oldOccupied, keysOnly, longKeys);
+                insertNewKey(localIndices, key, getHash(i, oldHashes, longKeys), value);
             }
         }
         assert size == oldSize : String.format("size=%d, oldSize=%d, oldUsedSize=%d, usedHashes=%d, usedIndices=%d",
@@ -792,24 +1017,24 @@ public final class ObjectHashMap {
             }
         }
         usedHashes -= dummyCount; // We've "removed" the dummy entries
-        int[] localIndices = indices;
-        for (int i = 0; i < localIndices.length; i++) {
-            int index = localIndices[i];
+        byte[] localIndices = indices;
+        int bucketsCount = getBucketsCount(localIndices);
+        for (int i = 0; i < bucketsCount; i++) {
+            int index = getIndexAt(localIndices, i);
             if (index != EMPTY_INDEX && index != DUMMY_INDEX) {
                 boolean collision = isCollision(index);
-                int unwrapped = unwrapIndex(index);
+                int unwrapped = unwrapIndex(localIndices, index);
                 int newIndex = unwrapped - shuffle[unwrapped];
-                localIndices[i] = newIndex;
+                setIndexAt(localIndices, i, newIndex);
                 if (collision) {
                     markCollision(localIndices, i);
                 }
-            } else if (index == DUMMY_INDEX) {
-                dummyCount--;
             }
         }
-        // Indices may contain dummy values removed from hashes and keysAndValues arrays in some
-        // previous rounds of compaction, but we should have seen at least this many dummy values
-        assert dummyCount <= 0;
+        // Note: the number of dummy buckets is not related to the number of dummy items in the
+        // compact arrays, because dummy buckets are reused on insertion, dummy items at the end of
+        // the compact arrays are dropped on removal, and compaction leaves the dummy buckets in
+        // place
     }
 
     private static int nextIndex(int indicesLen, int i, long perturb) {
@@ -821,34 +1046,168 @@ public final class ObjectHashMap {
         return (int) (hash & (indicesLen - 1));
     }
 
-    public static Object getKey(int index, Object[] keysAndValues) {
-        return keysAndValues[index << 1];
+    private static Object getKey(int index, long[] hashes, Object[] keysAndValues, long[] occupied, boolean keysOnly, boolean longKeys) {
+        if (longKeys) {
+            boolean isOccupied = keysOnly ? isOccupied(occupied, index) : keysAndValues[index] != null;
+            return isOccupied ? boxLongKey(hashes[index]) : null;
+        }
+        return keysAndValues[keysOnly ? index : index << 1];
     }
 
-    public static Object getValue(int index, Object[] keysAndValues) {
+    private static Object getValue(int index, Object[] keysAndValues, long[] occupied, boolean keysOnly, boolean longKeys) {
+        if (keysOnly) {
+            // removed items have their key set to null
+            boolean isOccupied = longKeys ? isOccupied(occupied, index) : keysAndValues[index] != null;
+            return isOccupied ? PNone.NONE : null;
+        } else if (longKeys) {
+            return keysAndValues[index];
+        }
         return keysAndValues[(index << 1) + 1];
     }
 
+    private static long getHash(int index, long[] hashes, boolean longKeys) {
+        if (longKeys) {
+            return PyObjectHashNode.hash(hashes[index]);
+        }
+        return hashes[index];
+    }
+
+    private static boolean isOccupied(long[] occupied, int index) {
+        return (occupied[index >> 6] & (1L << index)) != 0;
+    }
+
+    private static Object boxLongKey(long key) {
+        if (PInt.isIntRange(key)) {
+            return (int) key;
+        }
+        return key;
+    }
+
     public Object getKey(int index) {
-        return getKey(index, keysAndValues);
+        return getKey(index, hashes, keysAndValues, occupied, keysOnly, longKeys);
     }
 
     public Object getValue(int index) {
-        return getValue(index, keysAndValues);
+        return getValue(index, keysAndValues, occupied, keysOnly, longKeys);
+    }
+
+    public long getHash(int index) {
+        return getHash(index, hashes, longKeys);
+    }
+
+    private void setHash(int index, long hash) {
+        if (!longKeys) {
+            hashes[index] = hash;
+        }
     }
 
     public void setValue(int index, Object value) {
+        version++;
+        if (keysOnly) {
+            if (value == null || value == PNone.NONE) {
+                // null is written only together with null key, None is implicit
+                return;
+            }
+            generalizeToKeysAndValues();
+        }
+        if (longKeys) {
+            keysAndValues[index] = value;
+            return;
+        }
         keysAndValues[(index << 1) + 1] = value;
     }
 
     public void setKey(int index, Object key) {
-        keysAndValues[(index << 1)] = key;
+        if (longKeys) {
+            if (key instanceof Integer) {
+                hashes[index] = (int) key;
+                setOccupied(index, true);
+                return;
+            } else if (key instanceof Long) {
+                hashes[index] = (long) key;
+                setOccupied(index, true);
+                return;
+            } else if (key == null) {
+                // removed items are marked by null value, or by the cleared bit if keys only
+                setOccupied(index, false);
+                return;
+            }
+            generalizeLongKeys();
+        }
+        keysAndValues[keysOnly ? index : index << 1] = key;
+    }
+
+    private void setOccupied(int index, boolean value) {
+        if (keysOnly) {
+            if (value) {
+                occupied[index >> 6] |= 1L << index;
+            } else {
+                occupied[index >> 6] &= ~(1L << index);
+            }
+        }
+    }
+
+    @TruffleBoundary
+    private void generalizeToKeysAndValues() {
+        if (longKeys) {
+            // keys stay in the hashes array, only the values array is materialized
+            Object[] values = new Object[hashes.length];
+            for (int i = 0; i < usedHashes; i++) {
+                if (isOccupied(occupied, i)) {
+                    values[i] = PNone.NONE;
+                }
+            }
+            keysAndValues = values;
+            occupied = null;
+            keysOnly = false;
+            return;
+        }
+        Object[] keys = keysAndValues;
+        Object[] newKeysAndValues = new Object[keys.length * 2];
+        for (int i = 0; i < usedHashes; i++) {
+            if (keys[i] != null) {
+                newKeysAndValues[i << 1] = keys[i];
+                newKeysAndValues[(i << 1) + 1] = PNone.NONE;
+            }
+        }
+        keysAndValues = newKeysAndValues;
+        keysOnly = false;
+    }
+
+    @TruffleBoundary
+    private void generalizeLongKeys() {
+        if (keysOnly) {
+            Object[] keys = new Object[hashes.length];
+            for (int i = 0; i < usedHashes; i++) {
+                if (isOccupied(occupied, i)) {
+                    long key = hashes[i];
+                    keys[i] = boxLongKey(key);
+                    hashes[i] = PyObjectHashNode.hash(key);
+                }
+            }
+            keysAndValues = keys;
+            occupied = null;
+            longKeys = false;
+            return;
+        }
+        Object[] values = keysAndValues;
+        Object[] newKeysAndValues = new Object[values.length * 2];
+        for (int i = 0; i < usedHashes; i++) {
+            if (values[i] != null) {
+                long key = hashes[i];
+                newKeysAndValues[i << 1] = boxLongKey(key);
+                newKeysAndValues[(i << 1) + 1] = values[i];
+                hashes[i] = PyObjectHashNode.hash(key);
+            }
+        }
+        keysAndValues = newKeysAndValues;
+        longKeys = false;
     }
 
     private boolean checkInternalState() {
         // We must have at least one empty slot, collision resolution relies on the fact that it is
         // always going to find an empty slot
-        assert usedIndices < indices.length : usedIndices;
+        assert usedIndices < getBucketsCount(indices) : usedIndices;
         return true;
     }
 
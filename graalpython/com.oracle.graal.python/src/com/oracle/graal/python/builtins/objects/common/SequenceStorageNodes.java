@@ -49,6 +49,7 @@ import static com.oracle.graal.python.runtime.sequence.storage.SequenceStorage.L
 import static com.oracle.graal.python.runtime.sequence.storage.SequenceStorage.ListStorageType.Int;
 import static com.oracle.graal.python.runtime.sequence.storage.SequenceStorage.ListStorageType.Long;
 import static com.oracle.graal.python.runtime.sequence.storage.SequenceStorage.ListStorageType.Uninitialized;
+import static com.oracle.graal.python.util.PythonUtils.TS_ENCODING;
 
 import java.lang.reflect.Array;
 import java.util.Arrays;
@@ -137,6 +138,7 @@ import com.oracle.graal.python.runtime.sequence.storage.BoolSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.DoubleSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.EmptySequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.IntRangeSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.IntSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.LongSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.MroSequenceStorage;
@@ -145,6 +147,7 @@ import com.oracle.graal.python.runtime.sequence.storage.ObjectSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage.ListStorageType;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorageFactory;
+import com.oracle.graal.python.runtime.sequence.storage.StringSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStoreException;
 import com.oracle.graal.python.runtime.sequence.storage.TypedSequenceStorage;
 import com.oracle.graal.python.util.BiFunction;
@@ -214,6 +217,8 @@ public abstract class SequenceStorageNodes {
                     return rhsType == Boolean || rhsType == Byte || rhsType == Int || rhsType == Long || rhsType == Uninitialized || rhsType == Empty;
                 case Double:
                     return rhsType == Double || rhsType == Uninitialized || rhsType == Empty;
+                case String:
+                    return rhsType == ListStorageType.String || rhsType == Uninitialized || rhsType == Empty;
                 case Generic:
                     return true;
                 case Empty:
@@ -254,6 +259,8 @@ public abstract class SequenceStorageNodes {
                     return rhsType == Boolean || rhsType == Byte || rhsType == Int || rhsType == Long || rhsType == Uninitialized || rhsType == Empty;
                 case Double:
                     return rhsType == Double || rhsType == Uninitialized || rhsType == Empty;
+                case String:
+                    return rhsType == ListStorageType.String || rhsType == Uninitialized || rhsType == Empty;
                 case Generic:
                     return true;
                 case Empty:
@@ -272,8 +279,8 @@ public abstract class SequenceStorageNodes {
     @ImportStatic(PythonOptions.class)
     abstract static class SequenceStorageBaseNode extends PNodeWithContext {
 
-        protected static final int MAX_SEQUENCE_STORAGES = 9;
-        protected static final int MAX_ARRAY_STORAGES = 7;
+        protected static final int MAX_SEQUENCE_STORAGES = 11;
+        protected static final int MAX_ARRAY_STORAGES = 9;
 
         @InliningCutoff
         protected static boolean isByteStorage(NativeSequenceStorage store) {
@@ -295,6 +302,8 @@ public abstract class SequenceStorageNodes {
                     return left instanceof LongSequenceStorage;
                 case Double:
                     return left instanceof DoubleSequenceStorage;
+                case String:
+                    return left instanceof StringSequenceStorage;
                 case Generic:
                     return left instanceof ObjectSequenceStorage;
             }
@@ -340,6 +349,11 @@ public abstract class SequenceStorageNodes {
             return getElementTypeNode.execute(s) == ListStorageType.Double;
         }
 
+        @InliningCutoff
+        protected static boolean isString(GetElementType getElementTypeNode, SequenceStorage s) {
+            return getElementTypeNode.execute(s) == ListStorageType.String;
+        }
+
         @InliningCutoff
         protected static boolean isObject(GetElementType getElementTypeNode, SequenceStorage s) {
             return getElementTypeNode.execute(s) == ListStorageType.Generic;
@@ -369,6 +383,10 @@ public abstract class SequenceStorageNodes {
             return et == ListStorageType.Double;
         }
 
+        protected static boolean isString(ListStorageType et) {
+            return et == ListStorageType.String;
+        }
+
         protected static boolean isObject(ListStorageType et) {
             return et == ListStorageType.Generic;
         }
@@ -429,10 +447,22 @@ public abstract class SequenceStorageNodes {
         @Child private GetItemScalarNode getItemScalarNode;
         @Child private GetItemSliceNode getItemSliceNode;
         private final BiFunction<SequenceStorage, PythonObjectFactory, Object> factoryMethod;
+        /**
+         * If {@code true}, large contiguous slices of object storages share the backing array with
+         * the sliced storage (see {@link ObjectSequenceStorage#createSharedSlice}).
+         */
+        private final boolean shareSlices;
+        /**
+         * If {@code true}, the sliced sequence is mutable and must copy its array before the next
+         * write once a slice shares it.
+         */
+        private final boolean mutable;
 
-        public GetItemNode(NormalizeIndexNode normalizeIndexNode, BiFunction<SequenceStorage, PythonObjectFactory, Object> factoryMethod) {
+        public GetItemNode(NormalizeIndexNode normalizeIndexNode, BiFunction<SequenceStorage, PythonObjectFactory, Object> factoryMethod, boolean shareSlices, boolean mutable) {
             super(normalizeIndexNode);
             this.factoryMethod = factoryMethod;
+            this.shareSlices = shareSlices;
+            this.mutable = mutable;
         }
 
         public abstract Object execute(VirtualFrame frame, SequenceStorage s, Object key);
@@ -481,15 +511,27 @@ public abstract class SequenceStorageNodes {
                         @Cached PythonObjectFactory factory,
                         @Cached CoerceToIntSlice sliceCast,
                         @Cached ComputeIndices compute,
-                        @Cached LenOfRangeNode sliceLen) {
+                        @Cached LenOfRangeNode sliceLen,
+                        @Cached ConditionProfile shareProfile) {
             SliceInfo info = compute.execute(frame, sliceCast.execute(slice), storage.length());
             if (factoryMethod != null) {
-                return factoryMethod.apply(getGetItemSliceNode().execute(storage, info.start, info.stop, info.step, sliceLen.len(info)), factory);
+                int len = sliceLen.len(info);
+                SequenceStorage result;
+                if (shareSlices && shareProfile.profile(info.step == 1 && canShareSlice(storage, len))) {
+                    result = ((ObjectSequenceStorage) storage).createSharedSlice(info.start, len, mutable);
+                } else {
+                    result = getGetItemSliceNode().execute(storage, info.start, info.stop, info.step, len);
+                }
+                return factoryMethod.apply(result, factory);
             }
             CompilerDirectives.transferToInterpreterAndInvalidate();
             throw new IllegalStateException();
         }
 
+        private static boolean canShareSlice(SequenceStorage storage, int len) {
+            return storage instanceof ObjectSequenceStorage && ((ObjectSequenceStorage) storage).canShareSlice(len);
+        }
+
         private GetItemScalarNode getGetItemScalarNode() {
             if (getItemScalarNode == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
@@ -508,32 +550,32 @@ public abstract class SequenceStorageNodes {
 
         @NeverDefault
         public static GetItemNode createNotNormalized() {
-            return GetItemNodeGen.create(null, null);
+            return GetItemNodeGen.create(null, null, false, false);
         }
 
         @NeverDefault
         public static GetItemNode create(NormalizeIndexNode normalizeIndexNode) {
-            return GetItemNodeGen.create(normalizeIndexNode, null);
+            return GetItemNodeGen.create(normalizeIndexNode, null, false, false);
         }
 
         @NeverDefault
         public static GetItemNode create() {
-            return GetItemNodeGen.create(NormalizeIndexNode.create(), null);
+            return GetItemNodeGen.create(NormalizeIndexNode.create(), null, false, false);
         }
 
         @NeverDefault
         public static GetItemNode create(NormalizeIndexNode normalizeIndexNode, BiFunction<SequenceStorage, PythonObjectFactory, Object> factoryMethod) {
-            return GetItemNodeGen.create(normalizeIndexNode, factoryMethod);
+            return GetItemNodeGen.create(normalizeIndexNode, factoryMethod, false, false);
         }
 
         @NeverDefault
         public static SequenceStorageNodes.GetItemNode createForList() {
-            return SequenceStorageNodes.GetItemNode.create(NormalizeIndexNode.forList(), (s, f) -> f.createList(s));
+            return GetItemNodeGen.create(NormalizeIndexNode.forList(), (s, f) -> f.createList(s), true, true);
         }
 
         @NeverDefault
         public static SequenceStorageNodes.GetItemNode createForTuple() {
-            return SequenceStorageNodes.GetItemNode.create(NormalizeIndexNode.forTuple(), (s, f) -> f.createTuple(s));
+            return GetItemNodeGen.create(NormalizeIndexNode.forTuple(), (s, f) -> f.createTuple(s), true, false);
         }
     }
 
@@ -642,6 +684,11 @@ public abstract class SequenceStorageNodes {
             return storage.getIntItemNormalized(idx);
         }
 
+        @Specialization
+        protected static int doIntRange(IntRangeSequenceStorage storage, int idx) {
+            return storage.getIntItemNormalized(idx);
+        }
+
         @Specialization
         protected static long doLong(LongSequenceStorage storage, int idx) {
             return storage.getLongItemNormalized(idx);
@@ -652,6 +699,11 @@ public abstract class SequenceStorageNodes {
             return storage.getDoubleItemNormalized(idx);
         }
 
+        @Specialization
+        protected static TruffleString doString(StringSequenceStorage storage, int idx) {
+            return storage.getStringItemNormalized(idx);
+        }
+
         @Specialization
         protected static Object doObject(ObjectSequenceStorage storage, int idx) {
             return storage.getItemNormalized(idx);
@@ -984,6 +1036,12 @@ public abstract class SequenceStorageNodes {
             return execute(null, s, key, value);
         }
 
+        @Specialization
+        protected SequenceStorage doIntRange(VirtualFrame frame, IntRangeSequenceStorage storage, Object idx, Object value) {
+            // lists continue with a regular int storage once they are written to
+            return execute(frame, storage.toIntSequenceStorage(), idx, value);
+        }
+
         @Specialization
         protected SequenceStorage doScalarInt(IntSequenceStorage storage, int idx, int value) {
             int normalized = normalizeIndex(idx, storage);
@@ -1176,6 +1234,11 @@ public abstract class SequenceStorageNodes {
             storage.setIntItemNormalized(idx, value);
         }
 
+        @Specialization
+        protected static void doIntRange(IntRangeSequenceStorage storage, int idx, int value) {
+            storage.setIntItemNormalized(idx, value);
+        }
+
         @Specialization(rewriteOn = OverflowException.class)
         protected static void doIntL(IntSequenceStorage storage, int idx, long value) throws OverflowException {
             storage.setIntItemNormalized(idx, PInt.intValueExact(value));
@@ -1226,6 +1289,11 @@ public abstract class SequenceStorageNodes {
             storage.setDoubleItemNormalized(idx, value);
         }
 
+        @Specialization
+        protected static void doString(StringSequenceStorage storage, int idx, TruffleString value) {
+            storage.setStringItemNormalized(idx, value);
+        }
+
         @Specialization
         protected static void doObject(ObjectSequenceStorage storage, int idx, Object value) {
             storage.setItemNormalized(idx, value);
@@ -2212,6 +2280,10 @@ public abstract class SequenceStorageNodes {
                         @Cached EnsureCapacityNode ensureCapacityNode,
                         @Cached ConcatBaseNode concatStoragesNode) {
             SequenceStorage right = getStorageNode.execute(seq);
+            if (left instanceof IntRangeSequenceStorage) {
+                // lists continue with a regular int storage once they are extended
+                left = ((IntRangeSequenceStorage) left).toIntSequenceStorage();
+            }
             int lenLeft = left.length();
             int lenResult;
             if (len > 0) {
@@ -2341,19 +2413,13 @@ public abstract class SequenceStorageNodes {
             }
         }
 
-        /* special but common case: something like '[0] * n' */
+        /*
+         * special but common case: something like '[0] * n'; the elements are only allocated once
+         * the result is modified
+         */
         @Specialization(guards = {"s.length() == 1", "times > 0"})
-        IntSequenceStorage doIntSingleElement(IntSequenceStorage s, int times,
-                        @Shared("raiseNode") @Cached PRaiseNode raiseNode) {
-            try {
-                int[] repeated = new int[PythonUtils.multiplyExact(s.length(), times)];
-                Arrays.fill(repeated, s.getIntItemNormalized(0));
-                return new IntSequenceStorage(repeated);
-            } catch (OutOfMemoryError e) {
-                throw raiseNode.raise(MemoryError);
-            } catch (OverflowException e) {
-                throw raiseNode.raise(errorForOverflow);
-            }
+        static IntRangeSequenceStorage doIntSingleElement(IntSequenceStorage s, int times) {
+            return new IntRangeSequenceStorage(s.getIntItemNormalized(0), 0, times);
         }
 
         /* special but common case: something like '[0L] * n' */
@@ -2386,6 +2452,21 @@ public abstract class SequenceStorageNodes {
             }
         }
 
+        /* special but common case: something like "[''] * n" */
+        @Specialization(guards = {"s.length() == 1", "times > 0"})
+        StringSequenceStorage doStringSingleElement(StringSequenceStorage s, int times,
+                        @Shared("raiseNode") @Cached PRaiseNode raiseNode) {
+            try {
+                TruffleString[] repeated = new TruffleString[PythonUtils.multiplyExact(s.length(), times)];
+                Arrays.fill(repeated, s.getStringItemNormalized(0));
+                return new StringSequenceStorage(repeated);
+            } catch (OutOfMemoryError e) {
+                throw raiseNode.raise(MemoryError);
+            } catch (OverflowException e) {
+                throw raiseNode.raise(errorForOverflow);
+            }
+        }
+
         /* special but common case: something like '[None] * n' */
         @Specialization(guards = {"s.length() == 1", "times > 0"})
         ObjectSequenceStorage doObjectSingleElement(ObjectSequenceStorage s, int times,
@@ -2533,6 +2614,11 @@ public abstract class SequenceStorageNodes {
             return s.indexOfInt(item);
         }
 
+        @Specialization
+        public static int doIntRangeStorage(IntRangeSequenceStorage s, int item) {
+            return s.indexOfInt(item);
+        }
+
         @Specialization
         public static int doLongStorage(LongSequenceStorage s, long item) {
             return s.indexOfLong(item);
@@ -2543,6 +2629,17 @@ public abstract class SequenceStorageNodes {
             return s.indexOfDouble(item);
         }
 
+        @Specialization
+        static int doStringStorage(StringSequenceStorage s, TruffleString item,
+                        @Cached TruffleString.EqualNode equalNode) {
+            for (int i = 0; i < s.length(); i++) {
+                if (equalNode.execute(s.getStringItemNormalized(i), item, TS_ENCODING)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
         @Specialization
         static int doGeneric(VirtualFrame frame, SequenceStorage self, Object item,
                         @Cached GetItemScalarNode getItemNode,
@@ -2686,8 +2783,13 @@ public abstract class SequenceStorageNodes {
             return new DoubleSequenceStorage();
         }
 
+        @Specialization
+        static StringSequenceStorage doEmptyString(@SuppressWarnings("unused") EmptySequenceStorage s, @SuppressWarnings("unused") TruffleString val) {
+            return new StringSequenceStorage(DEFAULT_CAPACITY);
+        }
+
         protected static boolean isKnownType(Object val) {
-            return val instanceof Byte || val instanceof Integer || val instanceof Long || val instanceof Double;
+            return val instanceof Byte || val instanceof Integer || val instanceof Long || val instanceof Double || val instanceof TruffleString;
         }
 
         @Specialization(guards = "!isKnownType(val)")
@@ -2732,6 +2834,20 @@ public abstract class SequenceStorageNodes {
             return new LongSequenceStorage(copied);
         }
 
+        @Specialization
+        static SequenceStorage doIntRangeInteger(IntRangeSequenceStorage s, @SuppressWarnings("unused") int val) {
+            return s.toIntSequenceStorage();
+        }
+
+        @Specialization
+        static SequenceStorage doIntRangeLong(IntRangeSequenceStorage s, @SuppressWarnings("unused") long val) {
+            long[] copied = new long[s.length()];
+            for (int i = 0; i < copied.length; i++) {
+                copied[i] = s.getIntItemNormalized(i);
+            }
+            return new LongSequenceStorage(copied);
+        }
+
         @Specialization
         static LongSequenceStorage doLongByte(LongSequenceStorage s, @SuppressWarnings("unused") byte val) {
             return s;
@@ -2776,6 +2892,9 @@ public abstract class SequenceStorageNodes {
                             (value instanceof Byte || value instanceof Integer || value instanceof Long)) {
                 return false;
             }
+            if (s instanceof IntRangeSequenceStorage && (value instanceof Integer || value instanceof Long)) {
+                return false;
+            }
             return !(value instanceof SequenceStorage) || !isAssignCompatibleNode.execute(s, (SequenceStorage) value);
         }
 
@@ -2798,6 +2917,13 @@ public abstract class SequenceStorageNodes {
             return recursive.execute(newStorage, val, genNodeSupplier);
         }
 
+        @Specialization
+        static SequenceStorage doIntRange(IntRangeSequenceStorage s, Object val, GenNodeSupplier genNodeSupplier,
+                        @Cached AppendNode recursive) {
+            // lists continue with a regular int storage once they are appended to
+            return recursive.execute(s.toIntSequenceStorage(), val, genNodeSupplier);
+        }
+
         @Specialization
         SequenceStorage doManaged(BasicSequenceStorage s, Object val, GenNodeSupplier genNodeSupplier,
                         @Cached EnsureCapacityNode ensureCapacity,
@@ -2878,6 +3004,10 @@ public abstract class SequenceStorageNodes {
             return getElementType(s) == ListStorageType.Double;
         }
 
+        protected boolean isString(SequenceStorage s) {
+            return getElementType(s) == ListStorageType.String;
+        }
+
         protected boolean isObject(SequenceStorage s) {
             return getElementType(s) == ListStorageType.Generic;
         }
@@ -2932,6 +3062,16 @@ public abstract class SequenceStorageNodes {
             return ss;
         }
 
+        @Specialization(guards = "isString(s)")
+        static StringSequenceStorage doString(@SuppressWarnings("unused") SequenceStorage s, int cap, int len) {
+            StringSequenceStorage ss = new StringSequenceStorage(cap);
+            if (len != -1) {
+                ss.ensureCapacity(len);
+                ss.setNewLength(len);
+            }
+            return ss;
+        }
+
         @Fallback
         static ObjectSequenceStorage doObject(@SuppressWarnings("unused") SequenceStorage s, int cap, int len) {
             ObjectSequenceStorage ss = new ObjectSequenceStorage(cap);
@@ -3429,6 +3569,16 @@ public abstract class SequenceStorageNodes {
             return -1;
         }
 
+        @Specialization
+        int doIntRange(IntRangeSequenceStorage s, int item, int start, int end) {
+            for (int i = start; i < getLength(s, end); i++) {
+                if (s.getIntItemNormalized(i) == item) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
         @Specialization
         int doByte(ByteSequenceStorage s, int item, int start, int end) {
             for (int i = start; i < getLength(s, end); i++) {
@@ -3459,6 +3609,17 @@ public abstract class SequenceStorageNodes {
             return -1;
         }
 
+        @Specialization
+        int doString(StringSequenceStorage s, TruffleString item, int start, int end,
+                        @Cached TruffleString.EqualNode equalNode) {
+            for (int i = start; i < getLength(s, end); i++) {
+                if (equalNode.execute(s.getStringItemNormalized(i), item, TS_ENCODING)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
         @Specialization
         int doGeneric(VirtualFrame frame, SequenceStorage s, Object item, int start, int end,
                         @Cached GetItemScalarNode getItemNode,
@@ -3580,6 +3741,13 @@ public abstract class SequenceStorageNodes {
             return recursiveNode.execute(newStorage, index, value, false);
         }
 
+        @Specialization
+        protected static SequenceStorage doIntRange(IntRangeSequenceStorage storage, int index, Object value, boolean recursive,
+                        @Cached InsertItemNode recursiveNode) {
+            // lists continue with a regular int storage once they are inserted into
+            return recursiveNode.execute(storage.toIntSequenceStorage(), index, value, recursive);
+        }
+
         @Specialization(limit = "MAX_ARRAY_STORAGES", guards = {"storage.getClass() == cachedClass"})
         protected static SequenceStorage doStorage(BasicSequenceStorage storage, int index, Object value, boolean recursive,
                         @Cached InsertItemNode recursiveNode,
@@ -3726,6 +3894,26 @@ public abstract class SequenceStorageNodes {
                             }
                             return new DoubleSequenceStorage(elements, i);
                         }
+                        case String: {
+                            TruffleString[] elements = new TruffleString[size];
+                            array = elements;
+                            try {
+                                while (true) {
+                                    Object value = nextNode.execute(frame, iterator);
+                                    if (!(value instanceof TruffleString)) {
+                                        throw new UnexpectedResultException(value);
+                                    }
+                                    if (growArrayProfile.profile(inliningTarget, i >= elements.length)) {
+                                        array = elements = PythonUtils.arrayCopyOf(elements, elements.length * 2);
+                                    }
+                                    elements[i++] = (TruffleString) value;
+                                }
+                            } catch (PException e) {
+                                LoopNode.reportLoopCount(this, i);
+                                e.expectStopIteration(errorProfile);
+                            }
+                            return new StringSequenceStorage(elements, i);
+                        }
                         case Generic: {
                             Object[] elements = new Object[size];
                             try {
@@ -3907,6 +4095,24 @@ public abstract class SequenceStorageNodes {
                             }
                             return new DoubleSequenceStorage(elements, i);
                         }
+                        case String: {
+                            TruffleString[] elements = new TruffleString[size];
+                            array = elements;
+                            try {
+                                for (; loopProfile.profile((value = nextNode.execute(frame, iterator)) != STOP_MARKER); i++) {
+                                    if (!(value instanceof TruffleString)) {
+                                        throw new UnexpectedResultException(value);
+                                    }
+                                    if (growArrayProfile.profile(inliningTarget, i >= elements.length)) {
+                                        array = elements = PythonUtils.arrayCopyOf(elements, elements.length * 2);
+                                    }
+                                    elements[i] = (TruffleString) value;
+                                }
+                            } catch (PException e) {
+                                e.expectStopIteration(errorProfile);
+                            }
+                            return new StringSequenceStorage(elements, i);
+                        }
                         case Generic: {
                             Object[] elements = new Object[size];
                             try {
@@ -63,10 +63,12 @@ import com.oracle.graal.python.runtime.PythonContext.PythonThreadState;
 import com.oracle.graal.python.runtime.sequence.storage.BoolSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.DoubleSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.EmptySequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.IntRangeSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.IntSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.LongSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.ObjectSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.StringSequenceStorage;
 import com.oracle.graal.python.util.PythonUtils;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
@@ -77,7 +79,6 @@ import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.VirtualFrame;
-import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.api.nodes.LoopNode;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.api.profiles.LoopConditionProfile;
@@ -95,6 +96,78 @@ public abstract class SortNodes {
         }
     }
 
+    /**
+     * Stable merge sort of an index permutation using a primitive key comparison. Like CPython's
+     * sort, it only ever asks whether one key is less than another.
+     */
+    private static final class IndexSort {
+        private static final int RUN_LENGTH = 32;
+
+        @FunctionalInterface
+        interface LessThan {
+            boolean lessThan(int a, int b);
+        }
+
+        /**
+         * Returns the indices {@code 0..len-1} in ascending key order. For {@code reverse}, the
+         * indices are sorted starting from the reversed sequence to preserve stability in the same
+         * way as CPython (reverse, sort, reverse).
+         */
+        static int[] sort(int len, boolean reverse, LessThan cmp) {
+            int[] order = new int[len];
+            for (int i = 0; i < len; i++) {
+                order[i] = reverse ? len - i - 1 : i;
+            }
+            for (int lo = 0; lo < len; lo += RUN_LENGTH) {
+                insertionSort(order, lo, Math.min(lo + RUN_LENGTH, len), cmp);
+            }
+            int[] src = order;
+            int[] dst = new int[len];
+            for (int width = RUN_LENGTH; width < len; width = width > len / 2 ? len : width * 2) {
+                for (int lo = 0; lo < len;) {
+                    int mid = lo + Math.min(width, len - lo);
+                    int hi = mid + Math.min(width, len - mid);
+                    merge(src, dst, lo, mid, hi, cmp);
+                    lo = hi;
+                }
+                int[] tmp = src;
+                src = dst;
+                dst = tmp;
+            }
+            return src;
+        }
+
+        private static void insertionSort(int[] a, int lo, int hi, LessThan cmp) {
+            for (int i = lo + 1; i < hi; i++) {
+                int x = a[i];
+                int j = i - 1;
+                while (j >= lo && cmp.lessThan(x, a[j])) {
+                    a[j + 1] = a[j];
+                    j--;
+                }
+                a[j + 1] = x;
+            }
+        }
+
+        private static void merge(int[] src, int[] dst, int lo, int mid, int hi, LessThan cmp) {
+            if (mid == hi || !cmp.lessThan(src[mid], src[mid - 1])) {
+                // the runs are already in order
+                System.arraycopy(src, lo, dst, lo, hi - lo);
+                return;
+            }
+            int i = lo;
+            int j = mid;
+            int k = lo;
+            while (i < mid && j < hi) {
+                // take from the right run only if strictly less to keep the sort stable
+                dst[k++] = cmp.lessThan(src[j], src[i]) ? src[j++] : src[i++];
+            }
+            System.arraycopy(src, i, dst, k, mid - i);
+            k += mid - i;
+            System.arraycopy(src, j, dst, k, hi - j);
+        }
+    }
+
     private static class ObjectComparatorRootNode extends PRootNode {
         private static final Signature SIGNATURE = new Signature(-1, false, -1, false, tsArray("a", "b"), PythonUtils.EMPTY_TRUFFLESTRING_ARRAY);
 
@@ -157,6 +230,9 @@ public abstract class SortNodes {
 
     public abstract static class SortSequenceStorageNode extends PNodeWithContext {
 
+        /** Minimal length of primitive arrays that are sorted using {@link Arrays#parallelSort}. */
+        private static final int PARALLEL_SORT_THRESHOLD = 1 << 17;
+
         @CompilationFinal private RootCallTarget comparatorCallTarget;
 
         private final ValueProfile keyClassProfile = ValueProfile.createIdentityProfile();
@@ -192,7 +268,25 @@ public abstract class SortNodes {
         void sort(IntSequenceStorage storage, @SuppressWarnings("unused") PNone keyfunc, boolean reverse) {
             int[] array = storage.getInternalIntArray();
             int len = storage.length();
-            Arrays.sort(array, 0, len);
+            sortArray(array, len);
+            if (reverse) {
+                reverseArray(array, len);
+            }
+        }
+
+        @Specialization
+        @TruffleBoundary
+        void sort(IntRangeSequenceStorage storage, @SuppressWarnings("unused") PNone keyfunc, boolean reverse) {
+            if (storage.isVirtual()) {
+                // a progression is already sorted in one of the two directions
+                if (!storage.isVirtualAndSorted(!reverse)) {
+                    storage.reverse();
+                }
+                return;
+            }
+            int[] array = storage.getInternalIntArray();
+            int len = storage.length();
+            sortArray(array, len);
             if (reverse) {
                 reverseArray(array, len);
             }
@@ -203,7 +297,7 @@ public abstract class SortNodes {
         void sort(LongSequenceStorage storage, @SuppressWarnings("unused") PNone keyfunc, boolean reverse) {
             long[] array = storage.getInternalLongArray();
             int len = storage.length();
-            Arrays.sort(array, 0, len);
+            sortArray(array, len);
             if (reverse) {
                 reverseArray(array, len);
             }
@@ -214,16 +308,101 @@ public abstract class SortNodes {
         void sort(DoubleSequenceStorage storage, @SuppressWarnings("unused") PNone keyfunc, boolean reverse) {
             int len = storage.length();
             double[] array = storage.getInternalDoubleArray();
-            Arrays.sort(array, 0, len);
+            boolean[] zeroSigns = getMixedZeroSigns(array, len);
+            sortArray(array, len);
             if (reverse) {
                 reverseArray(array, len);
             }
+            if (zeroSigns != null) {
+                restoreZeroOrder(array, len, zeroSigns);
+            }
+        }
+
+        /*
+         * Large arrays are sorted in parallel, but the GIL is kept. The list is empty while it is
+         * being sorted (see ListBuiltins.ListSortNode), so if other threads could run, appending
+         * to it would make the sort fail with "list modified during sort".
+         */
+        private static void sortArray(int[] array, int len) {
+            if (len < PARALLEL_SORT_THRESHOLD) {
+                Arrays.sort(array, 0, len);
+            } else {
+                Arrays.parallelSort(array, 0, len);
+            }
+        }
+
+        private static void sortArray(long[] array, int len) {
+            if (len < PARALLEL_SORT_THRESHOLD) {
+                Arrays.sort(array, 0, len);
+            } else {
+                Arrays.parallelSort(array, 0, len);
+            }
+        }
+
+        private static void sortArray(double[] array, int len) {
+            if (len < PARALLEL_SORT_THRESHOLD) {
+                Arrays.sort(array, 0, len);
+            } else {
+                Arrays.parallelSort(array, 0, len);
+            }
+        }
+
+        /**
+         * Python considers {@code -0.0} and {@code 0.0} equal, so a stable sort keeps them in their
+         * original order, whereas {@link Arrays#sort(double[])} puts all negative zeros first.
+         * Returns the signs of the zeros in their original order if both kinds of zeros occur,
+         * {@code null} otherwise.
+         */
+        private static boolean[] getMixedZeroSigns(double[] array, int len) {
+            int negativeZeros = 0;
+            int positiveZeros = 0;
+            for (int i = 0; i < len; i++) {
+                if (array[i] == 0.0) {
+                    if (Double.doubleToRawLongBits(array[i]) == 0) {
+                        positiveZeros++;
+                    } else {
+                        negativeZeros++;
+                    }
+                }
+            }
+            if (negativeZeros == 0 || positiveZeros == 0) {
+                return null;
+            }
+            boolean[] signs = new boolean[negativeZeros + positiveZeros];
+            for (int i = 0, j = 0; i < len; i++) {
+                if (array[i] == 0.0) {
+                    signs[j++] = Double.doubleToRawLongBits(array[i]) != 0;
+                }
+            }
+            return signs;
+        }
+
+        /**
+         * Rewrites the (contiguous) block of zeros in the sorted array with the signs recorded by
+         * {@link #getMixedZeroSigns}.
+         */
+        private static void restoreZeroOrder(double[] array, int len, boolean[] signs) {
+            int start = 0;
+            while (start < len && array[start] != 0.0) {
+                start++;
+            }
+            for (int j = 0; j < signs.length; j++) {
+                array[start + j] = signs[j] ? -0.0 : 0.0;
+            }
+        }
+
+        @Specialization
+        @TruffleBoundary
+        void sort(StringSequenceStorage storage, @SuppressWarnings("unused") PNone keyfunc, boolean reverse) {
+            sortStrings(storage.getInternalStringArray(), storage.length(), reverse);
         }
 
         @TruffleBoundary
         private static void sortStrings(ObjectSequenceStorage storage, boolean reverse) {
-            Object[] array = storage.getInternalArray();
-            int len = storage.length();
+            sortStrings(storage.getInternalArray(), storage.length(), reverse);
+        }
+
+        private static void sortStrings(Object[] array, int len, boolean reverse) {
             Comparator<Object> comparator;
             if (reverse) {
                 comparator = (a, b) -> StringUtils.compareStringsUncached((TruffleString) b, (TruffleString) a);
@@ -337,30 +516,17 @@ public abstract class SortNodes {
             }
         }
 
-        private enum KeySortComparator {
-            INT(Integer.class, Comparator.comparing(a -> ((Integer) a.key))),
-            LONG(Long.class, Comparator.comparing(a -> ((Long) a.key))),
-            DOUBLE(Double.class, Comparator.comparing(a -> ((Double) a.key))),
-            BOOLEAN(Boolean.class, Comparator.comparing(a -> ((Boolean) a.key))),
-            STRING(TruffleString.class, (a, b) -> StringUtils.compareStringsUncached((TruffleString) a.key, (TruffleString) b.key));
-
-            final Class<?> clazz;
-            final Comparator<SortingPair> comparator;
-
-            KeySortComparator(Class<?> clazz, Comparator<SortingPair> comparator) {
-                this.clazz = clazz;
-                this.comparator = comparator;
-            }
+        private static boolean isLongKey(Object key) {
+            return key instanceof Integer || key instanceof Long || key instanceof Boolean;
+        }
 
-            @ExplodeLoop
-            public static KeySortComparator forClass(Class<?> clazz) {
-                for (KeySortComparator c : KeySortComparator.values()) {
-                    if (clazz == c.clazz) {
-                        return c;
-                    }
-                }
-                return null;
+        private static long asLongKey(Object key) {
+            if (key instanceof Integer) {
+                return (int) key;
+            } else if (key instanceof Long) {
+                return (long) key;
             }
+            return (boolean) key ? 1 : 0;
         }
 
         private void sortWithKey(VirtualFrame frame, Object[] array, int len, Object keyfunc, boolean reverse, CallNode callNode, CallContext callContext) {
@@ -368,57 +534,142 @@ public abstract class SortNodes {
                 return;
             }
             /*
-             * Box the values into (key, value) pairs so that the comparator can compare they keys.
              * We want to avoid calling the key function from the comparator because CPython also
-             * computes the keys only once. There is an additional optimization opportunity where we
-             * could avoid boxing primitive numbers, but that would result in quite a lot of
-             * duplicate code.
-             */
-            SortingPair[] pairArray = new SortingPair[len];
-            /*
-             * Look at the first key and determine which comparator we could use to compare if the
-             * keys turn all to be the same primitive type
+             * computes the keys only once. If all keys turn out to be ints, floats or strings, they
+             * are collected into a primitive (or string) array and we sort a permutation of the
+             * indices. This avoids allocating a (key, value) pair per element and comparing boxed
+             * keys. The type of the first key determines which array we try.
              */
             Object key = callNode.execute(frame, keyfunc, array[0]);
-            pairArray[reverse ? len - 1 : 0] = new SortingPair(key, array[0]);
             Class<?> keyClass = keyClassProfile.profile(key.getClass());
-            KeySortComparator keySortComparator = KeySortComparator.forClass(keyClass);
-
-            for (int i = 1; i < len; i++) {
-                key = callNode.execute(frame, keyfunc, array[i]);
-                /* Check if the keys are all of the same type */
-                if (keySortComparator != null && key.getClass() != keySortComparator.clazz) {
-                    keySortComparator = null;
+            Object[] keys = null;
+            int i = 1;
+            if (keyClass == Integer.class || keyClass == Long.class || keyClass == Boolean.class) {
+                long[] longKeys = new long[len];
+                longKeys[0] = asLongKey(key);
+                for (; i < len; i++) {
+                    key = callNode.execute(frame, keyfunc, array[i]);
+                    if (!isLongKey(key)) {
+                        keys = boxKeys(longKeys, i, len);
+                        break;
+                    }
+                    longKeys[i] = asLongKey(key);
                 }
-                pairArray[reverse ? len - i - 1 : i] = new SortingPair(key, array[i]);
-            }
-            if (keySortComparator != null) {
-                callSortWithKey(pairArray, len, keySortComparator);
-            } else {
-                PythonLanguage language = PythonLanguage.get(this);
-                final Object[] arguments = PArguments.create(2);
-                final RootCallTarget callTarget = getComparatorCallTarget(language);
-                if (frame == null) {
-                    PythonThreadState threadState = PythonContext.get(this).getThreadState(language);
-                    Object state = IndirectCalleeContext.enter(threadState, arguments, callTarget);
-                    try {
-                        callSortWithKey(pairArray, len, callTarget, arguments);
-                    } finally {
-                        IndirectCalleeContext.exit(threadState, state);
+                if (keys == null) {
+                    applyOrder(array, len, sortOrder(longKeys, len, reverse), reverse);
+                    return;
+                }
+            } else if (keyClass == Double.class) {
+                double[] doubleKeys = new double[len];
+                doubleKeys[0] = (double) key;
+                for (; i < len; i++) {
+                    key = callNode.execute(frame, keyfunc, array[i]);
+                    if (!(key instanceof Double)) {
+                        keys = boxKeys(doubleKeys, i, len);
+                        break;
                     }
-                } else {
-                    callContext.prepareCall(frame, arguments, callTarget, this);
+                    doubleKeys[i] = (double) key;
+                }
+                if (keys == null) {
+                    applyOrder(array, len, sortOrder(doubleKeys, len, reverse), reverse);
+                    return;
+                }
+            } else if (keyClass == TruffleString.class) {
+                TruffleString[] stringKeys = new TruffleString[len];
+                stringKeys[0] = (TruffleString) key;
+                for (; i < len; i++) {
+                    key = callNode.execute(frame, keyfunc, array[i]);
+                    if (!(key instanceof TruffleString)) {
+                        keys = new Object[len];
+                        PythonUtils.arraycopy(stringKeys, 0, keys, 0, i);
+                        break;
+                    }
+                    stringKeys[i] = (TruffleString) key;
+                }
+                if (keys == null) {
+                    applyOrder(array, len, sortOrder(stringKeys, len, reverse), reverse);
+                    return;
+                }
+            } else {
+                keys = new Object[len];
+                i = 0;
+            }
+            /*
+             * Generic case: the keys are compared using the Python comparison, so box the values into
+             * (key, value) pairs. The key that did not fit the primitive array is still in 'key'.
+             */
+            keys[i] = key;
+            for (i++; i < len; i++) {
+                keys[i] = callNode.execute(frame, keyfunc, array[i]);
+            }
+            SortingPair[] pairArray = new SortingPair[len];
+            for (i = 0; i < len; i++) {
+                pairArray[reverse ? len - i - 1 : i] = new SortingPair(keys[i], array[i]);
+            }
+            PythonLanguage language = PythonLanguage.get(this);
+            final Object[] arguments = PArguments.create(2);
+            final RootCallTarget callTarget = getComparatorCallTarget(language);
+            if (frame == null) {
+                PythonThreadState threadState = PythonContext.get(this).getThreadState(language);
+                Object state = IndirectCalleeContext.enter(threadState, arguments, callTarget);
+                try {
                     callSortWithKey(pairArray, len, callTarget, arguments);
+                } finally {
+                    IndirectCalleeContext.exit(threadState, state);
                 }
+            } else {
+                callContext.prepareCall(frame, arguments, callTarget, this);
+                callSortWithKey(pairArray, len, callTarget, arguments);
             }
-            for (int i = 0; i < len; i++) {
+            for (i = 0; i < len; i++) {
                 array[reverse ? len - i - 1 : i] = pairArray[i].value;
             }
         }
 
         @TruffleBoundary
-        private static void callSortWithKey(SortingPair[] array, int len, KeySortComparator comparator) {
-            Arrays.sort(array, 0, len, comparator.comparator);
+        private static Object[] boxKeys(long[] keys, int count, int len) {
+            Object[] boxed = new Object[len];
+            for (int i = 0; i < count; i++) {
+                boxed[i] = keys[i];
+            }
+            return boxed;
+        }
+
+        @TruffleBoundary
+        private static Object[] boxKeys(double[] keys, int count, int len) {
+            Object[] boxed = new Object[len];
+            for (int i = 0; i < count; i++) {
+                boxed[i] = keys[i];
+            }
+            return boxed;
+        }
+
+        @TruffleBoundary
+        private static int[] sortOrder(long[] keys, int len, boolean reverse) {
+            return IndexSort.sort(len, reverse, (a, b) -> keys[a] < keys[b]);
+        }
+
+        @TruffleBoundary
+        private static int[] sortOrder(double[] keys, int len, boolean reverse) {
+            return IndexSort.sort(len, reverse, (a, b) -> keys[a] < keys[b]);
+        }
+
+        @TruffleBoundary
+        private static int[] sortOrder(TruffleString[] keys, int len, boolean reverse) {
+            return IndexSort.sort(len, reverse, (a, b) -> StringUtils.compareStringsUncached(keys[a], keys[b]) < 0);
+        }
+
+        /**
+         * Permutes {@code array} such that it contains the elements in the given (stable, ascending)
+         * order. For {@code reverse}, the order was computed on the reversed indices (see
+         * {@link IndexSort#sort}), so it needs to be reversed again.
+         */
+        @TruffleBoundary
+        private static void applyOrder(Object[] array, int len, int[] order, boolean reverse) {
+            Object[] values = PythonUtils.arrayCopyOf(array, len);
+            for (int i = 0; i < len; i++) {
+                array[reverse ? len - i - 1 : i] = values[order[i]];
+            }
         }
 
         @TruffleBoundary
@@ -82,7 +82,6 @@ import static com.oracle.graal.python.nodes.StringLiterals.T_RPAREN;
 import static com.oracle.graal.python.util.PythonUtils.TS_ENCODING;
 import static com.oracle.graal.python.util.PythonUtils.toTruffleStringUncached;
 
-import java.util.Iterator;
 import java.util.List;
 
 import com.oracle.graal.python.annotations.ArgumentClinic;
@@ -306,9 +305,10 @@ public class DequeBuiltins extends PythonBuiltins {
         @TruffleBoundary
         int doGeneric(PDeque self, Object value) {
             int n = 0;
+            int size = self.getSize();
             int startState = self.getState();
-            for (Object item : self.data) {
-                if (PyObjectRichCompareBool.EqNode.getUncached().execute(null, item, value)) {
+            for (int i = 0; i < size; i++) {
+                if (PyObjectRichCompareBool.EqNode.getUncached().execute(null, self.getItem(i), value)) {
                     n++;
                 }
                 if (startState != self.getState()) {
@@ -331,7 +331,7 @@ public class DequeBuiltins extends PythonBuiltins {
         @Specialization(guards = "self == other")
         @TruffleBoundary
         PNone doSelf(PDeque self, @SuppressWarnings("unused") PDeque other) {
-            Object[] items = self.data.toArray();
+            Object[] items = self.toArray();
             for (Object item : items) {
                 appendOperation(self, item);
             }
@@ -410,20 +410,12 @@ public class DequeBuiltins extends PythonBuiltins {
             if (normStart > normStop) {
                 normStart = normStop;
             }
-            Iterator<Object> iterator = self.iterator();
-            for (int idx = 0; idx < normStop; idx++) {
-                /*
-                 * Note: A 'ConcurrentModificationException' should not be possible because we
-                 * manually check for modifications during iteration.
-                 */
-                Object item = next(iterator);
-                if (normStart <= idx) {
-                    if (eqNode.execute(frame, item, value)) {
-                        return idx;
-                    }
-                    if (startState != self.getState()) {
-                        throw raise(RuntimeError, ErrorMessages.DEQUE_MUTATED_DURING_ITERATION);
-                    }
+            for (int idx = normStart; idx < normStop; idx++) {
+                if (eqNode.execute(frame, self.getItem(idx), value)) {
+                    return idx;
+                }
+                if (startState != self.getState()) {
+                    throw raise(RuntimeError, ErrorMessages.DEQUE_MUTATED_DURING_ITERATION);
                 }
             }
             throw raise(ValueError, ErrorMessages.S_IS_NOT_DEQUE, value);
@@ -457,11 +449,6 @@ public class DequeBuiltins extends PythonBuiltins {
             }
             return Math.max(res, 0);
         }
-
-        @TruffleBoundary
-        private static Object next(Iterator<?> it) {
-            return it.next();
-        }
     }
 
     // deque.insert()
@@ -489,13 +476,7 @@ public class DequeBuiltins extends PythonBuiltins {
             } else if (index <= -n || index == 0) {
                 self.appendLeft(value);
             } else {
-                DequeRotateNode.rotate(self, -index);
-                if (index < 0) {
-                    self.append(value);
-                } else {
-                    self.appendLeft(value);
-                }
-                DequeRotateNode.rotate(self, index);
+                self.insert(index < 0 ? index + n : index, value);
             }
 
             return PNone.NONE;
@@ -578,13 +559,7 @@ public class DequeBuiltins extends PythonBuiltins {
         @Specialization
         @TruffleBoundary
         PNone doGeneric(PDeque self) {
-            Object[] items = new Object[self.getSize()];
-            for (int i = 0; i < items.length; i++) {
-                items[i] = self.data.pollLast();
-            }
-            for (int i = 0; i < items.length; i++) {
-                self.data.addLast(items[i]);
-            }
+            self.reverse();
             return PNone.NONE;
         }
     }
@@ -610,34 +585,16 @@ public class DequeBuiltins extends PythonBuiltins {
         @Specialization(guards = "n >= 0")
         @TruffleBoundary
         static PNone doRight(PDeque self, int n) {
-            if (self.getSize() > 1) {
-                int effectiveRot = n % self.getSize();
-                for (int i = 0; i < effectiveRot; i++) {
-                    self.appendLeft(self.pop());
-                }
-            }
+            self.rotate(n);
             return PNone.NONE;
         }
 
         @Specialization(guards = "n < 0")
         @TruffleBoundary
         static PNone doLeft(PDeque self, int n) {
-            if (self.getSize() > 1) {
-                int effectiveRot = -n % self.getSize();
-                for (int i = 0; i < effectiveRot; i++) {
-                    self.append(self.popLeft());
-                }
-            }
+            self.rotate(n);
             return PNone.NONE;
         }
-
-        static void rotate(PDeque self, int n) {
-            if (n < 0) {
-                doLeft(self, n);
-            } else {
-                doRight(self, n);
-            }
-        }
     }
 
     // SEQUENCE METHODS
@@ -663,7 +620,7 @@ public class DequeBuiltins extends PythonBuiltins {
         static PDeque doDeque(PDeque self, PDeque other) {
             if (self == other) {
                 // we need to create a snapshot of 'self'
-                self.addAll(self.data.toArray());
+                self.addAll(self.toArray());
             } else {
                 self.addAll(other);
             }
@@ -757,7 +714,7 @@ public class DequeBuiltins extends PythonBuiltins {
                 repetitions = (self.getMaxLength() + size - 1) / size;
             }
 
-            Object[] items = self.data.toArray();
+            Object[] items = self.toArray();
             for (int i = 0; i < repetitions - 1; i++) {
                 self.addAll(items);
             }
@@ -804,9 +761,10 @@ public class DequeBuiltins extends PythonBuiltins {
         @Specialization
         @TruffleBoundary
         boolean doGeneric(PDeque self, Object value) {
+            int size = self.getSize();
             int startState = self.getState();
-            for (Object item : self.data) {
-                if (PyObjectRichCompareBool.EqNode.getUncached().execute(null, item, value)) {
+            for (int i = 0; i < size; i++) {
+                if (PyObjectRichCompareBool.EqNode.getUncached().execute(null, self.getItem(i), value)) {
                     return true;
                 }
                 if (startState != self.getState()) {
@@ -828,21 +786,10 @@ public class DequeBuiltins extends PythonBuiltins {
         }
 
         @Specialization
-        @TruffleBoundary
-        Object doGeneric(PDeque self, int idx,
+        static Object doGeneric(PDeque self, int idx,
                         @Cached NormalizeIndexCustomMessageNode normalizeIndexNode) {
             int normIdx = normalizeIndexNode.execute(idx, self.getSize(), ErrorMessages.DEQUE_INDEX_OUT_OF_RANGE);
-            return doGetItem(self, normIdx);
-        }
-
-        @TruffleBoundary
-        Object doGetItem(PDeque self, int idx) {
-            assert 0 <= idx && idx < self.getSize();
-            Iterator<Object> it = self.data.iterator();
-            for (int i = 0; i < idx; i++) {
-                it.next();
-            }
-            return it.next();
+            return self.getItem(normIdx);
         }
     }
 
@@ -931,7 +878,7 @@ public class DequeBuiltins extends PythonBuiltins {
             EncapsulatingNodeReference ref = EncapsulatingNodeReference.getCurrent();
             Node outerNode = ref.set(this);
             try {
-                Object[] items = self.data.toArray();
+                Object[] items = self.toArray();
                 PList asList = PythonObjectFactory.getUncached().createList(items);
                 int maxLength = self.getMaxLength();
                 TruffleStringBuilder sb = TruffleStringBuilder.create(TS_ENCODING);
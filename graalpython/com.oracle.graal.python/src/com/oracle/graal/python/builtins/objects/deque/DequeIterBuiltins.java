@@ -46,9 +46,7 @@ import static com.oracle.graal.python.nodes.SpecialMethodNames.J___LENGTH_HINT__
 import static com.oracle.graal.python.nodes.SpecialMethodNames.J___NEXT__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.J___REDUCE__;
 
-import java.util.ConcurrentModificationException;
 import java.util.List;
-import java.util.NoSuchElementException;
 
 import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
@@ -60,7 +58,6 @@ import com.oracle.graal.python.nodes.PRaiseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
 import com.oracle.graal.python.nodes.object.GetClassNode;
-import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
@@ -96,18 +93,12 @@ public class DequeIterBuiltins extends PythonBuiltins {
         @Specialization
         @TruffleBoundary
         Object doGeneric(PDequeIter self) {
-            try {
-                if (self.startState == self.deque.getState()) {
-                    if (!self.hasNext()) {
-                        assert self.lengthHint() == 0;
-                        throw raiseStopIteration();
-                    }
-                    return self.next();
+            if (self.startState == self.deque.getState()) {
+                if (!self.hasNext()) {
+                    assert self.lengthHint() == 0;
+                    throw raiseStopIteration();
                 }
-            } catch (NoSuchElementException e) {
-                throw CompilerDirectives.shouldNotReachHere();
-            } catch (ConcurrentModificationException e) {
-                // fall through
+                return self.next();
             }
             self.reset();
             throw PRaiseNode.raiseUncached(this, RuntimeError, ErrorMessages.DEQUE_MUTATED_DURING_ITERATION);
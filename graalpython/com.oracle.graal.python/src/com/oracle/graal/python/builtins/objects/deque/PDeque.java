@@ -40,27 +40,30 @@
  */
 package com.oracle.graal.python.builtins.objects.deque;
 
-import java.util.ArrayDeque;
-import java.util.Iterator;
-
 import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.object.Shape;
 
 /**
- * A simple wrapper around Java's {@link ArrayDeque}.
+ * A deque backed by a circular array. The capacity is always a power of two, so the physical index
+ * of an element is {@code (head + idx) & (items.length - 1)}. This gives constant time random
+ * access and allows rotating the deque by moving at most {@code min(n, size - n)} elements (or
+ * none at all if the array is full). A bounded deque drops an element before appending once it
+ * holds {@code maxlen} elements, so its array never grows beyond the smallest power of two that
+ * fits {@code maxlen}.
  */
 public final class PDeque extends PythonBuiltinObject {
-    final ArrayDeque<Object> data = createArrayDeque();
+    private static final int INITIAL_CAPACITY = 8;
+
+    private Object[] items = new Object[INITIAL_CAPACITY];
+    private int head;
+    private int size;
     private int maxLength = -1;
 
     /**
      * This is a modification counter and used to produce exceptions if the deque is modified during
-     * iteration. We need it because {@link ArrayDeque}'s iterators have a slightly different
-     * behavior. E.g. if you iterate the deque to the end and the last element comparison would
-     * modify the deque, then {@link ArrayDeque} doesn't complain while CPython's implementation
-     * still complains. The main difference is that CPython will always check if the deque was
-     * modifed right after it called out for {@code __eq__}.
+     * iteration. CPython will always check if the deque was modified right after it called out for
+     * {@code __eq__}, so we need to do the same.
      */
     private int state;
 
@@ -68,13 +71,8 @@ public final class PDeque extends PythonBuiltinObject {
         super(cls, instanceShape);
     }
 
-    @TruffleBoundary
-    private static ArrayDeque<Object> createArrayDeque() {
-        return new ArrayDeque<>();
-    }
-
     int getSize() {
-        return data.size();
+        return size;
     }
 
     int getMaxLength() {
@@ -85,55 +83,117 @@ public final class PDeque extends PythonBuiltinObject {
         this.maxLength = maxLength;
     }
 
+    private int physicalIndex(int idx) {
+        return (head + idx) & (items.length - 1);
+    }
+
     @TruffleBoundary
+    private void grow() {
+        if (items.length > Integer.MAX_VALUE / 2) {
+            throw new OutOfMemoryError();
+        }
+        items = copyItems(items.length * 2);
+        head = 0;
+    }
+
+    /**
+     * Copies the elements in logical order into a new array of length {@code capacity}.
+     */
+    private Object[] copyItems(int capacity) {
+        Object[] result = new Object[capacity];
+        copyItems(result, 0, 0, size);
+        return result;
+    }
+
+    /**
+     * Copies {@code count} elements starting at logical index {@code from} to {@code dst}.
+     */
+    private void copyItems(Object[] dst, int dstPos, int from, int count) {
+        int start = physicalIndex(from);
+        int firstPart = Math.min(count, items.length - start);
+        System.arraycopy(items, start, dst, dstPos, firstPart);
+        System.arraycopy(items, 0, dst, dstPos + firstPart, count - firstPart);
+    }
+
     void append(Object value) {
-        assert maxLength == -1 || data.size() <= maxLength;
-        data.addLast(value);
-        if (maxLength != -1 && data.size() > maxLength) {
+        assert maxLength == -1 || size <= maxLength;
+        if (maxLength != -1 && size == maxLength) {
+            // full bounded deque: drop the leftmost element first so that we never grow
+            if (size == 0) {
+                state++;
+                return;
+            }
             popLeft();
         } else {
+            if (size == items.length) {
+                grow();
+            }
             state++;
         }
-
-        assert maxLength == -1 || data.size() <= maxLength;
+        items[physicalIndex(size)] = value;
+        size++;
     }
 
-    @TruffleBoundary
     void appendLeft(Object value) {
-        assert maxLength == -1 || data.size() <= maxLength;
-        data.addFirst(value);
-        if (maxLength != -1 && data.size() > maxLength) {
+        assert maxLength == -1 || size <= maxLength;
+        if (maxLength != -1 && size == maxLength) {
+            // full bounded deque: drop the rightmost element first so that we never grow
+            if (size == 0) {
+                state++;
+                return;
+            }
             pop();
         } else {
+            if (size == items.length) {
+                grow();
+            }
             state++;
         }
-        assert maxLength == -1 || data.size() <= maxLength;
+        head = (head - 1) & (items.length - 1);
+        items[head] = value;
+        size++;
     }
 
     /**
      * Returns {@code null} if empty.
      */
-    @TruffleBoundary
     Object pop() {
         state++;
-        return data.pollLast();
+        if (size == 0) {
+            return null;
+        }
+        size--;
+        int idx = physicalIndex(size);
+        Object value = items[idx];
+        items[idx] = null;
+        return value;
     }
 
     /**
      * Returns {@code null} if empty.
      */
-    @TruffleBoundary
     Object popLeft() {
         state++;
-        return data.pollFirst();
+        if (size == 0) {
+            return null;
+        }
+        Object value = items[head];
+        items[head] = null;
+        head = (head + 1) & (items.length - 1);
+        size--;
+        return value;
     }
 
     /**
      * Returns {@code null} if empty.
      */
-    @TruffleBoundary
     Object peekLeft() {
-        return data.peekFirst();
+        return size == 0 ? null : items[head];
+    }
+
+    Object getItem(int idx) {
+        assert 0 <= idx && idx < size;
+        return items[physicalIndex(idx)];
     }
 
     @TruffleBoundary
@@ -145,51 +205,142 @@ public final class PDeque extends PythonBuiltinObject {
 
     @TruffleBoundary
     void addAll(PDeque other) {
-        for (Object e : other.data) {
-            append(e);
-        }
+        // take a snapshot first since 'other' may be 'this'
+        addAll(other.toArray());
     }
 
     @TruffleBoundary
-    public Iterator<Object> iterator() {
-        return data.iterator();
+    Object[] toArray() {
+        Object[] result = new Object[size];
+        copyItems(result, 0, 0, size);
+        return result;
     }
 
     @TruffleBoundary
-    public Iterator<Object> reverseIterator() {
-        return data.descendingIterator();
+    public void clear() {
+        items = new Object[INITIAL_CAPACITY];
+        head = 0;
+        size = 0;
+        state++;
+    }
+
+    /**
+     * Replaces the item at {@code idx} or removes it if {@code value == null}.
+     */
+    public void setItem(int idx, Object value) {
+        assert 0 <= idx && idx < size;
+        if (value != null) {
+            items[physicalIndex(idx)] = value;
+        } else {
+            remove(idx);
+        }
     }
 
     @TruffleBoundary
-    public void clear() {
-        data.clear();
+    private void remove(int idx) {
+        // this alters the number of elements, so modify the state
         state++;
+        if (idx < size - idx - 1) {
+            // shift the elements in front of 'idx' to the right
+            for (int i = idx; i > 0; i--) {
+                items[physicalIndex(i)] = items[physicalIndex(i - 1)];
+            }
+            items[head] = null;
+            head = (head + 1) & (items.length - 1);
+        } else {
+            // shift the elements behind 'idx' to the left
+            for (int i = idx; i < size - 1; i++) {
+                items[physicalIndex(i)] = items[physicalIndex(i + 1)];
+            }
+            items[physicalIndex(size - 1)] = null;
+        }
+        size--;
     }
 
+    /**
+     * Inserts {@code value} before the element at {@code idx}. The caller is responsible for the
+     * {@code maxlen} check.
+     */
     @TruffleBoundary
-    public void setItem(int idx, Object value) {
-        assert 0 <= idx && idx < data.size();
-        int n = data.size() - idx - 1;
-        Object[] savedItems = new Object[n];
-        for (int i = 0; i < savedItems.length; i++) {
-            savedItems[i] = data.pollLast();
+    void insert(int idx, Object value) {
+        assert 0 <= idx && idx <= size;
+        assert maxLength == -1 || size < maxLength;
+        if (size == items.length) {
+            grow();
         }
-        // this removes the item we want to replace
-        data.pollLast();
-        assert data.size() == idx;
-        if (value != null) {
-            data.addLast(value);
+        if (idx < size - idx) {
+            // shift the elements in front of 'idx' to the left
+            head = (head - 1) & (items.length - 1);
+            for (int i = 0; i < idx; i++) {
+                items[physicalIndex(i)] = items[physicalIndex(i + 1)];
+            }
         } else {
-            // removal case: this alters the number of elements, so modify the state
-            state++;
+            // shift the elements starting at 'idx' to the right
+            for (int i = size; i > idx; i--) {
+                items[physicalIndex(i)] = items[physicalIndex(i - 1)];
+            }
         }
+        items[physicalIndex(idx)] = value;
+        size++;
+        state++;
+    }
 
-        // re-add saved items
-        for (int i = savedItems.length - 1; i >= 0; i--) {
-            data.addLast(savedItems[i]);
+    /**
+     * Rotates the deque {@code n} steps to the right (to the left if {@code n} is negative).
+     */
+    @TruffleBoundary
+    void rotate(int n) {
+        if (size <= 1) {
+            return;
+        }
+        int k = n % size;
+        if (k < 0) {
+            k += size;
+        }
+        if (k == 0) {
+            return;
+        }
+        state++;
+        int mask = items.length - 1;
+        if (size == items.length) {
+            // no free slots: only the head moves
+            head = (head - k) & mask;
+        } else if (k <= size - k && k <= items.length - size) {
+            // move the last k elements into the free slots in front of the head
+            for (int i = 1; i <= k; i++) {
+                int from = physicalIndex(size - i);
+                int to = (head - i) & mask;
+                items[to] = items[from];
+                items[from] = null;
+            }
+            head = (head - k) & mask;
+        } else if (size - k < k && size - k <= items.length - size) {
+            // move the first (size - k) elements into the free slots behind the tail
+            for (int i = 0; i < size - k; i++) {
+                int from = physicalIndex(i);
+                items[physicalIndex(size + i)] = items[from];
+                items[from] = null;
+            }
+            head = (head + size - k) & mask;
+        } else {
+            // not enough free slots, rearrange the elements into a new array
+            Object[] rotated = new Object[items.length];
+            copyItems(rotated, 0, size - k, k);
+            copyItems(rotated, k, 0, size - k);
+            items = rotated;
+            head = 0;
+        }
+    }
+
+    @TruffleBoundary
+    void reverse() {
+        for (int i = 0, j = size - 1; i < j; i++, j--) {
+            int pi = physicalIndex(i);
+            int pj = physicalIndex(j);
+            Object tmp = items[pi];
+            items[pi] = items[pj];
+            items[pj] = tmp;
         }
-        assert maxLength == -1 || data.size() <= maxLength;
-        assert value != null && data.size() == n + idx + 1 || value == null && data.size() == n + idx;
     }
 
     public int getState() {
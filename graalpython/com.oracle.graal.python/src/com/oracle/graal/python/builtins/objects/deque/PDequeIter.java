@@ -40,38 +40,35 @@
  */
 package com.oracle.graal.python.builtins.objects.deque;
 
-import java.util.ArrayDeque;
-import java.util.Iterator;
-
 import com.oracle.graal.python.builtins.objects.iterator.PBuiltinIterator;
-import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.object.Shape;
 
 /**
- * A simple wrapper around Java's {@link ArrayDeque}.
+ * An iterator over a {@link PDeque}. It accesses the elements by index, so the owner has to check
+ * {@link #startState} before calling {@link #next()}.
  */
 public final class PDequeIter extends PBuiltinIterator {
     final PDeque deque;
     final int startState;
-    private final Iterator<Object> iterator;
+    private final boolean reverse;
     private int remaining;
 
     public PDequeIter(Object cls, Shape instanceShape, PDeque deque, boolean reverse) {
         super(cls, instanceShape);
         this.deque = deque;
-        this.iterator = reverse ? deque.reverseIterator() : deque.iterator();
+        this.reverse = reverse;
         this.remaining = deque.getSize();
         this.startState = deque.getState();
     }
 
-    @TruffleBoundary
     boolean hasNext() {
-        return iterator.hasNext();
+        return remaining > 0;
     }
 
-    @TruffleBoundary
     Object next() {
-        Object next = iterator.next();
+        assert startState == deque.getState() && remaining > 0;
+        int size = deque.getSize();
+        Object next = deque.getItem(reverse ? remaining - 1 : size - remaining);
         remaining--;
         return next;
     }
@@ -363,6 +363,8 @@ public class IntBuiltins extends PythonBuiltins {
     public abstract static class AddNode extends PythonBinaryBuiltinNode {
         public abstract Object execute(int left, int right);
 
+        public abstract Object execute(long left, long right);
+
         @Specialization(rewriteOn = ArithmeticException.class)
         static int add(int left, int right) {
             return Math.addExact(left, right);
@@ -438,6 +440,8 @@ public class IntBuiltins extends PythonBuiltins {
     public abstract static class SubNode extends PythonBinaryBuiltinNode {
         public abstract Object execute(int left, int right);
 
+        public abstract Object execute(long left, long right);
+
         @Specialization(rewriteOn = ArithmeticException.class)
         static int doII(int x, int y) throws ArithmeticException {
             return Math.subtractExact(x, y);
@@ -519,6 +523,8 @@ public class IntBuiltins extends PythonBuiltins {
     public abstract static class TrueDivNode extends PythonBinaryBuiltinNode {
         public abstract Object execute(int left, int right);
 
+        public abstract Object execute(long left, long right);
+
         @Specialization
         double divII(int x, int y) {
             return divDD(x, y);
@@ -617,6 +623,8 @@ public class IntBuiltins extends PythonBuiltins {
     public abstract static class FloorDivNode extends IntBinaryBuiltinNode {
         public abstract Object execute(int left, int right);
 
+        public abstract Object execute(long left, long right);
+
         @Specialization
         int doII(int left, int right) {
             raiseDivisionByZero(right == 0);
@@ -771,6 +779,8 @@ public class IntBuiltins extends PythonBuiltins {
 
         public abstract Object execute(int left, int right);
 
+        public abstract Object execute(long left, long right);
+
         @Specialization
         int doII(int left, int right) {
             raiseDivisionByZero(right == 0);
@@ -889,6 +899,8 @@ public class IntBuiltins extends PythonBuiltins {
     public abstract static class MulNode extends PythonBinaryBuiltinNode {
         public abstract Object execute(int left, int right);
 
+        public abstract Object execute(long left, long right);
+
         @Specialization(rewriteOn = ArithmeticException.class)
         static int doII(int x, int y) throws ArithmeticException {
             return Math.multiplyExact(x, y);
@@ -985,6 +997,8 @@ public class IntBuiltins extends PythonBuiltins {
 
         protected abstract Object execute(int left, int right, PNone none);
 
+        protected abstract Object execute(long left, long right, PNone none);
+
         public final int executeInt(int left, int right) throws UnexpectedResultException {
             return executeInt(left, right, PNone.NO_VALUE);
         }
@@ -993,6 +1007,10 @@ public class IntBuiltins extends PythonBuiltins {
             return execute(left, right, PNone.NO_VALUE);
         }
 
+        public final Object execute(long left, long right) {
+            return execute(left, right, PNone.NO_VALUE);
+        }
+
         @Specialization(guards = "right >= 0", rewriteOn = ArithmeticException.class)
         static int doIIFast(int left, int right, @SuppressWarnings("unused") PNone none) {
             int result = 1;
@@ -1387,6 +1405,8 @@ public class IntBuiltins extends PythonBuiltins {
     public abstract static class NegNode extends PythonUnaryBuiltinNode {
         public abstract Object execute(int value);
 
+        public abstract Object execute(long value);
+
         @Specialization(rewriteOn = ArithmeticException.class)
         static int neg(int arg) {
             return Math.negateExact(arg);
@@ -1462,6 +1482,8 @@ public class IntBuiltins extends PythonBuiltins {
 
         public abstract Object execute(int left, int right);
 
+        public abstract Object execute(long left, long right);
+
         private long leftShiftExact(long left, long right) throws OverflowException {
             if (right >= Long.SIZE || right < 0) {
                 shiftError(right);
@@ -1634,6 +1656,8 @@ public class IntBuiltins extends PythonBuiltins {
 
         public abstract Object execute(int left, int right);
 
+        public abstract Object execute(long left, long right);
+
         @Specialization(guards = "right < 32")
         int doIISmall(int left, int right) {
             raiseNegativeShiftCount(right < 0);
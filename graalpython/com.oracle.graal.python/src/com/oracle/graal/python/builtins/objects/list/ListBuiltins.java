@@ -112,6 +112,7 @@ import com.oracle.graal.python.runtime.exception.PythonErrorType;
 import com.oracle.graal.python.runtime.sequence.PSequence;
 import com.oracle.graal.python.runtime.sequence.storage.DoubleSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.EmptySequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.IntRangeSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.IntSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.LongSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
@@ -231,16 +232,11 @@ public class ListBuiltins extends PythonBuiltins {
         @Specialization
         static PNone listRange(PList list, PIntRange range) {
             clearStorage(list);
-            int start = range.getIntStart();
-            int step = range.getIntStep();
             int len = range.getIntLength();
-            int[] array = new int[len];
-            int value = start;
-            for (int i = 0; i < len; i++) {
-                array[i] = value;
-                value += step;
+            if (len > 0) {
+                // the elements are computed on demand until the list is modified
+                list.setSequenceStorage(new IntRangeSequenceStorage(range.getIntStart(), range.getIntStep(), len));
             }
-            list.setSequenceStorage(new IntSequenceStorage(array));
             return PNone.NONE;
         }
 
@@ -517,6 +513,11 @@ public class ListBuiltins extends PythonBuiltins {
                             (PGuards.isDoubleStorage(list) && value instanceof Double));
         }
 
+        @NeverDefault
+        public static ListInsertNode create() {
+            return ListBuiltinsFactory.ListInsertNodeFactory.create();
+        }
+
         protected boolean isIntegerOrPInt(Object index) {
             return index instanceof Integer || index instanceof PInt;
         }
@@ -203,6 +203,7 @@ public final class FrozenModules {
         private static final PythonFrozenModule FROZEN_ONLY = new PythonFrozenModule("FROZEN_ONLY", "frozen_only", false);
         private static final PythonFrozenModule _SYSCONFIGDATA = new PythonFrozenModule("_SYSCONFIGDATA", "_sysconfigdata", false);
         private static final PythonFrozenModule GRAALPY___GRAALPYTHON__ = new PythonFrozenModule("GRAALPY___GRAALPYTHON__", "graalpy.__graalpython__", false);
+        private static final PythonFrozenModule GRAALPY__DECIMAL = new PythonFrozenModule("GRAALPY__DECIMAL", "graalpy._decimal", false);
         private static final PythonFrozenModule GRAALPY__SRE = new PythonFrozenModule("GRAALPY__SRE", "graalpy._sre", false);
         private static final PythonFrozenModule GRAALPY__STRUCT = new PythonFrozenModule("GRAALPY__STRUCT", "graalpy._struct", false);
         private static final PythonFrozenModule GRAALPY__SYSCONFIG = new PythonFrozenModule("GRAALPY__SYSCONFIG", "graalpy._sysconfig", false);
@@ -551,6 +552,8 @@ public final class FrozenModules {
                 return Map._SYSCONFIGDATA;
             case "graalpy.__graalpython__":
                 return Map.GRAALPY___GRAALPYTHON__;
+            case "graalpy._decimal":
+                return Map.GRAALPY__DECIMAL;
             case "graalpy._sre":
                 return Map.GRAALPY__SRE;
             case "graalpy._struct":
@@ -80,6 +80,7 @@ import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.object.PythonObjectFactory;
 import com.oracle.graal.python.runtime.sequence.PSequence;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.StringSequenceStorage;
 import com.oracle.graal.python.util.OverflowException;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -300,6 +301,34 @@ public abstract class StringNodes {
             return toStringNode.execute(sb);
         }
 
+        // Items of a string storage are known to be exact strings, so neither the per-item
+        // cast nor the generic item access is necessary.
+        @Specialization(guards = {"isExactlyListOrTuple(getClassNode, sequence)", "isStringStorage(sequence)"}, limit = "1")
+        static TruffleString doStringStorage(TruffleString self, PSequence sequence,
+                        @SuppressWarnings("unused") @Cached GetClassNode getClassNode,
+                        @Cached ConditionProfile isEmptyProfile,
+                        @Cached PRaiseNode raise,
+                        @Cached TruffleStringBuilder.AppendStringNode appendStringNode,
+                        @Cached TruffleStringBuilder.ToStringNode toStringNode) {
+            StringSequenceStorage storage = (StringSequenceStorage) sequence.getSequenceStorage();
+            int len = storage.length();
+            if (isEmptyProfile.profile(len == 0)) {
+                return T_EMPTY_STRING;
+            }
+            TruffleString[] items = storage.getInternalStringArray();
+            try {
+                TruffleStringBuilder sb = TruffleStringBuilder.create(TS_ENCODING);
+                appendStringNode.execute(sb, items[0]);
+                for (int i = 1; i < len; i++) {
+                    appendStringNode.execute(sb, self);
+                    appendStringNode.execute(sb, items[i]);
+                }
+                return toStringNode.execute(sb);
+            } catch (OutOfMemoryError e) {
+                throw raise.raise(MemoryError);
+            }
+        }
+
         // This specialization is just for better interpreter performance.
         // IMPORTANT: only do this if the sequence is exactly list or tuple (not subclassed); for
         // semantics, see CPython's 'abstract.c' function 'PySequence_Fast'
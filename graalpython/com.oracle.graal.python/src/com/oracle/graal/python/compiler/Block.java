@@ -64,7 +64,7 @@ final class Block {
     public Block() {
     }
 
-    private static final EnumSet<OpCodes> RETURN_OPCODES = EnumSet.of(OpCodes.RETURN_VALUE, OpCodes.RAISE_VARARGS);
+    private static final EnumSet<OpCodes> RETURN_OPCODES = EnumSet.of(OpCodes.RETURN_VALUE, OpCodes.RETURN_NONE, OpCodes.RETURN_CONST, OpCodes.RAISE_VARARGS);
 
     boolean isReturn() {
         return !instr.isEmpty() && RETURN_OPCODES.contains(instr.get(instr.size() - 1).opcode);
@@ -105,6 +105,11 @@ public final class CodeUnit {
     @CompilationFinal(dimensions = 1) public final byte[] variableShouldUnbox;
     @CompilationFinal(dimensions = 1) public final int[][] generalizeInputsMap;
     @CompilationFinal(dimensions = 1) public final int[][] generalizeVarsMap;
+    /*
+     * Variable types learned by an earlier execution, see withQuickeningFeedback. Null if there is
+     * no such feedback.
+     */
+    @CompilationFinal(dimensions = 1) public final byte[] initialVariableTypes;
 
     public CodeUnit(TruffleString name, TruffleString qualname,
                     int argCount, int kwOnlyArgCount, int positionalOnlyArgCount, int stacksize,
@@ -114,6 +119,20 @@ public final class CodeUnit {
                     int[] exceptionHandlerRanges, int conditionProfileCount,
                     int startLine, int startColumn, int endLine, int endColumn,
                     byte[] outputCanQuicken, byte[] variableShouldUnbox, int[][] generalizeInputsMap, int[][] generalizeVarsMap) {
+        this(name, qualname, argCount, kwOnlyArgCount, positionalOnlyArgCount, stacksize, code, linetable, flags, names, varnames, cellvars, freevars, cell2arg,
+                        constants, primitiveConstants, exceptionHandlerRanges, conditionProfileCount, startLine, startColumn, endLine, endColumn,
+                        outputCanQuicken, variableShouldUnbox, generalizeInputsMap, generalizeVarsMap, null);
+    }
+
+    public CodeUnit(TruffleString name, TruffleString qualname,
+                    int argCount, int kwOnlyArgCount, int positionalOnlyArgCount, int stacksize,
+                    byte[] code, byte[] linetable, int flags,
+                    TruffleString[] names, TruffleString[] varnames, TruffleString[] cellvars, TruffleString[] freevars, int[] cell2arg,
+                    Object[] constants, long[] primitiveConstants,
+                    int[] exceptionHandlerRanges, int conditionProfileCount,
+                    int startLine, int startColumn, int endLine, int endColumn,
+                    byte[] outputCanQuicken, byte[] variableShouldUnbox, int[][] generalizeInputsMap, int[][] generalizeVarsMap,
+                    byte[] initialVariableTypes) {
         this.name = name;
         this.qualname = qualname != null ? qualname : name;
         this.argCount = argCount;
@@ -151,6 +170,56 @@ public final class CodeUnit {
         this.variableShouldUnbox = variableShouldUnbox;
         this.generalizeInputsMap = generalizeInputsMap;
         this.generalizeVarsMap = generalizeVarsMap;
+        this.initialVariableTypes = initialVariableTypes;
+    }
+
+    /**
+     * Returns a copy of this code unit that starts with the quickening decisions that an execution
+     * of it had to generalize back to objects. Instructions that produced a boxed value are no
+     * longer allowed to produce primitives and variables that were generalized start as objects,
+     * so that code loaded from the copy doesn't speculate on primitive types again just to be
+     * generalized on the first mismatch. Instructions that were not executed keep their state.
+     * Primitive speculations that held are deliberately not carried over: the bytecode is stored
+     * unquickened, and restoring primitive variable types without the matching quickened loads and
+     * stores would leave them inconsistent. Returns {@code this} if the execution didn't learn
+     * anything new.
+     *
+     * @param quickenedCode the bytecode as rewritten by the interpreter
+     * @param variableTypes the current variable types as defined by {@link QuickeningTypes}, or
+     *            {@code null} if the code was not executed
+     * @param newConstants the constants, possibly with nested code units replaced by their own
+     *            copies with feedback
+     */
+    public CodeUnit withQuickeningFeedback(byte[] quickenedCode, byte[] variableTypes, Object[] newConstants) {
+        boolean changed = !Arrays.equals(constants, newConstants);
+        byte[] newOutputCanQuicken = Arrays.copyOf(outputCanQuicken, outputCanQuicken.length);
+        iterateBytecode(quickenedCode, (bci, op, oparg, followingArgs) -> {
+            if (op.quickenedOutputType == QuickeningTypes.OBJECT && bci < newOutputCanQuicken.length) {
+                newOutputCanQuicken[bci] = 0;
+            }
+        });
+        changed |= !Arrays.equals(outputCanQuicken, newOutputCanQuicken);
+        byte[] newVariableTypes = initialVariableTypes;
+        if (variableTypes != null) {
+            byte[] learned = initialVariableTypes != null ? Arrays.copyOf(initialVariableTypes, varnames.length) : new byte[varnames.length];
+            boolean any = false;
+            for (int i = 0; i < learned.length && i < variableTypes.length; i++) {
+                if ((variableTypes[i] & QuickeningTypes.OBJECT) != 0) {
+                    learned[i] = QuickeningTypes.OBJECT;
+                }
+                any |= learned[i] != 0;
+            }
+            if (any && !Arrays.equals(learned, initialVariableTypes)) {
+                newVariableTypes = learned;
+                changed = true;
+            }
+        }
+        if (!changed) {
+            return this;
+        }
+        return new CodeUnit(name, qualname, argCount, kwOnlyArgCount, positionalOnlyArgCount, stacksize, code, srcOffsetTable, flags, names, varnames, cellvars, freevars, cell2arg,
+                        newConstants, primitiveConstants, exceptionHandlerRanges, conditionProfileCount, startLine, startColumn, endLine, endColumn,
+                        newOutputCanQuicken, variableShouldUnbox, generalizeInputsMap, generalizeVarsMap, newVariableTypes);
     }
 
     public SourceMap getSourceMap() {
@@ -207,6 +276,39 @@ public final class CodeUnit {
         return argCount + positionalOnlyArgCount + kwOnlyArgCount;
     }
 
+    /**
+     * Whether the local variable is a private slot of a comprehension inlined into this code unit
+     * (see {@link Compiler.Flags#INLINE_COMPREHENSIONS}). Such slots are named after the
+     * comprehension, e.g. {@code <listcomp>.x}, which cannot clash with an identifier. They are not
+     * Python variables and are hidden from {@code co_varnames} and frame locals.
+     */
+    public static boolean isInlinedComprehensionSlot(TruffleString varname) {
+        return !varname.isEmpty() && varname.codePointAtIndexUncached(0, PythonUtils.TS_ENCODING) == '<';
+    }
+
+    /**
+     * The local variable names as seen by Python code, i.e. without inlined comprehension slots.
+     */
+    public TruffleString[] getPythonVarnames() {
+        int count = 0;
+        for (TruffleString varname : varnames) {
+            if (!isInlinedComprehensionSlot(varname)) {
+                count++;
+            }
+        }
+        if (count == varnames.length) {
+            return Arrays.copyOf(varnames, varnames.length);
+        }
+        TruffleString[] result = new TruffleString[count];
+        int i = 0;
+        for (TruffleString varname : varnames) {
+            if (!isInlinedComprehensionSlot(varname)) {
+                result[i++] = varname;
+            }
+        }
+        return result;
+    }
+
     public int getTotalArgCount() {
         int count = getRegularArgCount();
         if (takesVarArgs()) {
@@ -283,10 +385,13 @@ public final class CodeUnit {
                     case LOAD_STRING:
                     case LOAD_BYTES:
                     case LOAD_CONST_COLLECTION:
+                    case RETURN_CONST:
                     case MAKE_KEYWORD: {
                         Object constant = constants[oparg];
                         if (constant instanceof CodeUnit) {
                             line[5] = ((CodeUnit) constant).qualname.toJavaStringUncached();
+                        } else if (constant instanceof LazyCodeUnit) {
+                            line[5] = ((LazyCodeUnit) constant).qualname.toJavaStringUncached();
                         } else {
                             if (constant instanceof TruffleString) {
                                 line[5] = StringNodes.StringReprNode.getUncached().execute((TruffleString) constant).toJavaStringUncached();
@@ -314,8 +419,12 @@ public final class CodeUnit {
                     }
                     case MAKE_FUNCTION: {
                         line[4] = String.format("% 2d", followingArgs[0]);
-                        CodeUnit codeUnit = (CodeUnit) constants[oparg];
-                        line[5] = line[5] = codeUnit.qualname.toJavaStringUncached();
+                        Object codeUnit = constants[oparg];
+                        if (codeUnit instanceof LazyCodeUnit) {
+                            line[5] = ((LazyCodeUnit) codeUnit).qualname.toJavaStringUncached();
+                        } else {
+                            line[5] = ((CodeUnit) codeUnit).qualname.toJavaStringUncached();
+                        }
                         break;
                     }
                     case LOAD_INT:
@@ -347,8 +456,16 @@ public final class CodeUnit {
                     case LOAD_FAST:
                     case STORE_FAST:
                     case DELETE_FAST:
+                    case CLEAR_FAST:
                         line[5] = varnames[oparg].toJavaStringUncached();
                         break;
+                    case LOAD_FAST_LOAD_FAST:
+                        line[4] = String.format("% 2d, %d", oparg, Byte.toUnsignedInt(followingArgs[0]));
+                        line[5] = String.format("%s, %s", varnames[oparg].toJavaStringUncached(), varnames[Byte.toUnsignedInt(followingArgs[0])].toJavaStringUncached());
+                        break;
+                    case LOAD_FAST_LOAD_ATTR:
+                        line[5] = String.format("%s.%s", varnames[Byte.toUnsignedInt(followingArgs[0])].toJavaStringUncached(), names[oparg].toJavaStringUncached());
+                        break;
                     case LOAD_NAME:
                     case LOAD_METHOD:
                     case STORE_NAME:
@@ -483,7 +600,7 @@ public final class CodeUnit {
         }
 
         for (Object c : constants) {
-            if (c instanceof CodeUnit) {
+            if (LazyCodeUnit.isCodeUnit(c)) {
                 sb.append('\n');
                 sb.append(c);
             }
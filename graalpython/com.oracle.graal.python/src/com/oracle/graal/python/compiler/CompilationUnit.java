@@ -51,12 +51,15 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Deque;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
@@ -89,6 +92,7 @@ public final class CompilationUnit {
     final String privateName;
     BlockInfo blockInfo;
     int conditionProfileCount;
+    boolean useSuperinstructions;
 
     Block currentBlock = startBlock;
     int maxStackSize = 0;
@@ -98,9 +102,17 @@ public final class CompilationUnit {
 
     CompilationUnit(CompilationScope scopeType, Scope scope, String name, CompilationUnit parent, int scopeDepth, int argCount, int positionalOnlyArgCount, int kwOnlyArgCount, boolean takesVarArgs,
                     boolean takesVarKeywordArgs, SourceRange startLocation) {
+        this(scopeType, scope, name, computeQualName(scopeType, name, parent, scopeDepth), computePrivateName(scopeType, name, parent), argCount, positionalOnlyArgCount, kwOnlyArgCount,
+                        takesVarArgs, takesVarKeywordArgs, startLocation);
+    }
+
+    private CompilationUnit(CompilationScope scopeType, Scope scope, String name, String qualName, String privateName, int argCount, int positionalOnlyArgCount, int kwOnlyArgCount,
+                    boolean takesVarArgs, boolean takesVarKeywordArgs, SourceRange startLocation) {
         this.scopeType = scopeType;
         this.scope = scope;
         this.name = name;
+        this.qualName = qualName;
+        this.privateName = privateName;
         this.argCount = argCount;
         this.positionalOnlyArgCount = positionalOnlyArgCount;
         this.kwOnlyArgCount = kwOnlyArgCount;
@@ -109,27 +121,6 @@ public final class CompilationUnit {
         this.startLocation = startLocation;
         currentLocation = startLocation;
 
-        if (scopeType == Class) {
-            privateName = name;
-        } else if (parent != null) {
-            privateName = parent.privateName;
-        } else {
-            privateName = null;
-        }
-        if (scopeDepth > 1 && parent != null) {
-            if (!(EnumSet.of(Function, AsyncFunction, Class).contains(scopeType) &&
-                            parent.scope.getUseOfName(ScopeEnvironment.mangle(parent.privateName, name)).contains(Scope.DefUse.GlobalExplicit))) {
-                String base;
-                if (EnumSet.of(Function, AsyncFunction, Lambda).contains(parent.scopeType)) {
-                    base = parent.qualName + ".<locals>";
-                } else {
-                    base = parent.qualName;
-                }
-                name = base + "." + name;
-            }
-        }
-        qualName = name;
-
         // derive variable names
         for (int i = 0; i < scope.getVarnames().size(); i++) {
             varnames.put(scope.getVarnames().get(i), i);
@@ -154,6 +145,42 @@ public final class CompilationUnit {
         freevars = scope.getSymbolsByType(EnumSet.of(Scope.DefUse.Free, Scope.DefUse.DefFreeClass), cellvars.size());
     }
 
+    private static String computePrivateName(CompilationScope scopeType, String name, CompilationUnit parent) {
+        if (scopeType == Class) {
+            return name;
+        } else if (parent != null) {
+            return parent.privateName;
+        } else {
+            return null;
+        }
+    }
+
+    private static String computeQualName(CompilationScope scopeType, String name, CompilationUnit parent, int scopeDepth) {
+        if (scopeDepth > 1 && parent != null) {
+            if (!(EnumSet.of(Function, AsyncFunction, Class).contains(scopeType) &&
+                            parent.scope.getUseOfName(ScopeEnvironment.mangle(parent.privateName, name)).contains(Scope.DefUse.GlobalExplicit))) {
+                String base;
+                if (EnumSet.of(Function, AsyncFunction, Lambda).contains(parent.scopeType)) {
+                    base = parent.qualName + ".<locals>";
+                } else {
+                    base = parent.qualName;
+                }
+                return base + "." + name;
+            }
+        }
+        return name;
+    }
+
+    /**
+     * Creates a unit for the same scope as this one, without any code emitted into it.
+     */
+    CompilationUnit copyEmpty() {
+        CompilationUnit copy = new CompilationUnit(scopeType, scope, name, qualName, privateName, argCount, positionalOnlyArgCount, kwOnlyArgCount, takesVarArgs, takesVarKeywordArgs,
+                        startLocation);
+        copy.useSuperinstructions = useSuperinstructions;
+        return copy;
+    }
+
     void useNextBlock(Block b) {
         if (b == currentBlock) {
             return;
@@ -179,8 +206,57 @@ public final class CompilationUnit {
         }
     }
 
+    /**
+     * Peephole pass that replaces common pairs of adjacent instructions with a single combined
+     * instruction to save dispatches in the interpreter. Only instructions within a single block and
+     * on the same line are combined, so jump targets, exception ranges and line tracing are not
+     * affected. Instructions that take part in quickening are left alone, because the combined
+     * instructions always operate on boxed values.
+     */
+    private void combineSuperinstructions() {
+        Set<Instruction> quickeningInputs = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Block b = startBlock; b != null; b = b.next) {
+            for (Instruction i : b.instr) {
+                if (i.quickeningGeneralizeList != null) {
+                    quickeningInputs.addAll(i.quickeningGeneralizeList);
+                }
+            }
+        }
+        for (Block b = startBlock; b != null; b = b.next) {
+            List<Instruction> instr = b.instr;
+            for (int j = 0; j + 1 < instr.size(); j++) {
+                Instruction first = instr.get(j);
+                Instruction second = instr.get(j + 1);
+                if (!canCombine(first, quickeningInputs) || !canCombine(second, quickeningInputs) || first.location.startLine != second.location.startLine) {
+                    continue;
+                }
+                Instruction combined = null;
+                if (first.opcode == OpCodes.LOAD_FAST && second.opcode == OpCodes.LOAD_ATTR && first.arg <= 0xFF) {
+                    combined = new Instruction(OpCodes.LOAD_FAST_LOAD_ATTR, second.arg, new byte[]{(byte) first.arg}, null, second.location);
+                } else if (first.opcode == OpCodes.LOAD_FAST && second.opcode == OpCodes.LOAD_FAST && second.arg <= 0xFF) {
+                    combined = new Instruction(OpCodes.LOAD_FAST_LOAD_FAST, first.arg, new byte[]{(byte) second.arg}, null, first.location);
+                } else if (first.opcode == OpCodes.LOAD_NONE && second.opcode == OpCodes.RETURN_VALUE) {
+                    combined = new Instruction(OpCodes.RETURN_NONE, 0, null, null, second.location);
+                } else if ((first.opcode == OpCodes.LOAD_CONST || first.opcode == OpCodes.LOAD_STRING) && second.opcode == OpCodes.RETURN_VALUE) {
+                    combined = new Instruction(OpCodes.RETURN_CONST, first.arg, null, null, second.location);
+                }
+                if (combined != null) {
+                    instr.set(j, combined);
+                    instr.remove(j + 1);
+                }
+            }
+        }
+    }
+
+    private static boolean canCombine(Instruction i, Set<Instruction> quickeningInputs) {
+        return i.target == null && i.quickenOutput == 0 && i.quickeningGeneralizeList == null && !quickeningInputs.contains(i);
+    }
+
     public CodeUnit assemble() {
         addImplicitReturn();
+        if (useSuperinstructions) {
+            combineSuperinstructions();
+        }
         calculateJumpInstructionArguments();
 
         SourceMap.Builder sourceMapBuilder = new SourceMap.Builder(startLocation.startLine, startLocation.startColumn);
@@ -237,6 +313,11 @@ public final class CompilationUnit {
                     variableStores.get(i.arg).add(i);
                 } else if (i.opcode == OpCodes.LOAD_FAST) {
                     boxingMetric[i.arg] += i.quickenOutput != 0 ? quickenMetricWeight : -quickenMetricWeight;
+                } else if (i.opcode == OpCodes.LOAD_FAST_LOAD_ATTR) {
+                    boxingMetric[Byte.toUnsignedInt(i.followingArgs[0])] -= quickenMetricWeight;
+                } else if (i.opcode == OpCodes.LOAD_FAST_LOAD_FAST) {
+                    boxingMetric[i.arg] -= quickenMetricWeight;
+                    boxingMetric[Byte.toUnsignedInt(i.followingArgs[0])] -= quickenMetricWeight;
                 }
                 i.bci = buf.size();
                 emitBytecode(i, buf, sourceMapBuilder);
@@ -321,7 +402,7 @@ public final class CompilationUnit {
                         orderedKeys(names, new TruffleString[0], PythonUtils::toTruffleStringUncached),
                         orderedKeys(varnames, new TruffleString[0], PythonUtils::toTruffleStringUncached),
                         orderedKeys(cellvars, new TruffleString[0], PythonUtils::toTruffleStringUncached),
-                        orderedKeys(freevars, new TruffleString[0], cellvars.size(), PythonUtils::toTruffleStringUncached),
+                        getFreevarNames(),
                         cell2arg,
                         orderedKeys(constants, new Object[0]),
                         orderedLong(primitiveConstants),
@@ -331,6 +412,10 @@ public final class CompilationUnit {
                         finishedCanQuickenOutput, shouldUnboxVariable, finishedGeneralizeInputsMap, finishedGeneralizeVarsMap);
     }
 
+    TruffleString[] getFreevarNames() {
+        return orderedKeys(freevars, new TruffleString[0], cellvars.size(), PythonUtils::toTruffleStringUncached);
+    }
+
     private static void addExceptionRange(Collection<int[]> finishedExceptionHandlerRanges, int start, int end, int handler, int stackLevel) {
         if (start == end) {
             // Don't emit empty ranges. TODO don't emit the block at all if not necessary
@@ -340,7 +425,8 @@ public final class CompilationUnit {
         finishedExceptionHandlerRanges.add(range);
     }
 
-    private static final EnumSet<OpCodes> UNCONDITIONAL_JUMP_OPCODES = EnumSet.of(OpCodes.JUMP_BACKWARD, OpCodes.JUMP_FORWARD, OpCodes.RETURN_VALUE, OpCodes.RAISE_VARARGS, OpCodes.END_EXC_HANDLER);
+    private static final EnumSet<OpCodes> UNCONDITIONAL_JUMP_OPCODES = EnumSet.of(OpCodes.JUMP_BACKWARD, OpCodes.JUMP_FORWARD, OpCodes.RETURN_VALUE, OpCodes.RETURN_NONE, OpCodes.RETURN_CONST, OpCodes.RAISE_VARARGS,
+                    OpCodes.END_EXC_HANDLER);
 
     private void computeStackLevels() {
         Deque<Block> todo = new ArrayDeque<>();
@@ -366,6 +452,7 @@ public final class CompilationUnit {
                 }
                 if (UNCONDITIONAL_JUMP_OPCODES.contains(i.opcode)) {
                     assert i.opcode != OpCodes.RETURN_VALUE || level == 1;
+                    assert (i.opcode != OpCodes.RETURN_NONE && i.opcode != OpCodes.RETURN_CONST) || level == 0;
                     fallthrough = false;
                     break;
                 }
@@ -50,6 +50,7 @@ import static com.oracle.graal.python.compiler.OpCodes.CALL_FUNCTION_KW;
 import static com.oracle.graal.python.compiler.OpCodes.CALL_FUNCTION_VARARGS;
 import static com.oracle.graal.python.compiler.OpCodes.CALL_METHOD;
 import static com.oracle.graal.python.compiler.OpCodes.CALL_METHOD_VARARGS;
+import static com.oracle.graal.python.compiler.OpCodes.CLEAR_FAST;
 import static com.oracle.graal.python.compiler.OpCodes.CLOSURE_FROM_STACK;
 import static com.oracle.graal.python.compiler.OpCodes.COLLECTION_ADD_COLLECTION;
 import static com.oracle.graal.python.compiler.OpCodes.COLLECTION_ADD_STACK;
@@ -201,7 +202,7 @@ import com.oracle.truffle.api.strings.TruffleString;
  * Compiler for bytecode interpreter.
  */
 public class Compiler implements SSTreeVisitor<Void> {
-    public static final int BYTECODE_VERSION = 27;
+    public static final int BYTECODE_VERSION = 31;
 
     private final ErrorCallback errorCallback;
 
@@ -214,6 +215,12 @@ public class Compiler implements SSTreeVisitor<Void> {
     CompilationUnit unit;
     List<CompilationUnit> stack = new ArrayList<>();
     private boolean interactive;
+    /*
+     * Scope and name of the comprehension whose body is currently being inlined into the current
+     * unit, or null.
+     */
+    private Scope inlinedComprehension;
+    private String inlinedComprehensionName;
 
     private static class PatternContext {
         ArrayList<String> stores;
@@ -223,6 +230,28 @@ public class Compiler implements SSTreeVisitor<Void> {
     }
 
     public enum Flags {
+        /**
+         * Combine common instruction sequences into superinstructions when assembling the code
+         * units.
+         */
+        SUPERINSTRUCTIONS,
+        /**
+         * Fold constant expressions and remove unreachable code using {@link SSTOptimizer} before
+         * compiling.
+         */
+        OPTIMIZE_AST,
+        /**
+         * Compile list, set and dict comprehensions directly into the enclosing function instead of
+         * creating and calling a nested function, where their variables stay invisible. The
+         * comprehension then has no frame of its own, so it is missing from tracebacks.
+         */
+        INLINE_COMPREHENSIONS,
+        /**
+         * Compile the bodies of function definitions only when the function is first called or its
+         * code is otherwise needed, see {@link LazyCodeUnit}. Syntax errors and warnings reported
+         * by the compiler (not the parser) for such a body are delayed until then.
+         */
+        LAZY_FUNCTIONS,
     }
 
     public Compiler(ErrorCallback errorCallback) {
@@ -237,6 +266,9 @@ public class Compiler implements SSTreeVisitor<Void> {
         } else if (mod instanceof ModTy.Interactive) {
             parseFuture(((ModTy.Interactive) mod).body);
         }
+        if (flags.contains(Flags.OPTIMIZE_AST)) {
+            mod = SSTOptimizer.optimize(mod, optimizationLevel);
+        }
         this.env = ScopeEnvironment.analyze(mod, errorCallback, futureFeatures);
         this.optimizationLevel = optimizationLevel;
         enterScope("<module>", CompilationScope.Module, mod);
@@ -376,6 +408,28 @@ public class Compiler implements SSTreeVisitor<Void> {
             insn.quickeningGeneralizeList = inputs;
         }
         if (canQuickenInputTypes != 0 && inputs != null) {
+            if (insn.opcode == BINARY_OP) {
+                /*
+                 * Binary ops have quickened variants for mixed operand types (int/long,
+                 * int/double), so the operands don't need to agree on a common type. Let each of
+                 * them produce any primitive type the operation accepts, even when they happen to
+                 * share one, otherwise e.g. a long local multiplied by an int constant could only
+                 * ever be quickened as int.
+                 */
+                byte opInputTypes = insn.opcode.canQuickenInputTypes();
+                byte[] inputTypes = new byte[inputs.size()];
+                boolean allPrimitive = true;
+                for (int i = 0; i < inputs.size(); i++) {
+                    inputTypes[i] = (byte) (opInputTypes & inputs.get(i).opcode.canQuickenOutputTypes());
+                    allPrimitive &= (inputTypes[i] & ~QuickeningTypes.OBJECT) != 0;
+                }
+                if (allPrimitive) {
+                    for (int i = 0; i < inputs.size(); i++) {
+                        inputs.get(i).quickenOutput = inputTypes[i];
+                    }
+                    return;
+                }
+            }
             for (int i = 0; i < inputs.size(); i++) {
                 inputs.get(i).quickenOutput = canQuickenInputTypes;
             }
@@ -418,6 +472,7 @@ public class Compiler implements SSTreeVisitor<Void> {
         }
         unit = new CompilationUnit(scopeType, env.lookupScope(node), name, unit, stack.size(), argc, pargc, kwargc,
                         hasSplat, hasKwSplat, node.getSourceRange());
+        unit.useSuperinstructions = flags.contains(Flags.SUPERINSTRUCTIONS);
         nestingLevel++;
     }
 
@@ -597,6 +652,17 @@ public class Compiler implements SSTreeVisitor<Void> {
         checkForbiddenName(name, ctx);
 
         String mangled = ScopeEnvironment.mangle(unit.privateName, name);
+        if (inlinedComprehension != null) {
+            EnumSet<Scope.DefUse> comprehensionUses = inlinedComprehension.getUseOfName(mangled);
+            if (comprehensionUses.contains(Scope.DefUse.Local)) {
+                addFastVariableOpcode(ctx, addObject(unit.varnames, inlinedComprehensionSlot(inlinedComprehensionName, mangled)));
+                return;
+            } else if (comprehensionUses.contains(Scope.DefUse.GlobalImplicit) || comprehensionUses.contains(Scope.DefUse.GlobalExplicit)) {
+                addGlobalVariableOpcode(ctx, addObject(unit.names, mangled));
+                return;
+            }
+            // free variables of the comprehension are cell or free variables of the current unit
+        }
         EnumSet<Scope.DefUse> uses = unit.scope.getUseOfName(mangled);
 
         if (uses != null) {
@@ -857,10 +923,14 @@ public class Compiler implements SSTreeVisitor<Void> {
     }
 
     private void makeClosure(CodeUnit code, int makeFunctionFlags) {
+        makeClosure(code, code.qualname, code.freevars, makeFunctionFlags);
+    }
+
+    private void makeClosure(Object code, TruffleString qualname, TruffleString[] codeFreevars, int makeFunctionFlags) {
         int newFlags = makeFunctionFlags;
-        if (code.freevars.length > 0) {
+        if (codeFreevars.length > 0) {
             // add the closure
-            for (TruffleString tfv : code.freevars) {
+            for (TruffleString tfv : codeFreevars) {
                 String fv = tfv.toJavaStringUncached();
                 // special case for class scopes
                 int arg;
@@ -871,10 +941,10 @@ public class Compiler implements SSTreeVisitor<Void> {
                 }
                 addOp(LOAD_CLOSURE, arg);
             }
-            addOp(CLOSURE_FROM_STACK, code.freevars.length);
+            addOp(CLOSURE_FROM_STACK, codeFreevars.length);
             newFlags |= OpCodes.MakeFunctionFlags.HAS_CLOSURE;
         }
-        addObject(unit.constants, code.qualname);
+        addObject(unit.constants, qualname);
         addOp(MAKE_FUNCTION, addObject(unit.constants, code), new byte[]{(byte) newFlags});
     }
 
@@ -1274,11 +1344,17 @@ public class Compiler implements SSTreeVisitor<Void> {
             case BYTES:
                 return addOp(LOAD_BYTES, addObject(unit.constants, value.getBytes()));
             case TUPLE:
-                addConstantList(value.getTupleElements());
-                return addOp(TUPLE_FROM_LIST);
+                if (!tryCollectConstantCollection(value.getTupleElements(), CollectionBits.KIND_TUPLE)) {
+                    addConstantList(value.getTupleElements());
+                    addOp(TUPLE_FROM_LIST);
+                }
+                return null;
             case FROZENSET:
-                addConstantList(value.getFrozensetElements());
-                return addOp(FROZENSET_FROM_LIST);
+                if (!tryCollectConstantCollection(value.getFrozensetElements(), CollectionBits.KIND_SET)) {
+                    addConstantList(value.getFrozensetElements());
+                    addOp(FROZENSET_FROM_LIST);
+                }
+                return null;
             default:
                 throw new IllegalStateException("Unknown constant kind " + value.kind);
         }
@@ -1493,6 +1569,11 @@ public class Compiler implements SSTreeVisitor<Void> {
          */
         SourceRange savedLocation = setLocation(node);
         try {
+            Scope scope = env.lookupScope(node);
+            if (canInlineComprehension(scope, type)) {
+                inlineComprehension(name, scope, generators, element, value, type);
+                return null;
+            }
             enterScope(name, CompilationScope.Comprehension, node, 1, 0, 0, false, false);
             if (type != ComprehensionType.GENEXPR) {
                 // The result accumulator, empty at the beginning
@@ -1514,11 +1595,76 @@ public class Compiler implements SSTreeVisitor<Void> {
         }
     }
 
+    private boolean canInlineComprehension(Scope scope, ComprehensionType type) {
+        /*
+         * Generators need their own frame, class bodies must not see the comprehension variables and
+         * nested scopes would have to capture them. Zero-argument super() only fails in a
+         * comprehension with its own frame, keep it that way.
+         */
+        return flags.contains(Flags.INLINE_COMPREHENSIONS) && type != ComprehensionType.GENEXPR && unit.scope.isFunction() && scope.getChildren().isEmpty() && !scope.isCoroutine() &&
+                        scope.getUseOfName("__class__").isEmpty();
+    }
+
+    private void inlineComprehension(String name, Scope scope, ComprehensionTy[] generators, ExprTy element, ExprTy value, ComprehensionType type) {
+        /*
+         * Runs the comprehension in the current frame. The comprehension variables get their own
+         * slots, which are cleared when the comprehension finishes, normally or by an exception.
+         */
+        addOp(COLLECTION_FROM_STACK, type.typeBits);
+        generators[0].iter.accept(this);
+        addOp(GET_ITER);
+
+        Block body = new Block();
+        Block cleanupHandler = new Block();
+        Block end = new Block();
+        unit.pushBlock(new BlockInfo.TryExcept(body, cleanupHandler));
+        unit.useNextBlock(body);
+        Scope savedComprehension = inlinedComprehension;
+        String savedComprehensionName = inlinedComprehensionName;
+        inlinedComprehension = scope;
+        inlinedComprehensionName = name;
+        try {
+            visitComprehensionGenerator(generators, 0, element, value, type);
+        } finally {
+            inlinedComprehension = savedComprehension;
+            inlinedComprehensionName = savedComprehensionName;
+        }
+        unit.popBlock();
+        unit.useNextBlock(new Block());
+        clearInlinedComprehensionSlots(name, scope);
+        addOp(JUMP_FORWARD, end);
+
+        unit.useNextBlock(cleanupHandler);
+        addOp(PUSH_EXC_INFO);
+        clearInlinedComprehensionSlots(name, scope);
+        addOp(END_EXC_HANDLER);
+        unit.useNextBlock(end);
+    }
+
+    private static String inlinedComprehensionSlot(String comprehensionName, String varName) {
+        // cannot clash with a variable name, see CodeUnit.isInlinedComprehensionSlot
+        return comprehensionName + "." + varName;
+    }
+
+    private void clearInlinedComprehensionSlots(String name, Scope scope) {
+        List<String> varNames = new ArrayList<>(scope.getSymbolsByType(EnumSet.of(Scope.DefUse.Local), 0).keySet());
+        varNames.sort(String::compareTo);
+        for (String varName : varNames) {
+            Integer slot = unit.varnames.get(inlinedComprehensionSlot(name, varName));
+            // the implicit argument has no slot, it's the iterator on the stack
+            if (slot != null) {
+                addOp(CLEAR_FAST, slot);
+            }
+        }
+    }
+
     private void visitComprehensionGenerator(ComprehensionTy[] generators, int i, ExprTy element, ExprTy value, ComprehensionType type) {
         ComprehensionTy gen = generators[i];
         if (i == 0) {
-            /* The iterator is the function argument for the outermost generator */
-            addOp(LOAD_FAST, 0);
+            if (inlinedComprehension == null) {
+                /* The iterator is the function argument for the outermost generator */
+                addOp(LOAD_FAST, 0);
+            }
         } else {
             /* Create the iterator for nested iteration */
             gen.iter.accept(this);
@@ -1719,36 +1865,45 @@ public class Compiler implements SSTreeVisitor<Void> {
         if (elements == null || elements.length == 0) {
             return false;
         }
+        ConstantValue[] values = new ConstantValue[elements.length];
+        for (int i = 0; i < elements.length; i++) {
+            if (!(elements[i] instanceof ExprTy.Constant)) {
+                return false;
+            }
+            values[i] = ((ExprTy.Constant) elements[i]).value;
+        }
+        return tryCollectConstantCollection(values, collectionKind);
+    }
+
+    private boolean tryCollectConstantCollection(ConstantValue[] values, int collectionKind) {
+        if (values.length == 0) {
+            return false;
+        }
 
         int constantType = -1;
         List<Object> constants = new ArrayList<>();
 
-        for (ExprTy e : elements) {
-            if (e instanceof ExprTy.Constant) {
-                ExprTy.Constant c = (ExprTy.Constant) e;
-                if (c.value.kind == ConstantValue.Kind.BOOLEAN) {
-                    constantType = determineConstantType(constantType, CollectionBits.ELEMENT_BOOLEAN);
-                    constants.add(c.value.getBoolean());
-                } else if (c.value.kind == ConstantValue.Kind.LONG) {
-                    long val = c.value.getLong();
-                    if (val == (int) val) {
-                        constantType = determineConstantType(constantType, CollectionBits.ELEMENT_INT);
-                    } else {
-                        constantType = determineConstantType(constantType, CollectionBits.ELEMENT_LONG);
-                    }
-                    constants.add(val);
-                } else if (c.value.kind == ConstantValue.Kind.DOUBLE) {
-                    constantType = determineConstantType(constantType, CollectionBits.ELEMENT_DOUBLE);
-                    constants.add(c.value.getDouble());
-                } else if (c.value.kind == ConstantValue.Kind.RAW) {
-                    constantType = determineConstantType(constantType, CollectionBits.ELEMENT_OBJECT);
-                    constants.add(c.value.getRaw(TruffleString.class));
-                } else if (c.value.kind == ConstantValue.Kind.NONE) {
-                    constantType = determineConstantType(constantType, CollectionBits.ELEMENT_OBJECT);
-                    constants.add(PNone.NONE);
+        for (ConstantValue value : values) {
+            if (value.kind == ConstantValue.Kind.BOOLEAN) {
+                constantType = determineConstantType(constantType, CollectionBits.ELEMENT_BOOLEAN);
+                constants.add(value.getBoolean());
+            } else if (value.kind == ConstantValue.Kind.LONG) {
+                long val = value.getLong();
+                if (val == (int) val) {
+                    constantType = determineConstantType(constantType, CollectionBits.ELEMENT_INT);
                 } else {
-                    return false;
+                    constantType = determineConstantType(constantType, CollectionBits.ELEMENT_LONG);
                 }
+                constants.add(val);
+            } else if (value.kind == ConstantValue.Kind.DOUBLE) {
+                constantType = determineConstantType(constantType, CollectionBits.ELEMENT_DOUBLE);
+                constants.add(value.getDouble());
+            } else if (value.kind == ConstantValue.Kind.RAW) {
+                constantType = determineConstantType(constantType, CollectionBits.ELEMENT_OBJECT);
+                constants.add(value.getRaw(TruffleString.class));
+            } else if (value.kind == ConstantValue.Kind.NONE) {
+                constantType = determineConstantType(constantType, CollectionBits.ELEMENT_OBJECT);
+                constants.add(PNone.NONE);
             } else {
                 return false;
             }
@@ -2349,18 +2504,24 @@ public class Compiler implements SSTreeVisitor<Void> {
         CompilationScope scopeType = isAsync ? CompilationScope.AsyncFunction : CompilationScope.Function;
         enterScope(name, scopeType, node, args);
 
-        CodeUnit code;
-        try {
-            TruffleString docString = getDocstring(body);
-            addObject(unit.constants, docString == null ? PNone.NONE : docString);
-            visitSequence(body);
-            code = unit.assemble();
-        } finally {
-            exitScope();
+        if (flags.contains(Flags.LAZY_FUNCTIONS) && !interactive) {
+            LazyCodeUnit code;
+            try {
+                code = new LazyCodeUnit(toTruffleStringUncached(unit.name), toTruffleStringUncached(unit.qualName), getDocstring(body), unit.getFreevarNames(), forkForLazyFunction(), body);
+            } finally {
+                exitScope();
+            }
+            makeClosure(code, code.qualname, code.freevars, makeFunctionFlags);
+        } else {
+            CodeUnit code;
+            try {
+                code = compileFunctionBody(body);
+            } finally {
+                exitScope();
+            }
+            makeClosure(code, makeFunctionFlags);
         }
 
-        makeClosure(code, makeFunctionFlags);
-
         if (decoratorList != null) {
             for (int i = 0; i < decoratorList.length; i++) {
                 addOp(CALL_FUNCTION, 1);
@@ -2371,6 +2532,51 @@ public class Compiler implements SSTreeVisitor<Void> {
         return null;
     }
 
+    private CodeUnit compileFunctionBody(StmtTy[] body) {
+        TruffleString docString = getDocstring(body);
+        addObject(unit.constants, docString == null ? PNone.NONE : docString);
+        visitSequence(body);
+        return unit.assemble();
+    }
+
+    /**
+     * Creates a compiler that remembers the state of this compiler in the current (just entered)
+     * function scope. Only the depth of the unit stack is kept, the enclosing units are not needed
+     * once the scope was entered.
+     */
+    private Compiler forkForLazyFunction() {
+        return fork(errorCallback, unit);
+    }
+
+    private Compiler fork(ErrorCallback callback, CompilationUnit forkUnit) {
+        Compiler fork = new Compiler(callback);
+        fork.env = env;
+        fork.flags = flags;
+        fork.futureFeatures = futureFeatures;
+        fork.futureLineno = futureLineno;
+        fork.optimizationLevel = optimizationLevel;
+        fork.nestingLevel = nestingLevel;
+        fork.stack = new ArrayList<>(Collections.nCopies(stack.size(), null));
+        fork.unit = forkUnit;
+        return fork;
+    }
+
+    /**
+     * Called by {@link LazyCodeUnit} on a compiler created by {@link #forkForLazyFunction()}. The
+     * body is compiled into a copy of the remembered unit, so that a failed attempt does not leave
+     * anything behind.
+     */
+    CodeUnit compileLazyFunctionBody(StmtTy[] body) {
+        if (errorCallback instanceof RaisePythonExceptionErrorCallback) {
+            // the warnings of the rest of the module were already reported
+            RaisePythonExceptionErrorCallback callback = ((RaisePythonExceptionErrorCallback) errorCallback).copyWithoutWarnings();
+            CodeUnit code = fork(callback, unit.copyEmpty()).compileFunctionBody(body);
+            callback.triggerDeprecationWarnings();
+            return code;
+        }
+        return fork(errorCallback, unit.copyEmpty()).compileFunctionBody(body);
+    }
+
     private boolean visitAnnotations(ArgumentsTy args, ExprTy returns) {
         Collector collector = new Collector(CollectionBits.KIND_DICT);
         if (args != null) {
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2023, 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.compiler;
+
+import com.oracle.graal.python.pegparser.sst.StmtTy;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.strings.TruffleString;
+
+/**
+ * Stands in for the {@link CodeUnit} of a function whose body was not compiled yet, see
+ * {@link Compiler.Flags#LAZY_FUNCTIONS}. It is stored in the constants of the enclosing code unit
+ * and all code that consumes code unit constants must resolve it using {@link #resolve(Object)}.
+ * The body is compiled at most once, on the first resolution, which for a function defined at
+ * runtime is postponed until its code is needed, usually the first call. A syntax error found by
+ * the compiler in the body is raised from the resolution and is raised again on the next attempt.
+ */
+public final class LazyCodeUnit {
+    public final TruffleString name;
+    public final TruffleString qualname;
+    public final TruffleString doc;
+    final TruffleString[] freevars;
+
+    /*
+     * A compiler with the state it had when it entered the scope of the function, and the body to
+     * compile with it. Both are dropped once the code unit is compiled.
+     */
+    private Compiler compiler;
+    private StmtTy[] body;
+    private volatile CodeUnit code;
+
+    LazyCodeUnit(TruffleString name, TruffleString qualname, TruffleString doc, TruffleString[] freevars, Compiler compiler, StmtTy[] body) {
+        this.name = name;
+        this.qualname = qualname;
+        this.doc = doc;
+        this.freevars = freevars;
+        this.compiler = compiler;
+        this.body = body;
+    }
+
+    public CodeUnit get() {
+        CodeUnit result = code;
+        if (result == null) {
+            result = compile();
+        }
+        return result;
+    }
+
+    public boolean isCompiled() {
+        return code != null;
+    }
+
+    @TruffleBoundary
+    private synchronized CodeUnit compile() {
+        if (code == null) {
+            code = compiler.compileLazyFunctionBody(body);
+            compiler = null;
+            body = null;
+        }
+        return code;
+    }
+
+    /**
+     * Returns the code unit for a constant that is either a {@link CodeUnit} or a
+     * {@link LazyCodeUnit}.
+     */
+    public static CodeUnit resolve(Object constant) {
+        if (constant instanceof LazyCodeUnit lazy) {
+            return lazy.get();
+        }
+        return (CodeUnit) constant;
+    }
+
+    public static boolean isCodeUnit(Object constant) {
+        return constant instanceof CodeUnit || constant instanceof LazyCodeUnit;
+    }
+
+    @Override
+    public String toString() {
+        return get().toString();
+    }
+}
@@ -235,6 +235,11 @@ public enum OpCodes {
      * variable name in varnames array ({@code co_varnames}).
      */
     DELETE_FAST(1, 0, 0),
+    /**
+     * Like {@link #DELETE_FAST}, but doesn't raise an error if the variable is not bound. Used to
+     * release the variables of inlined comprehensions.
+     */
+    CLEAR_FAST(1, 0, 0),
     /**
      * Reads a local cell variable determined by the immediate operand which indexes a stack slot
      * after celloffset and a variable name in cellvars or freevars array ({@code co_cellvars},
@@ -408,7 +413,8 @@ public enum OpCodes {
     /*
      * Creates a collection out of a Java array in constants array indexed by the immediate operand.
      * The second immediate operand determines the array type and kind, using values from {@link
-     * CollectionBits}. The only allowed kinds are list and tuple.
+     * CollectionBits}. The only allowed kinds are list, tuple and set. The set kind creates a
+     * {@code frozenset}, it is only used for constant sets that are never mutated.
      */
     LOAD_CONST_COLLECTION(2, 0, 1),
 
@@ -755,6 +761,34 @@ public enum OpCodes {
      */
     EXIT_AWITH(0, 2, 0),
 
+    // superinstructions, only emitted by the peephole pass in CompilationUnit
+    /**
+     * Combination of {@link #LOAD_FAST} and {@link #LOAD_ATTR}. The attribute name is determined by
+     * the immediate operand which indexes the names array ({@code co_names}), the local variable is
+     * determined by the following argument.
+     *
+     * Pushes: read attribute
+     */
+    LOAD_FAST_LOAD_ATTR(2, 0, 1),
+    /**
+     * Combination of two {@link #LOAD_FAST}s. The first variable is determined by the immediate
+     * operand, the second one by the following argument.
+     *
+     * Pushes: the first variable, then the second variable
+     */
+    LOAD_FAST_LOAD_FAST(2, 0, 2),
+    /**
+     * Combination of {@link #LOAD_NONE} and {@link #RETURN_VALUE}. Returns {@code None} to the
+     * caller. In generators, performs generator return.
+     */
+    RETURN_NONE(0, 0, 0),
+    /**
+     * Combination of {@link #LOAD_CONST} and {@link #RETURN_VALUE}. Returns the constant from the
+     * constants array ({@code co_consts}) determined by the immediate operand to the caller. In
+     * generators, performs generator return.
+     */
+    RETURN_CONST(1, 0, 0),
+
     /*
      * Quickened bytecodes
      */
@@ -795,6 +829,8 @@ public enum OpCodes {
     UNARY_OP_O_O(UNARY_OP, QuickeningTypes.OBJECT, QuickeningTypes.OBJECT),
     UNARY_OP_I_O(UNARY_OP, QuickeningTypes.INT, QuickeningTypes.OBJECT),
     UNARY_OP_I_I(UNARY_OP, QuickeningTypes.INT, QuickeningTypes.INT, UNARY_OP_I_O),
+    UNARY_OP_L_O(UNARY_OP, QuickeningTypes.LONG, QuickeningTypes.OBJECT),
+    UNARY_OP_L_L(UNARY_OP, QuickeningTypes.LONG, QuickeningTypes.LONG, UNARY_OP_L_O),
     UNARY_OP_D_O(UNARY_OP, QuickeningTypes.DOUBLE, QuickeningTypes.OBJECT),
     UNARY_OP_D_D(UNARY_OP, QuickeningTypes.DOUBLE, QuickeningTypes.DOUBLE, UNARY_OP_D_O),
     UNARY_OP_B_O(UNARY_OP, QuickeningTypes.BOOLEAN, QuickeningTypes.OBJECT),
@@ -803,9 +839,37 @@ public enum OpCodes {
     BINARY_OP_II_O(BINARY_OP, QuickeningTypes.INT, QuickeningTypes.OBJECT),
     BINARY_OP_II_I(BINARY_OP, QuickeningTypes.INT, QuickeningTypes.INT, BINARY_OP_II_O),
     BINARY_OP_II_B(BINARY_OP, QuickeningTypes.INT, QuickeningTypes.BOOLEAN, BINARY_OP_II_O),
+    BINARY_OP_LL_O(BINARY_OP, QuickeningTypes.LONG, QuickeningTypes.OBJECT),
+    BINARY_OP_LL_L(BINARY_OP, QuickeningTypes.LONG, QuickeningTypes.LONG, BINARY_OP_LL_O),
+    BINARY_OP_LL_B(BINARY_OP, QuickeningTypes.LONG, QuickeningTypes.BOOLEAN, BINARY_OP_LL_O),
+    /*
+     * Mixed int/long variants. The int operand is widened to long, so they share the
+     * implementation with the LL variants.
+     */
+    BINARY_OP_IL_O(BINARY_OP, QuickeningTypes.INT | QuickeningTypes.LONG, QuickeningTypes.OBJECT),
+    BINARY_OP_IL_L(BINARY_OP, QuickeningTypes.INT | QuickeningTypes.LONG, QuickeningTypes.LONG, BINARY_OP_IL_O),
+    BINARY_OP_IL_B(BINARY_OP, QuickeningTypes.INT | QuickeningTypes.LONG, QuickeningTypes.BOOLEAN, BINARY_OP_IL_O),
+    BINARY_OP_LI_O(BINARY_OP, QuickeningTypes.INT | QuickeningTypes.LONG, QuickeningTypes.OBJECT),
+    BINARY_OP_LI_L(BINARY_OP, QuickeningTypes.INT | QuickeningTypes.LONG, QuickeningTypes.LONG, BINARY_OP_LI_O),
+    BINARY_OP_LI_B(BINARY_OP, QuickeningTypes.INT | QuickeningTypes.LONG, QuickeningTypes.BOOLEAN, BINARY_OP_LI_O),
     BINARY_OP_DD_O(BINARY_OP, QuickeningTypes.DOUBLE, QuickeningTypes.OBJECT),
     BINARY_OP_DD_D(BINARY_OP, QuickeningTypes.DOUBLE, QuickeningTypes.DOUBLE, BINARY_OP_DD_O),
     BINARY_OP_DD_B(BINARY_OP, QuickeningTypes.DOUBLE, QuickeningTypes.BOOLEAN, BINARY_OP_DD_O),
+    /*
+     * Mixed int/long and double variants. The integer operand is promoted to double, like
+     * float.__add__ and friends would do it. Comparisons are only quickened for int operands,
+     * because not every long can be represented exactly as a double.
+     */
+    BINARY_OP_ID_O(BINARY_OP, QuickeningTypes.INT | QuickeningTypes.DOUBLE, QuickeningTypes.OBJECT),
+    BINARY_OP_ID_D(BINARY_OP, QuickeningTypes.INT | QuickeningTypes.DOUBLE, QuickeningTypes.DOUBLE, BINARY_OP_ID_O),
+    BINARY_OP_ID_B(BINARY_OP, QuickeningTypes.INT | QuickeningTypes.DOUBLE, QuickeningTypes.BOOLEAN, BINARY_OP_ID_O),
+    BINARY_OP_DI_O(BINARY_OP, QuickeningTypes.INT | QuickeningTypes.DOUBLE, QuickeningTypes.OBJECT),
+    BINARY_OP_DI_D(BINARY_OP, QuickeningTypes.INT | QuickeningTypes.DOUBLE, QuickeningTypes.DOUBLE, BINARY_OP_DI_O),
+    BINARY_OP_DI_B(BINARY_OP, QuickeningTypes.INT | QuickeningTypes.DOUBLE, QuickeningTypes.BOOLEAN, BINARY_OP_DI_O),
+    BINARY_OP_LD_O(BINARY_OP, QuickeningTypes.LONG | QuickeningTypes.DOUBLE, QuickeningTypes.OBJECT),
+    BINARY_OP_LD_D(BINARY_OP, QuickeningTypes.LONG | QuickeningTypes.DOUBLE, QuickeningTypes.DOUBLE, BINARY_OP_LD_O),
+    BINARY_OP_DL_O(BINARY_OP, QuickeningTypes.LONG | QuickeningTypes.DOUBLE, QuickeningTypes.OBJECT),
+    BINARY_OP_DL_D(BINARY_OP, QuickeningTypes.LONG | QuickeningTypes.DOUBLE, QuickeningTypes.DOUBLE, BINARY_OP_DL_O),
     FOR_ITER_O(FOR_ITER, 0, QuickeningTypes.OBJECT),
     FOR_ITER_I(FOR_ITER, 0, QuickeningTypes.INT, FOR_ITER_O),
     BINARY_SUBSCR_SEQ_O_O(BINARY_SUBSCR, QuickeningTypes.OBJECT, QuickeningTypes.OBJECT),
@@ -880,6 +944,11 @@ public enum OpCodes {
     public final int argLength;
     public final OpCodes quickens;
     public final OpCodes generalizesTo;
+    /**
+     * Type of the value produced by a quickened instruction as defined by {@link QuickeningTypes},
+     * 0 for instructions that are not quickened or that don't produce a value.
+     */
+    public final byte quickenedOutputType;
     private byte quickenInputTypes;
     private byte quickenOutputTypes;
 
@@ -901,6 +970,7 @@ public enum OpCodes {
         this.producesStackItems = producesStackItems;
         this.quickens = null;
         this.generalizesTo = null;
+        this.quickenedOutputType = 0;
     }
 
     OpCodes(OpCodes quickens, int inputType, int outputType) {
@@ -913,6 +983,7 @@ public enum OpCodes {
         this.producesStackItems = quickens.producesStackItems;
         this.generalizesTo = generalizesTo;
         this.quickens = quickens;
+        this.quickenedOutputType = (byte) outputType;
         quickens.quickenInputTypes |= (byte) inputType;
         quickens.quickenOutputTypes |= (byte) outputType;
     }
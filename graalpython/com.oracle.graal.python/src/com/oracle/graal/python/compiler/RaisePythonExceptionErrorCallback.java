@@ -82,6 +82,13 @@ public class RaisePythonExceptionErrorCallback implements ErrorCallback {
         this.withJavaStackTrace = withJavaStackTrace;
     }
 
+    /**
+     * Creates a callback for the same source that does not carry over the warnings reported so far.
+     */
+    public RaisePythonExceptionErrorCallback copyWithoutWarnings() {
+        return new RaisePythonExceptionErrorCallback(source, withJavaStackTrace);
+    }
+
     private static class DeprecationWarning {
         final PythonBuiltinClassType type;
         final SourceRange sourceRange;
@@ -209,6 +216,10 @@ public class RaisePythonExceptionErrorCallback implements ErrorCallback {
         deprecationWarnings.add(new DeprecationWarning(type, sourceRange, toTruffleStringUncached(message)));
     }
 
+    public boolean hasDeprecationWarnings() {
+        return deprecationWarnings != null;
+    }
+
     public void triggerDeprecationWarnings() {
         if (deprecationWarnings != null) {
             triggerDeprecationWarningsBoundary();
@@ -0,0 +1,1229 @@
+/*
+ * Copyright (c) 2023, 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.compiler;
+
+import static com.oracle.graal.python.util.PythonUtils.TS_ENCODING;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import com.oracle.graal.python.pegparser.sst.AliasTy;
+import com.oracle.graal.python.pegparser.sst.ArgTy;
+import com.oracle.graal.python.pegparser.sst.ArgumentsTy;
+import com.oracle.graal.python.pegparser.sst.CmpOpTy;
+import com.oracle.graal.python.pegparser.sst.ComprehensionTy;
+import com.oracle.graal.python.pegparser.sst.ConstantValue;
+import com.oracle.graal.python.pegparser.sst.ExceptHandlerTy;
+import com.oracle.graal.python.pegparser.sst.ExprContextTy;
+import com.oracle.graal.python.pegparser.sst.ExprTy;
+import com.oracle.graal.python.pegparser.sst.KeywordTy;
+import com.oracle.graal.python.pegparser.sst.MatchCaseTy;
+import com.oracle.graal.python.pegparser.sst.ModTy;
+import com.oracle.graal.python.pegparser.sst.OperatorTy;
+import com.oracle.graal.python.pegparser.sst.PatternTy;
+import com.oracle.graal.python.pegparser.sst.SSTNode;
+import com.oracle.graal.python.pegparser.sst.SSTreeVisitor;
+import com.oracle.graal.python.pegparser.sst.StmtTy;
+import com.oracle.graal.python.pegparser.sst.TypeIgnoreTy;
+import com.oracle.graal.python.pegparser.sst.UnaryOpTy;
+import com.oracle.graal.python.pegparser.sst.WithItemTy;
+import com.oracle.truffle.api.strings.TruffleString;
+
+/**
+ * Optimizing pass over the SST that runs before scope analysis and bytecode emission. Equivalent
+ * of CPython's {@code ast_opt.c}. It folds operations on constants, replaces {@code __debug__} with
+ * its value, removes branches of {@code if}, {@code while} and conditional expressions whose test is
+ * constant, removes statements that follow {@code return}, {@code raise}, {@code break} or
+ * {@code continue}, and turns constant lists and sets used in {@code in} tests and {@code for}
+ * loops into constant tuples and frozensets.
+ * <p>
+ * The tree is immutable, so nodes are rebuilt whenever any of their children changed and reused
+ * otherwise. Code is only removed if it contains nothing that could influence scope analysis or
+ * that the compiler reports errors for, so removing it never changes the semantics of the remaining
+ * code. Annotations are never touched, because they may be turned into strings by the
+ * {@link Unparser}.
+ */
+public final class SSTOptimizer implements SSTreeVisitor<SSTNode> {
+
+    /*
+     * Same limits as in CPython, so that we don't blow up the size of the constants.
+     */
+    private static final int MAX_INT_SIZE = 128;
+    private static final int MAX_COLLECTION_SIZE = 256;
+    private static final int MAX_STR_SIZE = 4096;
+    private static final long MAX_EXACT_DOUBLE = 1L << 53;
+
+    private final int optimizationLevel;
+
+    /**
+     * Incremented for every visited construct that prevents removal of the code that contains it:
+     * name bindings, scopes, generator and coroutine markers, control flow statements and
+     * constructs for which the compiler reports syntax errors.
+     */
+    private int pinnedCount;
+
+    private SSTOptimizer(int optimizationLevel) {
+        this.optimizationLevel = optimizationLevel;
+    }
+
+    public static ModTy optimize(ModTy mod, int optimizationLevel) {
+        return (ModTy) mod.accept(new SSTOptimizer(optimizationLevel));
+    }
+
+    private ExprTy visitExpr(ExprTy node) {
+        return node == null ? null : (ExprTy) node.accept(this);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends SSTNode> T[] visitArray(T[] nodes) {
+        if (nodes == null) {
+            return null;
+        }
+        T[] result = nodes;
+        for (int i = 0; i < nodes.length; i++) {
+            if (nodes[i] == null) {
+                // e.g. the key of a ** item in a dict display
+                continue;
+            }
+            T newNode = (T) nodes[i].accept(this);
+            if (newNode != nodes[i]) {
+                if (result == nodes) {
+                    result = nodes.clone();
+                }
+                result[i] = newNode;
+            }
+        }
+        return result;
+    }
+
+    private StmtTy[] visitBody(StmtTy[] body) {
+        if (body == null || body.length == 0) {
+            return body;
+        }
+        ArrayList<StmtTy> result = new ArrayList<>(body.length);
+        boolean changed = false;
+        for (int i = 0; i < body.length; i++) {
+            StmtTy stmt = (StmtTy) body[i].accept(this);
+            StmtTy[] replacement = removeDeadBranch(stmt);
+            // don't let a string become a docstring by inlining or removing the first statement
+            if (replacement != null && (!result.isEmpty() || !startsWithStringExpr(replacement.length > 0 ? replacement : Arrays.copyOfRange(body, i + 1, body.length)))) {
+                Collections.addAll(result, replacement);
+                changed = true;
+            } else {
+                result.add(stmt);
+                changed |= stmt != body[i];
+            }
+            if (isTerminator(stmt) && i + 1 < body.length) {
+                int pinnedBefore = pinnedCount;
+                StmtTy[] rest = visitBody(Arrays.copyOfRange(body, i + 1, body.length));
+                if (pinnedCount != pinnedBefore) {
+                    Collections.addAll(result, rest);
+                    changed |= rest.length != body.length - i - 1;
+                    for (int j = 0; !changed && j < rest.length; j++) {
+                        changed = rest[j] != body[i + 1 + j];
+                    }
+                } else {
+                    changed = true;
+                }
+                break;
+            }
+        }
+        if (!changed) {
+            return body;
+        }
+        if (result.isEmpty()) {
+            result.add(new StmtTy.Pass(body[0].getSourceRange()));
+        }
+        return result.toArray(new StmtTy[0]);
+    }
+
+    private static boolean isTerminator(StmtTy stmt) {
+        return stmt instanceof StmtTy.Return || stmt instanceof StmtTy.Raise || stmt instanceof StmtTy.Break || stmt instanceof StmtTy.Continue;
+    }
+
+    private static boolean startsWithStringExpr(StmtTy[] stmts) {
+        return stmts.length > 0 && stmts[0] instanceof StmtTy.Expr && ((StmtTy.Expr) stmts[0]).value instanceof ExprTy.Constant;
+    }
+
+    /**
+     * Returns the statements that replace {@code stmt} if it is an {@code if} or {@code while}
+     * statement with a constant test whose dead part can be removed, {@code null} otherwise.
+     */
+    private StmtTy[] removeDeadBranch(StmtTy stmt) {
+        if (stmt instanceof StmtTy.If) {
+            StmtTy.If ifStmt = (StmtTy.If) stmt;
+            Boolean truth = constantTruth(ifStmt.test);
+            if (truth == null) {
+                return null;
+            }
+            StmtTy[] live = truth ? ifStmt.body : ifStmt.orElse;
+            StmtTy[] dead = truth ? ifStmt.orElse : ifStmt.body;
+            if (!canRemove(dead)) {
+                return null;
+            }
+            return live == null ? new StmtTy[0] : live;
+        } else if (stmt instanceof StmtTy.While) {
+            StmtTy.While whileStmt = (StmtTy.While) stmt;
+            if (constantTruth(whileStmt.test) != Boolean.FALSE || !canRemove(whileStmt.body)) {
+                return null;
+            }
+            return whileStmt.orElse == null ? new StmtTy[0] : whileStmt.orElse;
+        }
+        return null;
+    }
+
+    private boolean canRemove(StmtTy[] stmts) {
+        int pinnedBefore = pinnedCount;
+        visitArray(stmts);
+        return pinnedCount == pinnedBefore;
+    }
+
+    private boolean canRemove(ExprTy expr) {
+        int pinnedBefore = pinnedCount;
+        visitExpr(expr);
+        return pinnedCount == pinnedBefore;
+    }
+
+    private static Boolean constantTruth(ExprTy expr) {
+        if (!(expr instanceof ExprTy.Constant)) {
+            return null;
+        }
+        return truth(((ExprTy.Constant) expr).value);
+    }
+
+    private static Boolean truth(ConstantValue value) {
+        switch (value.kind) {
+            case NONE:
+                return false;
+            case ELLIPSIS:
+                return true;
+            case BOOLEAN:
+                return value.getBoolean();
+            case LONG:
+                return value.getLong() != 0;
+            case BIGINTEGER:
+                return value.getBigInteger().signum() != 0;
+            case DOUBLE:
+                return value.getDouble() != 0.0;
+            case COMPLEX:
+                return value.getComplex()[0] != 0.0 || value.getComplex()[1] != 0.0;
+            case RAW:
+                return !value.getRaw(TruffleString.class).isEmpty();
+            case BYTES:
+                return value.getBytes().length != 0;
+            case TUPLE:
+                return value.getTupleElements().length != 0;
+            case FROZENSET:
+                return value.getFrozensetElements().length != 0;
+            default:
+                return null;
+        }
+    }
+
+    private static ConstantValue[] constantElements(ExprTy[] elements) {
+        ConstantValue[] values = new ConstantValue[elements == null ? 0 : elements.length];
+        for (int i = 0; i < values.length; i++) {
+            if (!(elements[i] instanceof ExprTy.Constant)) {
+                return null;
+            }
+            values[i] = ((ExprTy.Constant) elements[i]).value;
+        }
+        return values;
+    }
+
+    /**
+     * Replaces a list or set display that is only iterated over or tested for containment with a
+     * constant tuple or frozenset.
+     */
+    private static ExprTy foldIter(ExprTy node) {
+        if (node instanceof ExprTy.List) {
+            ConstantValue[] values = constantElements(((ExprTy.List) node).elements);
+            if (values != null) {
+                return new ExprTy.Constant(ConstantValue.ofTuple(values), null, node.getSourceRange());
+            }
+        } else if (node instanceof ExprTy.Set) {
+            ConstantValue[] values = constantElements(((ExprTy.Set) node).elements);
+            if (values != null) {
+                return new ExprTy.Constant(ConstantValue.ofFrozenset(values), null, node.getSourceRange());
+            }
+        }
+        return node;
+    }
+
+    // Folding of operations on constants
+
+    private static boolean isInteger(ConstantValue v) {
+        return v.kind == ConstantValue.Kind.LONG || v.kind == ConstantValue.Kind.BIGINTEGER;
+    }
+
+    private static BigInteger toBigInteger(ConstantValue v) {
+        return v.kind == ConstantValue.Kind.LONG ? BigInteger.valueOf(v.getLong()) : v.getBigInteger();
+    }
+
+    private static ConstantValue ofInteger(BigInteger v) {
+        if (v.bitLength() < Long.SIZE) {
+            return ConstantValue.ofLong(v.longValue());
+        }
+        return ConstantValue.ofBigInteger(v);
+    }
+
+    private static ConstantValue foldUnaryOp(UnaryOpTy op, ConstantValue v) {
+        switch (op) {
+            case Not: {
+                Boolean truth = truth(v);
+                return truth == null ? null : ConstantValue.ofBoolean(!truth);
+            }
+            case USub:
+                if (isInteger(v) || v.kind == ConstantValue.Kind.DOUBLE || v.kind == ConstantValue.Kind.COMPLEX) {
+                    return v.negate();
+                }
+                return null;
+            case UAdd:
+                if (isInteger(v) || v.kind == ConstantValue.Kind.DOUBLE || v.kind == ConstantValue.Kind.COMPLEX) {
+                    return v;
+                }
+                return null;
+            case Invert:
+                if (isInteger(v)) {
+                    return ofInteger(toBigInteger(v).not());
+                }
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    private static ConstantValue foldBinOp(ConstantValue left, OperatorTy op, ConstantValue right) {
+        if (isInteger(left) && isInteger(right)) {
+            return foldIntegerBinOp(toBigInteger(left), op, toBigInteger(right));
+        }
+        if (isDoubleOperand(left) && isDoubleOperand(right)) {
+            return foldDoubleBinOp(toDouble(left), op, toDouble(right));
+        }
+        if (op == OperatorTy.Add && left.kind == right.kind) {
+            switch (left.kind) {
+                case RAW:
+                    // concatenate the code points directly, Java strings would merge lone surrogates
+                    return ConstantValue.ofRaw(left.getRaw(TruffleString.class).concatUncached(right.getRaw(TruffleString.class), TS_ENCODING, false));
+                case BYTES: {
+                    byte[] l = left.getBytes();
+                    byte[] r = right.getBytes();
+                    byte[] result = Arrays.copyOf(l, l.length + r.length);
+                    System.arraycopy(r, 0, result, l.length, r.length);
+                    return ConstantValue.ofBytes(result);
+                }
+                case TUPLE: {
+                    ConstantValue[] l = left.getTupleElements();
+                    ConstantValue[] r = right.getTupleElements();
+                    if (l.length + r.length > MAX_COLLECTION_SIZE) {
+                        return null;
+                    }
+                    ConstantValue[] result = Arrays.copyOf(l, l.length + r.length);
+                    System.arraycopy(r, 0, result, l.length, r.length);
+                    return ConstantValue.ofTuple(result);
+                }
+                default:
+                    return null;
+            }
+        }
+        if (op == OperatorTy.Mult) {
+            if (left.kind == ConstantValue.Kind.LONG) {
+                return foldRepeat(right, left.getLong());
+            } else if (right.kind == ConstantValue.Kind.LONG) {
+                return foldRepeat(left, right.getLong());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Doubles and ints that convert to a double without rounding, so that folding mixed int/float
+     * arithmetic never depends on how the int would be rounded.
+     */
+    private static boolean isDoubleOperand(ConstantValue v) {
+        return v.kind == ConstantValue.Kind.DOUBLE || v.kind == ConstantValue.Kind.LONG && isExactDouble(v.getLong());
+    }
+
+    private static boolean isExactDouble(long v) {
+        return -MAX_EXACT_DOUBLE <= v && v <= MAX_EXACT_DOUBLE;
+    }
+
+    private static double toDouble(ConstantValue v) {
+        return v.kind == ConstantValue.Kind.LONG ? v.getLong() : v.getDouble();
+    }
+
+    private static ConstantValue foldIntegerBinOp(BigInteger left, OperatorTy op, BigInteger right) {
+        switch (op) {
+            case Add:
+                return ofInteger(left.add(right));
+            case Sub:
+                return ofInteger(left.subtract(right));
+            case Mult:
+                if (left.bitLength() + right.bitLength() > MAX_INT_SIZE) {
+                    return null;
+                }
+                return ofInteger(left.multiply(right));
+            case Div:
+                if (right.signum() == 0 || left.bitLength() >= Long.SIZE || right.bitLength() >= Long.SIZE || !isExactDouble(left.longValue()) || !isExactDouble(right.longValue())) {
+                    return null;
+                }
+                // both operands are exactly representable, so the division is correctly rounded
+                return ConstantValue.ofDouble(left.doubleValue() / right.doubleValue());
+            case FloorDiv:
+            case Mod: {
+                if (right.signum() == 0) {
+                    return null;
+                }
+                BigInteger[] qr = left.divideAndRemainder(right);
+                if (qr[1].signum() != 0 && qr[1].signum() != right.signum()) {
+                    qr[0] = qr[0].subtract(BigInteger.ONE);
+                    qr[1] = qr[1].add(right);
+                }
+                return ofInteger(op == OperatorTy.FloorDiv ? qr[0] : qr[1]);
+            }
+            case Pow:
+                if (right.signum() < 0 || right.bitLength() > 31 || (long) left.bitLength() * right.longValue() > MAX_INT_SIZE) {
+                    return null;
+                }
+                return ofInteger(left.pow(right.intValue()));
+            case LShift:
+                if (right.signum() < 0 || right.bitLength() > 31 || left.bitLength() + right.longValue() > MAX_INT_SIZE) {
+                    return null;
+                }
+                return ofInteger(left.shiftLeft(right.intValue()));
+            case RShift:
+                if (right.signum() < 0) {
+                    return null;
+                }
+                if (right.bitLength() > 31) {
+                    return ConstantValue.ofLong(left.signum() < 0 ? -1 : 0);
+                }
+                return ofInteger(left.shiftRight(right.intValue()));
+            case BitAnd:
+                return ofInteger(left.and(right));
+            case BitOr:
+                return ofInteger(left.or(right));
+            case BitXor:
+                return ofInteger(left.xor(right));
+            default:
+                return null;
+        }
+    }
+
+    private static ConstantValue foldDoubleBinOp(double left, OperatorTy op, double right) {
+        switch (op) {
+            case Add:
+                return ConstantValue.ofDouble(left + right);
+            case Sub:
+                return ConstantValue.ofDouble(left - right);
+            case Mult:
+                return ConstantValue.ofDouble(left * right);
+            case Div:
+                if (right == 0.0) {
+                    return null;
+                }
+                return ConstantValue.ofDouble(left / right);
+            default:
+                // floor division, modulo and power have Python specific corner cases
+                return null;
+        }
+    }
+
+    private static ConstantValue foldRepeat(ConstantValue sequence, long times) {
+        long n = Math.max(times, 0);
+        switch (sequence.kind) {
+            case RAW: {
+                TruffleString s = sequence.getRaw(TruffleString.class);
+                if (s.codePointLengthUncached(TS_ENCODING) * n > MAX_STR_SIZE) {
+                    return null;
+                }
+                return ConstantValue.ofRaw(s.repeatUncached((int) n, TS_ENCODING));
+            }
+            case BYTES: {
+                byte[] b = sequence.getBytes();
+                if (b.length * n > MAX_STR_SIZE) {
+                    return null;
+                }
+                byte[] result = new byte[(int) (b.length * n)];
+                for (int i = 0; i < n; i++) {
+                    System.arraycopy(b, 0, result, i * b.length, b.length);
+                }
+                return ConstantValue.ofBytes(result);
+            }
+            case TUPLE: {
+                ConstantValue[] t = sequence.getTupleElements();
+                if (t.length * n > MAX_COLLECTION_SIZE) {
+                    return null;
+                }
+                ConstantValue[] result = new ConstantValue[(int) (t.length * n)];
+                for (int i = 0; i < n; i++) {
+                    System.arraycopy(t, 0, result, i * t.length, t.length);
+                }
+                return ConstantValue.ofTuple(result);
+            }
+            default:
+                return null;
+        }
+    }
+
+    // Modules
+
+    @Override
+    public SSTNode visit(ModTy.Module node) {
+        StmtTy[] body = visitBody(node.body);
+        if (body == node.body) {
+            return node;
+        }
+        return new ModTy.Module(body, node.typeIgnores, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(ModTy.Interactive node) {
+        StmtTy[] body = visitBody(node.body);
+        if (body == node.body) {
+            return node;
+        }
+        return new ModTy.Interactive(body, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(ModTy.Expression node) {
+        ExprTy body = visitExpr(node.body);
+        if (body == node.body) {
+            return node;
+        }
+        return new ModTy.Expression(body, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(ModTy.FunctionType node) {
+        return node;
+    }
+
+    // Statements
+
+    @Override
+    public SSTNode visit(StmtTy.FunctionDef node) {
+        pinnedCount++;
+        ArgumentsTy args = (ArgumentsTy) node.args.accept(this);
+        StmtTy[] body = visitBody(node.body);
+        ExprTy[] decoratorList = visitArray(node.decoratorList);
+        if (args == node.args && body == node.body && decoratorList == node.decoratorList) {
+            return node;
+        }
+        return new StmtTy.FunctionDef(node.name, args, body, decoratorList, node.returns, node.typeComment, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(StmtTy.AsyncFunctionDef node) {
+        pinnedCount++;
+        ArgumentsTy args = (ArgumentsTy) node.args.accept(this);
+        StmtTy[] body = visitBody(node.body);
+        ExprTy[] decoratorList = visitArray(node.decoratorList);
+        if (args == node.args && body == node.body && decoratorList == node.decoratorList) {
+            return node;
+        }
+        return new StmtTy.AsyncFunctionDef(node.name, args, body, decoratorList, node.returns, node.typeComment, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(StmtTy.ClassDef node) {
+        pinnedCount++;
+        ExprTy[] bases = visitArray(node.bases);
+        KeywordTy[] keywords = visitArray(node.keywords);
+        StmtTy[] body = visitBody(node.body);
+        ExprTy[] decoratorList = visitArray(node.decoratorList);
+        if (bases == node.bases && keywords == node.keywords && body == node.body && decoratorList == node.decoratorList) {
+            return node;
+        }
+        return new StmtTy.ClassDef(node.name, bases, keywords, body, decoratorList, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(StmtTy.Return node) {
+        pinnedCount++;
+        ExprTy value = visitExpr(node.value);
+        if (value == node.value) {
+            return node;
+        }
+        return new StmtTy.Return(value, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(StmtTy.Delete node) {
+        ExprTy[] targets = visitArray(node.targets);
+        if (targets == node.targets) {
+            return node;
+        }
+        return new StmtTy.Delete(targets, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(StmtTy.Assign node) {
+        ExprTy[] targets = visitArray(node.targets);
+        ExprTy value = visitExpr(node.value);
+        if (targets == node.targets && value == node.value) {
+            return node;
+        }
+        return new StmtTy.Assign(targets, value, node.typeComment, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(StmtTy.AugAssign node) {
+        ExprTy target = visitExpr(node.target);
+        ExprTy value = visitExpr(node.value);
+        if (target == node.target && value == node.value) {
+            return node;
+        }
+        return new StmtTy.AugAssign(target, node.op, value, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(StmtTy.AnnAssign node) {
+        // declares the target even without a value
+        pinnedCount++;
+        ExprTy target = visitExpr(node.target);
+        ExprTy value = visitExpr(node.value);
+        if (target == node.target && value == node.value) {
+            return node;
+        }
+        return new StmtTy.AnnAssign(target, node.annotation, value, node.isSimple, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(StmtTy.For node) {
+        ExprTy target = visitExpr(node.target);
+        ExprTy iter = foldIter(visitExpr(node.iter));
+        StmtTy[] body = visitBody(node.body);
+        StmtTy[] orElse = visitBody(node.orElse);
+        if (target == node.target && iter == node.iter && body == node.body && orElse == node.orElse) {
+            return node;
+        }
+        return new StmtTy.For(target, iter, body, orElse, node.typeComment, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(StmtTy.AsyncFor node) {
+        pinnedCount++;
+        ExprTy target = visitExpr(node.target);
+        ExprTy iter = visitExpr(node.iter);
+        StmtTy[] body = visitBody(node.body);
+        StmtTy[] orElse = visitBody(node.orElse);
+        if (target == node.target && iter == node.iter && body == node.body && orElse == node.orElse) {
+            return node;
+        }
+        return new StmtTy.AsyncFor(target, iter, body, orElse, node.typeComment, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(StmtTy.While node) {
+        ExprTy test = visitExpr(node.test);
+        StmtTy[] body = visitBody(node.body);
+        StmtTy[] orElse = visitBody(node.orElse);
+        if (test == node.test && body == node.body && orElse == node.orElse) {
+            return node;
+        }
+        return new StmtTy.While(test, body, orElse, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(StmtTy.If node) {
+        ExprTy test = visitExpr(node.test);
+        StmtTy[] body = visitBody(node.body);
+        StmtTy[] orElse = visitBody(node.orElse);
+        if (test == node.test && body == node.body && orElse == node.orElse) {
+            return node;
+        }
+        return new StmtTy.If(test, body, orElse, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(StmtTy.With node) {
+        WithItemTy[] items = visitArray(node.items);
+        StmtTy[] body = visitBody(node.body);
+        if (items == node.items && body == node.body) {
+            return node;
+        }
+        return new StmtTy.With(items, body, node.typeComment, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(StmtTy.AsyncWith node) {
+        pinnedCount++;
+        WithItemTy[] items = visitArray(node.items);
+        StmtTy[] body = visitBody(node.body);
+        if (items == node.items && body == node.body) {
+            return node;
+        }
+        return new StmtTy.AsyncWith(items, body, node.typeComment, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(StmtTy.Match node) {
+        // patterns bind names
+        pinnedCount++;
+        ExprTy subject = visitExpr(node.subject);
+        MatchCaseTy[] cases = visitArray(node.cases);
+        if (subject == node.subject && cases == node.cases) {
+            return node;
+        }
+        return new StmtTy.Match(subject, cases, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(StmtTy.Raise node) {
+        ExprTy exc = visitExpr(node.exc);
+        ExprTy cause = visitExpr(node.cause);
+        if (exc == node.exc && cause == node.cause) {
+            return node;
+        }
+        return new StmtTy.Raise(exc, cause, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(StmtTy.Try node) {
+        if (node.handlers != null && node.handlers.length > 0) {
+            // the position of a bare except is checked by the compiler
+            pinnedCount++;
+        }
+        StmtTy[] body = visitBody(node.body);
+        ExceptHandlerTy[] handlers = visitArray(node.handlers);
+        StmtTy[] orElse = visitBody(node.orElse);
+        StmtTy[] finalBody = visitBody(node.finalBody);
+        if (body == node.body && handlers == node.handlers && orElse == node.orElse && finalBody == node.finalBody) {
+            return node;
+        }
+        return new StmtTy.Try(body, handlers, orElse, finalBody, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(StmtTy.Assert node) {
+        ExprTy test = visitExpr(node.test);
+        ExprTy msg = visitExpr(node.msg);
+        if (test == node.test && msg == node.msg) {
+            return node;
+        }
+        return new StmtTy.Assert(test, msg, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(StmtTy.Import node) {
+        pinnedCount++;
+        return node;
+    }
+
+    @Override
+    public SSTNode visit(StmtTy.ImportFrom node) {
+        pinnedCount++;
+        return node;
+    }
+
+    @Override
+    public SSTNode visit(StmtTy.Global node) {
+        pinnedCount++;
+        return node;
+    }
+
+    @Override
+    public SSTNode visit(StmtTy.Nonlocal node) {
+        pinnedCount++;
+        return node;
+    }
+
+    @Override
+    public SSTNode visit(StmtTy.Expr node) {
+        ExprTy value = visitExpr(node.value);
+        if (value == node.value || value instanceof ExprTy.Constant) {
+            // the value is discarded, and a folded string could be mistaken for a docstring
+            return node;
+        }
+        return new StmtTy.Expr(value, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(StmtTy.Pass node) {
+        return node;
+    }
+
+    @Override
+    public SSTNode visit(StmtTy.Break node) {
+        pinnedCount++;
+        return node;
+    }
+
+    @Override
+    public SSTNode visit(StmtTy.Continue node) {
+        pinnedCount++;
+        return node;
+    }
+
+    // Expressions
+
+    @Override
+    public SSTNode visit(ExprTy.BoolOp node) {
+        ExprTy[] values = visitArray(node.values);
+        if (values == node.values) {
+            return node;
+        }
+        return new ExprTy.BoolOp(node.op, values, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(ExprTy.NamedExpr node) {
+        pinnedCount++;
+        ExprTy target = visitExpr(node.target);
+        ExprTy value = visitExpr(node.value);
+        if (target == node.target && value == node.value) {
+            return node;
+        }
+        return new ExprTy.NamedExpr(target, value, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(ExprTy.BinOp node) {
+        ExprTy left = visitExpr(node.left);
+        ExprTy right = visitExpr(node.right);
+        if (left instanceof ExprTy.Constant && right instanceof ExprTy.Constant) {
+            ConstantValue folded = foldBinOp(((ExprTy.Constant) left).value, node.op, ((ExprTy.Constant) right).value);
+            if (folded != null) {
+                return new ExprTy.Constant(folded, null, node.getSourceRange());
+            }
+        }
+        if (left == node.left && right == node.right) {
+            return node;
+        }
+        return new ExprTy.BinOp(left, node.op, right, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(ExprTy.UnaryOp node) {
+        ExprTy operand = visitExpr(node.operand);
+        if (operand instanceof ExprTy.Constant) {
+            ConstantValue folded = foldUnaryOp(node.op, ((ExprTy.Constant) operand).value);
+            if (folded != null) {
+                return new ExprTy.Constant(folded, null, node.getSourceRange());
+            }
+        }
+        if (operand == node.operand) {
+            return node;
+        }
+        return new ExprTy.UnaryOp(node.op, operand, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(ExprTy.Lambda node) {
+        pinnedCount++;
+        ArgumentsTy args = (ArgumentsTy) node.args.accept(this);
+        ExprTy body = visitExpr(node.body);
+        if (args == node.args && body == node.body) {
+            return node;
+        }
+        return new ExprTy.Lambda(args, body, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(ExprTy.IfExp node) {
+        ExprTy test = visitExpr(node.test);
+        ExprTy body = visitExpr(node.body);
+        ExprTy orElse = visitExpr(node.orElse);
+        Boolean truth = constantTruth(test);
+        if (truth != null && canRemove(truth ? orElse : body)) {
+            return truth ? body : orElse;
+        }
+        if (test == node.test && body == node.body && orElse == node.orElse) {
+            return node;
+        }
+        return new ExprTy.IfExp(test, body, orElse, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(ExprTy.Dict node) {
+        ExprTy[] keys = visitArray(node.keys);
+        ExprTy[] values = visitArray(node.values);
+        if (keys == node.keys && values == node.values) {
+            return node;
+        }
+        return new ExprTy.Dict(keys, values, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(ExprTy.Set node) {
+        ExprTy[] elements = visitArray(node.elements);
+        if (elements == node.elements) {
+            return node;
+        }
+        return new ExprTy.Set(elements, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(ExprTy.ListComp node) {
+        pinnedCount++;
+        ExprTy element = visitExpr(node.element);
+        ComprehensionTy[] generators = visitArray(node.generators);
+        if (element == node.element && generators == node.generators) {
+            return node;
+        }
+        return new ExprTy.ListComp(element, generators, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(ExprTy.SetComp node) {
+        pinnedCount++;
+        ExprTy element = visitExpr(node.element);
+        ComprehensionTy[] generators = visitArray(node.generators);
+        if (element == node.element && generators == node.generators) {
+            return node;
+        }
+        return new ExprTy.SetComp(element, generators, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(ExprTy.DictComp node) {
+        pinnedCount++;
+        ExprTy key = visitExpr(node.key);
+        ExprTy value = visitExpr(node.value);
+        ComprehensionTy[] generators = visitArray(node.generators);
+        if (key == node.key && value == node.value && generators == node.generators) {
+            return node;
+        }
+        return new ExprTy.DictComp(key, value, generators, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(ExprTy.GeneratorExp node) {
+        pinnedCount++;
+        ExprTy element = visitExpr(node.element);
+        ComprehensionTy[] generators = visitArray(node.generators);
+        if (element == node.element && generators == node.generators) {
+            return node;
+        }
+        return new ExprTy.GeneratorExp(element, generators, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(ExprTy.Await node) {
+        pinnedCount++;
+        ExprTy value = visitExpr(node.value);
+        if (value == node.value) {
+            return node;
+        }
+        return new ExprTy.Await(value, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(ExprTy.Yield node) {
+        pinnedCount++;
+        ExprTy value = visitExpr(node.value);
+        if (value == node.value) {
+            return node;
+        }
+        return new ExprTy.Yield(value, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(ExprTy.YieldFrom node) {
+        pinnedCount++;
+        ExprTy value = visitExpr(node.value);
+        if (value == node.value) {
+            return node;
+        }
+        return new ExprTy.YieldFrom(value, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(ExprTy.Compare node) {
+        ExprTy left = visitExpr(node.left);
+        ExprTy[] comparators = visitArray(node.comparators);
+        for (int i = 0; i < node.ops.length; i++) {
+            if (node.ops[i] == CmpOpTy.In || node.ops[i] == CmpOpTy.NotIn) {
+                ExprTy folded = foldIter(comparators[i]);
+                if (folded != comparators[i]) {
+                    if (comparators == node.comparators) {
+                        comparators = comparators.clone();
+                    }
+                    comparators[i] = folded;
+                }
+            }
+        }
+        if (left == node.left && comparators == node.comparators) {
+            return node;
+        }
+        return new ExprTy.Compare(left, node.ops, comparators, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(ExprTy.Call node) {
+        if (node.keywords != null && node.keywords.length > 0) {
+            // repeated keywords are reported by the compiler
+            pinnedCount++;
+        }
+        ExprTy func = visitExpr(node.func);
+        ExprTy[] args = visitArray(node.args);
+        KeywordTy[] keywords = visitArray(node.keywords);
+        if (func == node.func && args == node.args && keywords == node.keywords) {
+            return node;
+        }
+        return new ExprTy.Call(func, args, keywords, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(ExprTy.FormattedValue node) {
+        ExprTy value = visitExpr(node.value);
+        ExprTy formatSpec = visitExpr(node.formatSpec);
+        if (value == node.value && formatSpec == node.formatSpec) {
+            return node;
+        }
+        return new ExprTy.FormattedValue(value, node.conversion, formatSpec, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(ExprTy.JoinedStr node) {
+        ExprTy[] values = visitArray(node.values);
+        if (values == node.values) {
+            return node;
+        }
+        return new ExprTy.JoinedStr(values, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(ExprTy.Constant node) {
+        return node;
+    }
+
+    @Override
+    public SSTNode visit(ExprTy.Attribute node) {
+        ExprTy value = visitExpr(node.value);
+        if (value == node.value) {
+            return node;
+        }
+        return new ExprTy.Attribute(value, node.attr, node.context, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(ExprTy.Subscript node) {
+        ExprTy value = visitExpr(node.value);
+        ExprTy slice = visitExpr(node.slice);
+        if (value == node.value && slice == node.slice) {
+            return node;
+        }
+        return new ExprTy.Subscript(value, slice, node.context, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(ExprTy.Starred node) {
+        pinnedCount++;
+        ExprTy value = visitExpr(node.value);
+        if (value == node.value) {
+            return node;
+        }
+        return new ExprTy.Starred(value, node.context, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(ExprTy.Name node) {
+        if (node.context != ExprContextTy.Load) {
+            pinnedCount++;
+        } else if ("__debug__".equals(node.id)) {
+            return new ExprTy.Constant(ConstantValue.ofBoolean(optimizationLevel == 0), null, node.getSourceRange());
+        } else if ("super".equals(node.id) || "__class__".equals(node.id)) {
+            // creates the implicit __class__ cell
+            pinnedCount++;
+        }
+        return node;
+    }
+
+    @Override
+    public SSTNode visit(ExprTy.List node) {
+        ExprTy[] elements = visitArray(node.elements);
+        if (elements == node.elements) {
+            return node;
+        }
+        return new ExprTy.List(elements, node.context, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(ExprTy.Tuple node) {
+        ExprTy[] elements = visitArray(node.elements);
+        if (node.context == ExprContextTy.Load && elements != null && elements.length > 0) {
+            ConstantValue[] values = constantElements(elements);
+            if (values != null) {
+                return new ExprTy.Constant(ConstantValue.ofTuple(values), null, node.getSourceRange());
+            }
+        }
+        if (elements == node.elements) {
+            return node;
+        }
+        return new ExprTy.Tuple(elements, node.context, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(ExprTy.Slice node) {
+        ExprTy lower = visitExpr(node.lower);
+        ExprTy upper = visitExpr(node.upper);
+        ExprTy step = visitExpr(node.step);
+        if (lower == node.lower && upper == node.upper && step == node.step) {
+            return node;
+        }
+        return new ExprTy.Slice(lower, upper, step, node.getSourceRange());
+    }
+
+    // Other nodes
+
+    @Override
+    public SSTNode visit(ComprehensionTy node) {
+        ExprTy target = visitExpr(node.target);
+        ExprTy iter = foldIter(visitExpr(node.iter));
+        ExprTy[] ifs = visitArray(node.ifs);
+        if (target == node.target && iter == node.iter && ifs == node.ifs) {
+            return node;
+        }
+        return new ComprehensionTy(target, iter, ifs, node.isAsync, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(ExceptHandlerTy.ExceptHandler node) {
+        if (node.name != null) {
+            pinnedCount++;
+        }
+        ExprTy type = visitExpr(node.type);
+        StmtTy[] body = visitBody(node.body);
+        if (type == node.type && body == node.body) {
+            return node;
+        }
+        return new ExceptHandlerTy.ExceptHandler(type, node.name, body, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(ArgumentsTy node) {
+        ExprTy[] kwDefaults = visitArray(node.kwDefaults);
+        ExprTy[] defaults = visitArray(node.defaults);
+        if (kwDefaults == node.kwDefaults && defaults == node.defaults) {
+            return node;
+        }
+        return new ArgumentsTy(node.posOnlyArgs, node.args, node.varArg, node.kwOnlyArgs, kwDefaults, node.kwArg, defaults, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(ArgTy node) {
+        return node;
+    }
+
+    @Override
+    public SSTNode visit(KeywordTy node) {
+        ExprTy value = visitExpr(node.value);
+        if (value == node.value) {
+            return node;
+        }
+        return new KeywordTy(node.arg, value, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(AliasTy node) {
+        return node;
+    }
+
+    @Override
+    public SSTNode visit(WithItemTy node) {
+        ExprTy contextExpr = visitExpr(node.contextExpr);
+        ExprTy optionalVars = visitExpr(node.optionalVars);
+        if (contextExpr == node.contextExpr && optionalVars == node.optionalVars) {
+            return node;
+        }
+        return new WithItemTy(contextExpr, optionalVars, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(MatchCaseTy node) {
+        ExprTy guard = visitExpr(node.guard);
+        StmtTy[] body = visitBody(node.body);
+        if (guard == node.guard && body == node.body) {
+            return node;
+        }
+        return new MatchCaseTy(node.pattern, guard, body, node.getSourceRange());
+    }
+
+    @Override
+    public SSTNode visit(PatternTy.MatchValue node) {
+        return node;
+    }
+
+    @Override
+    public SSTNode visit(PatternTy.MatchSingleton node) {
+        return node;
+    }
+
+    @Override
+    public SSTNode visit(PatternTy.MatchSequence node) {
+        return node;
+    }
+
+    @Override
+    public SSTNode visit(PatternTy.MatchMapping node) {
+        return node;
+    }
+
+    @Override
+    public SSTNode visit(PatternTy.MatchClass node) {
+        return node;
+    }
+
+    @Override
+    public SSTNode visit(PatternTy.MatchStar node) {
+        return node;
+    }
+
+    @Override
+    public SSTNode visit(PatternTy.MatchAs node) {
+        return node;
+    }
+
+    @Override
+    public SSTNode visit(PatternTy.MatchOr node) {
+        return node;
+    }
+
+    @Override
+    public SSTNode visit(TypeIgnoreTy.TypeIgnore node) {
+        return node;
+    }
+}
@@ -351,6 +351,7 @@ public abstract class ErrorMessages {
     public static final TruffleString P_HAS_RO_ATTRS_S_TO_DELETE = tsLiteral("'%p' object has only read-only attributes (del .%s)");
     public static final TruffleString HASH_MISMATCH = tsLiteral("hash mismatch: known hash is different to computed hash");
     public static final TruffleString HASH_SHOULD_RETURN_INTEGER = tsLiteral("__hash__ method should return an integer");
+    public static final TruffleString HEAP_ARGUMENT_MUST_BE_A_LIST = tsLiteral("heap argument must be a list");
     public static final TruffleString HEX_VALUE_TOO_LARGE_AS_FLOAT = tsLiteral("hexadecimal value too large to represent as a float");
     public static final TruffleString HOST_ACCESS_NOT_ALLOWED = tsLiteral("host access is not allowed");
     public static final TruffleString HOST_LOOKUP_NOT_ALLOWED = tsLiteral("host lookup is not allowed");
@@ -1298,6 +1299,113 @@ public abstract class ErrorMessages {
 
     // pickle errors
     public static final TruffleString CANNOT_PICKLE_OBJECT_TYPE = tsLiteral("cannot pickle '%p' object");
+    public static final TruffleString PICKLE_PROTOCOL_MUST_BE_LE = tsLiteral("pickle protocol must be <= %d");
+    public static final TruffleString FILE_MUST_HAVE_WRITE_ATTR = tsLiteral("file must have a 'write' attribute");
+    public static final TruffleString FILE_MUST_HAVE_READ_AND_READLINE_ATTRS = tsLiteral("file must have 'read' and 'readline' attributes");
+    public static final TruffleString BUFFER_CALLBACK_NEEDS_PROTOCOL_5 = tsLiteral("buffer_callback needs protocol >= 5");
+    public static final TruffleString S_INIT_WAS_NOT_CALLED_BY_P = tsLiteral("%s.__init__() was not called by %p.__init__()");
+    public static final TruffleString CANT_PICKLE_P_OBJECT_S = tsLiteral("can't pickle '%p' object: %s");
+    public static final TruffleString REDUCE_MUST_RETURN_STRING_OR_TUPLE = tsLiteral("__reduce__ must return a string or tuple");
+    public static final TruffleString REDUCE_TUPLE_MUST_CONTAIN_2_THROUGH_6 = tsLiteral("tuple returned by __reduce__ must contain 2 through 6 elements");
+    public static final TruffleString REDUCE_FIRST_ITEM_MUST_BE_CALLABLE = tsLiteral("first item of the tuple returned by __reduce__ must be callable");
+    public static final TruffleString REDUCE_SECOND_ITEM_MUST_BE_TUPLE = tsLiteral("second item of the tuple returned by __reduce__ must be a tuple");
+    public static final TruffleString REDUCE_S_ELEMENT_MUST_BE_ITERATOR_NOT_P = tsLiteral("%s element of the tuple returned by __reduce__ must be an iterator, not %p");
+    public static final TruffleString REDUCE_SIXTH_ELEMENT_MUST_BE_FUNCTION_NOT_P = tsLiteral("sixth element of the tuple returned by __reduce__ must be a function, not %p");
+    public static final TruffleString NEWOBJ_EX_ARGS_LENGTH_MUST_BE_3 = tsLiteral("length of the NEWOBJ_EX argument tuple must be exactly 3, not %d");
+    public static final TruffleString NEWOBJ_EX_S_ITEM_MUST_BE_S_NOT_P = tsLiteral("%s item from NEWOBJ_EX argument tuple must be %s, not %p");
+    public static final TruffleString NEWOBJ_EX_FIRST_ITEM_MUST_BE_S_NOT_S = tsLiteral("first item from NEWOBJ_EX argument tuple must be %s, not %s");
+    public static final TruffleString NEWOBJ_ARGLIST_IS_EMPTY = tsLiteral("__newobj__ arglist is empty");
+    public static final TruffleString NEWOBJ_ARGS_IS_NOT_A_TYPE = tsLiteral("args[0] from __newobj__ args is not a type");
+    public static final TruffleString NEWOBJ_ARGS_HAS_WRONG_CLASS = tsLiteral("args[0] from __newobj__ args has the wrong class");
+    public static final TruffleString PERSISTENT_IDS_MUST_BE_ASCII = tsLiteral("persistent IDs in protocol 0 must be ASCII strings");
+    public static final TruffleString MEMO_ID_TOO_LARGE_FOR_S = tsLiteral("memo id too large for %s");
+    public static final TruffleString CANT_PICKLE_LOCAL_OBJECT_S = tsLiteral("Can't pickle local object %s");
+    public static final TruffleString CANT_GET_LOCAL_ATTRIBUTE_S_ON_S = tsLiteral("Can't get local attribute %s on %s");
+    public static final TruffleString CANT_GET_ATTRIBUTE_S_ON_S = tsLiteral("Can't get attribute %s on %s");
+    public static final TruffleString CANT_PICKLE_S_IMPORT_OF_MODULE_S_FAILED = tsLiteral("Can't pickle %s: import of module %s failed");
+    public static final TruffleString CANT_PICKLE_S_ATTRIBUTE_LOOKUP_S_ON_S_FAILED = tsLiteral("Can't pickle %s: attribute lookup %s on %s failed");
+    public static final TruffleString CANT_PICKLE_S_NOT_SAME_OBJECT_AS_S_S = tsLiteral("Can't pickle %s: it's not the same object as %s.%s");
+    public static final TruffleString CANT_PICKLE_S_EXTENSION_CODE_S_ISNT_INT = tsLiteral("Can't pickle %s: extension code %s isn't an integer");
+    public static final TruffleString CANT_PICKLE_S_EXTENSION_CODE_D_OUT_OF_RANGE = tsLiteral("Can't pickle %s: extension code %d is out of range");
+    public static final TruffleString CANT_PICKLE_S_IDENTIFIER_S_USING_PROTOCOL_D = tsLiteral("can't pickle %s identifier '%s' using pickle protocol %d");
+    public static final TruffleString PICKLE_BUFFER_NEEDS_PROTOCOL_5 = tsLiteral("PickleBuffer can only pickled with protocol >= 5");
+    public static final TruffleString PICKLE_BUFFER_NON_CONTIGUOUS = tsLiteral("PickleBuffer can not be pickled when pointing to a non-contiguous buffer");
+    public static final TruffleString PICKLE_BUFFER_RELEASED = tsLiteral("operation forbidden on released PickleBuffer object");
+    public static final TruffleString CANNOT_EXTRACT_RAW_BUFFER_FROM_NON_CONTIGUOUS = tsLiteral("cannot extract raw buffer from non-contiguous buffer");
+    public static final TruffleString FAST_MODE_CANT_PICKLE_CYCLIC_OBJECTS = tsLiteral("fast mode: can't pickle cyclic objects including object type %p");
+    public static final TruffleString DICT_ITEMS_ITERATOR_MUST_RETURN_2_TUPLES = tsLiteral("dict items iterator must return 2-tuples");
+    public static final TruffleString MAXIMUM_RECURSION_DEPTH_EXCEEDED_WHILE_PICKLING = tsLiteral("maximum recursion depth exceeded while pickling an object");
+    public static final TruffleString RAN_OUT_OF_INPUT = tsLiteral("Ran out of input");
+    public static final TruffleString PICKLE_DATA_WAS_TRUNCATED = tsLiteral("pickle data was truncated");
+    public static final TruffleString INVALID_LOAD_KEY_S = tsLiteral("invalid load key, '%s'.");
+    public static final TruffleString UNSUPPORTED_PICKLE_PROTOCOL_D = tsLiteral("unsupported pickle protocol: %d");
+    public static final TruffleString UNPICKLING_STACK_UNDERFLOW = tsLiteral("unpickling stack underflow");
+    public static final TruffleString UNEXPECTED_MARK_FOUND = tsLiteral("unexpected MARK found");
+    public static final TruffleString COULD_NOT_FIND_MARK = tsLiteral("could not find MARK");
+    public static final TruffleString S_EXCEEDS_SYSTEMS_MAX_SIZE_OF_D_BYTES = tsLiteral("%s exceeds system's maximum size of %d bytes");
+    public static final TruffleString S_PICKLE_HAS_NEGATIVE_BYTE_COUNT = tsLiteral("%s pickle has negative byte count");
+    public static final TruffleString COULD_NOT_CONVERT_STRING_TO_INT = tsLiteral("could not convert string to int");
+    public static final TruffleString STRING_OPCODE_ARGUMENT_MUST_BE_QUOTED = tsLiteral("the STRING opcode argument must be quoted");
+    public static final TruffleString MEMO_VALUE_NOT_FOUND_AT_INDEX_D = tsLiteral("Memo value not found at index %d");
+    public static final TruffleString NEGATIVE_S_ARGUMENT = tsLiteral("negative %s argument");
+    public static final TruffleString S_IS_NOT_A_DICTIONARY = tsLiteral("%s is not a dictionary");
+    public static final TruffleString ODD_NUMBER_OF_ITEMS_FOR_S = tsLiteral("odd number of items for %s");
+    public static final TruffleString ARGUMENT_LIST_MUST_BE_A_TUPLE = tsLiteral("argument list must be a tuple");
+    public static final TruffleString NEWOBJ_EXPECTED_AN_ARG_TUPLE = tsLiteral("NEWOBJ expected an arg tuple.");
+    public static final TruffleString NEWOBJ_CLASS_ARGUMENT_ISNT_A_TYPE = tsLiteral("NEWOBJ class argument isn't a type object");
+    public static final TruffleString NEWOBJ_EX_S_ARGUMENT_MUST_BE_S_NOT_P = tsLiteral("NEWOBJ_EX %s argument must be %s, not %p");
+    public static final TruffleString STACK_GLOBAL_REQUIRES_STR = tsLiteral("STACK_GLOBAL requires str");
+    public static final TruffleString EXT_SPECIFIES_CODE_LE_0 = tsLiteral("EXT specifies code <= 0");
+    public static final TruffleString UNREGISTERED_EXTENSION_CODE_D = tsLiteral("unregistered extension code %d");
+    public static final TruffleString INVERTED_REGISTRY_D_ISNT_2_TUPLE_OF_STRINGS = tsLiteral("_inverted_registry[%d] isn't a 2-tuple of strings");
+    public static final TruffleString COMPAT_PICKLE_S_VALUES_SHOULD_BE_S_NOT_P = tsLiteral("_compat_pickle.%s values should be %s, not %p");
+    public static final TruffleString NO_PERSISTENT_LOAD_FUNCTION = tsLiteral("A load persistent id instruction was encountered, but no persistent_load function was specified.");
+    public static final TruffleString NO_BUFFERS_ARGUMENT_GIVEN = tsLiteral("pickle stream refers to out-of-band data but no *buffers* argument was given");
+    public static final TruffleString NOT_ENOUGH_OUT_OF_BAND_BUFFERS = tsLiteral("not enough out-of-band buffers");
+    public static final TruffleString MEMO_ATTRIBUTE_MUST_BE_S_OR_DICT_NOT_P = tsLiteral("'memo' attribute must be %s object or dict, not %p");
+    public static final TruffleString MEMO_VALUES_MUST_BE_2_ITEM_TUPLES = tsLiteral("'memo' values must be 2-item tuples");
+    public static final TruffleString MEMO_KEY_MUST_BE_INTEGERS = tsLiteral("memo key must be integers");
+    public static final TruffleString MEMO_KEY_MUST_BE_POSITIVE_INTEGERS = tsLiteral("memo key must be positive integers.");
+    public static final TruffleString ATTRIBUTE_DELETION_IS_NOT_SUPPORTED = tsLiteral("attribute deletion is not supported");
+
+    // datetime errors
+    public static final TruffleString YEAR_D_IS_OUT_OF_RANGE = tsLiteral("year %d is out of range");
+    public static final TruffleString MONTH_MUST_BE_IN_1_12 = tsLiteral("month must be in 1..12");
+    public static final TruffleString DAY_IS_OUT_OF_RANGE_FOR_MONTH = tsLiteral("day is out of range for month");
+    public static final TruffleString HOUR_MUST_BE_IN_0_23 = tsLiteral("hour must be in 0..23");
+    public static final TruffleString MINUTE_MUST_BE_IN_0_59 = tsLiteral("minute must be in 0..59");
+    public static final TruffleString SECOND_MUST_BE_IN_0_59 = tsLiteral("second must be in 0..59");
+    public static final TruffleString MICROSECOND_MUST_BE_IN_0_999999 = tsLiteral("microsecond must be in 0..999999");
+    public static final TruffleString FOLD_MUST_BE_EITHER_0_OR_1 = tsLiteral("fold must be either 0 or 1");
+    public static final TruffleString TZINFO_ARGUMENT_MUST_BE_NONE_OR_TZINFO_NOT_P = tsLiteral("tzinfo argument must be None or of a tzinfo subclass, not type '%p'");
+    public static final TruffleString FAILED_TO_ENCODE_LATIN1_WHEN_UNPICKLING_S = tsLiteral(
+                    "Failed to encode latin1 string when unpickling a %s object. pickle.load(data, encoding='latin1') is assumed.");
+    public static final TruffleString BAD_TZINFO_STATE_ARG = tsLiteral("bad tzinfo state arg");
+    public static final TruffleString DATE_VALUE_OUT_OF_RANGE = tsLiteral("date value out of range");
+    public static final TruffleString DAYS_D_MUST_HAVE_MAGNITUDE_LE_999999999 = tsLiteral("days=%d; must have magnitude <= 999999999");
+    public static final TruffleString UNSUPPORTED_TYPE_FOR_TIMEDELTA_S_COMPONENT_P = tsLiteral("unsupported type for timedelta %s component: %p");
+    public static final TruffleString OFFSET_MUST_BE_TIMEDELTA_STRICTLY_BETWEEN_S = tsLiteral(
+                    "offset must be a timedelta strictly between -timedelta(hours=24) and timedelta(hours=24), not %s.");
+    public static final TruffleString TZINFO_S_MUST_RETURN_NONE_OR_TIMEDELTA_NOT_P = tsLiteral("tzinfo.%s() must return None or timedelta, not '%p'");
+    public static final TruffleString TZINFO_TZNAME_MUST_RETURN_NONE_OR_STRING_NOT_P = tsLiteral("tzinfo.tzname() must return None or a string, not '%p'");
+    public static final TruffleString TZINFO_SUBCLASS_MUST_IMPLEMENT_S = tsLiteral("a tzinfo subclass must implement %s()");
+    public static final TruffleString FROMUTC_ARGUMENT_MUST_BE_DATETIME = tsLiteral("fromutc: argument must be a datetime");
+    public static final TruffleString FROMUTC_DT_TZINFO_IS_NOT_SELF = tsLiteral("fromutc: dt.tzinfo is not self");
+    public static final TruffleString FROMUTC_NON_NONE_S_RESULT_REQUIRED = tsLiteral("fromutc: non-None %s() result required");
+    public static final TruffleString FROMUTC_INCONSISTENT_DST = tsLiteral("fromutc: tz.dst() gave inconsistent results; cannot convert");
+    public static final TruffleString TIMEZONE_ARGUMENT_D_MUST_BE_S_NOT_P = tsLiteral("timezone() argument %d must be %s, not %p");
+    public static final TruffleString S_DT_ARGUMENT_MUST_BE_DATETIME_OR_NONE_NOT_P = tsLiteral("%s(dt) argument must be a datetime instance or None, not %p");
+    public static final TruffleString ORDINAL_MUST_BE_GE_1 = tsLiteral("ordinal must be >= 1");
+    public static final TruffleString FROMISOFORMAT_ARGUMENT_MUST_BE_STR = tsLiteral("fromisoformat: argument must be str");
+    public static final TruffleString INVALID_ISOFORMAT_STRING_S = tsLiteral("Invalid isoformat string: %s");
+    public static final TruffleString YEAR_IS_OUT_OF_RANGE_D = tsLiteral("Year is out of range: %d");
+    public static final TruffleString INVALID_WEEK_D = tsLiteral("Invalid week: %d");
+    public static final TruffleString INVALID_DAY_D_RANGE_IS_1_7 = tsLiteral("Invalid day: %d (range is [1, 7])");
+    public static final TruffleString COMBINE_ARGUMENT_D_MUST_BE_S_NOT_P = tsLiteral("combine() argument %d must be %s, not %p");
+    public static final TruffleString CANT_SUBTRACT_OFFSET_NAIVE_AND_AWARE = tsLiteral("can't subtract offset-naive and offset-aware datetimes");
+    public static final TruffleString CANT_COMPARE_OFFSET_NAIVE_AND_AWARE_S = tsLiteral("can't compare offset-naive and offset-aware %s");
+    public static final TruffleString CANT_COMPARE_P_TO_P = tsLiteral("can't compare %p to %p");
+    public static final TruffleString UNKNOWN_TIMESPEC_VALUE = tsLiteral("Unknown timespec value");
 
     // csv errors
     public static final TruffleString MUST_BE_ONE_CHARACTER_STRING = tsLiteral("\"%s\" must be a 1-character string");
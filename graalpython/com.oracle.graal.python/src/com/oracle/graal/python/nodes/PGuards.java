@@ -101,9 +101,11 @@ import com.oracle.graal.python.runtime.sequence.storage.BasicSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.DoubleSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.EmptySequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.IntRangeSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.IntSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.LongSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.ObjectSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.StringSequenceStorage;
 import com.oracle.graal.python.util.OverflowException;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.HostCompilerDirectives.InliningCutoff;
@@ -236,6 +238,10 @@ public abstract class PGuards {
         return sequence.getSequenceStorage() instanceof IntSequenceStorage;
     }
 
+    public static boolean isIntRangeStorage(PSequence sequence) {
+        return sequence.getSequenceStorage() instanceof IntRangeSequenceStorage;
+    }
+
     public static boolean isByteStorage(PSequence array) {
         return array.getSequenceStorage() instanceof ByteSequenceStorage;
     }
@@ -264,6 +270,10 @@ public abstract class PGuards {
         return first.getSequenceStorage() instanceof DoubleSequenceStorage && second.getSequenceStorage() instanceof DoubleSequenceStorage;
     }
 
+    public static boolean isStringStorage(PSequence sequence) {
+        return sequence.getSequenceStorage() instanceof StringSequenceStorage;
+    }
+
     public static boolean isObjectStorage(PSequence list) {
         return list.getSequenceStorage() instanceof ObjectSequenceStorage;
     }
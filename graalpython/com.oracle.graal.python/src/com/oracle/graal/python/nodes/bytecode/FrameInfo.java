@@ -84,7 +84,8 @@ public final class FrameInfo {
     public TruffleString getVariableName(int slot) {
         CodeUnit code = rootNode.getCodeUnit();
         if (slot < code.varnames.length) {
-            return code.varnames[slot];
+            TruffleString varname = code.varnames[slot];
+            return CodeUnit.isInlinedComprehensionSlot(varname) ? null : varname;
         } else if (slot < code.varnames.length + code.cellvars.length) {
             return code.cellvars[slot - code.varnames.length];
         } else {
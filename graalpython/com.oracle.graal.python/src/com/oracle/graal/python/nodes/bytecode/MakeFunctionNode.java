@@ -51,12 +51,14 @@ import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.function.Signature;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
 import com.oracle.graal.python.compiler.CodeUnit;
+import com.oracle.graal.python.compiler.LazyCodeUnit;
 import com.oracle.graal.python.compiler.OpCodes;
 import com.oracle.graal.python.nodes.PNodeWithContext;
 import com.oracle.graal.python.runtime.object.PythonObjectFactory;
 import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.dsl.Cached;
@@ -64,14 +66,23 @@ import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.library.CachedLibrary;
 import com.oracle.truffle.api.object.DynamicObjectLibrary;
+import com.oracle.truffle.api.nodes.RootNode;
 import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.api.strings.TruffleString;
 
 public abstract class MakeFunctionNode extends PNodeWithContext {
-    private final RootCallTarget callTarget;
-    private final CodeUnit code;
-    private final Signature signature;
+    private final TruffleString name;
+    private final TruffleString qualname;
     private final TruffleString doc;
+    private final Source source;
+    /*
+     * Set if the body of the function was not compiled yet. The code unit and the call target are
+     * then created when the code object is first needed, which is usually the first call.
+     */
+    private final LazyCodeUnit lazyCode;
+    private volatile RootCallTarget callTarget;
+    private CodeUnit code;
+    private Signature signature;
     @CompilationFinal private PCode cachedCode;
 
     private final Assumption sharedCodeStableAssumption = Truffle.getRuntime().createAssumption("shared code stable assumption");
@@ -79,11 +90,15 @@ public abstract class MakeFunctionNode extends PNodeWithContext {
 
     public abstract int execute(VirtualFrame frame, Object globals, int initialStackTop, int flags);
 
-    public MakeFunctionNode(RootCallTarget callTarget, CodeUnit code, Signature signature, TruffleString doc) {
+    public MakeFunctionNode(TruffleString name, TruffleString qualname, TruffleString doc, Source source, LazyCodeUnit lazyCode, RootCallTarget callTarget, CodeUnit code, Signature signature) {
+        this.name = name;
+        this.qualname = qualname;
+        this.doc = doc;
+        this.source = source;
+        this.lazyCode = lazyCode;
         this.callTarget = callTarget;
         this.code = code;
         this.signature = signature;
-        this.doc = doc;
     }
 
     @Specialization
@@ -100,13 +115,12 @@ public abstract class MakeFunctionNode extends PNodeWithContext {
                  * We cannot initialize the cached code in create, because that may be called
                  * without langauge context when materializing nodes for instrumentation
                  */
-                cachedCode = codeObj = factory.createCode(callTarget, signature, code);
+                cachedCode = codeObj = createCode(factory);
             } else {
                 // In multi-context mode we have to create the code for every execution
-                codeObj = factory.createCode(callTarget, signature, code);
+                codeObj = createCode(factory);
             }
         }
-
         PCell[] closure = null;
         Object annotations = null;
         PKeyword[] kwdefaults = null;
@@ -138,7 +152,7 @@ public abstract class MakeFunctionNode extends PNodeWithContext {
             codeStableAssumption = Truffle.getRuntime().createAssumption();
             defaultsStableAssumption = Truffle.getRuntime().createAssumption();
         }
-        PFunction function = factory.createFunction(code.name, code.qualname, codeObj, (PythonObject) globals, defaults, kwdefaults, closure, codeStableAssumption, defaultsStableAssumption);
+        PFunction function = factory.createFunction(name, qualname, codeObj, (PythonObject) globals, defaults, kwdefaults, closure, codeStableAssumption, defaultsStableAssumption);
 
         if (annotations != null) {
             dylib.put(function, T___ANNOTATIONS__, annotations);
@@ -151,23 +165,66 @@ public abstract class MakeFunctionNode extends PNodeWithContext {
         return stackTop;
     }
 
-    public static MakeFunctionNode create(PythonLanguage language, CodeUnit code, Source source) {
-        RootCallTarget callTarget;
-        PBytecodeRootNode bytecodeRootNode = PBytecodeRootNode.create(language, code, source);
-        if (code.isGeneratorOrCoroutine()) {
-            // TODO what should the frameDescriptor be? does it matter?
-            callTarget = new PBytecodeGeneratorFunctionRootNode(language, bytecodeRootNode.getFrameDescriptor(), bytecodeRootNode, code.name).getCallTarget();
-        } else {
-            callTarget = bytecodeRootNode.getCallTarget();
+    private PCode createCode(PythonObjectFactory factory) {
+        if (lazyCode != null) {
+            return factory.createCode(this::getCallTarget, -1, -1, null, null);
         }
+        return factory.createCode(callTarget, signature, code);
+    }
+
+    public static MakeFunctionNode create(PythonLanguage language, Object codeConstant, Source source) {
+        if (codeConstant instanceof LazyCodeUnit lazy && !lazy.isCompiled()) {
+            return MakeFunctionNodeGen.create(lazy.name, lazy.qualname, lazy.doc, source, lazy, null, null, null);
+        }
+        CodeUnit code = LazyCodeUnit.resolve(codeConstant);
+        PBytecodeRootNode bytecodeRootNode = PBytecodeRootNode.create(language, code, source);
         TruffleString doc = null;
         if (code.constants.length > 0 && code.constants[0] instanceof TruffleString) {
             doc = (TruffleString) code.constants[0];
         }
-        return MakeFunctionNodeGen.create(callTarget, code, bytecodeRootNode.getSignature(), doc);
+        return MakeFunctionNodeGen.create(code.name, code.qualname, doc, source, null, createCallTarget(language, code, bytecodeRootNode), code, bytecodeRootNode.getSignature());
+    }
+
+    private static RootCallTarget createCallTarget(PythonLanguage language, CodeUnit code, PBytecodeRootNode bytecodeRootNode) {
+        if (code.isGeneratorOrCoroutine()) {
+            // TODO what should the frameDescriptor be? does it matter?
+            return new PBytecodeGeneratorFunctionRootNode(language, bytecodeRootNode.getFrameDescriptor(), bytecodeRootNode, code.name).getCallTarget();
+        } else {
+            return bytecodeRootNode.getCallTarget();
+        }
     }
 
     public RootCallTarget getCallTarget() {
+        if (callTarget == null) {
+            initializeLazyCallTarget();
+        }
         return callTarget;
     }
+
+    /**
+     * Returns the root node of the function body, or {@code null} if it was not created yet.
+     */
+    public PBytecodeRootNode getBytecodeRootNodeIfCreated() {
+        RootCallTarget ct = callTarget;
+        if (ct == null) {
+            return null;
+        }
+        RootNode rootNode = ct.getRootNode();
+        if (rootNode instanceof PBytecodeGeneratorFunctionRootNode) {
+            return ((PBytecodeGeneratorFunctionRootNode) rootNode).getBytecodeRootNode();
+        }
+        return (PBytecodeRootNode) rootNode;
+    }
+
+    @TruffleBoundary
+    private synchronized void initializeLazyCallTarget() {
+        if (callTarget == null) {
+            CodeUnit lazyCodeUnit = lazyCode.get();
+            PythonLanguage language = PythonLanguage.get(this);
+            PBytecodeRootNode bytecodeRootNode = PBytecodeRootNode.create(language, lazyCodeUnit, source);
+            code = lazyCodeUnit;
+            signature = bytecodeRootNode.getSignature();
+            callTarget = createCallTarget(language, lazyCodeUnit, bytecodeRootNode);
+        }
+    }
 }
@@ -573,6 +573,9 @@ public final class PBytecodeRootNode extends PRootNode implements BytecodeOSRNod
                  * need to hide it from LocalsStorage and other introspection.
                  */
                 varname = null;
+            } else if (CodeUnit.isInlinedComprehensionSlot(varname)) {
+                // Not a Python variable, hide it the same way
+                varname = null;
             }
             newBuilder.addSlot(FrameSlotKind.Illegal, varname, null);
         }
@@ -715,6 +718,29 @@ public final class PBytecodeRootNode extends PRootNode implements BytecodeOSRNod
         return co;
     }
 
+    /**
+     * Returns the code unit with the quickening decisions learned so far by this root node and by
+     * the already created root nodes of its nested functions. See
+     * {@link CodeUnit#withQuickeningFeedback}.
+     */
+    @TruffleBoundary
+    public CodeUnit getCodeUnitWithQuickeningFeedback() {
+        Object[] newConsts = PythonUtils.arrayCopyOf(consts, consts.length);
+        Node[] nodes = getChildNodes();
+        CodeUnit.iterateBytecode(bytecode, (bci, op, oparg, followingArgs) -> {
+            if (op == OpCodes.MAKE_FUNCTION && nodes[bci] instanceof MakeFunctionNode) {
+                PBytecodeRootNode functionRootNode = ((MakeFunctionNode) nodes[bci]).getBytecodeRootNodeIfCreated();
+                if (functionRootNode != null) {
+                    CodeUnit functionCode = functionRootNode.getCodeUnitWithQuickeningFeedback();
+                    if (functionCode != functionRootNode.co) {
+                        newConsts[oparg] = functionCode;
+                    }
+                }
+            }
+        });
+        return co.withQuickeningFeedback(bytecode, variableTypes, newConsts);
+    }
+
     public Source getSource() {
         return source;
     }
@@ -975,11 +1001,19 @@ public final class PBytecodeRootNode extends PRootNode implements BytecodeOSRNod
 
     private void copyArgsFirstTime(Object[] args, Frame localFrame) {
         CompilerAsserts.neverPartOfCompilation();
-        variableTypes = new byte[varnames.length];
+        if (co.initialVariableTypes != null) {
+            variableTypes = PythonUtils.arrayCopyOf(co.initialVariableTypes, varnames.length);
+        } else {
+            variableTypes = new byte[varnames.length];
+        }
         int argCount = co.getRegularArgCount();
         for (int i = 0; i < argCount; i++) {
             Object arg = args[i + PArguments.USER_ARGUMENTS_OFFSET];
-            if (arg instanceof Integer) {
+            if (variableTypes[i] == QuickeningTypes.OBJECT) {
+                // generalized in an earlier execution
+                localFrame.setObject(i, arg);
+                continue;
+            } else if (arg instanceof Integer) {
                 variableTypes[i] = QuickeningTypes.INT;
                 if ((variableShouldUnbox[i] & QuickeningTypes.INT) != 0) {
                     variableTypes[i] |= UNBOXED_IN_INTERPRETER;
@@ -1359,7 +1393,7 @@ public final class PBytecodeRootNode extends PRootNode implements BytecodeOSRNod
                         oparg |= Byte.toUnsignedInt(localBC[++bci]);
                         int typeAndKind = Byte.toUnsignedInt(localBC[++bci]);
                         Object array = localConsts[oparg];
-                        bytecodeLoadConstCollection(virtualFrame, ++stackTop, array, typeAndKind);
+                        bytecodeLoadConstCollection(virtualFrame, ++stackTop, beginBci, localNodes, array, typeAndKind);
                         break;
                     }
                     case OpCodesConstants.LOAD_COMPLEX: {
@@ -1680,6 +1714,16 @@ public final class PBytecodeRootNode extends PRootNode implements BytecodeOSRNod
                         bytecodeUnaryOpIO(virtualFrame, stackTop, bci++, localNodes, op);
                         break;
                     }
+                    case OpCodesConstants.UNARY_OP_L_L: {
+                        int op = Byte.toUnsignedInt(localBC[bci + 1]);
+                        bytecodeUnaryOpLL(virtualFrame, stackTop, bci++, localNodes, op);
+                        break;
+                    }
+                    case OpCodesConstants.UNARY_OP_L_O: {
+                        int op = Byte.toUnsignedInt(localBC[bci + 1]);
+                        bytecodeUnaryOpLO(virtualFrame, stackTop, bci++, localNodes, op);
+                        break;
+                    }
                     case OpCodesConstants.UNARY_OP_D_D: {
                         int op = Byte.toUnsignedInt(localBC[bci + 1]);
                         bytecodeUnaryOpDD(virtualFrame, stackTop, bci++, localNodes, op);
@@ -1725,6 +1769,51 @@ public final class PBytecodeRootNode extends PRootNode implements BytecodeOSRNod
                         bytecodeBinaryOpIIO(virtualFrame, stackTop--, bci++, localNodes, op);
                         break;
                     }
+                    case OpCodesConstants.BINARY_OP_LL_L: {
+                        int op = Byte.toUnsignedInt(localBC[bci + 1]);
+                        bytecodeBinaryOpLLL(virtualFrame, stackTop--, bci++, localNodes, op, useCachedNodes);
+                        break;
+                    }
+                    case OpCodesConstants.BINARY_OP_LL_B: {
+                        int op = Byte.toUnsignedInt(localBC[bci + 1]);
+                        bytecodeBinaryOpLLB(virtualFrame, stackTop--, bci++, localNodes, op);
+                        break;
+                    }
+                    case OpCodesConstants.BINARY_OP_LL_O: {
+                        int op = Byte.toUnsignedInt(localBC[bci + 1]);
+                        bytecodeBinaryOpLLO(virtualFrame, stackTop--, bci++, localNodes, op, useCachedNodes);
+                        break;
+                    }
+                    case OpCodesConstants.BINARY_OP_IL_L: {
+                        int op = Byte.toUnsignedInt(localBC[bci + 1]);
+                        bytecodeBinaryOpILL(virtualFrame, stackTop--, bci++, localNodes, op, useCachedNodes);
+                        break;
+                    }
+                    case OpCodesConstants.BINARY_OP_IL_B: {
+                        int op = Byte.toUnsignedInt(localBC[bci + 1]);
+                        bytecodeBinaryOpILB(virtualFrame, stackTop--, bci++, localNodes, op);
+                        break;
+                    }
+                    case OpCodesConstants.BINARY_OP_IL_O: {
+                        int op = Byte.toUnsignedInt(localBC[bci + 1]);
+                        bytecodeBinaryOpILO(virtualFrame, stackTop--, bci++, localNodes, op, useCachedNodes);
+                        break;
+                    }
+                    case OpCodesConstants.BINARY_OP_LI_L: {
+                        int op = Byte.toUnsignedInt(localBC[bci + 1]);
+                        bytecodeBinaryOpLIL(virtualFrame, stackTop--, bci++, localNodes, op, useCachedNodes);
+                        break;
+                    }
+                    case OpCodesConstants.BINARY_OP_LI_B: {
+                        int op = Byte.toUnsignedInt(localBC[bci + 1]);
+                        bytecodeBinaryOpLIB(virtualFrame, stackTop--, bci++, localNodes, op);
+                        break;
+                    }
+                    case OpCodesConstants.BINARY_OP_LI_O: {
+                        int op = Byte.toUnsignedInt(localBC[bci + 1]);
+                        bytecodeBinaryOpLIO(virtualFrame, stackTop--, bci++, localNodes, op, useCachedNodes);
+                        break;
+                    }
                     case OpCodesConstants.BINARY_OP_DD_D: {
                         int op = Byte.toUnsignedInt(localBC[bci + 1]);
                         bytecodeBinaryOpDDD(virtualFrame, stackTop--, bci++, localNodes, op, useCachedNodes);
@@ -1740,6 +1829,56 @@ public final class PBytecodeRootNode extends PRootNode implements BytecodeOSRNod
                         bytecodeBinaryOpDDO(virtualFrame, stackTop--, bci++, localNodes, op, useCachedNodes);
                         break;
                     }
+                    case OpCodesConstants.BINARY_OP_ID_D: {
+                        int op = Byte.toUnsignedInt(localBC[bci + 1]);
+                        bytecodeBinaryOpIDD(virtualFrame, stackTop--, bci++, localNodes, op, useCachedNodes);
+                        break;
+                    }
+                    case OpCodesConstants.BINARY_OP_ID_B: {
+                        int op = Byte.toUnsignedInt(localBC[bci + 1]);
+                        bytecodeBinaryOpIDB(virtualFrame, stackTop--, bci++, localNodes, op);
+                        break;
+                    }
+                    case OpCodesConstants.BINARY_OP_ID_O: {
+                        int op = Byte.toUnsignedInt(localBC[bci + 1]);
+                        bytecodeBinaryOpIDO(virtualFrame, stackTop--, bci++, localNodes, op, useCachedNodes);
+                        break;
+                    }
+                    case OpCodesConstants.BINARY_OP_DI_D: {
+                        int op = Byte.toUnsignedInt(localBC[bci + 1]);
+                        bytecodeBinaryOpDID(virtualFrame, stackTop--, bci++, localNodes, op, useCachedNodes);
+                        break;
+                    }
+                    case OpCodesConstants.BINARY_OP_DI_B: {
+                        int op = Byte.toUnsignedInt(localBC[bci + 1]);
+                        bytecodeBinaryOpDIB(virtualFrame, stackTop--, bci++, localNodes, op);
+                        break;
+                    }
+                    case OpCodesConstants.BINARY_OP_DI_O: {
+                        int op = Byte.toUnsignedInt(localBC[bci + 1]);
+                        bytecodeBinaryOpDIO(virtualFrame, stackTop--, bci++, localNodes, op, useCachedNodes);
+                        break;
+                    }
+                    case OpCodesConstants.BINARY_OP_LD_D: {
+                        int op = Byte.toUnsignedInt(localBC[bci + 1]);
+                        bytecodeBinaryOpLDD(virtualFrame, stackTop--, bci++, localNodes, op, useCachedNodes);
+                        break;
+                    }
+                    case OpCodesConstants.BINARY_OP_LD_O: {
+                        int op = Byte.toUnsignedInt(localBC[bci + 1]);
+                        bytecodeBinaryOpLDO(virtualFrame, stackTop--, bci++, localNodes, op, useCachedNodes);
+                        break;
+                    }
+                    case OpCodesConstants.BINARY_OP_DL_D: {
+                        int op = Byte.toUnsignedInt(localBC[bci + 1]);
+                        bytecodeBinaryOpDLD(virtualFrame, stackTop--, bci++, localNodes, op, useCachedNodes);
+                        break;
+                    }
+                    case OpCodesConstants.BINARY_OP_DL_O: {
+                        int op = Byte.toUnsignedInt(localBC[bci + 1]);
+                        bytecodeBinaryOpDLO(virtualFrame, stackTop--, bci++, localNodes, op, useCachedNodes);
+                        break;
+                    }
                     case OpCodesConstants.BINARY_SUBSCR: {
                         stackTop = bytecodeBinarySubscrAdaptive(virtualFrame, stackTop, bci, localNodes, bciSlot);
                         break;
@@ -1790,7 +1929,14 @@ public final class PBytecodeRootNode extends PRootNode implements BytecodeOSRNod
                         throw bytecodeRaiseVarargs(virtualFrame, stackTop, beginBci, count, localNodes);
                     }
                     case OpCodesConstants.RETURN_VALUE: {
-                        return bytecodeReturnValue(virtualFrame, isGeneratorOrCoroutine, instrumentation, mutableData, stackTop, tracingEnabled, profilingEnabled, beginBci);
+                        return bytecodeReturnValue(virtualFrame, osrNode, isGeneratorOrCoroutine, instrumentation, mutableData, virtualFrame.getObject(stackTop), tracingEnabled, profilingEnabled, beginBci);
+                    }
+                    case OpCodesConstants.RETURN_NONE: {
+                        return bytecodeReturnValue(virtualFrame, osrNode, isGeneratorOrCoroutine, instrumentation, mutableData, PNone.NONE, tracingEnabled, profilingEnabled, beginBci);
+                    }
+                    case OpCodesConstants.RETURN_CONST: {
+                        oparg |= Byte.toUnsignedInt(localBC[++bci]);
+                        return bytecodeReturnValue(virtualFrame, osrNode, isGeneratorOrCoroutine, instrumentation, mutableData, localConsts[oparg], tracingEnabled, profilingEnabled, beginBci);
                     }
                     case OpCodesConstants.LOAD_BUILD_CLASS: {
                         setCurrentBci(virtualFrame, bciSlot, bci);
@@ -1854,12 +2000,36 @@ public final class PBytecodeRootNode extends PRootNode implements BytecodeOSRNod
                         bytecodeDeleteFast(localFrame, beginBci, localNodes, oparg, useCachedNodes);
                         break;
                     }
+                    case OpCodesConstants.CLEAR_FAST: {
+                        oparg |= Byte.toUnsignedInt(localBC[++bci]);
+                        /*
+                         * No need to generalize the stores, the variable is always stored again
+                         * before it is read and a mismatched load generalizes itself.
+                         */
+                        localFrame.setObject(oparg, null);
+                        break;
+                    }
                     case OpCodesConstants.LOAD_ATTR: {
                         setCurrentBci(virtualFrame, bciSlot, bci);
                         oparg |= Byte.toUnsignedInt(localBC[++bci]);
                         bytecodeLoadAttr(virtualFrame, stackTop, beginBci, oparg, localNodes, localNames, useCachedNodes);
                         break;
                     }
+                    case OpCodesConstants.LOAD_FAST_LOAD_ATTR: {
+                        setCurrentBci(virtualFrame, bciSlot, bci);
+                        oparg |= Byte.toUnsignedInt(localBC[++bci]);
+                        int index = Byte.toUnsignedInt(localBC[++bci]);
+                        bytecodeLoadFastBoxed(virtualFrame, localFrame, ++stackTop, beginBci + 1, index, localNodes, inCompiledCode);
+                        bytecodeLoadAttr(virtualFrame, stackTop, beginBci, oparg, localNodes, localNames, useCachedNodes);
+                        break;
+                    }
+                    case OpCodesConstants.LOAD_FAST_LOAD_FAST: {
+                        oparg |= Byte.toUnsignedInt(localBC[++bci]);
+                        int index = Byte.toUnsignedInt(localBC[++bci]);
+                        bytecodeLoadFastBoxed(virtualFrame, localFrame, ++stackTop, beginBci, oparg, localNodes, inCompiledCode);
+                        bytecodeLoadFastBoxed(virtualFrame, localFrame, ++stackTop, beginBci + 1, index, localNodes, inCompiledCode);
+                        break;
+                    }
                     case OpCodesConstants.IMPORT_NAME: {
                         setCurrentBci(virtualFrame, bciSlot, bci);
                         oparg |= Byte.toUnsignedInt(localBC[++bci]);
@@ -2016,9 +2186,7 @@ public final class PBytecodeRootNode extends PRootNode implements BytecodeOSRNod
                                     throw new OSRException(e);
                                 }
                                 if (osrResult != null) {
-                                    if (CompilerDirectives.hasNextTier() && mutableData.loopCount > 0) {
-                                        LoopNode.reportLoopCount(this, mutableData.loopCount);
-                                    }
+                                    reportLoopCount(osrNode, mutableData);
                                     return osrResult;
                                 }
                             }
@@ -2180,7 +2348,7 @@ public final class PBytecodeRootNode extends PRootNode implements BytecodeOSRNod
                         throw bytecodeEndExcHandler(virtualFrame, stackTop);
                     }
                     case OpCodesConstants.YIELD_VALUE: {
-                        return bytecodeYieldValue(virtualFrame, localFrame, initialStackTop, arguments, instrumentation, mutableData, stackTop, bci, tracingEnabled, profilingEnabled, beginBci);
+                        return bytecodeYieldValue(virtualFrame, localFrame, osrNode, initialStackTop, arguments, instrumentation, mutableData, stackTop, bci, tracingEnabled, profilingEnabled, beginBci);
                     }
                     case OpCodesConstants.RESUME_YIELD: {
                         bytecodeResumeYield(virtualFrame, useCachedNodes, arguments, mutableData, ++stackTop, bci, localNodes);
@@ -2278,7 +2446,7 @@ public final class PBytecodeRootNode extends PRootNode implements BytecodeOSRNod
                     CompilerAsserts.partialEvaluationConstant(targetIndex);
                     chainPythonExceptions(virtualFrame, mutableData, pe);
                     if (targetIndex == -1) {
-                        throw reraiseUnhandledException(virtualFrame, localFrame, initialStackTop, isGeneratorOrCoroutine, mutableData, bciSlot, beginBci, pe, tracingEnabled, profilingEnabled);
+                        throw reraiseUnhandledException(virtualFrame, localFrame, osrNode, initialStackTop, isGeneratorOrCoroutine, mutableData, bciSlot, beginBci, pe, tracingEnabled, profilingEnabled);
                     }
                     if (pe != null) {
                         pe.setCatchingFrameReference(virtualFrame, this, beginBci);
@@ -2516,8 +2684,7 @@ public final class PBytecodeRootNode extends PRootNode implements BytecodeOSRNod
 
     @BytecodeInterpreterSwitch
     private int bytecodeMakeFunction(VirtualFrame virtualFrame, Object globals, int stackTop, Node[] localNodes, int beginBci, int flags, Object localConsts) {
-        CodeUnit codeUnit = (CodeUnit) localConsts;
-        MakeFunctionNode makeFunctionNode = insertMakeFunctionNode(localNodes, beginBci, codeUnit);
+        MakeFunctionNode makeFunctionNode = insertMakeFunctionNode(localNodes, beginBci, localConsts);
         return makeFunctionNode.execute(virtualFrame, globals, stackTop, flags);
     }
 
@@ -2548,12 +2715,22 @@ public final class PBytecodeRootNode extends PRootNode implements BytecodeOSRNod
         virtualFrame.setObject(stackTop, origException);
     }
 
-    @BytecodeInterpreterSwitch
-    private GeneratorYieldResult bytecodeYieldValue(VirtualFrame virtualFrame, Frame localFrame, int initialStackTop, Object[] arguments, InstrumentationSupport instrumentation,
-                    MutableLoopData mutableData, int stackTop, int bci, boolean tracingEnabled, boolean profilingEnabled, int beginBci) {
+    /*
+     * The loop count has to be reported to the root that is being executed. That is the osrNode,
+     * which for generators and coroutines is the PBytecodeGeneratorRootNode of the current resume
+     * point and not this root node, which is never called directly in that case. Otherwise long
+     * loops in generators would not contribute to getting them compiled.
+     */
+    private static void reportLoopCount(BytecodeOSRNode osrNode, MutableLoopData mutableData) {
         if (CompilerDirectives.hasNextTier() && mutableData.loopCount > 0) {
-            LoopNode.reportLoopCount(this, mutableData.loopCount);
+            LoopNode.reportLoopCount((Node) osrNode, mutableData.loopCount);
         }
+    }
+
+    @BytecodeInterpreterSwitch
+    private GeneratorYieldResult bytecodeYieldValue(VirtualFrame virtualFrame, Frame localFrame, BytecodeOSRNode osrNode, int initialStackTop, Object[] arguments, InstrumentationSupport instrumentation,
+                    MutableLoopData mutableData, int stackTop, int bci, boolean tracingEnabled, boolean profilingEnabled, int beginBci) {
+        reportLoopCount(osrNode, mutableData);
         Object value = virtualFrame.getObject(stackTop);
         virtualFrame.setObject(stackTop--, null);
         PArguments.setException(PArguments.getGeneratorFrame(arguments), mutableData.localException);
@@ -2578,12 +2755,9 @@ public final class PBytecodeRootNode extends PRootNode implements BytecodeOSRNod
     }
 
     @BytecodeInterpreterSwitch
-    private Object bytecodeReturnValue(VirtualFrame virtualFrame, boolean isGeneratorOrCoroutine, InstrumentationSupport instrumentation, MutableLoopData mutableData, int stackTop,
+    private Object bytecodeReturnValue(VirtualFrame virtualFrame, BytecodeOSRNode osrNode, boolean isGeneratorOrCoroutine, InstrumentationSupport instrumentation, MutableLoopData mutableData, Object value,
                     boolean tracingEnabled, boolean profilingEnabled, int beginBci) {
-        if (CompilerDirectives.hasNextTier() && mutableData.loopCount > 0) {
-            LoopNode.reportLoopCount(this, mutableData.loopCount);
-        }
-        Object value = virtualFrame.getObject(stackTop);
+        reportLoopCount(osrNode, mutableData);
         traceOrProfileReturn(virtualFrame, mutableData, value, tracingEnabled, profilingEnabled);
 
         if (instrumentation != null) {
@@ -2685,7 +2859,7 @@ public final class PBytecodeRootNode extends PRootNode implements BytecodeOSRNod
         return null;
     }
 
-    private MakeFunctionNode insertMakeFunctionNode(Node[] localNodes, int beginBci, CodeUnit codeUnit) {
+    private MakeFunctionNode insertMakeFunctionNode(Node[] localNodes, int beginBci, Object codeUnit) {
         return insertChildNode(localNodes, beginBci, MakeFunctionNodeGen.class, () -> MakeFunctionNode.create(getLanguage(PythonLanguage.class), codeUnit, source));
     }
 
@@ -2693,8 +2867,7 @@ public final class PBytecodeRootNode extends PRootNode implements BytecodeOSRNod
         usingCachedNodes = true;
         CodeUnit.iterateBytecode(bytecode, (bci, op, oparg, followingArgs) -> {
             if (op == OpCodes.MAKE_FUNCTION) {
-                CodeUnit codeUnit = (CodeUnit) consts[oparg];
-                MakeFunctionNode makeFunctionNode = insertMakeFunctionNode(getChildNodes(), bci, codeUnit);
+                MakeFunctionNode makeFunctionNode = insertMakeFunctionNode(getChildNodes(), bci, consts[oparg]);
                 RootNode rootNode = makeFunctionNode.getCallTarget().getRootNode();
                 if (rootNode instanceof PBytecodeGeneratorFunctionRootNode) {
                     rootNode = ((PBytecodeGeneratorFunctionRootNode) rootNode).getBytecodeRootNode();
@@ -3042,7 +3215,7 @@ public final class PBytecodeRootNode extends PRootNode implements BytecodeOSRNod
     }
 
     @InliningCutoff
-    private PException reraiseUnhandledException(VirtualFrame virtualFrame, Frame localFrame, int initialStackTop, boolean isGeneratorOrCoroutine, MutableLoopData mutableData, int bciSlot,
+    private PException reraiseUnhandledException(VirtualFrame virtualFrame, Frame localFrame, BytecodeOSRNode osrNode, int initialStackTop, boolean isGeneratorOrCoroutine, MutableLoopData mutableData, int bciSlot,
                     int beginBci, PException pe, boolean tracingEnabled, boolean profilingEnabled) {
         // For tracebacks
         setCurrentBci(virtualFrame, bciSlot, beginBci);
@@ -3055,9 +3228,7 @@ public final class PBytecodeRootNode extends PRootNode implements BytecodeOSRNod
                 clearFrameSlots(localFrame, stackoffset, initialStackTop);
             }
         }
-        if (CompilerDirectives.hasNextTier() && mutableData.loopCount > 0) {
-            LoopNode.reportLoopCount(this, mutableData.loopCount);
-        }
+        reportLoopCount(osrNode, mutableData);
         traceOrProfileReturn(virtualFrame, mutableData, PNone.NONE, tracingEnabled, profilingEnabled);
         throw pe;
     }
@@ -3199,6 +3370,11 @@ public final class PBytecodeRootNode extends PRootNode implements BytecodeOSRNod
                     }
                     return;
             }
+        } else if (isIntOrLong(virtualFrame, stackTop) && isIntOrLong(virtualFrame, stackTop - 1)) {
+            // At least one of the operands is a long, int/int was handled above
+            if (quickenBinaryOpLong(virtualFrame, stackTop, localBC, bci, localNodes, op, useCachedNodes)) {
+                return;
+            }
         } else if (virtualFrame.isDouble(stackTop) && virtualFrame.isDouble(stackTop - 1)) {
             switch (op) {
                 case BinaryOpsConstants.ADD:
@@ -3211,7 +3387,7 @@ public final class PBytecodeRootNode extends PRootNode implements BytecodeOSRNod
                 case BinaryOpsConstants.INPLACE_TRUEDIV:
                 case BinaryOpsConstants.POW:
                 case BinaryOpsConstants.INPLACE_POW:
-                    if ((outputCanQuicken[bci] & QuickeningTypes.INT) != 0) {
+                    if ((outputCanQuicken[bci] & QuickeningTypes.DOUBLE) != 0) {
                         localBC[bci] = OpCodesConstants.BINARY_OP_DD_D;
                         bytecodeBinaryOpDDD(virtualFrame, stackTop, bci, localNodes, op, useCachedNodes);
                     } else {
@@ -3234,6 +3410,11 @@ public final class PBytecodeRootNode extends PRootNode implements BytecodeOSRNod
                     }
                     return;
             }
+        } else if (isNumeric(virtualFrame, stackTop) && isNumeric(virtualFrame, stackTop - 1)) {
+            // Exactly one of the operands is a double, the other one is an int or a long
+            if (quickenBinaryOpMixedDouble(virtualFrame, stackTop, localBC, bci, localNodes, op, useCachedNodes)) {
+                return;
+            }
         }
         // TODO other types
         generalizeFrameSlot(virtualFrame, stackTop);
@@ -3470,14 +3651,124 @@ public final class PBytecodeRootNode extends PRootNode implements BytecodeOSRNod
 
     @BytecodeInterpreterSwitch
     private void bytecodeBinaryOpDDD(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op, boolean useCachedNodes) {
-        double right, left, result;
         if (virtualFrame.isDouble(stackTop) && virtualFrame.isDouble(stackTop - 1)) {
-            right = virtualFrame.getDouble(stackTop);
-            left = virtualFrame.getDouble(stackTop - 1);
+            binaryOpDoubleD(virtualFrame, stackTop, bci, localNodes, op, useCachedNodes, virtualFrame.getDouble(stackTop - 1), virtualFrame.getDouble(stackTop));
+        } else {
+            generalizeBinaryOp(virtualFrame, stackTop, bci, localNodes, op);
+        }
+    }
+
+    @BytecodeInterpreterSwitch
+    private void bytecodeBinaryOpIDD(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op, boolean useCachedNodes) {
+        if (virtualFrame.isDouble(stackTop) && virtualFrame.isInt(stackTop - 1)) {
+            binaryOpDoubleD(virtualFrame, stackTop, bci, localNodes, op, useCachedNodes, virtualFrame.getInt(stackTop - 1), virtualFrame.getDouble(stackTop));
+        } else {
+            generalizeBinaryOp(virtualFrame, stackTop, bci, localNodes, op);
+        }
+    }
+
+    @BytecodeInterpreterSwitch
+    private void bytecodeBinaryOpDID(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op, boolean useCachedNodes) {
+        if (virtualFrame.isInt(stackTop) && virtualFrame.isDouble(stackTop - 1)) {
+            binaryOpDoubleD(virtualFrame, stackTop, bci, localNodes, op, useCachedNodes, virtualFrame.getDouble(stackTop - 1), virtualFrame.getInt(stackTop));
+        } else {
+            generalizeBinaryOp(virtualFrame, stackTop, bci, localNodes, op);
+        }
+    }
+
+    @BytecodeInterpreterSwitch
+    private void bytecodeBinaryOpLDD(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op, boolean useCachedNodes) {
+        if (virtualFrame.isDouble(stackTop) && virtualFrame.isLong(stackTop - 1)) {
+            binaryOpDoubleD(virtualFrame, stackTop, bci, localNodes, op, useCachedNodes, virtualFrame.getLong(stackTop - 1), virtualFrame.getDouble(stackTop));
+        } else {
+            generalizeBinaryOp(virtualFrame, stackTop, bci, localNodes, op);
+        }
+    }
+
+    @BytecodeInterpreterSwitch
+    private void bytecodeBinaryOpDLD(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op, boolean useCachedNodes) {
+        if (virtualFrame.isLong(stackTop) && virtualFrame.isDouble(stackTop - 1)) {
+            binaryOpDoubleD(virtualFrame, stackTop, bci, localNodes, op, useCachedNodes, virtualFrame.getDouble(stackTop - 1), virtualFrame.getLong(stackTop));
+        } else {
+            generalizeBinaryOp(virtualFrame, stackTop, bci, localNodes, op);
+        }
+    }
+
+    @BytecodeInterpreterSwitch
+    private void bytecodeBinaryOpDDB(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op) {
+        if (virtualFrame.isDouble(stackTop) && virtualFrame.isDouble(stackTop - 1)) {
+            binaryOpDoubleB(virtualFrame, stackTop, op, virtualFrame.getDouble(stackTop - 1), virtualFrame.getDouble(stackTop));
+        } else {
+            generalizeBinaryOp(virtualFrame, stackTop, bci, localNodes, op);
+        }
+    }
+
+    @BytecodeInterpreterSwitch
+    private void bytecodeBinaryOpIDB(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op) {
+        if (virtualFrame.isDouble(stackTop) && virtualFrame.isInt(stackTop - 1)) {
+            binaryOpDoubleB(virtualFrame, stackTop, op, virtualFrame.getInt(stackTop - 1), virtualFrame.getDouble(stackTop));
+        } else {
+            generalizeBinaryOp(virtualFrame, stackTop, bci, localNodes, op);
+        }
+    }
+
+    @BytecodeInterpreterSwitch
+    private void bytecodeBinaryOpDIB(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op) {
+        if (virtualFrame.isInt(stackTop) && virtualFrame.isDouble(stackTop - 1)) {
+            binaryOpDoubleB(virtualFrame, stackTop, op, virtualFrame.getDouble(stackTop - 1), virtualFrame.getInt(stackTop));
+        } else {
+            generalizeBinaryOp(virtualFrame, stackTop, bci, localNodes, op);
+        }
+    }
+
+    @BytecodeInterpreterSwitch
+    private void bytecodeBinaryOpDDO(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op, boolean useCachedNodes) {
+        if (virtualFrame.isDouble(stackTop) && virtualFrame.isDouble(stackTop - 1)) {
+            binaryOpDoubleO(virtualFrame, stackTop, bci, localNodes, op, useCachedNodes, virtualFrame.getDouble(stackTop - 1), virtualFrame.getDouble(stackTop));
+        } else {
+            generalizeBinaryOp(virtualFrame, stackTop, bci, localNodes, op);
+        }
+    }
+
+    @BytecodeInterpreterSwitch
+    private void bytecodeBinaryOpIDO(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op, boolean useCachedNodes) {
+        if (virtualFrame.isDouble(stackTop) && virtualFrame.isInt(stackTop - 1)) {
+            binaryOpDoubleO(virtualFrame, stackTop, bci, localNodes, op, useCachedNodes, virtualFrame.getInt(stackTop - 1), virtualFrame.getDouble(stackTop));
+        } else {
+            generalizeBinaryOp(virtualFrame, stackTop, bci, localNodes, op);
+        }
+    }
+
+    @BytecodeInterpreterSwitch
+    private void bytecodeBinaryOpDIO(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op, boolean useCachedNodes) {
+        if (virtualFrame.isInt(stackTop) && virtualFrame.isDouble(stackTop - 1)) {
+            binaryOpDoubleO(virtualFrame, stackTop, bci, localNodes, op, useCachedNodes, virtualFrame.getDouble(stackTop - 1), virtualFrame.getInt(stackTop));
+        } else {
+            generalizeBinaryOp(virtualFrame, stackTop, bci, localNodes, op);
+        }
+    }
+
+    @BytecodeInterpreterSwitch
+    private void bytecodeBinaryOpLDO(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op, boolean useCachedNodes) {
+        if (virtualFrame.isDouble(stackTop) && virtualFrame.isLong(stackTop - 1)) {
+            binaryOpDoubleO(virtualFrame, stackTop, bci, localNodes, op, useCachedNodes, virtualFrame.getLong(stackTop - 1), virtualFrame.getDouble(stackTop));
+        } else {
+            generalizeBinaryOp(virtualFrame, stackTop, bci, localNodes, op);
+        }
+    }
+
+    @BytecodeInterpreterSwitch
+    private void bytecodeBinaryOpDLO(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op, boolean useCachedNodes) {
+        if (virtualFrame.isLong(stackTop) && virtualFrame.isDouble(stackTop - 1)) {
+            binaryOpDoubleO(virtualFrame, stackTop, bci, localNodes, op, useCachedNodes, virtualFrame.getDouble(stackTop - 1), virtualFrame.getLong(stackTop));
         } else {
             generalizeBinaryOp(virtualFrame, stackTop, bci, localNodes, op);
-            return;
         }
+    }
+
+    @BytecodeInterpreterSwitch
+    private void binaryOpDoubleD(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op, boolean useCachedNodes, double left, double right) {
+        double result;
         try {
             switch (op) {
                 case BinaryOpsConstants.ADD:
@@ -3509,22 +3800,14 @@ public final class PBytecodeRootNode extends PRootNode implements BytecodeOSRNod
                     throw CompilerDirectives.shouldNotReachHere("Invalid operation for BINARY_OP_DD_D");
             }
         } catch (UnexpectedResultException e) {
-            generalizeBinaryOpDDDOverflow(virtualFrame, stackTop, bci, localNodes, op, useCachedNodes);
+            generalizeBinaryOpDoubleOverflow(virtualFrame, stackTop, bci, localNodes, op, useCachedNodes, left, right);
             return;
         }
         virtualFrame.setDouble(stackTop - 1, result);
     }
 
     @BytecodeInterpreterSwitch
-    private void bytecodeBinaryOpDDB(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op) {
-        double right, left;
-        if (virtualFrame.isDouble(stackTop) && virtualFrame.isDouble(stackTop - 1)) {
-            right = virtualFrame.getDouble(stackTop);
-            left = virtualFrame.getDouble(stackTop - 1);
-        } else {
-            generalizeBinaryOp(virtualFrame, stackTop, bci, localNodes, op);
-            return;
-        }
+    private static void binaryOpDoubleB(VirtualFrame virtualFrame, int stackTop, int op, double left, double right) {
         boolean result;
         switch (op) {
             case BinaryOpsConstants.EQ:
@@ -3552,15 +3835,7 @@ public final class PBytecodeRootNode extends PRootNode implements BytecodeOSRNod
     }
 
     @BytecodeInterpreterSwitch
-    private void bytecodeBinaryOpDDO(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op, boolean useCachedNodes) {
-        int right, left;
-        if (virtualFrame.isInt(stackTop) && virtualFrame.isInt(stackTop - 1)) {
-            right = virtualFrame.getInt(stackTop);
-            left = virtualFrame.getInt(stackTop - 1);
-        } else {
-            generalizeBinaryOp(virtualFrame, stackTop, bci, localNodes, op);
-            return;
-        }
+    private void binaryOpDoubleO(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op, boolean useCachedNodes, double left, double right) {
         Object result;
         switch (op) {
             case BinaryOpsConstants.ADD:
@@ -3614,6 +3889,64 @@ public final class PBytecodeRootNode extends PRootNode implements BytecodeOSRNod
         virtualFrame.setObject(stackTop - 1, result);
     }
 
+    private boolean quickenBinaryOpMixedDouble(VirtualFrame virtualFrame, int stackTop, byte[] localBC, int bci, Node[] localNodes, int op, boolean useCachedNodes) {
+        CompilerAsserts.neverPartOfCompilation();
+        boolean leftDouble = virtualFrame.isDouble(stackTop - 1);
+        int integerSlot = leftDouble ? stackTop : stackTop - 1;
+        boolean integerIsLong = virtualFrame.isLong(integerSlot);
+        byte resultType;
+        switch (op) {
+            case BinaryOpsConstants.ADD:
+            case BinaryOpsConstants.INPLACE_ADD:
+            case BinaryOpsConstants.SUB:
+            case BinaryOpsConstants.INPLACE_SUB:
+            case BinaryOpsConstants.MUL:
+            case BinaryOpsConstants.INPLACE_MUL:
+            case BinaryOpsConstants.TRUEDIV:
+            case BinaryOpsConstants.INPLACE_TRUEDIV:
+            case BinaryOpsConstants.POW:
+            case BinaryOpsConstants.INPLACE_POW:
+                resultType = (outputCanQuicken[bci] & QuickeningTypes.DOUBLE) != 0 ? QuickeningTypes.DOUBLE : QuickeningTypes.OBJECT;
+                break;
+            case BinaryOpsConstants.EQ:
+            case BinaryOpsConstants.NE:
+            case BinaryOpsConstants.GT:
+            case BinaryOpsConstants.GE:
+            case BinaryOpsConstants.LE:
+            case BinaryOpsConstants.LT:
+                if (integerIsLong) {
+                    // Not every long is representable as a double, the comparison must be exact
+                    return false;
+                }
+                resultType = (outputCanQuicken[bci] & QuickeningTypes.BOOLEAN) != 0 ? QuickeningTypes.BOOLEAN : QuickeningTypes.OBJECT;
+                break;
+            default:
+                return false;
+        }
+        double integerValue = integerIsLong ? virtualFrame.getLong(integerSlot) : virtualFrame.getInt(integerSlot);
+        double left = leftDouble ? virtualFrame.getDouble(stackTop - 1) : integerValue;
+        double right = leftDouble ? integerValue : virtualFrame.getDouble(stackTop);
+        if (resultType == QuickeningTypes.DOUBLE) {
+            if (integerIsLong) {
+                localBC[bci] = leftDouble ? OpCodesConstants.BINARY_OP_DL_D : OpCodesConstants.BINARY_OP_LD_D;
+            } else {
+                localBC[bci] = leftDouble ? OpCodesConstants.BINARY_OP_DI_D : OpCodesConstants.BINARY_OP_ID_D;
+            }
+            binaryOpDoubleD(virtualFrame, stackTop, bci, localNodes, op, useCachedNodes, left, right);
+        } else if (resultType == QuickeningTypes.BOOLEAN) {
+            localBC[bci] = leftDouble ? OpCodesConstants.BINARY_OP_DI_B : OpCodesConstants.BINARY_OP_ID_B;
+            binaryOpDoubleB(virtualFrame, stackTop, op, left, right);
+        } else {
+            if (integerIsLong) {
+                localBC[bci] = leftDouble ? OpCodesConstants.BINARY_OP_DL_O : OpCodesConstants.BINARY_OP_LD_O;
+            } else {
+                localBC[bci] = leftDouble ? OpCodesConstants.BINARY_OP_DI_O : OpCodesConstants.BINARY_OP_ID_O;
+            }
+            binaryOpDoubleO(virtualFrame, stackTop, bci, localNodes, op, useCachedNodes, left, right);
+        }
+        return true;
+    }
+
     private void generalizeBinaryOp(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op) {
         CompilerDirectives.transferToInterpreterAndInvalidate();
         generalizeFrameSlot(virtualFrame, stackTop);
@@ -3629,32 +3962,375 @@ public final class PBytecodeRootNode extends PRootNode implements BytecodeOSRNod
         bytecodeBinaryOpIIO(virtualFrame, stackTop, bci, localNodes, op);
     }
 
-    private void generalizeBinaryOpDDDOverflow(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op, boolean useCachedNodes) {
+    private void generalizeBinaryOpDoubleOverflow(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op, boolean useCachedNodes, double left, double right) {
         CompilerDirectives.transferToInterpreterAndInvalidate();
-        bytecode[bci] = OpCodesConstants.BINARY_OP_DD_O;
-        bytecodeBinaryOpDDO(virtualFrame, stackTop, bci, localNodes, op, useCachedNodes);
+        // DD_D -> DD_O, ID_D -> ID_O, ...
+        bytecode[bci] = (byte) OpCodes.fromOpCode(bytecode[bci]).generalizesTo.ordinal();
+        binaryOpDoubleO(virtualFrame, stackTop, bci, localNodes, op, useCachedNodes, left, right);
     }
 
-    @BytecodeInterpreterSwitch
-    private void bytecodeBinaryOpOOO(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op, int bciSlot) {
-        setCurrentBci(virtualFrame, bciSlot, bci);
-        BinaryOp opNode = (BinaryOp) insertChildNodeInt(localNodes, bci, BinaryOp.class, BINARY_OP_FACTORY, op);
-        Object right, left;
-        try {
-            right = virtualFrame.getObject(stackTop);
-            left = virtualFrame.getObject(stackTop - 1);
-        } catch (FrameSlotTypeException e) {
-            right = generalizePopCondition(virtualFrame, stackTop, bci);
-            left = virtualFrame.getValue(stackTop - 1);
-        }
-        virtualFrame.setObject(stackTop, null);
-        Object result = opNode.executeObject(virtualFrame, left, right);
-        virtualFrame.setObject(stackTop - 1, result);
+    private static boolean isIntOrLong(VirtualFrame virtualFrame, int slot) {
+        return virtualFrame.isInt(slot) || virtualFrame.isLong(slot);
     }
 
-    private void bytecodeUnaryOpAdaptive(VirtualFrame virtualFrame, int stackTop, int bci, byte[] localBC, Node[] localNodes) {
-        CompilerDirectives.transferToInterpreterAndInvalidate();
-        int op = Byte.toUnsignedInt(localBC[bci + 1]);
+    private static boolean isNumeric(VirtualFrame virtualFrame, int slot) {
+        return virtualFrame.isInt(slot) || virtualFrame.isLong(slot) || virtualFrame.isDouble(slot);
+    }
+
+    private boolean quickenBinaryOpLong(VirtualFrame virtualFrame, int stackTop, byte[] localBC, int bci, Node[] localNodes, int op, boolean useCachedNodes) {
+        CompilerAsserts.neverPartOfCompilation();
+        boolean leftLong = virtualFrame.isLong(stackTop - 1);
+        boolean rightLong = virtualFrame.isLong(stackTop);
+        byte resultType;
+        switch (op) {
+            case BinaryOpsConstants.ADD:
+            case BinaryOpsConstants.INPLACE_ADD:
+            case BinaryOpsConstants.SUB:
+            case BinaryOpsConstants.INPLACE_SUB:
+            case BinaryOpsConstants.MUL:
+            case BinaryOpsConstants.INPLACE_MUL:
+            case BinaryOpsConstants.FLOORDIV:
+            case BinaryOpsConstants.INPLACE_FLOORDIV:
+            case BinaryOpsConstants.MOD:
+            case BinaryOpsConstants.INPLACE_MOD:
+            case BinaryOpsConstants.RSHIFT:
+            case BinaryOpsConstants.INPLACE_RSHIFT:
+            case BinaryOpsConstants.AND:
+            case BinaryOpsConstants.INPLACE_AND:
+            case BinaryOpsConstants.OR:
+            case BinaryOpsConstants.INPLACE_OR:
+            case BinaryOpsConstants.XOR:
+            case BinaryOpsConstants.INPLACE_XOR:
+                resultType = (outputCanQuicken[bci] & QuickeningTypes.LONG) != 0 ? QuickeningTypes.LONG : QuickeningTypes.OBJECT;
+                break;
+            case BinaryOpsConstants.LSHIFT:
+            case BinaryOpsConstants.INPLACE_LSHIFT:
+            case BinaryOpsConstants.POW:
+            case BinaryOpsConstants.INPLACE_POW:
+            case BinaryOpsConstants.TRUEDIV:
+            case BinaryOpsConstants.INPLACE_TRUEDIV:
+                // Results of these frequently don't fit into a long or aren't integers at all
+                resultType = QuickeningTypes.OBJECT;
+                break;
+            case BinaryOpsConstants.EQ:
+            case BinaryOpsConstants.NE:
+            case BinaryOpsConstants.GT:
+            case BinaryOpsConstants.GE:
+            case BinaryOpsConstants.LE:
+            case BinaryOpsConstants.LT:
+            case BinaryOpsConstants.IS:
+                resultType = (outputCanQuicken[bci] & QuickeningTypes.BOOLEAN) != 0 ? QuickeningTypes.BOOLEAN : QuickeningTypes.OBJECT;
+                break;
+            default:
+                return false;
+        }
+        long left = leftLong ? virtualFrame.getLong(stackTop - 1) : virtualFrame.getInt(stackTop - 1);
+        long right = rightLong ? virtualFrame.getLong(stackTop) : virtualFrame.getInt(stackTop);
+        if (resultType == QuickeningTypes.LONG) {
+            localBC[bci] = leftLong ? (rightLong ? OpCodesConstants.BINARY_OP_LL_L : OpCodesConstants.BINARY_OP_LI_L) : OpCodesConstants.BINARY_OP_IL_L;
+            binaryOpLongL(virtualFrame, stackTop, bci, localNodes, op, useCachedNodes, left, right);
+        } else if (resultType == QuickeningTypes.BOOLEAN) {
+            localBC[bci] = leftLong ? (rightLong ? OpCodesConstants.BINARY_OP_LL_B : OpCodesConstants.BINARY_OP_LI_B) : OpCodesConstants.BINARY_OP_IL_B;
+            binaryOpLongB(virtualFrame, stackTop, op, left, right);
+        } else {
+            localBC[bci] = leftLong ? (rightLong ? OpCodesConstants.BINARY_OP_LL_O : OpCodesConstants.BINARY_OP_LI_O) : OpCodesConstants.BINARY_OP_IL_O;
+            binaryOpLongO(virtualFrame, stackTop, bci, localNodes, op, useCachedNodes, left, right);
+        }
+        return true;
+    }
+
+    @BytecodeInterpreterSwitch
+    private void bytecodeBinaryOpLLL(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op, boolean useCachedNodes) {
+        if (virtualFrame.isLong(stackTop) && virtualFrame.isLong(stackTop - 1)) {
+            binaryOpLongL(virtualFrame, stackTop, bci, localNodes, op, useCachedNodes, virtualFrame.getLong(stackTop - 1), virtualFrame.getLong(stackTop));
+        } else {
+            generalizeBinaryOp(virtualFrame, stackTop, bci, localNodes, op);
+        }
+    }
+
+    @BytecodeInterpreterSwitch
+    private void bytecodeBinaryOpILL(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op, boolean useCachedNodes) {
+        if (virtualFrame.isLong(stackTop) && virtualFrame.isInt(stackTop - 1)) {
+            binaryOpLongL(virtualFrame, stackTop, bci, localNodes, op, useCachedNodes, virtualFrame.getInt(stackTop - 1), virtualFrame.getLong(stackTop));
+        } else {
+            generalizeBinaryOp(virtualFrame, stackTop, bci, localNodes, op);
+        }
+    }
+
+    @BytecodeInterpreterSwitch
+    private void bytecodeBinaryOpLIL(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op, boolean useCachedNodes) {
+        if (virtualFrame.isInt(stackTop) && virtualFrame.isLong(stackTop - 1)) {
+            binaryOpLongL(virtualFrame, stackTop, bci, localNodes, op, useCachedNodes, virtualFrame.getLong(stackTop - 1), virtualFrame.getInt(stackTop));
+        } else {
+            generalizeBinaryOp(virtualFrame, stackTop, bci, localNodes, op);
+        }
+    }
+
+    @BytecodeInterpreterSwitch
+    private void bytecodeBinaryOpLLB(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op) {
+        if (virtualFrame.isLong(stackTop) && virtualFrame.isLong(stackTop - 1)) {
+            binaryOpLongB(virtualFrame, stackTop, op, virtualFrame.getLong(stackTop - 1), virtualFrame.getLong(stackTop));
+        } else {
+            generalizeBinaryOp(virtualFrame, stackTop, bci, localNodes, op);
+        }
+    }
+
+    @BytecodeInterpreterSwitch
+    private void bytecodeBinaryOpILB(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op) {
+        if (virtualFrame.isLong(stackTop) && virtualFrame.isInt(stackTop - 1)) {
+            binaryOpLongB(virtualFrame, stackTop, op, virtualFrame.getInt(stackTop - 1), virtualFrame.getLong(stackTop));
+        } else {
+            generalizeBinaryOp(virtualFrame, stackTop, bci, localNodes, op);
+        }
+    }
+
+    @BytecodeInterpreterSwitch
+    private void bytecodeBinaryOpLIB(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op) {
+        if (virtualFrame.isInt(stackTop) && virtualFrame.isLong(stackTop - 1)) {
+            binaryOpLongB(virtualFrame, stackTop, op, virtualFrame.getLong(stackTop - 1), virtualFrame.getInt(stackTop));
+        } else {
+            generalizeBinaryOp(virtualFrame, stackTop, bci, localNodes, op);
+        }
+    }
+
+    @BytecodeInterpreterSwitch
+    private void bytecodeBinaryOpLLO(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op, boolean useCachedNodes) {
+        if (virtualFrame.isLong(stackTop) && virtualFrame.isLong(stackTop - 1)) {
+            binaryOpLongO(virtualFrame, stackTop, bci, localNodes, op, useCachedNodes, virtualFrame.getLong(stackTop - 1), virtualFrame.getLong(stackTop));
+        } else {
+            generalizeBinaryOp(virtualFrame, stackTop, bci, localNodes, op);
+        }
+    }
+
+    @BytecodeInterpreterSwitch
+    private void bytecodeBinaryOpILO(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op, boolean useCachedNodes) {
+        if (virtualFrame.isLong(stackTop) && virtualFrame.isInt(stackTop - 1)) {
+            binaryOpLongO(virtualFrame, stackTop, bci, localNodes, op, useCachedNodes, virtualFrame.getInt(stackTop - 1), virtualFrame.getLong(stackTop));
+        } else {
+            generalizeBinaryOp(virtualFrame, stackTop, bci, localNodes, op);
+        }
+    }
+
+    @BytecodeInterpreterSwitch
+    private void bytecodeBinaryOpLIO(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op, boolean useCachedNodes) {
+        if (virtualFrame.isInt(stackTop) && virtualFrame.isLong(stackTop - 1)) {
+            binaryOpLongO(virtualFrame, stackTop, bci, localNodes, op, useCachedNodes, virtualFrame.getLong(stackTop - 1), virtualFrame.getInt(stackTop));
+        } else {
+            generalizeBinaryOp(virtualFrame, stackTop, bci, localNodes, op);
+        }
+    }
+
+    @BytecodeInterpreterSwitch
+    private void binaryOpLongL(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op, boolean useCachedNodes, long left, long right) {
+        long result;
+        try {
+            switch (op) {
+                case BinaryOpsConstants.ADD:
+                case BinaryOpsConstants.INPLACE_ADD:
+                    result = Math.addExact(left, right);
+                    break;
+                case BinaryOpsConstants.SUB:
+                case BinaryOpsConstants.INPLACE_SUB:
+                    result = Math.subtractExact(left, right);
+                    break;
+                case BinaryOpsConstants.MUL:
+                case BinaryOpsConstants.INPLACE_MUL:
+                    result = Math.multiplyExact(left, right);
+                    break;
+                case BinaryOpsConstants.FLOORDIV:
+                case BinaryOpsConstants.INPLACE_FLOORDIV:
+                    if (left == Long.MIN_VALUE && right == -1) {
+                        generalizeBinaryOpLongOverflow(virtualFrame, stackTop, bci, localNodes, op, useCachedNodes, left, right);
+                        return;
+                    }
+                    if (right == 0) {
+                        PRaiseNode raiseNode = insertChildNode(localNodes, bci, UNCACHED_RAISE, PRaiseNodeGen.class, NODE_RAISE, useCachedNodes);
+                        throw raiseNode.raise(ZeroDivisionError, ErrorMessages.S_DIVISION_OR_MODULO_BY_ZERO, "integer");
+                    }
+                    result = Math.floorDiv(left, right);
+                    break;
+                case BinaryOpsConstants.MOD:
+                case BinaryOpsConstants.INPLACE_MOD:
+                    if (right == 0) {
+                        PRaiseNode raiseNode = insertChildNode(localNodes, bci, UNCACHED_RAISE, PRaiseNodeGen.class, NODE_RAISE, useCachedNodes);
+                        throw raiseNode.raise(ZeroDivisionError, ErrorMessages.S_DIVISION_OR_MODULO_BY_ZERO, "integer");
+                    }
+                    result = Math.floorMod(left, right);
+                    break;
+                case BinaryOpsConstants.RSHIFT:
+                case BinaryOpsConstants.INPLACE_RSHIFT:
+                    if (right < 0) {
+                        // Let the generic node raise the error
+                        generalizeBinaryOpLongOverflow(virtualFrame, stackTop, bci, localNodes, op, useCachedNodes, left, right);
+                        return;
+                    }
+                    result = left >> (right >= 64 ? 63 : right);
+                    break;
+                case BinaryOpsConstants.AND:
+                case BinaryOpsConstants.INPLACE_AND:
+                    result = left & right;
+                    break;
+                case BinaryOpsConstants.OR:
+                case BinaryOpsConstants.INPLACE_OR:
+                    result = left | right;
+                    break;
+                case BinaryOpsConstants.XOR:
+                case BinaryOpsConstants.INPLACE_XOR:
+                    result = left ^ right;
+                    break;
+                default:
+                    throw CompilerDirectives.shouldNotReachHere("Invalid operation for BINARY_OP_LL_L");
+            }
+        } catch (ArithmeticException e) {
+            generalizeBinaryOpLongOverflow(virtualFrame, stackTop, bci, localNodes, op, useCachedNodes, left, right);
+            return;
+        }
+        virtualFrame.setLong(stackTop - 1, result);
+    }
+
+    @BytecodeInterpreterSwitch
+    private static void binaryOpLongB(VirtualFrame virtualFrame, int stackTop, int op, long left, long right) {
+        boolean result;
+        switch (op) {
+            case BinaryOpsConstants.EQ:
+            case BinaryOpsConstants.IS:
+                result = left == right;
+                break;
+            case BinaryOpsConstants.NE:
+                result = left != right;
+                break;
+            case BinaryOpsConstants.LT:
+                result = left < right;
+                break;
+            case BinaryOpsConstants.LE:
+                result = left <= right;
+                break;
+            case BinaryOpsConstants.GT:
+                result = left > right;
+                break;
+            case BinaryOpsConstants.GE:
+                result = left >= right;
+                break;
+            default:
+                throw CompilerDirectives.shouldNotReachHere("Invalid operation for BINARY_OP_LL_B");
+        }
+        virtualFrame.setBoolean(stackTop - 1, result);
+    }
+
+    @BytecodeInterpreterSwitch
+    private void binaryOpLongO(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op, boolean useCachedNodes, long left, long right) {
+        Object result;
+        switch (op) {
+            case BinaryOpsConstants.ADD:
+            case BinaryOpsConstants.INPLACE_ADD:
+                IntBuiltins.AddNode addNode = insertChildNode(localNodes, bci, IntBuiltinsFactory.AddNodeFactory.AddNodeGen.class, NODE_INT_ADD);
+                result = addNode.execute(left, right);
+                break;
+            case BinaryOpsConstants.SUB:
+            case BinaryOpsConstants.INPLACE_SUB:
+                IntBuiltins.SubNode subNode = insertChildNode(localNodes, bci, IntBuiltinsFactory.SubNodeFactory.SubNodeGen.class, NODE_INT_SUB);
+                result = subNode.execute(left, right);
+                break;
+            case BinaryOpsConstants.MUL:
+            case BinaryOpsConstants.INPLACE_MUL:
+                IntBuiltins.MulNode mulNode = insertChildNode(localNodes, bci, IntBuiltinsFactory.MulNodeFactory.MulNodeGen.class, NODE_INT_MUL);
+                result = mulNode.execute(left, right);
+                break;
+            case BinaryOpsConstants.FLOORDIV:
+            case BinaryOpsConstants.INPLACE_FLOORDIV:
+                IntBuiltins.FloorDivNode floorDivNode = insertChildNode(localNodes, bci, IntBuiltinsFactory.FloorDivNodeFactory.FloorDivNodeGen.class, NODE_INT_FLOORDIV);
+                result = floorDivNode.execute(left, right);
+                break;
+            case BinaryOpsConstants.TRUEDIV:
+            case BinaryOpsConstants.INPLACE_TRUEDIV:
+                IntBuiltins.TrueDivNode trueDivNode = insertChildNode(localNodes, bci, IntBuiltinsFactory.TrueDivNodeFactory.TrueDivNodeGen.class, NODE_INT_TRUEDIV);
+                result = trueDivNode.execute(left, right);
+                break;
+            case BinaryOpsConstants.MOD:
+            case BinaryOpsConstants.INPLACE_MOD:
+                IntBuiltins.ModNode modNode = insertChildNode(localNodes, bci, IntBuiltinsFactory.ModNodeFactory.ModNodeGen.class, NODE_INT_MOD);
+                result = modNode.execute(left, right);
+                break;
+            case BinaryOpsConstants.LSHIFT:
+            case BinaryOpsConstants.INPLACE_LSHIFT:
+                IntBuiltins.LShiftNode lShiftNode = insertChildNode(localNodes, bci, IntBuiltinsFactory.LShiftNodeFactory.LShiftNodeGen.class, NODE_INT_LSHIFT);
+                result = lShiftNode.execute(left, right);
+                break;
+            case BinaryOpsConstants.RSHIFT:
+            case BinaryOpsConstants.INPLACE_RSHIFT:
+                IntBuiltins.RShiftNode rShiftNode = insertChildNode(localNodes, bci, IntBuiltinsFactory.RShiftNodeFactory.RShiftNodeGen.class, NODE_INT_RSHIFT);
+                result = rShiftNode.execute(left, right);
+                break;
+            case BinaryOpsConstants.POW:
+            case BinaryOpsConstants.INPLACE_POW:
+                IntBuiltins.PowNode powNode = insertChildNode(localNodes, bci, IntBuiltinsFactory.PowNodeFactory.PowNodeGen.class, NODE_INT_POW);
+                result = powNode.execute(left, right);
+                break;
+            case BinaryOpsConstants.AND:
+            case BinaryOpsConstants.INPLACE_AND:
+                result = left & right;
+                break;
+            case BinaryOpsConstants.OR:
+            case BinaryOpsConstants.INPLACE_OR:
+                result = left | right;
+                break;
+            case BinaryOpsConstants.XOR:
+            case BinaryOpsConstants.INPLACE_XOR:
+                result = left ^ right;
+                break;
+            case BinaryOpsConstants.IS:
+            case BinaryOpsConstants.EQ:
+                result = left == right;
+                break;
+            case BinaryOpsConstants.NE:
+                result = left != right;
+                break;
+            case BinaryOpsConstants.LT:
+                result = left < right;
+                break;
+            case BinaryOpsConstants.LE:
+                result = left <= right;
+                break;
+            case BinaryOpsConstants.GT:
+                result = left > right;
+                break;
+            case BinaryOpsConstants.GE:
+                result = left >= right;
+                break;
+            default:
+                throw CompilerDirectives.shouldNotReachHere("Invalid operation for BINARY_OP_LL_O");
+        }
+        virtualFrame.setObject(stackTop, null);
+        virtualFrame.setObject(stackTop - 1, result);
+    }
+
+    private void generalizeBinaryOpLongOverflow(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op, boolean useCachedNodes, long left, long right) {
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        // LL_L -> LL_O, IL_L -> IL_O, LI_L -> LI_O
+        bytecode[bci] = (byte) OpCodes.fromOpCode(bytecode[bci]).generalizesTo.ordinal();
+        binaryOpLongO(virtualFrame, stackTop, bci, localNodes, op, useCachedNodes, left, right);
+    }
+
+    @BytecodeInterpreterSwitch
+    private void bytecodeBinaryOpOOO(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op, int bciSlot) {
+        setCurrentBci(virtualFrame, bciSlot, bci);
+        BinaryOp opNode = (BinaryOp) insertChildNodeInt(localNodes, bci, BinaryOp.class, BINARY_OP_FACTORY, op);
+        Object right, left;
+        try {
+            right = virtualFrame.getObject(stackTop);
+            left = virtualFrame.getObject(stackTop - 1);
+        } catch (FrameSlotTypeException e) {
+            right = generalizePopCondition(virtualFrame, stackTop, bci);
+            left = virtualFrame.getValue(stackTop - 1);
+        }
+        virtualFrame.setObject(stackTop, null);
+        Object result = opNode.executeObject(virtualFrame, left, right);
+        virtualFrame.setObject(stackTop - 1, result);
+    }
+
+    private void bytecodeUnaryOpAdaptive(VirtualFrame virtualFrame, int stackTop, int bci, byte[] localBC, Node[] localNodes) {
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        int op = Byte.toUnsignedInt(localBC[bci + 1]);
         if (virtualFrame.isObject(stackTop)) {
             localBC[bci] = OpCodesConstants.UNARY_OP_O_O;
             bytecodeUnaryOpOO(virtualFrame, stackTop, bci, localNodes, op, bcioffset);
@@ -3674,6 +4350,15 @@ public final class PBytecodeRootNode extends PRootNode implements BytecodeOSRNod
             localBC[bci] = OpCodesConstants.UNARY_OP_I_O;
             bytecodeUnaryOpIO(virtualFrame, stackTop, bci, localNodes, op);
             return;
+        } else if (virtualFrame.isLong(stackTop)) {
+            if ((outputCanQuicken[bci] & QuickeningTypes.LONG) != 0 && op != UnaryOpsConstants.NOT) {
+                localBC[bci] = OpCodesConstants.UNARY_OP_L_L;
+                bytecodeUnaryOpLL(virtualFrame, stackTop, bci, localNodes, op);
+                return;
+            }
+            localBC[bci] = OpCodesConstants.UNARY_OP_L_O;
+            bytecodeUnaryOpLO(virtualFrame, stackTop, bci, localNodes, op);
+            return;
         } else if (virtualFrame.isDouble(stackTop)) {
             if ((outputCanQuicken[bci] & QuickeningTypes.INT) != 0) {
                 if (op == UnaryOpsConstants.NOT || op == UnaryOpsConstants.INVERT) {
@@ -3767,6 +4452,66 @@ public final class PBytecodeRootNode extends PRootNode implements BytecodeOSRNod
         virtualFrame.setObject(stackTop, result);
     }
 
+    @BytecodeInterpreterSwitch
+    private void bytecodeUnaryOpLL(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op) {
+        long value;
+        if (virtualFrame.isLong(stackTop)) {
+            value = virtualFrame.getLong(stackTop);
+        } else {
+            generalizeUnaryOp(virtualFrame, stackTop, bci, localNodes, op);
+            return;
+        }
+        switch (op) {
+            case UnaryOpsConstants.POSITIVE:
+                break;
+            case UnaryOpsConstants.NEGATIVE:
+                try {
+                    virtualFrame.setLong(stackTop, Math.negateExact(value));
+                } catch (ArithmeticException e) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    bytecode[bci] = OpCodesConstants.UNARY_OP_L_O;
+                    bytecodeUnaryOpLO(virtualFrame, stackTop, bci, localNodes, op);
+                    return;
+                }
+                break;
+            case UnaryOpsConstants.INVERT:
+                virtualFrame.setLong(stackTop, ~value);
+                break;
+            default:
+                throw CompilerDirectives.shouldNotReachHere("Invalid operation for UNARY_OP_L_L");
+        }
+    }
+
+    @BytecodeInterpreterSwitch
+    private void bytecodeUnaryOpLO(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op) {
+        long value;
+        if (virtualFrame.isLong(stackTop)) {
+            value = virtualFrame.getLong(stackTop);
+        } else {
+            generalizeUnaryOp(virtualFrame, stackTop, bci, localNodes, op);
+            return;
+        }
+        Object result;
+        switch (op) {
+            case UnaryOpsConstants.NOT:
+                result = value == 0;
+                break;
+            case UnaryOpsConstants.POSITIVE:
+                result = value;
+                break;
+            case UnaryOpsConstants.NEGATIVE:
+                IntBuiltins.NegNode negNode = insertChildNode(localNodes, bci, IntBuiltinsFactory.NegNodeFactory.NegNodeGen.class, NODE_INT_NEG);
+                result = negNode.execute(value);
+                break;
+            case UnaryOpsConstants.INVERT:
+                result = ~value;
+                break;
+            default:
+                throw CompilerDirectives.shouldNotReachHere("Invalid operation for UNARY_OP_L_O");
+        }
+        virtualFrame.setObject(stackTop, result);
+    }
+
     @BytecodeInterpreterSwitch
     private void bytecodeUnaryOpDD(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, int op) {
         double value;
@@ -4317,6 +5062,27 @@ public final class PBytecodeRootNode extends PRootNode implements BytecodeOSRNod
         }
     }
 
+    /*
+     * Boxing load used by the LOAD_FAST superinstructions. These cannot be rewritten to a typed
+     * variant, so instead of generalizing an unboxed local like LOAD_FAST_O would, read it according
+     * to its quickened type, the same way the LOAD_FAST_*_BOX variants do.
+     */
+    @BytecodeInterpreterSwitch
+    private void bytecodeLoadFastBoxed(VirtualFrame virtualFrame, Frame localFrame, int stackTop, int bci, int index, Node[] localNodes, boolean inCompiledCode) {
+        byte type = variableTypes[index];
+        if ((type & QuickeningTypes.INT) != 0 && localFrame.isInt(index)) {
+            virtualFrame.setObject(stackTop, localFrame.getInt(index));
+        } else if ((type & QuickeningTypes.LONG) != 0 && localFrame.isLong(index)) {
+            virtualFrame.setObject(stackTop, localFrame.getLong(index));
+        } else if ((type & QuickeningTypes.DOUBLE) != 0 && localFrame.isDouble(index)) {
+            virtualFrame.setObject(stackTop, localFrame.getDouble(index));
+        } else if ((type & QuickeningTypes.BOOLEAN) != 0 && localFrame.isBoolean(index)) {
+            virtualFrame.setObject(stackTop, localFrame.getBoolean(index));
+        } else {
+            bytecodeLoadFastO(virtualFrame, localFrame, stackTop, bci, index, localNodes, inCompiledCode);
+        }
+    }
+
     private void generalizeLoadFast(VirtualFrame virtualFrame, Frame localFrame, int stackTop, int bci, int index, Node[] localNodes, boolean inCompiledCode) {
         CompilerDirectives.transferToInterpreterAndInvalidate();
         generalizeVariableStores(index);
@@ -4801,11 +5567,11 @@ public final class PBytecodeRootNode extends PRootNode implements BytecodeOSRNod
     }
 
     @BytecodeInterpreterSwitch
-    private void bytecodeLoadConstCollection(VirtualFrame virtualFrame, int stackTop, Object array, int typeAndKind) {
+    private void bytecodeLoadConstCollection(VirtualFrame virtualFrame, int stackTop, int bci, Node[] localNodes, Object array, int typeAndKind) {
         Object result;
         SequenceStorage storage;
         int kind = CollectionBits.collectionKind(typeAndKind);
-        assert kind == CollectionBits.KIND_LIST || kind == CollectionBits.KIND_TUPLE;
+        assert kind == CollectionBits.KIND_LIST || kind == CollectionBits.KIND_TUPLE || kind == CollectionBits.KIND_SET;
         boolean list = kind == CollectionBits.KIND_LIST;
         switch (CollectionBits.elementType(typeAndKind)) {
             case CollectionBits.ELEMENT_INT: {
@@ -4853,6 +5619,10 @@ public final class PBytecodeRootNode extends PRootNode implements BytecodeOSRNod
         }
         if (list) {
             result = factory.createList(storage);
+        } else if (kind == CollectionBits.KIND_SET) {
+            // The storage only wraps the constant array, it is not exposed
+            HashingStorageFromListSequenceStorageNode node = insertChildNode(localNodes, bci, HashingStorageFromListSequenceStorageNodeGen.class, NODE_HASHING_STORAGE_FROM_SEQUENCE);
+            result = factory.createFrozenSet(node.execute(virtualFrame, storage));
         } else {
             result = factory.createTuple(storage);
         }
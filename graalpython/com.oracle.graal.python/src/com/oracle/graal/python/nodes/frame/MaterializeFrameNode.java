@@ -378,6 +378,10 @@ public abstract class MaterializeFrameNode extends Node {
                         BranchProfile updatedStorage, ConditionProfile profile) {
             HashingStorage storage = localsDict.getDictStorage();
             TruffleString identifier = info.getVariableName(slot);
+            if (identifier == null) {
+                // private slot of an inlined comprehension
+                return;
+            }
             Object value = frameToSync.getValue(slot);
             if (value != null && profile.profile(value instanceof PCell)) {
                 value = ((PCell) value).getRef();
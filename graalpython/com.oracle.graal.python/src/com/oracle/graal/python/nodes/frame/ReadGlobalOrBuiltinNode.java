@@ -29,6 +29,7 @@ import static com.oracle.graal.python.runtime.exception.PythonErrorType.KeyError
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.NameError;
 
 import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.EconomicMapStorage;
 import com.oracle.graal.python.builtins.objects.common.HashingStorage;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes.HashingStorageGetItem;
 import com.oracle.graal.python.builtins.objects.dict.PDict;
@@ -41,6 +42,7 @@ import com.oracle.graal.python.nodes.ErrorMessages;
 import com.oracle.graal.python.nodes.PNodeWithContext;
 import com.oracle.graal.python.nodes.PRaiseNode;
 import com.oracle.graal.python.nodes.attributes.ReadAttributeFromObjectNode;
+import com.oracle.graal.python.nodes.object.GetDictIfExistsNode;
 import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
 import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.exception.PException;
@@ -120,6 +122,18 @@ public abstract class ReadGlobalOrBuiltinNode extends PNodeWithContext {
         return UNCACHED;
     }
 
+    @Specialization(guards = {"isSingleContext()", "globals == cachedGlobals", "cachedStorage != null",
+                    // no need to check the cachedDict for equality, module.__dict__ is read-only
+                    "cachedDict.getDictStorage() == cachedStorage"}, limit = "1")
+    protected Object readGlobalModuleVersioned(@SuppressWarnings("unused") PythonModule globals,
+                    @SuppressWarnings("unused") @Cached(value = "globals", weak = true) PythonModule cachedGlobals,
+                    @Cached(value = "getModuleDict(globals)", weak = true) PDict cachedDict,
+                    @Cached(value = "getVersionedStorage(cachedDict)", weak = true) EconomicMapStorage cachedStorage,
+                    @Cached("new()") VersionedCache cache,
+                    @Shared("getItem") @Cached HashingStorageGetItem getItem) {
+        return returnGlobalOrBuiltin(cache.read(cachedStorage, attributeId, getItem));
+    }
+
     @Specialization(guards = {"isSingleContext()", "globals == cachedGlobals"}, limit = "1")
     protected Object readGlobalCached(@SuppressWarnings("unused") PythonModule globals,
                     @Shared("readFromModule") @Cached ReadAttributeFromObjectNode readFromModuleNode,
@@ -151,6 +165,16 @@ public abstract class ReadGlobalOrBuiltinNode extends PNodeWithContext {
         }
     }
 
+    @Specialization(guards = {"isSingleContext()", "globals == cachedGlobals", "isBuiltinDict(cachedGlobals)", "cachedStorage != null",
+                    "cachedGlobals.getDictStorage() == cachedStorage"}, limit = "1")
+    protected Object readGlobalBuiltinDictVersioned(@SuppressWarnings("unused") PDict globals,
+                    @SuppressWarnings("unused") @Cached(value = "globals", weak = true) PDict cachedGlobals,
+                    @Cached(value = "getVersionedStorage(globals)", weak = true) EconomicMapStorage cachedStorage,
+                    @Cached("new()") VersionedCache cache,
+                    @Shared("getItem") @Cached HashingStorageGetItem getItem) {
+        return returnGlobalOrBuiltin(cache.read(cachedStorage, attributeId, getItem));
+    }
+
     @Specialization(guards = {"isSingleContext()", "globals == cachedGlobals", "isBuiltinDict(cachedGlobals)"}, limit = "1", rewriteOn = GlobalsDictStorageChanged.class)
     protected Object readGlobalBuiltinDictCachedUnchangedStorage(@SuppressWarnings("unused") PDict globals,
                     @SuppressWarnings("unused") @Cached(value = "globals", weak = true) PDict cachedGlobals,
@@ -196,6 +220,54 @@ public abstract class ReadGlobalOrBuiltinNode extends PNodeWithContext {
         }
     }
 
+    protected static PDict getModuleDict(PythonModule module) {
+        return GetDictIfExistsNode.getUncached().execute(module);
+    }
+
+    protected static EconomicMapStorage getVersionedStorage(PDict dict) {
+        if (dict != null && dict.getDictStorage() instanceof EconomicMapStorage storage) {
+            return storage;
+        }
+        return null;
+    }
+
+    /**
+     * Caches the result of a global lookup in a hash map backed storage together with the version of
+     * the storage, so that the lookup is only repeated if the storage was modified since the last
+     * read. The value found (including {@link PNone#NO_VALUE} for names that are resolved in
+     * builtins) is treated as a constant until the global gets rebound too often, after which we
+     * only keep skipping the lookup while the storage is unchanged.
+     */
+    static final class VersionedCache {
+        private static final int MAX_REBINDS = 3;
+
+        @CompilationFinal private Object value;
+        @CompilationFinal private int rebinds;
+        private long version = -1;
+        private Object lastValue;
+
+        Object read(EconomicMapStorage storage, TruffleString key, HashingStorageGetItem getItem) {
+            long currentVersion = storage.getVersion();
+            if (currentVersion != version) {
+                Object result = getItem.execute(storage, key);
+                if (result == null) {
+                    result = PNone.NO_VALUE;
+                }
+                if (rebinds <= MAX_REBINDS && result != value) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    value = result;
+                    rebinds++;
+                }
+                lastValue = result;
+                version = currentVersion;
+            }
+            if (rebinds <= MAX_REBINDS) {
+                return value;
+            }
+            return lastValue;
+        }
+    }
+
     private Object returnGlobalOrBuiltin(Object result) {
         if (result != PNone.NO_VALUE) {
             if (!wasReadFromModule) {
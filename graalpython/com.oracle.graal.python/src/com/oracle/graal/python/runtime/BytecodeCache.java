@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2023, 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.runtime;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.logging.Level;
+
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.builtins.modules.MarshalModuleBuiltins;
+import com.oracle.graal.python.compiler.CodeUnit;
+import com.oracle.graal.python.compiler.Compiler;
+import com.oracle.graal.python.nodes.bytecode.PBytecodeRootNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleFile;
+import com.oracle.truffle.api.TruffleLogger;
+import com.oracle.truffle.api.source.Source;
+
+/**
+ * Persistent cache of compiled code units, enabled with {@link PythonOptions#CodeCacheDir}. Entries
+ * are keyed by a digest of the runtime version, the options that affect code generation,
+ * optimization level, file name and source text, so an entry can never be stale and the cache needs
+ * no invalidation. Unlike {@code .pyc} files, the cache does not depend on file modification times
+ * and can be shared between source trees.
+ *
+ * Loading an entry executes the code stored in it, so entries are only used if both the entry and
+ * the cache directory belong to the current user and are not writable by group or others. The
+ * cache is therefore only used on file systems with POSIX attributes.
+ */
+public final class BytecodeCache {
+    private static final TruffleLogger LOGGER = PythonLanguage.getLogger(BytecodeCache.class);
+
+    private static final String ENTRY_SUFFIX = ".gpyc";
+    private static final byte[] RUNTIME_ID = String.format("graalpy-%s-%d.%d-%d", PythonLanguage.VERSION, PythonLanguage.GRAALVM_MAJOR, PythonLanguage.GRAALVM_MINOR,
+                    Compiler.BYTECODE_VERSION).getBytes(StandardCharsets.UTF_8);
+
+    private BytecodeCache() {
+    }
+
+    /**
+     * Returns the cache entry for given source compiled in file mode, or {@code null} if the cache
+     * is disabled or the source is not eligible (for example strings passed to {@code compile} with
+     * a pseudo file name such as {@code <string>}).
+     */
+    @TruffleBoundary
+    public static TruffleFile getEntry(PythonContext context, Source source, int optimize) {
+        String cacheDir = context.getOption(PythonOptions.CodeCacheDir).toJavaStringUncached();
+        String name = source.getName();
+        if (cacheDir.isEmpty() || name == null || name.isEmpty() || name.startsWith("<") || !source.hasCharacters()) {
+            return null;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(RUNTIME_ID);
+            digest.update((byte) optimize);
+            PythonLanguage language = context.getLanguage();
+            digest.update((byte) (language.getEngineOption(PythonOptions.LazyFunctionCompilation) ? 1 : 0));
+            digest.update((byte) (language.getEngineOption(PythonOptions.InlineComprehensions) ? 1 : 0));
+            digest.update(name.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(source.getCharacters().toString().getBytes(StandardCharsets.UTF_8));
+            return context.getEnv().getPublicTruffleFile(cacheDir).resolve(toHex(digest.digest()) + ENTRY_SUFFIX);
+        } catch (NoSuchAlgorithmException | SecurityException | UnsupportedOperationException | InvalidPathException e) {
+            LOGGER.log(Level.FINE, e, () -> "Cannot use code cache directory " + cacheDir);
+            return null;
+        }
+    }
+
+    /**
+     * Reads the code unit stored in the entry. Returns {@code null} if there is no such entry, if
+     * it or the cache directory could have been written by another user, or if it cannot be read. A
+     * corrupted entry gets replaced by the next {@link #store}.
+     */
+    @TruffleBoundary
+    public static CodeUnit load(PythonContext context, TruffleFile entry) {
+        try {
+            if (!entry.exists(LinkOption.NOFOLLOW_LINKS)) {
+                return null;
+            }
+            long uid = PosixSupportLibrary.getUncached().getuid(context.getPosixSupport());
+            if (!entry.isRegularFile(LinkOption.NOFOLLOW_LINKS) || !isPrivate(entry, uid) || !isPrivate(entry.getParent(), uid)) {
+                LOGGER.fine(() -> "Ignoring code cache entry " + entry + " that may have been written by another user");
+                return null;
+            }
+            return MarshalModuleBuiltins.deserializeCodeUnit(entry.readAllBytes());
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | SecurityException | UnsupportedOperationException | PException e) {
+            LOGGER.log(Level.FINE, e, () -> "Cannot load code cache entry " + entry);
+            return null;
+        }
+    }
+
+    /**
+     * Writes the code unit to the entry. The data is first written to a temporary file that is then
+     * atomically moved in place, so that concurrent processes never observe a partial entry.
+     * Failures are ignored, the cache is only an optimization.
+     */
+    @TruffleBoundary
+    public static void store(PythonContext context, TruffleFile entry, CodeUnit code) {
+        TruffleFile tmp = null;
+        try {
+            byte[] data = MarshalModuleBuiltins.serializeCodeUnit(code);
+            TruffleFile dir = entry.getParent();
+            if (!dir.exists()) {
+                dir.createDirectories(PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+            }
+            tmp = context.getEnv().createTempFile(dir, entry.getName(), ".tmp");
+            try (OutputStream out = tmp.newOutputStream()) {
+                out.write(data);
+            }
+            tmp.move(entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            tmp = null;
+        } catch (IOException | SecurityException | UnsupportedOperationException | PException e) {
+            LOGGER.log(Level.FINE, e, () -> "Cannot store code cache entry " + entry);
+        } finally {
+            if (tmp != null) {
+                try {
+                    tmp.delete();
+                } catch (IOException | SecurityException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    /**
+     * With {@link PythonOptions#PersistQuickening}, registers a hook that writes the code unit of
+     * the root node back to the entry at exit if the execution learned new quickening decisions.
+     */
+    @TruffleBoundary
+    public static void storeQuickeningFeedbackAtExit(PythonContext context, TruffleFile entry, PBytecodeRootNode rootNode) {
+        if (context.getOption(PythonOptions.PersistQuickening)) {
+            context.registerAtexitHook(ctx -> {
+                CodeUnit code = rootNode.getCodeUnitWithQuickeningFeedback();
+                if (code != rootNode.getCodeUnit()) {
+                    store(ctx, entry, code);
+                }
+            });
+        }
+    }
+
+    private static boolean isPrivate(TruffleFile file, long uid) throws IOException {
+        int mode = file.getAttribute(TruffleFile.UNIX_MODE, LinkOption.NOFOLLOW_LINKS);
+        return file.getAttribute(TruffleFile.UNIX_UID, LinkOption.NOFOLLOW_LINKS) == uid && (mode & 0022) == 0;
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+}
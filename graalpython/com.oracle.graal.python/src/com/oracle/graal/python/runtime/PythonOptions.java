@@ -213,6 +213,12 @@ public final class PythonOptions {
                     "Equivalent to setting the PYTHONPYCACHEPREFIX environment variable for the standard launcher.", usageSyntax = "<path>", stability = OptionStability.STABLE) //
     public static final OptionKey<TruffleString> PyCachePrefix = new OptionKey<>(T_EMPTY_STRING, TS_OPTION_TYPE);
 
+    @Option(category = OptionCategory.USER, help = "If this is set, GraalPython stores bytecode of modules compiled from source files in this directory and reuses it " +
+                    "in later runs. Entries are keyed by the source text, the runtime version and the options that affect code generation, so they never need to be " +
+                    "invalidated. Entries are only loaded if they and the directory belong to the current user and are not writable by group or others. " +
+                    "Unlike .pyc files, this cache is used even when bytecode writing is disabled.", usageSyntax = "<path>", stability = OptionStability.EXPERIMENTAL) //
+    public static final OptionKey<TruffleString> CodeCacheDir = new OptionKey<>(T_EMPTY_STRING, TS_OPTION_TYPE);
+
     @Option(category = OptionCategory.USER, help = "Equivalent to setting the PYTHONWARNINGS environment variable for the standard launcher.", //
                     usageSyntax = "<action>[:<message>[:<category>[:<module>[:<line>]]]][,<action>[:<message>[:<category>[:<module>[:<line>]]]]]", stability = OptionStability.STABLE) //
     public static final OptionKey<TruffleString> WarnOptions = new OptionKey<>(T_EMPTY_STRING, TS_OPTION_TYPE);
@@ -282,6 +288,22 @@ public final class PythonOptions {
     @Option(category = OptionCategory.EXPERT, usageSyntax = "<numFiles>", help = "Prints parser time statistics after number of parsed files, set by this option. 0 or <0 means no statistics are printed.") //
     public static final OptionKey<Integer> ParserStatistics = new OptionKey<>(0);
 
+    @EngineOption @Option(category = OptionCategory.EXPERT, usageSyntax = "true|false", help = "Compile the body of a function only when the function is first called or its code object is " +
+                    "inspected. Speeds up importing large modules that define many functions that are never called. Syntax errors and warnings that are detected by the " +
+                    "compiler (rather than the parser) in function bodies are reported at that time instead of when the module is compiled.", stability = OptionStability.EXPERIMENTAL) //
+    public static final OptionKey<Boolean> LazyFunctionCompilation = new OptionKey<>(false);
+
+    @EngineOption @Option(category = OptionCategory.EXPERT, usageSyntax = "true|false", help = "Compile list, set and dict comprehensions inside functions directly into the enclosing " +
+                    "function instead of calling a nested function. Inlined comprehensions do not get a frame of their own, so they no longer appear in tracebacks and " +
+                    "sys._getframe() chains.", stability = OptionStability.EXPERIMENTAL) //
+    public static final OptionKey<Boolean> InlineComprehensions = new OptionKey<>(false);
+
+    @Option(category = OptionCategory.EXPERT, usageSyntax = "true|false", help = "Include the type speculations that the interpreter had to generalize back to objects " +
+                    "in code objects serialized by marshal, and write them back to the code cache (see CodeCacheDir) at exit. Code loaded later starts with those " +
+                    "instructions and variables generalized instead of speculating on primitive types again. Speculations that held are not persisted, they are " +
+                    "learned again by each process.", stability = OptionStability.EXPERIMENTAL) //
+    public static final OptionKey<Boolean> PersistQuickening = new OptionKey<>(false);
+
     @EngineOption @Option(category = OptionCategory.EXPERT, usageSyntax = "<maxDepth>", help = "") //
     public static final OptionKey<Integer> AttributeAccessInlineCacheMaxDepth = new OptionKey<>(5);
 
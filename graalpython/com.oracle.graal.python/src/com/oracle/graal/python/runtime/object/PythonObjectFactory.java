@@ -49,6 +49,13 @@ import com.oracle.graal.python.builtins.modules.ctypes.PyCArgObject;
 import com.oracle.graal.python.builtins.modules.ctypes.PyCFuncPtrObject;
 import com.oracle.graal.python.builtins.modules.ctypes.StgDictObject;
 import com.oracle.graal.python.builtins.modules.ctypes.StructParamObject;
+import com.oracle.graal.python.builtins.modules.datetime.PDate;
+import com.oracle.graal.python.builtins.modules.datetime.PDateTime;
+import com.oracle.graal.python.builtins.modules.datetime.PTime;
+import com.oracle.graal.python.builtins.modules.datetime.PTimeDelta;
+import com.oracle.graal.python.builtins.modules.datetime.PTimeZone;
+import com.oracle.graal.python.builtins.modules.datetime.PTzInfo;
+import com.oracle.graal.python.builtins.modules.decimal.PDecimal;
 import com.oracle.graal.python.builtins.modules.hashlib.DigestObject;
 import com.oracle.graal.python.builtins.modules.io.PBuffered;
 import com.oracle.graal.python.builtins.modules.io.PBytesIO;
@@ -62,6 +69,11 @@ import com.oracle.graal.python.builtins.modules.json.PJSONEncoder;
 import com.oracle.graal.python.builtins.modules.json.PJSONEncoder.FastEncode;
 import com.oracle.graal.python.builtins.modules.json.PJSONScanner;
 import com.oracle.graal.python.builtins.modules.lzma.LZMAObject;
+import com.oracle.graal.python.builtins.modules.pickle.PPickleBuffer;
+import com.oracle.graal.python.builtins.modules.pickle.PPickler;
+import com.oracle.graal.python.builtins.modules.pickle.PPicklerMemoProxy;
+import com.oracle.graal.python.builtins.modules.pickle.PUnpickler;
+import com.oracle.graal.python.builtins.modules.pickle.PUnpicklerMemoProxy;
 import com.oracle.graal.python.builtins.modules.zlib.ZLibCompObject;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.array.PArray;
@@ -1444,6 +1456,54 @@ public abstract class PythonObjectFactory extends Node {
         return trace(new PJSONEncoder(clazz, getShape(clazz), markers, defaultFn, encoder, indent, keySeparator, itemSeparator, sortKeys, skipKeys, allowNan, fastEncode));
     }
 
+    public final PPickler createPickler(Object clazz) {
+        return trace(new PPickler(clazz, getShape(clazz)));
+    }
+
+    public final PUnpickler createUnpickler(Object clazz) {
+        return trace(new PUnpickler(clazz, getShape(clazz)));
+    }
+
+    public final PPickleBuffer createPickleBuffer(Object clazz, PMemoryView view) {
+        return trace(new PPickleBuffer(clazz, getShape(clazz), view));
+    }
+
+    public final PPicklerMemoProxy createPicklerMemoProxy(PPickler pickler) {
+        return trace(new PPicklerMemoProxy(PythonBuiltinClassType.PicklerMemoProxy, getShape(PythonBuiltinClassType.PicklerMemoProxy), pickler));
+    }
+
+    public final PUnpicklerMemoProxy createUnpicklerMemoProxy(PUnpickler unpickler) {
+        return trace(new PUnpicklerMemoProxy(PythonBuiltinClassType.UnpicklerMemoProxy, getShape(PythonBuiltinClassType.UnpicklerMemoProxy), unpickler));
+    }
+
+    public final PTimeDelta createTimeDelta(Object clazz, int days, int seconds, int microseconds) {
+        return trace(new PTimeDelta(clazz, getShape(clazz), days, seconds, microseconds));
+    }
+
+    public final PDate createDate(Object clazz, int year, int month, int day) {
+        return trace(new PDate(clazz, getShape(clazz), year, month, day));
+    }
+
+    public final PDateTime createDateTime(Object clazz, int year, int month, int day, int hour, int minute, int second, int microsecond, Object tzInfo, int fold) {
+        return trace(new PDateTime(clazz, getShape(clazz), year, month, day, hour, minute, second, microsecond, tzInfo, fold));
+    }
+
+    public final PTime createTime(Object clazz, int hour, int minute, int second, int microsecond, Object tzInfo, int fold) {
+        return trace(new PTime(clazz, getShape(clazz), hour, minute, second, microsecond, tzInfo, fold));
+    }
+
+    public final PTzInfo createTzInfo(Object clazz) {
+        return trace(new PTzInfo(clazz, getShape(clazz)));
+    }
+
+    public final PTimeZone createTimeZone(Object clazz, PTimeDelta offset, TruffleString name) {
+        return trace(new PTimeZone(clazz, getShape(clazz), offset, name));
+    }
+
+    public final PDecimal createDecimal(Object clazz, int kind, boolean negative, BigInteger coefficient, long exponent, String digits) {
+        return trace(new PDecimal(clazz, getShape(clazz), kind, negative, coefficient, exponent, digits));
+    }
+
     public final PDeque createDeque() {
         return trace(new PDeque(PythonBuiltinClassType.PDeque, getShape(PythonBuiltinClassType.PDeque)));
     }
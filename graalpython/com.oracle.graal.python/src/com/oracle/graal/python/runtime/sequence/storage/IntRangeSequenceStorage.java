@@ -0,0 +1,357 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.runtime.sequence.storage;
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.MemoryError;
+
+import java.util.Arrays;
+
+import com.oracle.graal.python.nodes.PRaiseNode;
+import com.oracle.graal.python.util.PythonUtils;
+
+/**
+ * Int storage that describes an arithmetic progression (e.g. {@code list(range(n))}) or a repeated
+ * value (e.g. {@code [0] * n}, i.e., a step of zero) without allocating the elements. The backing
+ * array is only materialized when the storage is mutated in a way that cannot be described by the
+ * progression or when somebody asks for the internal array.
+ *
+ * Lists do not keep this storage once they are modified: the nodes that write into list storages
+ * and return the resulting storage (set item, append, extend, insert and the list generalization)
+ * replace it by the {@link IntSequenceStorage} from {@link #toIntSequenceStorage()}, so that the
+ * fast paths for int storage apply to the list from then on. The in-place mutation support here is
+ * only a fallback for the remaining paths.
+ *
+ * While the storage is virtual, the capacity is kept equal to the length so that every growth goes
+ * through {@link #increaseCapacityExactWithCopy(int)} and materializes the array. Since even very
+ * large storages stay virtual until then, running out of memory while materializing raises
+ * {@code MemoryError} at the mutation instead of where the list was created.
+ */
+public final class IntRangeSequenceStorage extends TypedSequenceStorage {
+
+    private int start;
+    private int step;
+
+    /** The materialized elements or {@code null} while the storage is still virtual. */
+    private int[] values;
+
+    public IntRangeSequenceStorage(int start, int step, int length) {
+        this.start = start;
+        this.step = step;
+        this.length = length;
+        this.capacity = length;
+    }
+
+    public boolean isVirtual() {
+        return values == null;
+    }
+
+    /**
+     * Returns a regular int storage with the same elements and capacity. The materialized array is
+     * handed over, the caller must not use this storage afterwards.
+     */
+    public IntSequenceStorage toIntSequenceStorage() {
+        if (values == null) {
+            materialize(length);
+        }
+        return new IntSequenceStorage(values, length);
+    }
+
+    private void materialize(int newCapacity) {
+        assert newCapacity >= length;
+        int[] array = allocate(newCapacity);
+        int value = start;
+        for (int i = 0; i < length; i++) {
+            array[i] = value;
+            value += step;
+        }
+        values = array;
+        capacity = newCapacity;
+    }
+
+    private static int[] allocate(int size) {
+        try {
+            return new int[size];
+        } catch (OutOfMemoryError e) {
+            throw PRaiseNode.getUncached().raise(MemoryError);
+        }
+    }
+
+    @Override
+    protected void increaseCapacityExactWithCopy(int newCapacity) {
+        if (values == null) {
+            materialize(newCapacity);
+        } else {
+            values = Arrays.copyOf(values, newCapacity);
+            capacity = values.length;
+        }
+    }
+
+    @Override
+    protected void increaseCapacityExact(int newCapacity) {
+        values = new int[newCapacity];
+        capacity = values.length;
+    }
+
+    @Override
+    public void setNewLength(int newLength) {
+        if (values == null) {
+            assert newLength <= length : "growing a virtual storage must go through ensureCapacity";
+            capacity = newLength;
+        }
+        super.setNewLength(newLength);
+    }
+
+    @Override
+    public void minimizeCapacity() {
+        if (values != null) {
+            super.minimizeCapacity();
+        }
+    }
+
+    @Override
+    public SequenceStorage copy() {
+        if (values == null) {
+            return new IntRangeSequenceStorage(start, step, length);
+        }
+        return new IntSequenceStorage(PythonUtils.arrayCopyOf(values, length));
+    }
+
+    @Override
+    public SequenceStorage createEmpty(int newCapacity) {
+        return new IntSequenceStorage(newCapacity);
+    }
+
+    @Override
+    public Object[] getInternalArray() {
+        Object[] boxed = new Object[length];
+        for (int i = 0; i < length; i++) {
+            boxed[i] = getIntItemNormalized(i);
+        }
+        return boxed;
+    }
+
+    public int[] getInternalIntArray() {
+        if (values == null) {
+            materialize(length);
+        }
+        return values;
+    }
+
+    @Override
+    public Object getItemNormalized(int idx) {
+        return getIntItemNormalized(idx);
+    }
+
+    public int getIntItemNormalized(int idx) {
+        if (values == null) {
+            return start + idx * step;
+        }
+        return values[idx];
+    }
+
+    @Override
+    public void setItemNormalized(int idx, Object value) throws SequenceStoreException {
+        if (value instanceof Integer) {
+            setIntItemNormalized(idx, (int) value);
+        } else {
+            throw new SequenceStoreException(value);
+        }
+    }
+
+    public void setIntItemNormalized(int idx, int value) {
+        if (values == null) {
+            if (idx < length && start + idx * step == value) {
+                return;
+            }
+            materialize(length);
+        }
+        values[idx] = value;
+    }
+
+    @Override
+    public void insertItem(int idx, Object value) throws SequenceStoreException {
+        if (value instanceof Integer) {
+            insertIntItem(idx, (int) value);
+        } else {
+            throw new SequenceStoreException(value);
+        }
+    }
+
+    public void insertIntItem(int idx, int value) {
+        ensureCapacity(length + 1);
+
+        // shifting tail to the right by one slot
+        for (int i = values.length - 1; i > idx; i--) {
+            values[i] = values[i - 1];
+        }
+
+        values[idx] = value;
+        length++;
+    }
+
+    @Override
+    public void copyItem(int idxTo, int idxFrom) {
+        int value = getIntItemNormalized(idxFrom);
+        setIntItemNormalized(idxTo, value);
+    }
+
+    @Override
+    public SequenceStorage getSliceInBound(int sliceStart, int sliceStop, int sliceStep, int sliceLength) {
+        if (values == null) {
+            long newStep = (long) step * sliceStep;
+            if (newStep == (int) newStep) {
+                return new IntRangeSequenceStorage(getIntItemNormalized(sliceStart), (int) newStep, sliceLength);
+            }
+        }
+        int[] newArray = new int[sliceLength];
+        for (int i = sliceStart, j = 0; j < sliceLength; i += sliceStep, j++) {
+            newArray[j] = getIntItemNormalized(i);
+        }
+        return new IntSequenceStorage(newArray);
+    }
+
+    /**
+     * Returns the index of the first occurrence of {@code value} or {@code -1}. This is a constant
+     * time operation while the storage is virtual.
+     */
+    public int indexOfInt(int value) {
+        if (values == null) {
+            if (length == 0) {
+                return -1;
+            }
+            if (step == 0) {
+                return start == value ? 0 : -1;
+            }
+            long diff = (long) value - start;
+            if (diff % step != 0) {
+                return -1;
+            }
+            long idx = diff / step;
+            return idx >= 0 && idx < length ? (int) idx : -1;
+        }
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns {@code true} if the storage is virtual and its elements are in ascending (for
+     * {@code ascending == true}) or descending order.
+     */
+    public boolean isVirtualAndSorted(boolean ascending) {
+        return values == null && (ascending ? step >= 0 : step <= 0);
+    }
+
+    @Override
+    public void reverse() {
+        if (values == null) {
+            if (length > 1) {
+                start = start + (length - 1) * step;
+                step = -step;
+            }
+        } else if (length > 0) {
+            int head = 0;
+            int tail = length - 1;
+            int middle = (length - 1) / 2;
+
+            for (; head <= middle; head++, tail--) {
+                int temp = values[head];
+                values[head] = values[tail];
+                values[tail] = temp;
+            }
+        }
+    }
+
+    @Override
+    public Object getIndicativeValue() {
+        return 0;
+    }
+
+    @Override
+    public boolean equals(SequenceStorage other) {
+        if (other.length() != length()) {
+            return false;
+        }
+
+        for (int i = 0; i < length(); i++) {
+            if (!other.getItemNormalized(i).equals(getIntItemNormalized(i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public Object getInternalArrayObject() {
+        return getInternalIntArray();
+    }
+
+    @Override
+    public Object getCopyOfInternalArrayObject() {
+        if (values == null) {
+            int[] array = allocate(length);
+            for (int i = 0; i < length; i++) {
+                array[i] = start + i * step;
+            }
+            return array;
+        }
+        return Arrays.copyOf(values, length);
+    }
+
+    @Override
+    public Object[] getCopyOfInternalArray() {
+        return getInternalArray();
+    }
+
+    @Override
+    public void setInternalArrayObject(Object arrayObject) {
+        this.values = (int[]) arrayObject;
+    }
+
+    @Override
+    public ListStorageType getElementType() {
+        return ListStorageType.Int;
+    }
+}
@@ -28,13 +28,34 @@ package com.oracle.graal.python.runtime.sequence.storage;
 import static com.oracle.graal.python.nodes.truffle.TruffleStringMigrationHelpers.assertContainsNoJavaString;
 import static com.oracle.graal.python.nodes.truffle.TruffleStringMigrationHelpers.assertNoJavaString;
 
-import java.util.Arrays;
+import java.util.Objects;
 
 import com.oracle.graal.python.util.PythonUtils;
+import com.oracle.truffle.api.CompilerDirectives;
 
+/**
+ * Storage for arbitrary objects.
+ *
+ * Contiguous slices of large storages may share the backing array instead of copying it (see
+ * {@link #createSharedSlice(int, int, boolean)}). While {@link #shared} is set, the elements live in
+ * {@code values[offset, offset + length)} and the array must not be written to: every write and
+ * every request for the raw internal array first copies the elements into a private array starting
+ * at index 0. A storage that is not shared always has an offset of 0.
+ */
 public final class ObjectSequenceStorage extends BasicSequenceStorage {
 
+    /** Slices shorter than this are always copied since copying them is cheap. */
+    public static final int MIN_SHARED_LENGTH = 64;
+
+    /**
+     * A slice is only shared if it covers at least {@code 1 / MAX_PINNED_RATIO} of the backing
+     * array. This avoids keeping a huge array alive for a comparatively small slice.
+     */
+    public static final int MAX_PINNED_RATIO = 8;
+
     private Object[] values;
+    private int offset;
+    private boolean shared;
 
     public ObjectSequenceStorage(Object[] elements) {
         this.values = elements;
@@ -56,18 +77,70 @@ public final class ObjectSequenceStorage extends BasicSequenceStorage {
         this.length = 0;
     }
 
+    private ObjectSequenceStorage(Object[] values, int offset, int length) {
+        assert offset >= 0 && offset + length <= values.length;
+        this.values = values;
+        this.offset = offset;
+        this.length = length;
+        this.capacity = length;
+        this.shared = true;
+    }
+
+    /**
+     * Returns {@code true} if a slice with step 1 and the given length should share the backing
+     * array of this storage.
+     */
+    public boolean canShareSlice(int sliceLength) {
+        return sliceLength >= MIN_SHARED_LENGTH && sliceLength >= values.length / MAX_PINNED_RATIO;
+    }
+
+    /**
+     * Creates a storage for the elements {@code [start, start + sliceLength)} that shares the
+     * backing array of this storage. If this storage belongs to a mutable sequence, it is marked as
+     * shared as well, so that it copies the array before it writes to it the next time.
+     */
+    public ObjectSequenceStorage createSharedSlice(int start, int sliceLength, boolean mutable) {
+        assert start >= 0 && start + sliceLength <= length;
+        if (mutable) {
+            shared = true;
+        }
+        return new ObjectSequenceStorage(values, offset + start, sliceLength);
+    }
+
+    public boolean isShared() {
+        return shared;
+    }
+
+    private void unshare(int newCapacity) {
+        assert newCapacity >= length;
+        Object[] array = new Object[newCapacity];
+        PythonUtils.arraycopy(values, offset, array, 0, length);
+        values = array;
+        offset = 0;
+        capacity = newCapacity;
+        shared = false;
+    }
+
+    private void ensureUnshared() {
+        if (CompilerDirectives.injectBranchProbability(CompilerDirectives.UNLIKELY_PROBABILITY, shared)) {
+            unshare(capacity);
+        }
+    }
+
     @Override
     public Object getItemNormalized(int idx) {
-        return values[idx];
+        return values[offset + idx];
     }
 
     @Override
     public void setItemNormalized(int idx, Object value) {
+        ensureUnshared();
         values[idx] = assertNoJavaString(value);
     }
 
     @Override
     public void insertItem(int idx, Object value) {
+        ensureUnshared();
         ensureCapacity(length + 1);
 
         // shifting tail to the right by one slot
@@ -81,6 +154,7 @@ public final class ObjectSequenceStorage extends BasicSequenceStorage {
 
     @Override
     public void copyItem(int idxTo, int idxFrom) {
+        ensureUnshared();
         values[idxTo] = values[idxFrom];
     }
 
@@ -89,11 +163,11 @@ public final class ObjectSequenceStorage extends BasicSequenceStorage {
         Object[] newArray = new Object[sliceLength];
 
         if (step == 1) {
-            PythonUtils.arraycopy(values, start, newArray, 0, sliceLength);
+            PythonUtils.arraycopy(values, offset + start, newArray, 0, sliceLength);
             return new ObjectSequenceStorage(newArray);
         }
 
-        for (int i = start, j = 0; j < sliceLength; i += step, j++) {
+        for (int i = offset + start, j = 0; j < sliceLength; i += step, j++) {
             newArray[j] = values[i];
         }
 
@@ -112,28 +186,36 @@ public final class ObjectSequenceStorage extends BasicSequenceStorage {
 
     @Override
     public Object[] getInternalArray() {
+        ensureUnshared();
         return values;
     }
 
     @Override
     public Object[] getCopyOfInternalArray() {
-        return PythonUtils.arrayCopyOf(values, length);
+        return PythonUtils.arrayCopyOfRange(values, offset, offset + length);
     }
 
     @Override
     public void increaseCapacityExactWithCopy(int newCapacity) {
-        values = PythonUtils.arrayCopyOf(values, newCapacity);
-        capacity = values.length;
+        if (shared) {
+            unshare(newCapacity);
+        } else {
+            values = PythonUtils.arrayCopyOf(values, newCapacity);
+            capacity = values.length;
+        }
     }
 
     @Override
     public void increaseCapacityExact(int newCapacity) {
         values = new Object[newCapacity];
+        offset = 0;
         capacity = values.length;
+        shared = false;
     }
 
     @Override
     public void reverse() {
+        ensureUnshared();
         if (length > 0) {
             int head = 0;
             int tail = length - 1;
@@ -159,23 +241,33 @@ public final class ObjectSequenceStorage extends BasicSequenceStorage {
 
     @Override
     public boolean equals(SequenceStorage other) {
-        Object[] otherArray = other.getInternalArray();
-        return Arrays.equals(values, otherArray);
+        if (other.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (!Objects.equals(values[offset + i], other.getItemNormalized(i))) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public Object getInternalArrayObject() {
+        ensureUnshared();
         return values;
     }
 
     @Override
     public Object getCopyOfInternalArrayObject() {
-        return Arrays.copyOf(values, length);
+        return getCopyOfInternalArray();
     }
 
     @Override
     public void setInternalArrayObject(Object arrayObject) {
         this.values = (Object[]) arrayObject;
+        this.offset = 0;
+        this.shared = false;
         assertContainsNoJavaString(values);
     }
 
@@ -35,6 +35,7 @@ public abstract class SequenceStorage {
         Int,
         Long,
         Double,
+        String,
         Generic;
 
         public boolean generalizesFrom(ListStorageType other) {
@@ -47,6 +48,8 @@ public abstract class SequenceStorage {
                 case Double:
                 case Int:
                     return other == Uninitialized || other == Empty || other == Byte;
+                case String:
+                    return other == Uninitialized || other == Empty;
                 case Long:
                     return other == Uninitialized || other == Empty || other == Byte || other == Int;
                 default:
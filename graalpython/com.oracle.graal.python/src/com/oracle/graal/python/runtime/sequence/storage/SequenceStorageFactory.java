@@ -25,6 +25,8 @@
  */
 package com.oracle.graal.python.runtime.sequence.storage;
 
+import com.oracle.truffle.api.strings.TruffleString;
+
 public abstract class SequenceStorageFactory {
 
     private SequenceStorageFactory() {
@@ -52,6 +54,8 @@ public abstract class SequenceStorageFactory {
             return new BoolSequenceStorage(specializeToBool(values));
         } else if (canSpecializeToByte(values)) {
             return new ByteSequenceStorage(specializeToByte(values));
+        } else if (canSpecializeToString(values)) {
+            return new StringSequenceStorage(specializeToString(values));
         } else {
             return new ObjectSequenceStorage(values);
         }
@@ -70,6 +74,8 @@ public abstract class SequenceStorageFactory {
             return new DoubleSequenceStorage(len);
         } else if (baseValue instanceof Boolean) {
             return new BoolSequenceStorage(len);
+        } else if (baseValue instanceof TruffleString) {
+            return new StringSequenceStorage(len);
         } else {
             return new ObjectSequenceStorage(len);
         }
@@ -175,4 +181,24 @@ public abstract class SequenceStorageFactory {
 
         return bools;
     }
+
+    private static boolean canSpecializeToString(Object[] values) {
+        for (Object item : values) {
+            if (!(item instanceof TruffleString)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static TruffleString[] specializeToString(Object[] values) {
+        final TruffleString[] strings = new TruffleString[values.length];
+
+        for (int i = 0; i < values.length; i++) {
+            strings[i] = (TruffleString) values[i];
+        }
+
+        return strings;
+    }
 }
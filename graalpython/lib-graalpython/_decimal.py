@@ -0,0 +1,80 @@
+# Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+# The _decimal module is the code of _pydecimal run in this namespace. Its Decimal class is
+# replaced by a subclass of the Java type _DecimalBase, which implements the construction,
+# arithmetic, comparisons, quantize and formatting of finite values. All other methods, the
+# contexts and the signals are the ones of _pydecimal, and since they look up Decimal and
+# _dec_from_triple in this namespace, they work on the Java decimals.
+
+import importlib.util as _importlib_util
+
+_java_dec_from_triple = _dec_from_triple
+
+exec(_importlib_util.find_spec('_pydecimal').loader.get_code('_pydecimal'), globals())
+
+_PyDecimal = Decimal
+
+
+def _decimal_namespace():
+    ns = {name: value for name, value in _PyDecimal.__dict__.items()
+          if name not in _DecimalBase.__dict__ and name not in ('__slots__', '__dict__', '__weakref__')}
+    ns['__slots__'] = ()
+    ns['__module__'] = 'decimal'
+    ns['__doc__'] = _PyDecimal.__doc__
+    return ns
+
+
+Decimal = type('Decimal', (_DecimalBase,), _decimal_namespace())
+_dec_from_triple = _java_dec_from_triple
+_numbers.Number.register(Decimal)
+
+# the constants of _pydecimal were created with its own Decimal class
+_Infinity = Decimal('Inf')
+_NegativeInfinity = Decimal('-Inf')
+_NaN = Decimal('NaN')
+_Zero = Decimal(0)
+_One = Decimal(1)
+_NegativeOne = Decimal(-1)
+_SignedInfinity = (_Infinity, _NegativeInfinity)
+
+# _pydecimal sets the module name to 'decimal' for pickling
+__name__ = __xname__
+
+del _importlib_util, _java_dec_from_triple, _decimal_namespace
@@ -85,7 +85,15 @@ MICRO_BENCHMARKS = {
     'list-sort-objects': ITER_10 + ['10_000'],
     'list-sort-strings': ITER_10 + ['500_000'],
     'list-sort-keyed': ITER_10 + ['50_000'],
+    'list-sort-keyed-sized': ITER_10 + ['10_000_000'],
+    'heapq-sized': ITER_10 + ['1_000_000'],
+    'bisect-sized': ITER_10 + ['1_000_000'],
+    'pickle-sized': ITER_10 + ['200_000'],
+    'datetime-sized': ITER_10 + ['200_000'],
+    'decimal-sized': ITER_10 + ['100_000'],
+    'pydecimal-sized': ITER_10 + ['100_000'],
     'dict-getitem-sized': ITER_10 + ['50_000_000'],
+    'dict-churn-sized': ITER_10 + ['10_000_000'],
     'math-sqrt': ITER_10 + ['500000000'],
     'object-allocate': ITER_10 + ['5000'],
     'object-layout-change': ITER_10 + ['1000000'],
@@ -136,7 +144,15 @@ MICRO_BENCHMARKS_SMALL = {
     'list-iterating': ITER_6 + WARMUP_2 + ['25_000'],
     'list-iterating-obj-sized': ITER_6 + WARMUP_2 + ['1_000_000'],
     'list-constructions-sized': ITER_6 + WARMUP_2 + ['500'],
+    'list-sort-keyed-sized': ITER_6 + WARMUP_2 + ['100_000'],
+    'pickle-sized': ITER_6 + WARMUP_2 + ['20_000'],
+    'datetime-sized': ITER_6 + WARMUP_2 + ['20_000'],
+    'decimal-sized': ITER_6 + WARMUP_2 + ['10_000'],
+    'pydecimal-sized': ITER_6 + WARMUP_2 + ['10_000'],
+    'heapq-sized': ITER_6 + WARMUP_2 + ['100_000'],
+    'bisect-sized': ITER_6 + WARMUP_2 + ['100_000'],
     'dict-getitem-sized': ITER_6 + WARMUP_2 + ['1_000_000'],
+    'dict-churn-sized': ITER_6 + WARMUP_2 + ['500_000'],
     'math-sqrt': ITER_6 + WARMUP_2 + ['20_000_000'],
     'object-allocate': ITER_6 + WARMUP_2 + ['50'],
     'object-layout-change': ITER_6 + WARMUP_2 + ['10_000'],